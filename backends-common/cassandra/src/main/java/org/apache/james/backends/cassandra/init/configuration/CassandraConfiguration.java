@@ -21,11 +21,14 @@ package org.apache.james.backends.cassandra.init.configuration;
 
 import static java.lang.Math.toIntExact;
 
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.configuration2.Configuration;
+import org.apache.james.util.DurationParser;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
@@ -54,15 +57,18 @@ public class CassandraConfiguration {
     private static final String FETCH_ADVANCE_ROW_COUNT = "fetch.advance.row.count";
     private static final String CHUNK_SIZE_MESSAGE_READ = "chunk.size.message.read";
     private static final String CHUNK_SIZE_EXPUNGE = "chunk.size.expunge";
+    private static final String CHUNK_SIZE_FLAGS_UPDATE = "chunk.size.flags.update";
     private static final String BLOB_PART_SIZE = "mailbox.blob.part.size";
     private static final String ATTACHMENT_V2_MIGRATION_READ_TIMEOUT = "attachment.v2.migration.read.timeout";
     private static final String MESSAGE_ATTACHMENTID_READ_TIMEOUT = "message.attachmentids.read.timeout";
+    private static final String TASK_FINISHED_DETAILS_RETENTION = "task.finished.details.retention";
 
     public static final CassandraConfiguration DEFAULT_CONFIGURATION = builder().build();
 
     public static class Builder {
         private Optional<Integer> messageReadChunkSize = Optional.empty();
         private Optional<Integer> expungeChunkSize = Optional.empty();
+        private Optional<Integer> flagsUpdateChunkSize = Optional.empty();
         private Optional<Integer> flagsUpdateMessageIdMaxRetry = Optional.empty();
         private Optional<Integer> flagsUpdateMessageMaxRetry = Optional.empty();
         private Optional<Integer> modSeqMaxRetry = Optional.empty();
@@ -72,6 +78,7 @@ public class CassandraConfiguration {
         private Optional<Integer> blobPartSize = Optional.empty();
         private Optional<Integer> attachmentV2MigrationReadTimeout = Optional.empty();
         private Optional<Integer> messageAttachmentIdsReadTimeout = Optional.empty();
+        private Optional<Duration> finishedTaskDetailsRetention = Optional.empty();
 
         public Builder messageReadChunkSize(int value) {
             Preconditions.checkArgument(value > 0, "messageReadChunkSize needs to be strictly positive");
@@ -85,6 +92,12 @@ public class CassandraConfiguration {
             return this;
         }
 
+        public Builder flagsUpdateChunkSize(int value) {
+            Preconditions.checkArgument(value > 0, "flagsUpdateChunkSize needs to be strictly positive");
+            this.flagsUpdateChunkSize = Optional.of(value);
+            return this;
+        }
+
         public Builder flagsUpdateMessageIdMaxRetry(int value) {
             Preconditions.checkArgument(value > 0, "flagsUpdateMessageIdMaxRetry needs to be strictly positive");
             this.flagsUpdateMessageIdMaxRetry = Optional.of(value);
@@ -139,6 +152,13 @@ public class CassandraConfiguration {
             return this;
         }
 
+        public Builder finishedTaskDetailsRetention(Duration value) {
+            Preconditions.checkArgument(!value.isNegative() && !value.isZero(), "finishedTaskDetailsRetention needs to be strictly positive");
+            Preconditions.checkArgument(value.getSeconds() <= Integer.MAX_VALUE, "finishedTaskDetailsRetention needs to fit a Cassandra TTL");
+            this.finishedTaskDetailsRetention = Optional.of(value);
+            return this;
+        }
+
         public Builder messageReadChunkSize(Optional<Integer> value) {
             value.ifPresent(this::messageReadChunkSize);
             return this;
@@ -149,6 +169,11 @@ public class CassandraConfiguration {
             return this;
         }
 
+        public Builder flagsUpdateChunkSize(Optional<Integer> value) {
+            value.ifPresent(this::flagsUpdateChunkSize);
+            return this;
+        }
+
         public Builder flagsUpdateMessageIdMaxRetry(Optional<Integer> value) {
             value.ifPresent(this::flagsUpdateMessageIdMaxRetry);
             return this;
@@ -194,10 +219,16 @@ public class CassandraConfiguration {
             return this;
         }
 
+        public Builder finishedTaskDetailsRetention(Optional<Duration> value) {
+            value.ifPresent(this::finishedTaskDetailsRetention);
+            return this;
+        }
+
         public CassandraConfiguration build() {
             return new CassandraConfiguration(aclMaxRetry.orElse(DEFAULT_ACL_MAX_RETRY),
                 messageReadChunkSize.orElse(DEFAULT_MESSAGE_CHUNK_SIZE_ON_READ),
                 expungeChunkSize.orElse(DEFAULT_EXPUNGE_BATCH_SIZE),
+                flagsUpdateChunkSize.orElse(DEFAULT_UPDATE_FLAGS_BATCH_SIZE),
                 flagsUpdateMessageIdMaxRetry.orElse(DEFAULT_FLAGS_UPDATE_MESSAGE_ID_MAX_RETRY),
                 flagsUpdateMessageMaxRetry.orElse(DEFAULT_FLAGS_UPDATE_MESSAGE_MAX_RETRY),
                 modSeqMaxRetry.orElse(DEFAULT_MODSEQ_MAX_RETRY),
@@ -205,7 +236,8 @@ public class CassandraConfiguration {
                 fetchNextPageInAdvanceRow.orElse(DEFAULT_FETCH_NEXT_PAGE_ADVANCE_IN_ROW),
                 blobPartSize.orElse(DEFAULT_BLOB_PART_SIZE),
                 attachmentV2MigrationReadTimeout.orElse(DEFAULT_ATTACHMENT_V2_MIGRATION_READ_TIMEOUT),
-                messageAttachmentIdsReadTimeout.orElse(DEFAULT_MESSAGE_ATTACHMENT_ID_MIGRATION_READ_TIMEOUT));
+                messageAttachmentIdsReadTimeout.orElse(DEFAULT_MESSAGE_ATTACHMENT_ID_MIGRATION_READ_TIMEOUT),
+                finishedTaskDetailsRetention);
         }
     }
 
@@ -231,17 +263,23 @@ public class CassandraConfiguration {
                 propertiesConfiguration.getInteger(CHUNK_SIZE_MESSAGE_READ, null)))
             .expungeChunkSize(Optional.ofNullable(
                 propertiesConfiguration.getInteger(CHUNK_SIZE_EXPUNGE, null)))
+            .flagsUpdateChunkSize(Optional.ofNullable(
+                propertiesConfiguration.getInteger(CHUNK_SIZE_FLAGS_UPDATE, null)))
             .blobPartSize(Optional.ofNullable(
                 propertiesConfiguration.getInteger(BLOB_PART_SIZE, null)))
             .attachmentV2MigrationReadTimeout(Optional.ofNullable(
                 propertiesConfiguration.getInteger(ATTACHMENT_V2_MIGRATION_READ_TIMEOUT, null)))
             .messageAttachmentIdsReadTimeout(Optional.ofNullable(
                 propertiesConfiguration.getInteger(MESSAGE_ATTACHMENTID_READ_TIMEOUT, null)))
+            .finishedTaskDetailsRetention(Optional.ofNullable(
+                propertiesConfiguration.getString(TASK_FINISHED_DETAILS_RETENTION, null))
+                .map(value -> DurationParser.parse(value, ChronoUnit.DAYS)))
             .build();
     }
 
     private final int messageReadChunkSize;
     private final int expungeChunkSize;
+    private final int flagsUpdateChunkSize;
     private final int flagsUpdateMessageIdMaxRetry;
     private final int flagsUpdateMessageMaxRetry;
     private final int modSeqMaxRetry;
@@ -251,15 +289,18 @@ public class CassandraConfiguration {
     private final int blobPartSize;
     private final int attachmentV2MigrationReadTimeout;
     private final int messageAttachmentIdsReadTimeout;
+    private final Optional<Duration> finishedTaskDetailsRetention;
 
     @VisibleForTesting
-    CassandraConfiguration(int aclMaxRetry, int messageReadChunkSize, int expungeChunkSize,
+    CassandraConfiguration(int aclMaxRetry, int messageReadChunkSize, int expungeChunkSize, int flagsUpdateChunkSize,
                            int flagsUpdateMessageIdMaxRetry, int flagsUpdateMessageMaxRetry,
                            int modSeqMaxRetry, int uidMaxRetry, int fetchNextPageInAdvanceRow,
-                           int blobPartSize, final int attachmentV2MigrationReadTimeout, int messageAttachmentIdsReadTimeout) {
+                           int blobPartSize, final int attachmentV2MigrationReadTimeout, int messageAttachmentIdsReadTimeout,
+                           Optional<Duration> finishedTaskDetailsRetention) {
         this.aclMaxRetry = aclMaxRetry;
         this.messageReadChunkSize = messageReadChunkSize;
         this.expungeChunkSize = expungeChunkSize;
+        this.flagsUpdateChunkSize = flagsUpdateChunkSize;
         this.flagsUpdateMessageIdMaxRetry = flagsUpdateMessageIdMaxRetry;
         this.flagsUpdateMessageMaxRetry = flagsUpdateMessageMaxRetry;
         this.modSeqMaxRetry = modSeqMaxRetry;
@@ -268,6 +309,7 @@ public class CassandraConfiguration {
         this.blobPartSize = blobPartSize;
         this.attachmentV2MigrationReadTimeout = attachmentV2MigrationReadTimeout;
         this.messageAttachmentIdsReadTimeout = messageAttachmentIdsReadTimeout;
+        this.finishedTaskDetailsRetention = finishedTaskDetailsRetention;
     }
 
     public int getBlobPartSize() {
@@ -286,6 +328,10 @@ public class CassandraConfiguration {
         return expungeChunkSize;
     }
 
+    public int getFlagsUpdateChunkSize() {
+        return flagsUpdateChunkSize;
+    }
+
     public int getFlagsUpdateMessageIdMaxRetry() {
         return flagsUpdateMessageIdMaxRetry;
     }
@@ -314,6 +360,10 @@ public class CassandraConfiguration {
         return messageAttachmentIdsReadTimeout;
     }
 
+    public Optional<Duration> getFinishedTaskDetailsRetention() {
+        return finishedTaskDetailsRetention;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof CassandraConfiguration) {
@@ -322,6 +372,7 @@ public class CassandraConfiguration {
             return Objects.equals(this.aclMaxRetry, that.aclMaxRetry)
                 && Objects.equals(this.messageReadChunkSize, that.messageReadChunkSize)
                 && Objects.equals(this.expungeChunkSize, that.expungeChunkSize)
+                && Objects.equals(this.flagsUpdateChunkSize, that.flagsUpdateChunkSize)
                 && Objects.equals(this.flagsUpdateMessageIdMaxRetry, that.flagsUpdateMessageIdMaxRetry)
                 && Objects.equals(this.flagsUpdateMessageMaxRetry, that.flagsUpdateMessageMaxRetry)
                 && Objects.equals(this.modSeqMaxRetry, that.modSeqMaxRetry)
@@ -329,16 +380,17 @@ public class CassandraConfiguration {
                 && Objects.equals(this.fetchNextPageInAdvanceRow, that.fetchNextPageInAdvanceRow)
                 && Objects.equals(this.blobPartSize, that.blobPartSize)
                 && Objects.equals(this.attachmentV2MigrationReadTimeout, that.attachmentV2MigrationReadTimeout)
-                && Objects.equals(this.messageAttachmentIdsReadTimeout, that.messageAttachmentIdsReadTimeout);
+                && Objects.equals(this.messageAttachmentIdsReadTimeout, that.messageAttachmentIdsReadTimeout)
+                && Objects.equals(this.finishedTaskDetailsRetention, that.finishedTaskDetailsRetention);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(aclMaxRetry, messageReadChunkSize, expungeChunkSize, flagsUpdateMessageIdMaxRetry,
+        return Objects.hash(aclMaxRetry, messageReadChunkSize, expungeChunkSize, flagsUpdateChunkSize, flagsUpdateMessageIdMaxRetry,
             flagsUpdateMessageMaxRetry, modSeqMaxRetry, uidMaxRetry, fetchNextPageInAdvanceRow,
-            blobPartSize, attachmentV2MigrationReadTimeout, messageAttachmentIdsReadTimeout);
+            blobPartSize, attachmentV2MigrationReadTimeout, messageAttachmentIdsReadTimeout, finishedTaskDetailsRetention);
     }
 
     @Override
@@ -347,6 +399,7 @@ public class CassandraConfiguration {
             .add("aclMaxRetry", aclMaxRetry)
             .add("messageReadChunkSize", messageReadChunkSize)
             .add("expungeChunkSize", expungeChunkSize)
+            .add("flagsUpdateChunkSize", flagsUpdateChunkSize)
             .add("flagsUpdateMessageIdMaxRetry", flagsUpdateMessageIdMaxRetry)
             .add("flagsUpdateMessageMaxRetry", flagsUpdateMessageMaxRetry)
             .add("modSeqMaxRetry", modSeqMaxRetry)
@@ -355,6 +408,7 @@ public class CassandraConfiguration {
             .add("blobPartSize", blobPartSize)
             .add("attachmentV2MigrationReadTimeout", attachmentV2MigrationReadTimeout)
             .add("messageAttachmentIdsReadTimeout", messageAttachmentIdsReadTimeout)
+            .add("finishedTaskDetailsRetention", finishedTaskDetailsRetention)
             .toString();
     }
 }
@@ -19,10 +19,12 @@
 
 package org.apache.james.backends.cassandra.utils;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import javax.inject.Inject;
 
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
@@ -58,6 +60,19 @@ public class CassandraAsyncExecutor {
                 .then();
     }
 
+    /**
+     * Groups the given statements in a single unlogged batch. Callers are expected to only group statements
+     * targeting the same partition, for which the batch is applied as a single mutation.
+     */
+    public Mono<Void> executeVoidUnloggedBatch(Collection<? extends Statement> statements) {
+        if (statements.isEmpty()) {
+            return Mono.empty();
+        }
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        statements.forEach(batch::add);
+        return executeVoid(batch);
+    }
+
     public Mono<Row> executeSingleRow(Statement statement) {
         return executeSingleRowOptional(statement)
                 .handle((t, sink) -> t.ifPresent(sink::next));
@@ -0,0 +1,99 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.cassandra.utils;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.ttl;
+import static org.apache.james.backends.cassandra.utils.table.TokenRangeCheckpointTable.SCAN_NAME;
+import static org.apache.james.backends.cassandra.utils.table.TokenRangeCheckpointTable.TABLE_NAME;
+import static org.apache.james.backends.cassandra.utils.table.TokenRangeCheckpointTable.TOKEN_RANGE;
+
+import java.time.Duration;
+
+import javax.inject.Inject;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.google.common.primitives.Ints;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Checkpoints expire after {@link #CHECKPOINT_TTL}, so that the ones of abandoned scans do not pile up.
+ */
+public class TokenRangeCheckpointDAO {
+    public static final Duration CHECKPOINT_TTL = Duration.ofDays(7);
+    private static final String TTL = "ttl";
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final PreparedStatement insert;
+    private final PreparedStatement select;
+    private final PreparedStatement delete;
+
+    @Inject
+    public TokenRangeCheckpointDAO(Session session) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.insert = prepareInsert(session);
+        this.select = prepareSelect(session);
+        this.delete = prepareDelete(session);
+    }
+
+    private PreparedStatement prepareInsert(Session session) {
+        return session.prepare(insertInto(TABLE_NAME)
+            .value(SCAN_NAME, bindMarker(SCAN_NAME))
+            .value(TOKEN_RANGE, bindMarker(TOKEN_RANGE))
+            .using(ttl(bindMarker(TTL))));
+    }
+
+    private PreparedStatement prepareSelect(Session session) {
+        return session.prepare(select(TOKEN_RANGE)
+            .from(TABLE_NAME)
+            .where(eq(SCAN_NAME, bindMarker(SCAN_NAME))));
+    }
+
+    private PreparedStatement prepareDelete(Session session) {
+        return session.prepare(delete()
+            .from(TABLE_NAME)
+            .where(eq(SCAN_NAME, bindMarker(SCAN_NAME))));
+    }
+
+    public Mono<Void> addCheckpoint(String scanName, String tokenRange) {
+        return cassandraAsyncExecutor.executeVoid(insert.bind()
+            .setString(SCAN_NAME, scanName)
+            .setString(TOKEN_RANGE, tokenRange)
+            .setInt(TTL, Ints.checkedCast(CHECKPOINT_TTL.getSeconds())));
+    }
+
+    public Flux<String> retrieveCheckpoints(String scanName) {
+        return cassandraAsyncExecutor.executeRows(select.bind()
+                .setString(SCAN_NAME, scanName))
+            .map(row -> row.getString(TOKEN_RANGE));
+    }
+
+    public Mono<Void> clearCheckpoints(String scanName) {
+        return cassandraAsyncExecutor.executeVoid(delete.bind()
+            .setString(SCAN_NAME, scanName));
+    }
+}
@@ -0,0 +1,34 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.cassandra.utils;
+
+import static com.datastax.driver.core.DataType.text;
+
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.backends.cassandra.utils.table.TokenRangeCheckpointTable;
+
+public interface TokenRangeCheckpointModule {
+    CassandraModule MODULE = CassandraModule.table(TokenRangeCheckpointTable.TABLE_NAME)
+        .comment("Holds the token ranges already scanned by an interrupted token range scan, so that it can be resumed.")
+        .statement(statement -> statement
+            .addPartitionKey(TokenRangeCheckpointTable.SCAN_NAME, text())
+            .addClusteringColumn(TokenRangeCheckpointTable.TOKEN_RANGE, text()))
+        .build();
+}
@@ -0,0 +1,241 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.cassandra.utils;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gt;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.token;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+
+import org.reactivestreams.Publisher;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TokenRange;
+import com.datastax.driver.core.querybuilder.Select;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.RateLimiter;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Scans a table by splitting the token ring into ranges, that are read concurrently instead of relying on a single
+ * sequential full table read. This allows to spread the load of a scan on all the coordinators of the cluster.
+ *
+ * Scanned ranges are reported once all their rows had been processed, so that callers can checkpoint them and skip
+ * them upon resume. {@link #resumableScan(String, Function, Function, RunningOptions)} persists these checkpoints in
+ * Cassandra, for {@link TokenRangeCheckpointDAO#CHECKPOINT_TTL}. Note that the token ranges depend on the cluster
+ * topology: checkpoints recorded before a topology change would not match anymore, and the corresponding ranges would
+ * be scanned again.
+ */
+public class TokenRangeScanner {
+    public static final String START_TOKEN = "startToken";
+    public static final String END_TOKEN = "endToken";
+
+    public static class RunningOptions {
+        public static final int DEFAULT_PARALLELISM = 4;
+        public static final int DEFAULT_SPLITS_PER_RANGE = 1;
+        public static final RunningOptions DEFAULT = new RunningOptions(DEFAULT_PARALLELISM, DEFAULT_SPLITS_PER_RANGE, Optional.empty());
+
+        public static RunningOptions of(Optional<Integer> parallelism, Optional<Integer> splitsPerRange, Optional<Integer> rowsPerSecond) {
+            return new RunningOptions(parallelism.orElse(DEFAULT_PARALLELISM), splitsPerRange.orElse(DEFAULT_SPLITS_PER_RANGE), rowsPerSecond);
+        }
+
+        private final int parallelism;
+        private final int splitsPerRange;
+        private final Optional<Integer> rowsPerSecond;
+
+        private RunningOptions(int parallelism, int splitsPerRange, Optional<Integer> rowsPerSecond) {
+            Preconditions.checkArgument(parallelism > 0, "'parallelism' needs to be strictly positive");
+            Preconditions.checkArgument(splitsPerRange > 0, "'splitsPerRange' needs to be strictly positive");
+            rowsPerSecond.ifPresent(rate -> Preconditions.checkArgument(rate > 0, "'rowsPerSecond' needs to be strictly positive"));
+
+            this.parallelism = parallelism;
+            this.splitsPerRange = splitsPerRange;
+            this.rowsPerSecond = rowsPerSecond;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public int getSplitsPerRange() {
+            return splitsPerRange;
+        }
+
+        public Optional<Integer> getRowsPerSecond() {
+            return rowsPerSecond;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof RunningOptions) {
+                RunningOptions that = (RunningOptions) o;
+
+                return Objects.equals(this.parallelism, that.parallelism)
+                    && Objects.equals(this.splitsPerRange, that.splitsPerRange)
+                    && Objects.equals(this.rowsPerSecond, that.rowsPerSecond);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(parallelism, splitsPerRange, rowsPerSecond);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("parallelism", parallelism)
+                .add("splitsPerRange", splitsPerRange)
+                .add("rowsPerSecond", rowsPerSecond)
+                .toString();
+        }
+    }
+
+    /**
+     * Restricts the given select to the token range bound with {@link #bindTokenRange(BoundStatement, TokenRange)}.
+     */
+    public static Select.Where inTokenRange(Select select, String... partitionKeyColumns) {
+        return select.where(gt(token(partitionKeyColumns), bindMarker(START_TOKEN)))
+            .and(lte(token(partitionKeyColumns), bindMarker(END_TOKEN)));
+    }
+
+    public static BoundStatement bindTokenRange(BoundStatement statement, TokenRange tokenRange) {
+        return statement
+            .setToken(START_TOKEN, tokenRange.getStart())
+            .setToken(END_TOKEN, tokenRange.getEnd());
+    }
+
+    /**
+     * Checkpoint representation of a token range, as expected by
+     * {@link #scan(Function, Function, RunningOptions, Set)}.
+     */
+    public static String asString(TokenRange tokenRange) {
+        return tokenRange.getStart() + ":" + tokenRange.getEnd();
+    }
+
+    private final Session session;
+    private final TokenRangeCheckpointDAO checkpointDAO;
+
+    @Inject
+    public TokenRangeScanner(Session session, TokenRangeCheckpointDAO checkpointDAO) {
+        this.session = session;
+        this.checkpointDAO = checkpointDAO;
+    }
+
+    /**
+     * Token ranges of the ring, each split in 'splitsPerRange' sub ranges. Ranges are unwrapped so that each of them
+     * can be expressed as a single CQL token restriction.
+     */
+    public List<TokenRange> tokenRanges(int splitsPerRange) {
+        return session.getCluster().getMetadata().getTokenRanges()
+            .stream()
+            .flatMap(range -> range.splitEvenly(splitsPerRange).stream())
+            .flatMap(range -> range.unwrap().stream())
+            .sorted()
+            .collect(Guavate.toImmutableList());
+    }
+
+    /**
+     * Reads the rows of each token range with 'rangeReader', then applies 'operation' to them. Rows of a token range
+     * are processed sequentially, while up to 'parallelism' token ranges are processed concurrently. The optional rate
+     * applies to the whole scan.
+     *
+     * @param alreadyScanned checkpoints of the token ranges to be skipped, see {@link #asString(TokenRange)}
+     * @return the token ranges which rows had all been processed, as they complete
+     */
+    public <T> Flux<TokenRange> scan(Function<TokenRange, Flux<T>> rangeReader, Function<T, Publisher<?>> operation,
+                                     RunningOptions runningOptions, Set<String> alreadyScanned) {
+        Optional<RateLimiter> rateLimiter = runningOptions.getRowsPerSecond().map(RateLimiter::create);
+
+        return Flux.fromIterable(tokenRanges(runningOptions.getSplitsPerRange()))
+            .filter(tokenRange -> !alreadyScanned.contains(asString(tokenRange)))
+            .flatMap(tokenRange -> scanTokenRange(tokenRange, rangeReader, operation, rateLimiter)
+                .then(Mono.just(tokenRange)), runningOptions.getParallelism());
+    }
+
+    public <T> Flux<TokenRange> scan(Function<TokenRange, Flux<T>> rangeReader, Function<T, Publisher<?>> operation,
+                                     RunningOptions runningOptions) {
+        return scan(rangeReader, operation, runningOptions, ImmutableSet.of());
+    }
+
+    /**
+     * Scans like {@link #scan(Function, Function, RunningOptions, Set)}, skipping the token ranges checkpointed by a
+     * previous interrupted scan with the same 'scanName'. Callers wishing to start over should thus use a new
+     * 'scanName'.
+     *
+     * 'operation' emits false when a row could not be processed. Token ranges whose rows were all processed are
+     * checkpointed, the other ones are not so that they are scanned again upon resume. Checkpoints are cleared once the
+     * scan completes without failure.
+     *
+     * Two scans sharing the same 'scanName' should not run concurrently.
+     *
+     * @return the token ranges which rows had all been successfully processed, as they complete
+     */
+    public <T> Flux<TokenRange> resumableScan(String scanName, Function<TokenRange, Flux<T>> rangeReader,
+                                              Function<T, Mono<Boolean>> operation, RunningOptions runningOptions) {
+        Optional<RateLimiter> rateLimiter = runningOptions.getRowsPerSecond().map(RateLimiter::create);
+        AtomicBoolean hasFailures = new AtomicBoolean(false);
+
+        return checkpointDAO.retrieveCheckpoints(scanName)
+            .collect(Guavate.toImmutableSet())
+            .flatMapMany(alreadyScanned -> Flux.fromIterable(tokenRanges(runningOptions.getSplitsPerRange()))
+                .filter(tokenRange -> !alreadyScanned.contains(asString(tokenRange))))
+            .flatMap(tokenRange -> scanTokenRange(tokenRange, rangeReader, operation, rateLimiter)
+                .all(Boolean::booleanValue)
+                .flatMap(success -> {
+                    if (success) {
+                        return checkpointDAO.addCheckpoint(scanName, asString(tokenRange))
+                            .thenReturn(tokenRange);
+                    }
+                    hasFailures.set(true);
+                    return Mono.empty();
+                }), runningOptions.getParallelism())
+            .concatWith(Mono.defer(() -> {
+                if (hasFailures.get()) {
+                    return Mono.empty();
+                }
+                return checkpointDAO.clearCheckpoints(scanName)
+                    .then(Mono.empty());
+            }));
+    }
+
+    private <T, R> Flux<R> scanTokenRange(TokenRange tokenRange, Function<TokenRange, Flux<T>> rangeReader,
+                                          Function<T, ? extends Publisher<? extends R>> operation, Optional<RateLimiter> rateLimiter) {
+        return rangeReader.apply(tokenRange)
+            .doOnNext(any -> rateLimiter.ifPresent(RateLimiter::acquire))
+            .concatMap(operation);
+    }
+}
@@ -25,6 +25,7 @@ import java.util.stream.Stream;
 
 import org.testcontainers.shaded.com.google.common.collect.ImmutableList;
 
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
@@ -69,6 +70,11 @@ public class Scenario {
                         .getQueryString()
                         .startsWith(queryStringPrefix);
                 }
+                if (statement instanceof BatchStatement) {
+                    return ((BatchStatement) statement).getStatements()
+                        .stream()
+                        .anyMatch(this::test);
+                }
                 return false;
             }
         }
@@ -22,6 +22,8 @@ package org.apache.james.backends.cassandra.init;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.time.Duration;
+
 import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.Test;
@@ -70,6 +72,20 @@ class CassandraConfigurationTest {
             .isInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    void flagsUpdateChunkSizeShouldThrowOnNegativeValue() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .flagsUpdateChunkSize(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void flagsUpdateChunkSizeShouldThrowOnZero() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .flagsUpdateChunkSize(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     void messageReadChunkSizeShouldThrowOnNegativeValue() {
         assertThatThrownBy(() -> CassandraConfiguration.builder()
@@ -182,6 +198,33 @@ class CassandraConfigurationTest {
             .isInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    void finishedTaskDetailsRetentionShouldThrowOnZero() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .finishedTaskDetailsRetention(Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void finishedTaskDetailsRetentionShouldThrowOnNegativeValue() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .finishedTaskDetailsRetention(Duration.ofDays(-1)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void finishedTaskDetailsRetentionShouldThrowWhenExceedingCassandraTtl() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .finishedTaskDetailsRetention(Duration.ofSeconds(Integer.MAX_VALUE + 1L)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void finishedTaskDetailsRetentionShouldBeEmptyByDefault() {
+        assertThat(CassandraConfiguration.DEFAULT_CONFIGURATION.getFinishedTaskDetailsRetention())
+            .isEmpty();
+    }
+
     @Test
     void builderShouldCreateTheRightObject() {
         int aclMaxRetry = 1;
@@ -192,9 +235,11 @@ class CassandraConfigurationTest {
         int flagsUpdateMessageIdMaxRetry = 6;
         int messageReadChunkSize = 8;
         int expungeChunkSize = 9;
+        int flagsUpdateChunkSize = 14;
         int blobPartSize = 10;
         int attachmentV2MigrationReadTimeout = 11;
         int messageAttachmentIdReadTimeout = 12;
+        Duration finishedTaskDetailsRetention = Duration.ofDays(13);
 
         CassandraConfiguration configuration = CassandraConfiguration.builder()
             .aclMaxRetry(aclMaxRetry)
@@ -205,9 +250,11 @@ class CassandraConfigurationTest {
             .flagsUpdateMessageIdMaxRetry(flagsUpdateMessageIdMaxRetry)
             .messageReadChunkSize(messageReadChunkSize)
             .expungeChunkSize(expungeChunkSize)
+            .flagsUpdateChunkSize(flagsUpdateChunkSize)
             .blobPartSize(blobPartSize)
             .attachmentV2MigrationReadTimeout(attachmentV2MigrationReadTimeout)
             .messageAttachmentIdsReadTimeout(messageAttachmentIdReadTimeout)
+            .finishedTaskDetailsRetention(finishedTaskDetailsRetention)
             .build();
 
         SoftAssertions.assertSoftly(softly -> {
@@ -219,9 +266,11 @@ class CassandraConfigurationTest {
             softly.assertThat(configuration.getFlagsUpdateMessageIdMaxRetry()).isEqualTo(flagsUpdateMessageIdMaxRetry);
             softly.assertThat(configuration.getMessageReadChunkSize()).isEqualTo(messageReadChunkSize);
             softly.assertThat(configuration.getExpungeChunkSize()).isEqualTo(expungeChunkSize);
+            softly.assertThat(configuration.getFlagsUpdateChunkSize()).isEqualTo(flagsUpdateChunkSize);
             softly.assertThat(configuration.getBlobPartSize()).isEqualTo(blobPartSize);
             softly.assertThat(configuration.getAttachmentV2MigrationReadTimeout()).isEqualTo(attachmentV2MigrationReadTimeout);
             softly.assertThat(configuration.getMessageAttachmentIdsReadTimeout()).isEqualTo(messageAttachmentIdReadTimeout);
+            softly.assertThat(configuration.getFinishedTaskDetailsRetention()).contains(finishedTaskDetailsRetention);
         });
     }
 
@@ -0,0 +1,90 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.cassandra.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class TokenRangeCheckpointDAOTest {
+    private static final String SCAN_NAME = "scan";
+    private static final String OTHER_SCAN_NAME = "other";
+    private static final String RANGE_1 = "-9223372036854775808:0";
+    private static final String RANGE_2 = "0:9223372036854775807";
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(TokenRangeCheckpointModule.MODULE);
+
+    private TokenRangeCheckpointDAO testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new TokenRangeCheckpointDAO(cassandra.getConf());
+    }
+
+    @Test
+    void retrieveCheckpointsShouldReturnEmptyByDefault() {
+        assertThat(testee.retrieveCheckpoints(SCAN_NAME).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void retrieveCheckpointsShouldReturnAddedCheckpoints() {
+        testee.addCheckpoint(SCAN_NAME, RANGE_1).block();
+        testee.addCheckpoint(SCAN_NAME, RANGE_2).block();
+
+        assertThat(testee.retrieveCheckpoints(SCAN_NAME).collectList().block())
+            .containsOnly(RANGE_1, RANGE_2);
+    }
+
+    @Test
+    void retrieveCheckpointsShouldNotReturnCheckpointsOfOtherScans() {
+        testee.addCheckpoint(OTHER_SCAN_NAME, RANGE_1).block();
+
+        assertThat(testee.retrieveCheckpoints(SCAN_NAME).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void clearCheckpointsShouldRemoveCheckpoints() {
+        testee.addCheckpoint(SCAN_NAME, RANGE_1).block();
+        testee.addCheckpoint(SCAN_NAME, RANGE_2).block();
+
+        testee.clearCheckpoints(SCAN_NAME).block();
+
+        assertThat(testee.retrieveCheckpoints(SCAN_NAME).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void clearCheckpointsShouldNotRemoveCheckpointsOfOtherScans() {
+        testee.addCheckpoint(SCAN_NAME, RANGE_1).block();
+        testee.addCheckpoint(OTHER_SCAN_NAME, RANGE_2).block();
+
+        testee.clearCheckpoints(SCAN_NAME).block();
+
+        assertThat(testee.retrieveCheckpoints(OTHER_SCAN_NAME).collectList().block())
+            .containsOnly(RANGE_2);
+    }
+}
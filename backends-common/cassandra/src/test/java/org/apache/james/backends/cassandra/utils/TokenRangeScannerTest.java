@@ -0,0 +1,276 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.cassandra.utils;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.TokenRange;
+import com.github.steveash.guavate.Guavate;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class TokenRangeScannerTest {
+    private static final String TABLE_NAME = "test";
+    private static final String ID = "id";
+    private static final int ROW_COUNT = 100;
+    private static final String SCAN_NAME = "scan";
+    private static final int FAILING_ROW = 42;
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraModule.aggregateModules(
+        TokenRangeCheckpointModule.MODULE,
+        CassandraModule.table(TABLE_NAME)
+            .comment("Testing table")
+            .statement(statement -> statement
+                .addPartitionKey(ID, DataType.cint()))
+            .build()));
+
+    private CassandraAsyncExecutor executor;
+    private PreparedStatement selectInRange;
+    private TokenRangeCheckpointDAO checkpointDAO;
+    private TokenRangeScanner testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        executor = new CassandraAsyncExecutor(cassandra.getConf());
+        selectInRange = cassandra.getConf().prepare(TokenRangeScanner.inTokenRange(select(ID).from(TABLE_NAME), ID));
+        checkpointDAO = new TokenRangeCheckpointDAO(cassandra.getConf());
+        testee = new TokenRangeScanner(cassandra.getConf(), checkpointDAO);
+
+        Flux.range(0, ROW_COUNT)
+            .flatMap(i -> executor.executeVoid(insertInto(TABLE_NAME).value(ID, i)))
+            .blockLast();
+    }
+
+    private Flux<Integer> readRange(TokenRange tokenRange) {
+        return executor.executeRows(TokenRangeScanner.bindTokenRange(selectInRange.bind(), tokenRange))
+            .map(row -> row.getInt(ID));
+    }
+
+    @Test
+    void scanShouldProcessAllRowsOnce() {
+        ConcurrentLinkedQueue<Integer> processed = new ConcurrentLinkedQueue<>();
+
+        testee.scan(this::readRange, i -> Mono.fromRunnable(() -> processed.add(i)), TokenRangeScanner.RunningOptions.DEFAULT)
+            .blockLast();
+
+        assertThat(processed)
+            .hasSize(ROW_COUNT)
+            .containsOnlyElementsOf(Flux.range(0, ROW_COUNT).toIterable());
+    }
+
+    @Test
+    void scanShouldProcessAllRowsOnceWhenSplittingRanges() {
+        ConcurrentLinkedQueue<Integer> processed = new ConcurrentLinkedQueue<>();
+        TokenRangeScanner.RunningOptions runningOptions = TokenRangeScanner.RunningOptions.of(Optional.of(8), Optional.of(16), Optional.empty());
+
+        testee.scan(this::readRange, i -> Mono.fromRunnable(() -> processed.add(i)), runningOptions)
+            .blockLast();
+
+        assertThat(processed)
+            .hasSize(ROW_COUNT)
+            .containsOnlyElementsOf(Flux.range(0, ROW_COUNT).toIterable());
+    }
+
+    @Test
+    void scanShouldReturnAllTokenRanges() {
+        List<TokenRange> scannedRanges = testee.scan(this::readRange, i -> Mono.empty(), TokenRangeScanner.RunningOptions.DEFAULT)
+            .collectList()
+            .block();
+
+        assertThat(scannedRanges)
+            .containsOnlyElementsOf(testee.tokenRanges(TokenRangeScanner.RunningOptions.DEFAULT_SPLITS_PER_RANGE))
+            .hasSameSizeAs(testee.tokenRanges(TokenRangeScanner.RunningOptions.DEFAULT_SPLITS_PER_RANGE));
+    }
+
+    @Test
+    void scanShouldSkipAlreadyScannedRanges() {
+        Set<String> allRanges = testee.tokenRanges(TokenRangeScanner.RunningOptions.DEFAULT_SPLITS_PER_RANGE)
+            .stream()
+            .map(TokenRangeScanner::asString)
+            .collect(Guavate.toImmutableSet());
+        ConcurrentLinkedQueue<Integer> processed = new ConcurrentLinkedQueue<>();
+
+        testee.scan(this::readRange, i -> Mono.fromRunnable(() -> processed.add(i)), TokenRangeScanner.RunningOptions.DEFAULT, allRanges)
+            .blockLast();
+
+        assertThat(processed).isEmpty();
+    }
+
+    @Test
+    void scanShouldResumeFromCheckpoints() {
+        ConcurrentLinkedQueue<Integer> processed = new ConcurrentLinkedQueue<>();
+        TokenRangeScanner.RunningOptions runningOptions = TokenRangeScanner.RunningOptions.of(Optional.of(1), Optional.of(16), Optional.empty());
+        Set<String> firstRanges = testee.scan(this::readRange, i -> Mono.fromRunnable(() -> processed.add(i)), runningOptions)
+            .take(8)
+            .map(TokenRangeScanner::asString)
+            .collect(Guavate.toImmutableSet())
+            .block();
+
+        testee.scan(this::readRange, i -> Mono.fromRunnable(() -> processed.add(i)), runningOptions, firstRanges)
+            .blockLast();
+
+        assertThat(processed)
+            .hasSize(ROW_COUNT)
+            .containsOnlyElementsOf(Flux.range(0, ROW_COUNT).toIterable());
+    }
+
+    @Test
+    void scanShouldBeThrottledWhenRowsPerSecondIsSpecified() {
+        TokenRangeScanner.RunningOptions runningOptions = TokenRangeScanner.RunningOptions.of(Optional.of(8), Optional.of(4), Optional.of(50));
+
+        long start = System.nanoTime();
+        testee.scan(this::readRange, i -> Mono.empty(), runningOptions)
+            .blockLast();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(1800));
+    }
+
+    @Test
+    void resumableScanShouldProcessAllRowsOnce() {
+        ConcurrentLinkedQueue<Integer> processed = new ConcurrentLinkedQueue<>();
+
+        testee.resumableScan(SCAN_NAME, this::readRange, i -> Mono.fromRunnable(() -> processed.add(i)), TokenRangeScanner.RunningOptions.DEFAULT)
+            .blockLast();
+
+        assertThat(processed)
+            .hasSize(ROW_COUNT)
+            .containsOnlyElementsOf(Flux.range(0, ROW_COUNT).toIterable());
+    }
+
+    @Test
+    void resumableScanShouldResumeFromPersistedCheckpoints() {
+        ConcurrentLinkedQueue<Integer> processed = new ConcurrentLinkedQueue<>();
+        TokenRangeScanner.RunningOptions runningOptions = TokenRangeScanner.RunningOptions.of(Optional.of(1), Optional.of(16), Optional.empty());
+        testee.resumableScan(SCAN_NAME, this::readRange, i -> Mono.fromRunnable(() -> processed.add(i)), runningOptions)
+            .take(8)
+            .blockLast();
+
+        testee.resumableScan(SCAN_NAME, this::readRange, i -> Mono.fromRunnable(() -> processed.add(i)), runningOptions)
+            .blockLast();
+
+        assertThat(processed)
+            .hasSize(ROW_COUNT)
+            .containsOnlyElementsOf(Flux.range(0, ROW_COUNT).toIterable());
+    }
+
+    @Test
+    void resumableScanShouldClearCheckpointsUponCompletion() {
+        testee.resumableScan(SCAN_NAME, this::readRange, i -> Mono.empty(), TokenRangeScanner.RunningOptions.DEFAULT)
+            .blockLast();
+
+        assertThat(checkpointDAO.retrieveCheckpoints(SCAN_NAME).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void resumableScanShouldScanAgainOnceCompleted() {
+        ConcurrentLinkedQueue<Integer> processed = new ConcurrentLinkedQueue<>();
+        testee.resumableScan(SCAN_NAME, this::readRange, i -> Mono.empty(), TokenRangeScanner.RunningOptions.DEFAULT)
+            .blockLast();
+
+        testee.resumableScan(SCAN_NAME, this::readRange, i -> Mono.fromRunnable(() -> processed.add(i)), TokenRangeScanner.RunningOptions.DEFAULT)
+            .blockLast();
+
+        assertThat(processed).hasSize(ROW_COUNT);
+    }
+
+    @Test
+    void resumableScanShouldNotShareCheckpointsAcrossScanNames() {
+        ConcurrentLinkedQueue<Integer> processed = new ConcurrentLinkedQueue<>();
+        TokenRangeScanner.RunningOptions runningOptions = TokenRangeScanner.RunningOptions.of(Optional.of(1), Optional.of(16), Optional.empty());
+        testee.resumableScan(SCAN_NAME, this::readRange, i -> Mono.empty(), runningOptions)
+            .take(8)
+            .blockLast();
+
+        testee.resumableScan("other", this::readRange, i -> Mono.fromRunnable(() -> processed.add(i)), runningOptions)
+            .blockLast();
+
+        assertThat(processed).hasSize(ROW_COUNT);
+    }
+
+    @Test
+    void resumableScanShouldNotCheckpointRangesWithFailures() {
+        TokenRangeScanner.RunningOptions runningOptions = TokenRangeScanner.RunningOptions.of(Optional.of(1), Optional.of(16), Optional.empty());
+        List<TokenRange> scannedRanges = testee.resumableScan(SCAN_NAME, this::readRange, i -> Mono.just(i != FAILING_ROW), runningOptions)
+            .collectList()
+            .block();
+
+        assertThat(checkpointDAO.retrieveCheckpoints(SCAN_NAME).collectList().block())
+            .hasSize(testee.tokenRanges(16).size() - 1)
+            .containsOnlyElementsOf(scannedRanges.stream()
+                .map(TokenRangeScanner::asString)
+                .collect(Guavate.toImmutableList()));
+    }
+
+    @Test
+    void resumableScanShouldOnlyRescanRangesWithFailures() {
+        TokenRangeScanner.RunningOptions runningOptions = TokenRangeScanner.RunningOptions.of(Optional.of(1), Optional.of(16), Optional.empty());
+        testee.resumableScan(SCAN_NAME, this::readRange, i -> Mono.just(i != FAILING_ROW), runningOptions)
+            .blockLast();
+
+        ConcurrentLinkedQueue<Integer> processed = new ConcurrentLinkedQueue<>();
+        testee.resumableScan(SCAN_NAME, this::readRange, i -> Mono.fromRunnable(() -> processed.add(i)), runningOptions)
+            .blockLast();
+
+        assertThat(processed)
+            .contains(FAILING_ROW)
+            .hasSizeLessThan(ROW_COUNT);
+        assertThat(checkpointDAO.retrieveCheckpoints(SCAN_NAME).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void runningOptionsShouldRejectNonPositiveParallelism() {
+        assertThatThrownBy(() -> TokenRangeScanner.RunningOptions.of(Optional.of(0), Optional.empty(), Optional.empty()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void runningOptionsShouldRejectNonPositiveSplitsPerRange() {
+        assertThatThrownBy(() -> TokenRangeScanner.RunningOptions.of(Optional.empty(), Optional.of(0), Optional.empty()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void runningOptionsShouldRejectNonPositiveRate() {
+        assertThatThrownBy(() -> TokenRangeScanner.RunningOptions.of(Optional.empty(), Optional.empty(), Optional.of(-1)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,76 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.eventsourcing;
+
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+public class TestSnapshot implements Snapshot {
+    private final EventId id;
+    private final TestAggregateId aggregateId;
+    private final String data;
+
+    public TestSnapshot(EventId id, TestAggregateId aggregateId, String data) {
+        this.id = id;
+        this.aggregateId = aggregateId;
+        this.data = data;
+    }
+
+    @Override
+    public EventId eventId() {
+        return id;
+    }
+
+    @Override
+    public TestAggregateId getAggregateId() {
+        return aggregateId;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof TestSnapshot) {
+            TestSnapshot testSnapshot = (TestSnapshot) o;
+
+            return Objects.equals(this.id, testSnapshot.id)
+                && Objects.equals(this.aggregateId, testSnapshot.aggregateId)
+                && Objects.equals(this.data, testSnapshot.data);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(id, aggregateId, data);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("id", id)
+            .add("aggregateId", aggregateId)
+            .add("data", data)
+            .toString();
+    }
+}
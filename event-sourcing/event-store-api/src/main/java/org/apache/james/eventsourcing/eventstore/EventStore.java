@@ -23,7 +23,9 @@ import java.util.List;
 
 import org.apache.james.eventsourcing.AggregateId;
 import org.apache.james.eventsourcing.Event;
+import org.apache.james.eventsourcing.EventId;
 
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
 
 public interface EventStore {
@@ -44,4 +46,16 @@ public interface EventStore {
 
     History getEventsOfAggregate(AggregateId aggregateId);
 
+    /**
+     * Events of the aggregate strictly following snapshotVersion, so that they can be replayed on top of a snapshot.
+     */
+    default History getEventsOfAggregate(AggregateId aggregateId, EventId snapshotVersion) {
+        return History.since(snapshotVersion,
+            getEventsOfAggregate(aggregateId)
+                .getEvents()
+                .stream()
+                .filter(event -> event.eventId().compareTo(snapshotVersion) > 0)
+                .collect(Guavate.toImmutableList()));
+    }
+
 }
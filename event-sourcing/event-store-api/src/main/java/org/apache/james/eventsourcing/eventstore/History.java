@@ -29,27 +29,41 @@ import org.apache.james.eventsourcing.Event;
 import org.apache.james.eventsourcing.EventId;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 
 public class History {
     public static History empty() {
-        return new History(ImmutableList.of());
+        return new History(Optional.empty(), ImmutableList.of());
     }
 
     public static History of(List<Event> events) {
-        return new History(ImmutableList.copyOf(events));
+        return new History(Optional.empty(), ImmutableList.copyOf(events));
     }
 
     public static History of(Event... events) {
         return of(ImmutableList.copyOf(events));
     }
 
+    /**
+     * History holding only the events following a snapshot taken at snapshotVersion.
+     */
+    public static History since(EventId snapshotVersion, List<Event> events) {
+        Preconditions.checkArgument(events.stream()
+                .allMatch(event -> event.eventId().compareTo(snapshotVersion) > 0),
+            "Events need to be posterior to the snapshot version");
+
+        return new History(Optional.of(snapshotVersion), ImmutableList.copyOf(events));
+    }
+
+    private final Optional<EventId> snapshotVersion;
     private final List<Event> events;
 
-    private History(List<Event> events) {
+    private History(Optional<EventId> snapshotVersion, List<Event> events) {
         if (hasEventIdDuplicates(events)) {
             throw new EventStoreFailedException("Event History contains duplicated EventId");
         }
+        this.snapshotVersion = snapshotVersion;
         this.events = events;
     }
 
@@ -62,9 +76,17 @@ public class History {
     }
 
     public Optional<EventId> getVersion() {
-        return events.stream()
+        Optional<EventId> eventsVersion = events.stream()
             .map(Event::eventId)
             .max(Comparator.naturalOrder());
+        if (eventsVersion.isPresent()) {
+            return eventsVersion;
+        }
+        return snapshotVersion;
+    }
+
+    public Optional<EventId> getSnapshotVersion() {
+        return snapshotVersion;
     }
 
     public List<Event> getEvents() {
@@ -82,13 +104,14 @@ public class History {
         if (o instanceof History) {
             History history = (History) o;
 
-            return Objects.equals(this.events, history.events);
+            return Objects.equals(this.snapshotVersion, history.snapshotVersion)
+                && Objects.equals(this.events, history.events);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(events);
+        return Objects.hash(snapshotVersion, events);
     }
 }
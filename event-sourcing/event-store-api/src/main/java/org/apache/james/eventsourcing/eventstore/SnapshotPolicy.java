@@ -0,0 +1,51 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.eventsourcing.eventstore;
+
+import java.util.Optional;
+
+import org.apache.james.eventsourcing.EventId;
+
+import com.google.common.base.Preconditions;
+
+@FunctionalInterface
+public interface SnapshotPolicy {
+
+    static SnapshotPolicy never() {
+        return (snapshotVersion, version) -> false;
+    }
+
+    static SnapshotPolicy everyEvents(int eventCount) {
+        Preconditions.checkArgument(eventCount > 0, "'eventCount' needs to be strictly positive");
+
+        return (snapshotVersion, version) -> {
+            int replayedFrom = snapshotVersion.map(EventId::serialize).orElse(-1);
+            return version.serialize() - replayedFrom >= eventCount;
+        };
+    }
+
+    /**
+     * @param snapshotVersion version of the snapshot the aggregate was loaded from, if any
+     * @param version version of the loaded aggregate
+     * @return true if a snapshot of the loaded aggregate should be stored
+     */
+    boolean shouldSnapshot(Optional<EventId> snapshotVersion, EventId version);
+
+}
@@ -0,0 +1,52 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.eventsourcing.eventstore;
+
+import java.util.Optional;
+
+import org.apache.james.eventsourcing.AggregateId;
+import org.apache.james.eventsourcing.Snapshot;
+
+public interface SnapshotStore {
+
+    SnapshotStore NONE = new SnapshotStore() {
+        @Override
+        public void save(Snapshot snapshot) {
+
+        }
+
+        @Override
+        public Optional<Snapshot> load(AggregateId aggregateId) {
+            return Optional.empty();
+        }
+    };
+
+    /**
+     * Replaces the stored snapshot of the aggregate. Saving is best effort: a lost snapshot only
+     * means more events to replay.
+     */
+    void save(Snapshot snapshot);
+
+    /**
+     * Snapshots that can no longer be read, for instance because their format changed, are reported as absent.
+     */
+    Optional<Snapshot> load(AggregateId aggregateId);
+
+}
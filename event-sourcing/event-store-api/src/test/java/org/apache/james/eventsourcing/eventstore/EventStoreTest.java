@@ -85,4 +85,24 @@ public interface EventStoreTest {
             .isEqualTo(History.of(ImmutableList.of(event1, event2)));
     }
 
-}
\ No newline at end of file
+    @Test
+    default void getEventsOfAggregateSinceSnapshotShouldReturnFollowingEvents(EventStore testee) {
+        TestEvent event1 = new TestEvent(EventId.first(), AGGREGATE_1, "first");
+        TestEvent event2 = new TestEvent(event1.eventId().next(), AGGREGATE_1, "second");
+        TestEvent event3 = new TestEvent(event2.eventId().next(), AGGREGATE_1, "third");
+        testee.appendAll(event1, event2, event3);
+
+        assertThat(testee.getEventsOfAggregate(AGGREGATE_1, event1.eventId()))
+            .isEqualTo(History.since(event1.eventId(), ImmutableList.of(event2, event3)));
+    }
+
+    @Test
+    default void getEventsOfAggregateSinceSnapshotShouldKeepSnapshotVersionWhenNoFollowingEvents(EventStore testee) {
+        TestEvent event1 = new TestEvent(EventId.first(), AGGREGATE_1, "first");
+        testee.append(event1);
+
+        assertThat(testee.getEventsOfAggregate(AGGREGATE_1, event1.eventId()).getNextEventId())
+            .isEqualTo(event1.eventId().next());
+    }
+
+}
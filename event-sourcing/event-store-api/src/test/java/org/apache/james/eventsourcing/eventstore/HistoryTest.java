@@ -27,6 +27,8 @@ import org.apache.james.eventsourcing.TestAggregateId;
 import org.apache.james.eventsourcing.TestEvent;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
+
 import nl.jqno.equalsverifier.EqualsVerifier;
 
 class HistoryTest {
@@ -87,4 +89,32 @@ class HistoryTest {
             .isInstanceOf(EventStoreFailedException.class);
     }
 
+    @Test
+    void getVersionShouldReturnSnapshotVersionWhenNoEventSinceSnapshot() {
+        assertThat(History.since(EventId.fromSerialized(5), ImmutableList.of())
+            .getVersion())
+            .contains(EventId.fromSerialized(5));
+    }
+
+    @Test
+    void getNextEventIdShouldFollowEventsSinceSnapshot() {
+        TestEvent event = new TestEvent(EventId.fromSerialized(6),
+            TestAggregateId.testId(42),
+            "any");
+
+        assertThat(History.since(EventId.fromSerialized(5), ImmutableList.of(event))
+            .getNextEventId())
+            .isEqualTo(EventId.fromSerialized(7));
+    }
+
+    @Test
+    void sinceShouldThrowWhenEventsPrecedeTheSnapshot() {
+        TestEvent event = new TestEvent(EventId.fromSerialized(5),
+            TestAggregateId.testId(42),
+            "any");
+
+        assertThatThrownBy(() -> History.since(EventId.fromSerialized(5), ImmutableList.of(event)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
 }
@@ -0,0 +1,65 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.eventsourcing.eventstore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Optional;
+
+import org.apache.james.eventsourcing.EventId;
+import org.junit.jupiter.api.Test;
+
+class SnapshotPolicyTest {
+
+    @Test
+    void neverShouldNotSnapshot() {
+        assertThat(SnapshotPolicy.never().shouldSnapshot(Optional.empty(), EventId.fromSerialized(1000)))
+            .isFalse();
+    }
+
+    @Test
+    void everyEventsShouldThrowWhenZero() {
+        assertThatThrownBy(() -> SnapshotPolicy.everyEvents(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void everyEventsShouldNotSnapshotBelowThresholdWithoutSnapshot() {
+        assertThat(SnapshotPolicy.everyEvents(10).shouldSnapshot(Optional.empty(), EventId.fromSerialized(8)))
+            .isFalse();
+    }
+
+    @Test
+    void everyEventsShouldSnapshotWhenThresholdReachedWithoutSnapshot() {
+        assertThat(SnapshotPolicy.everyEvents(10).shouldSnapshot(Optional.empty(), EventId.fromSerialized(9)))
+            .isTrue();
+    }
+
+    @Test
+    void everyEventsShouldCountEventsReplayedOnTopOfTheSnapshot() {
+        SnapshotPolicy testee = SnapshotPolicy.everyEvents(10);
+
+        assertThat(testee.shouldSnapshot(Optional.of(EventId.fromSerialized(9)), EventId.fromSerialized(18)))
+            .isFalse();
+        assertThat(testee.shouldSnapshot(Optional.of(EventId.fromSerialized(9)), EventId.fromSerialized(19)))
+            .isTrue();
+    }
+}
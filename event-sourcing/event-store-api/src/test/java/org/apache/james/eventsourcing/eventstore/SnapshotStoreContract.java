@@ -0,0 +1,73 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.eventsourcing.eventstore;
+
+import static org.apache.james.eventsourcing.TestAggregateId.testId;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.james.eventsourcing.EventId;
+import org.apache.james.eventsourcing.TestAggregateId;
+import org.apache.james.eventsourcing.TestSnapshot;
+import org.junit.jupiter.api.Test;
+
+public interface SnapshotStoreContract {
+
+    TestAggregateId AGGREGATE_1 = testId(1);
+    TestAggregateId AGGREGATE_2 = testId(2);
+
+    @Test
+    default void loadShouldThrowOnNullAggregateId(SnapshotStore testee) {
+        assertThatThrownBy(() -> testee.load(null))
+            .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    default void loadShouldReturnEmptyWhenUnknown(SnapshotStore testee) {
+        assertThat(testee.load(AGGREGATE_1)).isEmpty();
+    }
+
+    @Test
+    default void loadShouldReturnSavedSnapshot(SnapshotStore testee) {
+        TestSnapshot snapshot = new TestSnapshot(EventId.first(), AGGREGATE_1, "first");
+
+        testee.save(snapshot);
+
+        assertThat(testee.load(AGGREGATE_1)).contains(snapshot);
+    }
+
+    @Test
+    default void saveShouldReplacePreviousSnapshot(SnapshotStore testee) {
+        TestSnapshot snapshot1 = new TestSnapshot(EventId.first(), AGGREGATE_1, "first");
+        TestSnapshot snapshot2 = new TestSnapshot(EventId.first().next(), AGGREGATE_1, "second");
+
+        testee.save(snapshot1);
+        testee.save(snapshot2);
+
+        assertThat(testee.load(AGGREGATE_1)).contains(snapshot2);
+    }
+
+    @Test
+    default void loadShouldNotReturnSnapshotOfOtherAggregates(SnapshotStore testee) {
+        testee.save(new TestSnapshot(EventId.first(), AGGREGATE_2, "first"));
+
+        assertThat(testee.load(AGGREGATE_1)).isEmpty();
+    }
+}
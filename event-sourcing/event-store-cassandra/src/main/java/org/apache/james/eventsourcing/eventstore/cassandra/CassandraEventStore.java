@@ -25,6 +25,7 @@ import javax.inject.Inject;
 
 import org.apache.james.eventsourcing.AggregateId;
 import org.apache.james.eventsourcing.Event;
+import org.apache.james.eventsourcing.EventId;
 import org.apache.james.eventsourcing.eventstore.EventStore;
 import org.apache.james.eventsourcing.eventstore.EventStoreFailedException;
 import org.apache.james.eventsourcing.eventstore.History;
@@ -61,4 +62,9 @@ public class CassandraEventStore implements EventStore {
     public History getEventsOfAggregate(AggregateId aggregateId) {
         return eventStoreDao.getEventsOfAggregate(aggregateId);
     }
+
+    @Override
+    public History getEventsOfAggregate(AggregateId aggregateId, EventId snapshotVersion) {
+        return eventStoreDao.getEventsOfAggregate(aggregateId, snapshotVersion);
+    }
 }
@@ -26,7 +26,8 @@ import com.datastax.driver.core.DataType;
 import com.datastax.driver.core.schemabuilder.SchemaBuilder;
 
 public interface CassandraEventStoreModule {
-    CassandraModule MODULE = CassandraModule.table(CassandraEventStoreTable.EVENTS_TABLE)
+    CassandraModule MODULE = CassandraModule.builder()
+        .table(CassandraEventStoreTable.EVENTS_TABLE)
         .comment("Store events of a EventSourcing aggregate")
         .options(options -> options
             .caching(SchemaBuilder.KeyCaching.ALL,
@@ -35,5 +36,14 @@ public interface CassandraEventStoreModule {
             .addPartitionKey(CassandraEventStoreTable.AGGREGATE_ID, DataType.varchar())
             .addClusteringColumn(CassandraEventStoreTable.EVENT_ID, DataType.cint())
             .addColumn(CassandraEventStoreTable.EVENT, DataType.text()))
+        .table(CassandraEventStoreTable.SNAPSHOTS_TABLE)
+        .comment("Store the latest snapshot of a EventSourcing aggregate, allowing to replay only the events following it")
+        .options(options -> options
+            .caching(SchemaBuilder.KeyCaching.ALL,
+                SchemaBuilder.rows(CassandraConstants.DEFAULT_CACHED_ROW_PER_PARTITION)))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraEventStoreTable.AGGREGATE_ID, DataType.varchar())
+            .addColumn(CassandraEventStoreTable.EVENT_ID, DataType.cint())
+            .addColumn(CassandraEventStoreTable.SNAPSHOT, DataType.text()))
         .build();
 }
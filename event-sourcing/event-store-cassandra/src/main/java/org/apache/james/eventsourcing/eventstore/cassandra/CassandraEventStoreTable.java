@@ -24,4 +24,7 @@ public interface CassandraEventStoreTable {
     String AGGREGATE_ID = "aggregateId";
     String EVENT = "event";
     String EVENT_ID = "eventId";
+
+    String SNAPSHOTS_TABLE = "eventStoreSnapshots";
+    String SNAPSHOT = "snapshot";
 }
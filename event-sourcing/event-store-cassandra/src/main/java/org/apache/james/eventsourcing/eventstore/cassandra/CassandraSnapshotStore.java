@@ -0,0 +1,63 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.eventsourcing.eventstore.cassandra;
+
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.apache.james.eventsourcing.AggregateId;
+import org.apache.james.eventsourcing.Snapshot;
+import org.apache.james.eventsourcing.eventstore.SnapshotStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+import reactor.core.publisher.Mono;
+
+public class CassandraSnapshotStore implements SnapshotStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CassandraSnapshotStore.class);
+
+    private final SnapshotDao snapshotDao;
+
+    @Inject
+    public CassandraSnapshotStore(SnapshotDao snapshotDao) {
+        this.snapshotDao = snapshotDao;
+    }
+
+    @Override
+    public void save(Snapshot snapshot) {
+        snapshotDao.save(snapshot)
+            .onErrorResume(e -> {
+                LOGGER.warn("Failed to save snapshot of {}", snapshot.getAggregateId().asAggregateKey(), e);
+                return Mono.empty();
+            })
+            .block();
+    }
+
+    @Override
+    public Optional<Snapshot> load(AggregateId aggregateId) {
+        Preconditions.checkNotNull(aggregateId);
+
+        return snapshotDao.load(aggregateId)
+            .blockOptional();
+    }
+}
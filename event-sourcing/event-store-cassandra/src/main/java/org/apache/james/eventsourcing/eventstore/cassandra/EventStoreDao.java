@@ -21,6 +21,7 @@ package org.apache.james.eventsourcing.eventstore.cassandra;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gt;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static org.apache.james.eventsourcing.eventstore.cassandra.CassandraEventStoreTable.AGGREGATE_ID;
@@ -36,6 +37,7 @@ import javax.inject.Inject;
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.eventsourcing.AggregateId;
 import org.apache.james.eventsourcing.Event;
+import org.apache.james.eventsourcing.EventId;
 import org.apache.james.eventsourcing.eventstore.History;
 
 import com.datastax.driver.core.BatchStatement;
@@ -51,6 +53,7 @@ public class EventStoreDao {
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final PreparedStatement insert;
     private final PreparedStatement select;
+    private final PreparedStatement selectAfter;
     private final JsonEventSerializer jsonEventSerializer;
 
     @Inject
@@ -59,6 +62,7 @@ public class EventStoreDao {
         this.jsonEventSerializer = jsonEventSerializer;
         this.insert = prepareInsert(session);
         this.select = prepareSelect(session);
+        this.selectAfter = prepareSelectAfter(session);
     }
 
     private PreparedStatement prepareInsert(Session session) {
@@ -75,6 +79,13 @@ public class EventStoreDao {
             .where(eq(AGGREGATE_ID, bindMarker(AGGREGATE_ID))));
     }
 
+    private PreparedStatement prepareSelectAfter(Session session) {
+        return session.prepare(select()
+            .from(EVENTS_TABLE)
+            .where(eq(AGGREGATE_ID, bindMarker(AGGREGATE_ID)))
+            .and(gt(EVENT_ID, bindMarker(EVENT_ID))));
+    }
+
     public Mono<Boolean> appendAll(List<Event> events) {
         BatchStatement batch = new BatchStatement();
         events.forEach(event -> batch.add(insertEvent(event)));
@@ -103,6 +114,17 @@ public class EventStoreDao {
             .block();
     }
 
+    public History getEventsOfAggregate(AggregateId aggregateId, EventId snapshotVersion) {
+        return cassandraAsyncExecutor.executeRows(
+                selectAfter.bind()
+                    .setString(AGGREGATE_ID, aggregateId.asAggregateKey())
+                    .setInt(EVENT_ID, snapshotVersion.serialize()))
+            .map(this::toEvent)
+            .collectList()
+            .map(events -> History.since(snapshotVersion, events))
+            .block();
+    }
+
     private Event toEvent(Row row) {
         try {
             return jsonEventSerializer.deserialize(row.getString(EVENT));
@@ -0,0 +1,60 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.eventsourcing.eventstore.cassandra;
+
+import java.io.IOException;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.apache.james.eventsourcing.Snapshot;
+import org.apache.james.eventsourcing.eventstore.cassandra.dto.SnapshotDTO;
+import org.apache.james.eventsourcing.eventstore.cassandra.dto.SnapshotDTOModule;
+import org.apache.james.json.JsonGenericSerializer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.collect.ImmutableSet;
+
+public class JsonSnapshotSerializer {
+
+    @SafeVarargs
+    public static JsonSnapshotSerializer forModules(SnapshotDTOModule<?, ?>... modules) {
+        return new JsonSnapshotSerializer(ImmutableSet.copyOf(modules));
+    }
+
+    private final JsonGenericSerializer<Snapshot, SnapshotDTO> jsonGenericSerializer;
+
+    @Inject
+    public JsonSnapshotSerializer(Set<SnapshotDTOModule<?, ?>> modules) {
+        jsonGenericSerializer = JsonGenericSerializer.forModules(modules).withoutNestedType();
+    }
+
+    public String serialize(Snapshot snapshot) throws JsonProcessingException {
+        return jsonGenericSerializer.serialize(snapshot);
+    }
+
+    /**
+     * @throws JsonGenericSerializer.UnknownTypeException when the snapshot type is not (or no longer) registered
+     * @throws JsonGenericSerializer.InvalidTypeException when the snapshot does not match its registered format
+     */
+    public Snapshot deserialize(String value) throws IOException {
+        return jsonGenericSerializer.deserialize(value);
+    }
+}
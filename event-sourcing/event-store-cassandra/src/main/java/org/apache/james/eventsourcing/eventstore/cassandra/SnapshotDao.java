@@ -0,0 +1,103 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.eventsourcing.eventstore.cassandra;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static org.apache.james.eventsourcing.eventstore.cassandra.CassandraEventStoreTable.AGGREGATE_ID;
+import static org.apache.james.eventsourcing.eventstore.cassandra.CassandraEventStoreTable.EVENT_ID;
+import static org.apache.james.eventsourcing.eventstore.cassandra.CassandraEventStoreTable.SNAPSHOT;
+import static org.apache.james.eventsourcing.eventstore.cassandra.CassandraEventStoreTable.SNAPSHOTS_TABLE;
+
+import java.io.IOException;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.eventsourcing.AggregateId;
+import org.apache.james.eventsourcing.Snapshot;
+import org.apache.james.json.JsonGenericSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import reactor.core.publisher.Mono;
+
+public class SnapshotDao {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotDao.class);
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final PreparedStatement insert;
+    private final PreparedStatement select;
+    private final JsonSnapshotSerializer jsonSnapshotSerializer;
+
+    @Inject
+    public SnapshotDao(Session session, JsonSnapshotSerializer jsonSnapshotSerializer) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.jsonSnapshotSerializer = jsonSnapshotSerializer;
+        this.insert = prepareInsert(session);
+        this.select = prepareSelect(session);
+    }
+
+    private PreparedStatement prepareInsert(Session session) {
+        return session.prepare(insertInto(SNAPSHOTS_TABLE)
+            .value(AGGREGATE_ID, bindMarker(AGGREGATE_ID))
+            .value(EVENT_ID, bindMarker(EVENT_ID))
+            .value(SNAPSHOT, bindMarker(SNAPSHOT)));
+    }
+
+    private PreparedStatement prepareSelect(Session session) {
+        return session.prepare(select(SNAPSHOT)
+            .from(SNAPSHOTS_TABLE)
+            .where(eq(AGGREGATE_ID, bindMarker(AGGREGATE_ID))));
+    }
+
+    public Mono<Void> save(Snapshot snapshot) {
+        try {
+            return cassandraAsyncExecutor.executeVoid(insert.bind()
+                .setString(AGGREGATE_ID, snapshot.getAggregateId().asAggregateKey())
+                .setInt(EVENT_ID, snapshot.eventId().serialize())
+                .setString(SNAPSHOT, jsonSnapshotSerializer.serialize(snapshot)));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+
+    public Mono<Snapshot> load(AggregateId aggregateId) {
+        return cassandraAsyncExecutor.executeSingleRow(select.bind()
+                .setString(AGGREGATE_ID, aggregateId.asAggregateKey()))
+            .flatMap(row -> toSnapshot(aggregateId, row));
+    }
+
+    private Mono<Snapshot> toSnapshot(AggregateId aggregateId, Row row) {
+        try {
+            return Mono.just(jsonSnapshotSerializer.deserialize(row.getString(SNAPSHOT)));
+        } catch (JsonGenericSerializer.UnknownTypeException | JsonGenericSerializer.InvalidTypeException | IOException e) {
+            LOGGER.warn("Ignoring unreadable snapshot of {}, the full history will be replayed", aggregateId.asAggregateKey(), e);
+            return Mono.empty();
+        }
+    }
+}
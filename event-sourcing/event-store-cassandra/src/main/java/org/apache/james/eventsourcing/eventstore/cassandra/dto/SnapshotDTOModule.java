@@ -0,0 +1,43 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.eventsourcing.eventstore.cassandra.dto;
+
+import org.apache.james.eventsourcing.Snapshot;
+import org.apache.james.json.DTOModule;
+
+/**
+ * The type name of a snapshot DTO module versions the snapshot format: snapshots stored with a type name
+ * no longer registered are ignored and the aggregate is rebuilt from its full history.
+ */
+public class SnapshotDTOModule<T extends Snapshot, U extends SnapshotDTO> extends DTOModule<T, U> {
+
+    public static <SnapshotTypeT extends Snapshot> DTOModule.Builder<SnapshotTypeT> forSnapshot(Class<SnapshotTypeT> snapshotType) {
+        return new DTOModule.Builder<>(snapshotType);
+    }
+
+    public SnapshotDTOModule(DTOConverter<T, U> converter, DomainObjectConverter<T, U> toDomainObjectConverter, Class<T> domainObjectType, Class<U> dtoType, String typeName) {
+        super(converter, toDomainObjectConverter, domainObjectType, dtoType, typeName);
+    }
+
+    @Override
+    public U toDTO(T domainObject) {
+        return super.toDTO(domainObject);
+    }
+}
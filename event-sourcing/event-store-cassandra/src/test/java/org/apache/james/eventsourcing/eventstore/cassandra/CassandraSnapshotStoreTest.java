@@ -0,0 +1,72 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.eventsourcing.eventstore.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.eventsourcing.EventId;
+import org.apache.james.eventsourcing.TestSnapshot;
+import org.apache.james.eventsourcing.eventstore.SnapshotStore;
+import org.apache.james.eventsourcing.eventstore.SnapshotStoreContract;
+import org.apache.james.eventsourcing.eventstore.cassandra.dto.TestSnapshotDTOModules;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class CassandraSnapshotStoreTest implements SnapshotStoreContract {
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraEventStoreModule.MODULE);
+
+    private CassandraSnapshotStore testee;
+
+    @RegisterExtension
+    ParameterResolver snapshotStoreResolver = new ParameterResolver() {
+        @Override
+        public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+            return parameterContext.getParameter().getType() == SnapshotStore.class;
+        }
+
+        @Override
+        public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+            return testee;
+        }
+    };
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new CassandraSnapshotStore(new SnapshotDao(cassandra.getConf(),
+            JsonSnapshotSerializer.forModules(TestSnapshotDTOModules.TEST_SNAPSHOT_TYPE)));
+    }
+
+    @Test
+    void loadShouldIgnoreSnapshotsOfUnknownFormat(CassandraCluster cassandra) {
+        testee.save(new TestSnapshot(EventId.first(), AGGREGATE_1, "first"));
+
+        CassandraSnapshotStore withoutSnapshotType = new CassandraSnapshotStore(new SnapshotDao(cassandra.getConf(),
+            JsonSnapshotSerializer.forModules()));
+
+        assertThat(withoutSnapshotType.load(AGGREGATE_1)).isEmpty();
+    }
+}
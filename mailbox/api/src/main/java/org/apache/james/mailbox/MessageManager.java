@@ -44,6 +44,7 @@ import org.apache.james.mailbox.model.MailboxACL;
 import org.apache.james.mailbox.model.MailboxCounters;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageMetaData;
 import org.apache.james.mailbox.model.MessageRange;
 import org.apache.james.mailbox.model.MessageResult;
 import org.apache.james.mailbox.model.MessageResultIterator;
@@ -280,6 +281,17 @@ public interface MessageManager {
      */
     MessageResultIterator getMessages(MessageRange set, FetchGroup fetchGroup, MailboxSession mailboxSession) throws MailboxException;
 
+    /**
+     * Lists the metadata (uid, mod-sequence, flags, size, internal date) of the messages in the given range, ordered
+     * by uid, without loading their content.
+     *
+     * @param changedSince
+     *            when specified, only messages with a mod-sequence strictly higher are returned
+     * @param mailboxSession
+     *            not null
+     */
+    Iterator<MessageMetaData> listMessagesMetadata(MessageRange set, Optional<ModSeq> changedSince, MailboxSession mailboxSession) throws MailboxException;
+
     /**
      * Return the underlying {@link Mailbox}
      */
@@ -315,6 +327,16 @@ public interface MessageManager {
      */
     MetaData getMetaData(boolean resetRecent, MailboxSession mailboxSession, MessageManager.MetaData.FetchGroup fetchGroup) throws MailboxException;
 
+    /**
+     * Return the uids expunged after the given mod-sequence.
+     *
+     * See RFC-7162 section 3.2.10: this allows only notifying a QRESYNC client of the uids expunged since its last
+     * synchronisation.
+     *
+     * @return the expunged uids, or empty when the expunges that happened after this mod-sequence are not known
+     */
+    Optional<List<MessageRange>> getExpungedUidsSince(ModSeq modSeq, MailboxSession mailboxSession) throws MailboxException;
+
     /**
      * Meta data about the current state of the mailbox.
      */
@@ -21,6 +21,7 @@ package org.apache.james.mailbox.backup;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.apache.james.mailbox.model.MessageResult;
@@ -32,5 +33,16 @@ public interface ArchiveService {
      * @param messages    a stream of MessageResult that will be consumed
      * @param destination an OutputStream in which the zip will be written
      */
-    void archive(List<MailboxWithAnnotations> mailboxes, Stream<MessageResult> messages, OutputStream destination) throws IOException;
+    default void archive(List<MailboxWithAnnotations> mailboxes, Stream<MessageResult> messages, OutputStream destination) throws IOException {
+        archive(mailboxes, messages, destination, message -> { });
+    }
+
+    /**
+     * @param mailboxes         list of mailboxes and their annotations to be stored in the archive
+     * @param messages          a stream of MessageResult that will be consumed
+     * @param destination       an OutputStream in which the zip will be written
+     * @param onMessageArchived called once the entry of a message has been completely written
+     */
+    void archive(List<MailboxWithAnnotations> mailboxes, Stream<MessageResult> messages, OutputStream destination,
+                 Consumer<MessageResult> onMessageArchived) throws IOException;
 }
@@ -0,0 +1,70 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.backup;
+
+import org.apache.james.mailbox.MessageUid;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * Position of the last message durably written to an account export: exports are produced mailbox by mailbox,
+ * in mailbox name order, and messages of a mailbox in UID order.
+ */
+public class BackupCheckpoint {
+    private final String mailboxName;
+    private final MessageUid uid;
+
+    public BackupCheckpoint(String mailboxName, MessageUid uid) {
+        this.mailboxName = mailboxName;
+        this.uid = uid;
+    }
+
+    public String getMailboxName() {
+        return mailboxName;
+    }
+
+    public MessageUid getUid() {
+        return uid;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof BackupCheckpoint) {
+            BackupCheckpoint that = (BackupCheckpoint) o;
+            return Objects.equal(mailboxName, that.mailboxName)
+                && Objects.equal(uid, that.uid);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(mailboxName, uid);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("mailboxName", mailboxName)
+            .add("uid", uid)
+            .toString();
+    }
+}
@@ -21,20 +21,28 @@ package org.apache.james.mailbox.backup;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.exception.BadCredentialsException;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.FetchGroup;
 import org.apache.james.mailbox.model.Mailbox;
 import org.apache.james.mailbox.model.MailboxAnnotation;
+import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MailboxMetaData;
 import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageMetaData;
 import org.apache.james.mailbox.model.MessageRange;
 import org.apache.james.mailbox.model.MessageResult;
 import org.apache.james.mailbox.model.search.MailboxQuery;
@@ -44,22 +52,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.Throwing;
+import com.github.fge.lambdas.runnable.ThrowingRunnable;
 import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 public class DefaultMailboxBackup implements MailboxBackup {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultMailboxBackup.class);
+    public static final int DEFAULT_PREFETCH_PARALLELISM = 4;
+    private static final int FETCH_BATCH_SIZE = 20;
 
     @VisibleForTesting
     static class MailAccountContent {
         private final MailboxWithAnnotations mailboxWithAnnotations;
-        private final Stream<MessageResult> messages;
+        private final Supplier<Stream<MessageResult>> messages;
 
-        MailAccountContent(MailboxWithAnnotations mailboxWithAnnotations, Stream<MessageResult> messages) {
+        MailAccountContent(MailboxWithAnnotations mailboxWithAnnotations, Supplier<Stream<MessageResult>> messages) {
             this.mailboxWithAnnotations = mailboxWithAnnotations;
             this.messages = messages;
         }
@@ -69,30 +84,43 @@ public class DefaultMailboxBackup implements MailboxBackup {
         }
 
         public Stream<MessageResult> getMessages() {
-            return messages;
+            return messages.get();
         }
     }
 
     private final MailboxManager mailboxManager;
     private final ArchiveService archiveService;
     private final MailArchiveRestorer archiveRestorer;
+    private final int prefetchParallelism;
 
     public DefaultMailboxBackup(MailboxManager mailboxManager, ArchiveService archiveService, MailArchiveRestorer archiveRestorer) {
+        this(mailboxManager, archiveService, archiveRestorer, DEFAULT_PREFETCH_PARALLELISM);
+    }
+
+    public DefaultMailboxBackup(MailboxManager mailboxManager, ArchiveService archiveService, MailArchiveRestorer archiveRestorer,
+                                int prefetchParallelism) {
+        Preconditions.checkArgument(prefetchParallelism > 0, "'prefetchParallelism' needs to be strictly positive");
         this.mailboxManager = mailboxManager;
         this.archiveService = archiveService;
         this.archiveRestorer = archiveRestorer;
+        this.prefetchParallelism = prefetchParallelism;
     }
 
     @Override
-    public void backupAccount(Username username, OutputStream destination) throws IOException, MailboxException {
+    public void backupAccount(Username username, OutputStream destination, Optional<BackupCheckpoint> resumeFrom,
+                              Consumer<BackupCheckpoint> checkpointListener) throws IOException, MailboxException {
         MailboxSession session = mailboxManager.createSystemSession(username);
-        List<MailAccountContent> accountContents = getAccountContentForUser(session);
+        List<MailAccountContent> accountContents = getAccountContentForUser(session, resumeFrom);
         List<MailboxWithAnnotations> mailboxes = accountContents.stream()
             .map(MailAccountContent::getMailboxWithAnnotations)
             .collect(Guavate.toImmutableList());
+        Map<MailboxId, String> mailboxNames = mailboxes.stream()
+            .map(mailboxWithAnnotations -> mailboxWithAnnotations.mailbox)
+            .collect(Guavate.toImmutableMap(Mailbox::getMailboxId, Mailbox::getName));
 
         Stream<MessageResult> messages = allMessagesForUser(accountContents);
-        archive(mailboxes, messages, destination);
+        archiveService.archive(mailboxes, messages, destination, message ->
+            checkpointListener.accept(new BackupCheckpoint(mailboxNames.get(message.getMailboxId()), message.getUid())));
     }
 
     private boolean isAccountNonEmpty(Username username) throws BadCredentialsException, MailboxException, IOException {
@@ -114,7 +142,16 @@ public class DefaultMailboxBackup implements MailboxBackup {
             return Mono.just(BackupStatus.FAILED);
         }
 
-        return Mono.fromRunnable(Throwing.runnable(() -> archiveRestorer.restore(username, source)).sneakyThrow())
+        return doRestore(username, source, () -> archiveRestorer.restore(username, source));
+    }
+
+    @Override
+    public Publisher<BackupStatus> restoreContinuation(Username username, InputStream source) {
+        return doRestore(username, source, () -> archiveRestorer.restoreContinuation(username, source));
+    }
+
+    private Mono<BackupStatus> doRestore(Username username, InputStream source, ThrowingRunnable restoration) {
+        return Mono.fromRunnable(Throwing.runnable(restoration).sneakyThrow())
             .subscribeOn(Schedulers.elastic())
             .doOnError(e -> LOGGER.error("Error during account restoration for user : " + username.asString(), e))
             .doOnTerminate(Throwing.runnable(source::close).sneakyThrow())
@@ -122,13 +159,16 @@ public class DefaultMailboxBackup implements MailboxBackup {
             .onErrorReturn(BackupStatus.FAILED);
     }
 
-    private Stream<MailAccountContent> getMailboxWithAnnotationsFromPath(MailboxSession session, MailboxPath path) {
+    private Stream<MailAccountContent> getMailboxWithAnnotationsFromPath(MailboxSession session, MailboxPath path, Optional<BackupCheckpoint> resumeFrom) {
         try {
             MessageManager messageManager = mailboxManager.getMailbox(path, session);
             Mailbox mailbox = messageManager.getMailboxEntity();
             List<MailboxAnnotation> annotations = mailboxManager.getAllAnnotations(path, session);
             MailboxWithAnnotations mailboxWithAnnotations = new MailboxWithAnnotations(mailbox, annotations);
-            Stream<MessageResult> messages = Iterators.toStream(messageManager.getMessages(MessageRange.all(), FetchGroup.FULL_CONTENT, session));
+            Optional<MessageRange> remainingRange = remainingRange(mailbox.getName(), resumeFrom);
+            Supplier<Stream<MessageResult>> messages = () -> remainingRange
+                .map(Throwing.<MessageRange, Stream<MessageResult>>function(range -> messages(messageManager, range, session)).sneakyThrow())
+                .orElseGet(Stream::empty);
             return Stream.of(new MailAccountContent(mailboxWithAnnotations, messages));
         } catch (MailboxException e) {
             LOGGER.error("Error while fetching Mailbox during backup", e);
@@ -136,26 +176,61 @@ public class DefaultMailboxBackup implements MailboxBackup {
         }
     }
 
+    private Optional<MessageRange> remainingRange(String mailboxName, Optional<BackupCheckpoint> resumeFrom) {
+        return resumeFrom
+            .map(checkpoint -> {
+                int position = mailboxName.compareTo(checkpoint.getMailboxName());
+                if (position < 0) {
+                    return Optional.<MessageRange>empty();
+                }
+                if (position == 0) {
+                    return Optional.of(MessageRange.from(checkpoint.getUid().next()));
+                }
+                return Optional.of(MessageRange.all());
+            })
+            .orElse(Optional.of(MessageRange.all()));
+    }
+
+    /**
+     * UIDs are listed from message metadata, then full contents are fetched by batches, with up to
+     * prefetchParallelism batches being loaded ahead of the archiving. Message order is preserved.
+     */
+    private Stream<MessageResult> messages(MessageManager messageManager, MessageRange range, MailboxSession session) throws MailboxException {
+        return Iterators.toFlux(messageManager.listMessagesMetadata(range, Optional.empty(), session))
+            .map(MessageMetaData::getUid)
+            .buffer(FETCH_BATCH_SIZE)
+            .flatMapSequential(uids -> fetchFullContent(messageManager, uids, session), prefetchParallelism)
+            .toStream(FETCH_BATCH_SIZE);
+    }
+
+    private Flux<MessageResult> fetchFullContent(MessageManager messageManager, List<MessageUid> uids, MailboxSession session) {
+        MessageRange range = MessageRange.range(uids.get(0), Iterables.getLast(uids));
+        return Mono.fromCallable(() -> ImmutableList.copyOf(messageManager.getMessages(range, FetchGroup.FULL_CONTENT, session)))
+            .flatMapIterable(messages -> messages)
+            .subscribeOn(Schedulers.elastic());
+    }
+
     @VisibleForTesting
     List<MailAccountContent> getAccountContentForUser(MailboxSession session) throws MailboxException {
+        return getAccountContentForUser(session, Optional.empty());
+    }
+
+    private List<MailAccountContent> getAccountContentForUser(MailboxSession session, Optional<BackupCheckpoint> resumeFrom) throws MailboxException {
         MailboxQuery queryUser = MailboxQuery.builder()
             .privateNamespace()
             .user(session.getUser())
             .build();
         Stream<MailboxPath> paths = mailboxManager.search(queryUser, session)
             .stream()
-            .map(MailboxMetaData::getPath);
+            .map(MailboxMetaData::getPath)
+            .sorted(Comparator.comparing(MailboxPath::getName));
         List<MailAccountContent> mailboxes = paths
-            .flatMap(path -> getMailboxWithAnnotationsFromPath(session, path))
+            .flatMap(path -> getMailboxWithAnnotationsFromPath(session, path, resumeFrom))
             .collect(Guavate.toImmutableList());
 
         return mailboxes;
     }
 
-    private void archive(List<MailboxWithAnnotations> mailboxes, Stream<MessageResult> messages, OutputStream destination) throws IOException {
-        archiveService.archive(mailboxes, messages, destination);
-    }
-
     private Stream<MessageResult> allMessagesForUser(List<MailAccountContent> mailboxes) {
         return mailboxes.stream().flatMap(MailAccountContent::getMessages);
     }
@@ -27,4 +27,10 @@ import org.apache.james.mailbox.exception.MailboxException;
 public interface MailArchiveRestorer {
 
     void restore(Username username, InputStream source) throws MailboxException, IOException;
+
+    /**
+     * Restore an archive continuing a previously restored one: archived mailboxes that already exist are reused and
+     * the archived messages are appended to them.
+     */
+    void restoreContinuation(Username username, InputStream source) throws MailboxException, IOException;
 }
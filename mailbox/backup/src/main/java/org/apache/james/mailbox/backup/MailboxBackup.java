@@ -21,6 +21,8 @@ package org.apache.james.mailbox.backup;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.exception.MailboxException;
@@ -37,7 +39,18 @@ public interface MailboxBackup {
     /**
      * @param username the user account to export
      */
-    void backupAccount(Username username, OutputStream destination) throws IOException, MailboxException;
+    default void backupAccount(Username username, OutputStream destination) throws IOException, MailboxException {
+        backupAccount(username, destination, Optional.empty(), checkpoint -> { });
+    }
+
+    /**
+     * @param username the user account to export
+     * @param resumeFrom when present, only the mailboxes and messages following this checkpoint are exported.
+     *                   Mailbox entries are always all written so that each archive can be restored on its own.
+     * @param checkpointListener notified after each message entry is written to the destination
+     */
+    void backupAccount(Username username, OutputStream destination, Optional<BackupCheckpoint> resumeFrom,
+                       Consumer<BackupCheckpoint> checkpointListener) throws IOException, MailboxException;
 
     /**
      * @param username   the user in which account the restored elements will be stored.
@@ -46,4 +59,15 @@ public interface MailboxBackup {
      */
     Publisher<BackupStatus> restore(Username username, InputStream source) throws IOException, MailboxException;
 
+    /**
+     * Restore an archive written by an export resumed from a checkpoint, in the account where the archives of the
+     * previous export attempts were restored. Mailboxes already present are reused and the archived messages are
+     * appended to them.
+     *
+     * @param username   the user in which account the restored elements will be stored.
+     * @param source the input stream to the continuation archive.
+     * @return a Publisher indicating when the action is completed
+     */
+    Publisher<BackupStatus> restoreContinuation(Username username, InputStream source);
+
 }
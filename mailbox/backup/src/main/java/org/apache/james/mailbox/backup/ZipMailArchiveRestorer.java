@@ -20,10 +20,13 @@ package org.apache.james.mailbox.backup;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Stream;
+
+import javax.mail.Flags;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.james.core.Username;
@@ -31,19 +34,29 @@ import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageManager;
 import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MailboxPath;
-import org.apache.james.util.OptionalUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.Throwing;
-import com.github.steveash.guavate.Guavate;
-import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimaps;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 public class ZipMailArchiveRestorer implements MailArchiveRestorer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ZipMailArchiveRestorer.class);
+    private static final int APPEND_BATCH_SIZE = 20;
+    private static final int APPEND_CONCURRENCY = 4;
+
+    private enum MailboxRestoration {
+        CREATE,
+        CREATE_OR_REUSE
+    }
 
     private final MailboxManager mailboxManager;
     private final MailArchivesLoader archiveLoader;
@@ -55,50 +68,87 @@ public class ZipMailArchiveRestorer implements MailArchiveRestorer {
 
     public void restore(Username username, InputStream source) throws MailboxException, IOException {
         MailboxSession session = mailboxManager.createSystemSession(username);
-        restoreEntries(source, session);
+        restoreEntries(source, session, MailboxRestoration.CREATE);
+    }
+
+    @Override
+    public void restoreContinuation(Username username, InputStream source) throws MailboxException, IOException {
+        MailboxSession session = mailboxManager.createSystemSession(username);
+        restoreEntries(source, session, MailboxRestoration.CREATE_OR_REUSE);
     }
 
-    private void restoreEntries(InputStream source, MailboxSession session) throws IOException {
+    /**
+     * Mailbox entries precede message entries in the archive. Messages are appended by batches so that only a
+     * bounded number of message contents are held in memory. Within a batch, distinct mailboxes are restored
+     * concurrently while the messages of a given mailbox are appended in archive order, preserving their UID order.
+     */
+    private void restoreEntries(InputStream source, MailboxSession session, MailboxRestoration mailboxRestoration) throws MailboxException, IOException {
         try (MailArchiveIterator archiveIterator = archiveLoader.load(source)) {
-            List<MailboxWithAnnotationsArchiveEntry> mailboxes = readMailboxes(archiveIterator);
-            restoreMailboxes(session, mailboxes);
+            Map<SerializedMailboxId, MessageManager> restoredMailboxes = new HashMap<>();
+            List<MessageArchiveEntry> pendingMessages = new ArrayList<>(APPEND_BATCH_SIZE);
+            while (archiveIterator.hasNext()) {
+                MailArchiveEntry entry = archiveIterator.next();
+                switch (entry.getType()) {
+                    case MAILBOX:
+                        restoreMailboxEntry(session, (MailboxWithAnnotationsArchiveEntry) entry, mailboxRestoration)
+                            .ifPresent(restored -> restoredMailboxes.put(restored.getKey(), restored.getValue()));
+                        break;
+                    case MESSAGE:
+                        pendingMessages.add((MessageArchiveEntry) entry);
+                        if (pendingMessages.size() >= APPEND_BATCH_SIZE) {
+                            restoreMessages(session, restoredMailboxes, pendingMessages);
+                            pendingMessages.clear();
+                        }
+                        break;
+                    case UNKNOWN:
+                        String entryName = ((UnknownArchiveEntry) entry).getEntryName();
+                        LOGGER.warn("unknown entry found in zip :" + entryName);
+                        break;
+                }
+            }
+            restoreMessages(session, restoredMailboxes, pendingMessages);
         }
     }
 
-    private Map<SerializedMailboxId, MessageManager> restoreMailboxes(MailboxSession session, List<MailboxWithAnnotationsArchiveEntry> mailboxes) {
-        return mailboxes.stream()
-            .flatMap(Throwing.<MailboxWithAnnotationsArchiveEntry, Stream<ImmutablePair<SerializedMailboxId, MessageManager>>>function(
-                mailboxEntry ->
-                    OptionalUtils.toStream(restoreMailboxEntry(session, mailboxEntry))).sneakyThrow())
-            .collect(Guavate.entriesToImmutableMap());
+    private void restoreMessages(MailboxSession session, Map<SerializedMailboxId, MessageManager> restoredMailboxes, List<MessageArchiveEntry> messages) {
+        Flux.fromIterable(Multimaps.index(messages, MessageArchiveEntry::getMailboxId).asMap().values())
+            .flatMap(mailboxMessages -> Flux.fromIterable(mailboxMessages)
+                .concatMap(message -> Mono.fromCallable(() -> restoreMessage(session, restoredMailboxes, message)))
+                .subscribeOn(Schedulers.elastic()), APPEND_CONCURRENCY)
+            .then()
+            .block();
     }
 
-    private List<MailboxWithAnnotationsArchiveEntry> readMailboxes(MailArchiveIterator iterator) {
-        ImmutableList.Builder<MailboxWithAnnotationsArchiveEntry> mailboxes = ImmutableList.builder();
-        while (iterator.hasNext()) {
-            MailArchiveEntry entry = iterator.next();
-            switch (entry.getType()) {
-                case MAILBOX:
-                    mailboxes.add((MailboxWithAnnotationsArchiveEntry) entry);
-                    break;
-                case MESSAGE:
-                    //Ignore for know, TODO: implementation
-                    break;
-                case UNKNOWN:
-                    String entryName = ((UnknownArchiveEntry) entry).getEntryName();
-                    LOGGER.warn("unknown entry found in zip :" + entryName);
-                    break;
-            }
+    private Optional<ComposedMessageId> restoreMessage(MailboxSession session, Map<SerializedMailboxId, MessageManager> restoredMailboxes,
+                                                       MessageArchiveEntry message) throws MailboxException {
+        MessageManager messageManager = restoredMailboxes.get(message.getMailboxId());
+        if (messageManager == null) {
+            LOGGER.warn("Message {} references mailbox {} that is not restored, skipping it",
+                message.getMessageId().getValue(), message.getMailboxId().getValue());
+            return Optional.empty();
         }
-        return mailboxes.build();
+        MessageManager.AppendCommand appendCommand = MessageManager.AppendCommand.builder()
+            .withInternalDate(message.getInternalDate())
+            .withFlags(message.getFlags())
+            .isRecent(message.getFlags().contains(Flags.Flag.RECENT))
+            .build(message.getContent());
+        return Optional.of(messageManager.appendMessage(appendCommand, session));
     }
 
     private Optional<ImmutablePair<SerializedMailboxId, MessageManager>> restoreMailboxEntry(MailboxSession session,
-                                                                                             MailboxWithAnnotationsArchiveEntry mailboxWithAnnotationsArchiveEntry) throws MailboxException {
+                                                                                             MailboxWithAnnotationsArchiveEntry mailboxWithAnnotationsArchiveEntry,
+                                                                                             MailboxRestoration mailboxRestoration) throws MailboxException {
         MailboxPath mailboxPath = MailboxPath.forUser(session.getUser(), mailboxWithAnnotationsArchiveEntry.getMailboxName());
-        Optional<MailboxId> newMailboxId = mailboxManager.createMailbox(mailboxPath, session);
+        Optional<MailboxId> newMailboxId = restoreMailbox(session, mailboxPath, mailboxRestoration);
         mailboxManager.updateAnnotations(mailboxPath, session, mailboxWithAnnotationsArchiveEntry.getAnnotations());
         return newMailboxId.map(Throwing.<MailboxId, ImmutablePair<SerializedMailboxId, MessageManager>>function(newId ->
             ImmutablePair.of(mailboxWithAnnotationsArchiveEntry.getMailboxId(), mailboxManager.getMailbox(newId, session))).sneakyThrow());
     }
+
+    private Optional<MailboxId> restoreMailbox(MailboxSession session, MailboxPath mailboxPath, MailboxRestoration mailboxRestoration) throws MailboxException {
+        if (mailboxRestoration == MailboxRestoration.CREATE_OR_REUSE && mailboxManager.mailboxExists(mailboxPath, session)) {
+            return Optional.of(mailboxManager.getMailbox(mailboxPath, session).getId());
+        }
+        return mailboxManager.createMailbox(mailboxPath, session);
+    }
 }
@@ -41,6 +41,16 @@ public class ExtraFieldExtractor {
             .flatMap(Function.identity());
     }
 
+    public static Optional<Long> getLongExtraField(ZipShort id, ZipEntry entry) throws ZipException {
+        ZipExtraField[] extraFields = ExtraFieldUtils.parse(entry.getExtra());
+        return Arrays.stream(extraFields)
+            .filter(field -> field.getHeaderId().equals(id))
+            .map(LongExtraField.class::cast)
+            .map(LongExtraField::getValue)
+            .findFirst()
+            .flatMap(Function.identity());
+    }
+
     public static Optional<ZipEntryType> getEntryType(ZipEntry entry) {
         try {
             ZipExtraField[] extraFields = ExtraFieldUtils.parse(entry.getExtra());
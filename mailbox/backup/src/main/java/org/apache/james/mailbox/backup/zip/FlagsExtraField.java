@@ -28,6 +28,8 @@ import javax.mail.Flags;
 import org.apache.commons.compress.archivers.zip.ZipShort;
 import org.apache.james.util.StreamUtils;
 
+import com.google.common.base.Splitter;
+
 public class FlagsExtraField extends StringExtraField implements WithZipHeader {
 
     public static final ZipShort ID_AP = new ZipShort(WithZipHeader.toLittleEndian('a', 'p'));
@@ -40,6 +42,40 @@ public class FlagsExtraField extends StringExtraField implements WithZipHeader {
             .collect(Collectors.joining("%"));
     }
 
+    public static Flags parseFlags(String serializedFlags) {
+        Flags flags = new Flags();
+        Splitter.on('%')
+            .omitEmptyStrings()
+            .split(serializedFlags)
+            .forEach(flag -> addFlag(flags, flag));
+        return flags;
+    }
+
+    private static void addFlag(Flags flags, String flag) {
+        switch (flag) {
+            case "\\ANSWERED":
+                flags.add(Flags.Flag.ANSWERED);
+                break;
+            case "\\DELETED":
+                flags.add(Flags.Flag.DELETED);
+                break;
+            case "\\DRAFT":
+                flags.add(Flags.Flag.DRAFT);
+                break;
+            case "\\FLAGGED":
+                flags.add(Flags.Flag.FLAGGED);
+                break;
+            case "\\RECENT":
+                flags.add(Flags.Flag.RECENT);
+                break;
+            case "\\SEEN":
+                flags.add(Flags.Flag.SEEN);
+                break;
+            default:
+                flags.add(flag);
+        }
+    }
+
     public FlagsExtraField() {
         super();
     }
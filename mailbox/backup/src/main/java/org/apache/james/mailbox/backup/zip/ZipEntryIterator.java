@@ -20,6 +20,7 @@ package org.apache.james.mailbox.backup.zip;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Iterator;
 import java.util.Optional;
 import java.util.zip.ZipEntry;
@@ -28,9 +29,14 @@ import java.util.zip.ZipInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * The underlying stream is only moved to the following entry when it is needed, so that the content of the entry
+ * last returned by {@link #next()} can be read from {@link #getCurrentEntryContent()} in the meantime.
+ */
 public class ZipEntryIterator implements Iterator<ZipEntry>, Closeable {
     private final ZipInputStream zipInputStream;
     private Optional<ZipEntry> next;
+    private boolean advanceNeeded;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ZipEntryIterator.class);
 
@@ -42,25 +48,36 @@ public class ZipEntryIterator implements Iterator<ZipEntry>, Closeable {
             LOGGER.error("Empty stream or error during reading first entry", e);
             next = Optional.empty();
         }
+        advanceNeeded = false;
     }
 
     @Override
     public boolean hasNext() {
+        advanceIfNeeded();
         return next.isPresent();
     }
 
     @Override
     public ZipEntry next() {
+        advanceIfNeeded();
         Optional<ZipEntry> current = next;
         if (!current.isPresent()) {
             return null;
         }
 
-        ZipEntry currentEntry = current.get();
+        advanceNeeded = true;
+        return current.get();
+    }
 
-        advanceToNextEntry();
+    public InputStream getCurrentEntryContent() {
+        return zipInputStream;
+    }
 
-        return currentEntry;
+    private void advanceIfNeeded() {
+        if (advanceNeeded) {
+            advanceNeeded = false;
+            advanceToNextEntry();
+        }
     }
 
     private void advanceToNextEntry() {
@@ -18,18 +18,25 @@
  ****************************************************************/
 package org.apache.james.mailbox.backup.zip;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 
+import javax.mail.Flags;
+
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.james.mailbox.backup.MailArchiveEntry;
 import org.apache.james.mailbox.backup.MailArchiveIterator;
 import org.apache.james.mailbox.backup.MailboxWithAnnotationsArchiveEntry;
+import org.apache.james.mailbox.backup.MessageArchiveEntry;
 import org.apache.james.mailbox.backup.SerializedMailboxId;
+import org.apache.james.mailbox.backup.SerializedMessageId;
 import org.apache.james.mailbox.backup.UnknownArchiveEntry;
 import org.apache.james.mailbox.model.MailboxAnnotation;
 import org.slf4j.Logger;
@@ -65,9 +72,10 @@ public class ZippedMailAccountIterator implements MailArchiveIterator {
     }
 
     private MailArchiveEntry doNext(ZipEntry currentElement) {
-        next = Optional.ofNullable(zipEntryIterator.next());
         try {
-            return getMailArchiveEntry(currentElement);
+            MailArchiveEntry entry = getMailArchiveEntry(currentElement);
+            next = Optional.ofNullable(zipEntryIterator.next());
+            return entry;
         } catch (Exception e) {
             LOGGER.error("Error when reading archive on entry : " + currentElement.getName(), e);
             next = Optional.empty();
@@ -97,10 +105,25 @@ public class ZippedMailAccountIterator implements MailArchiveIterator {
         return new MailboxWithAnnotationsArchiveEntry(getMailboxName(current), getMailBoxId(current).get(), NO_ANNOTATION);
     }
 
-    private MailArchiveEntry from(ZipEntry current, ZipEntryType currentEntryType) throws ZipException {
+    /**
+     * The content is read before moving to the next entry, as the underlying stream can not be rewound.
+     */
+    private MailArchiveEntry fromMessageEntry(ZipEntry current) throws IOException {
+        return new MessageArchiveEntry(
+            new SerializedMessageId(current.getName()),
+            getMailBoxId(current).get(),
+            ExtraFieldExtractor.getLongExtraField(SizeExtraField.ID_AJ, current).get(),
+            ExtraFieldExtractor.getLongExtraField(InternalDateExtraField.ID_AO, current).map(Date::new).get(),
+            ExtraFieldExtractor.getStringExtraField(FlagsExtraField.ID_AP, current).map(FlagsExtraField::parseFlags).orElseGet(Flags::new),
+            new ByteArrayInputStream(IOUtils.toByteArray(zipEntryIterator.getCurrentEntryContent())));
+    }
+
+    private MailArchiveEntry from(ZipEntry current, ZipEntryType currentEntryType) throws IOException {
         switch (currentEntryType) {
             case MAILBOX:
                 return fromMailboxEntry(current);
+            case MESSAGE:
+                return fromMessageEntry(current);
             default:
                 return new UnknownArchiveEntry(current.getName());
         }
@@ -25,6 +25,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.apache.commons.compress.archivers.zip.ExtraFieldUtils;
@@ -63,10 +64,11 @@ public class Zipper implements ArchiveService {
     }
 
     @Override
-    public void archive(List<MailboxWithAnnotations> mailboxes, Stream<MessageResult> messages, OutputStream destination) throws IOException {
+    public void archive(List<MailboxWithAnnotations> mailboxes, Stream<MessageResult> messages, OutputStream destination,
+                        Consumer<MessageResult> onMessageArchived) throws IOException {
         try (ZipArchiveOutputStream archiveOutputStream = new ZipArchiveOutputStream(destination)) {
             storeMailboxes(mailboxes, archiveOutputStream);
-            storeMessages(messages, archiveOutputStream);
+            storeMessages(messages, archiveOutputStream, onMessageArchived);
             archiveOutputStream.finish();
         }
     }
@@ -77,10 +79,13 @@ public class Zipper implements ArchiveService {
         ).sneakyThrow());
     }
 
-    private void storeMessages(Stream<MessageResult> messages, ZipArchiveOutputStream archiveOutputStream) throws IOException {
-        messages.forEach(Throwing.<MessageResult>consumer(message ->
-            storeInArchive(message, archiveOutputStream)
-        ).sneakyThrow());
+    private void storeMessages(Stream<MessageResult> messages, ZipArchiveOutputStream archiveOutputStream,
+                               Consumer<MessageResult> onMessageArchived) throws IOException {
+        messages.forEach(Throwing.<MessageResult>consumer(message -> {
+            storeInArchive(message, archiveOutputStream);
+            archiveOutputStream.flush();
+            onMessageArchived.accept(message);
+        }).sneakyThrow());
     }
 
     private void storeInArchive(MailboxWithAnnotations mailboxWithAnnotations, ZipArchiveOutputStream archiveOutputStream) throws IOException {
@@ -19,14 +19,22 @@
 package org.apache.james.mailbox.backup;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageManager;
@@ -34,13 +42,18 @@ import org.apache.james.mailbox.backup.ZipAssert.EntryChecks;
 import org.apache.james.mailbox.backup.zip.ZipArchivesLoader;
 import org.apache.james.mailbox.backup.zip.Zipper;
 import org.apache.james.mailbox.inmemory.manager.InMemoryIntegrationResources;
+import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.Mailbox;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 
 import reactor.core.publisher.Mono;
 
@@ -236,10 +249,198 @@ class DefaultMailboxBackupTest implements MailboxMessageFixture {
         assertThat(contentMailbox2.getMessages().count()).isEqualTo(0);
     }
 
+    @Test
+    void backupAccountShouldNotifyACheckpointForEachArchivedMessage() throws Exception {
+        MessageManager messageManager = mailboxManager.getMailbox(
+            mailboxManager.createMailbox(MAILBOX_PATH_USER1_MAILBOX1, sessionUser).get(), sessionUser);
+        ComposedMessageId message1 = messageManager.appendMessage(getMessage1AppendCommand(), sessionUser);
+        ComposedMessageId message2 = messageManager.appendMessage(getMessage2AppendCommand(), sessionUser);
+        List<BackupCheckpoint> checkpoints = new ArrayList<>();
+
+        backup.backupAccount(USERNAME_1, new ByteArrayOutputStream(BUFFER_SIZE), Optional.empty(), checkpoints::add);
+
+        assertThat(checkpoints).containsExactly(
+            new BackupCheckpoint(MAILBOX_1_NAME, message1.getUid()),
+            new BackupCheckpoint(MAILBOX_1_NAME, message2.getUid()));
+    }
+
+    @Test
+    void backupAccountResumingFromACheckpointShouldOnlyArchiveFollowingMessages() throws Exception {
+        MessageManager messageManager1 = mailboxManager.getMailbox(
+            mailboxManager.createMailbox(MAILBOX_PATH_USER1_MAILBOX1, sessionUser).get(), sessionUser);
+        MessageManager messageManager2 = mailboxManager.getMailbox(
+            mailboxManager.createMailbox(MAILBOX_PATH_USER1_MAILBOX2, sessionUser).get(), sessionUser);
+        ComposedMessageId message1 = messageManager1.appendMessage(getMessage1AppendCommand(), sessionUser);
+        ComposedMessageId message2 = messageManager1.appendMessage(getMessage2AppendCommand(), sessionUser);
+        ComposedMessageId message3 = messageManager2.appendMessage(getMessage1AppendCommand(), sessionUser);
+        ByteArrayOutputStream destination = new ByteArrayOutputStream(BUFFER_SIZE);
+
+        backup.backupAccount(USERNAME_1, destination, Optional.of(new BackupCheckpoint(MAILBOX_1_NAME, message1.getUid())), checkpoint -> { });
+
+        try (ZipAssert zipAssert = ZipAssert.assertThatZip(destination)) {
+            zipAssert.containsOnlyEntriesMatching(
+                EntryChecks.hasName(MAILBOX_1_NAME + "/").isDirectory(),
+                EntryChecks.hasName(MAILBOX_2_NAME + "/").isDirectory(),
+                EntryChecks.hasName(message2.getMessageId().serialize()).hasStringContent(MESSAGE_CONTENT_2),
+                EntryChecks.hasName(message3.getMessageId().serialize()).hasStringContent(MESSAGE_CONTENT_1)
+            );
+        }
+    }
+
+    @Test
+    void backupAccountResumingFromTheLastCheckpointShouldArchiveNoMessage() throws Exception {
+        MessageManager messageManager = mailboxManager.getMailbox(
+            mailboxManager.createMailbox(MAILBOX_PATH_USER1_MAILBOX1, sessionUser).get(), sessionUser);
+        ComposedMessageId message1 = messageManager.appendMessage(getMessage1AppendCommand(), sessionUser);
+        ByteArrayOutputStream destination = new ByteArrayOutputStream(BUFFER_SIZE);
+
+        backup.backupAccount(USERNAME_1, destination, Optional.of(new BackupCheckpoint(MAILBOX_1_NAME, message1.getUid())), checkpoint -> { });
+
+        try (ZipAssert zipAssert = ZipAssert.assertThatZip(destination)) {
+            zipAssert.containsOnlyEntriesMatching(EntryChecks.hasName(MAILBOX_1_NAME + "/").isDirectory());
+        }
+    }
+
+    @Test
+    void backupAccountWithMessagesThenRestoringItInUser2AccountShouldRestoreTheMessages() throws Exception {
+        createMailboxWithMessages(sessionUser, MAILBOX_PATH_USER1_MAILBOX1, getMessage1AppendCommand(), getMessage2AppendCommand());
+
+        ByteArrayOutputStream destination = new ByteArrayOutputStream(BUFFER_SIZE);
+        backup.backupAccount(USERNAME_1, destination);
+
+        InputStream source = new ByteArrayInputStream(destination.toByteArray());
+        MailboxBackup.BackupStatus backupStatus = Mono.from(backup.restore(USERNAME_2, source)).block();
+        assertThat(backupStatus).isEqualTo(MailboxBackup.BackupStatus.DONE);
+
+        List<DefaultMailboxBackup.MailAccountContent> content = backup.getAccountContentForUser(sessionOtherUser);
+        assertThat(content).hasSize(1);
+        assertThat(content.get(0).getMessages()
+                .map(Throwing.function(message -> IOUtils.toString(message.getFullContent().getInputStream(), StandardCharsets.UTF_8))))
+            .containsOnly(MESSAGE_CONTENT_1, MESSAGE_CONTENT_2);
+        assertThat(content.get(0).getMessages().map(MessageResult::getFlags))
+            .allSatisfy(flags -> assertThat(flags.contains("myFlags")).isTrue());
+    }
+
+    @Test
+    void restoringShouldAppendAllMessagesWhenExceedingABatch() throws Exception {
+        int messageCount = 45;
+        MessageManager.AppendCommand[] messages = IntStream.range(0, messageCount)
+            .mapToObj(i -> MessageManager.AppendCommand.builder().withFlags(flags1).build(MESSAGE_CONTENT_1))
+            .toArray(MessageManager.AppendCommand[]::new);
+        createMailboxWithMessages(sessionUser, MAILBOX_PATH_USER1_MAILBOX1, messages);
+
+        ByteArrayOutputStream destination = new ByteArrayOutputStream(BUFFER_SIZE);
+        backup.backupAccount(USERNAME_1, destination);
+
+        InputStream source = new ByteArrayInputStream(destination.toByteArray());
+        Mono.from(backup.restore(USERNAME_2, source)).block();
+
+        List<DefaultMailboxBackup.MailAccountContent> content = backup.getAccountContentForUser(sessionOtherUser);
+        assertThat(content.get(0).getMessages().count()).isEqualTo(messageCount);
+    }
+
+    @Test
+    void restoringShouldPreserveTheMessageOrderWithinAMailbox() throws Exception {
+        ImmutableList<String> contents = IntStream.range(0, 45)
+            .mapToObj(i -> "Subject: message " + i + "\r\n\r\nbody\r\n")
+            .collect(Guavate.toImmutableList());
+        createMailboxWithMessages(sessionUser, MAILBOX_PATH_USER1_MAILBOX1, contents.stream()
+            .map(content -> MessageManager.AppendCommand.builder().withFlags(flags1).build(content))
+            .toArray(MessageManager.AppendCommand[]::new));
+
+        ByteArrayOutputStream destination = new ByteArrayOutputStream(BUFFER_SIZE);
+        backup.backupAccount(USERNAME_1, destination);
+
+        InputStream source = new ByteArrayInputStream(destination.toByteArray());
+        Mono.from(backup.restore(USERNAME_2, source)).block();
+
+        List<DefaultMailboxBackup.MailAccountContent> content = backup.getAccountContentForUser(sessionOtherUser);
+        assertThat(content.get(0).getMessages()
+                .map(Throwing.function(message -> IOUtils.toString(message.getFullContent().getInputStream(), StandardCharsets.UTF_8))))
+            .containsExactlyElementsOf(contents);
+    }
+
+    @Test
+    void restoringAnInterruptedExportThenItsResumedContinuationShouldRestoreAllMessages() throws Exception {
+        ImmutableList<String> mailbox1Contents = messageContents("mailbox1", 3);
+        ImmutableList<String> mailbox2Contents = messageContents("mailbox2", 2);
+        createMailboxWithMessages(sessionUser, MAILBOX_PATH_USER1_MAILBOX1, appendCommands(mailbox1Contents));
+        createMailboxWithMessages(sessionUser, MAILBOX_PATH_USER1_MAILBOX2, appendCommands(mailbox2Contents));
+
+        ByteArrayOutputStream interruptedDestination = new ByteArrayOutputStream(BUFFER_SIZE);
+        List<BackupCheckpoint> checkpoints = new ArrayList<>();
+        AtomicInteger flushedSize = new AtomicInteger();
+        assertThatThrownBy(() -> backup.backupAccount(USERNAME_1, interruptedDestination, Optional.empty(), checkpoint -> {
+            checkpoints.add(checkpoint);
+            flushedSize.set(interruptedDestination.size());
+            if (checkpoints.size() == 2) {
+                throw new RuntimeException("Export interrupted");
+            }
+        })).isInstanceOf(RuntimeException.class);
+        // The export stopped abruptly: only the flushed message entries are written, without the zip central directory
+        byte[] firstPart = Arrays.copyOf(interruptedDestination.toByteArray(), flushedSize.get());
+
+        ByteArrayOutputStream continuationDestination = new ByteArrayOutputStream(BUFFER_SIZE);
+        backup.backupAccount(USERNAME_1, continuationDestination, Optional.of(Iterables.getLast(checkpoints)), checkpoint -> { });
+
+        assertThat(Mono.from(backup.restore(USERNAME_2, new ByteArrayInputStream(firstPart))).block())
+            .isEqualTo(MailboxBackup.BackupStatus.DONE);
+        assertThat(Mono.from(backup.restoreContinuation(USERNAME_2, new ByteArrayInputStream(continuationDestination.toByteArray()))).block())
+            .isEqualTo(MailboxBackup.BackupStatus.DONE);
+
+        List<DefaultMailboxBackup.MailAccountContent> content = backup.getAccountContentForUser(sessionOtherUser);
+        assertThat(content).hasSize(2);
+        assertThat(content.get(0).getMailboxWithAnnotations().mailbox.getName()).isEqualTo(MAILBOX_1_NAME);
+        assertThat(contents(content.get(0))).containsExactlyElementsOf(mailbox1Contents);
+        assertThat(content.get(1).getMailboxWithAnnotations().mailbox.getName()).isEqualTo(MAILBOX_2_NAME);
+        assertThat(contents(content.get(1))).containsExactlyElementsOf(mailbox2Contents);
+    }
+
+    @Test
+    void restoringAContinuationShouldAppendToExistingMailboxesAndCreateMissingOnes() throws Exception {
+        createMailboxWithMessages(sessionUser, MAILBOX_PATH_USER1_MAILBOX1, getMessage1AppendCommand());
+        createMailbox(sessionUser, MAILBOX_PATH_USER1_MAILBOX2);
+        createMailboxWithMessages(sessionOtherUser, MailboxPath.forUser(OTHER_USER, MAILBOX_1_NAME), getMessage2AppendCommand());
+
+        ByteArrayOutputStream destination = new ByteArrayOutputStream(BUFFER_SIZE);
+        backup.backupAccount(USERNAME_1, destination);
+
+        InputStream source = new ByteArrayInputStream(destination.toByteArray());
+        assertThat(Mono.from(backup.restoreContinuation(USERNAME_2, source)).block())
+            .isEqualTo(MailboxBackup.BackupStatus.DONE);
+
+        List<DefaultMailboxBackup.MailAccountContent> content = backup.getAccountContentForUser(sessionOtherUser);
+        assertThat(content).hasSize(2);
+        assertThat(contents(content.get(0))).containsExactly(MESSAGE_CONTENT_2, MESSAGE_CONTENT_1);
+        assertThat(content.get(1).getMailboxWithAnnotations().mailbox.getName()).isEqualTo(MAILBOX_2_NAME);
+        assertThat(contents(content.get(1))).isEmpty();
+    }
+
+    private ImmutableList<String> messageContents(String mailboxName, int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> "Subject: " + mailboxName + " message " + i + "\r\n\r\nbody\r\n")
+            .collect(Guavate.toImmutableList());
+    }
+
+    private MessageManager.AppendCommand[] appendCommands(List<String> contents) {
+        return contents.stream()
+            .map(content -> MessageManager.AppendCommand.builder().withFlags(flags1).build(content))
+            .toArray(MessageManager.AppendCommand[]::new);
+    }
+
+    private Stream<String> contents(DefaultMailboxBackup.MailAccountContent mailAccountContent) {
+        return mailAccountContent.getMessages()
+            .map(Throwing.function(message -> IOUtils.toString(message.getFullContent().getInputStream(), StandardCharsets.UTF_8)));
+    }
+
     private MessageManager.AppendCommand getMessage1AppendCommand() throws IOException {
         return MessageManager.AppendCommand.builder().withFlags(flags1).build(MESSAGE_1.getFullContent());
     }
 
+    private MessageManager.AppendCommand getMessage2AppendCommand() throws IOException {
+        return MessageManager.AppendCommand.builder().withFlags(flags1).build(MESSAGE_2.getFullContent());
+    }
+
     private MessageManager.AppendCommand getMessage1OtherUserAppendCommand() throws IOException {
         return MessageManager.AppendCommand.builder().withFlags(flags1).build(MESSAGE_1_OTHER_USER.getFullContent());
     }
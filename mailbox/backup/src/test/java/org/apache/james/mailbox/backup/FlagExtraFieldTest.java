@@ -301,4 +301,34 @@ class FlagExtraFieldTest {
             assertThat(testee.getValue()).contains("\\SEEN%myFlags");
         }
     }
+
+    @Nested
+    class ParseFlags {
+
+        @Test
+        void parseFlagsShouldReturnEmptyFlagsWhenEmptyValue() {
+            assertThat(FlagsExtraField.parseFlags("")).isEqualTo(new Flags());
+        }
+
+        @Test
+        void parseFlagsShouldParseSystemAndUserFlags() {
+            Flags flags = new Flags("myFlags");
+            flags.add(Flags.Flag.ANSWERED);
+            flags.add(Flags.Flag.SEEN);
+
+            assertThat(FlagsExtraField.parseFlags("\\ANSWERED%\\SEEN%myFlags")).isEqualTo(flags);
+        }
+
+        @Test
+        void parseFlagsShouldBeTheInverseOfSerialization() {
+            Flags flags = new Flags("myFlags");
+            flags.add("otherFlag");
+            flags.add(Flags.Flag.DELETED);
+            flags.add(Flags.Flag.DRAFT);
+            flags.add(Flags.Flag.FLAGGED);
+            flags.add(Flags.Flag.RECENT);
+
+            assertThat(FlagsExtraField.parseFlags(new FlagsExtraField(flags).getValue().get())).isEqualTo(flags);
+        }
+    }
 }
@@ -30,6 +30,8 @@ import static org.apache.james.mailbox.cassandra.table.CassandraDeletedMessageTa
 import static org.apache.james.mailbox.cassandra.table.CassandraDeletedMessageTable.TABLE_NAME;
 import static org.apache.james.mailbox.cassandra.table.CassandraDeletedMessageTable.UID;
 
+import java.util.Collection;
+
 import javax.inject.Inject;
 
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
@@ -38,9 +40,11 @@ import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.model.MessageRange;
 
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Session;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
 
 import reactor.core.publisher.Flux;
@@ -119,16 +123,29 @@ public class CassandraDeletedMessageDAO {
     }
 
     public Mono<Void> addDeleted(CassandraId cassandraId, MessageUid uid) {
-        return cassandraAsyncExecutor.executeVoid(
-            addStatement.bind()
-                .setUUID(MAILBOX_ID, cassandraId.asUuid())
-                .setLong(UID, uid.asLong()));
+        return cassandraAsyncExecutor.executeVoid(bind(addStatement, cassandraId, uid));
+    }
+
+    public Mono<Void> addDeleted(CassandraId cassandraId, Collection<MessageUid> uids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(uids.stream()
+            .map(uid -> bind(addStatement, cassandraId, uid))
+            .collect(Guavate.toImmutableList()));
     }
 
     public Mono<Void> removeDeleted(CassandraId cassandraId, MessageUid uid) {
-        return cassandraAsyncExecutor.executeVoid(deleteStatement.bind()
+        return cassandraAsyncExecutor.executeVoid(bind(deleteStatement, cassandraId, uid));
+    }
+
+    public Mono<Void> removeDeleted(CassandraId cassandraId, Collection<MessageUid> uids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(uids.stream()
+            .map(uid -> bind(deleteStatement, cassandraId, uid))
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private BoundStatement bind(PreparedStatement statement, CassandraId cassandraId, MessageUid uid) {
+        return statement.bind()
             .setUUID(MAILBOX_ID, cassandraId.asUuid())
-            .setLong(UID, uid.asLong()));
+            .setLong(UID, uid.asLong());
     }
 
     public Flux<MessageUid> retrieveDeletedMessage(CassandraId cassandraId, MessageRange range) {
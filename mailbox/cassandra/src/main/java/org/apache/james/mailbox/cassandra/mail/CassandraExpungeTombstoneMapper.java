@@ -0,0 +1,251 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.cassandra.mail;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.desc;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gt;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lt;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.ttl;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungeTombstoneTable.EXPUNGED_AT;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungeTombstoneTable.MAILBOX_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungeTombstoneTable.MOD_SEQ;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungeTombstoneTable.PREVIOUS_MOD_SEQ;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungeTombstoneTable.SELECT_FIELDS;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungeTombstoneTable.TABLE_NAME;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungeTombstoneTable.UIDS;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.table.CassandraExpungeTombstoneTable.Horizon;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.store.mail.ExpungeTombstoneMapper;
+import org.apache.james.mailbox.store.mail.model.ExpungeTombstone;
+import org.apache.james.mailbox.store.transaction.NonTransactionalMapper;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.primitives.Ints;
+
+/**
+ * Tombstones of a mailbox are held in a single partition, and expire with the retention period thanks to their TTL.
+ *
+ * As mod-sequences grow over time, tombstones expire in mod-sequence order. Each tombstone references the
+ * mod-sequence of the previous expunge, and the horizon row the mod-sequence of the last one: an expired tombstone
+ * is detected when the oldest tombstone returned references an expunge missing from the result, or when no tombstone
+ * is returned while the last expunge is newer than the requested mod-sequence.
+ *
+ * Concurrent expunges of a mailbox might record a stale previous or last mod-sequence, which can only hide the expiry
+ * of one of them until the other expires.
+ */
+public class CassandraExpungeTombstoneMapper extends NonTransactionalMapper implements ExpungeTombstoneMapper {
+    private static final String TTL = "ttl";
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final Clock clock;
+    private final Duration retention;
+    private final PreparedStatement insertTombstone;
+    private final PreparedStatement selectTombstonesSince;
+    private final PreparedStatement selectPreviousTombstone;
+    private final PreparedStatement deleteTombstones;
+    private final PreparedStatement insertHorizon;
+    private final PreparedStatement selectHorizon;
+    private final PreparedStatement deleteHorizon;
+
+    @Inject
+    public CassandraExpungeTombstoneMapper(Session session) {
+        this(session, Clock.systemUTC(), DEFAULT_RETENTION);
+    }
+
+    public CassandraExpungeTombstoneMapper(Session session, Clock clock, Duration retention) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.clock = clock;
+        this.retention = retention;
+
+        this.insertTombstone = session.prepare(insertInto(TABLE_NAME)
+            .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
+            .value(MOD_SEQ, bindMarker(MOD_SEQ))
+            .value(EXPUNGED_AT, bindMarker(EXPUNGED_AT))
+            .value(UIDS, bindMarker(UIDS))
+            .value(PREVIOUS_MOD_SEQ, bindMarker(PREVIOUS_MOD_SEQ))
+            .using(ttl(bindMarker(TTL))));
+        this.selectTombstonesSince = session.prepare(select(SELECT_FIELDS)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(gt(MOD_SEQ, bindMarker(MOD_SEQ))));
+        this.selectPreviousTombstone = session.prepare(select(MOD_SEQ)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(lt(MOD_SEQ, bindMarker(MOD_SEQ)))
+            .orderBy(desc(MOD_SEQ))
+            .limit(1));
+        this.deleteTombstones = session.prepare(QueryBuilder.delete()
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+        this.insertHorizon = session.prepare(insertInto(Horizon.TABLE_NAME)
+            .value(Horizon.MAILBOX_ID, bindMarker(Horizon.MAILBOX_ID))
+            .value(Horizon.HORIZON, bindMarker(Horizon.HORIZON))
+            .value(Horizon.LAST_MOD_SEQ, bindMarker(Horizon.LAST_MOD_SEQ)));
+        this.selectHorizon = session.prepare(select(Horizon.HORIZON, Horizon.LAST_MOD_SEQ)
+            .from(Horizon.TABLE_NAME)
+            .where(eq(Horizon.MAILBOX_ID, bindMarker(Horizon.MAILBOX_ID))));
+        this.deleteHorizon = session.prepare(QueryBuilder.delete()
+            .from(Horizon.TABLE_NAME)
+            .where(eq(Horizon.MAILBOX_ID, bindMarker(Horizon.MAILBOX_ID))));
+    }
+
+    private static class Tracking {
+        private final long horizon;
+        private final Optional<Long> lastModSeq;
+
+        Tracking(long horizon, Optional<Long> lastModSeq) {
+            this.horizon = horizon;
+            this.lastModSeq = lastModSeq;
+        }
+    }
+
+    @Override
+    public void record(MailboxId mailboxId, ExpungeTombstone tombstone) {
+        CassandraId cassandraId = (CassandraId) mailboxId;
+        long modSeq = tombstone.getModSeq().asLong();
+        Tracking tracking = readTracking(cassandraId)
+            .orElseGet(() -> new Tracking(modSeq - 1, Optional.empty()));
+        long lastModSeq = Math.max(modSeq, tracking.lastModSeq.orElse(modSeq));
+
+        Duration timeToLive = retention.minus(Duration.between(tombstone.getExpungedAt(), clock.instant()));
+        if (timeToLive.getSeconds() <= 0) {
+            writeTracking(cassandraId, Math.max(tracking.horizon, modSeq), lastModSeq);
+            return;
+        }
+
+        long previousModSeq = Math.max(
+            previousTombstone(cassandraId, modSeq).orElse(tracking.horizon),
+            tracking.lastModSeq.filter(last -> last < modSeq).orElse(tracking.horizon));
+        cassandraAsyncExecutor.executeVoid(insertTombstone.bind()
+                .setUUID(MAILBOX_ID, cassandraId.asUuid())
+                .setLong(MOD_SEQ, modSeq)
+                .setTimestamp(EXPUNGED_AT, Date.from(tombstone.getExpungedAt()))
+                .setString(UIDS, tombstone.serializeUids())
+                .setLong(PREVIOUS_MOD_SEQ, previousModSeq)
+                .setInt(TTL, Ints.checkedCast(timeToLive.getSeconds())))
+            .block();
+        writeTracking(cassandraId, tracking.horizon, lastModSeq);
+    }
+
+    private Optional<Long> previousTombstone(CassandraId cassandraId, long modSeq) {
+        return cassandraAsyncExecutor.executeSingleRowOptional(selectPreviousTombstone.bind()
+                .setUUID(MAILBOX_ID, cassandraId.asUuid())
+                .setLong(MOD_SEQ, modSeq))
+            .block()
+            .map(row -> row.getLong(MOD_SEQ));
+    }
+
+    private Optional<Tracking> readTracking(CassandraId cassandraId) {
+        return cassandraAsyncExecutor.executeSingleRowOptional(selectHorizon.bind()
+                .setUUID(Horizon.MAILBOX_ID, cassandraId.asUuid()))
+            .block()
+            .map(row -> new Tracking(row.getLong(Horizon.HORIZON), lastModSeq(row)));
+    }
+
+    private Optional<Long> lastModSeq(Row row) {
+        if (row.isNull(Horizon.LAST_MOD_SEQ)) {
+            return Optional.empty();
+        }
+        return Optional.of(row.getLong(Horizon.LAST_MOD_SEQ));
+    }
+
+    private void writeTracking(CassandraId cassandraId, long horizon, Long lastModSeq) {
+        cassandraAsyncExecutor.executeVoid(insertHorizon.bind()
+                .setUUID(Horizon.MAILBOX_ID, cassandraId.asUuid())
+                .setLong(Horizon.HORIZON, horizon)
+                .set(Horizon.LAST_MOD_SEQ, lastModSeq, Long.class))
+            .block();
+    }
+
+    @Override
+    public void startTracking(MailboxId mailboxId, ModSeq modSeq) {
+        CassandraId cassandraId = (CassandraId) mailboxId;
+        if (!readTracking(cassandraId).isPresent()) {
+            writeTracking(cassandraId, modSeq.asLong(), null);
+        }
+    }
+
+    @Override
+    public Optional<List<ExpungeTombstone>> expungedSince(MailboxId mailboxId, ModSeq modSeq) {
+        CassandraId cassandraId = (CassandraId) mailboxId;
+        Optional<Tracking> tracking = readTracking(cassandraId);
+        if (!tracking.isPresent() || modSeq.asLong() < tracking.get().horizon) {
+            return Optional.empty();
+        }
+
+        List<Row> rows = cassandraAsyncExecutor.executeRows(selectTombstonesSince.bind()
+                .setUUID(MAILBOX_ID, cassandraId.asUuid())
+                .setLong(MOD_SEQ, modSeq.asLong()))
+            .collectList()
+            .block();
+        if (someExpired(rows, tracking.get(), modSeq.asLong())) {
+            return Optional.empty();
+        }
+        return Optional.of(rows.stream()
+            .map(this::toTombstone)
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private boolean someExpired(List<Row> rows, Tracking tracking, long modSeq) {
+        if (rows.isEmpty()) {
+            return tracking.lastModSeq.filter(last -> last > modSeq).isPresent();
+        }
+        return rows.get(0).getLong(PREVIOUS_MOD_SEQ) > modSeq;
+    }
+
+    private ExpungeTombstone toTombstone(Row row) {
+        return ExpungeTombstone.deserialize(ModSeq.of(row.getLong(MOD_SEQ)),
+            row.getTimestamp(EXPUNGED_AT).toInstant(),
+            row.getString(UIDS));
+    }
+
+    @Override
+    public void delete(MailboxId mailboxId) {
+        CassandraId cassandraId = (CassandraId) mailboxId;
+        cassandraAsyncExecutor.executeVoid(deleteTombstones.bind()
+                .setUUID(MAILBOX_ID, cassandraId.asUuid()))
+            .then(cassandraAsyncExecutor.executeVoid(deleteHorizon.bind()
+                .setUUID(Horizon.MAILBOX_ID, cassandraId.asUuid())))
+            .block();
+    }
+
+    @Override
+    public void endRequest() {
+    }
+}
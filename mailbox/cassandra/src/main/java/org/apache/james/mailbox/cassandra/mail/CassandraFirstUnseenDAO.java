@@ -29,14 +29,18 @@ import static org.apache.james.mailbox.cassandra.table.CassandraFirstUnseenTable
 import static org.apache.james.mailbox.cassandra.table.CassandraFirstUnseenTable.TABLE_NAME;
 import static org.apache.james.mailbox.cassandra.table.CassandraFirstUnseenTable.UID;
 
+import java.util.Collection;
+
 import javax.inject.Inject;
 
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
+import com.github.steveash.guavate.Guavate;
 
 import reactor.core.publisher.Mono;
 
@@ -76,16 +80,29 @@ public class CassandraFirstUnseenDAO {
     }
 
     public Mono<Void> addUnread(CassandraId cassandraId, MessageUid uid) {
-        return cassandraAsyncExecutor.executeVoid(
-            addStatement.bind()
-                .setUUID(MAILBOX_ID, cassandraId.asUuid())
-                .setLong(UID, uid.asLong()));
+        return cassandraAsyncExecutor.executeVoid(bind(addStatement, cassandraId, uid));
+    }
+
+    public Mono<Void> addUnread(CassandraId cassandraId, Collection<MessageUid> uids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(uids.stream()
+            .map(uid -> bind(addStatement, cassandraId, uid))
+            .collect(Guavate.toImmutableList()));
     }
 
     public Mono<Void> removeUnread(CassandraId cassandraId, MessageUid uid) {
-        return cassandraAsyncExecutor.executeVoid(deleteStatement.bind()
+        return cassandraAsyncExecutor.executeVoid(bind(deleteStatement, cassandraId, uid));
+    }
+
+    public Mono<Void> removeUnread(CassandraId cassandraId, Collection<MessageUid> uids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(uids.stream()
+            .map(uid -> bind(deleteStatement, cassandraId, uid))
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private BoundStatement bind(PreparedStatement statement, CassandraId cassandraId, MessageUid uid) {
+        return statement.bind()
             .setUUID(MAILBOX_ID, cassandraId.asUuid())
-            .setLong(UID, uid.asLong()));
+            .setLong(UID, uid.asLong());
     }
 
     public Mono<MessageUid> retrieveFirstUnread(CassandraId cassandraId) {
@@ -19,15 +19,19 @@
 
 package org.apache.james.mailbox.cassandra.mail;
 
+import java.util.List;
+
 import javax.inject.Inject;
 import javax.mail.Flags;
 
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.MessageMetaData;
 import org.apache.james.mailbox.model.UpdatedFlags;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableSet;
 
 import reactor.core.publisher.Flux;
@@ -40,18 +44,21 @@ public class CassandraIndexTableHandler {
     private final CassandraFirstUnseenDAO firstUnseenDAO;
     private final CassandraApplicableFlagDAO applicableFlagDAO;
     private final CassandraDeletedMessageDAO deletedMessageDAO;
+    private final CassandraMailboxMessageMetadataDAO metadataDAO;
 
     @Inject
     public CassandraIndexTableHandler(CassandraMailboxRecentsDAO mailboxRecentDAO,
                                       CassandraMailboxCounterDAO mailboxCounterDAO,
                                       CassandraFirstUnseenDAO firstUnseenDAO,
                                       CassandraApplicableFlagDAO applicableFlagDAO,
-                                      CassandraDeletedMessageDAO deletedMessageDAO) {
+                                      CassandraDeletedMessageDAO deletedMessageDAO,
+                                      CassandraMailboxMessageMetadataDAO metadataDAO) {
         this.mailboxRecentDAO = mailboxRecentDAO;
         this.mailboxCounterDAO = mailboxCounterDAO;
         this.firstUnseenDAO = firstUnseenDAO;
         this.applicableFlagDAO = applicableFlagDAO;
         this.deletedMessageDAO = deletedMessageDAO;
+        this.metadataDAO = metadataDAO;
     }
 
     public Mono<Void> updateIndexOnDelete(ComposedMessageIdWithMetaData composedMessageIdWithMetaData, CassandraId mailboxId) {
@@ -62,6 +69,7 @@ public class CassandraIndexTableHandler {
                mailboxRecentDAO.removeFromRecent(mailboxId, composedMessageIdWithMetaData.getComposedMessageId().getUid()),
                mailboxCounterDAO.decrementCount(mailboxId),
                deletedMessageDAO.removeDeleted(mailboxId, uid),
+               metadataDAO.delete(mailboxId, uid),
                decrementUnseenOnDelete(mailboxId, composedMessageIdWithMetaData.getFlags()))
                 .then();
     }
@@ -75,6 +83,8 @@ public class CassandraIndexTableHandler {
                addRecentOnSave(mailboxId, message),
                incrementUnseenOnSave(mailboxId, flags),
                mailboxCounterDAO.incrementCount(mailboxId),
+               metadataDAO.insert(mailboxId, new MessageMetaData(message.getUid(), message.getModSeq(), flags,
+                   message.getFullContentOctets(), message.getInternalDate(), message.getMessageId())),
                applicableFlagDAO.updateApplicableFlags(mailboxId, ImmutableSet.copyOf(flags.getUserFlags())))
                 .then();
     }
@@ -85,10 +95,67 @@ public class CassandraIndexTableHandler {
                manageRecentOnFlagsUpdate(mailboxId, updatedFlags),
                updateFirstUnseenOnFlagsUpdate(mailboxId, updatedFlags),
                applicableFlagDAO.updateApplicableFlags(mailboxId, ImmutableSet.copyOf(updatedFlags.userFlagIterator())),
-               updateDeletedOnFlagsUpdate(mailboxId, updatedFlags))
+               updateDeletedOnFlagsUpdate(mailboxId, updatedFlags),
+               updateMetadataOnFlagsUpdate(mailboxId, updatedFlags))
+                .then();
+    }
+
+    /**
+     * Bulk variant of {@link #updateIndexOnFlagsUpdate(CassandraId, UpdatedFlags)} for updates of a single mailbox:
+     * counter deltas are aggregated into one counter mutation and index rows are written as unlogged batches
+     * on the mailbox partition.
+     *
+     * The message metadata projection is not updated here, see {@link #updateMetadataOnFlagsUpdate(CassandraId, List)}.
+     */
+    public Mono<Void> updateIndexOnFlagsUpdate(CassandraId mailboxId, List<UpdatedFlags> updatedFlags) {
+        return Flux.merge(
+               mailboxCounterDAO.addToUnseen(mailboxId, unseenDelta(updatedFlags)),
+               mailboxRecentDAO.removeFromRecent(mailboxId, uidsModifiedToUnset(updatedFlags, Flags.Flag.RECENT)),
+               mailboxRecentDAO.addToRecent(mailboxId, uidsModifiedToSet(updatedFlags, Flags.Flag.RECENT)),
+               firstUnseenDAO.addUnread(mailboxId, uidsModifiedToUnset(updatedFlags, Flags.Flag.SEEN)),
+               firstUnseenDAO.removeUnread(mailboxId, uidsModifiedToSet(updatedFlags, Flags.Flag.SEEN)),
+               applicableFlagDAO.updateApplicableFlags(mailboxId, updatedFlags.stream()
+                   .flatMap(flags -> ImmutableSet.copyOf(flags.userFlagIterator()).stream())
+                   .collect(Guavate.toImmutableSet())),
+               deletedMessageDAO.addDeleted(mailboxId, uidsModifiedToSet(updatedFlags, Flags.Flag.DELETED)),
+               deletedMessageDAO.removeDeleted(mailboxId, uidsModifiedToUnset(updatedFlags, Flags.Flag.DELETED)))
                 .then();
     }
 
+    /**
+     * Writes the new flags and modseq of the given updates to the message metadata projection. Unlike the other
+     * indexes, the projection is read in place of the imapUid table: it is updated separately so that callers can
+     * retry its failures.
+     */
+    public Mono<Void> updateMetadataOnFlagsUpdate(CassandraId mailboxId, List<UpdatedFlags> updatedFlags) {
+        return metadataDAO.updateFlags(mailboxId, updatedFlags);
+    }
+
+    private Mono<Void> updateMetadataOnFlagsUpdate(CassandraId mailboxId, UpdatedFlags updatedFlags) {
+        if (updatedFlags.flagsChanged()) {
+            return metadataDAO.updateFlags(mailboxId, updatedFlags);
+        }
+        return Mono.empty();
+    }
+
+    private long unseenDelta(List<UpdatedFlags> updatedFlags) {
+        return uidsModifiedToUnset(updatedFlags, Flags.Flag.SEEN).size() - uidsModifiedToSet(updatedFlags, Flags.Flag.SEEN).size();
+    }
+
+    private List<MessageUid> uidsModifiedToSet(List<UpdatedFlags> updatedFlags, Flags.Flag flag) {
+        return updatedFlags.stream()
+            .filter(flags -> flags.isModifiedToSet(flag))
+            .map(UpdatedFlags::getUid)
+            .collect(Guavate.toImmutableList());
+    }
+
+    private List<MessageUid> uidsModifiedToUnset(List<UpdatedFlags> updatedFlags, Flags.Flag flag) {
+        return updatedFlags.stream()
+            .filter(flags -> flags.isModifiedToUnset(flag))
+            .map(UpdatedFlags::getUid)
+            .collect(Guavate.toImmutableList());
+    }
+
     private Mono<Void> updateDeletedOnFlagsUpdate(CassandraId mailboxId, UpdatedFlags updatedFlags) {
         if (updatedFlags.isModifiedToSet(Flags.Flag.DELETED)) {
             return deletedMessageDAO.addDeleted(mailboxId, updatedFlags.getUid());
@@ -50,6 +50,7 @@ public class CassandraMailboxCounterDAO {
     private final PreparedStatement incrementMessageCountStatement;
     private final PreparedStatement decrementUnseenCountStatement;
     private final PreparedStatement decrementMessageCountStatement;
+    private final PreparedStatement addToUnseenCountStatement;
 
     @Inject
     public CassandraMailboxCounterDAO(Session session) {
@@ -59,6 +60,7 @@ public class CassandraMailboxCounterDAO {
         incrementUnseenCountStatement = updateMailboxStatement(session, incr(CassandraMailboxCountersTable.UNSEEN));
         decrementMessageCountStatement = updateMailboxStatement(session, decr(CassandraMailboxCountersTable.COUNT));
         decrementUnseenCountStatement = updateMailboxStatement(session, decr(CassandraMailboxCountersTable.UNSEEN));
+        addToUnseenCountStatement = updateMailboxStatement(session, incr(CassandraMailboxCountersTable.UNSEEN, bindMarker(CassandraMailboxCountersTable.UNSEEN)));
     }
 
     private PreparedStatement createReadStatement(Session session) {
@@ -118,6 +120,17 @@ public class CassandraMailboxCounterDAO {
         return cassandraAsyncExecutor.executeVoid(bindWithMailbox(mailboxId, incrementUnseenCountStatement));
     }
 
+    /**
+     * Applies an aggregated unseen delta, which can be negative, as a single counter mutation.
+     */
+    public Mono<Void> addToUnseen(CassandraId mailboxId, long delta) {
+        if (delta == 0) {
+            return Mono.empty();
+        }
+        return cassandraAsyncExecutor.executeVoid(bindWithMailbox(mailboxId, addToUnseenCountStatement)
+            .setLong(CassandraMailboxCountersTable.UNSEEN, delta));
+    }
+
     private BoundStatement bindWithMailbox(CassandraId mailboxId, PreparedStatement statement) {
         return statement.bind()
             .setUUID(CassandraMailboxCountersTable.MAILBOX_ID, mailboxId.asUuid());
@@ -37,6 +37,7 @@ import javax.inject.Inject;
 import org.apache.james.backends.cassandra.init.CassandraTypesProvider;
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.backends.cassandra.utils.CassandraUtils;
+import org.apache.james.backends.cassandra.utils.TokenRangeScanner;
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.cassandra.mail.utils.MailboxBaseTupleUtil;
@@ -47,6 +48,7 @@ import org.apache.james.mailbox.model.MailboxPath;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TokenRange;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.google.common.annotations.VisibleForTesting;
 
@@ -60,6 +62,7 @@ public class CassandraMailboxDAO {
     private final CassandraUtils cassandraUtils;
     private final PreparedStatement readStatement;
     private final PreparedStatement listStatement;
+    private final PreparedStatement listInTokenRangeStatement;
     private final PreparedStatement deleteStatement;
     private final PreparedStatement insertStatement;
     private final PreparedStatement updateStatement;
@@ -72,6 +75,7 @@ public class CassandraMailboxDAO {
         this.updateStatement = prepareUpdate(session);
         this.deleteStatement = prepareDelete(session);
         this.listStatement = prepareList(session);
+        this.listInTokenRangeStatement = prepareListInTokenRange(session);
         this.readStatement = prepareRead(session);
         this.cassandraUtils = cassandraUtils;
     }
@@ -106,6 +110,10 @@ public class CassandraMailboxDAO {
         return session.prepare(select(FIELDS).from(TABLE_NAME));
     }
 
+    private PreparedStatement prepareListInTokenRange(Session session) {
+        return session.prepare(TokenRangeScanner.inTokenRange(select(FIELDS).from(TABLE_NAME), ID));
+    }
+
     private PreparedStatement prepareRead(Session session) {
         return session.prepare(select(FIELDS).from(TABLE_NAME)
             .where(eq(ID, bindMarker(ID))));
@@ -154,6 +162,11 @@ public class CassandraMailboxDAO {
             .map(this::toMailboxWithId);
     }
 
+    public Flux<Mailbox> retrieveMailboxes(TokenRange tokenRange) {
+        return executor.executeRows(TokenRangeScanner.bindTokenRange(listInTokenRangeStatement.bind(), tokenRange))
+            .map(this::toMailboxWithId);
+    }
+
     private Mailbox toMailboxWithId(Row row) {
         return mailboxFromRow(row, CassandraId.of(row.getUUID(ID)));
     }
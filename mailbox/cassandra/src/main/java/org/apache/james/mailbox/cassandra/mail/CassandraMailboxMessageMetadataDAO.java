@@ -0,0 +1,323 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.timestamp;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxMessageMetadataTable.FIELDS;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxMessageMetadataTable.FLAGS;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxMessageMetadataTable.INTERNAL_DATE;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxMessageMetadataTable.MAILBOX_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxMessageMetadataTable.MESSAGE_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxMessageMetadataTable.MOD_SEQ;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxMessageMetadataTable.SIZE;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxMessageMetadataTable.TABLE_NAME;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxMessageMetadataTable.UID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxMessageMetadataTable.USER_FLAGS;
+
+import java.util.Collection;
+
+import javax.inject.Inject;
+import javax.mail.Flags;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.UpdatedFlags;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.Insert;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Maintains the per mailbox message metadata projection: one narrow row per message, clustered by UID, holding
+ * the modseq, a bitmap of the system flags, the user flags and the size.
+ *
+ * Reads are sequential scans of the mailbox partition, paged by the driver.
+ */
+public class CassandraMailboxMessageMetadataDAO {
+
+    private static final String UID_GTE = UID + "_GTE";
+    private static final String UID_LTE = UID + "_LTE";
+    private static final String WRITE_TIME = "writeTime";
+
+    private static final ImmutableList<Flags.Flag> SYSTEM_FLAGS = ImmutableList.of(
+        Flags.Flag.ANSWERED,
+        Flags.Flag.DELETED,
+        Flags.Flag.DRAFT,
+        Flags.Flag.FLAGGED,
+        Flags.Flag.RECENT,
+        Flags.Flag.SEEN,
+        Flags.Flag.USER);
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final CassandraMessageId.Factory messageIdFactory;
+    private final PreparedStatement insert;
+    private final PreparedStatement backfill;
+    private final PreparedStatement updateFlags;
+    private final PreparedStatement delete;
+    private final PreparedStatement selectUids;
+    private final PreparedStatement selectAll;
+    private final PreparedStatement selectOne;
+    private final PreparedStatement selectFrom;
+    private final PreparedStatement selectRange;
+
+    @Inject
+    public CassandraMailboxMessageMetadataDAO(Session session, CassandraMessageId.Factory messageIdFactory) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.messageIdFactory = messageIdFactory;
+        this.insert = prepareInsert(session);
+        this.backfill = prepareBackfill(session);
+        this.updateFlags = prepareUpdateFlags(session);
+        this.delete = prepareDelete(session);
+        this.selectUids = prepareSelectUids(session);
+        this.selectAll = prepareSelectAll(session);
+        this.selectOne = prepareSelectOne(session);
+        this.selectFrom = prepareSelectFrom(session);
+        this.selectRange = prepareSelectRange(session);
+    }
+
+    private PreparedStatement prepareInsert(Session session) {
+        return session.prepare(insertStatement());
+    }
+
+    private PreparedStatement prepareBackfill(Session session) {
+        return session.prepare(insertStatement()
+            .using(timestamp(bindMarker(WRITE_TIME))));
+    }
+
+    private Insert insertStatement() {
+        return insertInto(TABLE_NAME)
+            .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
+            .value(UID, bindMarker(UID))
+            .value(MESSAGE_ID, bindMarker(MESSAGE_ID))
+            .value(MOD_SEQ, bindMarker(MOD_SEQ))
+            .value(FLAGS, bindMarker(FLAGS))
+            .value(USER_FLAGS, bindMarker(USER_FLAGS))
+            .value(SIZE, bindMarker(SIZE))
+            .value(INTERNAL_DATE, bindMarker(INTERNAL_DATE));
+    }
+
+    private PreparedStatement prepareUpdateFlags(Session session) {
+        return session.prepare(update(TABLE_NAME)
+            .with(set(MOD_SEQ, bindMarker(MOD_SEQ)))
+            .and(set(FLAGS, bindMarker(FLAGS)))
+            .and(set(USER_FLAGS, bindMarker(USER_FLAGS)))
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(eq(UID, bindMarker(UID))));
+    }
+
+    private PreparedStatement prepareDelete(Session session) {
+        return session.prepare(delete()
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(eq(UID, bindMarker(UID))));
+    }
+
+    private PreparedStatement prepareSelectUids(Session session) {
+        return session.prepare(select(UID, SIZE)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+    }
+
+    private PreparedStatement prepareSelectAll(Session session) {
+        return session.prepare(select(FIELDS)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+    }
+
+    private PreparedStatement prepareSelectOne(Session session) {
+        return session.prepare(select(FIELDS)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(eq(UID, bindMarker(UID))));
+    }
+
+    private PreparedStatement prepareSelectFrom(Session session) {
+        return session.prepare(select(FIELDS)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(gte(UID, bindMarker(UID))));
+    }
+
+    private PreparedStatement prepareSelectRange(Session session) {
+        return session.prepare(select(FIELDS)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(gte(UID, bindMarker(UID_GTE)))
+            .and(lte(UID, bindMarker(UID_LTE))));
+    }
+
+    public Mono<Void> insert(CassandraId mailboxId, MessageMetaData metaData) {
+        return cassandraAsyncExecutor.executeVoid(bindInsert(insert.bind(), mailboxId, metaData));
+    }
+
+    /**
+     * Writes the row with the given timestamp, in microseconds. Passing the time at which the source tables were
+     * read ensures any update or delete performed since then wins over this write.
+     */
+    public Mono<Void> backfill(CassandraId mailboxId, MessageMetaData metaData, long writeTimeInMicros) {
+        return cassandraAsyncExecutor.executeVoid(bindInsert(backfill.bind(), mailboxId, metaData)
+            .setLong(WRITE_TIME, writeTimeInMicros));
+    }
+
+    private BoundStatement bindInsert(BoundStatement statement, CassandraId mailboxId, MessageMetaData metaData) {
+        return statement
+            .setUUID(MAILBOX_ID, mailboxId.asUuid())
+            .setLong(UID, metaData.getUid().asLong())
+            .setUUID(MESSAGE_ID, ((CassandraMessageId) metaData.getMessageId()).get())
+            .setLong(MOD_SEQ, metaData.getModSeq().asLong())
+            .setInt(FLAGS, toBitmap(metaData.getFlags()))
+            .setSet(USER_FLAGS, ImmutableSet.copyOf(metaData.getFlags().getUserFlags()))
+            .setLong(SIZE, metaData.getSize())
+            .setTimestamp(INTERNAL_DATE, metaData.getInternalDate());
+    }
+
+    public Mono<Void> updateFlags(CassandraId mailboxId, UpdatedFlags updatedFlags) {
+        return cassandraAsyncExecutor.executeVoid(bindUpdateFlags(mailboxId, updatedFlags));
+    }
+
+    public Mono<Void> updateFlags(CassandraId mailboxId, Collection<UpdatedFlags> updatedFlags) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(updatedFlags.stream()
+            .map(flags -> bindUpdateFlags(mailboxId, flags))
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private BoundStatement bindUpdateFlags(CassandraId mailboxId, UpdatedFlags updatedFlags) {
+        return updateFlags.bind()
+            .setLong(MOD_SEQ, updatedFlags.getModSeq().asLong())
+            .setInt(FLAGS, toBitmap(updatedFlags.getNewFlags()))
+            .setSet(USER_FLAGS, ImmutableSet.copyOf(updatedFlags.getNewFlags().getUserFlags()))
+            .setUUID(MAILBOX_ID, mailboxId.asUuid())
+            .setLong(UID, updatedFlags.getUid().asLong());
+    }
+
+    public Mono<Void> delete(CassandraId mailboxId, MessageUid uid) {
+        return cassandraAsyncExecutor.executeVoid(delete.bind()
+            .setUUID(MAILBOX_ID, mailboxId.asUuid())
+            .setLong(UID, uid.asLong()));
+    }
+
+    public Flux<MessageUid> listUids(CassandraId mailboxId) {
+        return cassandraAsyncExecutor.executeRows(selectUids.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid()))
+            .filter(this::isComplete)
+            .map(row -> MessageUid.of(row.getLong(UID)));
+    }
+
+    public Flux<MessageMetaData> retrieve(CassandraId mailboxId, MessageRange range) {
+        return retrieveRows(mailboxId, range)
+            .filter(this::isComplete)
+            .map(this::toMetaData);
+    }
+
+    /**
+     * Only returns the messages whose modseq is strictly higher than the given one, as CONDSTORE CHANGEDSINCE
+     * expects. The filtering is done while scanning the partition as modseq is not part of the primary key.
+     */
+    public Flux<MessageMetaData> retrieveChangedSince(CassandraId mailboxId, MessageRange range, ModSeq changedSince) {
+        return retrieveRows(mailboxId, range)
+            .filter(this::isComplete)
+            .filter(row -> row.getLong(MOD_SEQ) > changedSince.asLong())
+            .map(this::toMetaData);
+    }
+
+    private Flux<Row> retrieveRows(CassandraId mailboxId, MessageRange range) {
+        switch (range.getType()) {
+        case ALL:
+            return cassandraAsyncExecutor.executeRows(selectAll.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid()));
+        case FROM:
+            return cassandraAsyncExecutor.executeRows(selectFrom.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setLong(UID, range.getUidFrom().asLong()));
+        case RANGE:
+            return cassandraAsyncExecutor.executeRows(selectRange.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setLong(UID_GTE, range.getUidFrom().asLong())
+                .setLong(UID_LTE, range.getUidTo().asLong()));
+        case ONE:
+            return cassandraAsyncExecutor.executeRows(selectOne.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setLong(UID, range.getUidFrom().asLong()));
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A flags update racing with a delete can resurrect a partial row. Such rows carry no size and are ignored.
+     */
+    private boolean isComplete(Row row) {
+        return !row.isNull(SIZE);
+    }
+
+    private MessageMetaData toMetaData(Row row) {
+        Flags flags = fromBitmap(row.getInt(FLAGS));
+        row.getSet(USER_FLAGS, String.class).forEach(flags::add);
+
+        return new MessageMetaData(
+            MessageUid.of(row.getLong(UID)),
+            ModSeq.of(row.getLong(MOD_SEQ)),
+            flags,
+            row.getLong(SIZE),
+            row.getTimestamp(INTERNAL_DATE),
+            messageIdFactory.of(row.getUUID(MESSAGE_ID)));
+    }
+
+    static int toBitmap(Flags flags) {
+        int bitmap = 0;
+        for (int i = 0; i < SYSTEM_FLAGS.size(); i++) {
+            if (flags.contains(SYSTEM_FLAGS.get(i))) {
+                bitmap |= 1 << i;
+            }
+        }
+        return bitmap;
+    }
+
+    static Flags fromBitmap(int bitmap) {
+        Flags flags = new Flags();
+        for (int i = 0; i < SYSTEM_FLAGS.size(); i++) {
+            if ((bitmap & 1 << i) != 0) {
+                flags.add(SYSTEM_FLAGS.get(i));
+            }
+        }
+        return flags;
+    }
+}
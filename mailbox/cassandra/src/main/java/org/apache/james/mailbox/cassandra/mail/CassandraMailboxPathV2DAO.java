@@ -35,6 +35,7 @@ import javax.inject.Inject;
 
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.backends.cassandra.utils.CassandraUtils;
+import org.apache.james.backends.cassandra.utils.TokenRangeScanner;
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.cassandra.GhostMailbox;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
@@ -45,6 +46,7 @@ import org.apache.james.util.ReactorUtils;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TokenRange;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 
 import reactor.core.publisher.Flux;
@@ -60,6 +62,7 @@ public class CassandraMailboxPathV2DAO implements CassandraMailboxPathDAO {
     private final PreparedStatement select;
     private final PreparedStatement selectUser;
     private final PreparedStatement selectAll;
+    private final PreparedStatement selectInTokenRange;
 
     @Inject
     public CassandraMailboxPathV2DAO(Session session, CassandraUtils cassandraUtils) {
@@ -70,6 +73,7 @@ public class CassandraMailboxPathV2DAO implements CassandraMailboxPathDAO {
         this.select = prepareSelect(session);
         this.selectUser = prepareSelectUser(session);
         this.selectAll = prepareSelectAll(session);
+        this.selectInTokenRange = prepareSelectInTokenRange(session);
     }
 
     private PreparedStatement prepareDelete(Session session) {
@@ -110,6 +114,10 @@ public class CassandraMailboxPathV2DAO implements CassandraMailboxPathDAO {
             .from(TABLE_NAME));
     }
 
+    private PreparedStatement prepareSelectInTokenRange(Session session) {
+        return session.prepare(TokenRangeScanner.inTokenRange(select(FIELDS).from(TABLE_NAME), NAMESPACE, USER));
+    }
+
     @Override
     public Mono<CassandraIdAndPath> retrieveId(MailboxPath mailboxPath) {
         return cassandraAsyncExecutor.executeSingleRow(
@@ -141,6 +149,13 @@ public class CassandraMailboxPathV2DAO implements CassandraMailboxPathDAO {
                 .map(FunctionalUtils.toFunction(this::logReadSuccess)));
     }
 
+    public Flux<CassandraIdAndPath> listAll(TokenRange tokenRange) {
+        return cassandraAsyncExecutor.executeRows(
+            TokenRangeScanner.bindTokenRange(selectInTokenRange.bind(), tokenRange))
+            .map(this::fromRowToCassandraIdAndPath)
+            .map(FunctionalUtils.toFunction(this::logReadSuccess));
+    }
+
     /**
      * See https://issues.apache.org/jira/browse/MAILBOX-322 to read about the Ghost mailbox bug.
      *
@@ -25,6 +25,8 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 
+import java.util.Collection;
+
 import javax.inject.Inject;
 
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
@@ -36,6 +38,7 @@ import org.apache.james.mailbox.cassandra.table.CassandraMailboxRecentsTable;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
 
 import reactor.core.publisher.Flux;
@@ -97,15 +100,28 @@ public class CassandraMailboxRecentsDAO {
             .setUUID(CassandraMailboxRecentsTable.MAILBOX_ID, mailboxId.asUuid());
     }
 
+    private BoundStatement bindWithMailboxAndUid(CassandraId mailboxId, MessageUid messageUid, PreparedStatement statement) {
+        return bindWithMailbox(mailboxId, statement)
+            .setLong(CassandraMailboxRecentsTable.RECENT_MESSAGE_UID, messageUid.asLong());
+    }
+
     public Mono<Void> removeFromRecent(CassandraId mailboxId, MessageUid messageUid) {
-        return cassandraAsyncExecutor.executeVoid(deleteStatement.bind()
-            .setUUID(CassandraMailboxRecentsTable.MAILBOX_ID, mailboxId.asUuid())
-            .setLong(CassandraMailboxRecentsTable.RECENT_MESSAGE_UID, messageUid.asLong()));
+        return cassandraAsyncExecutor.executeVoid(bindWithMailboxAndUid(mailboxId, messageUid, deleteStatement));
+    }
+
+    public Mono<Void> removeFromRecent(CassandraId mailboxId, Collection<MessageUid> messageUids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(messageUids.stream()
+            .map(messageUid -> bindWithMailboxAndUid(mailboxId, messageUid, deleteStatement))
+            .collect(Guavate.toImmutableList()));
     }
 
     public Mono<Void> addToRecent(CassandraId mailboxId, MessageUid messageUid) {
-        return cassandraAsyncExecutor.executeVoid(addStatement.bind()
-            .setUUID(CassandraMailboxRecentsTable.MAILBOX_ID, mailboxId.asUuid())
-            .setLong(CassandraMailboxRecentsTable.RECENT_MESSAGE_UID, messageUid.asLong()));
+        return cassandraAsyncExecutor.executeVoid(bindWithMailboxAndUid(mailboxId, messageUid, addStatement));
+    }
+
+    public Mono<Void> addToRecent(CassandraId mailboxId, Collection<MessageUid> messageUids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(messageUids.stream()
+            .map(messageUid -> bindWithMailboxAndUid(mailboxId, messageUid, addStatement))
+            .collect(Guavate.toImmutableList()));
     }
 }
@@ -42,6 +42,7 @@ import static org.apache.james.mailbox.cassandra.table.Flag.USER;
 import static org.apache.james.mailbox.cassandra.table.Flag.USER_FLAGS;
 import static org.apache.james.mailbox.cassandra.table.MessageIdToImapUid.MOD_SEQ;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import javax.inject.Inject;
@@ -58,6 +59,7 @@ import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
 import org.apache.james.mailbox.model.MessageRange;
 
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
@@ -186,9 +188,26 @@ public class CassandraMessageIdDAO {
     }
 
     public Mono<Void> updateMetadata(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
+        return cassandraAsyncExecutor.executeVoid(bindUpdate(composedMessageIdWithMetaData));
+    }
+
+    /**
+     * Rows of a given mailbox share the same partition: updating them in an unlogged batch results in a single
+     * mutation per mailbox.
+     */
+    public Mono<Void> updateMetadata(Collection<ComposedMessageIdWithMetaData> composedMessageIdsWithMetaData) {
+        return Flux.fromIterable(composedMessageIdsWithMetaData)
+            .groupBy(composedMessageIdWithMetaData -> composedMessageIdWithMetaData.getComposedMessageId().getMailboxId())
+            .flatMap(group -> group.map(this::bindUpdate)
+                .collectList()
+                .flatMap(cassandraAsyncExecutor::executeVoidUnloggedBatch))
+            .then();
+    }
+
+    private BoundStatement bindUpdate(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
         ComposedMessageId composedMessageId = composedMessageIdWithMetaData.getComposedMessageId();
         Flags flags = composedMessageIdWithMetaData.getFlags();
-        return cassandraAsyncExecutor.executeVoid(update.bind()
+        return update.bind()
                 .setLong(MOD_SEQ, composedMessageIdWithMetaData.getModSeq().asLong())
                 .setBool(ANSWERED, flags.contains(Flag.ANSWERED))
                 .setBool(DELETED, flags.contains(Flag.DELETED))
@@ -199,7 +218,7 @@ public class CassandraMessageIdDAO {
                 .setBool(USER, flags.contains(Flag.USER))
                 .setSet(USER_FLAGS, ImmutableSet.copyOf(flags.getUserFlags()))
                 .setUUID(MAILBOX_ID, ((CassandraId) composedMessageId.getMailboxId()).asUuid())
-                .setLong(IMAP_UID, composedMessageId.getUid().asLong()));
+                .setLong(IMAP_UID, composedMessageId.getUid().asLong());
     }
 
     public Mono<Optional<ComposedMessageIdWithMetaData>> retrieve(CassandraId mailboxId, MessageUid uid) {
@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import javax.mail.Flags;
 import javax.mail.Flags.Flag;
@@ -55,9 +56,9 @@ import org.apache.james.util.streams.Limit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.github.fge.lambdas.Throwing;
 import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -65,6 +66,7 @@ import reactor.core.scheduler.Schedulers;
 
 public class CassandraMessageMapper implements MessageMapper {
     public static final Logger LOGGER = LoggerFactory.getLogger(CassandraMessageMapper.class);
+    private static final int METADATA_PROJECTION_MAX_RETRY = 5;
 
     private final CassandraModSeqProvider modSeqProvider;
     private final CassandraUidProvider uidProvider;
@@ -79,6 +81,8 @@ public class CassandraMessageMapper implements MessageMapper {
     private final AttachmentLoader attachmentLoader;
     private final CassandraDeletedMessageDAO deletedMessageDAO;
     private final CassandraConfiguration cassandraConfiguration;
+    private final CassandraMailboxMessageMetadataDAO metadataDAO;
+    private final MetadataProjectionSupport metadataProjectionSupport;
 
     public CassandraMessageMapper(CassandraUidProvider uidProvider, CassandraModSeqProvider modSeqProvider,
                                   CassandraAttachmentMapper attachmentMapper,
@@ -86,7 +90,8 @@ public class CassandraMessageMapper implements MessageMapper {
                                   CassandraMessageIdToImapUidDAO imapUidDAO, CassandraMailboxCounterDAO mailboxCounterDAO,
                                   CassandraMailboxRecentsDAO mailboxRecentDAO, CassandraApplicableFlagDAO applicableFlagDAO,
                                   CassandraIndexTableHandler indexTableHandler, CassandraFirstUnseenDAO firstUnseenDAO,
-                                  CassandraDeletedMessageDAO deletedMessageDAO, CassandraConfiguration cassandraConfiguration) {
+                                  CassandraDeletedMessageDAO deletedMessageDAO, CassandraConfiguration cassandraConfiguration,
+                                  CassandraMailboxMessageMetadataDAO metadataDAO, MetadataProjectionSupport metadataProjectionSupport) {
         this.uidProvider = uidProvider;
         this.modSeqProvider = modSeqProvider;
         this.messageDAO = messageDAO;
@@ -100,17 +105,44 @@ public class CassandraMessageMapper implements MessageMapper {
         this.applicableFlagDAO = applicableFlagDAO;
         this.deletedMessageDAO = deletedMessageDAO;
         this.cassandraConfiguration = cassandraConfiguration;
+        this.metadataDAO = metadataDAO;
+        this.metadataProjectionSupport = metadataProjectionSupport;
     }
 
     @Override
     public Iterator<MessageUid> listAllMessageUids(Mailbox mailbox) {
         CassandraId cassandraId = (CassandraId) mailbox.getMailboxId();
+        if (metadataProjectionSupport.isSupported()) {
+            return metadataDAO.listUids(cassandraId)
+                .toIterable()
+                .iterator();
+        }
         return messageIdDAO.retrieveMessages(cassandraId, MessageRange.all())
             .map(metaData -> metaData.getComposedMessageId().getUid())
             .toIterable()
             .iterator();
     }
 
+    @Override
+    public Iterator<MessageMetaData> listMessagesMetadata(Mailbox mailbox, MessageRange set) throws MailboxException {
+        if (metadataProjectionSupport.isSupported()) {
+            return metadataDAO.retrieve((CassandraId) mailbox.getMailboxId(), set)
+                .toIterable()
+                .iterator();
+        }
+        return MessageMapper.super.listMessagesMetadata(mailbox, set);
+    }
+
+    @Override
+    public Iterator<MessageMetaData> listMessagesMetadata(Mailbox mailbox, MessageRange set, ModSeq changedSince) throws MailboxException {
+        if (metadataProjectionSupport.isSupported()) {
+            return metadataDAO.retrieveChangedSince((CassandraId) mailbox.getMailboxId(), set, changedSince)
+                .toIterable()
+                .iterator();
+        }
+        return MessageMapper.super.listMessagesMetadata(mailbox, set, changedSince);
+    }
+
     @Override
     public long countMessagesInMailbox(Mailbox mailbox) {
         return getMailboxCounters(mailbox).getCount();
@@ -308,9 +340,58 @@ public class CassandraMessageMapper implements MessageMapper {
         if (finalResult.containsFailedResults()) {
             LOGGER.error("Can not update following UIDs {} for mailbox {}", finalResult.getFailed(), mailboxId.asUuid());
         }
+        updateMetadataProjection(mailboxId, finalResult.getSucceeded());
         return finalResult.getSucceeded().iterator();
     }
 
+    /**
+     * Failed writes of the message metadata projection are retried. A retry writes the flags currently stored in the
+     * messageIdTable so that it does not override a more recent update.
+     */
+    private void updateMetadataProjection(CassandraId mailboxId, List<UpdatedFlags> updatedFlags) {
+        List<MessageUid> failed = writeMetadataProjection(mailboxId, updatedFlags.stream()
+                .filter(UpdatedFlags::flagsChanged)
+                .collect(Guavate.toImmutableList()))
+            .block();
+        int retryCount = 0;
+        while (retryCount < METADATA_PROJECTION_MAX_RETRY && !failed.isEmpty()) {
+            retryCount++;
+            failed = retryMetadataProjection(mailboxId, failed).block();
+        }
+        if (!failed.isEmpty()) {
+            LOGGER.error("Could not update the message metadata projection for mailboxId {} UIDs {}. Their flags read from the projection are stale",
+                mailboxId.asUuid(), failed);
+        }
+    }
+
+    private Mono<List<MessageUid>> retryMetadataProjection(CassandraId mailboxId, List<MessageUid> failed) {
+        return Flux.fromIterable(failed)
+            .flatMap(uid -> messageIdDAO.retrieve(mailboxId, uid))
+            .<ComposedMessageIdWithMetaData>handle((t, sink) -> t.ifPresent(sink::next))
+            .map(metaData -> UpdatedFlags.builder()
+                .uid(metaData.getComposedMessageId().getUid())
+                .modSeq(metaData.getModSeq())
+                .oldFlags(metaData.getFlags())
+                .newFlags(metaData.getFlags())
+                .build())
+            .collect(Guavate.toImmutableList())
+            .flatMap(currentFlags -> writeMetadataProjection(mailboxId, currentFlags));
+    }
+
+    private Mono<List<MessageUid>> writeMetadataProjection(CassandraId mailboxId, List<UpdatedFlags> updatedFlags) {
+        return Flux.fromIterable(Lists.partition(updatedFlags, cassandraConfiguration.getFlagsUpdateChunkSize()))
+            .concatMap(chunk -> indexTableHandler.updateMetadataOnFlagsUpdate(mailboxId, chunk)
+                .then(Mono.<List<MessageUid>>empty())
+                .onErrorResume(e -> {
+                    LOGGER.warn("Could not update the message metadata projection for mailboxId {}, will retry", mailboxId.asUuid(), e);
+                    return Mono.just(chunk.stream()
+                        .map(UpdatedFlags::getUid)
+                        .collect(Guavate.toImmutableList()));
+                }))
+            .flatMapIterable(uids -> uids)
+            .collect(Guavate.toImmutableList());
+    }
+
     private FlagsUpdateStageResult handleUpdatesStagedRetry(CassandraId mailboxId, FlagsUpdateCalculator flagUpdateCalculator, FlagsUpdateStageResult firstResult) {
         FlagsUpdateStageResult globalResult = firstResult;
         int retryCount = 0;
@@ -334,27 +415,50 @@ public class CassandraMessageMapper implements MessageMapper {
     }
 
     private Mono<FlagsUpdateStageResult> runUpdateStage(CassandraId mailboxId, Flux<ComposedMessageIdWithMetaData> toBeUpdated, FlagsUpdateCalculator flagsUpdateCalculator) {
-        Mono<ModSeq> newModSeq = computeNewModSeq(mailboxId);
+        Mono<ModSeq> newModSeq = computeNewModSeq(mailboxId).cache();
         return toBeUpdated
-            .concatMap(metadata -> newModSeq.flatMap(modSeq -> tryFlagsUpdate(flagsUpdateCalculator, modSeq, metadata)))
+            .buffer(cassandraConfiguration.getFlagsUpdateChunkSize())
+            .concatMap(chunk -> runUpdateChunk(mailboxId, chunk, flagsUpdateCalculator, newModSeq))
+            .reduce(FlagsUpdateStageResult.none(), FlagsUpdateStageResult::merge);
+    }
+
+    private Mono<FlagsUpdateStageResult> runUpdateChunk(CassandraId mailboxId, List<ComposedMessageIdWithMetaData> chunk,
+                                                        FlagsUpdateCalculator flagsUpdateCalculator, Mono<ModSeq> newModSeq) {
+        return Flux.fromIterable(chunk)
+            .flatMap(metadata -> tryFlagsUpdate(flagsUpdateCalculator, newModSeq, metadata))
             .reduce(FlagsUpdateStageResult.none(), FlagsUpdateStageResult::merge)
+            .flatMap(result -> updateMessageIdTable(chunk, result))
             .flatMap(result -> updateIndexesForUpdatesResult(mailboxId, result));
     }
 
+    private Mono<FlagsUpdateStageResult> updateMessageIdTable(List<ComposedMessageIdWithMetaData> chunk, FlagsUpdateStageResult result) {
+        Map<MessageUid, ComposedMessageIdWithMetaData> oldMetadata = chunk.stream()
+            .collect(Guavate.toImmutableMap(metadata -> metadata.getComposedMessageId().getUid(), Function.identity()));
+        List<ComposedMessageIdWithMetaData> newMetadata = result.getSucceeded().stream()
+            .filter(updatedFlags -> !updatedFlags.getModSeq().equals(oldMetadata.get(updatedFlags.getUid()).getModSeq()))
+            .map(updatedFlags -> ComposedMessageIdWithMetaData.builder()
+                .composedMessageId(oldMetadata.get(updatedFlags.getUid()).getComposedMessageId())
+                .modSeq(updatedFlags.getModSeq())
+                .flags(updatedFlags.getNewFlags())
+                .build())
+            .collect(Guavate.toImmutableList());
+        return messageIdDAO.updateMetadata(newMetadata)
+            .thenReturn(result);
+    }
+
     private Mono<ModSeq> computeNewModSeq(CassandraId mailboxId) {
         return modSeqProvider.nextModSeq(mailboxId)
             .switchIfEmpty(ReactorUtils.executeAndEmpty(() -> new RuntimeException("ModSeq generation failed for mailbox " + mailboxId.asUuid())));
     }
 
     private Mono<FlagsUpdateStageResult> updateIndexesForUpdatesResult(CassandraId mailboxId, FlagsUpdateStageResult result) {
-        return Flux.fromIterable(result.getSucceeded())
-            .flatMap(Throwing
-                .function((UpdatedFlags updatedFlags) -> indexTableHandler.updateIndexOnFlagsUpdate(mailboxId, updatedFlags))
-                .fallbackTo(failedIndex -> {
-                    LOGGER.error("Could not update flag indexes for mailboxId {} UID {}. This will lead to inconsistencies across Cassandra tables", mailboxId, failedIndex.getUid());
-                    return Mono.empty();
-                }))
-            .then(Mono.just(result));
+        return indexTableHandler.updateIndexOnFlagsUpdate(mailboxId, result.getSucceeded())
+            .onErrorResume(e -> {
+                LOGGER.error("Could not update flag indexes for mailboxId {} UIDs {}. This will lead to inconsistencies across Cassandra tables",
+                    mailboxId, result.getSucceeded().stream().map(UpdatedFlags::getUid).collect(Guavate.toImmutableList()), e);
+                return Mono.empty();
+            })
+            .thenReturn(result);
     }
 
     @Override
@@ -410,7 +514,7 @@ public class CassandraMessageMapper implements MessageMapper {
     }
 
 
-    private Mono<FlagsUpdateStageResult> tryFlagsUpdate(FlagsUpdateCalculator flagUpdateCalculator, ModSeq newModSeq, ComposedMessageIdWithMetaData oldMetaData) {
+    private Mono<FlagsUpdateStageResult> tryFlagsUpdate(FlagsUpdateCalculator flagUpdateCalculator, Mono<ModSeq> newModSeq, ComposedMessageIdWithMetaData oldMetaData) {
         Flags oldFlags = oldMetaData.getFlags();
         Flags newFlags = flagUpdateCalculator.buildNewFlags(oldFlags);
 
@@ -423,38 +527,35 @@ public class CassandraMessageMapper implements MessageMapper {
                 .build()));
         }
 
-        return updateFlags(oldMetaData, newFlags, newModSeq)
+        return newModSeq.flatMap(modSeq -> updateFlags(oldMetaData, newFlags, modSeq)
             .map(success -> {
                 if (success) {
                     return FlagsUpdateStageResult.success(UpdatedFlags.builder()
                         .uid(oldMetaData.getComposedMessageId().getUid())
-                        .modSeq(newModSeq)
+                        .modSeq(modSeq)
                         .oldFlags(oldFlags)
                         .newFlags(newFlags)
                         .build());
                 } else {
                     return FlagsUpdateStageResult.fail(oldMetaData.getComposedMessageId().getUid());
                 }
-            });
+            }));
     }
 
     private boolean identicalFlags(Flags oldFlags, Flags newFlags) {
         return oldFlags.equals(newFlags);
     }
 
+    /**
+     * Only the conditional update of the imapUid table is performed here, it detects concurrent modifications.
+     * The messageId table is updated afterward, in an unlogged batch for the whole chunk.
+     */
     private Mono<Boolean> updateFlags(ComposedMessageIdWithMetaData oldMetadata, Flags newFlags, ModSeq newModSeq) {
         ComposedMessageIdWithMetaData newMetadata = ComposedMessageIdWithMetaData.builder()
                 .composedMessageId(oldMetadata.getComposedMessageId())
                 .modSeq(newModSeq)
                 .flags(newFlags)
                 .build();
-        return imapUidDAO.updateMetadata(newMetadata, oldMetadata.getModSeq())
-            .flatMap(success -> {
-                if (success) {
-                    return messageIdDAO.updateMetadata(newMetadata).thenReturn(true);
-                } else {
-                    return Mono.just(false);
-                }
-            });
+        return imapUidDAO.updateMetadata(newMetadata, oldMetadata.getModSeq());
     }
 }
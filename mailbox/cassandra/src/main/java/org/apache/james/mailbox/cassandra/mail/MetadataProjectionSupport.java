@@ -0,0 +1,52 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.cassandra.mail;
+
+import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionDAO;
+import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionManager;
+import org.apache.james.backends.cassandra.versions.SchemaVersion;
+
+/**
+ * The metadata projection is maintained on every write, but is only complete once the migration
+ * to {@link #METADATA_PROJECTION_SUPPORTED_VERSION} backfilled it.
+ *
+ * As the schema version never decreases, it is no longer read once it reached that version.
+ */
+public class MetadataProjectionSupport {
+    public static final SchemaVersion METADATA_PROJECTION_SUPPORTED_VERSION = new SchemaVersion(8);
+
+    private final CassandraSchemaVersionDAO schemaVersionDAO;
+    private volatile boolean supported;
+
+    public MetadataProjectionSupport(CassandraSchemaVersionDAO schemaVersionDAO) {
+        this.schemaVersionDAO = schemaVersionDAO;
+        this.supported = false;
+    }
+
+    public boolean isSupported() {
+        if (!supported) {
+            SchemaVersion schemaVersion = schemaVersionDAO.getCurrentSchemaVersion()
+                .block()
+                .orElse(CassandraSchemaVersionManager.MIN_VERSION);
+
+            supported = !schemaVersion.isBefore(METADATA_PROJECTION_SUPPORTED_VERSION);
+        }
+        return supported;
+    }
+}
@@ -0,0 +1,110 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail.migration;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.migration.Migration;
+import org.apache.james.backends.cassandra.utils.TokenRangeScanner;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxMessageMetadataDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdToImapUidDAO;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.apache.james.util.streams.Limit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Backfills the per mailbox message metadata projection from the messageIdTable and the messageV2 table.
+ */
+public class MailboxMessageMetadataMigration implements Migration {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailboxMessageMetadataMigration.class);
+    private static final int READ_BATCH_SIZE = 100;
+    static final String SCAN_NAME = "mailbox-message-metadata-migration";
+
+    private final CassandraMailboxDAO mailboxDAO;
+    private final CassandraMessageIdDAO messageIdDAO;
+    private final CassandraMessageIdToImapUidDAO imapUidDAO;
+    private final CassandraMessageDAO messageDAO;
+    private final CassandraMailboxMessageMetadataDAO metadataDAO;
+    private final TokenRangeScanner tokenRangeScanner;
+
+    @Inject
+    public MailboxMessageMetadataMigration(CassandraMailboxDAO mailboxDAO,
+                                           CassandraMessageIdDAO messageIdDAO,
+                                           CassandraMessageIdToImapUidDAO imapUidDAO,
+                                           CassandraMessageDAO messageDAO,
+                                           CassandraMailboxMessageMetadataDAO metadataDAO,
+                                           TokenRangeScanner tokenRangeScanner) {
+        this.mailboxDAO = mailboxDAO;
+        this.messageIdDAO = messageIdDAO;
+        this.imapUidDAO = imapUidDAO;
+        this.messageDAO = messageDAO;
+        this.metadataDAO = metadataDAO;
+        this.tokenRangeScanner = tokenRangeScanner;
+    }
+
+    /**
+     * The mailbox table is scanned by token ranges. Fully migrated token ranges are checkpointed in Cassandra, and are
+     * not scanned again when re-applying this migration after a failure, including from another James instance.
+     */
+    @Override
+    public void apply() {
+        tokenRangeScanner.resumableScan(SCAN_NAME, mailboxDAO::retrieveMailboxes,
+                mailbox -> populateProjection((CassandraId) mailbox.getMailboxId()).thenReturn(true),
+                TokenRangeScanner.RunningOptions.DEFAULT)
+            .doOnError(e -> LOGGER.error("Error while populating the mailbox message metadata projection", e))
+            .blockLast();
+    }
+
+    /**
+     * Rows are written with the time the mailbox started being read as their timestamp so that concurrent flags
+     * updates and deletes win over the backfill. Messages that were expunged meanwhile are skipped.
+     */
+    private Mono<Void> populateProjection(CassandraId mailboxId) {
+        return Mono.fromCallable(() -> TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()))
+            .flatMap(readTimeInMicros -> messageIdDAO.retrieveMessages(mailboxId, MessageRange.all())
+                .buffer(READ_BATCH_SIZE)
+                .concatMap(ids -> messageDAO.retrieveMessages(ids, FetchType.Metadata, Limit.unlimited()))
+                .filter(CassandraMessageDAO.MessageResult::isFound)
+                .map(result -> result.message().getLeft().toMailboxMessage(ImmutableList.of()).metaData())
+                .filterWhen(metaData -> isStillInMailbox(mailboxId, metaData))
+                .flatMap(metaData -> metadataDAO.backfill(mailboxId, metaData, readTimeInMicros))
+                .then());
+    }
+
+    private Mono<Boolean> isStillInMailbox(CassandraId mailboxId, MessageMetaData metaData) {
+        return imapUidDAO.retrieve((CassandraMessageId) metaData.getMessageId(), Optional.of(mailboxId))
+            .any(composedMessageId -> composedMessageId.getComposedMessageId().getUid().equals(metaData.getUid()));
+    }
+}
@@ -22,11 +22,14 @@ package org.apache.james.mailbox.cassandra.mail.task;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
 
+import org.apache.james.backends.cassandra.utils.TokenRangeScanner;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionDAO;
 import org.apache.james.backends.cassandra.versions.SchemaVersion;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
@@ -39,6 +42,7 @@ import org.apache.james.task.Task.Result;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.datastax.driver.core.TokenRange;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
@@ -351,24 +355,44 @@ public class SolveMailboxInconsistenciesService {
     }
 
     private static final SchemaVersion MAILBOX_PATH_V_2_MIGRATION_PERFORMED_VERSION = new SchemaVersion(6);
+    static final String MAILBOX_SCAN_NAME = "solve-mailbox-inconsistencies-mailbox";
+    static final String MAILBOX_PATH_SCAN_NAME = "solve-mailbox-inconsistencies-mailboxPath";
+
+    static String scanName(String table, UUID runId) {
+        return table + "-" + runId.toString();
+    }
 
     private final CassandraMailboxDAO mailboxDAO;
     private final CassandraMailboxPathV2DAO mailboxPathV2DAO;
     private final CassandraSchemaVersionDAO versionDAO;
+    private final TokenRangeScanner tokenRangeScanner;
 
     @Inject
-    SolveMailboxInconsistenciesService(CassandraMailboxDAO mailboxDAO, CassandraMailboxPathV2DAO mailboxPathV2DAO, CassandraSchemaVersionDAO versionDAO) {
+    SolveMailboxInconsistenciesService(CassandraMailboxDAO mailboxDAO, CassandraMailboxPathV2DAO mailboxPathV2DAO, CassandraSchemaVersionDAO versionDAO,
+                                       TokenRangeScanner tokenRangeScanner) {
         this.mailboxDAO = mailboxDAO;
         this.mailboxPathV2DAO = mailboxPathV2DAO;
         this.versionDAO = versionDAO;
+        this.tokenRangeScanner = tokenRangeScanner;
     }
 
     Mono<Result> fixMailboxInconsistencies(Context context) {
+        return fixMailboxInconsistencies(context, TokenRangeScanner.RunningOptions.DEFAULT, UUID.randomUUID());
+    }
+
+    /**
+     * Both tables are scanned by token ranges. Token ranges are checkpointed in Cassandra for the given 'runId' as
+     * they complete without failure. Token ranges already checkpointed for this 'runId', by an interrupted run, are
+     * skipped.
+     */
+    Mono<Result> fixMailboxInconsistencies(Context context, TokenRangeScanner.RunningOptions runningOptions, UUID runId) {
         assertValidVersion();
+        AtomicReference<Result> result = new AtomicReference<>(Result.COMPLETED);
+
         return Flux.merge(
-                processMailboxDaoInconsistencies(context),
-                processMailboxPathDaoInconsistencies(context))
-            .reduce(Result.COMPLETED, Task::combine);
+                processMailboxDaoInconsistencies(context, runningOptions, runId, result),
+                processMailboxPathDaoInconsistencies(context, runningOptions, runId, result))
+            .then(Mono.fromCallable(result::get));
     }
 
     private void assertValidVersion() {
@@ -384,18 +408,30 @@ public class SolveMailboxInconsistenciesService {
             maybeVersion.map(SchemaVersion::getValue));
     }
 
-    private Flux<Result> processMailboxPathDaoInconsistencies(Context context) {
-        return mailboxPathV2DAO.listAll()
-            .flatMap(this::detectInconsistency)
-            .flatMap(inconsistency -> inconsistency.fix(context, mailboxDAO, mailboxPathV2DAO))
-            .doOnNext(any -> context.incrementProcessedMailboxPathEntries());
+    private Flux<TokenRange> processMailboxPathDaoInconsistencies(Context context, TokenRangeScanner.RunningOptions runningOptions,
+                                                                  UUID runId, AtomicReference<Result> result) {
+        return tokenRangeScanner.resumableScan(scanName(MAILBOX_PATH_SCAN_NAME, runId), mailboxPathV2DAO::listAll,
+                (CassandraIdAndPath pathRegistration) -> detectInconsistency(pathRegistration)
+                    .flatMap(inconsistency -> inconsistency.fix(context, mailboxDAO, mailboxPathV2DAO))
+                    .doOnNext(fixResult -> recordResult(result, fixResult))
+                    .doOnNext(any -> context.incrementProcessedMailboxPathEntries())
+                    .map(fixResult -> fixResult == Result.COMPLETED),
+                runningOptions);
+    }
+
+    private Flux<TokenRange> processMailboxDaoInconsistencies(Context context, TokenRangeScanner.RunningOptions runningOptions,
+                                                              UUID runId, AtomicReference<Result> result) {
+        return tokenRangeScanner.resumableScan(scanName(MAILBOX_SCAN_NAME, runId), mailboxDAO::retrieveMailboxes,
+                (Mailbox mailbox) -> detectInconsistency(mailbox)
+                    .flatMap(inconsistency -> inconsistency.fix(context, mailboxDAO, mailboxPathV2DAO))
+                    .doOnNext(fixResult -> recordResult(result, fixResult))
+                    .doOnNext(any -> context.incrementProcessedMailboxEntries())
+                    .map(fixResult -> fixResult == Result.COMPLETED),
+                runningOptions);
     }
 
-    private Flux<Result> processMailboxDaoInconsistencies(Context context) {
-        return mailboxDAO.retrieveAllMailboxes()
-            .flatMap(this::detectInconsistency)
-            .flatMap(inconsistency -> inconsistency.fix(context, mailboxDAO, mailboxPathV2DAO))
-            .doOnNext(any -> context.incrementProcessedMailboxEntries());
+    private void recordResult(AtomicReference<Result> result, Result fixResult) {
+        result.getAndUpdate(previous -> Task.combine(previous, fixResult));
     }
 
     private Mono<Inconsistency> detectInconsistency(Mailbox mailbox) {
@@ -22,7 +22,9 @@ package org.apache.james.mailbox.cassandra.mail.task;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.UUID;
 
+import org.apache.james.backends.cassandra.utils.TokenRangeScanner;
 import org.apache.james.task.Task;
 import org.apache.james.task.TaskExecutionDetails;
 import org.apache.james.task.TaskType;
@@ -38,15 +40,17 @@ public class SolveMailboxInconsistenciesTask implements Task {
 
     public static class Details implements TaskExecutionDetails.AdditionalInformation {
         private final Instant instant;
+        private final Optional<UUID> runId;
         private final long processedMailboxEntries;
         private final long processedMailboxPathEntries;
         private final long fixedInconsistencies;
         private final ImmutableList<ConflictingEntry> conflictingEntries;
         private final long errors;
 
-        Details(Instant instant, long processedMailboxEntries, long processedMailboxPathEntries, long fixedInconsistencies,
+        Details(Instant instant, Optional<UUID> runId, long processedMailboxEntries, long processedMailboxPathEntries, long fixedInconsistencies,
                 ImmutableList<ConflictingEntry> conflictingEntries, long errors) {
             this.instant = instant;
+            this.runId = runId;
             this.processedMailboxEntries = processedMailboxEntries;
             this.processedMailboxPathEntries = processedMailboxPathEntries;
             this.fixedInconsistencies = fixedInconsistencies;
@@ -59,6 +63,10 @@ public class SolveMailboxInconsistenciesTask implements Task {
             return instant;
         }
 
+        Optional<UUID> getRunId() {
+            return runId;
+        }
+
         long getProcessedMailboxEntries() {
             return processedMailboxEntries;
         }
@@ -81,18 +89,46 @@ public class SolveMailboxInconsistenciesTask implements Task {
     }
 
     private final SolveMailboxInconsistenciesService service;
+    private final TokenRangeScanner.RunningOptions runningOptions;
+    private final UUID runId;
 
     SolveMailboxInconsistenciesTask(SolveMailboxInconsistenciesService service) {
+        this(service, TokenRangeScanner.RunningOptions.DEFAULT);
+    }
+
+    public SolveMailboxInconsistenciesTask(SolveMailboxInconsistenciesService service, TokenRangeScanner.RunningOptions runningOptions) {
+        this(service, runningOptions, UUID.randomUUID());
+    }
+
+    /**
+     * @param runId identifies the token ranges checkpointed by this task. Passing the runId of an interrupted task
+     *              resumes it.
+     */
+    public SolveMailboxInconsistenciesTask(SolveMailboxInconsistenciesService service, TokenRangeScanner.RunningOptions runningOptions, UUID runId) {
         this.service = service;
+        this.runningOptions = runningOptions;
+        this.runId = runId;
         this.context = new SolveMailboxInconsistenciesService.Context();
     }
 
+    /**
+     * Token ranges scanned by a previous interrupted run with the same runId are checkpointed in Cassandra, and are not
+     * scanned again.
+     */
     @Override
     public Result run() {
-        return service.fixMailboxInconsistencies(context)
+        return service.fixMailboxInconsistencies(context, runningOptions, runId)
             .block();
     }
 
+    TokenRangeScanner.RunningOptions getRunningOptions() {
+        return runningOptions;
+    }
+
+    UUID getRunId() {
+        return runId;
+    }
+
     @Override
     public TaskType type() {
         return SOLVE_MAILBOX_INCONSISTENCIES;
@@ -102,6 +138,7 @@ public class SolveMailboxInconsistenciesTask implements Task {
     public Optional<TaskExecutionDetails.AdditionalInformation> details() {
         SolveMailboxInconsistenciesService.Context.Snapshot snapshot = context.snapshot();
         return Optional.of(new Details(Clock.systemUTC().instant(),
+            Optional.of(runId),
             snapshot.getProcessedMailboxEntries(),
             snapshot.getProcessedMailboxPathEntries(),
             snapshot.getFixedInconsistencies(),
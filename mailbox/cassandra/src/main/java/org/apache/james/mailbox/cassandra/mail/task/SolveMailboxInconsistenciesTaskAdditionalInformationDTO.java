@@ -20,6 +20,8 @@
 package org.apache.james.mailbox.cassandra.mail.task;
 
 import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
 
 import org.apache.james.json.DTOModule;
 import org.apache.james.server.task.json.dto.AdditionalInformationDTO;
@@ -32,6 +34,7 @@ public class SolveMailboxInconsistenciesTaskAdditionalInformationDTO implements
     private static SolveMailboxInconsistenciesTaskAdditionalInformationDTO fromDomainObject(SolveMailboxInconsistenciesTask.Details details, String type) {
         return new SolveMailboxInconsistenciesTaskAdditionalInformationDTO(
             type,
+            details.getRunId().map(UUID::toString),
             details.getProcessedMailboxEntries(),
             details.getProcessedMailboxPathEntries(),
             details.getFixedInconsistencies(),
@@ -50,6 +53,7 @@ public class SolveMailboxInconsistenciesTaskAdditionalInformationDTO implements
             .withFactory(AdditionalInformationDTOModule::new);
 
     private final String type;
+    private final Optional<String> runId;
     private final long processedMailboxEntries;
     private final long processedMailboxPathEntries;
     private final long fixedInconsistencies;
@@ -58,6 +62,7 @@ public class SolveMailboxInconsistenciesTaskAdditionalInformationDTO implements
     private final Instant timestamp;
 
     public SolveMailboxInconsistenciesTaskAdditionalInformationDTO(@JsonProperty("type") String type,
+                                                                   @JsonProperty("runId") Optional<String> runId,
                                                                    @JsonProperty("processedMailboxEntries") long processedMailboxEntries,
                                                                    @JsonProperty("processedMailboxPathEntries") long processedMailboxPathEntries,
                                                                    @JsonProperty("fixedInconsistencies") long fixedInconsistencies,
@@ -65,6 +70,7 @@ public class SolveMailboxInconsistenciesTaskAdditionalInformationDTO implements
                                                                    @JsonProperty("errors") long errors,
                                                                    @JsonProperty("timestamp") Instant timestamp) {
         this.type = type;
+        this.runId = runId;
         this.processedMailboxEntries = processedMailboxEntries;
         this.timestamp = timestamp;
         this.processedMailboxPathEntries = processedMailboxPathEntries;
@@ -73,6 +79,10 @@ public class SolveMailboxInconsistenciesTaskAdditionalInformationDTO implements
         this.errors = errors;
     }
 
+    public Optional<String> getRunId() {
+        return runId;
+    }
+
     public long getProcessedMailboxEntries() {
         return processedMailboxEntries;
     }
@@ -105,6 +115,7 @@ public class SolveMailboxInconsistenciesTaskAdditionalInformationDTO implements
 
     private SolveMailboxInconsistenciesTask.Details toDomainObject() {
         return new SolveMailboxInconsistenciesTask.Details(timestamp,
+            runId.map(UUID::fromString),
             processedMailboxEntries,
             processedMailboxPathEntries,
             fixedInconsistencies,
@@ -18,6 +18,10 @@
  ****************************************************************/
 package org.apache.james.mailbox.cassandra.mail.task;
 
+import java.util.Optional;
+import java.util.UUID;
+
+import org.apache.james.backends.cassandra.utils.TokenRangeScanner;
 import org.apache.james.json.DTOModule;
 import org.apache.james.server.task.json.dto.TaskDTO;
 import org.apache.james.server.task.json.dto.TaskDTOModule;
@@ -26,7 +30,12 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class SolveMailboxInconsistenciesTaskDTO implements TaskDTO {
     private static SolveMailboxInconsistenciesTaskDTO toDTO(SolveMailboxInconsistenciesTask domainObject, String typeName) {
-        return new SolveMailboxInconsistenciesTaskDTO(typeName);
+        TokenRangeScanner.RunningOptions runningOptions = domainObject.getRunningOptions();
+        return new SolveMailboxInconsistenciesTaskDTO(typeName,
+            Optional.of(runningOptions.getParallelism()),
+            Optional.of(runningOptions.getSplitsPerRange()),
+            runningOptions.getRowsPerSecond(),
+            Optional.of(domainObject.getRunId().toString()));
     }
 
     public static TaskDTOModule<SolveMailboxInconsistenciesTask, SolveMailboxInconsistenciesTaskDTO> module(SolveMailboxInconsistenciesService service) {
@@ -40,17 +49,47 @@ public class SolveMailboxInconsistenciesTaskDTO implements TaskDTO {
     }
 
     private final String type;
+    private final Optional<Integer> parallelism;
+    private final Optional<Integer> splitsPerRange;
+    private final Optional<Integer> rowsPerSecond;
+    private final Optional<String> runId;
 
-    public SolveMailboxInconsistenciesTaskDTO(@JsonProperty("type") String type) {
+    public SolveMailboxInconsistenciesTaskDTO(@JsonProperty("type") String type,
+                                              @JsonProperty("parallelism") Optional<Integer> parallelism,
+                                              @JsonProperty("splitsPerRange") Optional<Integer> splitsPerRange,
+                                              @JsonProperty("rowsPerSecond") Optional<Integer> rowsPerSecond,
+                                              @JsonProperty("runId") Optional<String> runId) {
         this.type = type;
+        this.parallelism = parallelism;
+        this.splitsPerRange = splitsPerRange;
+        this.rowsPerSecond = rowsPerSecond;
+        this.runId = runId;
     }
 
     private SolveMailboxInconsistenciesTask toDomainObject(SolveMailboxInconsistenciesService service) {
-        return new SolveMailboxInconsistenciesTask(service);
+        return new SolveMailboxInconsistenciesTask(service,
+            TokenRangeScanner.RunningOptions.of(parallelism, splitsPerRange, rowsPerSecond),
+            runId.map(UUID::fromString).orElseGet(UUID::randomUUID));
     }
 
     @Override
     public String getType() {
         return type;
     }
+
+    public Optional<Integer> getParallelism() {
+        return parallelism;
+    }
+
+    public Optional<Integer> getSplitsPerRange() {
+        return splitsPerRange;
+    }
+
+    public Optional<Integer> getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public Optional<String> getRunId() {
+        return runId;
+    }
 }
@@ -0,0 +1,57 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.cassandra.modules;
+
+import static com.datastax.driver.core.DataType.bigint;
+import static com.datastax.driver.core.DataType.text;
+import static com.datastax.driver.core.DataType.timestamp;
+import static com.datastax.driver.core.DataType.timeuuid;
+
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.backends.cassandra.utils.CassandraConstants;
+import org.apache.james.mailbox.cassandra.table.CassandraExpungeTombstoneTable;
+
+import com.datastax.driver.core.schemabuilder.SchemaBuilder;
+
+public interface CassandraExpungeTombstoneModule {
+    CassandraModule MODULE = CassandraModule.builder()
+        .table(CassandraExpungeTombstoneTable.TABLE_NAME)
+        .comment("Holds the uids expunged from a mailbox by mod-sequence, for QRESYNC. Tombstones expire with the " +
+            "retention period.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.leveledStrategy())
+            .caching(SchemaBuilder.KeyCaching.ALL,
+                SchemaBuilder.rows(CassandraConstants.DEFAULT_CACHED_ROW_PER_PARTITION)))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraExpungeTombstoneTable.MAILBOX_ID, timeuuid())
+            .addClusteringColumn(CassandraExpungeTombstoneTable.MOD_SEQ, bigint())
+            .addColumn(CassandraExpungeTombstoneTable.EXPUNGED_AT, timestamp())
+            .addColumn(CassandraExpungeTombstoneTable.UIDS, text())
+            .addColumn(CassandraExpungeTombstoneTable.PREVIOUS_MOD_SEQ, bigint()))
+        .table(CassandraExpungeTombstoneTable.Horizon.TABLE_NAME)
+        .comment("Holds, for each mailbox, the mod-sequence up to which expunges might not be known, and the " +
+            "mod-sequence of its last expunge.")
+        .options(options -> options
+            .caching(SchemaBuilder.KeyCaching.ALL, SchemaBuilder.noRows()))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraExpungeTombstoneTable.Horizon.MAILBOX_ID, timeuuid())
+            .addColumn(CassandraExpungeTombstoneTable.Horizon.HORIZON, bigint())
+            .addColumn(CassandraExpungeTombstoneTable.Horizon.LAST_MOD_SEQ, bigint()))
+        .build();
+}
@@ -0,0 +1,54 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.modules;
+
+import static com.datastax.driver.core.DataType.bigint;
+import static com.datastax.driver.core.DataType.cint;
+import static com.datastax.driver.core.DataType.set;
+import static com.datastax.driver.core.DataType.text;
+import static com.datastax.driver.core.DataType.timestamp;
+import static com.datastax.driver.core.DataType.timeuuid;
+
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.backends.cassandra.utils.CassandraConstants;
+import org.apache.james.mailbox.cassandra.table.CassandraMailboxMessageMetadataTable;
+
+import com.datastax.driver.core.schemabuilder.SchemaBuilder;
+
+public interface CassandraMailboxMessageMetadataModule {
+    CassandraModule MODULE = CassandraModule.table(CassandraMailboxMessageMetadataTable.TABLE_NAME)
+        .comment("Denormalisation table. Holds uid, modseq, flags and size of the messages of a mailbox, " +
+            "in order to serve UID listings, FLAGS fetches and CHANGEDSINCE scans with sequential partition reads.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.leveledStrategy())
+            .caching(SchemaBuilder.KeyCaching.ALL,
+                SchemaBuilder.rows(CassandraConstants.DEFAULT_CACHED_ROW_PER_PARTITION))
+            .clusteringOrder(CassandraMailboxMessageMetadataTable.UID, SchemaBuilder.Direction.ASC))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraMailboxMessageMetadataTable.MAILBOX_ID, timeuuid())
+            .addClusteringColumn(CassandraMailboxMessageMetadataTable.UID, bigint())
+            .addColumn(CassandraMailboxMessageMetadataTable.MESSAGE_ID, timeuuid())
+            .addColumn(CassandraMailboxMessageMetadataTable.MOD_SEQ, bigint())
+            .addColumn(CassandraMailboxMessageMetadataTable.FLAGS, cint())
+            .addColumn(CassandraMailboxMessageMetadataTable.USER_FLAGS, set(text()))
+            .addColumn(CassandraMailboxMessageMetadataTable.SIZE, bigint())
+            .addColumn(CassandraMailboxMessageMetadataTable.INTERNAL_DATE, timestamp()))
+        .build();
+}
@@ -0,0 +1,39 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.cassandra.table;
+
+public interface CassandraExpungeTombstoneTable {
+    String TABLE_NAME = "expungeTombstone";
+
+    String MAILBOX_ID = "mailboxId";
+    String MOD_SEQ = "modSeq";
+    String EXPUNGED_AT = "expungedAt";
+    String UIDS = "uids";
+    String PREVIOUS_MOD_SEQ = "previousModSeq";
+
+    String[] SELECT_FIELDS = { MOD_SEQ, EXPUNGED_AT, UIDS, PREVIOUS_MOD_SEQ };
+
+    interface Horizon {
+        String TABLE_NAME = "expungeHorizon";
+
+        String MAILBOX_ID = "mailboxId";
+        String HORIZON = "horizon";
+        String LAST_MOD_SEQ = "lastModSeq";
+    }
+}
@@ -0,0 +1,45 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.cassandra.mail;
+
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.mail.utils.GuiceUtils;
+import org.apache.james.mailbox.cassandra.modules.CassandraExpungeTombstoneModule;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.store.mail.ExpungeTombstoneMapper;
+import org.apache.james.mailbox.store.mail.model.ExpungeTombstoneMapperTest;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class CassandraExpungeTombstoneMapperTest extends ExpungeTombstoneMapperTest {
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraExpungeTombstoneModule.MODULE);
+
+    @Override
+    protected ExpungeTombstoneMapper createExpungeTombstoneMapper() {
+        return GuiceUtils.testInjector(cassandraCluster.getCassandraCluster())
+            .getInstance(CassandraExpungeTombstoneMapper.class);
+    }
+
+    @Override
+    protected MailboxId generateMailboxId() {
+        return CassandraId.timeBased();
+    }
+}
@@ -20,6 +20,7 @@
 package org.apache.james.mailbox.cassandra.mail;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -38,11 +39,13 @@ import org.apache.james.mailbox.cassandra.modules.CassandraApplicableFlagsModule
 import org.apache.james.mailbox.cassandra.modules.CassandraDeletedMessageModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraFirstUnseenModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMailboxCounterModule;
+import org.apache.james.mailbox.cassandra.modules.CassandraMailboxMessageMetadataModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMailboxRecentsModule;
 import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
 import org.apache.james.mailbox.model.Mailbox;
 import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageMetaData;
 import org.apache.james.mailbox.model.MessageRange;
 import org.apache.james.mailbox.model.UpdatedFlags;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
@@ -50,10 +53,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import com.google.common.collect.ImmutableList;
+
 class CassandraIndexTableHandlerTest {
 
     private static final CassandraId MAILBOX_ID = CassandraId.timeBased();
     private static final MessageUid MESSAGE_UID = MessageUid.of(18L);
+    private static final MessageUid MESSAGE_UID_2 = MessageUid.of(19L);
     private static final CassandraMessageId CASSANDRA_MESSAGE_ID = new CassandraMessageId.Factory().generate();
     private static final int UID_VALIDITY = 15;
     private static final ModSeq MODSEQ = ModSeq.of(17);
@@ -65,7 +71,8 @@ class CassandraIndexTableHandlerTest {
             CassandraMailboxRecentsModule.MODULE,
             CassandraFirstUnseenModule.MODULE,
             CassandraApplicableFlagsModule.MODULE,
-            CassandraDeletedMessageModule.MODULE));
+            CassandraDeletedMessageModule.MODULE,
+            CassandraMailboxMessageMetadataModule.MODULE));
 
     private CassandraMailboxCounterDAO mailboxCounterDAO;
     private CassandraMailboxRecentsDAO mailboxRecentsDAO;
@@ -73,6 +80,7 @@ class CassandraIndexTableHandlerTest {
     private CassandraFirstUnseenDAO firstUnseenDAO;
     private CassandraIndexTableHandler testee;
     private CassandraDeletedMessageDAO deletedMessageDAO;
+    private CassandraMailboxMessageMetadataDAO metadataDAO;
     private Mailbox mailbox;
 
     @BeforeEach
@@ -82,12 +90,14 @@ class CassandraIndexTableHandlerTest {
         firstUnseenDAO = new CassandraFirstUnseenDAO(cassandra.getConf());
         applicableFlagDAO = new CassandraApplicableFlagDAO(cassandra.getConf());
         deletedMessageDAO = new CassandraDeletedMessageDAO(cassandra.getConf());
+        metadataDAO = new CassandraMailboxMessageMetadataDAO(cassandra.getConf(), new CassandraMessageId.Factory());
 
         testee = new CassandraIndexTableHandler(mailboxRecentsDAO,
                                                 mailboxCounterDAO,
                                                 firstUnseenDAO,
                                                 applicableFlagDAO,
-                                                deletedMessageDAO);
+                                                deletedMessageDAO,
+                                                metadataDAO);
 
         mailbox = new Mailbox(MailboxPath.forUser(Username.of("user"), "name"),
             UID_VALIDITY,
@@ -96,7 +106,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnAddShouldIncrementMessageCount() throws Exception {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
 
@@ -108,7 +118,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnAddShouldIncrementUnseenMessageCountWhenUnseen() throws Exception {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
 
@@ -120,7 +130,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnAddShouldNotIncrementUnseenMessageCountWhenSeen() throws Exception {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags(Flags.Flag.SEEN));
         when(message.getUid()).thenReturn(MESSAGE_UID);
 
@@ -132,7 +142,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnAddShouldNotAddRecentWhenNoRecent() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
 
@@ -146,7 +156,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnAddShouldAddRecentWhenRecent() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags(Flags.Flag.RECENT));
         when(message.getUid()).thenReturn(MESSAGE_UID);
 
@@ -160,7 +170,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnDeleteShouldDecrementMessageCount() throws Exception {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -177,7 +187,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnDeleteShouldDecrementUnseenMessageCountWhenUnseen() throws Exception {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -194,7 +204,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnDeleteShouldNotDecrementUnseenMessageCountWhenSeen() throws Exception {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -211,7 +221,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnDeleteShouldRemoveRecentWhenRecent() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags(Flags.Flag.RECENT));
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -231,7 +241,7 @@ class CassandraIndexTableHandlerTest {
     @Test
     void updateIndexOnDeleteShouldRemoveUidFromRecentAnyway() {
         // Clean up strategy if some flags updates missed
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags(Flags.Flag.RECENT));
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -250,7 +260,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnDeleteShouldDeleteMessageFromDeletedMessage() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.getUid()).thenReturn(MESSAGE_UID);
         deletedMessageDAO.addDeleted(MAILBOX_ID, MESSAGE_UID).block();
 
@@ -270,7 +280,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldNotChangeMessageCount() throws Exception {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -288,7 +298,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldDecrementUnseenMessageCountWhenSeenIsSet() throws Exception {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -306,7 +316,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldSaveMessageInDeletedMessageWhenDeletedFlagIsSet() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -328,7 +338,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldRemoveMessageInDeletedMessageWhenDeletedFlagIsUnset() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -352,7 +362,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldNotRemoveMessageInDeletedMessageWhenDeletedFlagIsNotUnset() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -376,7 +386,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldNotSaveMessageInDeletedMessageWhenDeletedFlagIsNotSet() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -398,7 +408,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldIncrementUnseenMessageCountWhenSeenIsUnset() throws Exception {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags(Flags.Flag.SEEN));
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -416,7 +426,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldNotChangeUnseenCountWhenBothSeen() throws Exception {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags(Flags.Flag.SEEN));
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -434,7 +444,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldNotChangeUnseenCountWhenBothUnSeen() throws Exception {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -453,7 +463,7 @@ class CassandraIndexTableHandlerTest {
     @Test
     void updateIndexOnFlagsUpdateShouldAddRecentOnSettingRecentFlag() {
         // Clean up strategy if some flags updates missed
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -474,7 +484,7 @@ class CassandraIndexTableHandlerTest {
     @Test
     void updateIndexOnFlagsUpdateShouldRemoveRecentOnUnsettingRecentFlag() {
         // Clean up strategy if some flags updates missed
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags(Flags.Flag.RECENT));
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -494,7 +504,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnAddShouldUpdateFirstUnseenWhenUnseen() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -505,7 +515,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnAddShouldSaveMessageInDeletedWhenDeleted() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags(Flags.Flag.DELETED));
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -520,7 +530,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnAddShouldNotSaveMessageInDeletedWhenNotDeleted() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -535,7 +545,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnAddShouldNotUpdateFirstUnseenWhenSeen() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags(Flags.Flag.SEEN));
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -546,7 +556,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldUpdateLastUnseenWhenSetToSeen() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -564,7 +574,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldUpdateLastUnseenWhenSetToUnseen() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags(Flags.Flag.SEEN));
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -582,7 +592,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldNotUpdateLastUnseenWhenKeepUnseen() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -600,7 +610,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnFlagsUpdateShouldNotUpdateLastUnseenWhenKeepSeen() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags(Flags.Flag.SEEN));
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -618,7 +628,7 @@ class CassandraIndexTableHandlerTest {
 
     @Test
     void updateIndexOnDeleteShouldUpdateFirstUnseenWhenUnseen() {
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(new Flags());
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -635,7 +645,7 @@ class CassandraIndexTableHandlerTest {
     @Test
     void updateIndexOnAddShouldUpdateApplicableFlag() {
         Flags customFlags = new Flags("custom");
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(customFlags);
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -648,7 +658,7 @@ class CassandraIndexTableHandlerTest {
     @Test
     void updateIndexOnFlagsUpdateShouldUnionApplicableFlag() {
         Flags customFlag = new Flags("custom");
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(customFlag);
         when(message.getUid()).thenReturn(MESSAGE_UID);
         testee.updateIndexOnAdd(message, MAILBOX_ID).block();
@@ -672,7 +682,7 @@ class CassandraIndexTableHandlerTest {
             .add("custom1", "custom2", "custom3")
             .build();
 
-        MailboxMessage message = mock(MailboxMessage.class);
+        MailboxMessage message = mockMessage();
         when(message.createFlags()).thenReturn(messageFlags);
         when(message.getUid()).thenReturn(MESSAGE_UID);
 
@@ -688,4 +698,238 @@ class CassandraIndexTableHandlerTest {
         Flags applicableFlag = applicableFlagDAO.retrieveApplicableFlag(MAILBOX_ID).block();
         assertThat(applicableFlag).isEqualTo(messageFlags);
     }
+
+    @Test
+    void bulkUpdateIndexOnFlagsUpdateShouldAggregateUnseenCount() {
+        MailboxMessage message1 = mockMessage();
+        when(message1.createFlags()).thenReturn(new Flags());
+        when(message1.getUid()).thenReturn(MESSAGE_UID);
+        testee.updateIndexOnAdd(message1, MAILBOX_ID).block();
+        MailboxMessage message2 = mockMessage();
+        when(message2.createFlags()).thenReturn(new Flags());
+        when(message2.getUid()).thenReturn(MESSAGE_UID_2);
+        testee.updateIndexOnAdd(message2, MAILBOX_ID).block();
+
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, ImmutableList.of(
+            UpdatedFlags.builder()
+                .uid(MESSAGE_UID)
+                .newFlags(new Flags(Flags.Flag.SEEN))
+                .oldFlags(new Flags())
+                .modSeq(MODSEQ)
+                .build(),
+            UpdatedFlags.builder()
+                .uid(MESSAGE_UID_2)
+                .newFlags(new Flags(Flags.Flag.SEEN))
+                .oldFlags(new Flags())
+                .modSeq(MODSEQ)
+                .build()))
+            .block();
+
+        assertThat(mailboxCounterDAO.countUnseenMessagesInMailbox(mailbox).block()).isEqualTo(0);
+        assertThat(firstUnseenDAO.retrieveFirstUnread(MAILBOX_ID).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void bulkUpdateIndexOnFlagsUpdateShouldApplyOpposedUnseenDeltas() {
+        MailboxMessage message1 = mockMessage();
+        when(message1.createFlags()).thenReturn(new Flags());
+        when(message1.getUid()).thenReturn(MESSAGE_UID);
+        testee.updateIndexOnAdd(message1, MAILBOX_ID).block();
+        MailboxMessage message2 = mockMessage();
+        when(message2.createFlags()).thenReturn(new Flags(Flags.Flag.SEEN));
+        when(message2.getUid()).thenReturn(MESSAGE_UID_2);
+        testee.updateIndexOnAdd(message2, MAILBOX_ID).block();
+
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, ImmutableList.of(
+            UpdatedFlags.builder()
+                .uid(MESSAGE_UID)
+                .newFlags(new Flags(Flags.Flag.SEEN))
+                .oldFlags(new Flags())
+                .modSeq(MODSEQ)
+                .build(),
+            UpdatedFlags.builder()
+                .uid(MESSAGE_UID_2)
+                .newFlags(new Flags())
+                .oldFlags(new Flags(Flags.Flag.SEEN))
+                .modSeq(MODSEQ)
+                .build()))
+            .block();
+
+        assertThat(mailboxCounterDAO.countUnseenMessagesInMailbox(mailbox).block()).isEqualTo(1);
+        assertThat(firstUnseenDAO.retrieveFirstUnread(MAILBOX_ID).block()).isEqualTo(MESSAGE_UID_2);
+    }
+
+    @Test
+    void bulkUpdateIndexOnFlagsUpdateShouldUpdateRecentAndDeletedIndexes() {
+        MailboxMessage message1 = mockMessage();
+        when(message1.createFlags()).thenReturn(new Flags(Flags.Flag.RECENT));
+        when(message1.getUid()).thenReturn(MESSAGE_UID);
+        testee.updateIndexOnAdd(message1, MAILBOX_ID).block();
+        MailboxMessage message2 = mockMessage();
+        when(message2.createFlags()).thenReturn(new Flags());
+        when(message2.getUid()).thenReturn(MESSAGE_UID_2);
+        testee.updateIndexOnAdd(message2, MAILBOX_ID).block();
+
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, ImmutableList.of(
+            UpdatedFlags.builder()
+                .uid(MESSAGE_UID)
+                .newFlags(new Flags(Flags.Flag.DELETED))
+                .oldFlags(new Flags(Flags.Flag.RECENT))
+                .modSeq(MODSEQ)
+                .build(),
+            UpdatedFlags.builder()
+                .uid(MESSAGE_UID_2)
+                .newFlags(new FlagsBuilder().add(Flags.Flag.RECENT, Flags.Flag.DELETED).build())
+                .oldFlags(new Flags())
+                .modSeq(MODSEQ)
+                .build()))
+            .block();
+
+        assertThat(mailboxRecentsDAO.getRecentMessageUidsInMailbox(MAILBOX_ID).collectList().block())
+            .containsOnly(MESSAGE_UID_2);
+        assertThat(deletedMessageDAO.retrieveDeletedMessage(MAILBOX_ID, MessageRange.all()).collectList().block())
+            .containsOnly(MESSAGE_UID, MESSAGE_UID_2);
+    }
+
+    @Test
+    void bulkUpdateIndexOnFlagsUpdateShouldUnionApplicableFlags() {
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, ImmutableList.of(
+            UpdatedFlags.builder()
+                .uid(MESSAGE_UID)
+                .newFlags(new Flags("custom"))
+                .oldFlags(new Flags())
+                .modSeq(MODSEQ)
+                .build(),
+            UpdatedFlags.builder()
+                .uid(MESSAGE_UID_2)
+                .newFlags(new Flags("customBis"))
+                .oldFlags(new Flags())
+                .modSeq(MODSEQ)
+                .build()))
+            .block();
+
+        assertThat(applicableFlagDAO.retrieveApplicableFlag(MAILBOX_ID).block())
+            .isEqualTo(FlagsBuilder.builder().add("custom", "customBis").build());
+    }
+
+    @Test
+    void bulkUpdateIndexOnFlagsUpdateShouldNoopWhenEmpty() {
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, ImmutableList.of()).block();
+
+        assertThat(mailboxCounterDAO.retrieveMailboxCounters(MAILBOX_ID).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void updateIndexOnAddShouldAddMessageMetadata() {
+        MailboxMessage message = mockMessage();
+        when(message.createFlags()).thenReturn(new FlagsBuilder().add(Flags.Flag.SEEN).add("custom").build());
+        when(message.getUid()).thenReturn(MESSAGE_UID);
+        when(message.getFullContentOctets()).thenReturn(36L);
+
+        testee.updateIndexOnAdd(message, MAILBOX_ID).block();
+
+        assertThat(metadataDAO.retrieve(MAILBOX_ID, MessageRange.all()).collectList().block())
+            .hasSize(1)
+            .first()
+            .satisfies(metaData -> {
+                assertThat(metaData.getUid()).isEqualTo(MESSAGE_UID);
+                assertThat(metaData.getModSeq()).isEqualTo(MODSEQ);
+                assertThat(metaData.getFlags()).isEqualTo(new FlagsBuilder().add(Flags.Flag.SEEN).add("custom").build());
+                assertThat(metaData.getSize()).isEqualTo(36L);
+                assertThat(metaData.getMessageId()).isEqualTo(CASSANDRA_MESSAGE_ID);
+            });
+    }
+
+    @Test
+    void updateIndexOnDeleteShouldRemoveMessageMetadata() {
+        MailboxMessage message = mockMessage();
+        when(message.createFlags()).thenReturn(new Flags());
+        when(message.getUid()).thenReturn(MESSAGE_UID);
+        testee.updateIndexOnAdd(message, MAILBOX_ID).block();
+
+        testee.updateIndexOnDelete(ComposedMessageIdWithMetaData.builder()
+            .composedMessageId(new ComposedMessageId(MAILBOX_ID, CASSANDRA_MESSAGE_ID, MESSAGE_UID))
+            .flags(new Flags())
+            .modSeq(MODSEQ)
+            .build(), MAILBOX_ID).block();
+
+        assertThat(metadataDAO.listUids(MAILBOX_ID).collectList().block()).isEmpty();
+    }
+
+    @Test
+    void updateIndexOnFlagsUpdateShouldUpdateMessageMetadata() {
+        MailboxMessage message = mockMessage();
+        when(message.createFlags()).thenReturn(new Flags());
+        when(message.getUid()).thenReturn(MESSAGE_UID);
+        testee.updateIndexOnAdd(message, MAILBOX_ID).block();
+
+        ModSeq newModSeq = MODSEQ.next();
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, UpdatedFlags.builder()
+            .uid(MESSAGE_UID)
+            .newFlags(new Flags(Flags.Flag.ANSWERED))
+            .oldFlags(new Flags())
+            .modSeq(newModSeq)
+            .build()).block();
+
+        assertThat(metadataDAO.retrieve(MAILBOX_ID, MessageRange.one(MESSAGE_UID)).collectList().block())
+            .hasSize(1)
+            .first()
+            .satisfies(metaData -> {
+                assertThat(metaData.getModSeq()).isEqualTo(newModSeq);
+                assertThat(metaData.getFlags()).isEqualTo(new Flags(Flags.Flag.ANSWERED));
+            });
+    }
+
+    @Test
+    void updateMetadataOnFlagsUpdateShouldUpdateMessageMetadata() {
+        MailboxMessage message1 = mockMessage();
+        when(message1.createFlags()).thenReturn(new Flags());
+        when(message1.getUid()).thenReturn(MESSAGE_UID);
+        testee.updateIndexOnAdd(message1, MAILBOX_ID).block();
+        MailboxMessage message2 = mockMessage();
+        when(message2.createFlags()).thenReturn(new Flags());
+        when(message2.getUid()).thenReturn(MESSAGE_UID_2);
+        testee.updateIndexOnAdd(message2, MAILBOX_ID).block();
+
+        ModSeq newModSeq = MODSEQ.next();
+        testee.updateMetadataOnFlagsUpdate(MAILBOX_ID, ImmutableList.of(
+            UpdatedFlags.builder()
+                .uid(MESSAGE_UID)
+                .newFlags(new Flags(Flags.Flag.SEEN))
+                .oldFlags(new Flags())
+                .modSeq(newModSeq)
+                .build()))
+            .block();
+
+        assertThat(metadataDAO.retrieveChangedSince(MAILBOX_ID, MessageRange.all(), MODSEQ).collectList().block())
+            .extracting(MessageMetaData::getUid, MessageMetaData::getFlags)
+            .containsOnly(tuple(MESSAGE_UID, new Flags(Flags.Flag.SEEN)));
+    }
+
+    @Test
+    void bulkUpdateIndexOnFlagsUpdateShouldNotUpdateMessageMetadata() {
+        MailboxMessage message = mockMessage();
+        when(message.createFlags()).thenReturn(new Flags());
+        when(message.getUid()).thenReturn(MESSAGE_UID);
+        testee.updateIndexOnAdd(message, MAILBOX_ID).block();
+
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, ImmutableList.of(
+            UpdatedFlags.builder()
+                .uid(MESSAGE_UID)
+                .newFlags(new Flags(Flags.Flag.SEEN))
+                .oldFlags(new Flags())
+                .modSeq(MODSEQ.next())
+                .build()))
+            .block();
+
+        assertThat(metadataDAO.retrieveChangedSince(MAILBOX_ID, MessageRange.all(), MODSEQ).collectList().block())
+            .isEmpty();
+    }
+
+    private MailboxMessage mockMessage() {
+        MailboxMessage message = mock(MailboxMessage.class);
+        when(message.getModSeq()).thenReturn(MODSEQ);
+        when(message.getMessageId()).thenReturn(CASSANDRA_MESSAGE_ID);
+        return message;
+    }
 }
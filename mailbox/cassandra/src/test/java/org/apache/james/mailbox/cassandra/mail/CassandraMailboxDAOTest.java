@@ -27,6 +27,9 @@ import java.util.Optional;
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
 import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.backends.cassandra.utils.TokenRangeCheckpointDAO;
+import org.apache.james.backends.cassandra.utils.TokenRangeCheckpointModule;
+import org.apache.james.backends.cassandra.utils.TokenRangeScanner;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
@@ -39,6 +42,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import reactor.core.publisher.Flux;
+
 class CassandraMailboxDAOTest {
     private static final int UID_VALIDITY_1 = 145;
     private static final int UID_VALIDITY_2 = 147;
@@ -50,16 +55,19 @@ class CassandraMailboxDAOTest {
     static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(
         CassandraModule.aggregateModules(
             CassandraSchemaVersionModule.MODULE,
+            TokenRangeCheckpointModule.MODULE,
             CassandraMailboxModule.MODULE,
             CassandraAclModule.MODULE));
 
 
     private CassandraMailboxDAO testee;
+    private TokenRangeScanner tokenRangeScanner;
     private Mailbox mailbox1;
 
     @BeforeEach
     void setUp(CassandraCluster cassandra) {
         testee = new CassandraMailboxDAO(cassandra.getConf(), cassandra.getTypesProvider());
+        tokenRangeScanner = new TokenRangeScanner(cassandra.getConf(), new TokenRangeCheckpointDAO(cassandra.getConf()));
 
         mailbox1 = new Mailbox(MailboxPath.forUser(USER, "abcd"),
             UID_VALIDITY_1,
@@ -129,6 +137,21 @@ class CassandraMailboxDAOTest {
         assertThat(mailboxes).containsOnly(mailbox1, mailbox2);
     }
 
+    @Test
+    void retrieveMailboxesShouldReturnAllMailboxesWhenReadingAllTokenRanges() {
+        Mailbox mailbox2 = createMailbox(CassandraId.timeBased());
+
+        testee.save(mailbox1).block();
+        testee.save(mailbox2).block();
+
+        List<Mailbox> mailboxes = Flux.fromIterable(tokenRangeScanner.tokenRanges(TokenRangeScanner.RunningOptions.DEFAULT_SPLITS_PER_RANGE))
+            .concatMap(testee::retrieveMailboxes)
+            .collectList()
+            .block();
+
+        assertThat(mailboxes).containsOnly(mailbox1, mailbox2);
+    }
+
     @Test
     void deleteShouldNotFailWhenMailboxIsAbsent() {
         testee.delete(CASSANDRA_ID_1).block();
@@ -0,0 +1,198 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.UUID;
+
+import javax.mail.Flags;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.mailbox.FlagsBuilder;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
+import org.apache.james.mailbox.cassandra.modules.CassandraMailboxMessageMetadataModule;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.UpdatedFlags;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.collect.ImmutableList;
+
+class CassandraMailboxMessageMetadataDAOTest {
+    private static final CassandraId MAILBOX_ID = CassandraId.of(UUID.fromString("110e8400-e29b-11d4-a716-446655440000"));
+    private static final CassandraMessageId.Factory MESSAGE_ID_FACTORY = new CassandraMessageId.Factory();
+    private static final MessageUid UID_1 = MessageUid.of(1);
+    private static final MessageUid UID_2 = MessageUid.of(2);
+    private static final MessageUid UID_3 = MessageUid.of(3);
+    private static final ModSeq MOD_SEQ_1 = ModSeq.of(10);
+    private static final ModSeq MOD_SEQ_2 = ModSeq.of(11);
+    private static final Date INTERNAL_DATE = new Date(1566304960000L);
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraMailboxMessageMetadataModule.MODULE);
+
+    private CassandraMailboxMessageMetadataDAO testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new CassandraMailboxMessageMetadataDAO(cassandra.getConf(), MESSAGE_ID_FACTORY);
+    }
+
+    @Test
+    void retrieveShouldReturnEmptyByDefault() {
+        assertThat(testee.retrieve(MAILBOX_ID, MessageRange.all()).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void retrieveShouldReturnInsertedMetadata() {
+        MessageMetaData metaData = metaData(UID_1, MOD_SEQ_1, new FlagsBuilder()
+            .add(Flags.Flag.SEEN, Flags.Flag.FLAGGED, Flags.Flag.DRAFT)
+            .add("custom")
+            .build());
+        testee.insert(MAILBOX_ID, metaData).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID, MessageRange.all()).collectList().block())
+            .hasSize(1)
+            .first()
+            .isEqualToComparingFieldByField(metaData);
+    }
+
+    @Test
+    void retrieveShouldBeOrderedByUidAndHonorTheRange() {
+        testee.insert(MAILBOX_ID, metaData(UID_3, MOD_SEQ_1, new Flags())).block();
+        testee.insert(MAILBOX_ID, metaData(UID_1, MOD_SEQ_1, new Flags())).block();
+        testee.insert(MAILBOX_ID, metaData(UID_2, MOD_SEQ_1, new Flags())).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID, MessageRange.range(UID_2, UID_3)).collectList().block())
+            .extracting(MessageMetaData::getUid)
+            .containsExactly(UID_2, UID_3);
+    }
+
+    @Test
+    void listUidsShouldReturnInsertedUids() {
+        testee.insert(MAILBOX_ID, metaData(UID_2, MOD_SEQ_1, new Flags())).block();
+        testee.insert(MAILBOX_ID, metaData(UID_1, MOD_SEQ_1, new Flags())).block();
+
+        assertThat(testee.listUids(MAILBOX_ID).collectList().block())
+            .containsExactly(UID_1, UID_2);
+    }
+
+    @Test
+    void backfillShouldNotOverrideMoreRecentWrites() {
+        testee.insert(MAILBOX_ID, metaData(UID_1, MOD_SEQ_2, new Flags(Flags.Flag.SEEN))).block();
+
+        testee.backfill(MAILBOX_ID, metaData(UID_1, MOD_SEQ_1, new Flags()), 1L).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID, MessageRange.all()).collectList().block())
+            .extracting(MessageMetaData::getModSeq)
+            .containsExactly(MOD_SEQ_2);
+    }
+
+    @Test
+    void backfillShouldNotResurrectMoreRecentlyDeletedRows() {
+        testee.delete(MAILBOX_ID, UID_1).block();
+
+        testee.backfill(MAILBOX_ID, metaData(UID_1, MOD_SEQ_1, new Flags()), 1L).block();
+
+        assertThat(testee.listUids(MAILBOX_ID).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void deleteShouldRemoveMetadata() {
+        testee.insert(MAILBOX_ID, metaData(UID_1, MOD_SEQ_1, new Flags())).block();
+        testee.insert(MAILBOX_ID, metaData(UID_2, MOD_SEQ_1, new Flags())).block();
+
+        testee.delete(MAILBOX_ID, UID_1).block();
+
+        assertThat(testee.listUids(MAILBOX_ID).collectList().block())
+            .containsExactly(UID_2);
+    }
+
+    @Test
+    void updateFlagsShouldUpdateFlagsAndModSeq() {
+        testee.insert(MAILBOX_ID, metaData(UID_1, MOD_SEQ_1, new Flags(Flags.Flag.SEEN))).block();
+
+        Flags newFlags = new FlagsBuilder().add(Flags.Flag.ANSWERED).add("custom").build();
+        testee.updateFlags(MAILBOX_ID, UpdatedFlags.builder()
+            .uid(UID_1)
+            .oldFlags(new Flags(Flags.Flag.SEEN))
+            .newFlags(newFlags)
+            .modSeq(MOD_SEQ_2)
+            .build()).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID, MessageRange.one(UID_1)).collectList().block())
+            .hasSize(1)
+            .first()
+            .isEqualToComparingFieldByField(metaData(UID_1, MOD_SEQ_2, newFlags));
+    }
+
+    @Test
+    void updateFlagsShouldNotResurrectDeletedMessages() {
+        testee.insert(MAILBOX_ID, metaData(UID_1, MOD_SEQ_1, new Flags())).block();
+        testee.delete(MAILBOX_ID, UID_1).block();
+
+        testee.updateFlags(MAILBOX_ID, ImmutableList.of(UpdatedFlags.builder()
+            .uid(UID_1)
+            .oldFlags(new Flags())
+            .newFlags(new Flags(Flags.Flag.SEEN))
+            .modSeq(MOD_SEQ_2)
+            .build())).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID, MessageRange.all()).collectList().block())
+            .isEmpty();
+        assertThat(testee.listUids(MAILBOX_ID).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void retrieveChangedSinceShouldOnlyReturnMessagesWithHigherModSeq() {
+        testee.insert(MAILBOX_ID, metaData(UID_1, MOD_SEQ_1, new Flags())).block();
+        testee.insert(MAILBOX_ID, metaData(UID_2, MOD_SEQ_2, new Flags())).block();
+
+        assertThat(testee.retrieveChangedSince(MAILBOX_ID, MessageRange.all(), MOD_SEQ_1).collectList().block())
+            .extracting(MessageMetaData::getUid)
+            .containsExactly(UID_2);
+    }
+
+    @Test
+    void bitmapShouldRoundTripAllSystemFlags() {
+        Flags flags = new FlagsBuilder()
+            .add(Flags.Flag.ANSWERED, Flags.Flag.DELETED, Flags.Flag.DRAFT, Flags.Flag.FLAGGED,
+                Flags.Flag.RECENT, Flags.Flag.SEEN, Flags.Flag.USER)
+            .build();
+
+        assertThat(CassandraMailboxMessageMetadataDAO.fromBitmap(CassandraMailboxMessageMetadataDAO.toBitmap(flags)))
+            .isEqualTo(flags);
+    }
+
+    private MessageMetaData metaData(MessageUid uid, ModSeq modSeq, Flags flags) {
+        return new MessageMetaData(uid, modSeq, flags, 42L, INTERNAL_DATE, MESSAGE_ID_FACTORY.of(UUID.fromString("464765a0-e4e7-11e4-aba4-710c1de3782b")));
+    }
+}
@@ -41,6 +41,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import com.google.common.collect.ImmutableList;
+
 import reactor.core.publisher.Flux;
 
 class CassandraMessageIdDAOTest {
@@ -356,6 +358,51 @@ class CassandraMessageIdDAOTest {
         assertThat(message.get()).isEqualTo(expectedComposedMessageId);
     }
 
+    @Test
+    void updateMetadataShouldUpdateAllMessagesOfTheBatch() {
+        CassandraMessageId messageId = messageIdFactory.generate();
+        CassandraMessageId messageId2 = messageIdFactory.generate();
+        CassandraId mailboxId = CassandraId.timeBased();
+        CassandraId mailboxId2 = CassandraId.timeBased();
+        ComposedMessageId composedMessageId = new ComposedMessageId(mailboxId, messageId, MessageUid.of(1));
+        ComposedMessageId composedMessageId2 = new ComposedMessageId(mailboxId, messageId2, MessageUid.of(2));
+        ComposedMessageId composedMessageId3 = new ComposedMessageId(mailboxId2, messageId, MessageUid.of(1));
+        Flux.just(composedMessageId, composedMessageId2, composedMessageId3)
+            .flatMap(id -> testee.insert(ComposedMessageIdWithMetaData.builder()
+                .composedMessageId(id)
+                .flags(new Flags())
+                .modSeq(ModSeq.of(1))
+                .build()))
+            .blockLast();
+
+        ComposedMessageIdWithMetaData expected = ComposedMessageIdWithMetaData.builder()
+            .composedMessageId(composedMessageId)
+            .flags(new Flags(Flag.SEEN))
+            .modSeq(ModSeq.of(2))
+            .build();
+        ComposedMessageIdWithMetaData expected2 = ComposedMessageIdWithMetaData.builder()
+            .composedMessageId(composedMessageId2)
+            .flags(new Flags(Flag.SEEN))
+            .modSeq(ModSeq.of(2))
+            .build();
+        ComposedMessageIdWithMetaData expected3 = ComposedMessageIdWithMetaData.builder()
+            .composedMessageId(composedMessageId3)
+            .flags(new Flags(Flag.DELETED))
+            .modSeq(ModSeq.of(3))
+            .build();
+        testee.updateMetadata(ImmutableList.of(expected, expected2, expected3)).block();
+
+        assertThat(testee.retrieveMessages(mailboxId, MessageRange.all()).toIterable())
+            .containsOnly(expected, expected2);
+        assertThat(testee.retrieveMessages(mailboxId2, MessageRange.all()).toIterable())
+            .containsOnly(expected3);
+    }
+
+    @Test
+    void updateMetadataShouldNotFailWhenEmpty() {
+        testee.updateMetadata(ImmutableList.of()).block();
+    }
+
     @Test
     void retrieveShouldRetrieveWhenKeyMatches() {
         CassandraMessageId messageId = messageIdFactory.generate();
@@ -0,0 +1,88 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static org.apache.james.backends.cassandra.Scenario.Builder.fail;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import javax.mail.Flags;
+import javax.mail.util.SharedByteArrayInputStream;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionDAO;
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.MessageManager.FlagsUpdateMode;
+import org.apache.james.mailbox.model.Mailbox;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.store.FlagsUpdateCalculator;
+import org.apache.james.mailbox.store.mail.MessageMapper;
+import org.apache.james.mailbox.store.mail.model.MapperProvider;
+import org.apache.james.mailbox.store.mail.model.MessageMapperTest;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.mailbox.store.mail.model.impl.SimpleMailboxMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class CassandraMessageMapperWithMetadataProjectionTest extends MessageMapperTest {
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(MailboxAggregateModule.MODULE);
+
+    @BeforeEach
+    void enableMetadataProjection(CassandraCluster cassandra) {
+        new CassandraSchemaVersionDAO(cassandra.getConf())
+            .updateVersion(MetadataProjectionSupport.METADATA_PROJECTION_SUPPORTED_VERSION)
+            .block();
+    }
+
+    @Override
+    protected MapperProvider createMapperProvider() {
+        return new CassandraMapperProvider(cassandraCluster.getCassandraCluster());
+    }
+
+    @Test
+    void updateFlagsShouldRetryFailedMetadataProjectionWrites(CassandraCluster cassandra) throws Exception {
+        CassandraMapperProvider mapperProvider = new CassandraMapperProvider(cassandra);
+        MessageMapper messageMapper = mapperProvider.createMessageMapper();
+        Mailbox mailbox = mapperProvider.createMailboxMapper().create(MailboxPath.forUser(Username.of("bob"), "INBOX"), 42);
+        String content = "Subject: Test\n\nBody\n";
+        MessageMetaData message = messageMapper.add(mailbox, new SimpleMailboxMessage(mapperProvider.generateMessageId(), new Date(),
+            content.length(), 15, new SharedByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), new Flags(),
+            new PropertyBuilder(), mailbox.getMailboxId()));
+
+        cassandra.getConf().registerScenario(fail()
+            .times(2)
+            .whenQueryStartsWith("UPDATE mailboxMessageMetadata"));
+
+        messageMapper.updateFlags(mailbox, new FlagsUpdateCalculator(new Flags(Flags.Flag.SEEN), FlagsUpdateMode.REPLACE),
+            MessageRange.one(message.getUid()));
+
+        assertThat(messageMapper.listMessagesMetadata(mailbox, MessageRange.one(message.getUid())))
+            .toIterable()
+            .extracting(MessageMetaData::getFlags)
+            .containsExactly(new Flags(Flags.Flag.SEEN));
+    }
+}
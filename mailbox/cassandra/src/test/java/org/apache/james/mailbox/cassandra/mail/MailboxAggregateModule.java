@@ -20,6 +20,7 @@
 package org.apache.james.mailbox.cassandra.mail;
 
 import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.backends.cassandra.utils.TokenRangeCheckpointModule;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
 import org.apache.james.blob.cassandra.CassandraBlobModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraAclModule;
@@ -27,8 +28,10 @@ import org.apache.james.mailbox.cassandra.modules.CassandraAnnotationModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraApplicableFlagsModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraAttachmentModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraDeletedMessageModule;
+import org.apache.james.mailbox.cassandra.modules.CassandraExpungeTombstoneModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraFirstUnseenModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMailboxCounterModule;
+import org.apache.james.mailbox.cassandra.modules.CassandraMailboxMessageMetadataModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMailboxModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMailboxRecentsModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMessageModule;
@@ -40,12 +43,14 @@ import org.apache.james.mailbox.cassandra.modules.CassandraUidModule;
 public interface MailboxAggregateModule {
     CassandraModule MODULE = CassandraModule.aggregateModules(
             CassandraSchemaVersionModule.MODULE,
+            TokenRangeCheckpointModule.MODULE,
             CassandraAclModule.MODULE,
             CassandraMailboxModule.MODULE,
             CassandraMessageModule.MODULE,
             CassandraBlobModule.MODULE,
             CassandraAttachmentModule.MODULE,
             CassandraMailboxCounterModule.MODULE,
+            CassandraMailboxMessageMetadataModule.MODULE,
             CassandraMailboxRecentsModule.MODULE,
             CassandraFirstUnseenModule.MODULE,
             CassandraUidModule.MODULE,
@@ -53,6 +58,7 @@ public interface MailboxAggregateModule {
             CassandraSubscriptionModule.MODULE,
             CassandraDeletedMessageModule.MODULE,
             CassandraAnnotationModule.MODULE,
+            CassandraExpungeTombstoneModule.MODULE,
             CassandraApplicableFlagsModule.MODULE);
 
     CassandraModule MODULE_WITH_QUOTA = CassandraModule.aggregateModules(CassandraQuotaModule.MODULE, MODULE);
@@ -0,0 +1,187 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail.migration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import javax.mail.Flags;
+import javax.mail.util.SharedByteArrayInputStream;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.backends.cassandra.utils.TokenRangeCheckpointDAO;
+import org.apache.james.backends.cassandra.utils.TokenRangeScanner;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.cassandra.CassandraBlobStore;
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxMessageMetadataDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdToImapUidDAO;
+import org.apache.james.mailbox.cassandra.mail.MailboxAggregateModule;
+import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.Mailbox;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.mailbox.store.mail.model.impl.SimpleMailboxMessage;
+import org.apache.james.task.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import reactor.core.publisher.Flux;
+
+class MailboxMessageMetadataMigrationTest {
+    private static final CassandraId MAILBOX_ID = CassandraId.timeBased();
+    private static final Mailbox MAILBOX = new Mailbox(MailboxPath.forUser(Username.of("bob"), "INBOX"), 42, MAILBOX_ID);
+    private static final String CONTENT = "Subject: Any subject \n\nThis is the body\n.\n";
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(MailboxAggregateModule.MODULE);
+
+    private CassandraMessageId.Factory messageIdFactory;
+    private CassandraMailboxDAO mailboxDAO;
+    private CassandraMessageDAO messageDAO;
+    private CassandraMessageIdDAO messageIdDAO;
+    private CassandraMessageIdToImapUidDAO imapUidDAO;
+    private CassandraMailboxMessageMetadataDAO metadataDAO;
+    private TokenRangeCheckpointDAO checkpointDAO;
+    private TokenRangeScanner tokenRangeScanner;
+    private MailboxMessageMetadataMigration migration;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        messageIdFactory = new CassandraMessageId.Factory();
+        mailboxDAO = new CassandraMailboxDAO(cassandra.getConf(), cassandra.getTypesProvider());
+        messageDAO = new CassandraMessageDAO(cassandra.getConf(), cassandra.getTypesProvider(),
+            CassandraBlobStore.forTesting(cassandra.getConf()), new HashBlobId.Factory(), messageIdFactory);
+        messageIdDAO = new CassandraMessageIdDAO(cassandra.getConf(), messageIdFactory);
+        imapUidDAO = new CassandraMessageIdToImapUidDAO(cassandra.getConf(), messageIdFactory);
+        metadataDAO = new CassandraMailboxMessageMetadataDAO(cassandra.getConf(), messageIdFactory);
+
+        checkpointDAO = new TokenRangeCheckpointDAO(cassandra.getConf());
+        tokenRangeScanner = new TokenRangeScanner(cassandra.getConf(), checkpointDAO);
+
+        migration = new MailboxMessageMetadataMigration(mailboxDAO, messageIdDAO, imapUidDAO, messageDAO, metadataDAO, tokenRangeScanner);
+    }
+
+    @Test
+    void emptyMigrationShouldSucceed() throws InterruptedException {
+        assertThat(migration.asTask().run())
+            .isEqualTo(Task.Result.COMPLETED);
+    }
+
+    @Test
+    void migrationShouldPopulateTheProjection() throws Exception {
+        mailboxDAO.save(MAILBOX).block();
+        SimpleMailboxMessage message1 = saveMessage(MessageUid.of(1), new Flags(Flags.Flag.SEEN));
+        SimpleMailboxMessage message2 = saveMessage(MessageUid.of(2), new Flags("custom"));
+
+        migration.apply();
+
+        assertThat(metadataDAO.retrieve(MAILBOX_ID, MessageRange.all()).collectList().block())
+            .usingElementComparatorOnFields("uid", "modSeq", "flags", "size", "messageId")
+            .containsExactly(message1.metaData(), message2.metaData());
+    }
+
+    @Test
+    void migrationShouldBeIdempotent() throws Exception {
+        mailboxDAO.save(MAILBOX).block();
+        saveMessage(MessageUid.of(1), new Flags());
+
+        migration.apply();
+        migration.apply();
+
+        assertThat(metadataDAO.listUids(MAILBOX_ID).collectList().block())
+            .containsExactly(MessageUid.of(1));
+    }
+
+    @Test
+    void migrationShouldSkipMessagesMissingFromTheImapUidTable() throws Exception {
+        mailboxDAO.save(MAILBOX).block();
+        SimpleMailboxMessage message = saveMessage(MessageUid.of(1), new Flags());
+        imapUidDAO.delete((CassandraMessageId) message.getMessageId(), MAILBOX_ID).block();
+
+        migration.apply();
+
+        assertThat(metadataDAO.listUids(MAILBOX_ID).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void migrationShouldSkipTokenRangesCheckpointedByAPreviousRun() throws Exception {
+        mailboxDAO.save(MAILBOX).block();
+        saveMessage(MessageUid.of(1), new Flags());
+        Flux.fromIterable(tokenRangeScanner.tokenRanges(TokenRangeScanner.RunningOptions.DEFAULT_SPLITS_PER_RANGE))
+            .map(TokenRangeScanner::asString)
+            .concatMap(tokenRange -> checkpointDAO.addCheckpoint(MailboxMessageMetadataMigration.SCAN_NAME, tokenRange))
+            .blockLast();
+
+        migration.apply();
+
+        assertThat(metadataDAO.listUids(MAILBOX_ID).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void migrationShouldClearCheckpointsOnceCompleted() throws Exception {
+        mailboxDAO.save(MAILBOX).block();
+        saveMessage(MessageUid.of(1), new Flags());
+
+        migration.apply();
+
+        assertThat(checkpointDAO.retrieveCheckpoints(MailboxMessageMetadataMigration.SCAN_NAME).collectList().block())
+            .isEmpty();
+    }
+
+    private SimpleMailboxMessage saveMessage(MessageUid uid, Flags flags) throws Exception {
+        SimpleMailboxMessage message = SimpleMailboxMessage.builder()
+            .messageId(messageIdFactory.generate())
+            .mailboxId(MAILBOX_ID)
+            .uid(uid)
+            .modseq(ModSeq.of(uid.asLong() + 10))
+            .internalDate(new Date())
+            .bodyStartOctet(22)
+            .size(CONTENT.length())
+            .content(new SharedByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8)))
+            .flags(flags)
+            .propertyBuilder(new PropertyBuilder())
+            .build();
+
+        messageDAO.save(message).block();
+        ComposedMessageIdWithMetaData composedMessageIdWithMetaData = ComposedMessageIdWithMetaData.builder()
+            .composedMessageId(message.getComposedMessageIdWithMetaData().getComposedMessageId())
+            .flags(flags)
+            .modSeq(message.getModSeq())
+            .build();
+        messageIdDAO.insert(composedMessageIdWithMetaData).block();
+        imapUidDAO.insert(composedMessageIdWithMetaData).block();
+        return message;
+    }
+}
@@ -23,10 +23,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.UUID;
+
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.backends.cassandra.utils.CassandraUtils;
+import org.apache.james.backends.cassandra.utils.TokenRangeCheckpointDAO;
+import org.apache.james.backends.cassandra.utils.TokenRangeCheckpointModule;
+import org.apache.james.backends.cassandra.utils.TokenRangeScanner;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionDAO;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
 import org.apache.james.backends.cassandra.versions.SchemaVersion;
@@ -47,6 +52,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
 import nl.jqno.equalsverifier.EqualsVerifier;
+import reactor.core.publisher.Flux;
 
 class SolveMailboxInconsistenciesServiceTest {
     private static final int UID_VALIDITY_1 = 145;
@@ -57,11 +63,13 @@ class SolveMailboxInconsistenciesServiceTest {
     private static CassandraId CASSANDRA_ID_1 = CassandraId.timeBased();
     private static final Mailbox MAILBOX = new Mailbox(MAILBOX_PATH, UID_VALIDITY_1, CASSANDRA_ID_1);
     private static CassandraId CASSANDRA_ID_2 = CassandraId.timeBased();
+    private static final UUID RUN_ID = UUID.fromString("2f8ad2e1-0d1c-4d0e-8a7b-6f8b1e0c5a3d");
 
     @RegisterExtension
     static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(
         CassandraModule.aggregateModules(
             CassandraSchemaVersionModule.MODULE,
+            TokenRangeCheckpointModule.MODULE,
             CassandraMailboxModule.MODULE,
             CassandraAclModule.MODULE));
 
@@ -69,6 +77,8 @@ class SolveMailboxInconsistenciesServiceTest {
     CassandraMailboxDAO mailboxDAO;
     CassandraMailboxPathV2DAO mailboxPathV2DAO;
     CassandraSchemaVersionDAO versionDAO;
+    TokenRangeCheckpointDAO checkpointDAO;
+    TokenRangeScanner tokenRangeScanner;
     SolveMailboxInconsistenciesService testee;
 
     @BeforeEach
@@ -76,7 +86,9 @@ class SolveMailboxInconsistenciesServiceTest {
         mailboxDAO = new CassandraMailboxDAO(cassandra.getConf(), cassandra.getTypesProvider());
         mailboxPathV2DAO = new CassandraMailboxPathV2DAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
         versionDAO = new CassandraSchemaVersionDAO(cassandra.getConf());
-        testee = new SolveMailboxInconsistenciesService(mailboxDAO, mailboxPathV2DAO, versionDAO);
+        checkpointDAO = new TokenRangeCheckpointDAO(cassandra.getConf());
+        tokenRangeScanner = new TokenRangeScanner(cassandra.getConf(), checkpointDAO);
+        testee = new SolveMailboxInconsistenciesService(mailboxDAO, mailboxPathV2DAO, versionDAO, tokenRangeScanner);
 
         versionDAO.updateVersion(new SchemaVersion(7)).block();
     }
@@ -192,6 +204,87 @@ class SolveMailboxInconsistenciesServiceTest {
                 .snapshot());
     }
 
+    @Test
+    void fixMailboxInconsistenciesShouldSkipTokenRangesCheckpointedForTheSameRun() {
+        Context context = new Context();
+        mailboxDAO.save(MAILBOX).block();
+        mailboxPathV2DAO.save(MAILBOX_PATH, CASSANDRA_ID_1).block();
+        checkpointAllTokenRanges(SolveMailboxInconsistenciesService.scanName(SolveMailboxInconsistenciesService.MAILBOX_SCAN_NAME, RUN_ID));
+
+        testee.fixMailboxInconsistencies(context, TokenRangeScanner.RunningOptions.DEFAULT, RUN_ID).block();
+
+        assertThat(context.snapshot())
+            .isEqualTo(Context.builder()
+                .processedMailboxPathEntries(1)
+                .build()
+                .snapshot());
+    }
+
+    @Test
+    void fixMailboxInconsistenciesShouldNotSkipTokenRangesCheckpointedForAnotherRun() {
+        Context context = new Context();
+        mailboxDAO.save(MAILBOX).block();
+        mailboxPathV2DAO.save(MAILBOX_PATH, CASSANDRA_ID_1).block();
+        checkpointAllTokenRanges(SolveMailboxInconsistenciesService.scanName(SolveMailboxInconsistenciesService.MAILBOX_SCAN_NAME, RUN_ID));
+
+        testee.fixMailboxInconsistencies(context, TokenRangeScanner.RunningOptions.DEFAULT, UUID.randomUUID()).block();
+
+        assertThat(context.snapshot())
+            .isEqualTo(Context.builder()
+                .processedMailboxEntries(1)
+                .processedMailboxPathEntries(1)
+                .build()
+                .snapshot());
+    }
+
+    @Test
+    void fixMailboxInconsistenciesShouldNotCheckpointTokenRangesWithConflicts() {
+        mailboxDAO.save(MAILBOX).block();
+        mailboxPathV2DAO.save(NEW_MAILBOX_PATH, CASSANDRA_ID_1).block();
+
+        testee.fixMailboxInconsistencies(new Context(), TokenRangeScanner.RunningOptions.DEFAULT, RUN_ID).block();
+
+        assertThat(checkpointDAO.retrieveCheckpoints(SolveMailboxInconsistenciesService.scanName(SolveMailboxInconsistenciesService.MAILBOX_PATH_SCAN_NAME, RUN_ID))
+                .collectList().block())
+            .hasSize(tokenRangeScanner.tokenRanges(TokenRangeScanner.RunningOptions.DEFAULT_SPLITS_PER_RANGE).size() - 1);
+    }
+
+    @Test
+    void fixMailboxInconsistenciesShouldScanAgainTokenRangesWithConflictsWhenResumed() {
+        Context context = new Context();
+        mailboxDAO.save(MAILBOX).block();
+        mailboxPathV2DAO.save(NEW_MAILBOX_PATH, CASSANDRA_ID_1).block();
+
+        testee.fixMailboxInconsistencies(new Context(), TokenRangeScanner.RunningOptions.DEFAULT, RUN_ID).block();
+        testee.fixMailboxInconsistencies(context, TokenRangeScanner.RunningOptions.DEFAULT, RUN_ID).block();
+
+        assertThat(context.snapshot().getProcessedMailboxPathEntries()).isEqualTo(2);
+    }
+
+    private void checkpointAllTokenRanges(String scanName) {
+        Flux.fromIterable(tokenRangeScanner.tokenRanges(TokenRangeScanner.RunningOptions.DEFAULT_SPLITS_PER_RANGE))
+            .map(TokenRangeScanner::asString)
+            .concatMap(tokenRange -> checkpointDAO.addCheckpoint(scanName, tokenRange))
+            .blockLast();
+    }
+
+    @Test
+    void fixMailboxInconsistenciesShouldScanAgainOnceCompleted() {
+        Context context = new Context();
+        mailboxDAO.save(MAILBOX).block();
+        mailboxPathV2DAO.save(MAILBOX_PATH, CASSANDRA_ID_1).block();
+
+        testee.fixMailboxInconsistencies(context).block();
+        testee.fixMailboxInconsistencies(context).block();
+
+        assertThat(context.snapshot())
+            .isEqualTo(Context.builder()
+                .processedMailboxEntries(2)
+                .processedMailboxPathEntries(2)
+                .build()
+                .snapshot());
+    }
+
     @Test
     void fixMailboxInconsistenciesShouldUpdateContextWhenOrphanMailboxData() {
         Context context = new Context();
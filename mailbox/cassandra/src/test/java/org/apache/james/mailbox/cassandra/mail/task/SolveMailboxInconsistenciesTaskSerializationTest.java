@@ -19,16 +19,20 @@
 
 package org.apache.james.mailbox.cassandra.mail.task;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.apache.james.JsonSerializationVerifier;
+import org.apache.james.backends.cassandra.utils.TokenRangeScanner;
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.model.MailboxConstants;
 import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.server.task.json.JsonTaskSerializer;
 import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableList;
@@ -40,16 +44,27 @@ class SolveMailboxInconsistenciesTaskSerializationTest {
     private static final MailboxPath MAILBOX_PATH_2 = new MailboxPath(MailboxConstants.USER_NAMESPACE, USERNAME, "mailboxName2");
     private static final CassandraId MAILBOX_ID = CassandraId.of(UUID.fromString("464765a0-e4e7-11e4-aba4-710c1de3782b"));
 
+    private static final UUID RUN_ID = UUID.fromString("2f8ad2e1-0d1c-4d0e-8a7b-6f8b1e0c5a3d");
+
     private static final SolveMailboxInconsistenciesService SERVICE = mock(SolveMailboxInconsistenciesService.class);
-    private static final SolveMailboxInconsistenciesTask TASK = new SolveMailboxInconsistenciesTask(SERVICE);
-    private static final String SERIALIZED_TASK = "{\"type\": \"solve-mailbox-inconsistencies\"}";
+    private static final SolveMailboxInconsistenciesTask TASK = new SolveMailboxInconsistenciesTask(SERVICE,
+        TokenRangeScanner.RunningOptions.of(Optional.of(8), Optional.of(16), Optional.of(100)), RUN_ID);
+    private static final String SERIALIZED_TASK = "{" +
+        "  \"type\": \"solve-mailbox-inconsistencies\"," +
+        "  \"parallelism\": 8," +
+        "  \"splitsPerRange\": 16," +
+        "  \"rowsPerSecond\": 100," +
+        "  \"runId\": \"2f8ad2e1-0d1c-4d0e-8a7b-6f8b1e0c5a3d\"" +
+        "}";
+    private static final String LEGACY_SERIALIZED_TASK = "{\"type\": \"solve-mailbox-inconsistencies\"}";
     private static final ConflictingEntry CONFLICTING_ENTRY = ConflictingEntry.builder()
         .mailboxDaoEntry(MAILBOX_PATH, MAILBOX_ID)
         .mailboxPathDaoEntry(MAILBOX_PATH_2, MAILBOX_ID);
     private static final ImmutableList<ConflictingEntry> CONFLICTING_ENTRIES = ImmutableList.of(CONFLICTING_ENTRY);
-    private static final SolveMailboxInconsistenciesTask.Details DETAILS = new SolveMailboxInconsistenciesTask.Details(TIMESTAMP, 0, 1, 2, CONFLICTING_ENTRIES, 3);
+    private static final SolveMailboxInconsistenciesTask.Details DETAILS = new SolveMailboxInconsistenciesTask.Details(TIMESTAMP, Optional.of(RUN_ID), 0, 1, 2, CONFLICTING_ENTRIES, 3);
     private static final String SERIALIZED_ADDITIONAL_INFORMATION = "{" +
         "  \"type\":\"solve-mailbox-inconsistencies\"," +
+        "  \"runId\":\"2f8ad2e1-0d1c-4d0e-8a7b-6f8b1e0c5a3d\"," +
         "  \"processedMailboxEntries\":0," +
         "  \"processedMailboxPathEntries\":1," +
         "  \"fixedInconsistencies\":2," +
@@ -75,6 +90,24 @@ class SolveMailboxInconsistenciesTaskSerializationTest {
             .verify();
     }
 
+    @Test
+    void legacyTaskShouldBeDeserializedWithDefaultRunningOptions() throws Exception {
+        JsonTaskSerializer testee = JsonTaskSerializer.of(SolveMailboxInconsistenciesTaskDTO.module(SERVICE));
+
+        assertThat(((SolveMailboxInconsistenciesTask) testee.deserialize(LEGACY_SERIALIZED_TASK)).getRunningOptions())
+            .isEqualTo(TokenRangeScanner.RunningOptions.DEFAULT);
+    }
+
+    @Test
+    void legacyTaskShouldBeDeserializedWithANewRunId() throws Exception {
+        JsonTaskSerializer testee = JsonTaskSerializer.of(SolveMailboxInconsistenciesTaskDTO.module(SERVICE));
+
+        SolveMailboxInconsistenciesTask task1 = (SolveMailboxInconsistenciesTask) testee.deserialize(LEGACY_SERIALIZED_TASK);
+        SolveMailboxInconsistenciesTask task2 = (SolveMailboxInconsistenciesTask) testee.deserialize(LEGACY_SERIALIZED_TASK);
+
+        assertThat(task1.getRunId()).isNotEqualTo(task2.getRunId());
+    }
+
     @Test
     void additionalInformationShouldBeSerializable() throws Exception {
         JsonSerializationVerifier.dtoModule(SolveMailboxInconsistenciesTaskAdditionalInformationDTO.MODULE)
@@ -27,11 +27,13 @@ import org.apache.james.backends.jpa.EntityManagerUtils;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.jpa.mail.JPAAnnotationMapper;
+import org.apache.james.mailbox.jpa.mail.JPAExpungeTombstoneMapper;
 import org.apache.james.mailbox.jpa.mail.JPAMailboxMapper;
 import org.apache.james.mailbox.jpa.mail.JPAMessageMapper;
 import org.apache.james.mailbox.jpa.user.JPASubscriptionMapper;
 import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
 import org.apache.james.mailbox.store.mail.AnnotationMapper;
+import org.apache.james.mailbox.store.mail.ExpungeTombstoneMapper;
 import org.apache.james.mailbox.store.mail.MailboxMapper;
 import org.apache.james.mailbox.store.mail.MessageIdMapper;
 import org.apache.james.mailbox.store.mail.MessageMapper;
@@ -92,6 +94,11 @@ public class JPAMailboxSessionMapperFactory extends MailboxSessionMapperFactory
         return new JPAAnnotationMapper(entityManagerFactory);
     }
 
+    @Override
+    public ExpungeTombstoneMapper createExpungeTombstoneMapper(MailboxSession session) {
+        return new JPAExpungeTombstoneMapper(entityManagerFactory);
+    }
+
     @Override
     public UidProvider getUidProvider() {
         return uidProvider;
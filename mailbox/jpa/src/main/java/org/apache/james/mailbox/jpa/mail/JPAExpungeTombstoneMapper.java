@@ -0,0 +1,117 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.jpa.mail;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.jpa.JPAId;
+import org.apache.james.mailbox.jpa.JPATransactionalMapper;
+import org.apache.james.mailbox.jpa.mail.model.JPAExpungeHorizon;
+import org.apache.james.mailbox.jpa.mail.model.JPAExpungeTombstone;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.store.mail.ExpungeTombstoneMapper;
+import org.apache.james.mailbox.store.mail.model.ExpungeTombstone;
+
+import com.github.steveash.guavate.Guavate;
+
+public class JPAExpungeTombstoneMapper extends JPATransactionalMapper implements ExpungeTombstoneMapper {
+
+    private final Clock clock;
+    private final Duration retention;
+
+    public JPAExpungeTombstoneMapper(EntityManagerFactory entityManagerFactory) {
+        this(entityManagerFactory, Clock.systemUTC(), DEFAULT_RETENTION);
+    }
+
+    public JPAExpungeTombstoneMapper(EntityManagerFactory entityManagerFactory, Clock clock, Duration retention) {
+        super(entityManagerFactory);
+        this.clock = clock;
+        this.retention = retention;
+    }
+
+    @Override
+    public void record(MailboxId mailboxId, ExpungeTombstone tombstone) {
+        long rawId = ((JPAId) mailboxId).getRawId();
+        JPAExpungeHorizon horizon = getEntityManager().find(JPAExpungeHorizon.class, rawId);
+        if (horizon == null) {
+            horizon = new JPAExpungeHorizon(rawId, tombstone.getModSeq().asLong() - 1);
+            getEntityManager().persist(horizon);
+        }
+        getEntityManager().persist(new JPAExpungeTombstone(rawId, tombstone));
+        forgetExpired(rawId, horizon);
+    }
+
+    private void forgetExpired(long rawId, JPAExpungeHorizon horizon) {
+        List<JPAExpungeTombstone> expired = getEntityManager()
+            .createNamedQuery("listExpiredExpungeTombstones", JPAExpungeTombstone.class)
+            .setParameter("idParam", rawId)
+            .setParameter("expiryParam", Date.from(clock.instant().minus(retention)))
+            .getResultList();
+
+        for (JPAExpungeTombstone tombstone : expired) {
+            getEntityManager().remove(tombstone);
+            if (tombstone.getModSeq() > horizon.getHorizon()) {
+                horizon.setHorizon(tombstone.getModSeq());
+            }
+        }
+    }
+
+    @Override
+    public void startTracking(MailboxId mailboxId, ModSeq modSeq) {
+        long rawId = ((JPAId) mailboxId).getRawId();
+        if (getEntityManager().find(JPAExpungeHorizon.class, rawId) == null) {
+            getEntityManager().persist(new JPAExpungeHorizon(rawId, modSeq.asLong()));
+        }
+    }
+
+    @Override
+    public Optional<List<ExpungeTombstone>> expungedSince(MailboxId mailboxId, ModSeq modSeq) {
+        long rawId = ((JPAId) mailboxId).getRawId();
+        JPAExpungeHorizon horizon = getEntityManager().find(JPAExpungeHorizon.class, rawId);
+        if (horizon == null || modSeq.asLong() < horizon.getHorizon()) {
+            return Optional.empty();
+        }
+        return Optional.of(getEntityManager()
+            .createNamedQuery("listExpungeTombstonesSince", JPAExpungeTombstone.class)
+            .setParameter("idParam", rawId)
+            .setParameter("modSeqParam", modSeq.asLong())
+            .getResultList()
+            .stream()
+            .map(JPAExpungeTombstone::toTombstone)
+            .collect(Guavate.toImmutableList()));
+    }
+
+    @Override
+    public void delete(MailboxId mailboxId) {
+        long rawId = ((JPAId) mailboxId).getRawId();
+        getEntityManager().createNamedQuery("deleteExpungeTombstones")
+            .setParameter("idParam", rawId)
+            .executeUpdate();
+        getEntityManager().createNamedQuery("deleteExpungeHorizon")
+            .setParameter("idParam", rawId)
+            .executeUpdate();
+    }
+}
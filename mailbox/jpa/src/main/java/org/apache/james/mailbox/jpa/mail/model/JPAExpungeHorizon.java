@@ -0,0 +1,85 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.jpa.mail.model;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+import com.google.common.base.Objects;
+
+/**
+ * Mod-sequence up to which the expunges of a mailbox might not be known.
+ */
+@Entity(name = "ExpungeHorizon")
+@Table(name = "JAMES_MAILBOX_EXPUNGE_HORIZON")
+@NamedQueries({
+    @NamedQuery(name = "deleteExpungeHorizon", query = "DELETE FROM ExpungeHorizon horizon WHERE horizon.mailboxId = :idParam")})
+public class JPAExpungeHorizon {
+
+    public static final String MAILBOX_ID = "MAILBOX_ID";
+    public static final String HORIZON = "HORIZON";
+
+    @Id
+    @Column(name = MAILBOX_ID)
+    private long mailboxId;
+
+    @Basic(optional = false)
+    @Column(name = HORIZON)
+    private long horizon;
+
+    public JPAExpungeHorizon() {
+    }
+
+    public JPAExpungeHorizon(long mailboxId, long horizon) {
+        this.mailboxId = mailboxId;
+        this.horizon = horizon;
+    }
+
+    public long getMailboxId() {
+        return mailboxId;
+    }
+
+    public long getHorizon() {
+        return horizon;
+    }
+
+    public void setHorizon(long horizon) {
+        this.horizon = horizon;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof JPAExpungeHorizon) {
+            JPAExpungeHorizon that = (JPAExpungeHorizon) o;
+            return Objects.equal(this.mailboxId, that.mailboxId)
+                && Objects.equal(this.horizon, that.horizon);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(mailboxId, horizon);
+    }
+}
@@ -0,0 +1,107 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.jpa.mail.model;
+
+import java.util.Date;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.store.mail.model.ExpungeTombstone;
+
+import com.google.common.base.Objects;
+
+@Entity(name = "ExpungeTombstone")
+@Table(name = "JAMES_MAILBOX_EXPUNGE_TOMBSTONE")
+@NamedQueries({
+    @NamedQuery(name = "listExpungeTombstonesSince", query = "SELECT tombstone FROM ExpungeTombstone tombstone WHERE tombstone.mailboxId = :idParam AND tombstone.modSeq > :modSeqParam ORDER BY tombstone.modSeq"),
+    @NamedQuery(name = "listExpiredExpungeTombstones", query = "SELECT tombstone FROM ExpungeTombstone tombstone WHERE tombstone.mailboxId = :idParam AND tombstone.expungedAt < :expiryParam"),
+    @NamedQuery(name = "deleteExpungeTombstones", query = "DELETE FROM ExpungeTombstone tombstone WHERE tombstone.mailboxId = :idParam")})
+@IdClass(JPAExpungeTombstoneId.class)
+public class JPAExpungeTombstone {
+
+    public static final String MAILBOX_ID = "MAILBOX_ID";
+    public static final String MODSEQ = "MODSEQ";
+    public static final String EXPUNGED_AT = "EXPUNGED_AT";
+    public static final String UIDS = "UIDS";
+
+    @Id
+    @Column(name = MAILBOX_ID)
+    private long mailboxId;
+
+    @Id
+    @Column(name = MODSEQ)
+    private long modSeq;
+
+    @Basic(optional = false)
+    @Column(name = EXPUNGED_AT)
+    private Date expungedAt;
+
+    @Lob
+    @Basic(optional = false)
+    @Column(name = UIDS)
+    private String uids;
+
+    public JPAExpungeTombstone() {
+    }
+
+    public JPAExpungeTombstone(long mailboxId, ExpungeTombstone tombstone) {
+        this.mailboxId = mailboxId;
+        this.modSeq = tombstone.getModSeq().asLong();
+        this.expungedAt = Date.from(tombstone.getExpungedAt());
+        this.uids = tombstone.serializeUids();
+    }
+
+    public long getMailboxId() {
+        return mailboxId;
+    }
+
+    public long getModSeq() {
+        return modSeq;
+    }
+
+    public ExpungeTombstone toTombstone() {
+        return ExpungeTombstone.deserialize(ModSeq.of(modSeq), expungedAt.toInstant(), uids);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof JPAExpungeTombstone) {
+            JPAExpungeTombstone that = (JPAExpungeTombstone) o;
+            return Objects.equal(this.mailboxId, that.mailboxId)
+                && Objects.equal(this.modSeq, that.modSeq)
+                && Objects.equal(this.expungedAt, that.expungedAt)
+                && Objects.equal(this.uids, that.uids);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(mailboxId, modSeq, expungedAt, uids);
+    }
+}
@@ -21,6 +21,8 @@ package org.apache.james.mailbox.jpa;
 
 import java.util.List;
 
+import org.apache.james.mailbox.jpa.mail.model.JPAExpungeHorizon;
+import org.apache.james.mailbox.jpa.mail.model.JPAExpungeTombstone;
 import org.apache.james.mailbox.jpa.mail.model.JPAMailbox;
 import org.apache.james.mailbox.jpa.mail.model.JPAMailboxAnnotation;
 import org.apache.james.mailbox.jpa.mail.model.JPAProperty;
@@ -47,6 +49,8 @@ public interface JPAMailboxFixture {
         JPAProperty.class,
         JPAUserFlag.class,
         JPAMailboxAnnotation.class,
+        JPAExpungeTombstone.class,
+        JPAExpungeHorizon.class,
         JPASubscription.class
     );
 
@@ -64,6 +68,8 @@ public interface JPAMailboxFixture {
         "JAMES_MAIL_USERFLAG",
         "JAMES_MAIL_PROPERTY",
         "JAMES_MAILBOX_ANNOTATION",
+        "JAMES_MAILBOX_EXPUNGE_TOMBSTONE",
+        "JAMES_MAILBOX_EXPUNGE_HORIZON",
         "JAMES_MAILBOX",
         "JAMES_MAIL",
         "JAMES_SUBSCRIPTION");
@@ -0,0 +1,68 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.jpa.mail;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.commons.lang3.NotImplementedException;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.store.mail.ExpungeTombstoneMapper;
+import org.apache.james.mailbox.store.mail.model.ExpungeTombstone;
+import org.apache.james.mailbox.store.transaction.Mapper;
+
+public class TransactionalExpungeTombstoneMapper implements ExpungeTombstoneMapper {
+    private final JPAExpungeTombstoneMapper wrapped;
+
+    public TransactionalExpungeTombstoneMapper(JPAExpungeTombstoneMapper wrapped) {
+        this.wrapped = wrapped;
+    }
+
+    @Override
+    public void endRequest() {
+        throw new NotImplementedException("not implemented");
+    }
+
+    @Override
+    public <T> T execute(Transaction<T> transaction) {
+        throw new NotImplementedException("not implemented");
+    }
+
+    @Override
+    public void record(MailboxId mailboxId, ExpungeTombstone tombstone) throws MailboxException {
+        wrapped.execute(Mapper.toTransaction(() -> wrapped.record(mailboxId, tombstone)));
+    }
+
+    @Override
+    public void startTracking(MailboxId mailboxId, ModSeq modSeq) throws MailboxException {
+        wrapped.execute(Mapper.toTransaction(() -> wrapped.startTracking(mailboxId, modSeq)));
+    }
+
+    @Override
+    public Optional<List<ExpungeTombstone>> expungedSince(MailboxId mailboxId, ModSeq modSeq) {
+        return wrapped.expungedSince(mailboxId, modSeq);
+    }
+
+    @Override
+    public void delete(MailboxId mailboxId) throws MailboxException {
+        wrapped.execute(Mapper.toTransaction(() -> wrapped.delete(mailboxId)));
+    }
+}
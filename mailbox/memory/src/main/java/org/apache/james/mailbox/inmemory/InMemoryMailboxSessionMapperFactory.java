@@ -23,6 +23,7 @@ import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.exception.SubscriptionException;
 import org.apache.james.mailbox.inmemory.mail.InMemoryAnnotationMapper;
 import org.apache.james.mailbox.inmemory.mail.InMemoryAttachmentMapper;
+import org.apache.james.mailbox.inmemory.mail.InMemoryExpungeTombstoneMapper;
 import org.apache.james.mailbox.inmemory.mail.InMemoryMailboxMapper;
 import org.apache.james.mailbox.inmemory.mail.InMemoryMessageIdMapper;
 import org.apache.james.mailbox.inmemory.mail.InMemoryMessageMapper;
@@ -33,6 +34,7 @@ import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
 import org.apache.james.mailbox.store.mail.AnnotationMapper;
 import org.apache.james.mailbox.store.mail.AttachmentMapper;
 import org.apache.james.mailbox.store.mail.AttachmentMapperFactory;
+import org.apache.james.mailbox.store.mail.ExpungeTombstoneMapper;
 import org.apache.james.mailbox.store.mail.MailboxMapper;
 import org.apache.james.mailbox.store.mail.MessageIdMapper;
 import org.apache.james.mailbox.store.mail.ModSeqProvider;
@@ -47,6 +49,7 @@ public class InMemoryMailboxSessionMapperFactory extends MailboxSessionMapperFac
     private final SubscriptionMapper subscriptionMapper;
     private final AttachmentMapper attachmentMapper;
     private final AnnotationMapper annotationMapper;
+    private final InMemoryExpungeTombstoneMapper expungeTombstoneMapper;
     private final InMemoryUidProvider uidProvider;
     private final InMemoryModSeqProvider modSeqProvider;
 
@@ -60,6 +63,7 @@ public class InMemoryMailboxSessionMapperFactory extends MailboxSessionMapperFac
         subscriptionMapper = new InMemorySubscriptionMapper();
         attachmentMapper = new InMemoryAttachmentMapper();
         annotationMapper = new InMemoryAnnotationMapper();
+        expungeTombstoneMapper = new InMemoryExpungeTombstoneMapper();
     }
     
     @Override
@@ -91,6 +95,7 @@ public class InMemoryMailboxSessionMapperFactory extends MailboxSessionMapperFac
         ((InMemoryMailboxMapper) mailboxMapper).deleteAll();
         ((InMemoryMessageMapper) messageMapper).deleteAll();
         ((InMemorySubscriptionMapper) subscriptionMapper).deleteAll();
+        expungeTombstoneMapper.deleteAll();
     }
 
     @Override
@@ -99,6 +104,11 @@ public class InMemoryMailboxSessionMapperFactory extends MailboxSessionMapperFac
         return annotationMapper;
     }
 
+    @Override
+    public ExpungeTombstoneMapper createExpungeTombstoneMapper(MailboxSession session) {
+        return expungeTombstoneMapper;
+    }
+
     @Override
     public UidProvider getUidProvider() {
         return uidProvider;
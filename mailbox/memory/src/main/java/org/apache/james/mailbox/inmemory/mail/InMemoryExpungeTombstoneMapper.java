@@ -0,0 +1,125 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.inmemory.mail;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.store.mail.ExpungeTombstoneMapper;
+import org.apache.james.mailbox.store.mail.model.ExpungeTombstone;
+import org.apache.james.mailbox.store.transaction.NonTransactionalMapper;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+
+public class InMemoryExpungeTombstoneMapper extends NonTransactionalMapper implements ExpungeTombstoneMapper {
+
+    private static class MailboxTombstones {
+        private ModSeq horizon;
+        private final ConcurrentSkipListMap<Long, ExpungeTombstone> tombstones;
+
+        MailboxTombstones(ModSeq horizon) {
+            this.horizon = horizon;
+            this.tombstones = new ConcurrentSkipListMap<>();
+        }
+    }
+
+    private final ConcurrentHashMap<MailboxId, MailboxTombstones> mailboxes;
+    private final Clock clock;
+    private final Duration retention;
+
+    public InMemoryExpungeTombstoneMapper() {
+        this(Clock.systemUTC(), DEFAULT_RETENTION);
+    }
+
+    public InMemoryExpungeTombstoneMapper(Clock clock, Duration retention) {
+        this.mailboxes = new ConcurrentHashMap<>();
+        this.clock = clock;
+        this.retention = retention;
+    }
+
+    @Override
+    public void record(MailboxId mailboxId, ExpungeTombstone tombstone) {
+        MailboxTombstones mailboxTombstones = mailboxes.computeIfAbsent(mailboxId,
+            any -> new MailboxTombstones(ModSeq.of(tombstone.getModSeq().asLong() - 1)));
+
+        synchronized (mailboxTombstones) {
+            mailboxTombstones.tombstones.put(tombstone.getModSeq().asLong(), tombstone);
+            forgetExpired(mailboxTombstones);
+        }
+    }
+
+    private void forgetExpired(MailboxTombstones mailboxTombstones) {
+        Instant expiry = clock.instant().minus(retention);
+        List<ExpungeTombstone> expired = mailboxTombstones.tombstones.values()
+            .stream()
+            .filter(tombstone -> tombstone.getExpungedAt().isBefore(expiry))
+            .collect(Guavate.toImmutableList());
+
+        for (ExpungeTombstone tombstone : expired) {
+            mailboxTombstones.tombstones.remove(tombstone.getModSeq().asLong());
+            if (tombstone.getModSeq().asLong() > mailboxTombstones.horizon.asLong()) {
+                mailboxTombstones.horizon = tombstone.getModSeq();
+            }
+        }
+    }
+
+    @Override
+    public void startTracking(MailboxId mailboxId, ModSeq modSeq) {
+        mailboxes.computeIfAbsent(mailboxId, any -> new MailboxTombstones(modSeq));
+    }
+
+    @Override
+    public Optional<List<ExpungeTombstone>> expungedSince(MailboxId mailboxId, ModSeq modSeq) {
+        MailboxTombstones mailboxTombstones = mailboxes.get(mailboxId);
+        if (mailboxTombstones == null) {
+            return Optional.empty();
+        }
+        synchronized (mailboxTombstones) {
+            if (modSeq.asLong() < mailboxTombstones.horizon.asLong()) {
+                return Optional.empty();
+            }
+            return Optional.of(ImmutableList.copyOf(mailboxTombstones.tombstones
+                .tailMap(modSeq.asLong(), false)
+                .values()));
+        }
+    }
+
+    @Override
+    public void delete(MailboxId mailboxId) {
+        mailboxes.remove(mailboxId);
+    }
+
+    @Override
+    public void endRequest() {
+        // Do nothing
+    }
+
+    public void deleteAll() {
+        mailboxes.clear();
+    }
+}
@@ -19,23 +19,54 @@
 
 package org.apache.james.vault.metadata;
 
+import java.time.Duration;
+
 import javax.inject.Inject;
 
 import org.apache.james.blob.api.BucketName;
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.vault.RetentionConfiguration;
 import org.reactivestreams.Publisher;
 
+import reactor.core.publisher.Mono;
+
+/**
+ * Metadata is partitioned by bucket and owner. As buckets are time based, expiring a bucket only requires to drop
+ * the partition of each user referenced in it, without any per-message deletion.
+ *
+ * Users are referenced in the bucket before their metadata is stored, so that no metadata partition can escape expiry.
+ *
+ * The bucket of a given message is located through the storageInformation table, whose rows expire on their own once
+ * the bucket they reference got expired. Buckets span at most a month and are expired once the retention period
+ * elapsed after their end. As Cassandra caps TTLs, rows of very long retention periods can expire before their bucket:
+ * buckets are then probed for the metadata.
+ */
 public class CassandraDeletedMessageMetadataVault implements DeletedMessageMetadataVault {
+    private static final int PARTITION_DELETION_CONCURRENCY = 4;
+    private static final Duration MAX_BUCKET_DURATION = Duration.ofDays(31);
+    private static final Duration MAX_CASSANDRA_TTL = Duration.ofDays(7300);
+
     private final MetadataDAO metadataDAO;
     private final StorageInformationDAO storageInformationDAO;
     private final UserPerBucketDAO userPerBucketDAO;
+    private final Duration storageInformationTtl;
 
     @Inject
-    CassandraDeletedMessageMetadataVault(MetadataDAO metadataDAO, StorageInformationDAO storageInformationDAO, UserPerBucketDAO userPerBucketDAO) {
+    CassandraDeletedMessageMetadataVault(MetadataDAO metadataDAO, StorageInformationDAO storageInformationDAO,
+                                         UserPerBucketDAO userPerBucketDAO, RetentionConfiguration retentionConfiguration) {
         this.metadataDAO = metadataDAO;
         this.storageInformationDAO = storageInformationDAO;
         this.userPerBucketDAO = userPerBucketDAO;
+        this.storageInformationTtl = storageInformationTtl(retentionConfiguration);
+    }
+
+    private static Duration storageInformationTtl(RetentionConfiguration retentionConfiguration) {
+        Duration ttl = retentionConfiguration.getRetentionPeriod().plus(MAX_BUCKET_DURATION);
+        if (ttl.compareTo(MAX_CASSANDRA_TTL) > 0) {
+            return MAX_CASSANDRA_TTL;
+        }
+        return ttl;
     }
 
     @Override
@@ -43,20 +74,15 @@ public class CassandraDeletedMessageMetadataVault implements DeletedMessageMetad
         BucketName bucketName = deletedMessage.getStorageInformation().getBucketName();
         Username owner = deletedMessage.getDeletedMessage().getOwner();
         MessageId messageId = deletedMessage.getDeletedMessage().getMessageId();
-        return storageInformationDAO.referenceStorageInformation(owner, messageId, deletedMessage.getStorageInformation())
-            .then(metadataDAO.store(deletedMessage))
-            .then(userPerBucketDAO.addUser(bucketName, owner));
+        return userPerBucketDAO.addUser(bucketName, owner)
+            .then(storageInformationDAO.referenceStorageInformation(owner, messageId, deletedMessage.getStorageInformation(), storageInformationTtl))
+            .then(metadataDAO.store(deletedMessage));
     }
 
     @Override
     public Publisher<Void> removeMetadataRelatedToBucket(BucketName bucketName) {
         return userPerBucketDAO.retrieveUsers(bucketName)
-            .concatMap(user -> metadataDAO.retrieveMessageIds(bucketName, user)
-                .map(messageId -> new DeletedMessageIdentifier(user, messageId))
-                .concatMap(deletedMessageIdentifier -> storageInformationDAO.deleteStorageInformation(
-                    deletedMessageIdentifier.getOwner(),
-                    deletedMessageIdentifier.getMessageId()))
-                .then(metadataDAO.deleteInBucket(bucketName, user)))
+            .flatMap(user -> metadataDAO.deleteInBucket(bucketName, user), PARTITION_DELETION_CONCURRENCY)
             .then(userPerBucketDAO.deleteBucket(bucketName));
     }
 
@@ -66,9 +92,21 @@ public class CassandraDeletedMessageMetadataVault implements DeletedMessageMetad
             .then(metadataDAO.deleteMessage(bucketName, username, messageId));
     }
 
+    /**
+     * The referenced bucket is only trusted if it still holds the metadata, as expired buckets do not delete
+     * the storageInformation rows referencing them. Without any row, the buckets are probed in turn.
+     */
     @Override
     public Publisher<StorageInformation> retrieveStorageInformation(Username username, MessageId messageId) {
-        return storageInformationDAO.retrieveStorageInformation(username, messageId);
+        return storageInformationDAO.retrieveStorageInformation(username, messageId)
+            .flatMap(storageInformation -> metadataDAO.retrieveStorageInformation(storageInformation.getBucketName(), username, messageId))
+            .switchIfEmpty(probeBuckets(username, messageId));
+    }
+
+    private Mono<StorageInformation> probeBuckets(Username username, MessageId messageId) {
+        return userPerBucketDAO.retrieveBuckets()
+            .concatMap(bucketName -> metadataDAO.retrieveStorageInformation(bucketName, username, messageId))
+            .next();
     }
 
     @Override
@@ -50,6 +50,7 @@ public class MetadataDAO {
     private final PreparedStatement removeAllStatement;
     private final PreparedStatement readStatement;
     private final PreparedStatement readMessageIdStatement;
+    private final PreparedStatement readSingleStatement;
     private final MessageId.Factory messageIdFactory;
     private final MetadataSerializer metadataSerializer;
 
@@ -61,6 +62,7 @@ public class MetadataDAO {
         this.removeAllStatement = prepareRemoveAll(session);
         this.readStatement = prepareRead(session, PAYLOAD);
         this.readMessageIdStatement = prepareRead(session, MESSAGE_ID);
+        this.readSingleStatement = prepareReadSingle(session);
         this.messageIdFactory = messageIdFactory;
         this.metadataSerializer = metadataSerializer;
     }
@@ -71,6 +73,13 @@ public class MetadataDAO {
             .and(eq(OWNER, bindMarker(OWNER))));
     }
 
+    private PreparedStatement prepareReadSingle(Session session) {
+        return session.prepare(select(PAYLOAD).from(TABLE)
+            .where(eq(BUCKET_NAME, bindMarker(BUCKET_NAME)))
+            .and(eq(OWNER, bindMarker(OWNER)))
+            .and(eq(MESSAGE_ID, bindMarker(MESSAGE_ID))));
+    }
+
     private PreparedStatement prepareAdd(Session session) {
         return session.prepare(insertInto(TABLE)
             .value(BUCKET_NAME, bindMarker(BUCKET_NAME))
@@ -112,6 +121,17 @@ public class MetadataDAO {
             .handle((json, sink) -> metadataSerializer.deserialize(json).ifPresent(sink::next));
     }
 
+    Mono<StorageInformation> retrieveStorageInformation(BucketName bucketName, Username username, MessageId messageId) {
+        return cassandraAsyncExecutor.executeSingleRow(
+            readSingleStatement.bind()
+                .setString(BUCKET_NAME, bucketName.asString())
+                .setString(OWNER, username.asString())
+                .setString(MESSAGE_ID, messageId.serialize()))
+            .map(row -> row.getString(PAYLOAD))
+            .<DeletedMessageWithStorageInformation>handle((json, sink) -> metadataSerializer.deserialize(json).ifPresent(sink::next))
+            .map(DeletedMessageWithStorageInformation::getStorageInformation);
+    }
+
     Flux<MessageId> retrieveMessageIds(BucketName bucketName, Username username) {
         return cassandraAsyncExecutor.executeRows(
             readMessageIdStatement.bind()
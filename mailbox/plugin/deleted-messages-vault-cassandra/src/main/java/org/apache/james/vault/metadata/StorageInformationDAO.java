@@ -24,12 +24,15 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.ttl;
 import static org.apache.james.vault.metadata.DeletedMessageMetadataModule.StorageInformationTable.BLOB_ID;
 import static org.apache.james.vault.metadata.DeletedMessageMetadataModule.StorageInformationTable.BUCKET_NAME;
 import static org.apache.james.vault.metadata.DeletedMessageMetadataModule.StorageInformationTable.MESSAGE_ID;
 import static org.apache.james.vault.metadata.DeletedMessageMetadataModule.StorageInformationTable.OWNER;
 import static org.apache.james.vault.metadata.DeletedMessageMetadataModule.StorageInformationTable.TABLE;
 
+import java.time.Duration;
+
 import javax.inject.Inject;
 
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
@@ -43,7 +46,13 @@ import com.datastax.driver.core.Session;
 
 import reactor.core.publisher.Mono;
 
+/**
+ * Locates the bucket holding the metadata of a deleted message. Rows are written with a TTL outliving the bucket
+ * retention so that bucket expiry does not need to delete them one by one.
+ */
 public class StorageInformationDAO {
+    private static final String TTL = "ttl";
+
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final PreparedStatement addStatement;
     private final PreparedStatement removeStatement;
@@ -77,15 +86,17 @@ public class StorageInformationDAO {
             .value(OWNER, bindMarker(OWNER))
             .value(MESSAGE_ID, bindMarker(MESSAGE_ID))
             .value(BUCKET_NAME, bindMarker(BUCKET_NAME))
-            .value(BLOB_ID, bindMarker(BLOB_ID)));
+            .value(BLOB_ID, bindMarker(BLOB_ID))
+            .using(ttl(bindMarker(TTL))));
     }
 
-    Mono<Void> referenceStorageInformation(Username username, MessageId messageId, StorageInformation storageInformation) {
+    Mono<Void> referenceStorageInformation(Username username, MessageId messageId, StorageInformation storageInformation, Duration ttl) {
         return cassandraAsyncExecutor.executeVoid(addStatement.bind()
             .setString(OWNER, username.asString())
             .setString(MESSAGE_ID, messageId.serialize())
             .setString(BUCKET_NAME, storageInformation.getBucketName().asString())
-            .setString(BLOB_ID, storageInformation.getBlobId().asString()));
+            .setString(BLOB_ID, storageInformation.getBlobId().asString())
+            .setInt(TTL, Math.toIntExact(ttl.getSeconds())));
     }
 
     Mono<Void> deleteStorageInformation(Username username, MessageId messageId) {
@@ -25,10 +25,14 @@ import static org.apache.james.vault.metadata.DeletedMessageMetadataModule.MODUL
 import static org.apache.james.vault.metadata.DeletedMessageVaultMetadataFixture.BUCKET_NAME;
 import static org.apache.james.vault.metadata.DeletedMessageVaultMetadataFixture.DELETED_MESSAGE;
 import static org.apache.james.vault.metadata.DeletedMessageVaultMetadataFixture.DELETED_MESSAGE_2;
+import static org.apache.james.vault.metadata.DeletedMessageVaultMetadataFixture.DELETED_MESSAGE_2_OTHER_BUCKET;
 import static org.apache.james.vault.metadata.DeletedMessageVaultMetadataFixture.STORAGE_INFORMATION;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Optional;
@@ -39,9 +43,9 @@ import org.apache.james.backends.cassandra.CassandraClusterExtension;
 import org.apache.james.blob.api.HashBlobId;
 import org.apache.james.mailbox.inmemory.InMemoryId;
 import org.apache.james.mailbox.inmemory.InMemoryMessageId;
+import org.apache.james.vault.RetentionConfiguration;
 import org.apache.james.vault.dto.DeletedMessageWithStorageInformationConverter;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
@@ -67,7 +71,7 @@ public class CassandraDeletedMessageMetadataVaultTest implements DeletedMessageM
         storageInformationDAO = spy(new StorageInformationDAO(cassandra.getConf(), blobIdFactory));
         userPerBucketDAO = spy(new UserPerBucketDAO(cassandra.getConf()));
 
-        testee = new CassandraDeletedMessageMetadataVault(metadataDAO, storageInformationDAO, userPerBucketDAO);
+        testee = new CassandraDeletedMessageMetadataVault(metadataDAO, storageInformationDAO, userPerBucketDAO, RetentionConfiguration.DEFAULT);
     }
 
     @Override
@@ -77,7 +81,7 @@ public class CassandraDeletedMessageMetadataVaultTest implements DeletedMessageM
 
     @Test
     void listShouldNotReturnMessagesWhenStorageDAOFailed() {
-        when(storageInformationDAO.referenceStorageInformation(USERNAME, MESSAGE_ID, STORAGE_INFORMATION))
+        when(storageInformationDAO.referenceStorageInformation(any(), any(), any(), any()))
             .thenReturn(Mono.error(new RuntimeException()));
 
         try {
@@ -106,7 +110,7 @@ public class CassandraDeletedMessageMetadataVaultTest implements DeletedMessageM
     }
 
     @Test
-    void listShouldReturnMessagesWhenUserPerBucketDAOFailed() {
+    void listShouldNotReturnMessagesWhenUserPerBucketDAOFailed() {
         when(userPerBucketDAO.addUser(BUCKET_NAME, USERNAME))
             .thenReturn(Mono.error(new RuntimeException()));
 
@@ -117,11 +121,11 @@ public class CassandraDeletedMessageMetadataVaultTest implements DeletedMessageM
         }
 
         Stream<DeletedMessageWithStorageInformation> messages = Flux.from(metadataVault().listMessages(BUCKET_NAME, USERNAME)).toStream();
-        assertThat(messages).contains(DELETED_MESSAGE);
+        assertThat(messages).isEmpty();
     }
 
     @Test
-    void retrieveStorageInformationShouldReturnMetadataWhenUserPerBucketDAOStoreFailed() {
+    void retrieveStorageInformationShouldNotReturnMetadataWhenUserPerBucketDAOStoreFailed() {
         when(userPerBucketDAO.addUser(BUCKET_NAME, USERNAME))
             .thenReturn(Mono.error(new RuntimeException()));
 
@@ -134,11 +138,9 @@ public class CassandraDeletedMessageMetadataVaultTest implements DeletedMessageM
         Optional<StorageInformation> maybeInfo = Mono.from(metadataVault().retrieveStorageInformation(DELETED_MESSAGE.getDeletedMessage().getOwner(),
             DELETED_MESSAGE.getDeletedMessage().getMessageId()))
             .blockOptional();
-        assertThat(maybeInfo).isPresent();
+        assertThat(maybeInfo).isEmpty();
     }
 
-    @Disabled("The bucket being not referenced, the entry will not be dropped. Note that this get corrected by next " +
-        "metadata referenced for this user")
     @Test
     void removingBucketShouldCleanUpInvalidStateForList() {
         when(userPerBucketDAO.addUser(BUCKET_NAME, USERNAME))
@@ -156,8 +158,6 @@ public class CassandraDeletedMessageMetadataVaultTest implements DeletedMessageM
         assertThat(messages).isEmpty();
     }
 
-    @Disabled("The bucket being not referenced, the entry will not be dropped. Note that this get corrected by next " +
-        "metadata referenced for this user")
     @Test
     void removingBucketShouldCleanUpInvalidStateForRetrievingMetadata() {
         when(userPerBucketDAO.addUser(BUCKET_NAME, USERNAME))
@@ -299,23 +299,49 @@ public class CassandraDeletedMessageMetadataVaultTest implements DeletedMessageM
         assertThat(messages).isEmpty();
     }
 
+
     @Test
-    void retentionShouldBeRetriableWhenStorageInformationDAOFails() {
+    void removeMetadataRelatedToBucketShouldNotDeleteMessagesOneByOne() {
         Mono.from(testee.store(DELETED_MESSAGE)).block();
+        Mono.from(testee.store(DELETED_MESSAGE_2)).block();
 
-        when(storageInformationDAO.deleteStorageInformation(USERNAME, MESSAGE_ID))
-            .thenReturn(Mono.error(new RuntimeException()));
+        Mono.from(testee.removeMetadataRelatedToBucket(BUCKET_NAME)).block();
 
-        try {
-            Mono.from(testee.removeMetadataRelatedToBucket(BUCKET_NAME)).block();
-        } catch (Exception e) {
-            // ignored
-        }
+        verify(metadataDAO, never()).deleteMessage(any(), any(), any());
+    }
+
+    @Test
+    void retrieveStorageInformationShouldNotScanBuckets() {
+        Mono.from(testee.store(DELETED_MESSAGE)).block();
+        Mono.from(testee.store(DELETED_MESSAGE_2_OTHER_BUCKET)).block();
+
+        Optional<StorageInformation> maybeInfo = Mono.from(metadataVault().retrieveStorageInformation(USERNAME, MESSAGE_ID))
+            .blockOptional();
+
+        assertThat(maybeInfo).contains(STORAGE_INFORMATION);
+        verify(userPerBucketDAO, never()).retrieveBuckets();
+    }
+
+    @Test
+    void retrieveStorageInformationShouldIgnoreReferencesToExpiredBuckets() {
+        Mono.from(testee.store(DELETED_MESSAGE)).block();
 
-        reset(storageInformationDAO);
         Mono.from(testee.removeMetadataRelatedToBucket(BUCKET_NAME)).block();
 
-        Stream<DeletedMessageWithStorageInformation> messages = Flux.from(metadataVault().listMessages(BUCKET_NAME, USERNAME)).toStream();
-        assertThat(messages).isEmpty();
+        Optional<StorageInformation> maybeInfo = Mono.from(metadataVault().retrieveStorageInformation(USERNAME, MESSAGE_ID))
+            .blockOptional();
+        assertThat(maybeInfo).isEmpty();
+    }
+
+    @Test
+    void retrieveStorageInformationShouldProbeBucketsWhenNoStorageInformationRow() {
+        Mono.from(testee.store(DELETED_MESSAGE_2_OTHER_BUCKET)).block();
+        Mono.from(testee.store(DELETED_MESSAGE)).block();
+
+        storageInformationDAO.deleteStorageInformation(USERNAME, MESSAGE_ID).block();
+
+        Optional<StorageInformation> maybeInfo = Mono.from(metadataVault().retrieveStorageInformation(USERNAME, MESSAGE_ID))
+            .blockOptional();
+        assertThat(maybeInfo).contains(STORAGE_INFORMATION);
     }
-}
\ No newline at end of file
+}
@@ -25,6 +25,8 @@ import static org.apache.james.vault.metadata.DeletedMessageMetadataModule.MODUL
 import static org.apache.james.vault.metadata.DeletedMessageVaultMetadataFixture.BUCKET_NAME;
 import static org.apache.james.vault.metadata.DeletedMessageVaultMetadataFixture.DELETED_MESSAGE;
 import static org.apache.james.vault.metadata.DeletedMessageVaultMetadataFixture.DELETED_MESSAGE_2;
+import static org.apache.james.vault.metadata.DeletedMessageVaultMetadataFixture.OTHER_BUCKET_NAME;
+import static org.apache.james.vault.metadata.DeletedMessageVaultMetadataFixture.STORAGE_INFORMATION;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.stream.Stream;
@@ -154,4 +156,26 @@ class MetadataDAOTest {
         Stream<DeletedMessageWithStorageInformation> messageIds = testee.retrieveMetadata(BUCKET_NAME, USERNAME).toStream();
         assertThat(messageIds).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void retrieveStorageInformationShouldReturnEmptyWhenNone() {
+        assertThat(testee.retrieveStorageInformation(BUCKET_NAME, USERNAME, MESSAGE_ID).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    void retrieveStorageInformationShouldReturnStoredStorageInformation() {
+        testee.store(DELETED_MESSAGE).block();
+
+        assertThat(testee.retrieveStorageInformation(BUCKET_NAME, USERNAME, MESSAGE_ID).blockOptional())
+            .contains(STORAGE_INFORMATION);
+    }
+
+    @Test
+    void retrieveStorageInformationShouldReturnEmptyWhenStoredInAnotherBucket() {
+        testee.store(DELETED_MESSAGE).block();
+
+        assertThat(testee.retrieveStorageInformation(OTHER_BUCKET_NAME, USERNAME, MESSAGE_ID).blockOptional())
+            .isEmpty();
+    }
+}
@@ -23,6 +23,7 @@ import static org.apache.james.vault.metadata.DeletedMessageMetadataModule.MODUL
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import org.apache.james.backends.cassandra.CassandraCluster;
@@ -46,6 +47,7 @@ class StorageInformationDAOTest {
     private static final BlobId BLOB_ID_2 = new HashBlobId.Factory().from("05dcb33b-8382-4744-923a-bc593ad84d24");
     private static final StorageInformation STORAGE_INFORMATION = StorageInformation.builder().bucketName(BUCKET_NAME).blobId(BLOB_ID);
     private static final StorageInformation STORAGE_INFORMATION_2 = StorageInformation.builder().bucketName(BUCKET_NAME_2).blobId(BLOB_ID_2);
+    private static final Duration TTL = Duration.ofDays(365);
 
     @RegisterExtension
     static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(MODULE);
@@ -66,7 +68,7 @@ class StorageInformationDAOTest {
 
     @Test
     void retrieveStorageInformationShouldReturnAddedValue() {
-        testee.referenceStorageInformation(OWNER, MESSAGE_ID, STORAGE_INFORMATION).block();
+        testee.referenceStorageInformation(OWNER, MESSAGE_ID, STORAGE_INFORMATION, TTL).block();
 
         Optional<StorageInformation> storageInformation = testee.retrieveStorageInformation(OWNER, MESSAGE_ID).blockOptional();
         assertThat(storageInformation).contains(STORAGE_INFORMATION);
@@ -74,9 +76,9 @@ class StorageInformationDAOTest {
 
     @Test
     void retrieveStorageInformationShouldReturnLatestAddedValue() {
-        testee.referenceStorageInformation(OWNER, MESSAGE_ID, STORAGE_INFORMATION).block();
+        testee.referenceStorageInformation(OWNER, MESSAGE_ID, STORAGE_INFORMATION, TTL).block();
 
-        testee.referenceStorageInformation(OWNER, MESSAGE_ID, STORAGE_INFORMATION_2).block();
+        testee.referenceStorageInformation(OWNER, MESSAGE_ID, STORAGE_INFORMATION_2, TTL).block();
 
         Optional<StorageInformation> storageInformation = testee.retrieveStorageInformation(OWNER, MESSAGE_ID).blockOptional();
         assertThat(storageInformation).contains(STORAGE_INFORMATION_2);
@@ -84,7 +86,7 @@ class StorageInformationDAOTest {
 
     @Test
     void retrieveStorageInformationShouldReturnEmptyWhenDeleted() {
-        testee.referenceStorageInformation(OWNER, MESSAGE_ID, STORAGE_INFORMATION).block();
+        testee.referenceStorageInformation(OWNER, MESSAGE_ID, STORAGE_INFORMATION, TTL).block();
 
         testee.deleteStorageInformation(OWNER, MESSAGE_ID).block();
 
@@ -95,11 +97,11 @@ class StorageInformationDAOTest {
 
     @Test
     void referenceStorageInformationShouldBeAllowedAfterADelete() {
-        testee.referenceStorageInformation(OWNER, MESSAGE_ID, STORAGE_INFORMATION).block();
+        testee.referenceStorageInformation(OWNER, MESSAGE_ID, STORAGE_INFORMATION, TTL).block();
 
         testee.deleteStorageInformation(OWNER, MESSAGE_ID).block();
 
-        testee.referenceStorageInformation(OWNER, MESSAGE_ID, STORAGE_INFORMATION).block();
+        testee.referenceStorageInformation(OWNER, MESSAGE_ID, STORAGE_INFORMATION, TTL).block();
 
         Optional<StorageInformation> storageInformation = testee.retrieveStorageInformation(OWNER, MESSAGE_ID).blockOptional();
         assertThat(storageInformation).contains(STORAGE_INFORMATION);
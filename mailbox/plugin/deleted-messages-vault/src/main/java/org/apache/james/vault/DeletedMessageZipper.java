@@ -43,6 +43,24 @@ public class DeletedMessageZipper {
         Optional<InputStream> load(DeletedMessage deletedMessage);
     }
 
+    public static class DeletedMessageWithContent {
+        private final DeletedMessage deletedMessage;
+        private final Optional<InputStream> content;
+
+        public DeletedMessageWithContent(DeletedMessage deletedMessage, Optional<InputStream> content) {
+            this.deletedMessage = deletedMessage;
+            this.content = content;
+        }
+
+        public DeletedMessage getDeletedMessage() {
+            return deletedMessage;
+        }
+
+        public Optional<InputStream> getContent() {
+            return content;
+        }
+    }
+
     @VisibleForTesting
     static final String EML_FILE_EXTENSION = ".eml";
 
@@ -52,9 +70,17 @@ public class DeletedMessageZipper {
     }
 
     public void zip(DeletedMessageContentLoader contentLoader, Stream<DeletedMessage> deletedMessages, OutputStream outputStream) throws IOException {
+        zip(deletedMessages.map(message -> new DeletedMessageWithContent(message, contentLoader.load(message))), outputStream);
+    }
+
+    /**
+     * Contents are consumed in the stream order, and each of them is copied to its zip entry without being buffered.
+     * This allows callers to load contents ahead of the zipping.
+     */
+    public void zip(Stream<DeletedMessageWithContent> deletedMessages, OutputStream outputStream) throws IOException {
         try (ZipArchiveOutputStream zipOutputStream = newZipArchiveOutputStream(outputStream)) {
-            ThrowingConsumer<DeletedMessage> putInZip =
-                message -> putMessageToEntry(zipOutputStream, message, contentLoader.load(message));
+            ThrowingConsumer<DeletedMessageWithContent> putInZip =
+                message -> putMessageToEntry(zipOutputStream, message.getDeletedMessage(), message.getContent());
 
             deletedMessages.forEach(Throwing.consumer(putInZip).sneakyThrow());
 
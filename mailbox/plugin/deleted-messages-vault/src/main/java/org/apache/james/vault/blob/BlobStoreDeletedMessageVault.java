@@ -25,6 +25,8 @@ import java.io.InputStream;
 import java.time.Clock;
 import java.time.ZonedDateTime;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import javax.inject.Inject;
 
@@ -33,6 +35,7 @@ import org.apache.james.blob.api.BucketName;
 import org.apache.james.blob.api.ObjectNotFoundException;
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.metrics.api.Metric;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.task.Task;
 import org.apache.james.vault.DeletedMessage;
@@ -63,6 +66,9 @@ public class BlobStoreDeletedMessageVault implements DeletedMessageVault {
     static final String SEARCH_METRIC_NAME = BLOBSTORE_DELETED_MESSAGE_VAULT_METRIC + "search";
     static final String DELETE_METRIC_NAME = BLOBSTORE_DELETED_MESSAGE_VAULT_METRIC + "delete";
     static final String DELETE_EXPIRED_MESSAGES_METRIC_NAME = BLOBSTORE_DELETED_MESSAGE_VAULT_METRIC + "deleteExpiredMessages";
+    static final String DELETE_EXPIRED_BUCKET_METRIC_NAME = BLOBSTORE_DELETED_MESSAGE_VAULT_METRIC + "deleteExpiredBucket";
+    static final String PURGED_BUCKETS_METRIC_NAME = BLOBSTORE_DELETED_MESSAGE_VAULT_METRIC + "purgedBuckets";
+    static final String BUCKETS_TO_PURGE_METRIC_NAME = BLOBSTORE_DELETED_MESSAGE_VAULT_METRIC + "bucketsToPurge";
 
     private final MetricFactory metricFactory;
     private final DeletedMessageMetadataVault messageMetadataVault;
@@ -167,11 +173,27 @@ public class BlobStoreDeletedMessageVault implements DeletedMessageVault {
 
 
     Flux<BucketName> deleteExpiredMessages(ZonedDateTime beginningOfRetentionPeriod) {
+        Metric purgedBuckets = metricFactory.generate(PURGED_BUCKETS_METRIC_NAME);
+        Metric bucketsToPurge = metricFactory.generate(BUCKETS_TO_PURGE_METRIC_NAME);
+        AtomicInteger remainingBuckets = new AtomicInteger();
+
         return metricFactory.runPublishingTimerMetric(
             DELETE_EXPIRED_MESSAGES_METRIC_NAME,
             retentionQualifiedBuckets(beginningOfRetentionPeriod)
-                .flatMap(bucketName -> deleteBucketData(bucketName).then(Mono.just(bucketName))));
-
+                .collectList()
+                .doOnNext(bucketNames -> {
+                    remainingBuckets.set(bucketNames.size());
+                    bucketsToPurge.add(bucketNames.size());
+                })
+                .flatMapIterable(Function.identity())
+                .flatMap(bucketName -> metricFactory.runPublishingTimerMetric(DELETE_EXPIRED_BUCKET_METRIC_NAME, deleteBucketData(bucketName))
+                    .then(Mono.just(bucketName)))
+                .doOnNext(bucketName -> {
+                    remainingBuckets.decrementAndGet();
+                    bucketsToPurge.decrement();
+                    purgedBuckets.increment();
+                })
+                .doFinally(signal -> bucketsToPurge.remove(remainingBuckets.getAndSet(0))));
     }
 
     ZonedDateTime getBeginningOfRetentionPeriod() {
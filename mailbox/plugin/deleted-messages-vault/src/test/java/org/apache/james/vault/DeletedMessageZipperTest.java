@@ -27,6 +27,7 @@ import static org.apache.james.vault.DeletedMessageFixture.DELETED_MESSAGE_2;
 import static org.apache.james.vault.DeletedMessageFixture.MESSAGE_ID;
 import static org.apache.james.vault.DeletedMessageFixture.MESSAGE_ID_2;
 import static org.apache.james.vault.DeletedMessageZipper.DeletedMessageContentLoader;
+import static org.apache.james.vault.DeletedMessageZipper.DeletedMessageWithContent;
 import static org.apache.james.vault.DeletedMessageZipper.EML_FILE_EXTENSION;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
@@ -94,6 +95,37 @@ class DeletedMessageZipperTest {
             }
         }
 
+        @Test
+        void zipShouldPutEntriesOfMessagesWithLoadedContent() throws Exception {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            zipper.zip(Stream.of(
+                    new DeletedMessageWithContent(DELETED_MESSAGE, Optional.of(new ByteArrayInputStream(CONTENT))),
+                    new DeletedMessageWithContent(DELETED_MESSAGE_2, Optional.of(new ByteArrayInputStream(CONTENT)))),
+                outputStream);
+
+            try (ZipAssert zipAssert = assertThatZip(outputStream)) {
+                zipAssert.containsOnlyEntriesMatching(
+                        hasName(MESSAGE_ID.serialize() + EML_FILE_EXTENSION).hasStringContent(MESSAGE_CONTENT),
+                        hasName(MESSAGE_ID_2.serialize() + EML_FILE_EXTENSION).hasStringContent(MESSAGE_CONTENT));
+            }
+        }
+
+        @Test
+        void zipShouldSkipMessagesWithoutContent() throws Exception {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            zipper.zip(Stream.of(
+                    new DeletedMessageWithContent(DELETED_MESSAGE, Optional.empty()),
+                    new DeletedMessageWithContent(DELETED_MESSAGE_2, Optional.of(new ByteArrayInputStream(CONTENT)))),
+                outputStream);
+
+            try (ZipAssert zipAssert = assertThatZip(outputStream)) {
+                zipAssert.containsOnlyEntriesMatching(
+                        hasName(MESSAGE_ID_2.serialize() + EML_FILE_EXTENSION).hasStringContent(MESSAGE_CONTENT));
+            }
+        }
+
         @Test
         void zipShouldPutExtraFields() throws Exception {
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
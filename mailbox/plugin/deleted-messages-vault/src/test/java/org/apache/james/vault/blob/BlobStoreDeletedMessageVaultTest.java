@@ -27,9 +27,12 @@ import static org.apache.james.vault.DeletedMessageFixture.NOW;
 import static org.apache.james.vault.DeletedMessageFixture.OLD_DELETED_MESSAGE;
 import static org.apache.james.vault.DeletedMessageFixture.USERNAME;
 import static org.apache.james.vault.blob.BlobStoreDeletedMessageVault.APPEND_METRIC_NAME;
+import static org.apache.james.vault.blob.BlobStoreDeletedMessageVault.BUCKETS_TO_PURGE_METRIC_NAME;
+import static org.apache.james.vault.blob.BlobStoreDeletedMessageVault.DELETE_EXPIRED_BUCKET_METRIC_NAME;
 import static org.apache.james.vault.blob.BlobStoreDeletedMessageVault.DELETE_METRIC_NAME;
 import static org.apache.james.vault.blob.BlobStoreDeletedMessageVault.LOAD_MIME_MESSAGE_METRIC_NAME;
 import static org.apache.james.vault.blob.BlobStoreDeletedMessageVault.DELETE_EXPIRED_MESSAGES_METRIC_NAME;
+import static org.apache.james.vault.blob.BlobStoreDeletedMessageVault.PURGED_BUCKETS_METRIC_NAME;
 import static org.apache.james.vault.blob.BlobStoreDeletedMessageVault.SEARCH_METRIC_NAME;
 import static org.apache.james.vault.search.Query.ALL;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -158,4 +161,20 @@ class BlobStoreDeletedMessageVaultTest implements DeletedMessageVaultContract, D
         assertThat(metricFactory.executionTimesFor(DELETE_EXPIRED_MESSAGES_METRIC_NAME))
             .hasSize(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteExpiredMessagesTaskShouldPublishPurgedBucketMetrics() throws Exception {
+        Mono.from(getVault().append(OLD_DELETED_MESSAGE, new ByteArrayInputStream(CONTENT))).block();
+        clock.setInstant(NOW.plusYears(2).toInstant());
+        Mono.from(getVault().append(DELETED_MESSAGE, new ByteArrayInputStream(CONTENT))).block();
+
+        getVault().deleteExpiredMessagesTask().run();
+
+        assertThat(metricFactory.executionTimesFor(DELETE_EXPIRED_BUCKET_METRIC_NAME))
+            .hasSize(1);
+        assertThat(metricFactory.countFor(PURGED_BUCKETS_METRIC_NAME))
+            .isEqualTo(1);
+        assertThat(metricFactory.countFor(BUCKETS_TO_PURGE_METRIC_NAME))
+            .isEqualTo(0);
+    }
+}
@@ -20,42 +20,35 @@ package org.apache.james.mailbox.spamassassin;
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 
 import javax.inject.Inject;
 
 import org.apache.james.core.Username;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.spamassassin.SpamAssassinInvoker;
-import org.apache.james.util.Host;
 
 import com.github.fge.lambdas.Throwing;
 
 public class SpamAssassin {
 
-    private final MetricFactory metricFactory;
-    private final SpamAssassinConfiguration spamAssassinConfiguration;
+    private final Optional<SpamAssassinInvoker> spamAssassinInvoker;
 
     @Inject
     public SpamAssassin(MetricFactory metricFactory, SpamAssassinConfiguration spamAssassinConfiguration) {
-        this.metricFactory = metricFactory;
-        this.spamAssassinConfiguration = spamAssassinConfiguration;
+        this.spamAssassinInvoker = Optional.of(spamAssassinConfiguration)
+            .filter(SpamAssassinConfiguration::isEnable)
+            .flatMap(SpamAssassinConfiguration::getHost)
+            .map(host -> new SpamAssassinInvoker(metricFactory, host.getHostName(), host.getPort()));
     }
 
     public void learnSpam(List<InputStream> messages, Username username) {
-        if (spamAssassinConfiguration.isEnable()) {
-            Host host = spamAssassinConfiguration.getHost().get();
-            SpamAssassinInvoker invoker = new SpamAssassinInvoker(metricFactory, host.getHostName(), host.getPort());
-            messages
-                .forEach(Throwing.consumer(message -> invoker.learnAsSpam(message, username)));
-        }
+        spamAssassinInvoker.ifPresent(invoker -> messages
+            .forEach(Throwing.consumer(message -> invoker.learnAsSpam(message, username))));
     }
 
     public void learnHam(List<InputStream> messages, Username username) {
-        if (spamAssassinConfiguration.isEnable()) {
-            Host host = spamAssassinConfiguration.getHost().get();
-            SpamAssassinInvoker invoker = new SpamAssassinInvoker(metricFactory, host.getHostName(), host.getPort());
-            messages
-                .forEach(Throwing.consumer(message -> invoker.learnAsHam(message, username)));
-        }
+        spamAssassinInvoker.ifPresent(invoker -> messages
+            .forEach(Throwing.consumer(message -> invoker.learnAsHam(message, username))));
     }
 }
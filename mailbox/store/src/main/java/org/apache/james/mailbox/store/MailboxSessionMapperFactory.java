@@ -23,6 +23,7 @@ import org.apache.james.mailbox.RequestAware;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.exception.SubscriptionException;
 import org.apache.james.mailbox.store.mail.AnnotationMapper;
+import org.apache.james.mailbox.store.mail.ExpungeTombstoneMapper;
 import org.apache.james.mailbox.store.mail.MailboxMapper;
 import org.apache.james.mailbox.store.mail.MailboxMapperFactory;
 import org.apache.james.mailbox.store.mail.MessageIdMapper;
@@ -45,6 +46,7 @@ public abstract class MailboxSessionMapperFactory implements RequestAware, Mailb
     protected static final String MAILBOXMAPPER = "MAILBOXMAPPER";
     protected static final String SUBSCRIPTIONMAPPER = "SUBSCRIPTIONMAPPER";
     protected static final String ANNOTATIONMAPPER = "ANNOTATIONMAPPER";
+    protected static final String EXPUNGETOMBSTONEMAPPER = "EXPUNGETOMBSTONEMAPPER";
     
     
     @Override
@@ -77,6 +79,24 @@ public abstract class MailboxSessionMapperFactory implements RequestAware, Mailb
 
     public abstract AnnotationMapper createAnnotationMapper(MailboxSession session) throws MailboxException;
 
+    public ExpungeTombstoneMapper getExpungeTombstoneMapper(MailboxSession session) throws MailboxException {
+        ExpungeTombstoneMapper mapper = (ExpungeTombstoneMapper) session.getAttributes().get(EXPUNGETOMBSTONEMAPPER);
+        if (mapper == null) {
+            mapper = createExpungeTombstoneMapper(session);
+            session.getAttributes().put(EXPUNGETOMBSTONEMAPPER, mapper);
+        }
+        return mapper;
+    }
+
+    /**
+     * Create the {@link ExpungeTombstoneMapper} which will get reused during the whole {@link MailboxSession}.
+     *
+     * Backends not storing expunge tombstones can rely on this default, leading QRESYNC to report every expunged uid.
+     */
+    public ExpungeTombstoneMapper createExpungeTombstoneMapper(MailboxSession session) throws MailboxException {
+        return ExpungeTombstoneMapper.NONE;
+    }
+
     /**
      * Create a {@link MessageMapper} instance which will get reused during the whole {@link MailboxSession}
      * 
@@ -42,6 +42,7 @@ import org.apache.james.mailbox.MailboxPathLocker.LockAwareExecution;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageManager;
 import org.apache.james.mailbox.MetadataWithMailboxId;
+import org.apache.james.mailbox.ModSeq;
 import org.apache.james.mailbox.SessionProvider;
 import org.apache.james.mailbox.events.EventBus;
 import org.apache.james.mailbox.events.MailboxIdRegistrationKey;
@@ -75,6 +76,7 @@ import org.apache.james.mailbox.model.search.PrefixedWildcard;
 import org.apache.james.mailbox.quota.QuotaManager;
 import org.apache.james.mailbox.quota.QuotaRootResolver;
 import org.apache.james.mailbox.store.event.EventFactory;
+import org.apache.james.mailbox.store.mail.ExpungeTombstoneMapper;
 import org.apache.james.mailbox.store.mail.MailboxMapper;
 import org.apache.james.mailbox.store.mail.MessageMapper;
 import org.apache.james.mailbox.store.mail.model.impl.MessageParser;
@@ -395,6 +397,7 @@ public class StoreMailboxManager implements MailboxManager {
                 } catch (MailboxExistsException e) {
                     LOGGER.info("{} mailbox was created concurrently", mailboxPath.asString());
                 }
+                mailboxIds.forEach(mailboxId -> startTrackingExpunges(mailboxId, mailboxSession));
             }
             return null;
 
@@ -403,6 +406,19 @@ public class StoreMailboxManager implements MailboxManager {
         return mailboxIds;
     }
 
+    /**
+     * New mailboxes know all their expunges. Mailboxes created before tombstones were stored start tracking them on
+     * their first expunge.
+     */
+    private void startTrackingExpunges(MailboxId mailboxId, MailboxSession mailboxSession) {
+        try {
+            ExpungeTombstoneMapper tombstoneMapper = mailboxSessionMapperFactory.getExpungeTombstoneMapper(mailboxSession);
+            tombstoneMapper.execute(Mapper.toTransaction(() -> tombstoneMapper.startTracking(mailboxId, ModSeq.first())));
+        } catch (Exception e) {
+            LOGGER.warn("Failed to start tracking the expunges of mailbox {}", mailboxId.serialize(), e);
+        }
+    }
+
     private void assertMailboxPathBelongToUser(MailboxSession mailboxSession, MailboxPath mailboxPath) throws MailboxException {
         if (!mailboxPath.belongsTo(mailboxSession)) {
             throw new InsufficientRightsException("mailboxPath '" + mailboxPath.asString() + "'"
@@ -461,6 +477,8 @@ public class StoreMailboxManager implements MailboxManager {
         // mailbox once we remove it
         Mailbox m = new Mailbox(mailbox);
         mailboxMapper.delete(mailbox);
+        ExpungeTombstoneMapper tombstoneMapper = mailboxSessionMapperFactory.getExpungeTombstoneMapper(session);
+        tombstoneMapper.execute(Mapper.toTransaction(() -> tombstoneMapper.delete(mailbox.getMailboxId())));
         eventBus.dispatch(EventFactory.mailboxDeleted()
             .randomEventId()
             .mailboxSession(session)
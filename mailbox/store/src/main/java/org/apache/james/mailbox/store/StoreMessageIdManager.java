@@ -19,6 +19,7 @@
 
 package org.apache.james.mailbox.store;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -26,6 +27,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.mail.Flags;
@@ -56,16 +58,19 @@ import org.apache.james.mailbox.model.UpdatedFlags;
 import org.apache.james.mailbox.quota.QuotaManager;
 import org.apache.james.mailbox.quota.QuotaRootResolver;
 import org.apache.james.mailbox.store.event.EventFactory;
+import org.apache.james.mailbox.store.mail.ExpungeTombstoneMapper;
 import org.apache.james.mailbox.store.mail.FetchGroupConverter;
 import org.apache.james.mailbox.store.mail.MailboxMapper;
 import org.apache.james.mailbox.store.mail.MessageIdMapper;
 import org.apache.james.mailbox.store.mail.MessageMapper;
+import org.apache.james.mailbox.store.mail.model.ExpungeTombstone;
 import org.apache.james.mailbox.store.mail.model.FlagsFactory;
 import org.apache.james.mailbox.store.mail.model.FlagsFilter;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.model.Message;
 import org.apache.james.mailbox.store.mail.model.impl.SimpleMailboxMessage;
 import org.apache.james.mailbox.store.quota.QuotaChecker;
+import org.apache.james.mailbox.store.transaction.Mapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -232,6 +237,7 @@ public class StoreMessageIdManager implements MessageIdManager {
                 .sneakyThrow())
             .then()
             .block();
+        recordExpungeTombstones(messageList, mailboxSession);
     }
 
     @Override
@@ -302,6 +308,10 @@ public class StoreMessageIdManager implements MessageIdManager {
                 .map(MailboxIdRegistrationKey::new)
                 .collect(Guavate.toImmutableSet()))
             .block();
+        recordExpungeTombstones(currentMailboxMessages.stream()
+                .filter(message -> messageMoves.removedMailboxIds().contains(message.getMailboxId()))
+                .collect(Guavate.toImmutableList()),
+            mailboxSession);
     }
 
     private void removeMessageFromMailboxes(MailboxMessage message, Set<MailboxId> mailboxesToRemove, MailboxSession mailboxSession) throws MailboxException {
@@ -322,6 +332,41 @@ public class StoreMessageIdManager implements MessageIdManager {
         }
     }
     
+    /**
+     * Gives expunges their own mod-sequence in each impacted mailbox, allowing QRESYNC clients to only be notified of
+     * the uids expunged since their last synchronisation.
+     *
+     * The expunges already happened: a failure here only stops tracking the impacted mailbox.
+     */
+    private void recordExpungeTombstones(List<MailboxMessage> expungedMessages, MailboxSession mailboxSession) throws MailboxException {
+        ExpungeTombstoneMapper tombstoneMapper = mailboxSessionMapperFactory.getExpungeTombstoneMapper(mailboxSession);
+        if (tombstoneMapper == ExpungeTombstoneMapper.NONE) {
+            return;
+        }
+        Map<MailboxId, List<MessageUid>> expungedUids = expungedMessages.stream()
+            .collect(Collectors.groupingBy(MailboxMessage::getMailboxId,
+                Collectors.mapping(MailboxMessage::getUid, Collectors.toList())));
+
+        for (Map.Entry<MailboxId, List<MessageUid>> entry : expungedUids.entrySet()) {
+            try {
+                ModSeq modSeq = mailboxSessionMapperFactory.getModSeqProvider().nextModSeq(entry.getKey());
+                ExpungeTombstone tombstone = ExpungeTombstone.of(modSeq, Instant.now(), entry.getValue());
+                tombstoneMapper.execute(Mapper.toTransaction(() -> tombstoneMapper.record(entry.getKey(), tombstone)));
+            } catch (Exception e) {
+                LOGGER.warn("Failed recording the expunge of {} in mailbox {}, stop tracking its expunges", entry.getValue(), entry.getKey().serialize(), e);
+                stopTrackingExpunges(tombstoneMapper, entry.getKey());
+            }
+        }
+    }
+
+    private void stopTrackingExpunges(ExpungeTombstoneMapper tombstoneMapper, MailboxId mailboxId) {
+        try {
+            tombstoneMapper.execute(Mapper.toTransaction(() -> tombstoneMapper.delete(mailboxId)));
+        } catch (Exception e) {
+            LOGGER.error("Failed to stop tracking the expunges of mailbox {}, QRESYNC might miss vanished uids", mailboxId.serialize(), e);
+        }
+    }
+
     private void dispatchFlagsChange(MailboxSession mailboxSession, MailboxId mailboxId, UpdatedFlags updatedFlags) throws MailboxException {
         if (updatedFlags.flagsChanged()) {
             Mailbox mailbox = mailboxSessionMapperFactory.getMailboxMapper(mailboxSession).findMailboxById(mailboxId);
@@ -28,12 +28,15 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.stream.Stream;
@@ -77,8 +80,10 @@ import org.apache.james.mailbox.model.UpdatedFlags;
 import org.apache.james.mailbox.quota.QuotaManager;
 import org.apache.james.mailbox.quota.QuotaRootResolver;
 import org.apache.james.mailbox.store.event.EventFactory;
+import org.apache.james.mailbox.store.mail.ExpungeTombstoneMapper;
 import org.apache.james.mailbox.store.mail.MessageMapper;
 import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.apache.james.mailbox.store.mail.model.ExpungeTombstone;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.model.impl.MessageParser;
 import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
@@ -86,6 +91,7 @@ import org.apache.james.mailbox.store.mail.model.impl.SimpleMailboxMessage;
 import org.apache.james.mailbox.store.quota.QuotaChecker;
 import org.apache.james.mailbox.store.search.MessageSearchIndex;
 import org.apache.james.mailbox.store.streaming.CountingInputStream;
+import org.apache.james.mailbox.store.transaction.Mapper;
 import org.apache.james.mime4j.MimeException;
 import org.apache.james.mime4j.message.DefaultBodyDescriptorBuilder;
 import org.apache.james.mime4j.message.HeaderImpl;
@@ -257,6 +263,7 @@ public class StoreMessageManager implements MessageManager {
         Map<MessageUid, MessageMetaData> deletedMessages = deleteMessages(uids, mailboxSession);
 
         dispatchExpungeEvent(mailboxSession, deletedMessages);
+        recordExpungeTombstone(deletedMessages.keySet(), mailboxSession);
         return deletedMessages.keySet().iterator();
     }
 
@@ -272,6 +279,52 @@ public class StoreMessageManager implements MessageManager {
         Map<MessageUid, MessageMetaData> deletedMessages = deleteMessages(messageUids, mailboxSession);
 
         dispatchExpungeEvent(mailboxSession, deletedMessages);
+        recordExpungeTombstone(deletedMessages.keySet(), mailboxSession);
+    }
+
+    /**
+     * Expunges are given their own mod-sequence, allowing QRESYNC clients to only be notified of the uids expunged
+     * since their last synchronisation.
+     *
+     * The expunge already happened: a failure here only stops tracking the mailbox, so that QRESYNC falls back to
+     * reporting every uid missing from the requested ranges.
+     */
+    private void recordExpungeTombstone(Collection<MessageUid> expungedUids, MailboxSession session) throws MailboxException {
+        if (expungedUids.isEmpty()) {
+            return;
+        }
+        ExpungeTombstoneMapper tombstoneMapper = mapperFactory.getExpungeTombstoneMapper(session);
+        if (tombstoneMapper == ExpungeTombstoneMapper.NONE) {
+            return;
+        }
+        MailboxId mailboxId = mailbox.getMailboxId();
+        try {
+            ModSeq modSeq = mapperFactory.getModSeqProvider().nextModSeq(mailbox);
+            ExpungeTombstone tombstone = ExpungeTombstone.of(modSeq, Instant.now(), expungedUids);
+            tombstoneMapper.execute(Mapper.toTransaction(() -> tombstoneMapper.record(mailboxId, tombstone)));
+        } catch (Exception e) {
+            LOG.warn("Failed recording the expunge of {} in mailbox {}, stop tracking its expunges", expungedUids, mailboxId.serialize(), e);
+            stopTrackingExpunges(tombstoneMapper, mailboxId);
+        }
+    }
+
+    private void stopTrackingExpunges(ExpungeTombstoneMapper tombstoneMapper, MailboxId mailboxId) {
+        try {
+            tombstoneMapper.execute(Mapper.toTransaction(() -> tombstoneMapper.delete(mailboxId)));
+        } catch (Exception e) {
+            LOG.error("Failed to stop tracking the expunges of mailbox {}, QRESYNC might miss vanished uids", mailboxId.serialize(), e);
+        }
+    }
+
+    @Override
+    public Optional<List<MessageRange>> getExpungedUidsSince(ModSeq modSeq, MailboxSession session) throws MailboxException {
+        ExpungeTombstoneMapper tombstoneMapper = mapperFactory.getExpungeTombstoneMapper(session);
+        MailboxId mailboxId = getMailboxEntity().getMailboxId();
+        Optional<List<ExpungeTombstone>> tombstones = tombstoneMapper.execute(() -> tombstoneMapper.expungedSince(mailboxId, modSeq));
+
+        return tombstones.map(list -> list.stream()
+            .flatMap(tombstone -> tombstone.getUids().stream())
+            .collect(Guavate.toImmutableList()));
     }
 
     private Map<MessageUid, MessageMetaData> deleteMessages(List<MessageUid> messageUids, MailboxSession session) throws MailboxException {
@@ -699,6 +752,15 @@ public class StoreMessageManager implements MessageManager {
         return new StoreMessageResultIterator(messageMapper, mailbox, set, batchSizes, fetchGroup);
     }
 
+    @Override
+    public Iterator<MessageMetaData> listMessagesMetadata(MessageRange set, Optional<ModSeq> changedSince, MailboxSession mailboxSession) throws MailboxException {
+        final MessageMapper messageMapper = mapperFactory.getMessageMapper(mailboxSession);
+        if (changedSince.isPresent()) {
+            return messageMapper.listMessagesMetadata(mailbox, set, changedSince.get());
+        }
+        return messageMapper.listMessagesMetadata(mailbox, set);
+    }
+
     /**
      * Return a List which holds all uids of recent messages and optional reset
      * the recent flag on the messages for the uids
@@ -820,6 +882,7 @@ public class StoreMessageManager implements MessageManager {
 
         MoveResult moveResult = to.move(originalRows, session);
         SortedMap<MessageUid, MessageMetaData> moveUids = collectMetadata(moveResult.getMovedMessages());
+        ImmutableList<MessageMetaData> originalMessages = ImmutableList.copyOf(moveResult.getOriginalMessages());
 
         ImmutableList.Builder<MessageId> messageIds = ImmutableList.builder();
         for (MailboxMessage message : originalRows.getEntriesSeen()) {
@@ -842,7 +905,7 @@ public class StoreMessageManager implements MessageManager {
                     .randomEventId()
                     .mailboxSession(session)
                     .mailbox(getMailboxEntity())
-                    .addMetaData(moveResult.getOriginalMessages())
+                    .addMetaData(originalMessages)
                     .build(),
                 new MailboxIdRegistrationKey(mailbox.getMailboxId())),
             eventBus.dispatch(EventFactory.moved()
@@ -852,6 +915,10 @@ public class StoreMessageManager implements MessageManager {
                     .build(),
                 messageMoves.impactedMailboxIds().map(MailboxIdRegistrationKey::new).collect(Guavate.toImmutableSet())))
             .blockLast();
+        recordExpungeTombstone(originalMessages.stream()
+                .map(MessageMetaData::getUid)
+                .collect(Guavate.toImmutableList()),
+            session);
 
         return moveUids;
     }
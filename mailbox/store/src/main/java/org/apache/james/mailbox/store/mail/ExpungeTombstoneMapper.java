@@ -0,0 +1,103 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.mail;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.store.mail.model.ExpungeTombstone;
+import org.apache.james.mailbox.store.transaction.Mapper;
+import org.apache.james.mailbox.store.transaction.NonTransactionalMapper;
+
+/**
+ * Keeps track of the uids expunged from mailboxes, along with the mod-sequence of their expunge.
+ *
+ * This allows answering QRESYNC and UID FETCH (VANISHED) requests with the uids expunged since the client last
+ * synchronisation, rather than every expunged uid. See RFC-7162 section 3.2.10.
+ *
+ * For each mailbox, implementations maintain a horizon: the highest mod-sequence up to which expunges might not be known,
+ * either because they happened before tracking started with the first recorded tombstone, or because their tombstone
+ * was forgotten after the retention period.
+ */
+public interface ExpungeTombstoneMapper extends Mapper {
+    Duration DEFAULT_RETENTION = Duration.ofDays(30);
+
+    /**
+     * Used by backends not storing tombstones: expunges are never known.
+     */
+    ExpungeTombstoneMapper NONE = new NoExpungeTombstoneMapper();
+
+    class NoExpungeTombstoneMapper extends NonTransactionalMapper implements ExpungeTombstoneMapper {
+        @Override
+        public void record(MailboxId mailboxId, ExpungeTombstone tombstone) {
+
+        }
+
+        @Override
+        public void startTracking(MailboxId mailboxId, ModSeq modSeq) {
+
+        }
+
+        @Override
+        public Optional<List<ExpungeTombstone>> expungedSince(MailboxId mailboxId, ModSeq modSeq) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void delete(MailboxId mailboxId) {
+
+        }
+
+        @Override
+        public void endRequest() {
+
+        }
+    }
+
+    /**
+     * Stores the given tombstone, and forgets the tombstones older than the retention period, raising the horizon to
+     * their mod-sequence.
+     *
+     * When the mailbox is not tracked yet, tracking starts right before the mod-sequence of this tombstone.
+     */
+    void record(MailboxId mailboxId, ExpungeTombstone tombstone) throws MailboxException;
+
+    /**
+     * Starts tracking the expunges with a mod-sequence higher than the given one. Does nothing if the mailbox is
+     * already tracked.
+     */
+    void startTracking(MailboxId mailboxId, ModSeq modSeq) throws MailboxException;
+
+    /**
+     * @return the tombstones with a mod-sequence strictly higher than the given one, ordered by mod-sequence, or
+     * empty when some expunges with such a mod-sequence might not be known: the given mod-sequence is lower than
+     * the horizon, or the mailbox is not tracked.
+     */
+    Optional<List<ExpungeTombstone>> expungedSince(MailboxId mailboxId, ModSeq modSeq) throws MailboxException;
+
+    /**
+     * Forgets all the tombstones of a mailbox, and stops tracking it.
+     */
+    void delete(MailboxId mailboxId) throws MailboxException;
+}
@@ -39,6 +39,8 @@ import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.model.Property;
 import org.apache.james.mailbox.store.transaction.Mapper;
 
+import com.google.common.collect.Iterators;
+
 /**
  * Maps {@link MailboxMessage} in a {@link org.apache.james.mailbox.MessageManager}. A {@link MessageMapper} has a lifecycle from the start of a request
  * to the end of the request.
@@ -152,6 +154,24 @@ public interface MessageMapper extends Mapper {
      */
     Iterator<MessageUid> listAllMessageUids(Mailbox mailbox) throws MailboxException;
 
+    /**
+     * Return the {@link MessageMetaData} of the messages of the given {@link Mailbox} in the given range, ordered by uid.
+     *
+     * Implementations maintaining a dedicated metadata projection can serve this without loading the messages.
+     */
+    default Iterator<MessageMetaData> listMessagesMetadata(Mailbox mailbox, MessageRange set) throws MailboxException {
+        return Iterators.transform(findInMailbox(mailbox, set, FetchType.Metadata, -1), MailboxMessage::metaData);
+    }
+
+    /**
+     * Same as {@link #listMessagesMetadata(Mailbox, MessageRange)} but only returns the messages whose mod-sequence
+     * is strictly higher than changedSince, as a CONDSTORE CHANGEDSINCE modifier expects.
+     */
+    default Iterator<MessageMetaData> listMessagesMetadata(Mailbox mailbox, MessageRange set, ModSeq changedSince) throws MailboxException {
+        return Iterators.filter(listMessagesMetadata(mailbox, set),
+            metaData -> metaData.getModSeq().compareTo(changedSince) > 0);
+    }
+
     /**
      * Specify what data needs to get filled in a {@link MailboxMessage} before returning it
      * 
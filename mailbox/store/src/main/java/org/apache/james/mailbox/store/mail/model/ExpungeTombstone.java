@@ -0,0 +1,131 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.mail.model;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.model.MessageRange;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Records the uids expunged from a mailbox by a single operation, and the mod-sequence allocated to this operation.
+ *
+ * Uids are held as ranges, and serialized as an IMAP sequence-set (for instance <code>1:5,8</code>) by the backends.
+ */
+public class ExpungeTombstone {
+    private static final String RANGE_SEPARATOR = ",";
+    private static final String BOUND_SEPARATOR = ":";
+
+    public static ExpungeTombstone of(ModSeq modSeq, Instant expungedAt, Collection<MessageUid> uids) {
+        return new ExpungeTombstone(modSeq, expungedAt, MessageRange.toRanges(ImmutableList.copyOf(uids)));
+    }
+
+    public static ExpungeTombstone deserialize(ModSeq modSeq, Instant expungedAt, String serializedUids) {
+        return new ExpungeTombstone(modSeq, expungedAt, Splitter.on(RANGE_SEPARATOR)
+            .omitEmptyStrings()
+            .trimResults()
+            .splitToList(serializedUids)
+            .stream()
+            .map(ExpungeTombstone::parseRange)
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private static MessageRange parseRange(String range) {
+        List<String> bounds = Splitter.on(BOUND_SEPARATOR).splitToList(range);
+        Preconditions.checkArgument(bounds.size() <= 2, "Invalid uid range %s", range);
+        MessageUid from = MessageUid.of(Long.parseLong(bounds.get(0)));
+        if (bounds.size() == 1) {
+            return MessageRange.one(from);
+        }
+        return MessageRange.range(from, MessageUid.of(Long.parseLong(bounds.get(1))));
+    }
+
+    private final ModSeq modSeq;
+    private final Instant expungedAt;
+    private final List<MessageRange> uids;
+
+    private ExpungeTombstone(ModSeq modSeq, Instant expungedAt, List<MessageRange> uids) {
+        this.modSeq = modSeq;
+        this.expungedAt = expungedAt;
+        this.uids = uids;
+    }
+
+    public ModSeq getModSeq() {
+        return modSeq;
+    }
+
+    public Instant getExpungedAt() {
+        return expungedAt;
+    }
+
+    public List<MessageRange> getUids() {
+        return uids;
+    }
+
+    public String serializeUids() {
+        return uids.stream()
+            .map(this::serializeRange)
+            .collect(Collectors.joining(RANGE_SEPARATOR));
+    }
+
+    private String serializeRange(MessageRange range) {
+        if (range.getUidFrom().equals(range.getUidTo())) {
+            return String.valueOf(range.getUidFrom().asLong());
+        }
+        return range.getUidFrom().asLong() + BOUND_SEPARATOR + range.getUidTo().asLong();
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof ExpungeTombstone) {
+            ExpungeTombstone that = (ExpungeTombstone) o;
+
+            return Objects.equals(this.modSeq, that.modSeq)
+                && Objects.equals(this.expungedAt, that.expungedAt)
+                && Objects.equals(this.uids, that.uids);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(modSeq, expungedAt, uids);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("modSeq", modSeq)
+            .add("expungedAt", expungedAt)
+            .add("uids", serializeUids())
+            .toString();
+    }
+}
@@ -0,0 +1,292 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.store.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+
+import org.apache.james.mailbox.MailboxManager.MessageCapabilities;
+import org.apache.james.mailbox.MailboxManager.SearchCapabilities;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.SessionProvider;
+import org.apache.james.mailbox.events.Group;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.extractor.TextExtractor;
+import org.apache.james.mailbox.model.Mailbox;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.UpdatedFlags;
+import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
+import org.apache.james.mailbox.store.mail.MailboxMapper;
+import org.apache.james.mailbox.store.mail.MessageMapper;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * {@link ListeningMessageSearchIndex} keeping, for each searched mailbox, a columnar in memory cache of the searchable
+ * fields of its messages: uids, flags, dates, sizes, and normalised address and subject headers.
+ *
+ * Mailboxes are loaded on their first search, then maintained through mailbox events. Loading happens without holding
+ * any lock: updates received meanwhile are recorded, then replayed on the loaded columns before they get published. As
+ * each update is idempotent, updates already taken into account by the loading can safely be applied again.
+ *
+ * Criteria supported by the cache are evaluated without reading messages. When the query holds other criteria (text
+ * search for instance) or requests a sort other than by uid, only the messages matching the cached criteria are read from
+ * the {@link MessageMapper} and matched using {@link MessageSearches}, as {@link SimpleMessageSearchIndex} would do.
+ *
+ * This is an optional replacement for {@link SimpleMessageSearchIndex} for deployments lacking a search engine.
+ */
+public class ColumnarMessageSearchIndex extends ListeningMessageSearchIndex {
+    public static class ColumnarMessageSearchIndexGroup extends Group {
+
+    }
+
+    /**
+     * Columns of a mailbox being loaded, along with the updates received meanwhile.
+     */
+    private static class Loading {
+        private final CompletableFuture<MailboxSearchColumns> loaded = new CompletableFuture<>();
+        private final List<Consumer<MailboxSearchColumns>> pendingUpdates = new ArrayList<>();
+        private boolean published = false;
+        private boolean discarded = false;
+
+        synchronized boolean record(Consumer<MailboxSearchColumns> update) {
+            if (published) {
+                return false;
+            }
+            pendingUpdates.add(update);
+            return true;
+        }
+
+        synchronized void discard() {
+            discarded = true;
+        }
+
+        synchronized void publish(MailboxSearchColumns mailboxColumns, Consumer<MailboxSearchColumns> publisher) {
+            pendingUpdates.forEach(update -> update.accept(mailboxColumns));
+            pendingUpdates.clear();
+            if (!discarded) {
+                publisher.accept(mailboxColumns);
+            }
+            published = true;
+            loaded.complete(mailboxColumns);
+        }
+
+        synchronized void fail(Exception e) {
+            published = true;
+            loaded.completeExceptionally(e);
+        }
+
+        MailboxSearchColumns await() throws MailboxException {
+            try {
+                return loaded.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof MailboxException) {
+                    throw (MailboxException) e.getCause();
+                }
+                throw new MailboxException("Unable to load search columns", e.getCause());
+            }
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ColumnarMessageSearchIndex.class);
+    private static final Group GROUP = new ColumnarMessageSearchIndexGroup();
+    private static final List<SearchQuery.Sort> UID_SORT = ImmutableList.of(new SearchQuery.Sort(SearchQuery.Sort.SortClause.Uid));
+
+    private final MailboxSessionMapperFactory factory;
+    private final TextExtractor textExtractor;
+    private final ConcurrentHashMap<MailboxId, MailboxSearchColumns> columns;
+    private final ConcurrentHashMap<MailboxId, Loading> loadings;
+
+    @Inject
+    public ColumnarMessageSearchIndex(MailboxSessionMapperFactory factory, SessionProvider sessionProvider, TextExtractor textExtractor) {
+        super(factory, sessionProvider);
+        this.factory = factory;
+        this.textExtractor = textExtractor;
+        this.columns = new ConcurrentHashMap<>();
+        this.loadings = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Group getDefaultGroup() {
+        return GROUP;
+    }
+
+    @Override
+    public EnumSet<SearchCapabilities> getSupportedCapabilities(EnumSet<MessageCapabilities> messageCapabilities) {
+        return EnumSet.of(SearchCapabilities.MultimailboxSearch,
+            SearchCapabilities.Text,
+            SearchCapabilities.Attachment,
+            SearchCapabilities.PartialEmailMatch,
+            SearchCapabilities.AttachmentFileName);
+    }
+
+    @Override
+    public void add(MailboxSession session, Mailbox mailbox, MailboxMessage message) throws Exception {
+        MailboxSearchColumns.Row row = MailboxSearchColumns.Row.from(message);
+        apply(mailbox.getMailboxId(), mailboxColumns -> mailboxColumns.upsert(row));
+    }
+
+    @Override
+    public void delete(MailboxSession session, Mailbox mailbox, Collection<MessageUid> expungedUids) {
+        apply(mailbox.getMailboxId(), mailboxColumns -> mailboxColumns.remove(expungedUids));
+    }
+
+    @Override
+    public void deleteAll(MailboxSession session, MailboxId mailboxId) {
+        Optional.ofNullable(loadings.get(mailboxId)).ifPresent(Loading::discard);
+        columns.remove(mailboxId);
+    }
+
+    @Override
+    public void update(MailboxSession session, Mailbox mailbox, List<UpdatedFlags> updatedFlagsList) {
+        apply(mailbox.getMailboxId(), mailboxColumns -> updatedFlagsList.forEach(updatedFlags -> mailboxColumns.updateFlags(updatedFlags.getUid(),
+            updatedFlags.getNewFlags(),
+            updatedFlags.getModSeq())));
+    }
+
+    private void apply(MailboxId mailboxId, Consumer<MailboxSearchColumns> update) {
+        Loading loading = loadings.get(mailboxId);
+        if (loading != null && loading.record(update)) {
+            return;
+        }
+        MailboxSearchColumns mailboxColumns = columns.get(mailboxId);
+        if (mailboxColumns != null) {
+            update.accept(mailboxColumns);
+        }
+    }
+
+    @Override
+    public Stream<MessageUid> search(MailboxSession session, Mailbox mailbox, SearchQuery searchQuery) throws MailboxException {
+        Preconditions.checkArgument(session != null, "'session' is mandatory");
+        return searchResults(session, mailbox, searchQuery)
+            .map(SearchResult::getMessageUid);
+    }
+
+    @Override
+    public List<MessageId> search(MailboxSession session, Collection<MailboxId> mailboxIds, SearchQuery searchQuery, long limit) throws MailboxException {
+        MailboxMapper mailboxMapper = factory.getMailboxMapper(session);
+
+        return mailboxIds.stream()
+            .map(Throwing.function(mailboxMapper::findMailboxById).sneakyThrow())
+            .flatMap(Throwing.function((Mailbox mailbox) -> searchResults(session, mailbox, searchQuery)).sneakyThrow())
+            .map(searchResult -> searchResult.getMessageId().get())
+            .filter(SearchUtil.distinct())
+            .limit(limit)
+            .collect(Guavate.toImmutableList());
+    }
+
+    private Stream<SearchResult> searchResults(MailboxSession session, Mailbox mailbox, SearchQuery searchQuery) throws MailboxException {
+        MailboxSearchColumns mailboxColumns = loadedColumns(session, mailbox);
+
+        ImmutableList<SearchQuery.Criterion> cachedCriteria = searchQuery.getCriterias()
+            .stream()
+            .filter(MailboxSearchColumns::supports)
+            .collect(Guavate.toImmutableList());
+        boolean fullyCached = cachedCriteria.size() == searchQuery.getCriterias().size();
+        MailboxSearchColumns.Matches matches = mailboxColumns.matching(cachedCriteria, searchQuery.getRecentMessageUids());
+
+        if (fullyCached && searchQuery.getSorts().equals(UID_SORT)) {
+            return IntStream.range(0, matches.size())
+                .mapToObj(index -> new SearchResult(Optional.ofNullable(matches.messageId(index)), mailbox.getMailboxId(), matches.uid(index)));
+        }
+        return searchInMessages(session, mailbox, searchQuery, matches);
+    }
+
+    private Stream<SearchResult> searchInMessages(MailboxSession session, Mailbox mailbox, SearchQuery searchQuery, MailboxSearchColumns.Matches matches) throws MailboxException {
+        if (matches.size() == 0) {
+            return Stream.empty();
+        }
+        MessageMapper mapper = factory.getMessageMapper(session);
+        List<MessageUid> candidates = IntStream.range(0, matches.size())
+            .mapToObj(matches::uid)
+            .collect(Guavate.toImmutableList());
+
+        ImmutableList.Builder<MailboxMessage> messages = ImmutableList.builder();
+        for (MessageRange range : MessageRange.toRanges(candidates)) {
+            messages.addAll(mapper.findInMailbox(mailbox, range, FetchType.Full, UNLIMITED));
+        }
+        return ImmutableList.copyOf(new MessageSearches(messages.build().iterator(), searchQuery, textExtractor))
+            .stream();
+    }
+
+    private MailboxSearchColumns loadedColumns(MailboxSession session, Mailbox mailbox) throws MailboxException {
+        MailboxId mailboxId = mailbox.getMailboxId();
+        MailboxSearchColumns mailboxColumns = columns.get(mailboxId);
+        if (mailboxColumns != null) {
+            return mailboxColumns;
+        }
+
+        Loading loading = new Loading();
+        Loading concurrentLoading = loadings.putIfAbsent(mailboxId, loading);
+        if (concurrentLoading != null) {
+            return concurrentLoading.await();
+        }
+        try {
+            MailboxSearchColumns loadedColumns = new MailboxSearchColumns();
+            load(session, mailbox, loadedColumns);
+            loading.publish(loadedColumns, published -> columns.put(mailboxId, published));
+            return loadedColumns;
+        } catch (MailboxException e) {
+            loading.fail(e);
+            throw e;
+        } catch (Exception e) {
+            MailboxException mailboxException = new MailboxException("Unable to load search columns of mailbox " + mailboxId.serialize(), e);
+            loading.fail(mailboxException);
+            throw mailboxException;
+        } finally {
+            loadings.remove(mailboxId, loading);
+        }
+    }
+
+    private void load(MailboxSession session, Mailbox mailbox, MailboxSearchColumns mailboxColumns) throws MailboxException {
+        Iterator<MailboxMessage> messages = factory.getMessageMapper(session)
+            .findInMailbox(mailbox, MessageRange.all(), FetchType.Full, UNLIMITED);
+        while (messages.hasNext()) {
+            MailboxMessage message = messages.next();
+            try {
+                mailboxColumns.upsert(MailboxSearchColumns.Row.from(message));
+            } catch (Exception e) {
+                LOGGER.error("Unable to cache message {} in mailbox {}", message.getUid(), mailbox.getName(), e);
+            }
+        }
+    }
+}
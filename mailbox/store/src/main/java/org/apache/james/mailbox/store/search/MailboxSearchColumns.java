@@ -0,0 +1,727 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.store.search;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import javax.mail.Flags;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.model.Header;
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.SearchQuery.UidRange;
+import org.apache.james.mailbox.store.ResultUtils;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.mime4j.dom.address.Address;
+import org.apache.james.mime4j.dom.address.AddressList;
+import org.apache.james.mime4j.dom.address.Group;
+import org.apache.james.mime4j.dom.address.Mailbox;
+import org.apache.james.mime4j.field.address.AddressFormatter;
+import org.apache.james.mime4j.field.address.LenientAddressParser;
+import org.apache.james.mime4j.field.datetime.parser.ParseException;
+import org.apache.james.mime4j.util.MimeUtil;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Column oriented, in memory copy of the searchable fields of the messages of a single mailbox.
+ *
+ * Rows are kept sorted by uid. Every field is stored in its own array so that a {@link SearchQuery.Criterion} is
+ * evaluated as a scan over a single column, yielding a {@link BitSet} of the matching rows.
+ *
+ * Header values are stored upper-cased and unscrambled, so that matching them does not require parsing the message again.
+ *
+ * Instances are thread safe.
+ */
+class MailboxSearchColumns {
+
+    enum CachedHeader {
+        SUBJECT("Subject", false),
+        FROM("From", true),
+        TO("To", true),
+        CC("Cc", true),
+        BCC("Bcc", true),
+        MESSAGE_ID("Message-ID", false);
+
+        static Optional<CachedHeader> forName(String headerName) {
+            return Arrays.stream(values())
+                .filter(header -> header.headerName.equalsIgnoreCase(headerName))
+                .findFirst();
+        }
+
+        private final String headerName;
+        private final boolean addressHeader;
+
+        CachedHeader(String headerName, boolean addressHeader) {
+            this.headerName = headerName;
+            this.addressHeader = addressHeader;
+        }
+    }
+
+    /**
+     * Searchable fields of a single message, as extracted from a {@link MailboxMessage}.
+     */
+    static class Row {
+        static Row from(MailboxMessage message) throws IOException {
+            List<Header> headers = ResultUtils.createHeaders(message);
+            String[] headerValues = new String[CachedHeader.values().length];
+            String[] addressValues = new String[CachedHeader.values().length];
+            for (CachedHeader cachedHeader : CachedHeader.values()) {
+                headerValues[cachedHeader.ordinal()] = containsValue(cachedHeader, headers);
+                if (cachedHeader.addressHeader) {
+                    addressValues[cachedHeader.ordinal()] = addressValue(cachedHeader, headers);
+                }
+            }
+            boolean hasAttachment = message.getProperties()
+                .stream()
+                .anyMatch(PropertyBuilder.isHasAttachmentProperty());
+
+            return new Row(message.getUid(),
+                message.getMessageId(),
+                message.getModSeq(),
+                message.getInternalDate().getTime(),
+                message.getFullContentOctets(),
+                sentDate(headers),
+                message.createFlags(),
+                hasAttachment,
+                headerValues,
+                addressValues);
+        }
+
+        private static String containsValue(CachedHeader cachedHeader, List<Header> headers) {
+            List<String> values = headers.stream()
+                .filter(header -> cachedHeader.headerName.equalsIgnoreCase(header.getName()))
+                .map(header -> Optional.ofNullable(MimeUtil.unscrambleHeaderValue(header.getValue())).orElse(""))
+                .map(value -> value.toUpperCase(Locale.US))
+                .collect(Collectors.toList());
+            if (values.isEmpty()) {
+                return null;
+            }
+            return String.join(SEPARATOR, values);
+        }
+
+        private static String addressValue(CachedHeader cachedHeader, List<Header> headers) {
+            return headers.stream()
+                .filter(header -> cachedHeader.headerName.equalsIgnoreCase(header.getName()))
+                .findFirst()
+                .map(header -> encodedMailboxes(header.getValue()) + SEPARATOR + header.getValue().toUpperCase(Locale.US))
+                .orElse(null);
+        }
+
+        private static String encodedMailboxes(String value) {
+            AddressList addressList = LenientAddressParser.DEFAULT.parseAddressList(value);
+            StringBuilder result = new StringBuilder();
+            for (Address address : addressList) {
+                if (address instanceof Mailbox) {
+                    appendMailbox(result, (Mailbox) address);
+                } else if (address instanceof Group) {
+                    for (Mailbox mailbox : ((Group) address).getMailboxes()) {
+                        appendMailbox(result, mailbox);
+                    }
+                }
+            }
+            return result.toString();
+        }
+
+        private static void appendMailbox(StringBuilder result, Mailbox mailbox) {
+            result.append(MimeUtil.unscrambleHeaderValue(AddressFormatter.DEFAULT.encode(mailbox)).toUpperCase(Locale.US))
+                .append(SEPARATOR);
+        }
+
+        private static long sentDate(List<Header> headers) {
+            return headers.stream()
+                .filter(header -> "Date".equalsIgnoreCase(header.getName()))
+                .findFirst()
+                .map(header -> MimeUtil.unscrambleHeaderValue(header.getValue()))
+                .map(Row::parseSentDate)
+                .orElse(NO_DATE);
+        }
+
+        private static long parseSentDate(String value) {
+            try {
+                return MessageSearches.toISODate(value).getTime();
+            } catch (ParseException e) {
+                return NO_DATE;
+            }
+        }
+
+        private final MessageUid uid;
+        private final MessageId messageId;
+        private final ModSeq modSeq;
+        private final long internalDate;
+        private final long size;
+        private final long sentDate;
+        private final Flags flags;
+        private final boolean hasAttachment;
+        private final String[] headerValues;
+        private final String[] addressValues;
+
+        @VisibleForTesting
+        Row(MessageUid uid, MessageId messageId, ModSeq modSeq, long internalDate, long size, long sentDate, Flags flags,
+            boolean hasAttachment, String[] headerValues, String[] addressValues) {
+            this.uid = uid;
+            this.messageId = messageId;
+            this.modSeq = modSeq;
+            this.internalDate = internalDate;
+            this.size = size;
+            this.sentDate = sentDate;
+            this.flags = flags;
+            this.hasAttachment = hasAttachment;
+            this.headerValues = headerValues;
+            this.addressValues = addressValues;
+        }
+    }
+
+    /**
+     * Uids of the matching rows, in ascending order, along with their {@link MessageId}.
+     */
+    static class Matches {
+        private final long[] uids;
+        private final MessageId[] messageIds;
+
+        private Matches(long[] uids, MessageId[] messageIds) {
+            this.uids = uids;
+            this.messageIds = messageIds;
+        }
+
+        int size() {
+            return uids.length;
+        }
+
+        MessageUid uid(int index) {
+            return MessageUid.of(uids[index]);
+        }
+
+        MessageId messageId(int index) {
+            return messageIds[index];
+        }
+    }
+
+    static final long NO_DATE = Long.MIN_VALUE;
+    private static final String SEPARATOR = "\u0000";
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int ANSWERED = 1;
+    private static final int DELETED = 1 << 1;
+    private static final int DRAFT = 1 << 2;
+    private static final int FLAGGED = 1 << 3;
+    private static final int SEEN = 1 << 4;
+    private static final int HAS_ATTACHMENT = 1 << 5;
+    private static final String[] NO_USER_FLAGS = new String[0];
+
+    /**
+     * @return true if the given criterion can be evaluated against the columns only
+     */
+    static boolean supports(SearchQuery.Criterion criterion) {
+        if (criterion instanceof SearchQuery.ConjunctionCriterion) {
+            return ((SearchQuery.ConjunctionCriterion) criterion).getCriteria()
+                .stream()
+                .allMatch(MailboxSearchColumns::supports);
+        }
+        if (criterion instanceof SearchQuery.HeaderCriterion) {
+            return supports((SearchQuery.HeaderCriterion) criterion);
+        }
+        if (criterion instanceof SearchQuery.FlagCriterion) {
+            return systemFlagMask(((SearchQuery.FlagCriterion) criterion).getFlag()) != 0
+                || ((SearchQuery.FlagCriterion) criterion).getFlag() == Flags.Flag.RECENT;
+        }
+        return criterion instanceof SearchQuery.AllCriterion
+            || criterion instanceof SearchQuery.UidCriterion
+            || criterion instanceof SearchQuery.CustomFlagCriterion
+            || criterion instanceof SearchQuery.InternalDateCriterion
+            || criterion instanceof SearchQuery.SizeCriterion
+            || criterion instanceof SearchQuery.ModSeqCriterion
+            || criterion instanceof SearchQuery.AttachmentCriterion
+            || criterion instanceof SearchQuery.MimeMessageIDCriterion;
+    }
+
+    private static boolean supports(SearchQuery.HeaderCriterion criterion) {
+        SearchQuery.HeaderOperator operator = criterion.getOperator();
+        if (operator instanceof SearchQuery.DateOperator) {
+            return "Date".equalsIgnoreCase(criterion.getHeaderName());
+        }
+        Optional<CachedHeader> cachedHeader = CachedHeader.forName(criterion.getHeaderName());
+        if (operator instanceof SearchQuery.AddressOperator) {
+            return cachedHeader.map(header -> header.addressHeader).orElse(false);
+        }
+        return cachedHeader.isPresent()
+            && (operator instanceof SearchQuery.ContainsOperator || operator instanceof SearchQuery.ExistsOperator);
+    }
+
+    private static int systemFlagMask(Flags.Flag flag) {
+        if (flag == Flags.Flag.ANSWERED) {
+            return ANSWERED;
+        } else if (flag == Flags.Flag.DELETED) {
+            return DELETED;
+        } else if (flag == Flags.Flag.DRAFT) {
+            return DRAFT;
+        } else if (flag == Flags.Flag.FLAGGED) {
+            return FLAGGED;
+        } else if (flag == Flags.Flag.SEEN) {
+            return SEEN;
+        }
+        return 0;
+    }
+
+    private static int systemFlags(Flags flags) {
+        int result = 0;
+        for (Flags.Flag flag : flags.getSystemFlags()) {
+            result |= systemFlagMask(flag);
+        }
+        return result;
+    }
+
+    private static String[] userFlags(Flags flags) {
+        String[] userFlags = flags.getUserFlags();
+        if (userFlags.length == 0) {
+            return NO_USER_FLAGS;
+        }
+        return userFlags;
+    }
+
+    private int size;
+    private long[] uids;
+    private MessageId[] messageIds;
+    private long[] modSeqs;
+    private long[] internalDates;
+    private long[] sizes;
+    private long[] sentDates;
+    private int[] flags;
+    private String[][] userFlags;
+    private String[][] headerValues;
+    private String[][] addressValues;
+
+    MailboxSearchColumns() {
+        this.size = 0;
+        this.uids = new long[INITIAL_CAPACITY];
+        this.messageIds = new MessageId[INITIAL_CAPACITY];
+        this.modSeqs = new long[INITIAL_CAPACITY];
+        this.internalDates = new long[INITIAL_CAPACITY];
+        this.sizes = new long[INITIAL_CAPACITY];
+        this.sentDates = new long[INITIAL_CAPACITY];
+        this.flags = new int[INITIAL_CAPACITY];
+        this.userFlags = new String[INITIAL_CAPACITY][];
+        this.headerValues = new String[CachedHeader.values().length][INITIAL_CAPACITY];
+        this.addressValues = new String[CachedHeader.values().length][INITIAL_CAPACITY];
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized void upsert(Row row) {
+        int index = indexOf(row.uid.asLong());
+        if (index < 0) {
+            index = -(index + 1);
+            insertAt(index);
+        }
+        uids[index] = row.uid.asLong();
+        messageIds[index] = row.messageId;
+        modSeqs[index] = row.modSeq.asLong();
+        internalDates[index] = row.internalDate;
+        sizes[index] = row.size;
+        sentDates[index] = row.sentDate;
+        flags[index] = systemFlags(row.flags) | (row.hasAttachment ? HAS_ATTACHMENT : 0);
+        userFlags[index] = userFlags(row.flags);
+        for (CachedHeader cachedHeader : CachedHeader.values()) {
+            headerValues[cachedHeader.ordinal()][index] = row.headerValues[cachedHeader.ordinal()];
+            addressValues[cachedHeader.ordinal()][index] = row.addressValues[cachedHeader.ordinal()];
+        }
+    }
+
+    synchronized void updateFlags(MessageUid uid, Flags newFlags, ModSeq modSeq) {
+        int index = indexOf(uid.asLong());
+        if (index >= 0) {
+            flags[index] = systemFlags(newFlags) | (flags[index] & HAS_ATTACHMENT);
+            userFlags[index] = userFlags(newFlags);
+            modSeqs[index] = modSeq.asLong();
+        }
+    }
+
+    synchronized void remove(Collection<MessageUid> expungedUids) {
+        long[] sortedUids = expungedUids.stream()
+            .mapToLong(MessageUid::asLong)
+            .sorted()
+            .toArray();
+        int kept = 0;
+        for (int index = 0; index < size; index++) {
+            if (Arrays.binarySearch(sortedUids, uids[index]) < 0) {
+                moveRow(index, kept);
+                kept++;
+            }
+        }
+        clearRows(kept, size);
+        size = kept;
+    }
+
+    /**
+     * @param criteria criteria that should all be matched. Each of them needs to be {@link #supports(SearchQuery.Criterion)}
+     * @param recentMessageUids uids of the messages holding the {@link Flags.Flag#RECENT} flag
+     */
+    synchronized Matches matching(List<SearchQuery.Criterion> criteria, Collection<MessageUid> recentMessageUids) {
+        BitSet result = all();
+        for (SearchQuery.Criterion criterion : criteria) {
+            result.and(evaluate(criterion, recentMessageUids));
+        }
+        long[] matchingUids = new long[result.cardinality()];
+        MessageId[] matchingMessageIds = new MessageId[matchingUids.length];
+        int position = 0;
+        for (int index = result.nextSetBit(0); index >= 0; index = result.nextSetBit(index + 1)) {
+            matchingUids[position] = uids[index];
+            matchingMessageIds[position] = messageIds[index];
+            position++;
+        }
+        return new Matches(matchingUids, matchingMessageIds);
+    }
+
+    private BitSet all() {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        return result;
+    }
+
+    private BitSet evaluate(SearchQuery.Criterion criterion, Collection<MessageUid> recentMessageUids) {
+        if (criterion instanceof SearchQuery.AllCriterion) {
+            return all();
+        } else if (criterion instanceof SearchQuery.ConjunctionCriterion) {
+            return evaluate((SearchQuery.ConjunctionCriterion) criterion, recentMessageUids);
+        } else if (criterion instanceof SearchQuery.UidCriterion) {
+            return evaluate((SearchQuery.UidCriterion) criterion);
+        } else if (criterion instanceof SearchQuery.FlagCriterion) {
+            return evaluate((SearchQuery.FlagCriterion) criterion, recentMessageUids);
+        } else if (criterion instanceof SearchQuery.CustomFlagCriterion) {
+            return evaluate((SearchQuery.CustomFlagCriterion) criterion);
+        } else if (criterion instanceof SearchQuery.InternalDateCriterion) {
+            return evaluateDate(((SearchQuery.InternalDateCriterion) criterion).getOperator(), internalDates);
+        } else if (criterion instanceof SearchQuery.SizeCriterion) {
+            return evaluateNumeric(((SearchQuery.SizeCriterion) criterion).getOperator(), sizes);
+        } else if (criterion instanceof SearchQuery.ModSeqCriterion) {
+            return evaluateNumeric(((SearchQuery.ModSeqCriterion) criterion).getOperator(), modSeqs);
+        } else if (criterion instanceof SearchQuery.AttachmentCriterion) {
+            return evaluateFlag(HAS_ATTACHMENT, ((SearchQuery.AttachmentCriterion) criterion).getOperator().isSet());
+        } else if (criterion instanceof SearchQuery.MimeMessageIDCriterion) {
+            return evaluate(((SearchQuery.MimeMessageIDCriterion) criterion).asHeaderCriterion());
+        } else if (criterion instanceof SearchQuery.HeaderCriterion) {
+            return evaluate((SearchQuery.HeaderCriterion) criterion);
+        }
+        throw new IllegalArgumentException("Unsupported criterion " + criterion);
+    }
+
+    private BitSet evaluate(SearchQuery.ConjunctionCriterion criterion, Collection<MessageUid> recentMessageUids) {
+        switch (criterion.getType()) {
+            case AND:
+                BitSet and = all();
+                criterion.getCriteria().forEach(subCriterion -> and.and(evaluate(subCriterion, recentMessageUids)));
+                return and;
+            case OR:
+                BitSet or = new BitSet(size);
+                criterion.getCriteria().forEach(subCriterion -> or.or(evaluate(subCriterion, recentMessageUids)));
+                return or;
+            case NOR:
+                BitSet nor = new BitSet(size);
+                criterion.getCriteria().forEach(subCriterion -> nor.or(evaluate(subCriterion, recentMessageUids)));
+                nor.flip(0, size);
+                return nor;
+            default:
+                return new BitSet(size);
+        }
+    }
+
+    private BitSet evaluate(SearchQuery.UidCriterion criterion) {
+        BitSet result = new BitSet(size);
+        for (UidRange range : criterion.getOperator().getRange()) {
+            int from = insertionPoint(range.getLowValue().asLong());
+            int to = insertionPoint(range.getHighValue().asLong());
+            if (to < size && uids[to] == range.getHighValue().asLong()) {
+                to++;
+            }
+            if (from < to) {
+                result.set(from, to);
+            }
+        }
+        return result;
+    }
+
+    private BitSet evaluate(SearchQuery.FlagCriterion criterion, Collection<MessageUid> recentMessageUids) {
+        boolean isSet = criterion.getOperator().isSet();
+        if (criterion.getFlag() == Flags.Flag.RECENT) {
+            BitSet result = new BitSet(size);
+            for (MessageUid recentUid : recentMessageUids) {
+                int index = indexOf(recentUid.asLong());
+                if (index >= 0) {
+                    result.set(index);
+                }
+            }
+            if (!isSet) {
+                result.flip(0, size);
+            }
+            return result;
+        }
+        return evaluateFlag(systemFlagMask(criterion.getFlag()), isSet);
+    }
+
+    private BitSet evaluateFlag(int mask, boolean isSet) {
+        BitSet result = new BitSet(size);
+        for (int index = 0; index < size; index++) {
+            if (((flags[index] & mask) != 0) == isSet) {
+                result.set(index);
+            }
+        }
+        return result;
+    }
+
+    private BitSet evaluate(SearchQuery.CustomFlagCriterion criterion) {
+        boolean isSet = criterion.getOperator().isSet();
+        BitSet result = new BitSet(size);
+        for (int index = 0; index < size; index++) {
+            if (containsUserFlag(userFlags[index], criterion.getFlag()) == isSet) {
+                result.set(index);
+            }
+        }
+        return result;
+    }
+
+    private boolean containsUserFlag(String[] rowUserFlags, String flag) {
+        for (String userFlag : rowUserFlags) {
+            if (userFlag.equalsIgnoreCase(flag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private BitSet evaluateNumeric(SearchQuery.NumericOperator operator, long[] column) {
+        long value = operator.getValue();
+        BitSet result = new BitSet(size);
+        for (int index = 0; index < size; index++) {
+            if (matchesNumeric(operator.getType(), column[index], value)) {
+                result.set(index);
+            }
+        }
+        return result;
+    }
+
+    private boolean matchesNumeric(SearchQuery.NumericComparator comparator, long actual, long expected) {
+        switch (comparator) {
+            case LESS_THAN:
+                return actual < expected;
+            case GREATER_THAN:
+                return actual > expected;
+            case EQUALS:
+                return actual == expected;
+            default:
+                return false;
+        }
+    }
+
+    private BitSet evaluateDate(SearchQuery.DateOperator operator, long[] column) {
+        Calendar calendar = truncate(operator.getDate(), operator.getDateResultion());
+        long start = calendar.getTimeInMillis();
+        calendar.add(calendarField(operator.getDateResultion()), 1);
+        long end = calendar.getTimeInMillis();
+
+        BitSet result = new BitSet(size);
+        for (int index = 0; index < size; index++) {
+            long date = column[index];
+            if (date != NO_DATE && matchesDate(operator.getType(), date, start, end)) {
+                result.set(index);
+            }
+        }
+        return result;
+    }
+
+    private boolean matchesDate(SearchQuery.DateComparator comparator, long date, long start, long end) {
+        switch (comparator) {
+            case ON:
+                return start <= date && date < end;
+            case BEFORE:
+                return date < start;
+            case AFTER:
+                return date >= end;
+            default:
+                return false;
+        }
+    }
+
+    private Calendar truncate(Date date, SearchQuery.DateResolution resolution) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"), Locale.ENGLISH);
+        calendar.setTime(date);
+        switch (resolution) {
+            case Year:
+                calendar.set(Calendar.MONTH, Calendar.JANUARY);
+                // fall through
+            case Month:
+                calendar.set(Calendar.DAY_OF_MONTH, 1);
+                // fall through
+            case Day:
+                calendar.set(Calendar.HOUR_OF_DAY, 0);
+                // fall through
+            case Hour:
+                calendar.set(Calendar.MINUTE, 0);
+                // fall through
+            case Minute:
+                calendar.set(Calendar.SECOND, 0);
+                // fall through
+            case Second:
+                calendar.set(Calendar.MILLISECOND, 0);
+                break;
+            default:
+                break;
+        }
+        return calendar;
+    }
+
+    private int calendarField(SearchQuery.DateResolution resolution) {
+        switch (resolution) {
+            case Year:
+                return Calendar.YEAR;
+            case Month:
+                return Calendar.MONTH;
+            case Day:
+                return Calendar.DAY_OF_MONTH;
+            case Hour:
+                return Calendar.HOUR_OF_DAY;
+            case Minute:
+                return Calendar.MINUTE;
+            case Second:
+                return Calendar.SECOND;
+            default:
+                return Calendar.MILLISECOND;
+        }
+    }
+
+    private BitSet evaluate(SearchQuery.HeaderCriterion criterion) {
+        SearchQuery.HeaderOperator operator = criterion.getOperator();
+        if (operator instanceof SearchQuery.DateOperator) {
+            return evaluateDate((SearchQuery.DateOperator) operator, sentDates);
+        }
+        CachedHeader cachedHeader = CachedHeader.forName(criterion.getHeaderName())
+            .orElseThrow(() -> new IllegalArgumentException("Unsupported header " + criterion.getHeaderName()));
+        if (operator instanceof SearchQuery.ExistsOperator) {
+            return evaluateContains(headerValues[cachedHeader.ordinal()], "");
+        } else if (operator instanceof SearchQuery.AddressOperator) {
+            String address = ((SearchQuery.AddressOperator) operator).getAddress().toUpperCase(Locale.US);
+            return evaluateContains(addressValues[cachedHeader.ordinal()], address);
+        } else if (operator instanceof SearchQuery.ContainsOperator) {
+            String value = ((SearchQuery.ContainsOperator) operator).getValue().toUpperCase(Locale.US);
+            return evaluateContains(headerValues[cachedHeader.ordinal()], value);
+        }
+        throw new IllegalArgumentException("Unsupported header operator " + operator);
+    }
+
+    private BitSet evaluateContains(String[] column, String value) {
+        BitSet result = new BitSet(size);
+        for (int index = 0; index < size; index++) {
+            String columnValue = column[index];
+            if (columnValue != null && columnValue.contains(value)) {
+                result.set(index);
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(long uid) {
+        return Arrays.binarySearch(uids, 0, size, uid);
+    }
+
+    private int insertionPoint(long uid) {
+        int index = indexOf(uid);
+        if (index < 0) {
+            return -(index + 1);
+        }
+        return index;
+    }
+
+    private void insertAt(int index) {
+        if (size == uids.length) {
+            grow();
+        }
+        if (index < size) {
+            int length = size - index;
+            System.arraycopy(uids, index, uids, index + 1, length);
+            System.arraycopy(messageIds, index, messageIds, index + 1, length);
+            System.arraycopy(modSeqs, index, modSeqs, index + 1, length);
+            System.arraycopy(internalDates, index, internalDates, index + 1, length);
+            System.arraycopy(sizes, index, sizes, index + 1, length);
+            System.arraycopy(sentDates, index, sentDates, index + 1, length);
+            System.arraycopy(flags, index, flags, index + 1, length);
+            System.arraycopy(userFlags, index, userFlags, index + 1, length);
+            for (CachedHeader cachedHeader : CachedHeader.values()) {
+                System.arraycopy(headerValues[cachedHeader.ordinal()], index, headerValues[cachedHeader.ordinal()], index + 1, length);
+                System.arraycopy(addressValues[cachedHeader.ordinal()], index, addressValues[cachedHeader.ordinal()], index + 1, length);
+            }
+        }
+        size++;
+    }
+
+    private void grow() {
+        int capacity = uids.length * 2;
+        uids = Arrays.copyOf(uids, capacity);
+        messageIds = Arrays.copyOf(messageIds, capacity);
+        modSeqs = Arrays.copyOf(modSeqs, capacity);
+        internalDates = Arrays.copyOf(internalDates, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        sentDates = Arrays.copyOf(sentDates, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        userFlags = Arrays.copyOf(userFlags, capacity);
+        for (CachedHeader cachedHeader : CachedHeader.values()) {
+            headerValues[cachedHeader.ordinal()] = Arrays.copyOf(headerValues[cachedHeader.ordinal()], capacity);
+            addressValues[cachedHeader.ordinal()] = Arrays.copyOf(addressValues[cachedHeader.ordinal()], capacity);
+        }
+    }
+
+    private void moveRow(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        uids[to] = uids[from];
+        messageIds[to] = messageIds[from];
+        modSeqs[to] = modSeqs[from];
+        internalDates[to] = internalDates[from];
+        sizes[to] = sizes[from];
+        sentDates[to] = sentDates[from];
+        flags[to] = flags[from];
+        userFlags[to] = userFlags[from];
+        for (CachedHeader cachedHeader : CachedHeader.values()) {
+            headerValues[cachedHeader.ordinal()][to] = headerValues[cachedHeader.ordinal()][from];
+            addressValues[cachedHeader.ordinal()][to] = addressValues[cachedHeader.ordinal()][from];
+        }
+    }
+
+    private void clearRows(int from, int to) {
+        Arrays.fill(messageIds, from, to, null);
+        Arrays.fill(userFlags, from, to, null);
+        for (CachedHeader cachedHeader : CachedHeader.values()) {
+            Arrays.fill(headerValues[cachedHeader.ordinal()], from, to, null);
+            Arrays.fill(addressValues[cachedHeader.ordinal()], from, to, null);
+        }
+    }
+}
@@ -531,7 +531,7 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
         return null;
     }
 
-    private Date toISODate(String value) throws ParseException {
+    static Date toISODate(String value) throws ParseException {
         StringReader reader = new StringReader(value);
         DateTime dateTime = new DateTimeParser(reader).parseAll();
         Calendar cal = getGMT();
@@ -650,7 +650,7 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
         }
     }
 
-    private Calendar getGMT() {
+    private static Calendar getGMT() {
         return Calendar.getInstance(TimeZone.getTimeZone("GMT"), Locale.ENGLISH);
     }
 
@@ -0,0 +1,150 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.store.mail.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.store.mail.ExpungeTombstoneMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public abstract class ExpungeTombstoneMapperTest {
+    private static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    private static final Instant EXPIRED = NOW.minus(ExpungeTombstoneMapper.DEFAULT_RETENTION).minus(Duration.ofDays(1));
+
+    private static final ExpungeTombstone TOMBSTONE_5 = ExpungeTombstone.of(ModSeq.of(5), NOW,
+        ImmutableList.of(MessageUid.of(1), MessageUid.of(2), MessageUid.of(3), MessageUid.of(8)));
+    private static final ExpungeTombstone TOMBSTONE_7 = ExpungeTombstone.of(ModSeq.of(7), NOW, ImmutableList.of(MessageUid.of(10)));
+    private static final ExpungeTombstone TOMBSTONE_9 = ExpungeTombstone.of(ModSeq.of(9), NOW, ImmutableList.of(MessageUid.of(11)));
+
+    private ExpungeTombstoneMapper tombstoneMapper;
+    private MailboxId mailboxId;
+
+    protected abstract ExpungeTombstoneMapper createExpungeTombstoneMapper();
+
+    protected abstract MailboxId generateMailboxId();
+
+    @BeforeEach
+    void setUp() {
+        this.tombstoneMapper = createExpungeTombstoneMapper();
+        this.mailboxId = generateMailboxId();
+    }
+
+    @Test
+    void expungedSinceShouldReturnEmptyWhenNotTracked() throws Exception {
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(1))).isEmpty();
+    }
+
+    @Test
+    void expungedSinceShouldReturnNoTombstoneWhenTrackedWithoutExpunge() throws Exception {
+        tombstoneMapper.startTracking(mailboxId, ModSeq.of(10));
+
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(10))).contains(ImmutableList.of());
+    }
+
+    @Test
+    void expungedSinceShouldReturnEmptyBeforeTrackingStarted() throws Exception {
+        tombstoneMapper.startTracking(mailboxId, ModSeq.of(10));
+
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(9))).isEmpty();
+    }
+
+    @Test
+    void recordShouldStartTrackingRightBeforeTheTombstone() throws Exception {
+        tombstoneMapper.record(mailboxId, TOMBSTONE_5);
+
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(4))).contains(ImmutableList.of(TOMBSTONE_5));
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(3))).isEmpty();
+    }
+
+    @Test
+    void expungedSinceShouldPreserveUids() throws Exception {
+        tombstoneMapper.record(mailboxId, TOMBSTONE_5);
+
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(4)).get())
+            .extracting(ExpungeTombstone::serializeUids)
+            .containsExactly("1:3,8");
+    }
+
+    @Test
+    void expungedSinceShouldOnlyReturnNewerTombstonesInOrder() throws Exception {
+        tombstoneMapper.record(mailboxId, TOMBSTONE_5);
+        tombstoneMapper.record(mailboxId, TOMBSTONE_9);
+        tombstoneMapper.record(mailboxId, TOMBSTONE_7);
+
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(5))).contains(ImmutableList.of(TOMBSTONE_7, TOMBSTONE_9));
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(7))).contains(ImmutableList.of(TOMBSTONE_9));
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(9))).contains(ImmutableList.of());
+    }
+
+    @Test
+    void startTrackingShouldNotLowerTheHorizon() throws Exception {
+        tombstoneMapper.record(mailboxId, TOMBSTONE_5);
+
+        tombstoneMapper.startTracking(mailboxId, ModSeq.of(1));
+
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(2))).isEmpty();
+    }
+
+    @Test
+    void recordShouldForgetExpiredTombstones() throws Exception {
+        tombstoneMapper.record(mailboxId, ExpungeTombstone.of(ModSeq.of(5), EXPIRED, ImmutableList.of(MessageUid.of(1))));
+        tombstoneMapper.record(mailboxId, TOMBSTONE_7);
+
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(4))).isEmpty();
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(5))).contains(ImmutableList.of(TOMBSTONE_7));
+    }
+
+    @Test
+    void tombstonesShouldBeIsolatedPerMailbox() throws Exception {
+        MailboxId otherMailboxId = generateMailboxId();
+        tombstoneMapper.record(mailboxId, TOMBSTONE_5);
+        tombstoneMapper.startTracking(otherMailboxId, ModSeq.of(4));
+
+        assertThat(tombstoneMapper.expungedSince(otherMailboxId, ModSeq.of(4))).contains(ImmutableList.of());
+    }
+
+    @Test
+    void deleteShouldStopTracking() throws Exception {
+        tombstoneMapper.record(mailboxId, TOMBSTONE_5);
+
+        tombstoneMapper.delete(mailboxId);
+
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(4))).isEmpty();
+    }
+
+    @Test
+    void deleteShouldForgetTombstones() throws Exception {
+        tombstoneMapper.record(mailboxId, TOMBSTONE_5);
+        tombstoneMapper.delete(mailboxId);
+
+        tombstoneMapper.startTracking(mailboxId, ModSeq.of(1));
+
+        assertThat(tombstoneMapper.expungedSince(mailboxId, ModSeq.of(1))).contains(ImmutableList.of());
+    }
+}
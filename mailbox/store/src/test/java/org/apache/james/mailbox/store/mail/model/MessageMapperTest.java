@@ -1175,6 +1175,75 @@ public abstract class MessageMapperTest {
             .containsOnly(message1.getUid(), message5.getUid());
     }
 
+    @Test
+    void listMessagesMetadataShouldReturnMetadataOfMessagesInTheRange() throws Exception {
+        saveMessages();
+
+        assertThat(messageMapper.listMessagesMetadata(benwaInboxMailbox, MessageRange.range(message2.getUid(), message4.getUid())))
+            .toIterable()
+            .extracting(MessageMetaData::getUid)
+            .containsExactly(message2.getUid(), message3.getUid(), message4.getUid());
+    }
+
+    @Test
+    void listMessagesMetadataShouldReturnSizeAndMessageId() throws Exception {
+        saveMessages();
+
+        assertThat(messageMapper.listMessagesMetadata(benwaInboxMailbox, MessageRange.one(message1.getUid())))
+            .toIterable()
+            .hasSize(1)
+            .first()
+            .satisfies(metaData -> {
+                assertThat(metaData.getSize()).isEqualTo(message1.getFullContentOctets());
+                assertThat(metaData.getMessageId()).isEqualTo(message1.getMessageId());
+            });
+    }
+
+    @Test
+    void listMessagesMetadataShouldReflectFlagsUpdates() throws Exception {
+        saveMessages();
+
+        UpdatedFlags updatedFlags = messageMapper.updateFlags(benwaInboxMailbox,
+            new FlagsUpdateCalculator(new Flags(Flags.Flag.FLAGGED), FlagsUpdateMode.REPLACE),
+            MessageRange.one(message1.getUid())).next();
+
+        assertThat(messageMapper.listMessagesMetadata(benwaInboxMailbox, MessageRange.one(message1.getUid())))
+            .toIterable()
+            .hasSize(1)
+            .first()
+            .satisfies(metaData -> {
+                assertThat(metaData.getFlags()).isEqualTo(new Flags(Flags.Flag.FLAGGED));
+                assertThat(metaData.getModSeq()).isEqualTo(updatedFlags.getModSeq());
+            });
+    }
+
+    @Test
+    void listMessagesMetadataShouldNotReturnDeletedMessages() throws Exception {
+        saveMessages();
+
+        messageMapper.delete(benwaInboxMailbox, message2);
+
+        assertThat(messageMapper.listMessagesMetadata(benwaInboxMailbox, MessageRange.all()))
+            .toIterable()
+            .extracting(MessageMetaData::getUid)
+            .containsExactly(message1.getUid(), message3.getUid(), message4.getUid(), message5.getUid());
+    }
+
+    @Test
+    void listMessagesMetadataShouldOnlyReturnMessagesChangedSinceTheGivenModSeq() throws Exception {
+        saveMessages();
+        ModSeq modSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+
+        messageMapper.updateFlags(benwaInboxMailbox,
+            new FlagsUpdateCalculator(new Flags(Flags.Flag.SEEN), FlagsUpdateMode.ADD),
+            MessageRange.one(message3.getUid()));
+
+        assertThat(messageMapper.listMessagesMetadata(benwaInboxMailbox, MessageRange.all(), modSeq))
+            .toIterable()
+            .extracting(MessageMetaData::getUid)
+            .containsExactly(message3.getUid());
+    }
+
     private List<MessageUid> markThenPerformRetrieveMessagesMarkedForDeletion(MessageRange range) throws MailboxException {
         messageMapper.updateFlags(benwaInboxMailbox, new FlagsUpdateCalculator(new Flags(Flags.Flag.DELETED), FlagsUpdateMode.REPLACE), MessageRange.one(message1.getUid()));
         messageMapper.updateFlags(benwaInboxMailbox, new FlagsUpdateCalculator(new Flags(Flags.Flag.DELETED), FlagsUpdateMode.REPLACE), MessageRange.one(message4.getUid()));
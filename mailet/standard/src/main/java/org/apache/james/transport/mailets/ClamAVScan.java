@@ -20,7 +20,6 @@
 
 package org.apache.james.transport.mailets;
 
-import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -36,10 +35,13 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 
+import javax.inject.Inject;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 
 import org.apache.james.core.MailAddress;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
 import org.apache.mailet.Attribute;
 import org.apache.mailet.AttributeName;
 import org.apache.mailet.AttributeValue;
@@ -54,7 +56,8 @@ import org.slf4j.LoggerFactory;
 /**
  * <P>Does an antivirus scan check using a ClamAV daemon (CLAMD)</P>
  * <p/>
- * <P> Interacts directly with the daemon using the "stream" method,
+ * <P> Interacts directly with the daemon using the "INSTREAM" method within
+ * "IDSESSION" sessions kept opened between scans,
  * which should have the lowest possible overhead.</P>
  * <P>The CLAMD daemon will typically reside on <I>localhost</I>, but could reside on a
  * different host.
@@ -81,8 +84,14 @@ import org.slf4j.LoggerFactory;
  * <LI><CODE>&lt;pingIntervalMilli&gt;</CODE>: the interval (in milliseconds)
  * between each connection retry during startup.
  * The default is <I>30000</I> (30 seconds).</LI>
- * <LI><CODE>&lt;streamBufferSize&gt;</CODE>: the BufferedOutputStream buffer size to use
- * writing to the <I>stream connection</I>. The default is <I>8192</I>.</LI>
+ * <LI><CODE>&lt;streamBufferSize&gt;</CODE>: the size of the chunks the message is
+ * streamed in to CLAMD. The default is <I>8192</I>.</LI>
+ * <LI><CODE>&lt;maxSessions&gt;</CODE>: the maximum count of sessions opened to CLAMD, which
+ * is also the maximum count of scans in flight. Scans wait for a session to be released
+ * once all of them are busy. The default is <I>8</I>.</LI>
+ * <LI><CODE>&lt;sessionIdleTimeoutMilli&gt;</CODE>: idle sessions older than this timeout
+ * (in milliseconds) are closed instead of being reused. It should be lower than the CLAMD
+ * <CODE>IdleTimeout</CODE>. The default is <I>20000</I> (20 seconds).</LI>
  * </UL>
  * <p/>
  * <P>The actions performed are as follows:</P>
@@ -101,19 +110,17 @@ import org.slf4j.LoggerFactory;
  * </OL>
  * <LI>For every mail</LI>
  * <OL>
- * <LI>connects to CLAMD at the "next" IP in the round-robin list, on
+ * <LI>waits for a session to be available, reusing an idle one if any. Otherwise
+ * connects to CLAMD at the "next" IP in the round-robin list, on
  * the specified <CODE>&lt;port&gt;</CODE>, and increments the "next" index;
  * if the connection request is not accepted tries with the next one
- * in the list unless all of them have failed;</LI>
- * <LI>sends a "<CODE>STREAM</CODE>" request;</LI>
- * <LI>parses the "<CODE>PORT <I>streamPort</I></CODE>" answer obtaining the port number;</LI>
- * <LI>makes a second connection (the <I>stream connection</I>) to CLAMD at the same host (or IP)
- * on the <I>streamPort</I> just obtained;</LI>
- * <LI>sends the mime message to CLAMD (using {@link MimeMessage#writeTo(java.io.OutputStream)})
- * through the <I>stream connection</I>;</LI>
- * <LI>closes the <I>stream connection</I>;</LI>
- * <LI>gets the "<CODE>OK</CODE>" or "<CODE>... FOUND</CODE>" answer from the main connection;</LI>
- * <LI>closes the main connection;</LI>
+ * in the list unless all of them have failed; then sends a "<CODE>zIDSESSION</CODE>" request;</LI>
+ * <LI>sends a "<CODE>zINSTREAM</CODE>" request;</LI>
+ * <LI>streams the mime message to CLAMD (using {@link MimeMessage#writeTo(java.io.OutputStream)})
+ * in <CODE>&lt;streamBufferSize&gt;</CODE> chunks, without copying it in memory;</LI>
+ * <LI>gets the "<CODE>OK</CODE>" or "<CODE>... FOUND</CODE>" answer;</LI>
+ * <LI>gives the session back for the next mail. A scan failing on a reused session
+ * (for instance closed by CLAMD) is retried once on a new session;</LI>
  * <LI>sets the "<CODE>org.apache.james.infected</CODE>" <I>mail attribute</I> to either
  * "<CODE>true</CODE>" or "<CODE>false</CODE>";</LI>
  * <LI>adds the "<CODE>X-MessageIsInfected</CODE>" <I>header</I> to either
@@ -127,8 +134,7 @@ import org.slf4j.LoggerFactory;
  * <LI><CODE>TCPSocket</CODE> must be set to a port# (typically 3310)</LI>
  * <LI><CODE>StreamMaxLength</CODE> must be &gt;= the James config.xml parameter
  * &lt;<CODE>maxmessagesize</CODE>&gt; in SMTP &lt;<CODE>handler</CODE>&gt;</LI>
- * <LI><CODE>MaxThreads</CODE> should? be &gt;= the James config.xml parameter
- * &lt;<CODE>threads</CODE>&gt; in &lt;<CODE>spoolmanager</CODE>&gt;</LI>
+ * <LI><CODE>MaxThreads</CODE> should? be &gt;= the &lt;<CODE>maxSessions</CODE>&gt; mailet parameter</LI>
  * <LI><CODE>ScanMail</CODE> must be uncommented</LI>
  * </UL>
  * <p/>
@@ -195,12 +201,18 @@ public class ClamAVScan extends GenericMailet {
 
     private static final int DEFAULT_STREAM_BUFFER_SIZE = 8192;
 
-    //private static final int DEFAULT_CONNECTION_TIMEOUT = 20000;
+    private static final int DEFAULT_MAX_SESSIONS = 8;
+
+    private static final int DEFAULT_SESSION_IDLE_TIMEOUT_MILLI = 20000;
 
-    private static final String STREAM_PORT_STRING = "PORT ";
+    //private static final int DEFAULT_CONNECTION_TIMEOUT = 20000;
 
     private static final String FOUND_STRING = "FOUND";
 
+    private static final String ERROR_STRING = "ERROR";
+
+    static final String SCAN_METRIC_NAME = "clamAV-scan";
+
     private static final AttributeName MAIL_ATTRIBUTE_NAME = AttributeName.of("org.apache.james.infected");
 
     private static final String HEADER_NAME = "X-MessageIsInfected";
@@ -235,6 +247,16 @@ public class ClamAVScan extends GenericMailet {
      */
     private int streamBufferSize;
 
+    /**
+     * Holds value of property maxSessions.
+     */
+    private int maxSessions;
+
+    /**
+     * Holds value of property sessionIdleTimeoutMilli.
+     */
+    private int sessionIdleTimeoutMilli;
+
     /**
      * Holds value of property addresses.
      */
@@ -245,6 +267,15 @@ public class ClamAVScan extends GenericMailet {
      */
     private int nextAddressIndex;
 
+    private final MetricFactory metricFactory;
+
+    private ClamdSessionPool sessionPool;
+
+    @Inject
+    public ClamAVScan(MetricFactory metricFactory) {
+        this.metricFactory = metricFactory;
+    }
+
     @Override
     public String getMailetInfo() {
         return "Antivirus Check using ClamAV (CLAMD)";
@@ -261,7 +292,9 @@ public class ClamAVScan extends GenericMailet {
                 "port",
                 "maxPings",
                 "pingIntervalMilli",
-                "streamBufferSize"
+                "streamBufferSize",
+                "maxSessions",
+                "sessionIdleTimeoutMilli"
         };
     }
 
@@ -455,6 +488,68 @@ public class ClamAVScan extends GenericMailet {
         this.streamBufferSize = streamBufferSize;
     }
 
+    /**
+     * Initializer for property maxSessions.
+     */
+    protected void initMaxSessions() {
+        String maxSessionsParam = getInitParameter("maxSessions");
+        setMaxSessions((maxSessionsParam == null) ? DEFAULT_MAX_SESSIONS : Integer.parseInt(maxSessionsParam));
+        if (isDebug()) {
+            LOGGER.debug("maxSessions: {}", getMaxSessions());
+        }
+    }
+
+    /**
+     * Getter for property maxSessions.
+     *
+     * @return Value of property maxSessions.
+     */
+    public int getMaxSessions() {
+
+        return this.maxSessions;
+    }
+
+    /**
+     * Setter for property maxSessions.
+     *
+     * @param maxSessions New value of property maxSessions.
+     */
+    public void setMaxSessions(int maxSessions) {
+
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Initializer for property sessionIdleTimeoutMilli.
+     */
+    protected void initSessionIdleTimeoutMilli() {
+        String sessionIdleTimeoutMilliParam = getInitParameter("sessionIdleTimeoutMilli");
+        setSessionIdleTimeoutMilli((sessionIdleTimeoutMilliParam == null) ? DEFAULT_SESSION_IDLE_TIMEOUT_MILLI : Integer.parseInt(sessionIdleTimeoutMilliParam));
+        if (isDebug()) {
+            LOGGER.debug("sessionIdleTimeoutMilli: {}", getSessionIdleTimeoutMilli());
+        }
+    }
+
+    /**
+     * Getter for property sessionIdleTimeoutMilli.
+     *
+     * @return Value of property sessionIdleTimeoutMilli.
+     */
+    public int getSessionIdleTimeoutMilli() {
+
+        return this.sessionIdleTimeoutMilli;
+    }
+
+    /**
+     * Setter for property sessionIdleTimeoutMilli.
+     *
+     * @param sessionIdleTimeoutMilli New value of property sessionIdleTimeoutMilli.
+     */
+    public void setSessionIdleTimeoutMilli(int sessionIdleTimeoutMilli) {
+
+        this.sessionIdleTimeoutMilli = sessionIdleTimeoutMilli;
+    }
+
     /**
      * Indexed getter for property addresses.
      *
@@ -569,12 +664,17 @@ public class ClamAVScan extends GenericMailet {
             initMaxPings();
             initPingIntervalMilli();
             initStreamBufferSize();
+            initMaxSessions();
+            initSessionIdleTimeoutMilli();
 
             // If "maxPings is > ping the CLAMD server to check if it is up
             if (getMaxPings() > 0) {
                 ping();
             }
 
+            sessionPool = new ClamdSessionPool(metricFactory, this::getClamdSocket,
+                getMaxSessions(), getStreamBufferSize(), getSessionIdleTimeoutMilli());
+
         } catch (Exception e) {
             LOGGER.error("Exception thrown", e);
             throw new MessagingException("Exception thrown", e);
@@ -605,96 +705,68 @@ public class ClamAVScan extends GenericMailet {
             return;
         }
 
-        Socket clamdSocket = getClamdSocket();
-
-        try (Socket socket = clamdSocket;
-            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "ASCII"));
-            PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream())), true)) {
-
-            // write a request for a port to use for streaming out the data to scan
-            writer.println("STREAM");
-            writer.flush();
+        String answer;
+        TimeMetric timeMetric = metricFactory.timer(SCAN_METRIC_NAME);
+        try {
+            answer = sessionPool.scan(mimeMessage::writeTo);
+        } finally {
+            timeMetric.stopAndPublish();
+        }
 
-            // parse and get the "stream" port#
-            int streamPort = getStreamPortFromAnswer(reader.readLine());
-
-            // get the "stream" socket and the related (buffered) output stream
-            try (Socket streamSocket = new Socket(socket.getInetAddress(), streamPort);
-                 BufferedOutputStream bos = new BufferedOutputStream(streamSocket.getOutputStream(), getStreamBufferSize())) {
-
-                // stream out the message to the scanner
-                mimeMessage.writeTo(bos);
-                bos.flush();
-                bos.close();
-                streamSocket.close();
-
-                String answer;
-                boolean virusFound = false;
-                String logMessage = "";
-                for (; ; ) {
-                    answer = reader.readLine();
-                    if (answer != null) {
-                        answer = answer.trim();
-
-                        // if a virus is found the answer will be '... FOUND'
-                        if (answer.substring(answer.length() - FOUND_STRING.length()).equals(FOUND_STRING)) {
-                            virusFound = true;
-                            logMessage = answer + " (by CLAMD on " + socket.getInetAddress() + ")";
-                            LOGGER.debug(logMessage);
-                        }
-                    } else {
-                        break;
-                    }
-                }
+        if (answer.endsWith(ERROR_STRING)) {
+            throw new MessagingException("CLAMD failed scanning the message: " + answer);
+        }
 
-                reader.close();
-                writer.close();
+        // if a virus is found the answer will be '... FOUND'
+        if (answer.endsWith(FOUND_STRING)) {
+            String logMessage = answer + " (by CLAMD)";
+            LOGGER.debug(logMessage);
 
-                if (virusFound) {
-                    String errorMessage = mail.getErrorMessage();
-                    if (errorMessage == null) {
-                        errorMessage = "";
-                    } else {
-                        errorMessage += "\r\n";
-                    }
-                    StringBuilder sb = new StringBuilder(errorMessage);
-                    sb.append(logMessage).append("\r\n");
+            String errorMessage = mail.getErrorMessage();
+            if (errorMessage == null) {
+                errorMessage = "";
+            } else {
+                errorMessage += "\r\n";
+            }
+            StringBuilder sb = new StringBuilder(errorMessage);
+            sb.append(logMessage).append("\r\n");
 
-                    // write mail and message info to log
-                    logMailInfo(mail);
-                    logMessageInfo(mimeMessage);
+            // write mail and message info to log
+            logMailInfo(mail);
+            logMessageInfo(mimeMessage);
 
-                    // mark the mail with a mail attribute to check later on by other matchers/mailets
-                    mail.setAttribute(makeAttribute(true));
+            // mark the mail with a mail attribute to check later on by other matchers/mailets
+            mail.setAttribute(makeAttribute(true));
 
-                    // sets the error message to be shown in any "notifyXxx" message
-                    mail.setErrorMessage(sb.toString());
+            // sets the error message to be shown in any "notifyXxx" message
+            mail.setErrorMessage(sb.toString());
 
-                    // mark the message with a header string
-                    mimeMessage.setHeader(HEADER_NAME, "true");
+            // mark the message with a header string
+            mimeMessage.setHeader(HEADER_NAME, "true");
 
-                } else {
-                    if (isDebug()) {
-                        LOGGER.debug("OK (by CLAMD on {})", socket.getInetAddress());
-                    }
-                    mail.setAttribute(makeAttribute(false));
+        } else {
+            if (isDebug()) {
+                LOGGER.debug("OK (by CLAMD)");
+            }
+            mail.setAttribute(makeAttribute(false));
 
-                    // mark the message with a header string
-                    mimeMessage.setHeader(HEADER_NAME, "false");
+            // mark the message with a header string
+            mimeMessage.setHeader(HEADER_NAME, "false");
 
-                }
+        }
 
-                try {
-                    saveChanges(mimeMessage);
-                } catch (Exception ex) {
-                    LOGGER.error("Exception caught while saving changes (header) to the MimeMessage. Ignoring ...", ex);
-                }
-            }
+        try {
+            saveChanges(mimeMessage);
         } catch (Exception ex) {
-            LOGGER.error("Exception caught calling CLAMD on {}: {}", clamdSocket.getInetAddress(), ex.getMessage(), ex);
-            throw new MessagingException("Exception caught", ex);
+            LOGGER.error("Exception caught while saving changes (header) to the MimeMessage. Ignoring ...", ex);
         }
+    }
 
+    @Override
+    public void destroy() {
+        if (sessionPool != null) {
+            sessionPool.close();
+        }
     }
 
     private Attribute makeAttribute(boolean value) {
@@ -783,30 +855,6 @@ public class ClamAVScan extends GenericMailet {
         }
     }
 
-    /**
-     * Parses the answer from a STREAM request and gets the port number.
-     *
-     * @param answer the answer from CLAMD containing the port number
-     * @return the port number for streaming out the data to scan
-     */
-    protected final int getStreamPortFromAnswer(String answer) throws ConnectException {
-        int port = -1;
-        if (answer != null && answer.startsWith(STREAM_PORT_STRING)) {
-            String portSubstring = answer.substring(STREAM_PORT_STRING.length());
-            try {
-                port = Integer.parseInt(portSubstring);
-            } catch (NumberFormatException nfe) {
-                LOGGER.error("Can not parse port from substring {}", portSubstring);
-            }
-        }
-
-        if (port <= 0) {
-            throw new ConnectException("\"PORT nn\" expected - unable to parse: " + "\"" + answer + "\"");
-        }
-
-        return port;
-    }
-
     /**
      * Saves changes resetting the original message id.
      *
@@ -0,0 +1,314 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.transport.mailets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * Keeps a bounded set of CLAMD connections opened in <CODE>IDSESSION</CODE> mode, and
+ * scans messages on them with the <CODE>INSTREAM</CODE> command.
+ * <p/>
+ * The count of sessions bounds the count of scans in flight: callers wait for a session
+ * to be released once all of them are busy. Idle sessions older than the configured idle
+ * timeout are closed rather than reused, as CLAMD drops them on its side.
+ */
+class ClamdSessionPool implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClamdSessionPool.class);
+
+    static final String IN_FLIGHT_METRIC_NAME = "clamAV-inflight";
+    static final String SATURATED_METRIC_NAME = "clamAV-saturated";
+    static final String OPENED_SESSIONS_METRIC_NAME = "clamAV-sessions-opened";
+
+    @FunctionalInterface
+    interface SocketSupplier {
+        Socket open() throws MessagingException;
+    }
+
+    @FunctionalInterface
+    interface MessageWriter {
+        void writeTo(OutputStream outputStream) throws IOException, MessagingException;
+    }
+
+    private final SocketSupplier socketSupplier;
+    private final int chunkSize;
+    private final long idleTimeoutMilli;
+    private final Semaphore sessionSlots;
+    private final Deque<Session> idleSessions;
+    private final Metric inFlightScans;
+    private final Metric saturatedScans;
+    private final Metric openedSessions;
+
+    ClamdSessionPool(MetricFactory metricFactory, SocketSupplier socketSupplier, int maxSessions, int chunkSize, long idleTimeoutMilli) {
+        Preconditions.checkArgument(maxSessions > 0, "'maxSessions' should be strictly positive");
+        Preconditions.checkArgument(chunkSize > 0, "'chunkSize' should be strictly positive");
+        this.socketSupplier = socketSupplier;
+        this.chunkSize = chunkSize;
+        this.idleTimeoutMilli = idleTimeoutMilli;
+        this.sessionSlots = new Semaphore(maxSessions, true);
+        this.idleSessions = new ConcurrentLinkedDeque<>();
+        this.inFlightScans = metricFactory.generate(IN_FLIGHT_METRIC_NAME);
+        this.saturatedScans = metricFactory.generate(SATURATED_METRIC_NAME);
+        this.openedSessions = metricFactory.generate(OPENED_SESSIONS_METRIC_NAME);
+    }
+
+    /**
+     * Streams a message to CLAMD and returns its answer, stripped from the request number,
+     * for instance <CODE>stream: OK</CODE> or <CODE>stream: Eicar-Test-Signature FOUND</CODE>.
+     * <p/>
+     * A scan failing on a reused session is retried once on a new session, as CLAMD may have
+     * closed it in the meantime.
+     */
+    String scan(MessageWriter messageWriter) throws MessagingException {
+        acquireSlot();
+        try {
+            Session session = pollIdleSession();
+            if (session != null) {
+                try {
+                    return scanAndRelease(session, messageWriter);
+                } catch (IOException e) {
+                    LOGGER.debug("Scan failed on reused CLAMD session on {}, retrying on a new session", session.getInetAddress(), e);
+                }
+            }
+            Session newSession = openSession();
+            try {
+                return scanAndRelease(newSession, messageWriter);
+            } catch (IOException e) {
+                throw new MessagingException("Exception caught scanning on CLAMD on " + newSession.getInetAddress(), e);
+            }
+        } finally {
+            releaseSlot();
+        }
+    }
+
+    @VisibleForTesting
+    int idleSessionCount() {
+        return idleSessions.size();
+    }
+
+    @Override
+    public void close() {
+        Session session = idleSessions.pollFirst();
+        while (session != null) {
+            session.close();
+            session = idleSessions.pollFirst();
+        }
+    }
+
+    private String scanAndRelease(Session session, MessageWriter messageWriter) throws IOException, MessagingException {
+        try {
+            String answer = session.scan(messageWriter, chunkSize);
+            idleSessions.offerFirst(session);
+            return answer;
+        } catch (IOException | MessagingException | RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    private Session pollIdleSession() {
+        Session session = idleSessions.pollFirst();
+        while (session != null && session.idleSinceMilli() > idleTimeoutMilli) {
+            session.close();
+            session = idleSessions.pollFirst();
+        }
+        return session;
+    }
+
+    private Session openSession() throws MessagingException {
+        Socket socket = socketSupplier.open();
+        try {
+            Session session = new Session(socket);
+            openedSessions.increment();
+            return session;
+        } catch (IOException e) {
+            closeQuietly(socket);
+            throw new MessagingException("Could not open a session on CLAMD on " + socket.getInetAddress(), e);
+        }
+    }
+
+    private void acquireSlot() throws MessagingException {
+        if (!sessionSlots.tryAcquire()) {
+            saturatedScans.increment();
+            try {
+                sessionSlots.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MessagingException("Interrupted while waiting for a CLAMD session", e);
+            }
+        }
+        inFlightScans.increment();
+    }
+
+    private void releaseSlot() {
+        inFlightScans.decrement();
+        sessionSlots.release();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.debug("Exception caught closing CLAMD socket", e);
+        }
+    }
+
+    private static class Session {
+        private static final byte[] IDSESSION = "zIDSESSION\0".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] INSTREAM = "zINSTREAM\0".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] END = "zEND\0".getBytes(StandardCharsets.US_ASCII);
+
+        private final Socket socket;
+        private final DataOutputStream output;
+        private final InputStream input;
+        private long lastUsedMilli;
+
+        Session(Socket socket) throws IOException {
+            this.socket = socket;
+            this.output = new DataOutputStream(socket.getOutputStream());
+            this.input = socket.getInputStream();
+            this.output.write(IDSESSION);
+            this.output.flush();
+            this.lastUsedMilli = System.currentTimeMillis();
+        }
+
+        InetAddress getInetAddress() {
+            return socket.getInetAddress();
+        }
+
+        long idleSinceMilli() {
+            return System.currentTimeMillis() - lastUsedMilli;
+        }
+
+        String scan(MessageWriter messageWriter, int chunkSize) throws IOException, MessagingException {
+            output.write(INSTREAM);
+            ChunkedOutputStream chunkedOutputStream = new ChunkedOutputStream(output, chunkSize);
+            messageWriter.writeTo(chunkedOutputStream);
+            chunkedOutputStream.finish();
+            output.flush();
+
+            String answer = readAnswer();
+            lastUsedMilli = System.currentTimeMillis();
+            return stripRequestNumber(answer);
+        }
+
+        private String readAnswer() throws IOException {
+            ByteArrayOutputStream answer = new ByteArrayOutputStream();
+            int read = input.read();
+            while (read > 0) {
+                answer.write(read);
+                read = input.read();
+            }
+            if (read < 0) {
+                throw new IOException("CLAMD closed the session");
+            }
+            return new String(answer.toByteArray(), StandardCharsets.US_ASCII).trim();
+        }
+
+        private String stripRequestNumber(String answer) {
+            int separator = answer.indexOf(": ");
+            if (separator < 0) {
+                return answer;
+            }
+            return answer.substring(separator + 2);
+        }
+
+        void close() {
+            try {
+                output.write(END);
+                output.flush();
+            } catch (IOException e) {
+                LOGGER.debug("Could not end CLAMD session", e);
+            }
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Frames written bytes as INSTREAM chunks: a 4 bytes network order length followed by the data.
+     * Does not close the underlying stream.
+     */
+    private static class ChunkedOutputStream extends OutputStream {
+        private final DataOutputStream output;
+        private final byte[] buffer;
+        private int count;
+
+        ChunkedOutputStream(DataOutputStream output, int chunkSize) {
+            this.output = output;
+            this.buffer = new byte[chunkSize];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                writeChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            int remaining = length;
+            int position = offset;
+            while (remaining > 0) {
+                if (count == buffer.length) {
+                    writeChunk();
+                }
+                int copied = Math.min(remaining, buffer.length - count);
+                System.arraycopy(bytes, position, buffer, count, copied);
+                count += copied;
+                position += copied;
+                remaining -= copied;
+            }
+        }
+
+        void finish() throws IOException {
+            if (count > 0) {
+                writeChunk();
+            }
+            output.writeInt(0);
+        }
+
+        private void writeChunk() throws IOException {
+            output.writeInt(count);
+            output.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
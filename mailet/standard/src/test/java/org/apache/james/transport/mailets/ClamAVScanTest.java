@@ -0,0 +1,338 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.transport.mailets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.mailet.Attribute;
+import org.apache.mailet.AttributeName;
+import org.apache.mailet.AttributeValue;
+import org.apache.mailet.Mail;
+import org.apache.mailet.base.test.FakeMail;
+import org.apache.mailet.base.test.FakeMailetConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+
+class ClamAVScanTest {
+    private static final AttributeName INFECTED = AttributeName.of("org.apache.james.infected");
+    private static final String HEADER_NAME = "X-MessageIsInfected";
+    private static final String EICAR = "EICAR-STANDARD-ANTIVIRUS-TEST-FILE";
+
+    private FakeClamd clamd;
+    private RecordingMetricFactory metricFactory;
+    private ClamAVScan mailet;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clamd = new FakeClamd();
+        metricFactory = new RecordingMetricFactory();
+        mailet = new ClamAVScan(metricFactory);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mailet.destroy();
+        clamd.close();
+    }
+
+    @Test
+    void serviceShouldMarkCleanMessagesAsNotInfected() throws Exception {
+        mailet.init(configBuilder().build());
+        Mail mail = mail("clean content");
+
+        mailet.service(mail);
+
+        assertThat(mail.getAttribute(INFECTED)).contains(new Attribute(INFECTED, AttributeValue.of(false)));
+        assertThat(mail.getMessage().getHeader(HEADER_NAME)).containsOnly("false");
+    }
+
+    @Test
+    void serviceShouldMarkInfectedMessages() throws Exception {
+        mailet.init(configBuilder().build());
+        Mail mail = mail(EICAR);
+
+        mailet.service(mail);
+
+        assertThat(mail.getAttribute(INFECTED)).contains(new Attribute(INFECTED, AttributeValue.of(true)));
+        assertThat(mail.getMessage().getHeader(HEADER_NAME)).containsOnly("true");
+        assertThat(mail.getErrorMessage()).contains("Eicar-Test-Signature FOUND");
+    }
+
+    @Test
+    void serviceShouldThrowWhenClamdAnswersAnError() throws Exception {
+        mailet.init(configBuilder().build());
+        clamd.maxStreamLength = 10;
+
+        assertThatThrownBy(() -> mailet.service(mail("longer than ten bytes")))
+            .isInstanceOf(MessagingException.class);
+    }
+
+    @Test
+    void serviceShouldReuseSessionsAcrossScans() throws Exception {
+        mailet.init(configBuilder().build());
+
+        mailet.service(mail("first"));
+        mailet.service(mail("second"));
+        mailet.service(mail(EICAR));
+
+        assertThat(clamd.acceptedConnections.get()).isEqualTo(1);
+        assertThat(clamd.scans.get()).isEqualTo(3);
+    }
+
+    @Test
+    void serviceShouldStreamMessagesInChunksOfStreamBufferSize() throws Exception {
+        mailet.init(configBuilder()
+            .setProperty("streamBufferSize", "16")
+            .build());
+
+        mailet.service(mail(Strings.repeat("0123456789", 100)));
+
+        assertThat(clamd.maxChunkSize.get()).isEqualTo(16);
+    }
+
+    @Test
+    void serviceShouldRetryOnNewSessionWhenReusedSessionWasClosedByClamd() throws Exception {
+        mailet.init(configBuilder().build());
+        clamd.closeSessionAfterScan = true;
+
+        mailet.service(mail("first"));
+        Mail mail = mail("second");
+        mailet.service(mail);
+
+        assertThat(mail.getAttribute(INFECTED)).contains(new Attribute(INFECTED, AttributeValue.of(false)));
+        assertThat(clamd.acceptedConnections.get()).isEqualTo(2);
+    }
+
+    @Test
+    void serviceShouldNotReuseSessionsIdleForLongerThanTheIdleTimeout() throws Exception {
+        mailet.init(configBuilder()
+            .setProperty("sessionIdleTimeoutMilli", "1")
+            .build());
+
+        mailet.service(mail("first"));
+        Thread.sleep(50);
+        mailet.service(mail("second"));
+
+        assertThat(clamd.acceptedConnections.get()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentScansShouldNotExceedMaxSessions() throws Exception {
+        mailet.init(configBuilder()
+            .setProperty("maxSessions", "2")
+            .build());
+        clamd.scanDelayMilli = 50;
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<Mail>> results = IntStream.range(0, 6)
+                .mapToObj(i -> executor.submit(() -> {
+                    Mail mail = mail("content " + i);
+                    mailet.service(mail);
+                    return mail;
+                }))
+                .collect(Collectors.toList());
+            for (Future<Mail> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS).getAttribute(INFECTED)).isPresent();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(clamd.acceptedConnections.get()).isLessThanOrEqualTo(2);
+        assertThat(metricFactory.countFor(ClamdSessionPool.SATURATED_METRIC_NAME)).isPositive();
+        assertThat(metricFactory.countFor(ClamdSessionPool.IN_FLIGHT_METRIC_NAME)).isZero();
+    }
+
+    @Test
+    void serviceShouldPublishScanLatency() throws Exception {
+        mailet.init(configBuilder().build());
+
+        mailet.service(mail("content"));
+
+        assertThat(metricFactory.executionTimesFor(ClamAVScan.SCAN_METRIC_NAME)).hasSize(1);
+    }
+
+    @Test
+    void initShouldFailWhenPingFails() throws Exception {
+        clamd.close();
+
+        assertThatThrownBy(() -> mailet.init(configBuilder()
+                .setProperty("maxPings", "1")
+                .setProperty("pingIntervalMilli", "1")
+                .build()))
+            .isInstanceOf(MessagingException.class);
+    }
+
+    private FakeMailetConfig.Builder configBuilder() {
+        return FakeMailetConfig.builder()
+            .mailetName("ClamAVScan")
+            .setProperty("host", "127.0.0.1")
+            .setProperty("port", String.valueOf(clamd.getPort()))
+            .setProperty("maxPings", "0");
+    }
+
+    private Mail mail(String content) throws MessagingException {
+        return FakeMail.builder()
+            .name("mail")
+            .sender("sender@james.org")
+            .recipient("recipient@james.org")
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder()
+                .setSubject("test")
+                .setText(content))
+            .build();
+    }
+
+    private static class FakeClamd implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final ExecutorService executor;
+        private final AtomicInteger acceptedConnections = new AtomicInteger();
+        private final AtomicInteger scans = new AtomicInteger();
+        private final AtomicInteger maxChunkSize = new AtomicInteger();
+        private volatile boolean closeSessionAfterScan = false;
+        private volatile int maxStreamLength = Integer.MAX_VALUE;
+        private volatile long scanDelayMilli = 0;
+
+        FakeClamd() throws IOException {
+            serverSocket = new ServerSocket(0);
+            executor = Executors.newCachedThreadPool();
+            executor.submit(this::acceptLoop);
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private Void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    acceptedConnections.incrementAndGet();
+                    executor.submit(() -> handle(socket));
+                } catch (IOException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        private Void handle(Socket socket) throws Exception {
+            try (Socket client = socket;
+                 DataInputStream in = new DataInputStream(client.getInputStream());
+                 OutputStream out = client.getOutputStream()) {
+                String command = readCommand(in);
+                if (command.equals("PING\n")) {
+                    out.write("PONG\n".getBytes(StandardCharsets.US_ASCII));
+                    return null;
+                }
+                if (!command.equals("zIDSESSION")) {
+                    return null;
+                }
+                int requestNumber = 0;
+                while (true) {
+                    command = readCommand(in);
+                    if (!command.equals("zINSTREAM")) {
+                        return null;
+                    }
+                    requestNumber++;
+                    String content = readStream(in);
+                    Thread.sleep(scanDelayMilli);
+                    scans.incrementAndGet();
+                    out.write((requestNumber + ": " + answer(content) + "\0").getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                    if (closeSessionAfterScan) {
+                        return null;
+                    }
+                }
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        private String answer(String content) {
+            if (content.length() > maxStreamLength) {
+                return "INSTREAM size limit exceeded. ERROR";
+            }
+            if (content.contains(EICAR)) {
+                return "stream: Eicar-Test-Signature FOUND";
+            }
+            return "stream: OK";
+        }
+
+        private String readCommand(DataInputStream in) throws IOException {
+            ByteArrayOutputStream command = new ByteArrayOutputStream();
+            int read = in.read();
+            while (read > 0 && read != '\n') {
+                command.write(read);
+                read = in.read();
+            }
+            if (read < 0) {
+                throw new EOFException();
+            }
+            if (read == '\n') {
+                command.write(read);
+            }
+            return new String(command.toByteArray(), StandardCharsets.US_ASCII);
+        }
+
+        private String readStream(DataInputStream in) throws IOException {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            int chunkSize = in.readInt();
+            while (chunkSize > 0) {
+                maxChunkSize.accumulateAndGet(chunkSize, Math::max);
+                byte[] chunk = new byte[chunkSize];
+                in.readFully(chunk);
+                content.write(chunk);
+                chunkSize = in.readInt();
+            }
+            return new String(content.toByteArray(), StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            executor.shutdownNow();
+        }
+    }
+}
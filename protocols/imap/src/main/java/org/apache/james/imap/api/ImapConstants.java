@@ -59,6 +59,10 @@ public interface ImapConstants {
 
     byte BYTE_CLOSE_BRACE = 0x7D;
 
+    byte BYTE_COMMA = 0x2C;
+
+    byte BYTE_COLON = 0x3A;
+
     char DQUOTE = '\"';
 
     String VERSION = "IMAP4rev1";
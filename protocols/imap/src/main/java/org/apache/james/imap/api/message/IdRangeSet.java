@@ -0,0 +1,220 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.api.message;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Sorted set of msn/uid, stored as primitive ranges of consecutive values.
+ *
+ * This allows handling the results of a search over a large mailbox without boxing each value: a mailbox without
+ * gaps in its uids is represented by a single range.
+ */
+public final class IdRangeSet {
+    public static final long NONE = -1;
+    private static final int INITIAL_CAPACITY = 8;
+
+    public static class Builder {
+        private long[] lows;
+        private long[] highs;
+        private int size;
+        private boolean sorted;
+
+        private Builder() {
+            lows = new long[INITIAL_CAPACITY];
+            highs = new long[INITIAL_CAPACITY];
+            size = 0;
+            sorted = true;
+        }
+
+        /**
+         * Values are expected, but not required, to be added in ascending order.
+         */
+        public Builder add(long id) {
+            if (size > 0) {
+                long lastHigh = highs[size - 1];
+                if (id == lastHigh + 1) {
+                    highs[size - 1] = id;
+                    return this;
+                }
+                if (id >= lows[size - 1] && id <= lastHigh) {
+                    return this;
+                }
+                if (id < lows[size - 1]) {
+                    sorted = false;
+                }
+            }
+            append(id, id);
+            return this;
+        }
+
+        private void append(long low, long high) {
+            if (size == lows.length) {
+                lows = Arrays.copyOf(lows, size * 2);
+                highs = Arrays.copyOf(highs, size * 2);
+            }
+            lows[size] = low;
+            highs[size] = high;
+            size++;
+        }
+
+        public IdRangeSet build() {
+            if (sorted) {
+                return new IdRangeSet(Arrays.copyOf(lows, size), Arrays.copyOf(highs, size));
+            }
+            return mergeUnsorted();
+        }
+
+        private IdRangeSet mergeUnsorted() {
+            int[] order = IntStream.range(0, size)
+                .boxed()
+                .sorted((a, b) -> Long.compare(lows[a], lows[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+            Builder merged = new Builder();
+            for (int index : order) {
+                merged.addRange(lows[index], highs[index]);
+            }
+            return merged.build();
+        }
+
+        private void addRange(long low, long high) {
+            if (size > 0 && low <= highs[size - 1] + 1) {
+                highs[size - 1] = Math.max(highs[size - 1], high);
+            } else {
+                append(low, high);
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static IdRangeSet of(long... ids) {
+        Builder builder = builder();
+        for (long id : ids) {
+            builder.add(id);
+        }
+        return builder.build();
+    }
+
+    private final long[] lows;
+    private final long[] highs;
+
+    private IdRangeSet(long[] lows, long[] highs) {
+        this.lows = lows;
+        this.highs = highs;
+    }
+
+    public boolean isEmpty() {
+        return lows.length == 0;
+    }
+
+    /**
+     * @return the count of msn/uid in this set
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < lows.length; i++) {
+            count += highs[i] - lows[i] + 1;
+        }
+        return count;
+    }
+
+    /**
+     * @return the lowest msn/uid, or {@link #NONE} when empty
+     */
+    public long min() {
+        if (isEmpty()) {
+            return NONE;
+        }
+        return lows[0];
+    }
+
+    /**
+     * @return the highest msn/uid, or {@link #NONE} when empty
+     */
+    public long max() {
+        if (isEmpty()) {
+            return NONE;
+        }
+        return highs[highs.length - 1];
+    }
+
+    public int rangeCount() {
+        return lows.length;
+    }
+
+    public long lowAt(int rangeIndex) {
+        return lows[rangeIndex];
+    }
+
+    public long highAt(int rangeIndex) {
+        return highs[rangeIndex];
+    }
+
+    public LongStream ids() {
+        return IntStream.range(0, lows.length)
+            .mapToObj(i -> LongStream.rangeClosed(lows[i], highs[i]))
+            .flatMapToLong(stream -> stream);
+    }
+
+    public IdRange[] asIdRanges() {
+        IdRange[] ranges = new IdRange[lows.length];
+        for (int i = 0; i < lows.length; i++) {
+            ranges[i] = new IdRange(lows[i], highs[i]);
+        }
+        return ranges;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof IdRangeSet) {
+            IdRangeSet that = (IdRangeSet) o;
+
+            return Arrays.equals(this.lows, that.lows)
+                && Arrays.equals(this.highs, that.highs);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return 31 * Arrays.hashCode(lows) + Arrays.hashCode(highs);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("IdRangeSet[");
+        for (int i = 0; i < lows.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(lows[i]);
+            if (lows[i] != highs[i]) {
+                builder.append(':').append(highs[i]);
+            }
+        }
+        return builder.append(']').toString();
+    }
+}
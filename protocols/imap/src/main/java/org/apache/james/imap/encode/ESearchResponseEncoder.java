@@ -22,8 +22,7 @@ import java.io.IOException;
 import java.util.List;
 
 import org.apache.james.imap.api.Tag;
-import org.apache.james.imap.api.message.IdRange;
-import org.apache.james.imap.api.message.UidRange;
+import org.apache.james.imap.api.message.IdRangeSet;
 import org.apache.james.imap.api.message.request.SearchResultOption;
 import org.apache.james.imap.message.response.ESearchResponse;
 import org.apache.james.mailbox.ModSeq;
@@ -43,8 +42,7 @@ public class ESearchResponseEncoder implements ImapResponseEncoder<ESearchRespon
         long min = response.getMinUid();
         long max = response.getMaxUid();
         long count = response.getCount();
-        IdRange[] all = response.getAll();
-        UidRange[] allUids = response.getAllUids();
+        IdRangeSet all = response.getAll();
         boolean useUid = response.getUseUid();
         ModSeq highestModSeq = response.getHighestModSeq();
         List<SearchResultOption> options = response.getSearchResultOptions();
@@ -62,14 +60,10 @@ public class ESearchResponseEncoder implements ImapResponseEncoder<ESearchRespon
         if (options.contains(SearchResultOption.COUNT)) {
             composer.message(SearchResultOption.COUNT.name()).message(count);
         }
-        if (!useUid && all != null && all.length > 0 && options.contains(SearchResultOption.ALL)) {
+        if (all != null && !all.isEmpty() && options.contains(SearchResultOption.ALL)) {
             composer.message(SearchResultOption.ALL.name());
             composer.sequenceSet(all);
         }
-        if (useUid && allUids != null && allUids.length > 0 && options.contains(SearchResultOption.ALL)) {
-            composer.message(SearchResultOption.ALL.name());
-            composer.sequenceSet(allUids);
-        }
         
         // Add the MODSEQ to the response if needed. 
         //
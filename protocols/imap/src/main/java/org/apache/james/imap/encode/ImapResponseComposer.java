@@ -27,6 +27,7 @@ import org.apache.james.imap.api.ImapCommand;
 import org.apache.james.imap.api.Tag;
 import org.apache.james.imap.api.display.ModifiedUtf7;
 import org.apache.james.imap.api.message.IdRange;
+import org.apache.james.imap.api.message.IdRangeSet;
 import org.apache.james.imap.api.message.UidRange;
 import org.apache.james.imap.message.response.Literal;
 
@@ -113,6 +114,11 @@ public interface ImapResponseComposer {
      * Write the given sequence-set
      */
     ImapResponseComposer sequenceSet(IdRange[] ranges) throws IOException;
+
+    /**
+     * Write the given sequence-set, without building it in memory
+     */
+    ImapResponseComposer sequenceSet(IdRangeSet ids) throws IOException;
     
     /**
      * Write a CRLF and flush the composer which will write the content of it to
@@ -21,6 +21,7 @@ package org.apache.james.imap.encode;
 import java.io.IOException;
 
 import org.apache.james.imap.api.ImapConstants;
+import org.apache.james.imap.api.message.IdRangeSet;
 import org.apache.james.imap.message.response.SearchResponse;
 import org.apache.james.mailbox.ModSeq;
 
@@ -35,13 +36,15 @@ public class SearchResponseEncoder implements ImapResponseEncoder<SearchResponse
 
     @Override
     public void encode(SearchResponse response, ImapResponseComposer composer) throws IOException {
-        final long[] ids = response.getIds();
+        final IdRangeSet ids = response.getIds();
         ModSeq highestModSeq = response.getHighestModSeq();
         composer.untagged();
         composer.commandName(ImapConstants.SEARCH_COMMAND);
         if (ids != null) {
-            for (long id : ids) {
-                composer.message(id);
+            for (int range = 0; range < ids.rangeCount(); range++) {
+                for (long id = ids.lowAt(range); id <= ids.highAt(range); id++) {
+                    composer.message(id);
+                }
             }
         }
         
@@ -29,6 +29,7 @@ import org.apache.james.imap.api.ImapConstants;
 import org.apache.james.imap.api.Tag;
 import org.apache.james.imap.api.display.ModifiedUtf7;
 import org.apache.james.imap.api.message.IdRange;
+import org.apache.james.imap.api.message.IdRangeSet;
 import org.apache.james.imap.api.message.UidRange;
 import org.apache.james.imap.encode.ImapResponseComposer;
 import org.apache.james.imap.encode.ImapResponseWriter;
@@ -46,6 +47,11 @@ public class ImapResponseComposerImpl implements ImapConstants, ImapResponseComp
     public static final String FAILED = "failed.";
     private static final int LOWER_CASE_OFFSET = 'a' - 'A';
     public static final int DEFAULT_BUFFER_SIZE = 2048;
+    /**
+     * Size above which the content of a line being composed is handed to the writer before the line ends, so that
+     * very long lines (SEARCH results for instance) are not held in memory.
+     */
+    public static final int FLUSH_THRESHOLD = 16 * 1024;
     
     
     private final ImapResponseWriter writer;
@@ -204,8 +210,16 @@ public class ImapResponseComposerImpl implements ImapConstants, ImapResponseComp
     public ImapResponseComposer message(long number) throws IOException {
         space();
         writeASCII(Long.toString(number));
+        flushWhenFull();
         return this;
     }
+
+    private void flushWhenFull() throws IOException {
+        if (buffer.size() >= FLUSH_THRESHOLD) {
+            writer.write(buffer.toByteArray());
+            buffer.reset();
+        }
+    }
     
     @Override
     public ImapResponseComposer mailbox(String mailboxName) throws IOException {
@@ -341,4 +355,23 @@ public class ImapResponseComposerImpl implements ImapConstants, ImapResponseComp
         return message(sb.toString());
     }
 
+    @Override
+    public ImapResponseComposer sequenceSet(IdRangeSet ids) throws IOException {
+        space();
+        for (int i = 0; i < ids.rangeCount(); i++) {
+            if (i > 0) {
+                buffer.write(BYTE_COMMA);
+            }
+            long low = ids.lowAt(i);
+            long high = ids.highAt(i);
+            writeASCII(Long.toString(low));
+            if (low != high) {
+                buffer.write(BYTE_COLON);
+                writeASCII(Long.toString(high));
+            }
+            flushWhenFull();
+        }
+        return this;
+    }
+
 }
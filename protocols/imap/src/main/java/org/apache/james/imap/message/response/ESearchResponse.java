@@ -20,56 +20,47 @@
 package org.apache.james.imap.message.response;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.james.imap.api.Tag;
-import org.apache.james.imap.api.message.IdRange;
-import org.apache.james.imap.api.message.UidRange;
+import org.apache.james.imap.api.message.IdRangeSet;
 import org.apache.james.imap.api.message.request.SearchResultOption;
 import org.apache.james.imap.api.message.response.ImapResponseMessage;
 import org.apache.james.mailbox.ModSeq;
 
 public class ESearchResponse implements ImapResponseMessage {
-    private final long minUid;
-    private final long maxUid;
-    private final long count;
-    private final IdRange[] all;
+    private final IdRangeSet all;
     private final Tag tag;
     private final boolean useUid;
     private final List<SearchResultOption> options;
     private final ModSeq highestModSeq;
-    private UidRange[] allUids;
 
-    public ESearchResponse(long minUid, long maxUid, long count, IdRange[] all, UidRange[] allUids, ModSeq highestModSeq, Tag tag, boolean useUid, List<SearchResultOption> options) {
+    public ESearchResponse(IdRangeSet all, ModSeq highestModSeq, Tag tag, boolean useUid, List<SearchResultOption> options) {
         this.options = options;
-        this.minUid = minUid;
-        this.maxUid = maxUid;
-        this.count = count;
-        this.all = all;
+        this.all = Optional.ofNullable(all).orElseGet(IdRangeSet::of);
         this.tag = tag;
-        this.allUids = allUids;
         this.useUid = useUid;
         this.highestModSeq = highestModSeq;
     }
     
     public final long getCount() {
-        return count;
+        return all.count();
     }
     
     public final long getMinUid() {
-        return minUid;
+        return all.min();
     }
     
     public final long getMaxUid() {
-        return maxUid;
+        return all.max();
     }
     
-    public IdRange[] getAll() {
+    /**
+     * @return the matching uids when {@link #getUseUid()}, the matching msn otherwise
+     */
+    public IdRangeSet getAll() {
         return all;
     }
-
-    public UidRange[] getAllUids() {
-        return allUids;
-    }
     
     public Tag getTag() {
         return tag;
@@ -57,18 +57,19 @@ import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.ModSeq;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.exception.MessageRangeException;
-import org.apache.james.mailbox.model.FetchGroup;
 import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageMetaData;
 import org.apache.james.mailbox.model.MessageRange;
 import org.apache.james.mailbox.model.MessageRange.Type;
-import org.apache.james.mailbox.model.MessageResult;
-import org.apache.james.mailbox.model.MessageResultIterator;
 import org.apache.james.mailbox.model.SearchQuery;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.metrics.api.TimeMetric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.Ordering;
+
 public abstract class AbstractMailboxProcessor<R extends ImapRequest> extends AbstractChainedProcessor<R> {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractMailboxProcessor.class);
 
@@ -237,11 +238,11 @@ public abstract class AbstractMailboxProcessor<R extends ImapRequest> extends Ab
                                    MessageRange messageSet, MessageManager mailbox,
                                    boolean isModSeqPermanent,
                                    MailboxSession mailboxSession) throws MailboxException {
-        final MessageResultIterator it = mailbox.getMessages(messageSet, FetchGroup.MINIMAL,  mailboxSession);
+        final Iterator<MessageMetaData> it = mailbox.listMessagesMetadata(messageSet, Optional.empty(), mailboxSession);
         final boolean qresyncEnabled = EnableProcessor.getEnabledCapabilities(session).contains(ImapConstants.SUPPORTS_QRESYNC);
         final boolean condstoreEnabled = EnableProcessor.getEnabledCapabilities(session).contains(ImapConstants.SUPPORTS_CONDSTORE);
         while (it.hasNext()) {
-            MessageResult mr = it.next();
+            MessageMetaData mr = it.next();
             final MessageUid uid = mr.getUid();
             int msn = selected.msn(uid);
             if (msn == SelectedMailbox.NO_SUCH_MESSAGE) {
@@ -545,6 +546,16 @@ public abstract class AbstractMailboxProcessor<R extends ImapRequest> extends Ab
         //      as above.  In the case where there have been no expunges, the server
         //      can ignore this data.
         if (metaData.getHighestModSeq().asLong() > changedSince) {
+            Optional<List<MessageRange>> expungedSince = mailbox.getExpungedUidsSince(ModSeq.of(changedSince), session);
+            if (expungedSince.isPresent()) {
+                respondVanished(ranges, expungedSince.get(), responder);
+                return;
+            }
+
+            // RFC5162 4.1. Server Implementations That Don't Store Extra State
+            //
+            //      The expunges which happened since this mod-sequence are not known anymore: report every uid of the
+            //      requested ranges which is not in the mailbox.
             SearchQuery searchQuery = new SearchQuery();
             SearchQuery.UidRange[] nRanges = new SearchQuery.UidRange[ranges.size()];
             Set<MessageUid> vanishedUids = new HashSet<>();
@@ -578,6 +589,26 @@ public abstract class AbstractMailboxProcessor<R extends ImapRequest> extends Ab
     }
     
     
+    private void respondVanished(List<MessageRange> requestedRanges, List<MessageRange> expungedRanges, Responder responder) {
+        List<UidRange> vanishedRanges = expungedRanges.stream()
+            .flatMap(expunged -> requestedRanges.stream()
+                .flatMap(requested -> intersection(requested, expunged)))
+            .collect(Guavate.toImmutableList());
+
+        if (!vanishedRanges.isEmpty()) {
+            responder.respond(new VanishedResponse(UidRange.mergeRanges(vanishedRanges).toArray(new UidRange[0]), true));
+        }
+    }
+
+    private Stream<UidRange> intersection(MessageRange requested, MessageRange expunged) {
+        MessageUid from = Ordering.natural().max(requested.getUidFrom(), expunged.getUidFrom());
+        MessageUid to = Ordering.natural().min(requested.getUidTo(), expunged.getUidTo());
+        if (from.compareTo(to) > 0) {
+            return Stream.empty();
+        }
+        return Stream.of(new UidRange(from, to));
+    }
+
     // TODO: Do we need to handle wildcards here ?
     protected UidRange[] uidRanges(Collection<MessageRange> mRanges) {
         UidRange[] idRanges = new UidRange[mRanges.size()];
@@ -21,10 +21,10 @@ package org.apache.james.imap.processor;
 
 import java.io.Closeable;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import javax.mail.Flags.Flag;
@@ -33,6 +33,7 @@ import org.apache.james.imap.api.ImapConstants;
 import org.apache.james.imap.api.display.HumanReadableText;
 import org.apache.james.imap.api.message.Capability;
 import org.apache.james.imap.api.message.IdRange;
+import org.apache.james.imap.api.message.IdRangeSet;
 import org.apache.james.imap.api.message.UidRange;
 import org.apache.james.imap.api.message.request.DayMonthYear;
 import org.apache.james.imap.api.message.request.SearchKey;
@@ -95,8 +96,8 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
             final SearchQuery query = toQuery(searchKey, session);
             MailboxSession msession = session.getMailboxSession();
 
-            final Collection<MessageUid> uids = performUidSearch(mailbox, query, msession);
-            final Collection<Long> results = asResults(session, useUids, uids);
+            final SearchResults results = performSearch(session, mailbox, query, msession, useUids);
+            final IdRangeSet ids = results.ids;
 
             // Check if the search did contain the MODSEQ searchkey. If so we need to include the highest mod in the response.
             //
@@ -104,7 +105,7 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
             final ModSeq highestModSeq;
             if (session.getAttribute(SEARCH_MODSEQ) != null) {
                 MetaData metaData = mailbox.getMetaData(false, msession, MessageManager.MetaData.FetchGroup.NO_COUNT);
-                highestModSeq = findHighestModSeq(msession, mailbox, MessageRange.toRanges(uids), metaData.getHighestModSeq());
+                highestModSeq = findHighestModSeq(msession, mailbox, toMessageRanges(results.uids), metaData.getHighestModSeq());
                 
                 // Enable CONDSTORE as this is a CONDSTORE enabling command
                 condstoreEnablingCommand(session, responder,  metaData, true);                
@@ -112,29 +113,11 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
             } else {
                 highestModSeq = null;
             }
-            final long[] ids = toArray(results);
 
             final ImapResponseMessage response;
             if (resultOptions == null || resultOptions.isEmpty()) {
                 response = new SearchResponse(ids, highestModSeq);
             } else {
-                List<Long> idList = new ArrayList<>(ids.length);
-                for (long id : ids) {
-                    idList.add(id);
-                }
-
-                List<IdRange> idsAsRanges = new ArrayList<>();
-                for (Long id: idList) {
-                    idsAsRanges.add(new IdRange(id));
-                }
-                IdRange[] idRanges = IdRange.mergeRanges(idsAsRanges).toArray(new IdRange[0]);
-                
-                List<UidRange> uidsAsRanges = new ArrayList<>();
-                for (MessageUid uid: uids) {
-                    uidsAsRanges.add(new UidRange(uid));
-                }
-                UidRange[] uidRanges = UidRange.mergeRanges(uidsAsRanges).toArray(new UidRange[0]);
-                
                 boolean esearch = false;
                 for (SearchResultOption resultOption : resultOptions) {
                     if (SearchResultOption.SAVE != resultOption) {
@@ -144,38 +127,28 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
                 }
                 
                 if (esearch) {
-                    long min = -1;
-                    long max = -1;
-                    long count = ids.length;
-
-                    if (ids.length > 0) {
-                        min = ids[0];
-                        max = ids[ids.length - 1];
-                    } 
-                   
-                    
                     // Save the sequence-set for later usage. This is part of SEARCHRES 
                     if (resultOptions.contains(SearchResultOption.SAVE)) {
                         if (resultOptions.contains(SearchResultOption.ALL) || resultOptions.contains(SearchResultOption.COUNT)) {
                             // if the options contain ALL or COUNT we need to save the complete sequence-set
-                            SearchResUtil.saveSequenceSet(session, idRanges);
+                            SearchResUtil.saveSequenceSet(session, ids.asIdRanges());
                         } else {
                             List<IdRange> savedRanges = new ArrayList<>();
                             if (resultOptions.contains(SearchResultOption.MIN)) {
                                 // Store the MIN
-                                savedRanges.add(new IdRange(min));  
+                                savedRanges.add(new IdRange(ids.min()));
                             } 
                             if (resultOptions.contains(SearchResultOption.MAX)) {
                                 // Store the MAX
-                                savedRanges.add(new IdRange(max));
+                                savedRanges.add(new IdRange(ids.max()));
                             }
                             SearchResUtil.saveSequenceSet(session, savedRanges.toArray(new IdRange[0]));
                         }
                     }
-                    response = new ESearchResponse(min, max, count, idRanges, uidRanges, highestModSeq, request.getTag(), useUids, resultOptions);
+                    response = new ESearchResponse(ids, highestModSeq, request.getTag(), useUids, resultOptions);
                 } else {
                     // Just save the returned sequence-set as this is not SEARCHRES + ESEARCH
-                    SearchResUtil.saveSequenceSet(session, idRanges);
+                    SearchResUtil.saveSequenceSet(session, ids.asIdRanges());
                     response = new SearchResponse(ids, highestModSeq);
 
                 }
@@ -204,28 +177,49 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
         }
     }
 
-    private Collection<Long> asResults(ImapSession session, boolean useUids, Collection<MessageUid> uids) {
-        if (useUids) {
-            return uids.stream()
-                .map(MessageUid::asLong)
-                .collect(Guavate.toImmutableList());
-        } else {
-            return uids.stream()
-                .map(uid -> session.getSelected().msn(uid))
-                .map(Integer::longValue)
-                .filter(msn -> msn != SelectedMailbox.NO_SUCH_MESSAGE)
-                .collect(Guavate.toImmutableList());
+    /**
+     * Matching uids, and the matching ids to return to the client: the uids themselves, or their msn.
+     *
+     * Both are accumulated in range compressed primitive sets as the search results are streamed, without being
+     * materialized.
+     */
+    private static class SearchResults {
+        private final IdRangeSet uids;
+        private final IdRangeSet ids;
+
+        private SearchResults(IdRangeSet uids, IdRangeSet ids) {
+            this.uids = uids;
+            this.ids = ids;
         }
     }
 
-    private Collection<MessageUid> performUidSearch(MessageManager mailbox, SearchQuery query, MailboxSession msession) throws MailboxException {
+    private SearchResults performSearch(ImapSession session, MessageManager mailbox, SearchQuery query, MailboxSession msession, boolean useUids) throws MailboxException {
+        IdRangeSet.Builder uids = IdRangeSet.builder();
+        IdRangeSet.Builder msns = IdRangeSet.builder();
+        SelectedMailbox selected = session.getSelected();
+
         try (Stream<MessageUid> stream = mailbox.search(query, msession)) {
-            return stream.collect(Guavate.toImmutableList());
+            stream.forEach(uid -> {
+                uids.add(uid.asLong());
+                if (!useUids) {
+                    int msn = selected.msn(uid);
+                    if (msn != SelectedMailbox.NO_SUCH_MESSAGE) {
+                        msns.add(msn);
+                    }
+                }
+            });
+        }
+        IdRangeSet uidSet = uids.build();
+        if (useUids) {
+            return new SearchResults(uidSet, uidSet);
         }
+        return new SearchResults(uidSet, msns.build());
     }
 
-    private long[] toArray(Collection<Long> results) {
-        return results.stream().mapToLong(x -> x).toArray();
+    private List<MessageRange> toMessageRanges(IdRangeSet uids) {
+        return IntStream.range(0, uids.rangeCount())
+            .mapToObj(i -> MessageRange.range(MessageUid.of(uids.lowAt(i)), MessageUid.of(uids.highAt(i))))
+            .collect(Guavate.toImmutableList());
     }
 
     /**
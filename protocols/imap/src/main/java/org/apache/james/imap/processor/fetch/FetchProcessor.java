@@ -21,7 +21,9 @@ package org.apache.james.imap.processor.fetch;
 
 import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.james.imap.api.ImapConstants;
 import org.apache.james.imap.api.display.HumanReadableText;
@@ -39,9 +41,11 @@ import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageManager;
 import org.apache.james.mailbox.MessageManager.MetaData;
+import org.apache.james.mailbox.ModSeq;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.exception.MessageRangeException;
 import org.apache.james.mailbox.model.FetchGroup;
+import org.apache.james.mailbox.model.MessageMetaData;
 import org.apache.james.mailbox.model.MessageRange;
 import org.apache.james.mailbox.model.MessageResult;
 import org.apache.james.mailbox.model.MessageResultIterator;
@@ -142,6 +146,11 @@ public class FetchProcessor extends AbstractMailboxProcessor<FetchRequest> {
         final FetchResponseBuilder builder = new FetchResponseBuilder(new EnvelopeBuilder());
         FetchGroup resultToFetch = FetchDataConverter.getFetchGroup(fetch);
 
+        if (resultToFetch.equals(FetchGroup.MINIMAL) && !fetch.isSetSeen()) {
+            processMessageRangesMetadata(session, mailbox, ranges, fetch, mailboxSession, responder, builder);
+            return;
+        }
+
         for (MessageRange range : ranges) {
             MessageResultIterator messages = mailbox.getMessages(range, resultToFetch, mailboxSession);
             while (messages.hasNext()) {
@@ -176,6 +185,30 @@ public class FetchProcessor extends AbstractMailboxProcessor<FetchRequest> {
 
     }
 
+    /**
+     * Serves fetches requesting only metadata (UID, FLAGS, MODSEQ, INTERNALDATE, RFC822.SIZE) without loading
+     * the messages. CHANGEDSINCE is filtered at the mailbox level.
+     */
+    private void processMessageRangesMetadata(ImapSession session, MessageManager mailbox, List<MessageRange> ranges, FetchData fetch, MailboxSession mailboxSession, Responder responder, FetchResponseBuilder builder) throws MailboxException {
+        Optional<ModSeq> changedSince = Optional.of(fetch.getChangedSince())
+            .filter(value -> fetch.contains(Item.MODSEQ) && value != -1)
+            .map(ModSeq::of);
+
+        for (MessageRange range : ranges) {
+            Iterator<MessageMetaData> metaDataIterator = mailbox.listMessagesMetadata(range, changedSince, mailboxSession);
+            while (metaDataIterator.hasNext()) {
+                MessageMetaData metaData = metaDataIterator.next();
+                try {
+                    responder.respond(builder.build(fetch, metaData, session));
+                } catch (MessageRangeException e) {
+                    // we can't for whatever reason find the message so
+                    // just skip it and log it to debug
+                    LOGGER.debug("Unable to find message with uid {}", metaData.getUid(), e);
+                }
+            }
+        }
+    }
+
 
     @Override
     protected Closeable addContextToMDC(FetchRequest request) {
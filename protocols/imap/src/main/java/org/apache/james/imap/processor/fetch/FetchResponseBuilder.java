@@ -46,6 +46,7 @@ import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.exception.MessageRangeException;
 import org.apache.james.mailbox.model.Content;
 import org.apache.james.mailbox.model.Header;
+import org.apache.james.mailbox.model.MessageMetaData;
 import org.apache.james.mailbox.model.MessageRange;
 import org.apache.james.mailbox.model.MessageResult;
 import org.apache.james.mailbox.model.MimePath;
@@ -187,19 +188,58 @@ public final class FetchResponseBuilder {
             setUid(resultUid);
         }
 
-        
+        // MODSEQ response
+        setModSeqIfRequested(fetch, result.getModSeq());
+        return build();
+    }
+
+    /**
+     * Builds the response from the metadata of a message, when none of its content was requested.
+     */
+    public FetchResponse build(FetchData fetch, MessageMetaData metaData, ImapSession session) throws MessageRangeException {
+        final SelectedMailbox selected = session.getSelected();
+        final MessageUid resultUid = metaData.getUid();
+        final int resultMsn = selected.msn(resultUid);
+
+        if (resultMsn == SelectedMailbox.NO_SUCH_MESSAGE) {
+            throw new MessageRangeException("No such message found with uid " + resultUid);
+        }
+
+        reset(resultMsn);
+
+        if (fetch.contains(Item.FLAGS)) {
+            Flags resultFlags = new Flags(metaData.getFlags());
+            if (selected.isRecent(resultUid)) {
+                resultFlags.add(Flags.Flag.RECENT);
+            }
+            setFlags(resultFlags);
+        }
+        if (fetch.contains(Item.INTERNAL_DATE)) {
+            setInternalDate(metaData.getInternalDate());
+        }
+        if (fetch.contains(Item.SIZE)) {
+            setSize(metaData.getSize());
+        }
+        this.elements = new ArrayList<>();
+        if (fetch.contains(Item.UID)) {
+            setUid(resultUid);
+        }
+        setModSeqIfRequested(fetch, metaData.getModSeq());
+        return build();
+    }
+
+    private void setModSeqIfRequested(FetchData fetch, ModSeq modSeq) {
         if (fetch.contains(Item.MODSEQ)) {
             long changedSince = fetch.getChangedSince();
             if (changedSince != -1) {
                 // check if the modsequence if higher then the one specified by the CHANGEDSINCE option
-                if (changedSince < result.getModSeq().asLong()) {
-                    setModSeq(result.getModSeq());
+                if (changedSince < modSeq.asLong()) {
+                    setModSeq(modSeq);
                 }
             } else {
-                setModSeq(result.getModSeq());
+                setModSeq(modSeq);
             }
         }
-        return build();
     }
 
     private FetchResponse.Envelope buildEnvelope(MessageResult result) throws MailboxException {
@@ -0,0 +1,81 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.api.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+public class IdRangeSetTest {
+
+    @Test
+    public void shouldMatchBeanContract() {
+        EqualsVerifier.forClass(IdRangeSet.class)
+            .verify();
+    }
+
+    @Test
+    public void emptySetShouldHaveNoMinNorMax() {
+        IdRangeSet ids = IdRangeSet.of();
+
+        assertThat(ids.isEmpty()).isTrue();
+        assertThat(ids.count()).isEqualTo(0);
+        assertThat(ids.min()).isEqualTo(IdRangeSet.NONE);
+        assertThat(ids.max()).isEqualTo(IdRangeSet.NONE);
+    }
+
+    @Test
+    public void consecutiveIdsShouldBeStoredAsASingleRange() {
+        IdRangeSet ids = IdRangeSet.of(1, 2, 3, 4);
+
+        assertThat(ids.rangeCount()).isEqualTo(1);
+        assertThat(ids.count()).isEqualTo(4);
+        assertThat(ids.asIdRanges()).containsExactly(new IdRange(1, 4));
+    }
+
+    @Test
+    public void gapsShouldStartNewRanges() {
+        IdRangeSet ids = IdRangeSet.of(1, 2, 5, 7, 8);
+
+        assertThat(ids.asIdRanges()).containsExactly(new IdRange(1, 2), new IdRange(5), new IdRange(7, 8));
+        assertThat(ids.min()).isEqualTo(1);
+        assertThat(ids.max()).isEqualTo(8);
+        assertThat(ids.count()).isEqualTo(5);
+    }
+
+    @Test
+    public void unorderedIdsShouldBeSortedAndMerged() {
+        IdRangeSet ids = IdRangeSet.of(7, 1, 3, 2, 8, 2, 5);
+
+        assertThat(ids).isEqualTo(IdRangeSet.of(1, 2, 3, 5, 7, 8));
+    }
+
+    @Test
+    public void duplicatedIdsShouldBeIgnored() {
+        assertThat(IdRangeSet.of(1, 1, 2, 2).count()).isEqualTo(2);
+    }
+
+    @Test
+    public void idsShouldStreamEveryValue() {
+        assertThat(IdRangeSet.of(1, 2, 5, 7, 8).ids()).containsExactly(1L, 2L, 5L, 7L, 8L);
+    }
+}
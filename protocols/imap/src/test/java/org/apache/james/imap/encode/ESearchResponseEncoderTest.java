@@ -0,0 +1,80 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.encode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.james.imap.api.Tag;
+import org.apache.james.imap.api.message.IdRangeSet;
+import org.apache.james.imap.api.message.request.SearchResultOption;
+import org.apache.james.imap.encode.base.ByteImapResponseWriter;
+import org.apache.james.imap.encode.base.ImapResponseComposerImpl;
+import org.apache.james.imap.message.response.ESearchResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class ESearchResponseEncoderTest {
+    private static final Tag TAG = new Tag("A1");
+    private static final IdRangeSet IDS = IdRangeSet.of(2, 3, 4, 8, 10, 11);
+
+    private ESearchResponseEncoder encoder;
+    private ByteImapResponseWriter writer;
+    private ImapResponseComposer composer;
+
+    @Before
+    public void setUp() {
+        encoder = new ESearchResponseEncoder();
+        writer = new ByteImapResponseWriter();
+        composer = new ImapResponseComposerImpl(writer);
+    }
+
+    @Test
+    public void encodeShouldWriteMinMaxCountAndAll() throws Exception {
+        encoder.encode(new ESearchResponse(IDS, null, TAG, false,
+            ImmutableList.of(SearchResultOption.MIN, SearchResultOption.MAX, SearchResultOption.COUNT, SearchResultOption.ALL)), composer);
+
+        assertThat(writer.getString()).isEqualTo("* ESEARCH (TAG \"A1\") MIN 2 MAX 11 COUNT 6 ALL 2:4,8,10:11\r\n");
+    }
+
+    @Test
+    public void encodeShouldWriteUidWhenUseUid() throws Exception {
+        encoder.encode(new ESearchResponse(IDS, null, TAG, true, ImmutableList.of(SearchResultOption.ALL)), composer);
+
+        assertThat(writer.getString()).isEqualTo("* ESEARCH (TAG \"A1\") UID ALL 2:4,8,10:11\r\n");
+    }
+
+    @Test
+    public void encodeShouldOmitMinMaxAndAllWhenNoResult() throws Exception {
+        encoder.encode(new ESearchResponse(IdRangeSet.of(), null, TAG, false,
+            ImmutableList.of(SearchResultOption.MIN, SearchResultOption.MAX, SearchResultOption.COUNT, SearchResultOption.ALL)), composer);
+
+        assertThat(writer.getString()).isEqualTo("* ESEARCH (TAG \"A1\") COUNT 0\r\n");
+    }
+
+    @Test
+    public void encodeShouldTreatMissingIdsAsNoResult() throws Exception {
+        encoder.encode(new ESearchResponse(null, null, TAG, false,
+            ImmutableList.of(SearchResultOption.MIN, SearchResultOption.MAX, SearchResultOption.COUNT, SearchResultOption.ALL)), composer);
+
+        assertThat(writer.getString()).isEqualTo("* ESEARCH (TAG \"A1\") COUNT 0\r\n");
+    }
+}
@@ -21,6 +21,10 @@ package org.apache.james.imap.encode;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.apache.james.imap.api.message.IdRangeSet;
 import org.apache.james.imap.encode.base.ByteImapResponseWriter;
 import org.apache.james.imap.encode.base.ImapResponseComposerImpl;
 import org.apache.james.imap.message.response.SearchResponse;
@@ -38,7 +42,7 @@ public class SearchResponseEncoderTest {
 
     @Before
     public void setUp() throws Exception {
-        response = new SearchResponse(IDS, null);
+        response = new SearchResponse(IdRangeSet.of(IDS), null);
         encoder = new SearchResponseEncoder();
     }
 
@@ -52,4 +56,23 @@ public class SearchResponseEncoderTest {
         encoder.encode(response, composer);
         assertThat(writer.getString()).isEqualTo("* SEARCH 1 4 9 16\r\n");
     }
+
+    @Test
+    public void encodeShouldWriteEachIdOfRanges() throws Exception {
+        encoder.encode(new SearchResponse(IdRangeSet.of(1, 2, 3, 7, 8), null), composer);
+        assertThat(writer.getString()).isEqualTo("* SEARCH 1 2 3 7 8\r\n");
+    }
+
+    @Test
+    public void encodeShouldSupportResultsLargerThanTheComposerBuffer() throws Exception {
+        IdRangeSet.Builder ids = IdRangeSet.builder();
+        LongStream.rangeClosed(1, 100_000).forEach(ids::add);
+
+        encoder.encode(new SearchResponse(ids.build(), null), composer);
+
+        String expected = LongStream.rangeClosed(1, 100_000)
+            .mapToObj(Long::toString)
+            .collect(Collectors.joining(" ", "* SEARCH ", "\r\n"));
+        assertThat(writer.getString()).isEqualTo(expected);
+    }
 }
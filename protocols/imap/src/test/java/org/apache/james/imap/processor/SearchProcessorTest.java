@@ -43,6 +43,7 @@ import org.apache.james.core.Username;
 import org.apache.james.imap.api.ImapConstants;
 import org.apache.james.imap.api.display.HumanReadableText;
 import org.apache.james.imap.api.message.IdRange;
+import org.apache.james.imap.api.message.IdRangeSet;
 import org.apache.james.imap.api.message.UidRange;
 import org.apache.james.imap.api.message.request.DayMonthYear;
 import org.apache.james.imap.api.message.request.SearchKey;
@@ -85,7 +86,7 @@ public class SearchProcessorTest {
 
     private static final String KEYWORD = "BD3";
 
-    private static final long[] EMPTY = {};
+    private static final IdRangeSet EMPTY = IdRangeSet.of();
 
     private static final String ADDRESS = "John Smith <john@example.org>";
 
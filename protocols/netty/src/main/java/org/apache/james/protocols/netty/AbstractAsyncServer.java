@@ -28,6 +28,9 @@ import java.util.concurrent.ThreadFactory;
 import org.apache.james.protocols.api.ProtocolServer;
 import org.apache.james.util.concurrent.NamedThreadFactory;
 import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.buffer.ChannelBufferFactory;
+import org.jboss.netty.buffer.DirectChannelBufferFactory;
+import org.jboss.netty.buffer.HeapChannelBufferFactory;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelPipelineFactory;
 import org.jboss.netty.channel.group.ChannelGroup;
@@ -55,6 +58,8 @@ public abstract class AbstractAsyncServer implements ProtocolServer {
     private final ChannelGroup channels = new DefaultChannelGroup();
 
     private volatile int ioWorker = DEFAULT_IO_WORKER_COUNT;
+
+    private volatile boolean useDirectBuffers = false;
     
     private List<InetSocketAddress> addresses = new ArrayList<>();
     
@@ -75,6 +80,36 @@ public abstract class AbstractAsyncServer implements ProtocolServer {
         this.ioWorker = ioWorker;
     }
 
+    /**
+     * Allocate the buffers of the accepted channels off-heap, slicing them out of pre-allocated direct chunks. This
+     * lowers heap allocation and garbage collection pressure with many concurrent connections. It saves no copy: Netty
+     * 3 already reads into and writes from its own pooled native buffers, whatever the buffer factory. Default is false.
+     *
+     * Only the buffer factory changes: released buffers are not recycled through a pooled allocator, the NIO transport
+     * is kept (no native epoll) and the protocol handlers still run behind the execution handler rather than on the
+     * event loop.
+     */
+    public void setUseDirectBuffers(boolean useDirectBuffers) {
+        if (started) {
+            throw new IllegalStateException("Can only be set when the server is not running");
+        }
+        this.useDirectBuffers = useDirectBuffers;
+    }
+
+    public boolean isUsingDirectBuffers() {
+        return useDirectBuffers;
+    }
+
+    /**
+     * Return the {@link ChannelBufferFactory} of the accepted channels
+     */
+    public ChannelBufferFactory getBufferFactory() {
+        if (useDirectBuffers) {
+            return DirectChannelBufferFactory.getInstance();
+        }
+        return HeapChannelBufferFactory.getInstance();
+    }
+
     @Override
     public synchronized void bind() throws Exception {
         if (started) {
@@ -107,6 +142,7 @@ public abstract class AbstractAsyncServer implements ProtocolServer {
         bootstrap.setOption("backlog", backlog);
         bootstrap.setOption("reuseAddress", true);
         bootstrap.setOption("child.tcpNoDelay", true);
+        bootstrap.setOption("child.bufferFactory", getBufferFactory());
     }
     
     protected ServerSocketChannelFactory createSocketChannelFactory() {
@@ -0,0 +1,112 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.netty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelPipelineFactory;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.channel.group.ChannelGroup;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AbstractAsyncServerTest {
+
+    private static class RecordingServer extends AbstractAsyncServer {
+        private final CompletableFuture<ChannelBuffer> received = new CompletableFuture<>();
+
+        @Override
+        protected ChannelPipelineFactory createPipelineFactory(ChannelGroup group) {
+            return () -> Channels.pipeline(new SimpleChannelUpstreamHandler() {
+                @Override
+                public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) {
+                    received.complete((ChannelBuffer) e.getMessage());
+                }
+            });
+        }
+
+        ChannelBuffer receivedBuffer() throws Exception {
+            return received.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private RecordingServer server;
+
+    @Before
+    public void setup() {
+        server = new RecordingServer();
+        server.setListenAddresses(new InetSocketAddress("127.0.0.1", 0));
+    }
+
+    @After
+    public void teardown() {
+        server.unbind();
+    }
+
+    @Test
+    public void receivedBuffersShouldBeDirectWhenUsingDirectBuffers() throws Exception {
+        server.setUseDirectBuffers(true);
+        server.bind();
+
+        send("HELO\r\n");
+
+        assertThat(server.receivedBuffer().isDirect()).isTrue();
+    }
+
+    @Test
+    public void receivedBuffersShouldBeOnHeapByDefault() throws Exception {
+        server.bind();
+
+        send("HELO\r\n");
+
+        assertThat(server.receivedBuffer().isDirect()).isFalse();
+    }
+
+    @Test
+    public void setUseDirectBuffersShouldThrowWhenServerIsRunning() throws Exception {
+        server.bind();
+
+        assertThatThrownBy(() -> server.setUseDirectBuffers(true))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    private void send(String data) throws Exception {
+        try (Socket socket = new Socket()) {
+            socket.connect(server.getListenAddresses().get(0));
+            OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(data.getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            server.receivedBuffer();
+        }
+    }
+}
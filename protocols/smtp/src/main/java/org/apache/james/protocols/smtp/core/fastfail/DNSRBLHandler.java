@@ -22,6 +22,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.StringTokenizer;
 
 import org.apache.james.core.MailAddress;
@@ -124,43 +125,39 @@ public class DNSRBLHandler implements RcptHook {
             String reversedOctets = sb.toString();
 
             if (whitelist != null) {
-                String[] rblList = whitelist;
-                for (String rbl : rblList) {
-                    if (resolve(reversedOctets + rbl)) {
-                        LOGGER.info("Connection from {} whitelisted by {}", ipAddress, rbl);
-                        return;
-                    } else {
-                        LOGGER.debug("IpAddress {} not listed on {}", session.getRemoteAddress().getAddress(), rbl);
-                    }
+                Optional<String> listingRbl = findListingRbl(reversedOctets, whitelist);
+                if (listingRbl.isPresent()) {
+                    LOGGER.info("Connection from {} whitelisted by {}", ipAddress, listingRbl.get());
+                    return;
+                } else {
+                    LOGGER.debug("IpAddress {} not listed on any whitelist", session.getRemoteAddress().getAddress());
                 }
             }
 
             if (blacklist != null) {
-                String[] rblList = blacklist;
-                for (String rbl : rblList) {
-                    if (resolve(reversedOctets + rbl)) {
-                        LOGGER.info("Connection from {} restricted by {} to SMTP AUTH/postmaster/abuse.", ipAddress, rbl);
-
-                        // we should try to retrieve details
-                        if (getDetail) {
-                            Collection<String> txt = resolveTXTRecords(reversedOctets + rbl);
-
-                            // Check if we found a txt record
-                            if (!txt.isEmpty()) {
-                                // Set the detail
-                                String blocklistedDetail = txt.iterator().next().toString();
-
-                                session.setAttachment(RBL_DETAIL_MAIL_ATTRIBUTE_NAME, blocklistedDetail, State.Connection);
-                            }
-                        }
+                Optional<String> listingRbl = findListingRbl(reversedOctets, blacklist);
+                if (listingRbl.isPresent()) {
+                    String rbl = listingRbl.get();
+                    LOGGER.info("Connection from {} restricted by {} to SMTP AUTH/postmaster/abuse.", ipAddress, rbl);
+
+                    // we should try to retrieve details
+                    if (getDetail) {
+                        Collection<String> txt = resolveTXTRecords(reversedOctets + rbl);
 
-                        session.setAttachment(RBL_BLOCKLISTED_MAIL_ATTRIBUTE_NAME, "true", State.Connection);
-                        return;
-                    } else {
-                        // if it is unknown, it isn't blocked
-                        LOGGER.debug("unknown host exception thrown: {}", rbl);
+                        // Check if we found a txt record
+                        if (!txt.isEmpty()) {
+                            // Set the detail
+                            String blocklistedDetail = txt.iterator().next().toString();
+
+                            session.setAttachment(RBL_DETAIL_MAIL_ATTRIBUTE_NAME, blocklistedDetail, State.Connection);
+                        }
                     }
 
+                    session.setAttachment(RBL_BLOCKLISTED_MAIL_ATTRIBUTE_NAME, "true", State.Connection);
+                    return;
+                } else {
+                    // if it is unknown, it isn't blocked
+                    LOGGER.debug("IpAddress {} not listed on any blacklist", session.getRemoteAddress().getAddress());
                 }
             }
         }
@@ -194,6 +191,24 @@ public class DNSRBLHandler implements RcptHook {
         return HookResult.DECLINED;
     }
 
+    /**
+     * Return the first rbl server of the given list on which the reversed ip address is listed.
+     *
+     * This implementation checks the servers one after the other using {@link #resolve(String)}. Sub-classes may override
+     * this to query them concurrently.
+     *
+     * @return the listing rbl server, if any
+     */
+    protected Optional<String> findListingRbl(String reversedOctets, String[] rblList) {
+        for (String rbl : rblList) {
+            if (resolve(reversedOctets + rbl)) {
+                return Optional.of(rbl);
+            }
+            LOGGER.debug("{} not listed on {}", reversedOctets, rbl);
+        }
+        return Optional.empty();
+    }
+
     /**
      * Check if the given ipaddress is resolvable. 
      * 
@@ -19,12 +19,15 @@
 
 package org.apache.james.blob.api;
 
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import com.google.common.io.Closeables;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -84,12 +87,38 @@ public interface Store<T, I> {
             }
         }
 
+        /**
+         * Streams its content to the {@link BlobStore}. The stream is closed once saved, allowing encoders to release
+         * the resources backing it.
+         */
+        public static class InputStreamToSave implements ValueToSave {
+            private final InputStream inputStream;
+            private final BlobStore.StoragePolicy storagePolicy;
+
+            public InputStreamToSave(InputStream inputStream, BlobStore.StoragePolicy storagePolicy) {
+                this.inputStream = inputStream;
+                this.storagePolicy = storagePolicy;
+            }
+
+            @Override
+            public Mono<BlobId> saveIn(BucketName bucketName, BlobStore blobStore) {
+                return Mono.using(
+                    () -> inputStream,
+                    stream -> blobStore.save(bucketName, stream, storagePolicy),
+                    Closeables::closeQuietly);
+            }
+        }
+
         public interface Encoder<T> {
             Stream<Pair<BlobType, ValueToSave>> encode(T t);
         }
 
         public interface Decoder<T> {
-            T decode(Stream<Pair<BlobType, byte[]>> streams);
+            /**
+             * Builds the value out of the streamed content of its blobs. Implementations are responsible for closing
+             * these streams.
+             */
+            T decode(Stream<Pair<BlobType, InputStream>> streams);
         }
 
         private final BlobPartsId.Factory<I> idFactory;
@@ -122,7 +151,7 @@ public interface Store<T, I> {
             return Flux.fromIterable(blobIds.asMap().entrySet())
                 .publishOn(Schedulers.elastic())
                 .flatMapSequential(
-                    entry -> blobStore.readBytes(blobStore.getDefaultBucketName(), entry.getValue())
+                    entry -> Mono.fromCallable(() -> blobStore.read(blobStore.getDefaultBucketName(), entry.getValue()))
                         .zipWith(Mono.just(entry.getKey())))
                 .map(entry -> Pair.of(entry.getT2(), entry.getT1()))
                 .collectList()
@@ -19,18 +19,16 @@
 
 package org.apache.james.blob.mail;
 
-import static org.apache.commons.io.output.NullOutputStream.NULL_OUTPUT_STREAM;
 import static org.apache.james.blob.api.BlobStore.StoragePolicy.LOW_COST;
 import static org.apache.james.blob.api.BlobStore.StoragePolicy.SIZE_BASED;
 import static org.apache.james.blob.mail.MimeMessagePartsId.BODY_BLOB_TYPE;
 import static org.apache.james.blob.mail.MimeMessagePartsId.HEADER_BLOB_TYPE;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
-import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Properties;
 import java.util.stream.Stream;
@@ -40,17 +38,20 @@ import javax.mail.MessagingException;
 import javax.mail.Session;
 import javax.mail.internet.MimeMessage;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.Store;
 import org.apache.james.blob.api.Store.BlobType;
 import org.apache.james.util.BodyOffsetInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.FileBackedOutputStream;
 
 public class MimeMessageStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MimeMessageStore.class);
 
     public static class Factory {
         private final BlobStore blobStore;
@@ -69,77 +70,96 @@ public class MimeMessageStore {
         }
     }
 
+    /**
+     * Splits the message at the body start while streaming it: the headers, which are small, are read in memory while
+     * the body is streamed to the {@link BlobStore}.
+     *
+     * As {@link MimeMessage#writeTo(java.io.OutputStream)} pushes its content, it is staged in a
+     * {@link FileBackedOutputStream}, only holding in memory the first {@link #FILE_THRESHOLD} bytes of the message.
+     */
     static class MimeMessageEncoder implements Store.Impl.Encoder<MimeMessage> {
+        static final int FILE_THRESHOLD = 100 * 1024;
+
         @Override
         public Stream<Pair<BlobType, Store.Impl.ValueToSave>> encode(MimeMessage message) {
+            FileBackedOutputStream stagedMessage = new FileBackedOutputStream(FILE_THRESHOLD, true);
             try {
-                byte[] messageAsArray = messageToArray(message);
-                int bodyStartOctet = computeBodyStartOctet(messageAsArray);
-                byte[] headerBytes = getHeaderBytes(messageAsArray, bodyStartOctet);
-                byte[] bodyBytes = getBodyBytes(messageAsArray, bodyStartOctet);
+                message.writeTo(stagedMessage);
+                stagedMessage.close();
+
+                BodyOffsetInputStream messageStream = new BodyOffsetInputStream(stagedMessage.asByteSource().openBufferedStream());
+                byte[] headerBytes = readHeaders(messageStream);
+                if (!bodyStartFound(messageStream)) {
+                    // The whole message was read: store it as a body without headers
+                    messageStream.close();
+                    stagedMessage.reset();
+                    return Stream.of(
+                        Pair.of(HEADER_BLOB_TYPE, new Store.Impl.BytesToSave(new byte[] {}, SIZE_BASED)),
+                        Pair.of(BODY_BLOB_TYPE, new Store.Impl.BytesToSave(headerBytes, LOW_COST)));
+                }
                 return Stream.of(
                     Pair.of(HEADER_BLOB_TYPE, new Store.Impl.BytesToSave(headerBytes, SIZE_BASED)),
-                    Pair.of(BODY_BLOB_TYPE, new Store.Impl.BytesToSave(bodyBytes, LOW_COST)));
+                    Pair.of(BODY_BLOB_TYPE, new Store.Impl.InputStreamToSave(releasingOnClose(messageStream, stagedMessage), LOW_COST)));
             } catch (MessagingException | IOException e) {
+                reset(stagedMessage);
                 throw new RuntimeException(e);
             }
         }
-        
-        private static byte[] messageToArray(MimeMessage message) throws IOException, MessagingException {
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            message.writeTo(byteArrayOutputStream);
-            return byteArrayOutputStream.toByteArray();
-        }
 
-        private static byte[] getHeaderBytes(byte[] messageContentAsArray, int bodyStartOctet) {
-            ByteBuffer headerContent = ByteBuffer.wrap(messageContentAsArray, 0, bodyStartOctet);
-            byte[] headerBytes = new byte[bodyStartOctet];
-            headerContent.get(headerBytes);
-            return headerBytes;
-        }
-
-        private static byte[] getBodyBytes(byte[] messageContentAsArray, int bodyStartOctet) {
-            if (bodyStartOctet < messageContentAsArray.length) {
-                ByteBuffer bodyContent = ByteBuffer.wrap(messageContentAsArray,
-                    bodyStartOctet,
-                    messageContentAsArray.length - bodyStartOctet);
-                byte[] bodyBytes = new byte[messageContentAsArray.length - bodyStartOctet];
-                bodyContent.get(bodyBytes);
-                return bodyBytes;
-            } else {
-                return new byte[] {};
+        /**
+         * Reads the message up to the body start, or up to its end when it has no body.
+         */
+        private static byte[] readHeaders(BodyOffsetInputStream messageStream) throws IOException {
+            ByteArrayOutputStream headers = new ByteArrayOutputStream();
+            while (!bodyStartFound(messageStream) || messageStream.getReadBytes() < messageStream.getBodyStartOffset()) {
+                int read = messageStream.read();
+                if (read == -1) {
+                    break;
+                }
+                headers.write(read);
             }
+            return headers.toByteArray();
         }
 
-        private static int computeBodyStartOctet(byte[] messageAsArray) throws IOException {
-            try (BodyOffsetInputStream bodyOffsetInputStream =
-                     new BodyOffsetInputStream(new ByteArrayInputStream(messageAsArray))) {
-                consume(bodyOffsetInputStream);
+        private static boolean bodyStartFound(BodyOffsetInputStream messageStream) {
+            return messageStream.getBodyStartOffset() != -1;
+        }
 
-                if (bodyOffsetInputStream.getBodyStartOffset() == -1) {
-                    return 0;
+        private static InputStream releasingOnClose(InputStream inputStream, FileBackedOutputStream stagedMessage) {
+            return new FilterInputStream(inputStream) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        stagedMessage.reset();
+                    }
                 }
-                return (int) bodyOffsetInputStream.getBodyStartOffset();
-            }
+            };
         }
 
-        private static void consume(InputStream in) throws IOException {
-            IOUtils.copy(in, NULL_OUTPUT_STREAM);
+        private static void reset(FileBackedOutputStream stagedMessage) {
+            try {
+                stagedMessage.reset();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to release the staged message", e);
+            }
         }
     }
 
     static class MimeMessageDecoder implements Store.Impl.Decoder<MimeMessage> {
         @Override
-        public MimeMessage decode(Stream<Pair<BlobType, byte[]>> streams) {
+        public MimeMessage decode(Stream<Pair<BlobType, InputStream>> streams) {
             Preconditions.checkNotNull(streams);
-            Map<BlobType,byte[]> pairs = streams.collect(ImmutableMap.toImmutableMap(Pair::getLeft, Pair::getRight));
+            Map<BlobType, InputStream> pairs = streams.collect(ImmutableMap.toImmutableMap(Pair::getLeft, Pair::getRight));
             Preconditions.checkArgument(pairs.containsKey(HEADER_BLOB_TYPE));
             Preconditions.checkArgument(pairs.containsKey(BODY_BLOB_TYPE));
 
-            return toMimeMessage(
-                new SequenceInputStream(
-                    new ByteArrayInputStream(pairs.get(HEADER_BLOB_TYPE)),
-                    new ByteArrayInputStream(pairs.get(BODY_BLOB_TYPE))));
+            try (InputStream messageStream = new SequenceInputStream(pairs.get(HEADER_BLOB_TYPE), pairs.get(BODY_BLOB_TYPE))) {
+                return toMimeMessage(messageStream);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         }
 
         private MimeMessage toMimeMessage(InputStream inputStream) {
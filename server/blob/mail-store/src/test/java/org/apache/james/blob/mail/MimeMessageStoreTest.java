@@ -38,6 +38,8 @@ import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.base.Strings;
+
 class MimeMessageStoreTest {
     private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
 
@@ -95,6 +97,23 @@ class MimeMessageStoreTest {
             .isEqualTo(MimeMessageUtil.asString(message));
     }
 
+    @Test
+    void mailStoreShouldPreserveMailLargerThanTheInMemoryThreshold() throws Exception {
+        MimeMessage message = MimeMessageBuilder.mimeMessageBuilder()
+            .addFrom("any@any.com")
+            .addToRecipient("toddy@any.com")
+            .setSubject("Important Mail")
+            .setText(Strings.repeat("0123456789\r\n", MimeMessageStore.MimeMessageEncoder.FILE_THRESHOLD))
+            .build();
+
+        MimeMessagePartsId parts = testee.save(message).block();
+
+        MimeMessage retrievedMessage = testee.read(parts).block();
+
+        assertThat(MimeMessageUtil.asString(retrievedMessage))
+            .isEqualTo(MimeMessageUtil.asString(message));
+    }
+
     @Test
     void saveShouldSeparateHeadersAndBodyInDifferentBlobs() throws Exception {
         MimeMessage message = MimeMessageBuilder.mimeMessageBuilder()
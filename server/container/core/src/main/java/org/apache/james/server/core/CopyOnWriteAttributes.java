@@ -0,0 +1,177 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.core;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.apache.james.util.OptionalUtils;
+import org.apache.mailet.Attribute;
+import org.apache.mailet.AttributeName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Attributes of a {@link MailImpl} which can be shared with the mails split from it.
+ *
+ * Shared attributes are never modified. An attribute is only duplicated the first time this mail reads it, as the
+ * caller may then alter its value, and is then owned by this mail. Writes and removals never touch shared attributes.
+ * Splitting a mail thus costs no attribute duplication at all, whatever the number of attributes.
+ *
+ * As reads record duplicated attributes, concurrent reads are safe: a mail can be handed to concurrent readers, for
+ * instance when delivering it to several local recipients.
+ */
+final class CopyOnWriteAttributes {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CopyOnWriteAttributes.class);
+
+    static CopyOnWriteAttributes of(Map<AttributeName, Attribute> attributes) {
+        CopyOnWriteAttributes result = new CopyOnWriteAttributes(ImmutableMap.of());
+        result.owned.putAll(attributes);
+        return result;
+    }
+
+    private volatile ImmutableMap<AttributeName, Attribute> shared;
+    private final Map<AttributeName, Attribute> owned;
+    private final Set<AttributeName> removed;
+
+    private CopyOnWriteAttributes(ImmutableMap<AttributeName, Attribute> shared) {
+        this.shared = shared;
+        this.owned = new ConcurrentHashMap<>();
+        this.removed = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Freezes the current attributes so that they are shared between this instance and the returned one.
+     */
+    CopyOnWriteAttributes fork() {
+        if (!owned.isEmpty() || !removed.isEmpty()) {
+            shared = values().collect(Guavate.toImmutableMap(Attribute::getName));
+            owned.clear();
+            removed.clear();
+        }
+        return new CopyOnWriteAttributes(shared);
+    }
+
+    Optional<Attribute> get(AttributeName name) {
+        Attribute attribute = owned.get(name);
+        if (attribute != null) {
+            return Optional.of(attribute);
+        }
+        ImmutableMap<AttributeName, Attribute> currentShared = shared;
+        if (removed.contains(name) || !currentShared.containsKey(name)) {
+            return Optional.empty();
+        }
+        return Optional.of(owned.computeIfAbsent(name, key -> duplicate(currentShared.get(key))));
+    }
+
+    Optional<Attribute> put(Attribute attribute) {
+        Optional<Attribute> previous = previous(attribute.getName());
+        owned.put(attribute.getName(), attribute);
+        return previous;
+    }
+
+    Optional<Attribute> remove(AttributeName name) {
+        Optional<Attribute> previous = previous(name);
+        owned.remove(name);
+        if (shared.containsKey(name)) {
+            removed.add(name);
+        }
+        return previous;
+    }
+
+    void clear() {
+        shared = ImmutableMap.of();
+        owned.clear();
+        removed.clear();
+    }
+
+    boolean isEmpty() {
+        return !sharedAttributes().findAny().isPresent() && owned.isEmpty();
+    }
+
+    Stream<AttributeName> names() {
+        return Stream.concat(sharedAttributes().map(Attribute::getName), owned.keySet().stream())
+            .distinct();
+    }
+
+    /**
+     * Attributes handed to callers which might modify them.
+     */
+    Stream<Attribute> attributes() {
+        return names()
+            .collect(Guavate.toImmutableList())
+            .stream()
+            .map(this::get)
+            .flatMap(OptionalUtils::toStream);
+    }
+
+    /**
+     * Read-only view of the attributes, for serialization purposes. Values must not be modified.
+     */
+    Stream<Attribute> values() {
+        return names()
+            .map(this::peek)
+            .flatMap(OptionalUtils::toStream);
+    }
+
+    private Stream<Attribute> sharedAttributes() {
+        return shared.values()
+            .stream()
+            .filter(attribute -> !removed.contains(attribute.getName()) && !owned.containsKey(attribute.getName()));
+    }
+
+    private Optional<Attribute> peek(AttributeName name) {
+        Attribute attribute = owned.get(name);
+        if (attribute != null) {
+            return Optional.of(attribute);
+        }
+        if (removed.contains(name)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(shared.get(name));
+    }
+
+    /**
+     * The value being replaced or removed. Shared attributes are duplicated, as the caller may alter them.
+     */
+    private Optional<Attribute> previous(AttributeName name) {
+        Attribute attribute = owned.get(name);
+        if (attribute != null) {
+            return Optional.of(attribute);
+        }
+        return peek(name)
+            .map(this::duplicate);
+    }
+
+    private Attribute duplicate(Attribute attribute) {
+        try {
+            return attribute.duplicate();
+        } catch (IllegalStateException e) {
+            LOGGER.error("Error while cloning Mail attribute {}", attribute.getName().asString(), e);
+            return attribute;
+        }
+    }
+}
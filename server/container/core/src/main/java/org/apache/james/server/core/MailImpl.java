@@ -109,6 +109,39 @@ public class MailImpl implements Disposable, Mail {
             .build();
     }
 
+    /**
+     * Create a copy of the input mail restricted to the given recipients, assigning it a new name.
+     *
+     * Unlike {@link #duplicate(Mail)}, attributes are not eagerly duplicated but shared with the original mail and
+     * only copied upon access. The cost of a split is thus independent of the count and size of the attributes.
+     *
+     * @param mail original mail
+     * @param recipients recipients of the split mail
+     * @throws MessagingException when the message is not clonable
+     */
+    public static Mail split(Mail mail, Collection<MailAddress> recipients) throws MessagingException {
+        if (!(mail instanceof MailImpl)) {
+            Mail duplicate = duplicate(mail);
+            duplicate.setRecipients(recipients);
+            return duplicate;
+        }
+        MailImpl original = (MailImpl) mail;
+        MailImpl split = MailImpl.builder()
+            .name(deriveNewName(original.getName()))
+            .sender(original.getMaybeSender())
+            .addRecipients(recipients)
+            .mimeMessage(new MimeMessageCopyOnWriteProxy(original.getMessage()))
+            .remoteHost(original.getRemoteHost())
+            .remoteAddr(original.getRemoteAddr())
+            .lastUpdated(original.getLastUpdated())
+            .errorMessage(original.getErrorMessage())
+            .addAllHeadersForRecipients(original.getPerRecipientSpecificHeaders())
+            .build();
+        split.setState(original.getState());
+        split.attributes = original.attributes.fork();
+        return split;
+    }
+
     private static ImmutableList<Attribute> duplicateAttributes(Mail mail) {
         try {
             return mail.attributes().map(Attribute::duplicate).collect(Guavate.toImmutableList());
@@ -393,7 +426,7 @@ public class MailImpl implements Disposable, Mail {
     /**
      * Attributes added to this MailImpl instance
      */
-    private Map<AttributeName, Attribute> attributes;
+    private CopyOnWriteAttributes attributes;
     /**
      * Specific headers for some recipients
      * These headers will be added at delivery time
@@ -615,11 +648,11 @@ public class MailImpl implements Disposable, Mail {
         @SuppressWarnings("unchecked")
         Map<String, String> attributesAsJson = (Map<String, String>) in.readObject();
 
-        this.attributes = attributesAsJson.entrySet().stream()
+        setAttributes(attributesAsJson.entrySet().stream()
             .map(Throwing.function(entry -> new Attribute(AttributeName.of(entry.getKey()), AttributeValue.fromJsonString(entry.getValue()))))
             .collect(Collectors.toMap(
                 Attribute::getName,
-                Function.identity()));
+                Function.identity())));
     }
 
     /**
@@ -633,7 +666,7 @@ public class MailImpl implements Disposable, Mail {
             setAttributesRaw((Map<String, Object>) in.readObject());
         } catch (OptionalDataException ode) {
             if (ode.eof) {
-                attributes = new HashMap<>();
+                setAttributes(new HashMap<>());
             } else {
                 throw ode;
             }
@@ -680,7 +713,6 @@ public class MailImpl implements Disposable, Mail {
      */
     public Map<String, Object> getAttributesRaw() {
         return attributes.values()
-            .stream()
             .collect(Collectors.toMap(
                 attribute -> attribute.getName().asString(),
                 attribute -> attribute.getValue().value()));
@@ -693,7 +725,6 @@ public class MailImpl implements Disposable, Mail {
      */
     private Map<String, String> getAttributesAsJson() {
         return attributes.values()
-            .stream()
             .collect(Collectors.toMap(
                 attribute -> attribute.getName().asString(),
                 attribute -> attribute.getValue().toJson().toString()));
@@ -713,52 +744,51 @@ public class MailImpl implements Disposable, Mail {
      * @since 2.2.0
      */
     public void setAttributesRaw(Map<String, Object> attr) {
-        this.attributes = toAttributeMap(attr);
+        setAttributes(toAttributeMap(attr));
     }
 
     private void setAttributes(Map<AttributeName, Attribute> attr) {
-        this.attributes = Maps.newHashMap(attr);
+        this.attributes = CopyOnWriteAttributes.of(attr);
     }
 
     @Override
     public Stream<Attribute> attributes() {
-        return this.attributes.values().stream();
+        return this.attributes.attributes();
     }
 
     @Override
     public Serializable getAttribute(String key) {
-        return toSerializable(attributes.get(AttributeName.of(key)));
+        return toSerializable(attributes.get(AttributeName.of(key)).orElse(null));
     }
 
     @Override
     public Optional<Attribute> getAttribute(AttributeName name) {
-        return Optional.ofNullable(attributes.get(name));
+        return attributes.get(name);
     }
 
     @Override
     public Serializable setAttribute(String key, Serializable object) {
         Preconditions.checkNotNull(key, "Key of an attribute should not be null");
         Attribute attribute = Attribute.convertToAttribute(key, object);
-        Attribute previous = attributes.put(attribute.getName(), attribute);
+        Optional<Attribute> previous = attributes.put(attribute);
 
-        return toSerializable(previous);
+        return toSerializable(previous.orElse(null));
     }
 
     @Override
     public Optional<Attribute> setAttribute(Attribute attribute) {
         Preconditions.checkNotNull(attribute.getName().asString(), "AttributeName should not be null");
-        return Optional.ofNullable(this.attributes.put(attribute.getName(), attribute));
+        return this.attributes.put(attribute);
     }
 
     @Override
     public Serializable removeAttribute(String key) {
-        return toSerializable(attributes.remove(AttributeName.of(key)));
+        return toSerializable(attributes.remove(AttributeName.of(key)).orElse(null));
     }
 
     @Override
     public Optional<Attribute> removeAttribute(AttributeName attributeName) {
-        Attribute previous = attributes.remove(attributeName);
-        return Optional.ofNullable(previous);
+        return attributes.remove(attributeName);
     }
 
     @Override
@@ -768,15 +798,14 @@ public class MailImpl implements Disposable, Mail {
 
     @Override
     public Iterator<String> getAttributeNames() {
-        return attributes.keySet()
-            .stream()
+        return attributes.names()
             .map(AttributeName::asString)
             .iterator();
     }
 
     @Override
     public Stream<AttributeName> attributeNames() {
-        return attributes().map(Attribute::getName);
+        return attributes.names();
     }
 
     private Serializable toSerializable(Attribute previous) {
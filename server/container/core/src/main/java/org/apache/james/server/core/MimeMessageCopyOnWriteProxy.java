@@ -96,7 +96,7 @@ public class MimeMessageCopyOnWriteProxy extends MimeMessage implements Disposab
     }
 
     public MimeMessageCopyOnWriteProxy(MimeMessageSource original) throws MessagingException {
-        this(new MimeMessageWrapper(original), true);
+        this(new MimeMessageHeaderOverlay(original), true);
     }
 
     /**
@@ -125,12 +125,20 @@ public class MimeMessageCopyOnWriteProxy extends MimeMessage implements Disposab
      */
     protected synchronized MimeMessage getWrappedMessageForWriting() throws MessagingException {
         if (refCount.getReferenceCount() > 1) {
+            MimeMessage copy = copy(refCount.getWrapped());
             refCount.decrementReferenceCount();
-            refCount = new MessageReferenceTracker(new MimeMessageWrapper(refCount.getWrapped()));
+            refCount = new MessageReferenceTracker(copy);
         }
         return refCount.getWrapped();
     }
 
+    private MimeMessage copy(MimeMessage message) throws MessagingException {
+        if (message instanceof MimeMessageHeaderOverlay) {
+            return ((MimeMessageHeaderOverlay) message).copy();
+        }
+        return new MimeMessageWrapper(message);
+    }
+
     /**
      * Return wrapped mimeMessage
      * 
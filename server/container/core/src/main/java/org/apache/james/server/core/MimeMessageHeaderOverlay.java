@@ -0,0 +1,118 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.core;
+
+import java.io.InputStream;
+import java.util.Date;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.InternetHeaders;
+import javax.mail.internet.MimeMessage;
+
+/**
+ * A {@link MimeMessageWrapper} on which header modifications never load the
+ * body: headers are kept in memory on top of the source, and the untouched
+ * body is streamed from the source when the message is written.
+ *
+ * Copies of a message whose body was never loaded share its source instead of
+ * copying its content.
+ */
+public class MimeMessageHeaderOverlay extends MimeMessageWrapper {
+    private static final String MIME_VERSION_HEADER = "MIME-Version";
+    private static final String MIME_VERSION = "1.0";
+    private static final String DATE_HEADER = "Date";
+
+    /**
+     * Headers of the message this one was copied from, applied in place of the
+     * source ones when they are loaded.
+     */
+    private InternetHeaders copiedHeaders;
+
+    public MimeMessageHeaderOverlay(MimeMessageSource source) {
+        this(MimeMessageSharedSource.of(source), null);
+    }
+
+    private MimeMessageHeaderOverlay(MimeMessageSharedSource source, InternetHeaders copiedHeaders) {
+        super(source);
+        this.copiedHeaders = copiedHeaders;
+        if (copiedHeaders != null) {
+            this.modified = true;
+            this.headersModified = true;
+        }
+    }
+
+    /**
+     * Returns a copy of this message. Unless its body was loaded, the copy
+     * shares the source of this message and only its headers are copied.
+     */
+    public synchronized MimeMessage copy() throws MessagingException {
+        if (messageParsed || isBodyModified()) {
+            return new MimeMessageWrapper(this);
+        }
+        if (isHeaderModified()) {
+            return new MimeMessageHeaderOverlay(MimeMessageSharedSource.of(source),
+                new MailHeaders(new InternetHeadersInputStream(getAllHeaderLines())));
+        }
+        return new MimeMessageHeaderOverlay(MimeMessageSharedSource.of(source), null);
+    }
+
+    @Override
+    protected synchronized InternetHeaders createInternetHeaders(InputStream is) throws MessagingException {
+        InternetHeaders sourceHeaders = super.createInternetHeaders(is);
+        if (copiedHeaders != null) {
+            InternetHeaders result = copiedHeaders;
+            copiedHeaders = null;
+            return result;
+        }
+        return sourceHeaders;
+    }
+
+    @Override
+    public synchronized void saveChanges() throws MessagingException {
+        if (messageParsed || isBodyModified()) {
+            super.saveChanges();
+            return;
+        }
+        if (headers == null) {
+            loadHeaders();
+        }
+        updateHeaders();
+        saved = true;
+    }
+
+    /**
+     * As long as the body was not loaded it is the one of the source, hence
+     * only the headers that do not depend on it are updated.
+     */
+    @Override
+    protected synchronized void updateHeaders() throws MessagingException {
+        if (messageParsed || isBodyModified()) {
+            super.updateHeaders();
+            return;
+        }
+        if (!MIME_VERSION.equals(getHeader(MIME_VERSION_HEADER, null))) {
+            setHeader(MIME_VERSION_HEADER, MIME_VERSION);
+        }
+        if (getHeader(DATE_HEADER) == null) {
+            setSentDate(new Date());
+        }
+        updateMessageID();
+    }
+}
@@ -0,0 +1,88 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.james.lifecycle.api.Disposable;
+import org.apache.james.lifecycle.api.LifecycleUtil;
+
+/**
+ * A {@link MimeMessageSource} that can be shared between several messages. The
+ * underlying source is disposed once every message holding it has been
+ * disposed.
+ */
+public class MimeMessageSharedSource extends MimeMessageSource implements Disposable {
+
+    /**
+     * Returns a shared view of the given source, retaining it if it is already
+     * shared.
+     */
+    public static MimeMessageSharedSource of(MimeMessageSource source) {
+        if (source instanceof MimeMessageSharedSource) {
+            return ((MimeMessageSharedSource) source).retain();
+        }
+        return new MimeMessageSharedSource(source);
+    }
+
+    private final MimeMessageSource source;
+    private int referenceCount;
+
+    private MimeMessageSharedSource(MimeMessageSource source) {
+        this.source = source;
+        this.referenceCount = 1;
+    }
+
+    /**
+     * Registers an additional holder of this source.
+     */
+    public synchronized MimeMessageSharedSource retain() {
+        referenceCount++;
+        return this;
+    }
+
+    synchronized int getReferenceCount() {
+        return referenceCount;
+    }
+
+    @Override
+    public String getSourceId() {
+        return source.getSourceId();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return source.getInputStream();
+    }
+
+    @Override
+    public long getMessageSize() throws IOException {
+        return source.getMessageSize();
+    }
+
+    @Override
+    public synchronized void dispose() {
+        referenceCount--;
+        if (referenceCount == 0) {
+            LifecycleUtil.dispose(source);
+        }
+    }
+}
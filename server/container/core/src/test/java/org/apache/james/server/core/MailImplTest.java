@@ -25,6 +25,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.time.Duration;
 import java.util.Date;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -36,6 +37,8 @@ import javax.mail.internet.MimeMessage;
 import org.apache.james.core.MailAddress;
 import org.apache.james.core.MaybeSender;
 import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.util.concurrency.ConcurrentTestRunner;
+import org.apache.mailet.Attribute;
 import org.apache.mailet.AttributeName;
 import org.apache.mailet.AttributeValue;
 import org.apache.mailet.ContractMailTest;
@@ -176,6 +179,118 @@ public class MailImplTest extends ContractMailTest {
         assertThat(mail.getPerRecipientSpecificHeaders()).isEqualTo(duplicate.getPerRecipientSpecificHeaders());
     }
 
+    @Test
+    void splitShouldKeepValuesButNameAndRecipients() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name("mail-id")
+            .sender("sender@localhost")
+            .addRecipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.OTHER_AT_JAMES)
+            .state("transport")
+            .mimeMessage(emptyMessage)
+            .addAttribute(new Attribute(AttributeName.of("name"), AttributeValue.of("value")))
+            .build();
+
+        Mail split = MailImpl.split(mail, ImmutableList.of(MailAddressFixture.OTHER_AT_JAMES));
+
+        assertThat(split.getName()).isNotEqualTo(mail.getName());
+        assertThat(split.getRecipients()).containsOnly(MailAddressFixture.OTHER_AT_JAMES);
+        assertThat(split.getState()).isEqualTo("transport");
+        assertThat(split.getMaybeSender()).isEqualTo(mail.getMaybeSender());
+        assertThat(split.getAttribute(AttributeName.of("name"))).isEqualTo(mail.getAttribute(AttributeName.of("name")));
+        assertThat(split.getMessage().getInputStream()).hasSameContentAs(mail.getMessage().getInputStream());
+    }
+
+    @Test
+    void splitAttributesShouldBeIndependentFromOriginalOnes() throws Exception {
+        AttributeName name = AttributeName.of("name");
+        AttributeName removed = AttributeName.of("removed");
+        MailImpl mail = MailImpl.builder()
+            .name("mail-id")
+            .addAttribute(new Attribute(name, AttributeValue.of("value")))
+            .addAttribute(new Attribute(removed, AttributeValue.of("value")))
+            .build();
+
+        Mail split = MailImpl.split(mail, ImmutableList.of(MailAddressFixture.ANY_AT_JAMES));
+        split.setAttribute(new Attribute(name, AttributeValue.of("split")));
+        mail.removeAttribute(removed);
+
+        assertThat(mail.getAttribute(name)).contains(new Attribute(name, AttributeValue.of("value")));
+        assertThat(split.getAttribute(name)).contains(new Attribute(name, AttributeValue.of("split")));
+        assertThat(mail.attributeNames()).containsOnly(name);
+        assertThat(split.attributeNames()).containsOnly(name, removed);
+    }
+
+    @Test
+    void splitAttributeValuesShouldNotBeSharedUponRead() throws Exception {
+        AttributeName name = AttributeName.of("name");
+        MailImpl mail = MailImpl.builder()
+            .name("mail-id")
+            .addAttribute(new Attribute(name, AttributeValue.of(ImmutableList.of(AttributeValue.of("value")))))
+            .build();
+
+        Mail split = MailImpl.split(mail, ImmutableList.of(MailAddressFixture.ANY_AT_JAMES));
+
+        assertThat(split.getAttribute(name).get().getValue().value())
+            .isNotSameAs(mail.getAttribute(name).get().getValue().value());
+    }
+
+    @Test
+    void setAttributeShouldNotReturnTheSharedPreviousValue() throws Exception {
+        AttributeName name = AttributeName.of("name");
+        MailImpl mail = MailImpl.builder()
+            .name("mail-id")
+            .addAttribute(new Attribute(name, AttributeValue.of(ImmutableList.of(AttributeValue.of("value")))))
+            .build();
+
+        Mail split = MailImpl.split(mail, ImmutableList.of(MailAddressFixture.ANY_AT_JAMES));
+        Optional<Attribute> splitPrevious = split.setAttribute(new Attribute(name, AttributeValue.of("split")));
+        Optional<Attribute> mailPrevious = mail.removeAttribute(name);
+
+        assertThat(splitPrevious.get().getValue().value())
+            .isEqualTo(mailPrevious.get().getValue().value())
+            .isNotSameAs(mailPrevious.get().getValue().value());
+    }
+
+    @Test
+    void concurrentReadsOfSplitAttributesShouldReturnAllValues() throws Exception {
+        int attributeCount = 100;
+        MailImpl.Builder builder = MailImpl.builder().name("mail-id");
+        IntStream.range(0, attributeCount)
+            .forEach(i -> builder.addAttribute(new Attribute(AttributeName.of("name" + i), AttributeValue.of("value" + i))));
+        MailImpl mail = builder.build();
+        Mail split = MailImpl.split(mail, ImmutableList.of(MailAddressFixture.ANY_AT_JAMES));
+
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, step) -> {
+                AttributeName name = AttributeName.of("name" + step);
+                assertThat(split.getAttribute(name)).contains(new Attribute(name, AttributeValue.of("value" + step)));
+                assertThat(split.attributeNames()).hasSize(attributeCount);
+            })
+            .threadCount(8)
+            .operationCount(attributeCount)
+            .runSuccessfullyWithin(Duration.ofMinutes(1));
+
+        assertThat(split.attributes()).hasSize(attributeCount);
+    }
+
+    @Test
+    void splitShouldBeSerializable() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name("mail-id")
+            .addAttribute(new Attribute(AttributeName.of("name"), AttributeValue.of("value")))
+            .build();
+        MailImpl split = (MailImpl) MailImpl.split(mail, ImmutableList.of(MailAddressFixture.ANY_AT_JAMES));
+        split.setAttribute(new Attribute(AttributeName.of("other"), AttributeValue.of(12)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new ObjectOutputStream(outputStream).writeObject(split);
+        MailImpl unserialized = (MailImpl) new ObjectInputStream(new ByteArrayInputStream(outputStream.toByteArray())).readObject();
+
+        assertThat(unserialized.attributes())
+            .containsOnly(new Attribute(AttributeName.of("name"), AttributeValue.of("value")),
+                new Attribute(AttributeName.of("other"), AttributeValue.of(12)));
+    }
+
     @Test
     void setAttributeShouldThrowOnNullAttributeName() {
         MailImpl mail = newMail();
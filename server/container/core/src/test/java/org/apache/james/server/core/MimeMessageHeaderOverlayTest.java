@@ -0,0 +1,209 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.mail.internet.MimeMessage;
+import javax.mail.util.SharedByteArrayInputStream;
+
+import org.apache.james.lifecycle.api.Disposable;
+import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.junit.jupiter.api.Test;
+
+class MimeMessageHeaderOverlayTest {
+
+    static class DisposableSource extends MimeMessageSource implements Disposable {
+        private final String content;
+        private boolean disposed = false;
+
+        DisposableSource(String content) {
+            this.content = content;
+        }
+
+        @Override
+        public String getSourceId() {
+            return "test";
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new SharedByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+    }
+
+    static final String HEADERS = "Subject: foo\r\n" +
+        "Message-ID: <id@james.org>\r\n" +
+        "Content-Type: multipart/mixed; boundary=\"boundary\"\r\n";
+    static final String BODY = "--boundary\r\n" +
+        "Content-Type: text/plain\r\n" +
+        "\r\n" +
+        "body\r\n" +
+        "--boundary--\r\n";
+    static final String MESSAGE = HEADERS + "\r\n" + BODY;
+
+    private String asString(MimeMessage message) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        message.writeTo(out);
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void headerModificationsShouldNotLoadTheBody() throws Exception {
+        MimeMessageHeaderOverlay message = new MimeMessageHeaderOverlay(new DisposableSource(MESSAGE));
+
+        message.setHeader("X-Custom", "value");
+        message.saveChanges();
+        String written = asString(message);
+
+        assertThat(message.messageParsed).isFalse();
+        assertThat(written)
+            .contains("X-Custom: value\r\n")
+            .endsWith("\r\n\r\n" + BODY);
+    }
+
+    @Test
+    void saveChangesShouldNotAlterExistingMessageId() throws Exception {
+        MimeMessageHeaderOverlay message = new MimeMessageHeaderOverlay(new DisposableSource(MESSAGE));
+
+        message.setHeader("X-Custom", "value");
+        message.saveChanges();
+
+        assertThat(message.getMessageID()).isEqualTo("<id@james.org>");
+    }
+
+    @Test
+    void saveChangesShouldAddMimeVersionWithoutLoadingTheBody() throws Exception {
+        MimeMessageHeaderOverlay message = new MimeMessageHeaderOverlay(new DisposableSource(MESSAGE));
+
+        message.setHeader("X-Custom", "value");
+        message.saveChanges();
+
+        assertThat(message.getHeader("MIME-Version")).containsOnly("1.0");
+        assertThat(message.getSentDate()).isNotNull();
+        assertThat(message.messageParsed).isFalse();
+    }
+
+    @Test
+    void saveChangesShouldUpdateBodyRelatedHeadersWhenBodyIsModified() throws Exception {
+        MimeMessageHeaderOverlay message = new MimeMessageHeaderOverlay(new DisposableSource(MESSAGE));
+
+        message.setText("new body");
+        message.saveChanges();
+
+        assertThat(message.getContentType()).startsWith("text/plain");
+        assertThat(asString(message)).contains("new body");
+    }
+
+    @Test
+    void copyShouldShareTheSource() throws Exception {
+        MimeMessageHeaderOverlay message = new MimeMessageHeaderOverlay(new DisposableSource(MESSAGE));
+
+        MimeMessage copy = message.copy();
+
+        assertThat(copy).isInstanceOf(MimeMessageHeaderOverlay.class);
+        assertThat(((MimeMessageHeaderOverlay) copy).source).isSameAs(message.source);
+        assertThat(((MimeMessageSharedSource) message.source).getReferenceCount()).isEqualTo(2);
+    }
+
+    @Test
+    void copyShouldKeepHeaderModificationsOfTheOriginal() throws Exception {
+        MimeMessageHeaderOverlay message = new MimeMessageHeaderOverlay(new DisposableSource(MESSAGE));
+        message.setHeader("X-Custom", "value");
+
+        MimeMessage copy = message.copy();
+
+        assertThat(copy.getHeader("X-Custom")).containsOnly("value");
+        assertThat(copy.getSubject()).isEqualTo("foo");
+        assertThat(copy.getSize()).isEqualTo(message.getSize());
+    }
+
+    @Test
+    void headerModificationsOfTheCopyShouldNotAffectTheOriginal() throws Exception {
+        MimeMessageHeaderOverlay message = new MimeMessageHeaderOverlay(new DisposableSource(MESSAGE));
+
+        MimeMessage copy = message.copy();
+        copy.setSubject("bar");
+        copy.saveChanges();
+
+        assertThat(message.getSubject()).isEqualTo("foo");
+        assertThat(asString(copy))
+            .contains("Subject: bar\r\n")
+            .endsWith("\r\n\r\n" + BODY);
+        assertThat(asString(message))
+            .contains("Subject: foo\r\n")
+            .endsWith("\r\n\r\n" + BODY);
+    }
+
+    @Test
+    void copyShouldNotShareTheSourceWhenTheBodyIsModified() throws Exception {
+        MimeMessageHeaderOverlay message = new MimeMessageHeaderOverlay(new DisposableSource(MESSAGE));
+        message.setText("new body");
+        message.saveChanges();
+
+        MimeMessage copy = message.copy();
+
+        assertThat(copy).isNotInstanceOf(MimeMessageHeaderOverlay.class);
+        assertThat(asString(copy)).contains("new body");
+    }
+
+    @Test
+    void sourceShouldBeDisposedOnceEveryCopyIsDisposed() throws Exception {
+        DisposableSource source = new DisposableSource(MESSAGE);
+        MimeMessageHeaderOverlay message = new MimeMessageHeaderOverlay(source);
+        MimeMessage copy = message.copy();
+
+        LifecycleUtil.dispose(message);
+        assertThat(source.disposed).isFalse();
+
+        LifecycleUtil.dispose(copy);
+        assertThat(source.disposed).isTrue();
+    }
+
+    @Test
+    void writingADuplicatedMailShouldShareTheSource() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name("test")
+            .sender("test@test.com")
+            .addRecipient("recipient@test.com")
+            .mimeMessage(new MimeMessageCopyOnWriteProxy(new DisposableSource(MESSAGE)))
+            .build();
+        MailImpl duplicate = MailImpl.duplicate(mail);
+
+        duplicate.getMessage().setHeader("X-Custom", "value");
+
+        MimeMessageHeaderOverlay original = (MimeMessageHeaderOverlay) ((MimeMessageCopyOnWriteProxy) mail.getMessage()).getWrappedMessage();
+        MimeMessageHeaderOverlay written = (MimeMessageHeaderOverlay) ((MimeMessageCopyOnWriteProxy) duplicate.getMessage()).getWrappedMessage();
+        assertThat(written).isNotSameAs(original);
+        assertThat(written.source).isSameAs(original.source);
+        assertThat(original.getHeader("X-Custom")).isNull();
+        LifecycleUtil.dispose(mail);
+        LifecycleUtil.dispose(duplicate);
+    }
+}
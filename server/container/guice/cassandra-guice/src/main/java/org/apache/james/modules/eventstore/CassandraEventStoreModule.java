@@ -21,8 +21,11 @@ package org.apache.james.modules.eventstore;
 
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.eventsourcing.eventstore.EventStore;
+import org.apache.james.eventsourcing.eventstore.SnapshotStore;
 import org.apache.james.eventsourcing.eventstore.cassandra.CassandraEventStore;
+import org.apache.james.eventsourcing.eventstore.cassandra.CassandraSnapshotStore;
 import org.apache.james.eventsourcing.eventstore.cassandra.dto.EventDTOModule;
+import org.apache.james.eventsourcing.eventstore.cassandra.dto.SnapshotDTOModule;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
@@ -35,11 +38,14 @@ public class CassandraEventStoreModule extends AbstractModule {
     protected void configure() {
         bind(CassandraEventStore.class).in(Scopes.SINGLETON);
         bind(EventStore.class).to(CassandraEventStore.class);
+        bind(CassandraSnapshotStore.class).in(Scopes.SINGLETON);
+        bind(SnapshotStore.class).to(CassandraSnapshotStore.class);
 
         Multibinder.newSetBinder(binder(), CassandraModule.class)
             .addBinding()
             .toInstance(org.apache.james.eventsourcing.eventstore.cassandra.CassandraEventStoreModule.MODULE);
 
         Multibinder.newSetBinder(binder(), new TypeLiteral<EventDTOModule<?, ?>>() {});
+        Multibinder.newSetBinder(binder(), new TypeLiteral<SnapshotDTOModule<?, ?>>() {});
     }
 }
@@ -31,6 +31,9 @@ import org.apache.james.backends.cassandra.init.configuration.CassandraConfigura
 import org.apache.james.backends.cassandra.init.configuration.ClusterConfiguration;
 import org.apache.james.backends.cassandra.utils.CassandraHealthCheck;
 import org.apache.james.backends.cassandra.utils.CassandraUtils;
+import org.apache.james.backends.cassandra.utils.TokenRangeCheckpointDAO;
+import org.apache.james.backends.cassandra.utils.TokenRangeCheckpointModule;
+import org.apache.james.backends.cassandra.utils.TokenRangeScanner;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionDAO;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionManager;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
@@ -71,9 +74,12 @@ public class CassandraSessionModule extends AbstractModule {
         Multibinder<CassandraModule> cassandraDataDefinitions = Multibinder.newSetBinder(binder(), CassandraModule.class);
         cassandraDataDefinitions.addBinding().toInstance(CassandraZonedDateTimeModule.MODULE);
         cassandraDataDefinitions.addBinding().toInstance(CassandraSchemaVersionModule.MODULE);
+        cassandraDataDefinitions.addBinding().toInstance(TokenRangeCheckpointModule.MODULE);
 
         bind(CassandraSchemaVersionManager.class).in(Scopes.SINGLETON);
         bind(CassandraSchemaVersionDAO.class).in(Scopes.SINGLETON);
+        bind(TokenRangeCheckpointDAO.class).in(Scopes.SINGLETON);
+        bind(TokenRangeScanner.class).in(Scopes.SINGLETON);
 
         Multibinder.newSetBinder(binder(), StartUpCheck.class)
             .addBinding().to(CassandraSchemaVersionStartUpCheck.class);
@@ -20,8 +20,14 @@
 
 package org.apache.james.modules;
 
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.configuration2.Configuration;
 import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.modules.rabbitmq.RabbitMQModule;
 import org.apache.james.modules.server.HostnameModule;
+import org.apache.james.task.TaskLanes;
 import org.apache.james.task.TaskManager;
 import org.apache.james.task.eventsourcing.EventSourcingTaskManager;
 import org.apache.james.task.eventsourcing.TaskExecutionDetailsProjection;
@@ -32,10 +38,12 @@ import org.apache.james.task.eventsourcing.cassandra.CassandraTaskExecutionDetai
 import org.apache.james.task.eventsourcing.distributed.RabbitMQTerminationSubscriber;
 import org.apache.james.task.eventsourcing.distributed.RabbitMQWorkQueue;
 import org.apache.james.task.eventsourcing.distributed.RabbitMQWorkQueueSupplier;
+import org.apache.james.task.eventsourcing.distributed.TaskLanesConfiguration;
 import org.apache.james.utils.InitializationOperation;
 import org.apache.james.utils.InitilizationOperationBuilder;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.multibindings.ProvidesIntoSet;
@@ -58,6 +66,12 @@ public class DistributedTaskManagerModule extends AbstractModule {
         cassandraDataDefinitions.addBinding().toInstance(CassandraTaskExecutionDetailsProjectionModule.MODULE());
     }
 
+    @Provides
+    @Singleton
+    TaskLanes provideTaskLanes(@Named(RabbitMQModule.RABBITMQ_CONFIGURATION_NAME) Configuration configuration) {
+        return TaskLanesConfiguration.from(configuration);
+    }
+
     @ProvidesIntoSet
     InitializationOperation terminationSubscriber(RabbitMQTerminationSubscriber instance) {
         return InitilizationOperationBuilder
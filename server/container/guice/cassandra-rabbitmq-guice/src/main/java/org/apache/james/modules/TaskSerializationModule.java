@@ -29,6 +29,7 @@ import org.apache.james.backends.cassandra.migration.MigrationTask;
 import org.apache.james.backends.cassandra.migration.MigrationTaskAdditionalInformationDTO;
 import org.apache.james.backends.cassandra.migration.MigrationTaskDTO;
 import org.apache.james.eventsourcing.eventstore.cassandra.dto.EventDTOModule;
+import org.apache.james.eventsourcing.eventstore.cassandra.dto.SnapshotDTOModule;
 import org.apache.james.json.DTOConverter;
 import org.apache.james.json.DTOModule;
 import org.apache.james.mailbox.cassandra.mail.task.MailboxMergingTaskAdditionalInformationDTO;
@@ -124,6 +125,11 @@ public class TaskSerializationModule extends AbstractModule {
 
     }
 
+    @ProvidesIntoSet
+    public SnapshotDTOModule<?, ?> taskAggregateSnapshotSerialization() {
+        return TasksSerializationModule.SNAPSHOT;
+    }
+
     @ProvidesIntoSet
     public EventDTOModule<?, ?> taskCreatedSerialization(JsonTaskSerializer jsonTaskSerializer,
                                                          DTOConverter<TaskExecutionDetails.AdditionalInformation, AdditionalInformationDTO> additionalInformationConverter,
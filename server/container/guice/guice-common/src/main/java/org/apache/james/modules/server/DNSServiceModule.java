@@ -18,8 +18,10 @@
  ****************************************************************/
 package org.apache.james.modules.server;
 
+import org.apache.james.dnsservice.api.AsyncDNSService;
 import org.apache.james.dnsservice.api.DNSService;
 import org.apache.james.dnsservice.dnsjava.DNSJavaService;
+import org.apache.james.dnsservice.library.CachingAsyncDNSService;
 import org.apache.james.server.core.configuration.ConfigurationProvider;
 import org.apache.james.utils.InitializationOperation;
 import org.apache.james.utils.InitilizationOperationBuilder;
@@ -33,6 +35,9 @@ public class DNSServiceModule extends AbstractModule {
     protected void configure() {
         bind(DNSJavaService.class).in(Scopes.SINGLETON);
         bind(DNSService.class).to(DNSJavaService.class);
+
+        bind(CachingAsyncDNSService.class).in(Scopes.SINGLETON);
+        bind(AsyncDNSService.class).to(CachingAsyncDNSService.class);
     }
 
     @ProvidesIntoSet
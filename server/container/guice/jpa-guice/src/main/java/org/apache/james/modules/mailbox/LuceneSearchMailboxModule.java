@@ -22,30 +22,46 @@ package org.apache.james.modules.mailbox;
 import java.io.IOException;
 
 import org.apache.james.filesystem.api.FileSystem;
-import org.apache.james.mailbox.events.MailboxListener;
+import org.apache.james.mailbox.extractor.TextExtractor;
 import org.apache.james.mailbox.lucene.search.LuceneMessageSearchIndex;
+import org.apache.james.mailbox.store.extractor.JsoupTextExtractor;
+import org.apache.james.mailbox.store.search.ColumnarMessageSearchIndex;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
 import org.apache.james.mailbox.store.search.MessageSearchIndex;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
-import com.google.inject.multibindings.Multibinder;
 
 public class LuceneSearchMailboxModule extends AbstractModule {
 
     @Override
     protected void configure() {
+        install(new SearchImplementationModule());
+
         bind(LuceneMessageSearchIndex.class).in(Scopes.SINGLETON);
-        bind(MessageSearchIndex.class).to(LuceneMessageSearchIndex.class);
-        bind(ListeningMessageSearchIndex.class).to(LuceneMessageSearchIndex.class);
+        bind(ColumnarMessageSearchIndex.class).in(Scopes.SINGLETON);
+        bind(MessageSearchIndex.class).to(ListeningMessageSearchIndex.class);
+        bind(TextExtractor.class).to(JsoupTextExtractor.class);
+    }
 
-        Multibinder.newSetBinder(binder(), MailboxListener.GroupMailboxListener.class)
-            .addBinding()
-            .to(LuceneMessageSearchIndex.class);
+    @Provides
+    @Singleton
+    ListeningMessageSearchIndex provideListeningMessageSearchIndex(SearchConfiguration searchConfiguration,
+                                                                   Provider<LuceneMessageSearchIndex> luceneMessageSearchIndex,
+                                                                   Provider<ColumnarMessageSearchIndex> columnarMessageSearchIndex) {
+        switch (searchConfiguration.getImplementation()) {
+            case DEFAULT:
+                return luceneMessageSearchIndex.get();
+            case COLUMNAR:
+                return columnarMessageSearchIndex.get();
+            default:
+                throw new RuntimeException("Search implementation '" + searchConfiguration.getImplementation().getValue() + "' is not supported");
+        }
     }
 
     @Provides
@@ -0,0 +1,92 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.mailbox;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.configuration2.Configuration;
+
+/**
+ * Search implementation chosen through the <code>search.implementation</code> property of <code>search.properties</code>.
+ *
+ * <code>default</code> keeps the search index of the product, <code>columnar</code> selects the
+ * {@link org.apache.james.mailbox.store.search.ColumnarMessageSearchIndex}.
+ */
+public class SearchConfiguration {
+    public enum Implementation {
+        DEFAULT("default"),
+        COLUMNAR("columnar");
+
+        public static Implementation parse(String value) {
+            return Arrays.stream(values())
+                .filter(implementation -> implementation.value.equalsIgnoreCase(value.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown search implementation '" + value + "'"));
+        }
+
+        private final String value;
+
+        Implementation(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    public static final String FILE_NAME = "search";
+    public static final String IMPLEMENTATION_PROPERTY = "search.implementation";
+    public static final SearchConfiguration DEFAULT = new SearchConfiguration(Implementation.DEFAULT);
+
+    public static SearchConfiguration from(Configuration configuration) {
+        return Optional.ofNullable(configuration.getString(IMPLEMENTATION_PROPERTY))
+            .map(Implementation::parse)
+            .map(SearchConfiguration::new)
+            .orElse(DEFAULT);
+    }
+
+    private final Implementation implementation;
+
+    public SearchConfiguration(Implementation implementation) {
+        this.implementation = implementation;
+    }
+
+    public Implementation getImplementation() {
+        return implementation;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof SearchConfiguration) {
+            SearchConfiguration that = (SearchConfiguration) o;
+
+            return Objects.equals(this.implementation, that.implementation);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(implementation);
+    }
+}
@@ -0,0 +1,73 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.mailbox;
+
+import java.io.FileNotFoundException;
+
+import javax.inject.Singleton;
+
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.mailbox.events.EventBus;
+import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.mailbox.store.search.MessageSearchIndex;
+import org.apache.james.utils.InitializationOperation;
+import org.apache.james.utils.InitilizationOperationBuilder;
+import org.apache.james.utils.PropertiesProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.multibindings.ProvidesIntoSet;
+
+/**
+ * Reads the {@link SearchConfiguration} and registers the chosen {@link MessageSearchIndex} on the {@link EventBus} when it
+ * needs to listen to mailbox events. Products provide the {@link MessageSearchIndex} matching the configuration.
+ */
+public class SearchImplementationModule extends AbstractModule {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchImplementationModule.class);
+
+    @Override
+    protected void configure() {
+
+    }
+
+    @Provides
+    @Singleton
+    SearchConfiguration provideSearchConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            return SearchConfiguration.from(propertiesProvider.getConfiguration(SearchConfiguration.FILE_NAME));
+        } catch (FileNotFoundException e) {
+            LOGGER.info("Could not find " + SearchConfiguration.FILE_NAME + " configuration file, using the default search implementation");
+            return SearchConfiguration.DEFAULT;
+        }
+    }
+
+    @ProvidesIntoSet
+    InitializationOperation registerMessageSearchIndex(EventBus eventBus, MessageSearchIndex messageSearchIndex) {
+        return InitilizationOperationBuilder
+            .forClass(MailboxListenersLoaderImpl.class)
+            .init(() -> {
+                if (messageSearchIndex instanceof ListeningMessageSearchIndex) {
+                    eventBus.register((ListeningMessageSearchIndex) messageSearchIndex);
+                }
+            });
+    }
+}
@@ -0,0 +1,69 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.mailbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.junit.jupiter.api.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+class SearchConfigurationTest {
+    @Test
+    void shouldMatchBeanContract() {
+        EqualsVerifier.forClass(SearchConfiguration.class)
+            .verify();
+    }
+
+    @Test
+    void fromShouldReturnDefaultWhenImplementationIsMissing() {
+        assertThat(SearchConfiguration.from(new PropertiesConfiguration()))
+            .isEqualTo(SearchConfiguration.DEFAULT);
+    }
+
+    @Test
+    void fromShouldParseColumnarImplementation() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("search.implementation", "columnar");
+
+        assertThat(SearchConfiguration.from(configuration).getImplementation())
+            .isEqualTo(SearchConfiguration.Implementation.COLUMNAR);
+    }
+
+    @Test
+    void fromShouldBeCaseInsensitive() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("search.implementation", "Default");
+
+        assertThat(SearchConfiguration.from(configuration))
+            .isEqualTo(SearchConfiguration.DEFAULT);
+    }
+
+    @Test
+    void fromShouldThrowOnUnknownImplementation() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("search.implementation", "unknown");
+
+        assertThatThrownBy(() -> SearchConfiguration.from(configuration))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -39,7 +39,9 @@ import org.apache.james.mailetcontainer.impl.JamesMailSpooler;
 import org.apache.james.mailetcontainer.impl.JamesMailetContext;
 import org.apache.james.mailetcontainer.impl.MatcherMailetPair;
 import org.apache.james.mailetcontainer.impl.camel.CamelCompositeProcessor;
-import org.apache.james.mailetcontainer.impl.camel.CamelMailetProcessor;
+import org.apache.james.mailetcontainer.impl.pipeline.CompiledCompositeProcessor;
+import org.apache.james.mailetcontainer.lib.AbstractStateCompositeProcessor;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
 import org.apache.james.server.core.configuration.ConfigurationProvider;
 import org.apache.james.transport.mailets.RemoveMimeHeader;
 import org.apache.james.transport.matchers.All;
@@ -59,6 +61,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Preconditions;
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
@@ -75,10 +78,13 @@ public class CamelMailetContainerModule extends AbstractModule {
         pair -> pair.getMailet().getMailetConfig().getInitParameter("name").equals("bcc"),
         "Should be configured to remove Bcc header");
 
+    public static final String PIPELINE_PROPERTY = "processors.[@pipeline]";
+    public static final String CAMEL_PIPELINE = "camel";
+    public static final String COMPILED_PIPELINE = "compiled";
+
     @Override
     protected void configure() {
-        bind(CamelCompositeProcessor.class).in(Scopes.SINGLETON);
-        bind(MailProcessor.class).to(CamelCompositeProcessor.class);
+        bind(MailProcessor.class).to(AbstractStateCompositeProcessor.class);
 
         bind(JamesMailSpooler.class).in(Scopes.SINGLETON);
         bind(MailSpoolerMBean.class).to(JamesMailSpooler.class);
@@ -107,6 +113,38 @@ public class CamelMailetContainerModule extends AbstractModule {
         return camelContext;
     }
 
+    /**
+     * The processors are routed with Camel unless mailetcontainer.xml opts in for the compiled pipeline with
+     * <code>&lt;processors pipeline="compiled"&gt;</code>.
+     */
+    @Singleton
+    @Provides
+    AbstractStateCompositeProcessor provideCompositeProcessor(ConfigurationProvider configurationProvider,
+                                                              Provider<CamelCompositeProcessor> camelCompositeProcessor,
+                                                              Provider<CompiledCompositeProcessor> compiledCompositeProcessor) {
+        String pipeline = getPipeline(configurationProvider);
+        switch (pipeline) {
+            case CAMEL_PIPELINE:
+                return camelCompositeProcessor.get();
+            case COMPILED_PIPELINE:
+                return compiledCompositeProcessor.get();
+            default:
+                throw new IllegalArgumentException("Unknown mailet pipeline '" + pipeline + "'. Expecting one of "
+                    + CAMEL_PIPELINE + ", " + COMPILED_PIPELINE);
+        }
+    }
+
+    private String getPipeline(ConfigurationProvider configurationProvider) {
+        try {
+            return configurationProvider.getConfiguration("mailetcontainer")
+                .getString(PIPELINE_PROPERTY, CAMEL_PIPELINE)
+                .trim();
+        } catch (Exception e) {
+            LOGGER.warn("Could not locate the mailet pipeline configuration. Defaulting to {}.", CAMEL_PIPELINE);
+            return CAMEL_PIPELINE;
+        }
+    }
+
     @ProvidesIntoSet
     InitializationOperation startSpooler(JamesMailSpooler jamesMailSpooler, ConfigurationProvider configurationProvider) {
         return InitilizationOperationBuilder
@@ -147,18 +185,18 @@ public class CamelMailetContainerModule extends AbstractModule {
     @Singleton
     public static class MailetModuleInitializationOperation implements InitializationOperation {
         private final ConfigurationProvider configurationProvider;
-        private final CamelCompositeProcessor camelCompositeProcessor;
+        private final AbstractStateCompositeProcessor compositeProcessor;
         private final DefaultProcessorsConfigurationSupplier defaultProcessorsConfigurationSupplier;
         private final Set<TransportProcessorCheck> transportProcessorCheckSet;
         private final DefaultCamelContext camelContext;
 
         @Inject
         public MailetModuleInitializationOperation(ConfigurationProvider configurationProvider,
-                                                   CamelCompositeProcessor camelCompositeProcessor,
+                                                   AbstractStateCompositeProcessor compositeProcessor,
                                                    Set<TransportProcessorCheck> transportProcessorCheckSet,
                                                    DefaultProcessorsConfigurationSupplier defaultProcessorsConfigurationSupplier, DefaultCamelContext camelContext) {
             this.configurationProvider = configurationProvider;
-            this.camelCompositeProcessor = camelCompositeProcessor;
+            this.compositeProcessor = compositeProcessor;
             this.transportProcessorCheckSet = transportProcessorCheckSet;
             this.defaultProcessorsConfigurationSupplier = defaultProcessorsConfigurationSupplier;
             this.camelContext = camelContext;
@@ -171,9 +209,11 @@ public class CamelMailetContainerModule extends AbstractModule {
         }
 
         private void configureProcessors(DefaultCamelContext camelContext) throws Exception {
-            camelCompositeProcessor.setCamelContext(camelContext);
-            camelCompositeProcessor.configure(getProcessorConfiguration());
-            camelCompositeProcessor.init();
+            if (compositeProcessor instanceof CamelCompositeProcessor) {
+                ((CamelCompositeProcessor) compositeProcessor).setCamelContext(camelContext);
+            }
+            compositeProcessor.configure(getProcessorConfiguration());
+            compositeProcessor.init();
         }
 
         private HierarchicalConfiguration<ImmutableNode> getProcessorConfiguration() {
@@ -187,10 +227,10 @@ public class CamelMailetContainerModule extends AbstractModule {
         }
 
         private void checkProcessors() throws ConfigurationException {
-            MailProcessor mailProcessor = Optional.ofNullable(camelCompositeProcessor.getProcessor("transport"))
+            MailProcessor mailProcessor = Optional.ofNullable(compositeProcessor.getProcessor("transport"))
                 .orElseThrow(() -> new RuntimeException("JMAP needs a transport processor"));
-            if (mailProcessor instanceof CamelMailetProcessor) {
-                List<MatcherMailetPair> matcherMailetPairs = ((CamelMailetProcessor) mailProcessor).getPairs();
+            if (mailProcessor instanceof AbstractStateMailetProcessor) {
+                List<MatcherMailetPair> matcherMailetPairs = ((AbstractStateMailetProcessor) mailProcessor).getPairs();
                 for (TransportProcessorCheck check : transportProcessorCheckSet) {
                     check.check(matcherMailetPairs);
                 }
@@ -201,7 +241,7 @@ public class CamelMailetContainerModule extends AbstractModule {
 
         @Override
         public Class<? extends Startable> forClass() {
-            return CamelCompositeProcessor.class;
+            return compositeProcessor.getClass();
         }
     }
 
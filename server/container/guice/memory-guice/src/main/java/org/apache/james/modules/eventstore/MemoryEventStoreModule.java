@@ -20,7 +20,9 @@
 package org.apache.james.modules.eventstore;
 
 import org.apache.james.eventsourcing.eventstore.EventStore;
+import org.apache.james.eventsourcing.eventstore.SnapshotStore;
 import org.apache.james.eventsourcing.eventstore.memory.InMemoryEventStore;
+import org.apache.james.eventsourcing.eventstore.memory.InMemorySnapshotStore;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
@@ -30,5 +32,7 @@ public class MemoryEventStoreModule extends AbstractModule {
     protected void configure() {
         bind(InMemoryEventStore.class).in(Scopes.SINGLETON);
         bind(EventStore.class).to(InMemoryEventStore.class);
+        bind(InMemorySnapshotStore.class).in(Scopes.SINGLETON);
+        bind(SnapshotStore.class).to(InMemorySnapshotStore.class);
     }
 }
@@ -62,6 +62,7 @@ import org.apache.james.mailbox.store.mail.MailboxMapperFactory;
 import org.apache.james.mailbox.store.mail.MessageMapperFactory;
 import org.apache.james.mailbox.store.mail.ModSeqProvider;
 import org.apache.james.mailbox.store.mail.UidProvider;
+import org.apache.james.mailbox.store.search.ColumnarMessageSearchIndex;
 import org.apache.james.mailbox.store.search.MessageSearchIndex;
 import org.apache.james.mailbox.store.search.SimpleMessageSearchIndex;
 import org.apache.james.mailbox.store.user.SubscriptionMapperFactory;
@@ -71,6 +72,8 @@ import org.apache.james.vault.metadata.DeletedMessageMetadataVault;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
@@ -83,6 +86,7 @@ public class MemoryMailboxModule extends AbstractModule {
         install(new MemoryDeadLetterModule());
         install(new MemoryQuotaModule());
         install(new MemoryQuotaSearchModule());
+        install(new SearchImplementationModule());
 
         bind(MessageMapperFactory.class).to(InMemoryMailboxSessionMapperFactory.class);
         bind(MailboxMapperFactory.class).to(InMemoryMailboxSessionMapperFactory.class);
@@ -106,7 +110,6 @@ public class MemoryMailboxModule extends AbstractModule {
         bind(AttachmentManager.class).to(StoreAttachmentManager.class);
         bind(SessionProvider.class).to(SessionProviderImpl.class);
 
-        bind(MessageSearchIndex.class).to(SimpleMessageSearchIndex.class);
         bind(TextExtractor.class).to(JsoupTextExtractor.class);
         bind(RightManager.class).to(StoreRightManager.class);
 
@@ -127,6 +130,8 @@ public class MemoryMailboxModule extends AbstractModule {
         bind(StoreRightManager.class).in(Scopes.SINGLETON);
         bind(MemoryDeletedMessageMetadataVault.class).in(Scopes.SINGLETON);
         bind(SessionProviderImpl.class).in(Scopes.SINGLETON);
+        bind(SimpleMessageSearchIndex.class).in(Scopes.SINGLETON);
+        bind(ColumnarMessageSearchIndex.class).in(Scopes.SINGLETON);
 
         Multibinder.newSetBinder(binder(), MailboxManagerDefinition.class)
             .addBinding()
@@ -140,6 +145,21 @@ public class MemoryMailboxModule extends AbstractModule {
         bind(MailboxManagerConfiguration.class).toInstance(MailboxManagerConfiguration.DEFAULT);
     }
 
+    @Provides
+    @Singleton
+    MessageSearchIndex provideMessageSearchIndex(SearchConfiguration searchConfiguration,
+                                                 Provider<SimpleMessageSearchIndex> simpleMessageSearchIndex,
+                                                 Provider<ColumnarMessageSearchIndex> columnarMessageSearchIndex) {
+        switch (searchConfiguration.getImplementation()) {
+            case DEFAULT:
+                return simpleMessageSearchIndex.get();
+            case COLUMNAR:
+                return columnarMessageSearchIndex.get();
+            default:
+                throw new RuntimeException("Search implementation '" + searchConfiguration.getImplementation().getValue() + "' is not supported");
+        }
+    }
+
     @Singleton
     private static class MemoryMailboxManagerDefinition extends MailboxManagerDefinition {
         @Inject
@@ -27,10 +27,12 @@ import org.apache.james.backends.cassandra.versions.SchemaTransition;
 import org.apache.james.backends.cassandra.versions.SchemaVersion;
 import org.apache.james.mailbox.cassandra.mail.migration.AttachmentMessageIdCreation;
 import org.apache.james.mailbox.cassandra.mail.migration.AttachmentV2Migration;
+import org.apache.james.mailbox.cassandra.mail.migration.MailboxMessageMetadataMigration;
 import org.apache.james.mailbox.cassandra.mail.migration.MailboxPathV2Migration;
 import org.apache.james.rrt.cassandra.migration.MappingsSourcesMigration;
 import org.apache.james.webadmin.Routes;
 import org.apache.james.webadmin.routes.CassandraMailboxMergingRoutes;
+import org.apache.james.webadmin.routes.CassandraMailboxesRoutes;
 import org.apache.james.webadmin.routes.CassandraMigrationRoutes;
 
 import com.google.inject.AbstractModule;
@@ -45,12 +47,14 @@ public class CassandraRoutesModule extends AbstractModule {
     private static final SchemaTransition FROM_V4_TO_V5 = SchemaTransition.to(new SchemaVersion(5));
     private static final SchemaTransition FROM_V5_TO_V6 = SchemaTransition.to(new SchemaVersion(6));
     private static final SchemaTransition FROM_V6_TO_V7 = SchemaTransition.to(new SchemaVersion(7));
+    private static final SchemaTransition FROM_V7_TO_V8 = SchemaTransition.to(new SchemaVersion(8));
 
     @Override
     protected void configure() {
         bind(MigrationTask.Impl.class).in(Scopes.SINGLETON);
         bind(CassandraRoutesModule.class).in(Scopes.SINGLETON);
         bind(CassandraMailboxMergingRoutes.class).in(Scopes.SINGLETON);
+        bind(CassandraMailboxesRoutes.class).in(Scopes.SINGLETON);
         bind(CassandraMigrationService.class).in(Scopes.SINGLETON);
 
         bind(MigrationTask.Factory.class).to(MigrationTask.Impl.class);
@@ -58,6 +62,7 @@ public class CassandraRoutesModule extends AbstractModule {
         Multibinder<Routes> routesMultibinder = Multibinder.newSetBinder(binder(), Routes.class);
         routesMultibinder.addBinding().to(CassandraMigrationRoutes.class);
         routesMultibinder.addBinding().to(CassandraMailboxMergingRoutes.class);
+        routesMultibinder.addBinding().to(CassandraMailboxesRoutes.class);
 
         MapBinder<SchemaTransition, Migration> allMigrationClazzBinder = MapBinder.newMapBinder(binder(), SchemaTransition.class, Migration.class);
         allMigrationClazzBinder.addBinding(FROM_V2_TO_V3).toInstance(() -> { });
@@ -65,6 +70,7 @@ public class CassandraRoutesModule extends AbstractModule {
         allMigrationClazzBinder.addBinding(FROM_V4_TO_V5).to(AttachmentMessageIdCreation.class);
         allMigrationClazzBinder.addBinding(FROM_V5_TO_V6).to(MailboxPathV2Migration.class);
         allMigrationClazzBinder.addBinding(FROM_V6_TO_V7).to(MappingsSourcesMigration.class);
+        allMigrationClazzBinder.addBinding(FROM_V7_TO_V8).to(MailboxMessageMetadataMigration.class);
 
         bind(SchemaVersion.class)
             .annotatedWith(Names.named(CassandraMigrationService.LATEST_VERSION))
@@ -31,6 +31,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.IntStream;
 
 /**
@@ -82,14 +83,19 @@ import java.util.stream.IntStream;
  * <p/>
  * before calling computeSpamProbability.
  * </p>
+ * <p/>
+ * <p>
+ * Alternatively, use: double computeSpamProbability(Reader, TokenCountStore)
+ * <p/>
+ * to compute the token probabilities on demand from a {@link TokenCountStore},
+ * which can be updated while in use and needs no corpus to be built.
+ * </p>
  *
  * @since 2.3.0
  */
 
 public class BayesianAnalyzer {
 
-    private final Object lock = new Object();
-
     /**
      * Number of "interesting" tokens to use to compute overall spamminess
      * probability.
@@ -148,6 +154,11 @@ public class BayesianAnalyzer {
          */
         String token = null;
 
+        /**
+         * Token's probability, or the one of its strongest degeneration.
+         */
+        double probability = DEFAULT_TOKEN_PROBABILITY;
+
         /**
          * Token's computed probability strength.
          */
@@ -348,11 +359,32 @@ public class BayesianAnalyzer {
 
         // Assign their probabilities from the Corpus (using an additional
         // calculation to determine spamminess).
-        SortedSet<TokenProbabilityStrength> tokenProbabilityStrengths = getTokenProbabilityStrengths(tokens, workCorpus);
+        SortedSet<TokenProbabilityStrength> tokenProbabilityStrengths = getTokenProbabilityStrengths(tokens, workCorpus::get);
 
         // Compute and return the overall probability that the
         // stream is SPAM.
-        return computeOverallProbability(tokenProbabilityStrengths, workCorpus);
+        return computeOverallProbability(tokenProbabilityStrengths);
+    }
+
+    /**
+     * Computes the probability that the stream contains SPAM, the token
+     * probabilities being computed from the counts held by the given store.
+     *
+     * @param stream The text to be analyzed for Spamminess.
+     * @param store The ham and spam token counts to use
+     * @return A 0.0 - 1.0 probability
+     * @throws IOException If any error occurs
+     */
+    public double computeSpamProbability(Reader stream, TokenCountStore store) throws java.io.IOException {
+        Set<String> tokens = parse(stream);
+
+        int workHamMessageCount = store.getHamMessageCount();
+        int workSpamMessageCount = store.getSpamMessageCount();
+        Function<String, Double> probabilities = token -> store.get(token)
+            .map(counts -> computeProbability(counts.getHamCount(), counts.getSpamCount(), workHamMessageCount, workSpamMessageCount))
+            .orElse(null);
+
+        return computeOverallProbability(getTokenProbabilityStrengths(tokens, probabilities));
     }
 
     /**
@@ -520,32 +552,29 @@ public class BayesianAnalyzer {
      * @return The probability that the token occurs within spam.
      */
     private double computeProbability(String token) {
+        return computeProbability(hamTokenCounts.getOrDefault(token, 0), spamTokenCounts.getOrDefault(token, 0),
+            hamMessageCount, spamMessageCount);
+    }
+
+    private double computeProbability(int hamCount, int spamCount, int hamMessageCount, int spamMessageCount) {
         double hamFactor = 0;
         double spamFactor = 0;
 
-        boolean foundInHam = false;
-        boolean foundInSpam = false;
+        boolean foundInHam = hamCount > 0;
+        boolean foundInSpam = spamCount > 0;
 
         double minThreshold = 0.01;
         double maxThreshold = 0.99;
 
-        if (hamTokenCounts.containsKey(token)) {
-            foundInHam = true;
-        }
-
-        if (spamTokenCounts.containsKey(token)) {
-            foundInSpam = true;
-        }
-
         if (foundInHam) {
-            hamFactor = 2 * hamTokenCounts.get(token).doubleValue();
+            hamFactor = 2 * (double) hamCount;
             if (!foundInSpam) {
                 minThreshold = (hamFactor > 20) ? 0.0001 : 0.0002;
             }
         }
 
         if (foundInSpam) {
-            spamFactor = spamTokenCounts.get(token).doubleValue();
+            spamFactor = spamCount;
             if (!foundInHam) {
                 maxThreshold = (spamFactor > 10) ? 0.9999 : 0.9998;
             }
@@ -568,10 +597,10 @@ public class BayesianAnalyzer {
      * strength to the lowest strength.
      *
      * @param tokens
-     * @param workCorpus
+     * @param probabilities the probability of a token, null if the token is unknown
      * @return SortedSet of TokenProbabilityStrength objects.
      */
-    private SortedSet<TokenProbabilityStrength> getTokenProbabilityStrengths(Set<String> tokens, Map<String, Double> workCorpus) {
+    private SortedSet<TokenProbabilityStrength> getTokenProbabilityStrengths(Set<String> tokens, Function<String, Double> probabilities) {
         // Convert to a SortedSet of token probability strengths.
         SortedSet<TokenProbabilityStrength> tokenProbabilityStrengths = new TreeSet<>();
 
@@ -580,14 +609,15 @@ public class BayesianAnalyzer {
 
             tps.token = token;
 
-            if (workCorpus.containsKey(tps.token)) {
-                tps.strength = Math.abs(0.5 - workCorpus.get(tps.token));
+            Double tokenProbability = probabilities.apply(tps.token);
+            if (tokenProbability != null) {
+                tps.probability = tokenProbability;
+                tps.strength = Math.abs(0.5 - tokenProbability);
             } else {
                 // This token has never been seen before,
-                // we'll give it initially the default probability.
-                Double corpusProbability = DEFAULT_TOKEN_PROBABILITY;
+                // we'll give it initially the default probability,
+                // unless one of its degenerations is stronger.
                 tps.strength = Math.abs(0.5 - DEFAULT_TOKEN_PROBABILITY);
-                boolean isTokenDegeneratedFound = false;
 
                 Collection<String> degeneratedTokens = buildDegenerated(tps.token);
                 Iterator<String> iDegenerated = degeneratedTokens.iterator();
@@ -595,23 +625,15 @@ public class BayesianAnalyzer {
                 double strengthDegenerated;
                 while (iDegenerated.hasNext()) {
                     tokenDegenerated = iDegenerated.next();
-                    if (workCorpus.containsKey(tokenDegenerated)) {
-                        Double probabilityTemp = workCorpus.get(tokenDegenerated);
+                    Double probabilityTemp = probabilities.apply(tokenDegenerated);
+                    if (probabilityTemp != null) {
                         strengthDegenerated = Math.abs(0.5 - probabilityTemp);
                         if (strengthDegenerated > tps.strength) {
-                            isTokenDegeneratedFound = true;
                             tps.strength = strengthDegenerated;
-                            corpusProbability = probabilityTemp;
+                            tps.probability = probabilityTemp;
                         }
                     }
                 }
-                // to reduce memory usage, put in the corpus only if the
-                // probability is different from (stronger than) the default
-                if (isTokenDegeneratedFound) {
-                    synchronized (lock) {
-                        workCorpus.put(tps.token, corpusProbability);
-                    }
-                }
             }
 
             tokenProbabilityStrengths.add(tps);
@@ -675,10 +697,9 @@ public class BayesianAnalyzer {
      * tokenProbabilities SortedSet.
      *
      * @param tokenProbabilityStrengths
-     * @param workCorpus
      * @return Computed spamminess.
      */
-    private double computeOverallProbability(SortedSet<TokenProbabilityStrength> tokenProbabilityStrengths, Map<String, Double> workCorpus) {
+    private double computeOverallProbability(SortedSet<TokenProbabilityStrength> tokenProbabilityStrengths) {
         double p = 1.0;
         double np = 1.0;
         double tempStrength = 0.5;
@@ -690,14 +711,9 @@ public class BayesianAnalyzer {
 
             // System.out.println(tps);
 
-            double theDoubleValue = DEFAULT_TOKEN_PROBABILITY; // initialize it
-            // to the default
-            Double theDoubleObject = workCorpus.get(tps.token);
-            // if either the original token or a degeneration was found use the
-            // double value, otherwise use the default
-            if (theDoubleObject != null) {
-                theDoubleValue = theDoubleObject;
-            }
+            // either the probability of the original token or of a
+            // degeneration if found, otherwise the default
+            double theDoubleValue = tps.probability;
             p *= theDoubleValue;
             np *= (1.0 - theDoubleValue);
             // System.out.println("Token " + tps + ", p=" + theDoubleValue +
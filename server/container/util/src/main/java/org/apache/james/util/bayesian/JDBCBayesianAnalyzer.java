@@ -69,6 +69,11 @@ public class JDBCBayesianAnalyzer extends BayesianAnalyzer {
     /** Holds value of property lastDatabaseUpdateTime. */
     private static long lastDatabaseUpdateTime;
 
+    /** Token counts shared by the analyzers of this JVM, guarded by {@link #DATABASE_LOCK} for loading. */
+    private static final TokenCountStore TOKEN_COUNT_STORE = new TokenCountStore();
+
+    private static boolean tokenCountStoreLoaded = false;
+
     /**
      * Getter for property sqlFileName.
      * 
@@ -129,12 +134,76 @@ public class JDBCBayesianAnalyzer extends BayesianAnalyzer {
         lastDatabaseUpdateTime = System.currentTimeMillis();
     }
 
+    /**
+     * Getter for the static token count store, loaded by {@link #loadTokenCountStore(Connection)}.
+     */
+    public static TokenCountStore getTokenCountStore() {
+        return TOKEN_COUNT_STORE;
+    }
+
     /**
      * Default constructor.
      */
     public JDBCBayesianAnalyzer() {
     }
 
+    /**
+     * Streams the token frequencies from the database into the shared
+     * {@link TokenCountStore}, unless it was already loaded. It is then kept up
+     * to date by {@link #updateTokenCountStore()}.
+     *
+     * Callers should hold {@link #DATABASE_LOCK}.
+     *
+     * @param conn
+     *            The connection for accessing the database
+     * @throws SQLException
+     *             If a database error occurs
+     */
+    public void loadTokenCountStore(Connection conn) throws SQLException {
+        if (tokenCountStoreLoaded) {
+            return;
+        }
+        TOKEN_COUNT_STORE.clear();
+
+        try (PreparedStatement hamTokens = conn.prepareStatement(sqlQueries.getSqlString("selectHamTokens", true));
+             ResultSet rs = hamTokens.executeQuery()) {
+            while (rs.next()) {
+                TOKEN_COUNT_STORE.add(rs.getString(1), rs.getInt(2), 0);
+            }
+        }
+
+        try (PreparedStatement spamTokens = conn.prepareStatement(sqlQueries.getSqlString("selectSpamTokens", true));
+             ResultSet rs = spamTokens.executeQuery()) {
+            while (rs.next()) {
+                TOKEN_COUNT_STORE.add(rs.getString(1), 0, rs.getInt(2));
+            }
+        }
+
+        try (PreparedStatement messageCounts = conn.prepareStatement(sqlQueries.getSqlString("selectMessageCounts", true));
+             ResultSet rs = messageCounts.executeQuery()) {
+            if (rs.next()) {
+                TOKEN_COUNT_STORE.addMessageCounts(rs.getInt(1), rs.getInt(2));
+            }
+        }
+
+        LOGGER.debug("Loaded {} tokens in the token count store", TOKEN_COUNT_STORE.size());
+        tokenCountStoreLoaded = true;
+    }
+
+    /**
+     * Adds the current ham and spam token counts to the shared
+     * {@link TokenCountStore}, if it was loaded. To be called once these
+     * counts are committed to the database.
+     *
+     * Callers should hold {@link #DATABASE_LOCK}.
+     */
+    public void updateTokenCountStore() {
+        if (tokenCountStoreLoaded) {
+            TOKEN_COUNT_STORE.addHam(getHamTokenCounts(), getHamMessageCount());
+            TOKEN_COUNT_STORE.addSpam(getSpamTokenCounts(), getSpamMessageCount());
+        }
+    }
+
     /**
      * Loads the token frequencies from the database.
      * 
@@ -260,6 +329,7 @@ public class JDBCBayesianAnalyzer extends BayesianAnalyzer {
         deleteData(conn, sqlQueries.getSqlString("deleteHamTokens", true));
         deleteData(conn, sqlQueries.getSqlString("deleteSpamTokens", true));
         deleteData(conn, sqlQueries.getSqlString("deleteMessageCounts", true));
+        TOKEN_COUNT_STORE.clear();
     }
 
     private void setMessageCount(Connection conn, String sqlStatement, int count) throws java.sql.SQLException {
@@ -0,0 +1,215 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.util.bayesian;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Compact store of the ham and spam occurrences of the tokens of a bayesian corpus.
+ *
+ * <p>
+ * Tokens are only kept as a 64 bits hash, in an open addressing table backed by primitive arrays. This takes around 32
+ * bytes per token where a {@link java.util.HashMap} of boxed counts takes several hundreds.
+ * </p>
+ *
+ * <p>
+ * Updates are serialized but reads are lock free: a reader sees the counts of a token either before or after a
+ * concurrent update of this token.
+ * </p>
+ */
+public class TokenCountStore {
+
+    public static class TokenCounts {
+        private final int hamCount;
+        private final int spamCount;
+
+        TokenCounts(int hamCount, int spamCount) {
+            this.hamCount = hamCount;
+            this.spamCount = spamCount;
+        }
+
+        public int getHamCount() {
+            return hamCount;
+        }
+
+        public int getSpamCount() {
+            return spamCount;
+        }
+    }
+
+    private static class Table {
+        private final AtomicLongArray keys;
+        private final AtomicIntegerArray hamCounts;
+        private final AtomicIntegerArray spamCounts;
+        private final int mask;
+        // Only written under the store lock, volatile so that size() reads it lock free
+        private volatile int size;
+
+        private Table(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.hamCounts = new AtomicIntegerArray(capacity);
+            this.spamCounts = new AtomicIntegerArray(capacity);
+            this.mask = capacity - 1;
+            this.size = 0;
+        }
+
+        /**
+         * @return the slot holding this key, or the empty slot where it should be inserted
+         */
+        private int slotOf(long key) {
+            int slot = (int) (key ^ (key >>> 32)) & mask;
+            while (true) {
+                long current = keys.get(slot);
+                if (current == key || current == EMPTY) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+    }
+
+    private static final long EMPTY = 0L;
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private volatile Table table;
+    private volatile int hamMessageCount;
+    private volatile int spamMessageCount;
+
+    public TokenCountStore() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public TokenCountStore(int expectedTokens) {
+        Preconditions.checkArgument(expectedTokens >= 0, "'expectedTokens' should not be negative");
+        this.table = new Table(capacityFor(expectedTokens));
+    }
+
+    private static int capacityFor(int tokens) {
+        // Keeps the load factor under 0.5 so that probe sequences stay short
+        return Integer.highestOneBit(Math.max(tokens, 1) * 2 - 1) << 1;
+    }
+
+    static long hash(String token) {
+        long hash = HASH_FUNCTION.hashString(token, StandardCharsets.UTF_8).asLong();
+        if (hash == EMPTY) {
+            return 1L;
+        }
+        return hash;
+    }
+
+    /**
+     * Adds the ham occurrences of the given tokens, found in the given number of messages.
+     */
+    public synchronized void addHam(Map<String, Integer> tokenCounts, int messageCount) {
+        tokenCounts.forEach((token, count) -> add(token, count, 0));
+        hamMessageCount += messageCount;
+    }
+
+    /**
+     * Adds the spam occurrences of the given tokens, found in the given number of messages.
+     */
+    public synchronized void addSpam(Map<String, Integer> tokenCounts, int messageCount) {
+        tokenCounts.forEach((token, count) -> add(token, 0, count));
+        spamMessageCount += messageCount;
+    }
+
+    public synchronized void add(String token, int hamCount, int spamCount) {
+        long key = hash(token);
+        Table current = table;
+        int slot = current.slotOf(key);
+        if (current.keys.get(slot) == key) {
+            current.hamCounts.addAndGet(slot, hamCount);
+            current.spamCounts.addAndGet(slot, spamCount);
+            return;
+        }
+
+        if (2 * (current.size + 1) > current.capacity()) {
+            current = resize(current);
+            slot = current.slotOf(key);
+        }
+        // Counts are written before the key so that a reader finding the key also finds its counts
+        current.hamCounts.set(slot, hamCount);
+        current.spamCounts.set(slot, spamCount);
+        current.keys.set(slot, key);
+        current.size++;
+    }
+
+    private Table resize(Table current) {
+        Table resized = new Table(current.capacity() * 2);
+        for (int slot = 0; slot < current.capacity(); slot++) {
+            long key = current.keys.get(slot);
+            if (key != EMPTY) {
+                int newSlot = resized.slotOf(key);
+                resized.hamCounts.set(newSlot, current.hamCounts.get(slot));
+                resized.spamCounts.set(newSlot, current.spamCounts.get(slot));
+                resized.keys.set(newSlot, key);
+                resized.size++;
+            }
+        }
+        table = resized;
+        return resized;
+    }
+
+    public synchronized void addMessageCounts(int hamMessageCount, int spamMessageCount) {
+        this.hamMessageCount += hamMessageCount;
+        this.spamMessageCount += spamMessageCount;
+    }
+
+    public Optional<TokenCounts> get(String token) {
+        long key = hash(token);
+        Table current = table;
+        int slot = current.slotOf(key);
+        if (current.keys.get(slot) != key) {
+            return Optional.empty();
+        }
+        return Optional.of(new TokenCounts(current.hamCounts.get(slot), current.spamCounts.get(slot)));
+    }
+
+    public int getHamMessageCount() {
+        return hamMessageCount;
+    }
+
+    public int getSpamMessageCount() {
+        return spamMessageCount;
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    public synchronized void clear() {
+        table = new Table(DEFAULT_INITIAL_CAPACITY);
+        hamMessageCount = 0;
+        spamMessageCount = 0;
+    }
+}
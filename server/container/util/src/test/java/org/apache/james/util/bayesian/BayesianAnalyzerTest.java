@@ -0,0 +1,82 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.util.bayesian;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BayesianAnalyzerTest {
+    private static final String HAM = "Subject: Meeting\nLet us meet tomorrow to review the release notes of James\n";
+    private static final String SPAM = "Subject: WIN MONEY\nClaim your FREE prize now! Cheap pills, free money, click now!\n";
+
+    private BayesianAnalyzer analyzer;
+    private TokenCountStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        analyzer = new BayesianAnalyzer();
+        for (int i = 0; i < 5; i++) {
+            analyzer.addHam(new StringReader(HAM));
+            analyzer.addSpam(new StringReader(SPAM));
+        }
+
+        store = new TokenCountStore();
+        store.addHam(analyzer.getHamTokenCounts(), analyzer.getHamMessageCount());
+        store.addSpam(analyzer.getSpamTokenCounts(), analyzer.getSpamMessageCount());
+        analyzer.buildCorpus();
+    }
+
+    @Test
+    void computeSpamProbabilityShouldDetectSpam() throws IOException {
+        assertThat(analyzer.computeSpamProbability(new StringReader(SPAM), store)).isGreaterThan(0.9);
+    }
+
+    @Test
+    void computeSpamProbabilityShouldDetectHam() throws IOException {
+        assertThat(analyzer.computeSpamProbability(new StringReader(HAM), store)).isLessThan(0.1);
+    }
+
+    @Test
+    void computeSpamProbabilityShouldMatchTheOneComputedFromTheCorpus() throws IOException {
+        String text = "Subject: free meeting\nClaim your prize tomorrow, FREE!!\n";
+
+        assertThat(analyzer.computeSpamProbability(new StringReader(text), store))
+            .isEqualTo(analyzer.computeSpamProbability(new StringReader(text)));
+    }
+
+    @Test
+    void computeSpamProbabilityShouldTakeStoreUpdatesIntoAccount() throws IOException {
+        String text = "Subject: unrelated\nquarterly roadmap synchronisation\n";
+        double before = analyzer.computeSpamProbability(new StringReader(text), store);
+
+        BayesianAnalyzer feeder = new BayesianAnalyzer();
+        for (int i = 0; i < 5; i++) {
+            feeder.addSpam(new StringReader(text));
+        }
+        store.addSpam(feeder.getSpamTokenCounts(), feeder.getSpamMessageCount());
+
+        assertThat(analyzer.computeSpamProbability(new StringReader(text), store)).isGreaterThan(before);
+    }
+}
@@ -0,0 +1,135 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.util.bayesian;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import org.apache.james.util.concurrency.ConcurrentTestRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+class TokenCountStoreTest {
+    private TokenCountStore testee;
+
+    @BeforeEach
+    void setUp() {
+        testee = new TokenCountStore();
+    }
+
+    @Test
+    void getShouldReturnEmptyForUnknownToken() {
+        assertThat(testee.get("unknown")).isEmpty();
+    }
+
+    @Test
+    void getShouldReturnAddedCounts() {
+        testee.add("token", 3, 5);
+
+        assertThat(testee.get("token"))
+            .hasValueSatisfying(counts -> {
+                assertThat(counts.getHamCount()).isEqualTo(3);
+                assertThat(counts.getSpamCount()).isEqualTo(5);
+            });
+    }
+
+    @Test
+    void addShouldIncrementExistingCounts() {
+        testee.add("token", 3, 5);
+        testee.add("token", 1, 2);
+
+        assertThat(testee.get("token"))
+            .hasValueSatisfying(counts -> {
+                assertThat(counts.getHamCount()).isEqualTo(4);
+                assertThat(counts.getSpamCount()).isEqualTo(7);
+            });
+        assertThat(testee.size()).isEqualTo(1);
+    }
+
+    @Test
+    void addHamShouldUpdateTokensAndMessageCount() {
+        testee.addHam(ImmutableMap.of("a", 1, "b", 2), 1);
+
+        assertThat(testee.get("b")).hasValueSatisfying(counts -> assertThat(counts.getHamCount()).isEqualTo(2));
+        assertThat(testee.getHamMessageCount()).isEqualTo(1);
+        assertThat(testee.getSpamMessageCount()).isEqualTo(0);
+    }
+
+    @Test
+    void addSpamShouldUpdateTokensAndMessageCount() {
+        testee.addSpam(ImmutableMap.of("a", 1, "b", 2), 1);
+
+        assertThat(testee.get("b")).hasValueSatisfying(counts -> assertThat(counts.getSpamCount()).isEqualTo(2));
+        assertThat(testee.getSpamMessageCount()).isEqualTo(1);
+        assertThat(testee.getHamMessageCount()).isEqualTo(0);
+    }
+
+    @Test
+    void storeShouldGrowBeyondItsInitialCapacity() {
+        testee = new TokenCountStore(4);
+
+        IntStream.range(0, 10000).forEach(i -> testee.add("token" + i, i, 1));
+
+        assertThat(testee.size()).isEqualTo(10000);
+        assertThat(IntStream.range(0, 10000)
+            .allMatch(i -> testee.get("token" + i).map(counts -> counts.getHamCount() == i).orElse(false)))
+            .isTrue();
+    }
+
+    @Test
+    void clearShouldRemoveTokensAndMessageCounts() {
+        testee.addHam(ImmutableMap.of("a", 1), 1);
+
+        testee.clear();
+
+        assertThat(testee.get("a")).isEmpty();
+        assertThat(testee.size()).isEqualTo(0);
+        assertThat(testee.getHamMessageCount()).isEqualTo(0);
+    }
+
+    @Test
+    void constructorShouldThrowOnNegativeExpectedTokens() {
+        assertThatThrownBy(() -> new TokenCountStore(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void readsShouldBeConsistentWithConcurrentUpdates() throws Exception {
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, step) -> {
+                if (threadNumber == 0) {
+                    testee.add("token" + step, 1, 1);
+                } else {
+                    testee.get("token" + step)
+                        .ifPresent(counts -> assertThat(counts.getHamCount()).isEqualTo(counts.getSpamCount()));
+                }
+            })
+            .threadCount(4)
+            .operationCount(1000)
+            .runSuccessfullyWithin(Duration.ofMinutes(1));
+
+        assertThat(testee.size()).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,70 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.dnsservice.api;
+
+import java.net.InetAddress;
+import java.util.Collection;
+
+import org.reactivestreams.Publisher;
+
+/**
+ * Non blocking counterpart of {@link DNSService}.
+ *
+ * Lookups are not run on the subscribing thread, allowing several of them to be issued at once, for instance against all
+ * the configured RBL zones.
+ */
+public interface AsyncDNSService {
+
+    /**
+     * See {@link DNSService#findMXRecords(String)}.
+     *
+     * @return a prioritized unmodifiable list of handling servers corresponding to this mail domain name. The
+     *         publisher fails with a {@link TemporaryResolutionException} on temporary problems.
+     */
+    Publisher<Collection<String>> findMXRecords(String hostname);
+
+    /**
+     * See {@link DNSService#findTXTRecords(String)}.
+     *
+     * @return a publisher of the collection of strings representing TXT record values
+     */
+    Publisher<Collection<String>> findTXTRecords(String hostname);
+
+    /**
+     * See {@link DNSService#getAllByName(String)}.
+     *
+     * @return a publisher of the resolved addresses, empty if the host could not be resolved
+     */
+    Publisher<Collection<InetAddress>> getAllByName(String host);
+
+    /**
+     * See {@link DNSService#getByName(String)}.
+     *
+     * @return a publisher of the resolved address, empty if the host could not be resolved
+     */
+    Publisher<InetAddress> getByName(String host);
+
+    /**
+     * See {@link DNSService#getHostName(InetAddress)}.
+     *
+     * @return a publisher of the resolved hostname
+     */
+    Publisher<String> getHostName(InetAddress addr);
+}
@@ -0,0 +1,241 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.dnsservice.library;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.apache.james.dnsservice.api.AsyncDNSService;
+import org.apache.james.dnsservice.api.DNSService;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * {@link AsyncDNSService} running the lookups of a blocking {@link DNSService} on a dedicated scheduler.
+ *
+ * Identical queries issued while a lookup is in flight share its result. Results are then cached for at most
+ * positiveTTL, while lookups yielding no result are cached for at most negativeTTL. Temporary failures are not cached.
+ * The underlying {@link DNSService} is expected to honor the TTL of the records it returns, the durations configured
+ * here only bound how long a result can be served without asking it again.
+ */
+public class CachingAsyncDNSService implements AsyncDNSService {
+    public static final Duration DEFAULT_POSITIVE_TTL = Duration.ofMinutes(1);
+    public static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofSeconds(30);
+    public static final int DEFAULT_MAX_CACHED_ENTRIES = 50000;
+
+    public static final String CACHE_HITS = "dnsCacheHits";
+    public static final String CACHE_MISSES = "dnsCacheMisses";
+    public static final String COALESCED_QUERIES = "dnsCoalescedQueries";
+    public static final String LOOKUP_DURATION = "dnsAsyncLookup";
+
+    private enum QueryType {
+        MX,
+        TXT,
+        ALL_BY_NAME,
+        BY_NAME,
+        HOST_NAME
+    }
+
+    private static class Query {
+        private final QueryType type;
+        private final String name;
+
+        private Query(QueryType type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof Query) {
+                Query that = (Query) o;
+
+                return Objects.equals(this.type, that.type)
+                    && Objects.equals(this.name, that.name);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(type, name);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("type", type)
+                .add("name", name)
+                .toString();
+        }
+    }
+
+    private final DNSService dnsService;
+    private final MetricFactory metricFactory;
+    private final Metric cacheHits;
+    private final Metric cacheMisses;
+    private final Metric coalescedQueries;
+    private final Cache<Query, Object> positiveCache;
+    private final Cache<Query, Boolean> negativeCache;
+    private final ConcurrentHashMap<Query, Mono<Optional<Object>>> inFlightQueries;
+    private final Scheduler scheduler;
+
+    @Inject
+    public CachingAsyncDNSService(DNSService dnsService, MetricFactory metricFactory) {
+        this(dnsService, metricFactory, DEFAULT_POSITIVE_TTL, DEFAULT_NEGATIVE_TTL, DEFAULT_MAX_CACHED_ENTRIES);
+    }
+
+    public CachingAsyncDNSService(DNSService dnsService, MetricFactory metricFactory, Duration positiveTTL, Duration negativeTTL,
+                                  int maxCachedEntries) {
+        Preconditions.checkArgument(!positiveTTL.isNegative(), "'positiveTTL' should not be negative");
+        Preconditions.checkArgument(!negativeTTL.isNegative(), "'negativeTTL' should not be negative");
+        Preconditions.checkArgument(maxCachedEntries >= 0, "'maxCachedEntries' should not be negative");
+
+        this.dnsService = dnsService;
+        this.metricFactory = metricFactory;
+        this.cacheHits = metricFactory.generate(CACHE_HITS);
+        this.cacheMisses = metricFactory.generate(CACHE_MISSES);
+        this.coalescedQueries = metricFactory.generate(COALESCED_QUERIES);
+        this.positiveCache = CacheBuilder.newBuilder()
+            .expireAfterWrite(positiveTTL.toMillis(), TimeUnit.MILLISECONDS)
+            .maximumSize(maxCachedEntries)
+            .build();
+        this.negativeCache = CacheBuilder.newBuilder()
+            .expireAfterWrite(negativeTTL.toMillis(), TimeUnit.MILLISECONDS)
+            .maximumSize(maxCachedEntries)
+            .build();
+        this.inFlightQueries = new ConcurrentHashMap<>();
+        this.scheduler = Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "dns-lookups");
+    }
+
+    @PreDestroy
+    public void dispose() {
+        scheduler.dispose();
+    }
+
+    @Override
+    public Mono<Collection<String>> findMXRecords(String hostname) {
+        return lookup(new Query(QueryType.MX, hostname), () -> nonEmpty(dnsService.findMXRecords(hostname)))
+            .defaultIfEmpty(ImmutableList.of());
+    }
+
+    @Override
+    public Mono<Collection<String>> findTXTRecords(String hostname) {
+        return lookup(new Query(QueryType.TXT, hostname), () -> nonEmpty(dnsService.findTXTRecords(hostname)))
+            .defaultIfEmpty(ImmutableList.of());
+    }
+
+    @Override
+    public Mono<Collection<InetAddress>> getAllByName(String host) {
+        return lookup(new Query(QueryType.ALL_BY_NAME, host), () -> {
+            try {
+                return nonEmpty(dnsService.getAllByName(host));
+            } catch (UnknownHostException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    @Override
+    public Mono<InetAddress> getByName(String host) {
+        return lookup(new Query(QueryType.BY_NAME, host), () -> {
+            try {
+                return Optional.ofNullable(dnsService.getByName(host));
+            } catch (UnknownHostException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    @Override
+    public Mono<String> getHostName(InetAddress addr) {
+        return lookup(new Query(QueryType.HOST_NAME, addr.getHostAddress()), () -> Optional.ofNullable(dnsService.getHostName(addr)));
+    }
+
+    private <T> Optional<Collection<T>> nonEmpty(Collection<T> collection) {
+        return Optional.ofNullable(collection)
+            .filter(values -> !values.isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> lookup(Query query, Callable<Optional<T>> resolution) {
+        Object cachedValue = positiveCache.getIfPresent(query);
+        if (cachedValue != null) {
+            cacheHits.increment();
+            return Mono.just((T) cachedValue);
+        }
+        if (negativeCache.getIfPresent(query) != null) {
+            cacheHits.increment();
+            return Mono.empty();
+        }
+
+        AtomicBoolean started = new AtomicBoolean(false);
+        Mono<Optional<Object>> inFlightQuery = inFlightQueries.computeIfAbsent(query, key -> {
+            started.set(true);
+            return resolve(key, (Callable<Optional<Object>>) (Callable<?>) resolution);
+        });
+        if (started.get()) {
+            cacheMisses.increment();
+        } else {
+            coalescedQueries.increment();
+        }
+        return inFlightQuery.flatMap(result -> Mono.justOrEmpty((Optional<T>) (Optional<?>) result));
+    }
+
+    private Mono<Optional<Object>> resolve(Query query, Callable<Optional<Object>> resolution) {
+        return Mono.defer(() -> metricFactory.runPublishingTimerMetric(LOOKUP_DURATION, Mono.fromCallable(resolution)))
+            .subscribeOn(scheduler)
+            .doOnNext(result -> cache(query, result))
+            .doOnError(e -> inFlightQueries.remove(query))
+            .doFinally(signal -> inFlightQueries.remove(query))
+            .cache();
+    }
+
+    private void cache(Query query, Optional<Object> result) {
+        if (result.isPresent()) {
+            positiveCache.put(query, result.get());
+        } else {
+            negativeCache.put(query, true);
+        }
+        // Subsequent queries are now answered by the cache
+        inFlightQueries.remove(query);
+    }
+}
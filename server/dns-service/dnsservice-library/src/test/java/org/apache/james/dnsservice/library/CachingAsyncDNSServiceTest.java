@@ -0,0 +1,231 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.dnsservice.library;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.james.dnsservice.api.InMemoryDNSService;
+import org.apache.james.dnsservice.api.TemporaryResolutionException;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.net.InetAddresses;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class CachingAsyncDNSServiceTest {
+    private static final InetAddress ADDRESS = InetAddresses.forString("1.2.3.4");
+    private static final String HOST = "mx.james.org";
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private static class StubDNSService extends InMemoryDNSService {
+        private final AtomicInteger byNameQueries = new AtomicInteger();
+        private final AtomicInteger mxQueries = new AtomicInteger();
+        private CountDownLatch latch = new CountDownLatch(0);
+        private boolean temporaryFailure = false;
+
+        @Override
+        public InetAddress getByName(String host) throws UnknownHostException {
+            byNameQueries.incrementAndGet();
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return super.getByName(host);
+        }
+
+        @Override
+        public Collection<String> findMXRecords(String hostname) throws TemporaryResolutionException {
+            mxQueries.incrementAndGet();
+            if (temporaryFailure) {
+                throw new TemporaryResolutionException("DNSService is temporary not reachable");
+            }
+            return super.findMXRecords(hostname);
+        }
+    }
+
+    private StubDNSService dnsService;
+    private RecordingMetricFactory metricFactory;
+    private CachingAsyncDNSService testee;
+
+    @Before
+    public void setUp() {
+        dnsService = new StubDNSService();
+        dnsService.registerRecord(HOST, ADDRESS, HOST);
+        metricFactory = new RecordingMetricFactory();
+        testee = new CachingAsyncDNSService(dnsService, metricFactory, TTL, TTL, 100);
+    }
+
+    @After
+    public void tearDown() {
+        testee.dispose();
+    }
+
+    @Test
+    public void getByNameShouldReturnResolvedAddress() {
+        assertThat(testee.getByName(HOST).block()).isEqualTo(ADDRESS);
+    }
+
+    @Test
+    public void getByNameShouldBeEmptyForUnknownHost() {
+        assertThat(testee.getByName("unknown.james.org").blockOptional()).isEmpty();
+    }
+
+    @Test
+    public void getAllByNameShouldBeEmptyForUnknownHost() {
+        assertThat(testee.getAllByName("unknown.james.org").blockOptional()).isEmpty();
+    }
+
+    @Test
+    public void findMXRecordsShouldReturnRecords() {
+        assertThat(testee.findMXRecords(HOST).block()).containsExactly(HOST);
+    }
+
+    @Test
+    public void findTXTRecordsShouldReturnEmptyWhenNoRecords() {
+        assertThat(testee.findTXTRecords(HOST).block()).isEmpty();
+    }
+
+    @Test
+    public void findMXRecordsShouldPropagateTemporaryFailures() {
+        dnsService.temporaryFailure = true;
+
+        assertThatThrownBy(() -> testee.findMXRecords(HOST).block())
+            .hasCauseInstanceOf(TemporaryResolutionException.class);
+    }
+
+    @Test
+    public void temporaryFailuresShouldNotBeCached() {
+        dnsService.temporaryFailure = true;
+        testee.findMXRecords(HOST).onErrorResume(e -> Mono.empty()).block();
+        dnsService.temporaryFailure = false;
+
+        assertThat(testee.findMXRecords(HOST).block()).containsExactly(HOST);
+    }
+
+    @Test
+    public void positiveResultsShouldBeCached() {
+        testee.getByName(HOST).block();
+        testee.getByName(HOST).block();
+
+        assertThat(dnsService.byNameQueries.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void negativeResultsShouldBeCached() {
+        testee.getByName("unknown.james.org").blockOptional();
+        testee.getByName("unknown.james.org").blockOptional();
+
+        assertThat(dnsService.byNameQueries.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void cacheShouldDistinguishQueryTypes() {
+        testee.getByName(HOST).block();
+        testee.findMXRecords(HOST).block();
+
+        assertThat(dnsService.mxQueries.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void resultsShouldNotBeCachedWhenTTLIsZero() {
+        testee.dispose();
+        testee = new CachingAsyncDNSService(dnsService, metricFactory, Duration.ZERO, Duration.ZERO, 100);
+
+        testee.getByName(HOST).block();
+        testee.getByName(HOST).block();
+
+        assertThat(dnsService.byNameQueries.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void concurrentIdenticalQueriesShouldBeCoalesced() {
+        dnsService.latch = new CountDownLatch(1);
+
+        Mono<InetAddress> first = testee.getByName(HOST);
+        Mono<InetAddress> second = testee.getByName(HOST);
+        Mono<List<InetAddress>> both = Flux.merge(first, second).collectList().cache();
+        both.subscribe();
+        dnsService.latch.countDown();
+
+        assertThat(both.block()).containsExactly(ADDRESS, ADDRESS);
+        assertThat(dnsService.byNameQueries.get()).isEqualTo(1);
+        assertThat(metricFactory.countFor(CachingAsyncDNSService.COALESCED_QUERIES)).isEqualTo(1);
+    }
+
+    @Test
+    public void lookupsShouldNotBlockTheSubscribingThread() throws Exception {
+        dnsService.latch = new CountDownLatch(1);
+        CountDownLatch resolved = new CountDownLatch(1);
+
+        testee.getByName(HOST).subscribe(address -> resolved.countDown());
+
+        assertThat(resolved.getCount()).isEqualTo(1);
+        dnsService.latch.countDown();
+        resolved.await();
+    }
+
+    @Test
+    public void metricsShouldRecordHitsAndMisses() {
+        testee.getByName(HOST).block();
+        testee.getByName(HOST).block();
+        testee.getByName(HOST).block();
+
+        assertThat(metricFactory.countFor(CachingAsyncDNSService.CACHE_MISSES)).isEqualTo(1);
+        assertThat(metricFactory.countFor(CachingAsyncDNSService.CACHE_HITS)).isEqualTo(2);
+    }
+
+    @Test
+    public void lookupDurationShouldBeRecorded() {
+        testee.findMXRecords(HOST).block();
+
+        assertThat(metricFactory.executionTimesFor(CachingAsyncDNSService.LOOKUP_DURATION)).hasSize(1);
+    }
+
+    @Test
+    public void constructorShouldThrowOnNegativeTTL() {
+        assertThatThrownBy(() -> new CachingAsyncDNSService(dnsService, metricFactory, Duration.ofSeconds(-1), TTL, 100))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void getHostNameShouldReturnResolvedHostName() {
+        assertThat(testee.getHostName(ADDRESS).block()).isEqualTo(HOST);
+    }
+
+    @Test
+    public void getAllByNameShouldReturnResolvedAddresses() {
+        assertThat(testee.getAllByName(HOST).block()).isEqualTo(ImmutableList.of(ADDRESS));
+    }
+}
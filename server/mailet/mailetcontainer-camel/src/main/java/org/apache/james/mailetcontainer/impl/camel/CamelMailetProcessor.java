@@ -42,8 +42,6 @@ import org.apache.mailet.Matcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.ImmutableList;
-
 /**
  * {@link org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor} implementation which use Camel DSL for
  * the {@link Matcher} / {@link Mailet} routing
@@ -56,7 +54,6 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
     private ProducerTemplate producerTemplate;
 
     private final MetricFactory metricFactory;
-    private List<MatcherMailetPair> pairs;
 
     public CamelMailetProcessor(MetricFactory metricFactory) {
         this.metricFactory = metricFactory;
@@ -82,10 +79,6 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
         this.context = context;
     }
 
-    public List<MatcherMailetPair> getPairs() {
-        return ImmutableList.copyOf(pairs);
-    }
-
     /**
      * Return the endpoint for the processorname.
      * 
@@ -109,7 +102,6 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
     @Override
     protected void setupRouting(List<MatcherMailetPair> pairs) throws MessagingException {
         try {
-            this.pairs = pairs;
             context.addRoutes(new MailetContainerRouteBuilder(this, metricFactory, pairs));
         } catch (Exception e) {
             throw new MessagingException("Unable to setup routing for MailetMatcherPairs", e);
@@ -151,8 +151,7 @@ public class MatcherSplitter {
                 } else {
                     mail.setRecipients(rcpts);
 
-                    Mail newMail = MailImpl.duplicate(mail);
-                    newMail.setRecipients(matchedRcpts);
+                    Mail newMail = MailImpl.split(mail, matchedRcpts);
 
                     // Set a header because the matcher matched. This can be
                     // used later when processing the route
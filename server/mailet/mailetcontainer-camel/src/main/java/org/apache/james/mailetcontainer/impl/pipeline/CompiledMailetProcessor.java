@@ -0,0 +1,312 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailetcontainer.impl.pipeline;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.core.MailAddress;
+import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.mailetcontainer.impl.MailetConfigImpl;
+import org.apache.james.mailetcontainer.impl.MatcherMailetPair;
+import org.apache.james.mailetcontainer.impl.ProcessorUtil;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+import org.apache.james.server.core.MailImpl;
+import org.apache.james.util.MDCBuilder;
+import org.apache.mailet.Mail;
+import org.apache.mailet.Mailet;
+import org.apache.mailet.MailetConfig;
+import org.apache.mailet.Matcher;
+import org.apache.mailet.base.MailetPipelineLogging;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * {@link AbstractStateMailetProcessor} implementation which compiles the {@link Matcher} / {@link Mailet}
+ * pairs into a flat array of steps, invoked directly.
+ *
+ * Mails are split, when a matcher matches only some of their recipients, by partitioning the recipient
+ * list with a {@link BitSet}: the matched part goes down the remaining steps first, then the unmatched
+ * part carries on from the next step. This is the routing {@link org.apache.james.mailetcontainer.impl.camel.CamelMailetProcessor}
+ * performs, without the Camel exchanges.
+ */
+public class CompiledMailetProcessor extends AbstractStateMailetProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompiledMailetProcessor.class);
+
+    private final MetricFactory metricFactory;
+    private Step[] steps;
+    private Step terminatingStep;
+
+    public CompiledMailetProcessor(MetricFactory metricFactory) {
+        this.metricFactory = metricFactory;
+    }
+
+    @Override
+    public void service(Mail mail) throws MessagingException {
+        process(mail, 0);
+    }
+
+    @Override
+    protected void setupRouting(List<MatcherMailetPair> pairs) {
+        this.steps = pairs.stream()
+            .map(Step::new)
+            .toArray(Step[]::new);
+        this.terminatingStep = new Step(new TerminatingMailet());
+    }
+
+    private void process(Mail mail, int firstStep) throws MessagingException {
+        for (int index = firstStep; index < steps.length; index++) {
+            Step step = steps[index];
+            List<MailAddress> recipients = ImmutableList.copyOf(mail.getRecipients());
+            BitSet matched = match(step, mail, recipients);
+            int matchedCount = matched.cardinality();
+
+            if (matchedCount > 0 && matchedCount == recipients.size()) {
+                runMailet(step, mail);
+            } else if (matchedCount > 0) {
+                Mail matchedMail = split(mail, recipients, matched);
+                runMailet(step, matchedMail);
+                if (continueWith(matchedMail)) {
+                    process(matchedMail, index + 1);
+                }
+            }
+
+            if (!continueWith(mail)) {
+                return;
+            }
+        }
+
+        terminate(mail);
+    }
+
+    /**
+     * Removes the matched recipients from the mail and returns a split mail carrying them.
+     */
+    private Mail split(Mail mail, List<MailAddress> recipients, BitSet matched) throws MessagingException {
+        List<MailAddress> matchedRecipients = new ArrayList<>(matched.cardinality());
+        List<MailAddress> unmatchedRecipients = new ArrayList<>(recipients.size() - matched.cardinality());
+        for (int i = 0; i < recipients.size(); i++) {
+            if (matched.get(i)) {
+                matchedRecipients.add(recipients.get(i));
+            } else {
+                unmatchedRecipients.add(recipients.get(i));
+            }
+        }
+
+        mail.setRecipients(unmatchedRecipients);
+        return MailImpl.split(mail, matchedRecipients);
+    }
+
+    /**
+     * Disposes ghosted mails and hands mails whose state changed to their new processor.
+     *
+     * @return true if the mail should go on through this processor
+     */
+    private boolean continueWith(Mail mail) throws MessagingException {
+        if (mail.getState().equals(Mail.GHOST)) {
+            dispose(mail);
+            return false;
+        }
+        if (!mail.getState().equals(getState())) {
+            toProcessor(mail);
+            LOGGER.debug("End of mailetprocessor for state {} reached", getState());
+            return false;
+        }
+        return true;
+    }
+
+    private void terminate(Mail mail) throws MessagingException {
+        if (mail.getState().equals(getState())) {
+            runMailet(terminatingStep, mail);
+        }
+        if (mail.getState().equals(Mail.GHOST)) {
+            dispose(mail);
+        }
+        LOGGER.debug("End of mailetprocessor for state {} reached", getState());
+    }
+
+    private void dispose(Mail mail) throws MessagingException {
+        LifecycleUtil.dispose(mail.getMessage());
+        LifecycleUtil.dispose(mail);
+    }
+
+    private BitSet match(Step step, Mail mail, List<MailAddress> recipients) throws MessagingException {
+        Collection<MailAddress> matchedRcpts = null;
+        long start = System.currentTimeMillis();
+        Exception ex = null;
+        TimeMetric timeMetric = metricFactory.timer(step.matcherMetricName);
+
+        try (Closeable closeable =
+                 MDCBuilder.create()
+                     .addContext(MDCBuilder.PROTOCOL, "MAILET")
+                     .addContext(MDCBuilder.ACTION, "MATCHER")
+                     .addContext(MDCBuilder.IP, mail.getRemoteAddr())
+                     .addContext(MDCBuilder.HOST, mail.getRemoteHost())
+                     .addContext("matcher", step.matcher.getMatcherInfo())
+                     .addContext("state", mail.getState())
+                     .addContext("mail", mail.getName())
+                     .addContext("recipients", recipients)
+                     .addContext("sender", mail.getMaybeSender())
+                     .build()) {
+            matchedRcpts = step.matcher.match(mail);
+            if (matchedRcpts != null && matchedRcpts != mail.getRecipients()) {
+                // Make sure all the objects are MailAddress objects
+                ProcessorUtil.verifyMailAddresses(matchedRcpts);
+            }
+        } catch (Exception me) {
+            ex = me;
+            if (step.onMatchException.equalsIgnoreCase("nomatch")) {
+                LOGGER.warn("Encountered error while executing matcher {}. Matching none.", step.matcher, ex);
+                matchedRcpts = null;
+            } else if (step.onMatchException.equalsIgnoreCase("matchall")) {
+                LOGGER.warn("Encountered error while executing matcher {}. matching all.", step.matcher, ex);
+                matchedRcpts = mail.getRecipients();
+            } else {
+                ProcessorUtil.handleException(me, mail, step.matcher.getMatcherConfig().getMatcherName(), step.onMatchException, LOGGER);
+                matchedRcpts = null;
+            }
+        } finally {
+            timeMetric.stopAndPublish();
+        }
+
+        BitSet matched = toBitSet(recipients, matchedRcpts);
+
+        long complete = System.currentTimeMillis() - start;
+        Collection<MailAddress> listenerMatches = matched.isEmpty() ? null : matchedRcpts;
+        for (MailetProcessorListener listener : getListeners()) {
+            listener.afterMatcher(step.matcher, mail.getName(), recipients, listenerMatches, complete, ex);
+        }
+        return matched;
+    }
+
+    private BitSet toBitSet(List<MailAddress> recipients, Collection<MailAddress> matchedRcpts) {
+        BitSet matched = new BitSet(recipients.size());
+        if (matchedRcpts == null || matchedRcpts.isEmpty()) {
+            return matched;
+        }
+        if (matchedRcpts.size() == recipients.size() && matchedRcpts.containsAll(recipients)) {
+            matched.set(0, recipients.size());
+            return matched;
+        }
+        Set<MailAddress> matchedSet = matchedRcpts instanceof Set ? (Set<MailAddress>) matchedRcpts : new HashSet<>(matchedRcpts);
+        for (int i = 0; i < recipients.size(); i++) {
+            if (matchedSet.contains(recipients.get(i))) {
+                matched.set(i);
+            }
+        }
+        return matched;
+    }
+
+    private void runMailet(Step step, Mail mail) throws MessagingException {
+        long start = System.currentTimeMillis();
+        TimeMetric timeMetric = metricFactory.timer(step.mailetMetricName);
+        Exception ex = null;
+        try (Closeable closeable =
+                 MDCBuilder.create()
+                     .addContext(MDCBuilder.PROTOCOL, "MAILET")
+                     .addContext(MDCBuilder.ACTION, "MAILET")
+                     .addContext(MDCBuilder.HOST, mail.getRemoteHost())
+                     .addContext("state", mail.getState())
+                     .addContext("mailet", step.mailetMetricName)
+                     .addContext("mail", mail.getName())
+                     .addContext("recipients", ImmutableList.copyOf(mail.getRecipients()))
+                     .addContext("sender", mail.getMaybeSender())
+                     .build()) {
+            MailetPipelineLogging.logBeginOfMailetProcess(step.mailet, mail);
+            step.mailet.service(mail);
+        } catch (Exception me) {
+            ex = me;
+            String onMailetException = step.onMailetException;
+            if (onMailetException.equalsIgnoreCase("ignore")) {
+                // ignore the exception and continue
+                // this option should not be used if the mail object can be
+                // changed by the mailet
+                LOGGER.warn("Encountered error while executing mailet {}. Ignoring it.", step.mailet, ex);
+                ProcessorUtil.verifyMailAddresses(mail.getRecipients());
+            } else {
+                ProcessorUtil.handleException(me, mail, step.mailet.getMailetConfig().getMailetName(), onMailetException, LOGGER);
+            }
+        } finally {
+            timeMetric.stopAndPublish();
+            MailetPipelineLogging.logEndOfMailetProcess(step.mailet, mail);
+            long complete = System.currentTimeMillis() - start;
+            if (mail.getRecipients().isEmpty()) {
+                mail.setState(Mail.GHOST);
+            }
+            for (MailetProcessorListener listener : getListeners()) {
+                listener.afterMailet(step.mailet, mail.getName(), mail.getState(), complete, ex);
+            }
+        }
+    }
+
+    /**
+     * A matcher / mailet pair, with everything invariant across mails resolved upfront.
+     */
+    private static class Step {
+        private final Matcher matcher;
+        private final Mailet mailet;
+        private final String matcherMetricName;
+        private final String mailetMetricName;
+        private final String onMatchException;
+        private final String onMailetException;
+
+        Step(MatcherMailetPair pair) {
+            this.matcher = pair.getMatcher();
+            this.mailet = pair.getMailet();
+            this.matcherMetricName = matcher.getClass().getSimpleName();
+            this.mailetMetricName = mailet.getClass().getSimpleName();
+            this.onMatchException = Optional.ofNullable(pair.getOnMatchException())
+                .map(s -> s.trim().toLowerCase(Locale.US))
+                .orElse(Mail.ERROR);
+            this.onMailetException = onMailetException(mailet);
+        }
+
+        Step(Mailet terminatingMailet) {
+            this.matcher = null;
+            this.mailet = terminatingMailet;
+            this.matcherMetricName = null;
+            this.mailetMetricName = terminatingMailet.getClass().getSimpleName();
+            this.onMatchException = Mail.ERROR;
+            this.onMailetException = Mail.ERROR;
+        }
+
+        private static String onMailetException(Mailet mailet) {
+            MailetConfig mailetConfig = mailet.getMailetConfig();
+            if (mailetConfig instanceof MailetConfigImpl) {
+                return Optional.ofNullable(mailetConfig.getInitParameter("onMailetException"))
+                    .map(s -> s.trim().toLowerCase(Locale.US))
+                    .orElse(Mail.ERROR);
+            }
+            return Mail.ERROR;
+        }
+    }
+}
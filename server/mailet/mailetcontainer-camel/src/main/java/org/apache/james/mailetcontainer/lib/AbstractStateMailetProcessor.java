@@ -55,6 +55,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Abstract base class for {@link MailProcessor} implementations which want to
@@ -173,6 +174,13 @@ public abstract class AbstractStateMailetProcessor implements MailProcessor, Con
             .collect(Guavate.toImmutableList());
     }
 
+    /**
+     * Return a unmodifiable {@link List} of the configured {@link MatcherMailetPair}'s
+     */
+    public List<MatcherMailetPair> getPairs() {
+        return ImmutableList.copyOf(pairs);
+    }
+
     public void addListener(MailetProcessorListener listener) {
         listeners.add(listener);
     }
@@ -67,10 +67,10 @@ import com.google.common.base.Joiner;
  * <p>
  * The analysis capabilities are based on token frequencies (the <i>Corpus</i>)
  * learned through a training process (see {@link BayesianAnalysisFeeder}) and
- * stored in a JDBC database. After a training session, the Corpus must be
- * rebuilt from the database in order to acquire the new frequencies. Every 10
- * minutes a special thread in this mailet will check if any change was made to
- * the database by the feeder, and rebuild the corpus if necessary.
+ * stored in a JDBC database. The frequencies are loaded once in a compact
+ * in-memory store, shared by the analysis mailets of this server, and the
+ * feeder then adds the frequencies it learns to this store as well as to the
+ * database. Token probabilities are computed on demand from this store.
  * </p>
  * 
  * <p>
@@ -147,7 +147,6 @@ public class BayesianAnalysis extends GenericMailet {
 
     private static final AttributeName MAIL_ATTRIBUTE_NAME = AttributeName.of("org.apache.james.spam.probability");
     private static final String HEADER_NAME = "X-MessageIsSpamProbability";
-    private static final long CORPUS_RELOAD_INTERVAL = 600000;
     private String headerName;
     private boolean ignoreLocalSender = false;
     private boolean tagSubject = true;
@@ -259,11 +258,6 @@ public class BayesianAnalysis extends GenericMailet {
         }
 
         initDb();
-
-        CorpusLoader corpusLoader = new CorpusLoader(this);
-        corpusLoader.setDaemon(true);
-        corpusLoader.start();
-
     }
 
     private void initDb() throws MessagingException {
@@ -314,7 +308,8 @@ public class BayesianAnalysis extends GenericMailet {
 
             if (message.getSize() < getMaxSize()) {
                 message.writeTo(baos);
-                probability = analyzer.computeSpamProbability(new BufferedReader(new StringReader(baos.toString())));
+                probability = analyzer.computeSpamProbability(new BufferedReader(new StringReader(baos.toString())),
+                    JDBCBayesianAnalyzer.getTokenCountStore());
             } else {
                 probability = 0.0;
             }
@@ -359,10 +354,7 @@ public class BayesianAnalysis extends GenericMailet {
         try {
             // this is synchronized to avoid concurrent update of the corpus
             synchronized (JDBCBayesianAnalyzer.DATABASE_LOCK) {
-                analyzer.tokenCountsClear();
-                analyzer.loadHamNSpam(conn);
-                analyzer.buildCorpus();
-                analyzer.tokenCountsClear();
+                analyzer.loadTokenCountStore(conn);
             }
 
             LOGGER.error("BayesianAnalysis Corpus loaded");
@@ -413,48 +405,4 @@ public class BayesianAnalysis extends GenericMailet {
             message.setHeader(RFC2822Headers.MESSAGE_ID, messageId);
         }
     }
-
-    private static class CorpusLoader extends Thread {
-
-        private final BayesianAnalysis analysis;
-
-        private CorpusLoader(BayesianAnalysis analysis) {
-            super("BayesianAnalysis Corpus Loader");
-            this.analysis = analysis;
-        }
-
-        /**
-         * Thread entry point.
-         */
-        @Override
-        public void run() {
-            LOGGER.info("CorpusLoader thread started: will wake up every " + CORPUS_RELOAD_INTERVAL + " ms");
-
-            try {
-                Thread.sleep(CORPUS_RELOAD_INTERVAL);
-
-                while (true) {
-                    if (analysis.getLastCorpusLoadTime() < JDBCBayesianAnalyzer.getLastDatabaseUpdateTime()) {
-                        LOGGER.info("Reloading Corpus ...");
-                        try {
-                            analysis.loadData(analysis.datasource.getConnection());
-                            LOGGER.info("Corpus reloaded");
-                        } catch (java.sql.SQLException se) {
-                            LOGGER.error("SQLException: ", se);
-                        }
-
-                    }
-
-                    if (Thread.interrupted()) {
-                        break;
-                    }
-                    Thread.sleep(CORPUS_RELOAD_INTERVAL);
-                }
-            } catch (InterruptedException ex) {
-                interrupt();
-            }
-        }
-
-    }
-
 }
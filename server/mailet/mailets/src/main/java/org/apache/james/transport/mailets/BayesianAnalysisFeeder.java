@@ -295,6 +295,7 @@ public class BayesianAnalysisFeeder extends GenericMailet {
                     dbUpdated = false;
                     LOGGER.debug("{} Training ended successfully", messageId);
                     JDBCBayesianAnalyzer.touchLastDatabaseUpdateTime();
+                    analyzer.updateTokenCountStore();
                 }
 
             }
@@ -40,10 +40,14 @@ import org.apache.mailet.base.GenericMailet;
  * This mailet is a composition of RecipientRewriteTable, SieveMailet 
  * and MailboxManager configured to mimic the old "LocalDelivery"
  * James 2.3 behavior.
+ *
+ * The optional 'concurrency' parameter bounds how many recipients of a given mail are delivered in parallel
+ * (defaults to 8).
  */
 public class LocalDelivery extends GenericMailet {
 
     public static final String LOCAL_DELIVERED_MAILS_METRIC_NAME = "localDeliveredMails";
+    public static final String CONCURRENCY_PARAMETER = "concurrency";
     private final UsersRepository usersRepository;
     private final MailboxManager mailboxManager;
     private final MetricFactory metricFactory;
@@ -77,6 +81,9 @@ public class LocalDelivery extends GenericMailet {
                 .metric(metricFactory.generate(LOCAL_DELIVERED_MAILS_METRIC_NAME))
                 .build())
             .consume(getInitParameter("consume", true))
+            .concurrency(getInitParameterAsOptional(CONCURRENCY_PARAMETER)
+                .map(Integer::parseInt)
+                .orElse(MailDispatcher.DEFAULT_CONCURRENCY))
             .mailetContext(getMailetContext())
             .build();
     }
@@ -80,6 +80,19 @@ import com.google.common.collect.HashMultimap;
  * Default is 0.
  * <li><b>timeout</b> (optional) - an Integer for the Socket I/O timeout in milliseconds. Default is 180000</li>
  * <li><b>connectionTimeout</b> (optional) - an Integer for the Socket connection timeout in milliseconds. Default is 60000</li>
+ * <li><b>maxPooledConnectionsPerHost</b> (optional) - an Integer for the number of idle connections kept opened to a given
+ * server, so that subsequent mails for this server reuse them. Default is 0, which disables connection pooling.</li>
+ * <li><b>maxMessagesPerConnection</b> (optional) - an Integer for the number of mails sent over a pooled connection before
+ * it is closed. Default is 100</li>
+ * <li><b>pooledConnectionIdleTimeout</b> (optional) - a duration after which an idle pooled connection is closed. Default is
+ * 30 seconds</li>
+ * <li><b>maxConcurrentDeliveries</b> (optional) - an Integer for the number of deliveries running at the same time.
+ * Default is 256</li>
+ * <li><b>maxConcurrentDeliveriesPerDomain</b> (optional) - an Integer for the number of deliveries to a given domain
+ * running at the same time. This limit is halved on each temporary failure for this domain, and grows back on successful
+ * deliveries. Default is 8</li>
+ * <li><b>maxPendingDeliveriesPerDomain</b> (optional) - an Integer for the number of deliveries to a given domain waiting
+ * for a slot. Further mails for this domain are held until room is made, slowing down dequeuing. Default is 16</li>
  * <li><b>bounceProcessor</b> (optional) - a String containing the name of the mailet processor to pass messages that cannot
  * be delivered to for DSN bounce processing. Default is to send a traditional message containing the bounce details.</li>
  * <li><b>startTLS</b> (optional) - a Boolean (true/false) indicating whether the STARTTLS command (if supported by the server)
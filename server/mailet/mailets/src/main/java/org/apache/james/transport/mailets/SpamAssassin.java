@@ -64,11 +64,16 @@ import com.google.common.base.Strings;
  * &lt;mailet notmatch="SenderHostIsLocal" class="SpamAssassin"&gt;
  * &lt;spamdHost&gt;localhost&lt;/spamdHost&gt;
  * &lt;spamdPort&gt;783&lt;/spamdPort&gt;
+ * &lt;maxConcurrentRequests&gt;16&lt;/maxConcurrentRequests&gt;
  * </pre>
+ *
+ * <code>maxConcurrentRequests</code> bounds the count of requests this mailet sends
+ * concurrently to spamd. Defaults to 16.
  */
 public class SpamAssassin extends GenericMailet {
     public static final String SPAMD_HOST = "spamdHost";
     public static final String SPAMD_PORT = "spamdPort";
+    public static final String MAX_CONCURRENT_REQUESTS = "maxConcurrentRequests";
     public static final String DEFAULT_HOST = "127.0.0.1";
     public static final int DEFAULT_PORT = 783;
 
@@ -77,6 +82,8 @@ public class SpamAssassin extends GenericMailet {
 
     private String spamdHost;
     private int spamdPort;
+    private int maxConcurrentRequests;
+    private SpamAssassinInvoker spamAssassinInvoker;
 
     @Inject
     public SpamAssassin(MetricFactory metricFactory, UsersRepository usersRepository) {
@@ -92,6 +99,11 @@ public class SpamAssassin extends GenericMailet {
 
         spamdPort = MailetUtil.getInitParameterAsStrictlyPositiveInteger(getInitParameter(SPAMD_PORT), DEFAULT_PORT);
         Port.assertValid(spamdPort);
+
+        maxConcurrentRequests = MailetUtil.getInitParameterAsStrictlyPositiveInteger(getInitParameter(MAX_CONCURRENT_REQUESTS),
+            SpamAssassinInvoker.DEFAULT_MAX_CONCURRENT_REQUESTS);
+
+        spamAssassinInvoker = new SpamAssassinInvoker(metricFactory, spamdHost, spamdPort, maxConcurrentRequests);
     }
 
     @Override
@@ -99,10 +111,9 @@ public class SpamAssassin extends GenericMailet {
         MimeMessage message = mail.getMessage();
 
         // Invoke SpamAssassin connection and scan the message
-        SpamAssassinInvoker sa = new SpamAssassinInvoker(metricFactory, spamdHost, spamdPort);
         mail.getRecipients()
             .forEach(
-                Throwing.consumer((MailAddress recipient) -> querySpamAssassin(mail, message, sa, recipient))
+                Throwing.consumer((MailAddress recipient) -> querySpamAssassin(mail, message, spamAssassinInvoker, recipient))
                     .sneakyThrow());
     }
 
@@ -132,4 +143,9 @@ public class SpamAssassin extends GenericMailet {
     int getSpamdPort() {
         return spamdPort;
     }
+
+    @VisibleForTesting
+    int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
 }
@@ -18,18 +18,28 @@
  ****************************************************************/
 package org.apache.james.transport.mailets.delivery;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimePartDataSource;
 
 import org.apache.james.core.MailAddress;
+import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.server.core.InternetHeadersInputStream;
 import org.apache.james.server.core.MailImpl;
+import org.apache.james.server.core.MimeMessageCopyOnWriteProxy;
+import org.apache.james.server.core.MimeMessageHeaderOverlay;
+import org.apache.james.server.core.MimeMessageInputStream;
+import org.apache.james.server.core.MimeMessageInputStreamSource;
+import org.apache.james.server.core.MimeMessageSharedSource;
+import org.apache.james.server.core.MimeMessageSource;
+import org.apache.james.server.core.MimeMessageWrapper;
 import org.apache.mailet.Mail;
 import org.apache.mailet.MailetContext;
 import org.apache.mailet.PerRecipientHeaders.Header;
@@ -38,20 +48,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.runnable.ThrowingRunnable;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
 public class MailDispatcher {
     private static final Logger LOGGER = LoggerFactory.getLogger(MailDispatcher.class);
-    private static final String[] NO_HEADERS = {};
     private static final int RETRIES = 3;
     private static final Duration FIRST_BACKOFF = Duration.ofMillis(200);
     private static final Duration MAX_BACKOFF = Duration.ofSeconds(1);
+    public static final int DEFAULT_CONCURRENCY = 8;
 
     public static Builder builder() {
         return new Builder();
@@ -61,6 +71,7 @@ public class MailDispatcher {
         static final boolean CONSUME = true;
         private MailStore mailStore;
         private Optional<Boolean> consume = Optional.empty();
+        private Optional<Integer> concurrency = Optional.empty();
         private MailetContext mailetContext;
 
         public Builder consume(boolean consume) {
@@ -68,6 +79,12 @@ public class MailDispatcher {
             return this;
         }
 
+        public Builder concurrency(int concurrency) {
+            Preconditions.checkArgument(concurrency > 0, "'concurrency' needs to be strictly positive");
+            this.concurrency = Optional.of(concurrency);
+            return this;
+        }
+
         public Builder mailStore(MailStore mailStore) {
             this.mailStore = mailStore;
             return this;
@@ -81,19 +98,21 @@ public class MailDispatcher {
         public MailDispatcher build() {
             Preconditions.checkNotNull(mailStore);
             Preconditions.checkNotNull(mailetContext);
-            return new MailDispatcher(mailStore, consume.orElse(CONSUME), mailetContext);
+            return new MailDispatcher(mailStore, consume.orElse(CONSUME), concurrency.orElse(DEFAULT_CONCURRENCY), mailetContext);
         }
 
     }
 
     private final MailStore mailStore;
     private final boolean consume;
+    private final int concurrency;
     private final MailetContext mailetContext;
     private final Scheduler scheduler;
 
-    private MailDispatcher(MailStore mailStore, boolean consume, MailetContext mailetContext) {
+    private MailDispatcher(MailStore mailStore, boolean consume, int concurrency, MailetContext mailetContext) {
         this.mailStore = mailStore;
         this.consume = consume;
+        this.concurrency = concurrency;
         this.mailetContext = mailetContext;
         this.scheduler = Schedulers.elastic();
     }
@@ -129,62 +148,134 @@ public class MailDispatcher {
         // This only works because there is a placeholder inserted by MimeMessageWrapper
         message.setHeader(RFC2822Headers.RETURN_PATH, mail.getMaybeSender().asPrettyString());
 
-        List<MailAddress> errors = deliver(mail, message);
+        MimeMessageSharedSource content = MimeMessageSharedSource.of(contentOf(message));
+        try {
+            return deliver(mail, content);
+        } finally {
+            LifecycleUtil.dispose(content);
+        }
+    }
 
-        return errors;
+    /**
+     * Spooled messages are streamed from their source, other messages are serialized once for all recipients.
+     */
+    private MimeMessageSource contentOf(MimeMessage message) throws MessagingException {
+        if (message instanceof MimeMessageWrapper || message instanceof MimeMessageCopyOnWriteProxy) {
+            return new DispatchedMessageSource(message);
+        }
+        if (hasNoContent(message)) {
+            return new MimeMessageInputStreamSource(dispatchId(), new InternetHeadersInputStream(message.getAllHeaderLines()));
+        }
+        return new MimeMessageInputStreamSource(dispatchId(), new MimeMessageInputStream(message));
     }
 
-    private List<MailAddress> deliver(Mail mail, MimeMessage message) {
-        List<MailAddress> errors = new ArrayList<>();
-        for (MailAddress recipient : mail.getRecipients()) {
-            try {
-                Map<String, List<String>> savedHeaders = saveHeaders(mail, recipient);
+    /**
+     * A message has no content when it was neither parsed nor given a body: it can not be written, only its headers
+     * are delivered.
+     */
+    private boolean hasNoContent(MimeMessage message) throws MessagingException {
+        return message.getSize() == -1
+            && message.getDataHandler().getDataSource() instanceof MimePartDataSource;
+    }
 
-                addSpecificHeadersForRecipient(mail, message, recipient);
-                storeMailWithRetry(mail, recipient).block();
+    private static String dispatchId() {
+        return "dispatch-" + UUID.randomUUID().toString();
+    }
 
-                restoreHeaders(mail.getMessage(), savedHeaders);
-            } catch (Exception ex) {
+    private List<MailAddress> deliver(Mail mail, MimeMessageSource content) {
+        return Flux.fromIterable(mail.getRecipients())
+            .flatMapSequential(recipient -> deliver(mail, recipient, content), concurrency)
+            .filter(DeliveryResult::isError)
+            .map(DeliveryResult::getRecipient)
+            .collect(Guavate.toImmutableList())
+            .block();
+    }
+
+    private Mono<DeliveryResult> deliver(Mail mail, MailAddress recipient, MimeMessageSource content) {
+        return Mono.using(() -> messageForRecipient(mail, recipient, content),
+                recipientMessage -> storeMailWithRetry(mail, recipient, recipientMessage),
+                LifecycleUtil::dispose)
+            .thenReturn(DeliveryResult.success(recipient))
+            .onErrorResume(ex -> {
                 LOGGER.error("Error while storing mail.", ex);
-                errors.add(recipient);
-            }
-        }
-        return errors;
+                return Mono.just(DeliveryResult.error(recipient));
+            });
     }
 
-    private Mono<Void> storeMailWithRetry(Mail mail, MailAddress recipient) {
-       return Mono.fromRunnable((ThrowingRunnable)() -> mailStore.storeMail(recipient, mail))
-           .doOnError(error -> LOGGER.error("Error While storing mail.", error))
+    private Mono<Void> storeMailWithRetry(Mail mail, MailAddress recipient, MimeMessage recipientMessage) {
+       return Mono.fromRunnable((ThrowingRunnable)() -> mailStore.storeMail(recipient, mail, recipientMessage))
            .subscribeOn(scheduler)
            .retryBackoff(RETRIES, FIRST_BACKOFF, MAX_BACKOFF, scheduler)
            .then();
     }
 
-    private Map<String, List<String>> saveHeaders(Mail mail, MailAddress recipient) throws MessagingException {
-        ImmutableMap.Builder<String, List<String>> backup = ImmutableMap.builder();
-        Collection<String> headersToSave = mail.getPerRecipientSpecificHeaders().getHeaderNamesForRecipient(recipient);
-        for (String headerName: headersToSave) {
-            List<String> values = ImmutableList.copyOf(
-                        Optional.ofNullable(mail.getMessage().getHeader(headerName))
-                            .orElse(NO_HEADERS));
-            backup.put(headerName, values);
+    /**
+     * The specific headers of the recipient are overlaid on its own view of the message: the original message is left
+     * untouched, and as only headers are modified the body is streamed from the original message.
+     */
+    private MimeMessage messageForRecipient(Mail mail, MailAddress recipient, MimeMessageSource content) throws MessagingException {
+        MimeMessageHeaderOverlay recipientMessage = new MimeMessageHeaderOverlay(content);
+        addSpecificHeadersForRecipient(mail, recipientMessage, recipient);
+        return recipientMessage;
+    }
+
+    private void addSpecificHeadersForRecipient(Mail mail, MimeMessage message, MailAddress recipient) throws MessagingException {
+        for (Header header: mail.getPerRecipientSpecificHeaders().getHeadersForRecipient(recipient)) {
+            message.addHeader(header.getName(), header.getValue());
         }
-        return backup.build();
     }
 
-    private void restoreHeaders(MimeMessage mimeMessage, Map<String, List<String>> savedHeaders) throws MessagingException {
-        for (Map.Entry<String, List<String>> header: savedHeaders.entrySet()) {
-            String name = header.getKey();
-            mimeMessage.removeHeader(name);
-            for (String value: header.getValue()) {
-                mimeMessage.addHeader(name, value);
+    /**
+     * Reads the dispatched message through {@link MimeMessageInputStream}, which streams the source of messages whose
+     * body was not modified.
+     */
+    private static class DispatchedMessageSource extends MimeMessageSource {
+        private final String sourceId;
+        private final MimeMessage message;
+
+        private DispatchedMessageSource(MimeMessage message) {
+            this.sourceId = dispatchId();
+            this.message = message;
+        }
+
+        @Override
+        public String getSourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                return new MimeMessageInputStream(message);
+            } catch (MessagingException e) {
+                throw new IOException("Unable to read message " + sourceId, e);
             }
         }
     }
 
-    private void addSpecificHeadersForRecipient(Mail mail, MimeMessage message, MailAddress recipient) throws MessagingException {
-        for (Header header: mail.getPerRecipientSpecificHeaders().getHeadersForRecipient(recipient)) {
-            message.addHeader(header.getName(), header.getValue());
+    private static class DeliveryResult {
+        static DeliveryResult success(MailAddress recipient) {
+            return new DeliveryResult(recipient, false);
+        }
+
+        static DeliveryResult error(MailAddress recipient) {
+            return new DeliveryResult(recipient, true);
+        }
+
+        private final MailAddress recipient;
+        private final boolean error;
+
+        private DeliveryResult(MailAddress recipient, boolean error) {
+            this.recipient = recipient;
+            this.error = error;
+        }
+
+        MailAddress getRecipient() {
+            return recipient;
+        }
+
+        boolean isError() {
+            return error;
         }
     }
 }
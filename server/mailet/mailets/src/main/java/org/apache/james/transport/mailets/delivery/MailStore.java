@@ -20,6 +20,7 @@
 package org.apache.james.transport.mailets.delivery;
 
 import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
 
 import org.apache.james.core.MailAddress;
 import org.apache.mailet.Mail;
@@ -27,5 +28,12 @@ import org.apache.mailet.Mail;
 public interface MailStore {
     String DELIVERY_PATH_PREFIX = "DeliveryPath_";
 
-    void storeMail(MailAddress recipient, Mail mail) throws MessagingException;
+    default void storeMail(MailAddress recipient, Mail mail) throws MessagingException {
+        storeMail(recipient, mail, mail.getMessage());
+    }
+
+    /**
+     * Stores the given message, that holds the headers specific to this recipient, in place of the mail message.
+     */
+    void storeMail(MailAddress recipient, Mail mail, MimeMessage message) throws MessagingException;
 }
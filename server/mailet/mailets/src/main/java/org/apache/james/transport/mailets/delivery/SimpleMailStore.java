@@ -20,6 +20,7 @@
 package org.apache.james.transport.mailets.delivery;
 
 import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
 
 import org.apache.james.core.MailAddress;
 import org.apache.james.core.Username;
@@ -91,11 +92,11 @@ public class SimpleMailStore implements MailStore {
     }
 
     @Override
-    public void storeMail(MailAddress recipient, Mail mail) throws MessagingException {
+    public void storeMail(MailAddress recipient, Mail mail, MimeMessage message) throws MessagingException {
         Username username = computeUsername(recipient);
 
         String locatedFolder = locateFolder(username, mail);
-        ComposedMessageId composedMessageId = mailboxAppender.append(mail.getMessage(), username, locatedFolder);
+        ComposedMessageId composedMessageId = mailboxAppender.append(message, username, locatedFolder);
 
         metric.increment();
         LOGGER.info("Local delivered mail {} successfully from {} to {} in folder {} with composedMessageId {}", mail.getName(),
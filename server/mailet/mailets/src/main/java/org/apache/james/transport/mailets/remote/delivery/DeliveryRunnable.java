@@ -24,6 +24,8 @@ import java.util.Date;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
+import org.apache.james.core.Domain;
+import org.apache.james.core.MailAddress;
 import org.apache.james.dnsservice.api.DNSService;
 import org.apache.james.lifecycle.api.LifecycleUtil;
 import org.apache.james.metrics.api.Metric;
@@ -59,13 +61,14 @@ public class DeliveryRunnable implements Disposable {
     private final Bouncer bouncer;
     private final MailDelivrer mailDelivrer;
     private final Supplier<Date> dateSupplier;
+    private final DomainDeliveryScheduler domainDeliveryScheduler;
     private Disposable disposable;
     private Scheduler remoteDeliveryScheduler;
 
     public DeliveryRunnable(MailQueue queue, RemoteDeliveryConfiguration configuration, DNSService dnsServer, MetricFactory metricFactory,
                             MailetContext mailetContext, Bouncer bouncer) {
         this(queue, configuration, metricFactory, bouncer,
-            new MailDelivrer(configuration, new MailDelivrerToHost(configuration, mailetContext), dnsServer, bouncer),
+            new MailDelivrer(configuration, new MailDelivrerToHost(configuration, mailetContext, metricFactory), dnsServer, bouncer),
             CURRENT_DATE_SUPPLIER);
     }
 
@@ -79,18 +82,36 @@ public class DeliveryRunnable implements Disposable {
         this.mailDelivrer = mailDelivrer;
         this.dateSupplier = dateSupplier;
         this.metricFactory = metricFactory;
+        this.domainDeliveryScheduler = new DomainDeliveryScheduler(metricFactory, configuration);
     }
 
     public void start() {
         remoteDeliveryScheduler = Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "RemoteDelivery");
         disposable = Flux.from(queue.deQueue())
-            .flatMap(queueItem -> runStep(queueItem).subscribeOn(remoteDeliveryScheduler))
+            .flatMap(this::scheduleStep)
             .onErrorContinue(((throwable, nothing) -> LOGGER.error("Exception caught in RemoteDelivery", throwable)))
             .subscribeOn(remoteDeliveryScheduler)
             .subscribe();
     }
 
-    private Mono<Void> runStep(MailQueue.MailQueueItem queueItem) {
+    /**
+     * Completes once the delivery is admitted by the scheduler: while the backlog of its destination is full, the mail
+     * is held rather than put back in the queue, and dequeuing slows down accordingly.
+     */
+    private Mono<Void> scheduleStep(MailQueue.MailQueueItem queueItem) {
+        return domainDeliveryScheduler.schedule(destination(queueItem.getMail()),
+            () -> runStep(queueItem).subscribeOn(remoteDeliveryScheduler));
+    }
+
+    private Domain destination(Mail mail) {
+        return mail.getRecipients()
+            .stream()
+            .findFirst()
+            .map(MailAddress::getDomain)
+            .orElse(Domain.LOCALHOST);
+    }
+
+    private Mono<ExecutionResult.ExecutionState> runStep(MailQueue.MailQueueItem queueItem) {
         TimeMetric timeMetric = metricFactory.timer(REMOTE_DELIVERY_TRIAL);
         try {
             return processMail(queueItem)
@@ -100,14 +121,14 @@ public class DeliveryRunnable implements Disposable {
         }
     }
 
-    private Mono<Void> processMail(MailQueue.MailQueueItem queueItem) throws MailQueue.MailQueueException {
+    private Mono<ExecutionResult.ExecutionState> processMail(MailQueue.MailQueueItem queueItem) throws MailQueue.MailQueueException {
         Mail mail = queueItem.getMail();
 
         try {
             LOGGER.debug("will process mail {}", mail.getName());
-            attemptDelivery(mail);
+            ExecutionResult executionResult = attemptDelivery(mail);
             queueItem.done(true);
-            return Mono.empty();
+            return Mono.just(executionResult.getExecutionState());
         } catch (Exception e) {
             // Prevent unexpected exceptions from causing looping by removing message from outgoing.
             // DO NOT CHANGE THIS to catch Error!
@@ -121,7 +142,7 @@ public class DeliveryRunnable implements Disposable {
     }
 
     @VisibleForTesting
-    void attemptDelivery(Mail mail) throws MailQueue.MailQueueException {
+    ExecutionResult attemptDelivery(Mail mail) throws MailQueue.MailQueueException {
         ExecutionResult executionResult = mailDelivrer.deliver(mail);
         switch (executionResult.getExecutionState()) {
             case SUCCESS:
@@ -134,6 +155,7 @@ public class DeliveryRunnable implements Disposable {
                 bouncer.bounce(mail, executionResult.getException().orElse(null));
                 break;
         }
+        return executionResult;
     }
 
     private void handleTemporaryFailure(Mail mail, ExecutionResult executionResult) throws MailQueue.MailQueueException {
@@ -177,5 +199,6 @@ public class DeliveryRunnable implements Disposable {
     public void dispose() {
         disposable.dispose();
         remoteDeliveryScheduler.dispose();
+        mailDelivrer.dispose();
     }
 }
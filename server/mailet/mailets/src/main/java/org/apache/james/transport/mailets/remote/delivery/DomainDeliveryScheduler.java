@@ -0,0 +1,260 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.apache.james.core.Domain;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+/**
+ * Schedules remote deliveries so that a slow destination can not hold every delivery slot.
+ *
+ * At most maxConcurrentDeliveries deliveries run at the same time, and at most maxConcurrentDeliveriesPerDomain for a
+ * given destination domain. Slots are handed to domains in a round robin fashion. The concurrency of a domain is halved
+ * each time one of its deliveries fails temporarily, and grows back by one on each successful delivery.
+ *
+ * Deliveries waiting for a slot are kept in memory, up to maxPendingDeliveriesPerDomain per domain: once this backlog is
+ * full, additional deliveries are only admitted when room is made, which lets the caller apply backpressure.
+ *
+ * Pending deliveries and delivery durations are recorded globally and per destination domain, suffixed with the domain
+ * name. Only the first maxDomainMetrics domains get their own metrics: later ones are recorded under the
+ * {@link #OTHER_DOMAINS} suffix, so that the number of metrics stays bounded.
+ */
+public class DomainDeliveryScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DomainDeliveryScheduler.class);
+
+    public static final String PENDING_DELIVERIES = "remoteDeliveryPendingDeliveries";
+    public static final String DELIVERY_DURATION = "remoteDeliveryDomainDuration";
+    public static final String OTHER_DOMAINS = "other";
+    public static final int DEFAULT_MAX_DOMAIN_METRICS = 100;
+
+    private class DomainState {
+        private final Domain domain;
+        private final Deque<PendingDelivery> pendingDeliveries;
+        private final Deque<PendingDelivery> waitingDeliveries;
+        private final Metric pendingDeliveriesMetric;
+        private final String deliveryDurationMetricName;
+        private int runningDeliveries;
+        private int concurrency;
+        private long lastServed;
+
+        private DomainState(Domain domain) {
+            this.domain = domain;
+            this.pendingDeliveries = new ArrayDeque<>();
+            this.waitingDeliveries = new ArrayDeque<>();
+            String metricSuffix = "." + metricSuffix(domain);
+            this.pendingDeliveriesMetric = metricFactory.generate(PENDING_DELIVERIES + metricSuffix);
+            this.deliveryDurationMetricName = DELIVERY_DURATION + metricSuffix;
+            this.runningDeliveries = 0;
+            this.concurrency = maxConcurrentDeliveriesPerDomain;
+            this.lastServed = 0;
+        }
+
+        private boolean canStart() {
+            return !pendingDeliveries.isEmpty() && runningDeliveries < concurrency;
+        }
+
+        private boolean isIdle() {
+            return pendingDeliveries.isEmpty() && waitingDeliveries.isEmpty() && runningDeliveries == 0 && concurrency == maxConcurrentDeliveriesPerDomain;
+        }
+    }
+
+    private static class PendingDelivery {
+        private final Supplier<Mono<ExecutionResult.ExecutionState>> delivery;
+        private final MonoProcessor<Void> admission;
+
+        private PendingDelivery(Supplier<Mono<ExecutionResult.ExecutionState>> delivery) {
+            this.delivery = delivery;
+            this.admission = MonoProcessor.create();
+        }
+    }
+
+    private static class NextDelivery {
+        private final DomainState domainState;
+        private final PendingDelivery pendingDelivery;
+        private final Optional<PendingDelivery> admittedDelivery;
+
+        private NextDelivery(DomainState domainState, PendingDelivery pendingDelivery, Optional<PendingDelivery> admittedDelivery) {
+            this.domainState = domainState;
+            this.pendingDelivery = pendingDelivery;
+            this.admittedDelivery = admittedDelivery;
+        }
+    }
+
+    private final MetricFactory metricFactory;
+    private final Metric pendingDeliveriesMetric;
+    private final int maxConcurrentDeliveries;
+    private final int maxConcurrentDeliveriesPerDomain;
+    private final int maxPendingDeliveriesPerDomain;
+    private final int maxDomainMetrics;
+    private final Map<Domain, DomainState> domains;
+    private final Set<Domain> metricDomains;
+    private int runningDeliveries;
+    private long servedDeliveries;
+
+    public DomainDeliveryScheduler(MetricFactory metricFactory, RemoteDeliveryConfiguration configuration) {
+        this(metricFactory, configuration.getMaxConcurrentDeliveries(), configuration.getMaxConcurrentDeliveriesPerDomain(),
+            configuration.getMaxPendingDeliveriesPerDomain());
+    }
+
+    DomainDeliveryScheduler(MetricFactory metricFactory, int maxConcurrentDeliveries, int maxConcurrentDeliveriesPerDomain,
+                            int maxPendingDeliveriesPerDomain) {
+        this(metricFactory, maxConcurrentDeliveries, maxConcurrentDeliveriesPerDomain, maxPendingDeliveriesPerDomain,
+            DEFAULT_MAX_DOMAIN_METRICS);
+    }
+
+    DomainDeliveryScheduler(MetricFactory metricFactory, int maxConcurrentDeliveries, int maxConcurrentDeliveriesPerDomain,
+                            int maxPendingDeliveriesPerDomain, int maxDomainMetrics) {
+        this.metricFactory = metricFactory;
+        this.pendingDeliveriesMetric = metricFactory.generate(PENDING_DELIVERIES);
+        this.maxConcurrentDeliveries = maxConcurrentDeliveries;
+        this.maxConcurrentDeliveriesPerDomain = maxConcurrentDeliveriesPerDomain;
+        this.maxPendingDeliveriesPerDomain = maxPendingDeliveriesPerDomain;
+        this.maxDomainMetrics = maxDomainMetrics;
+        this.domains = new HashMap<>();
+        this.metricDomains = new HashSet<>();
+        this.runningDeliveries = 0;
+        this.servedDeliveries = 0;
+    }
+
+    /**
+     * Schedules a delivery to the given domain.
+     *
+     * @return a {@link Mono} completing once the delivery is admitted in the backlog of this domain. It completes
+     * immediately unless this backlog is full.
+     */
+    public Mono<Void> schedule(Domain domain, Supplier<Mono<ExecutionResult.ExecutionState>> delivery) {
+        PendingDelivery pendingDelivery = new PendingDelivery(delivery);
+        synchronized (this) {
+            DomainState domainState = domains.computeIfAbsent(domain, DomainState::new);
+            pendingDeliveriesMetric.increment();
+            domainState.pendingDeliveriesMetric.increment();
+            if (domainState.pendingDeliveries.size() >= maxPendingDeliveriesPerDomain) {
+                domainState.waitingDeliveries.addLast(pendingDelivery);
+                return pendingDelivery.admission;
+            }
+            domainState.pendingDeliveries.addLast(pendingDelivery);
+        }
+        dispatch();
+        return Mono.empty();
+    }
+
+    synchronized int concurrencyOf(Domain domain) {
+        return Optional.ofNullable(domains.get(domain))
+            .map(domainState -> domainState.concurrency)
+            .orElse(maxConcurrentDeliveriesPerDomain);
+    }
+
+    // Domains keep their metrics once granted, even when idle, so that metric names stay stable
+    private String metricSuffix(Domain domain) {
+        if (metricDomains.contains(domain)) {
+            return domain.asString();
+        }
+        if (metricDomains.size() < maxDomainMetrics) {
+            metricDomains.add(domain);
+            return domain.asString();
+        }
+        return OTHER_DOMAINS;
+    }
+
+    private void dispatch() {
+        Optional<NextDelivery> next = pollNextDelivery();
+        while (next.isPresent()) {
+            next.get().admittedDelivery.ifPresent(admittedDelivery -> admittedDelivery.admission.onComplete());
+            start(next.get().domainState, next.get().pendingDelivery);
+            next = pollNextDelivery();
+        }
+    }
+
+    private synchronized Optional<NextDelivery> pollNextDelivery() {
+        if (runningDeliveries >= maxConcurrentDeliveries) {
+            return Optional.empty();
+        }
+        // Round robin: the least recently served domain goes first
+        Optional<DomainState> nextDomain = domains.values()
+            .stream()
+            .filter(DomainState::canStart)
+            .min(Comparator.comparingLong(domainState -> domainState.lastServed));
+
+        return nextDomain.map(domainState -> {
+            domainState.lastServed = ++servedDeliveries;
+            PendingDelivery pendingDelivery = domainState.pendingDeliveries.pollFirst();
+            Optional<PendingDelivery> admittedDelivery = Optional.ofNullable(domainState.waitingDeliveries.pollFirst());
+            admittedDelivery.ifPresent(domainState.pendingDeliveries::addLast);
+            pendingDeliveriesMetric.decrement();
+            domainState.pendingDeliveriesMetric.decrement();
+            domainState.runningDeliveries++;
+            runningDeliveries++;
+            return new NextDelivery(domainState, pendingDelivery, admittedDelivery);
+        });
+    }
+
+    private void start(DomainState domainState, PendingDelivery pendingDelivery) {
+        TimeMetric timeMetric = metricFactory.timer(DELIVERY_DURATION);
+        TimeMetric domainTimeMetric = metricFactory.timer(domainState.deliveryDurationMetricName);
+        Mono.defer(pendingDelivery.delivery)
+            .doOnNext(executionState -> adaptConcurrency(domainState, executionState))
+            .doFinally(signal -> {
+                timeMetric.stopAndPublish();
+                domainTimeMetric.stopAndPublish();
+                release(domainState);
+                dispatch();
+            })
+            .subscribe(any -> { },
+                e -> LOGGER.error("Exception caught while delivering to {}", domainState.domain.asString(), e));
+    }
+
+    private synchronized void adaptConcurrency(DomainState domainState, ExecutionResult.ExecutionState executionState) {
+        switch (executionState) {
+            case SUCCESS:
+                domainState.concurrency = Math.min(maxConcurrentDeliveriesPerDomain, domainState.concurrency + 1);
+                break;
+            case TEMPORARY_FAILURE:
+                domainState.concurrency = Math.max(1, domainState.concurrency / 2);
+                break;
+            case PERMANENT_FAILURE:
+                break;
+        }
+    }
+
+    private synchronized void release(DomainState domainState) {
+        domainState.runningDeliveries--;
+        runningDeliveries--;
+        if (domainState.isIdle()) {
+            domains.remove(domainState.domain);
+        }
+    }
+}
@@ -95,6 +95,13 @@ public class MailDelivrer {
         }
     }
 
+    /**
+     * Releases the connections kept opened to remote servers.
+     */
+    public void dispose() {
+        mailDelivrerToHost.dispose();
+    }
+
     private ExecutionResult tryDeliver(Mail mail) throws MessagingException {
         if (mail.getRecipients().isEmpty()) {
             LOGGER.info("No recipients specified... not sure how this could have happened.");
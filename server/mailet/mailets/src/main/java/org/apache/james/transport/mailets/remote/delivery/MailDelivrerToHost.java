@@ -28,6 +28,7 @@ import javax.mail.Session;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.mailet.HostAddress;
 import org.apache.mailet.Mail;
 import org.apache.mailet.MailetContext;
@@ -45,11 +46,13 @@ public class MailDelivrerToHost {
     private final RemoteDeliveryConfiguration configuration;
     private final Converter7Bit converter7Bit;
     private final Session session;
+    private final SMTPTransportPool transportPool;
 
-    public MailDelivrerToHost(RemoteDeliveryConfiguration remoteDeliveryConfiguration, MailetContext mailetContext) {
+    public MailDelivrerToHost(RemoteDeliveryConfiguration remoteDeliveryConfiguration, MailetContext mailetContext, MetricFactory metricFactory) {
         this.configuration = remoteDeliveryConfiguration;
         this.converter7Bit = new Converter7Bit(mailetContext);
         this.session = Session.getInstance(configuration.createFinalJavaxProperties());
+        this.transportPool = new SMTPTransportPool(this::openTransport, metricFactory, configuration);
     }
 
     public ExecutionResult tryDeliveryToHost(Mail mail, Collection<InternetAddress> addr, HostAddress outgoingMailServer) throws MessagingException {
@@ -63,20 +66,47 @@ public class MailDelivrerToHost {
         // "mail.smtp.dsn.ret"        //default to nothing... appended as RET= after MAIL FROM line.
         // "mail.smtp.dsn.notify"     //default to nothing... appended as NOTIFY= after RCPT TO line.
 
-        SMTPTransport transport = null;
+        SMTPTransportPool.PooledTransport pooledTransport = transportPool.borrow(outgoingMailServer);
+        boolean reusable = false;
         try {
-            transport = (SMTPTransport) session.getTransport(outgoingMailServer);
-            transport.setLocalHost(props.getProperty("mail.smtp.localhost", configuration.getHeloNameProvider().getHeloName()));
-            connect(outgoingMailServer, transport);
+            SMTPTransport transport = pooledTransport.getTransport();
             transport.sendMessage(adaptToTransport(mail.getMessage(), transport), toArray(addr));
+            reusable = true;
             LOGGER.debug("Mail ({})  sent successfully to {} at {} from {} for {}", mail.getName(), outgoingMailServer.getHostName(),
                 outgoingMailServer.getHost(), props.get("mail.smtp.from"), mail.getRecipients());
         } finally {
-            closeTransport(mail, outgoingMailServer, transport);
+            transportPool.release(pooledTransport, reusable);
         }
         return ExecutionResult.success();
     }
 
+    /**
+     * Closes the connections kept opened to remote servers.
+     */
+    public void dispose() {
+        transportPool.dispose();
+    }
+
+    private SMTPTransport openTransport(HostAddress outgoingMailServer) throws MessagingException {
+        SMTPTransport transport = (SMTPTransport) session.getTransport(outgoingMailServer);
+        transport.setLocalHost(session.getProperties().getProperty("mail.smtp.localhost", configuration.getHeloNameProvider().getHeloName()));
+        try {
+            connect(outgoingMailServer, transport);
+        } catch (MessagingException e) {
+            closeQuietly(transport);
+            throw e;
+        }
+        return transport;
+    }
+
+    private void closeQuietly(SMTPTransport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            LOGGER.debug("Error while closing a SMTP transport that failed to connect", e);
+        }
+    }
+
     private InternetAddress[] toArray(Collection<InternetAddress> addr) {
         InternetAddress[] addresses = new InternetAddress[addr.size()];
         addr.toArray(addresses);
@@ -118,22 +148,5 @@ public class MailDelivrerToHost {
         // to 7bit. Javamail api doesn't perform that conversion, but it is required to be a rfc-compliant smtp server.
     }
 
-    private void closeTransport(Mail mail, HostAddress outgoingMailServer, SMTPTransport transport) {
-        if (transport != null) {
-            try {
-                // James-899: transport.close() sends QUIT to the server; if that fails
-                // (e.g. because the server has already closed the connection) the message
-                // should be considered to be delivered because the error happened outside
-                // of the mail transaction (MAIL, RCPT, DATA).
-                transport.close();
-            } catch (MessagingException e) {
-                LOGGER.error("Warning: could not close the SMTP transport after sending mail ({}) to {} at {} for {}; " +
-                        "probably the server has already closed the connection. Message is considered to be delivered. Exception: {}",
-                    mail.getName(), outgoingMailServer.getHostName(), outgoingMailServer.getHost(), mail.getRecipients(), e.getMessage());
-            }
-            transport = null;
-        }
-    }
-
 
 }
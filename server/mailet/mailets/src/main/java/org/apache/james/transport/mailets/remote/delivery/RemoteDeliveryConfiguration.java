@@ -27,12 +27,14 @@ import java.util.Properties;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.domainlist.api.DomainList;
+import org.apache.james.util.DurationParser;
 import org.apache.mailet.MailetConfig;
 import org.apache.mailet.base.MailetUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
@@ -61,12 +63,24 @@ public class RemoteDeliveryConfiguration {
     public static final String MAX_RETRIES = "maxRetries";
     public static final String DELAY_TIME = "delayTime";
     public static final String DEBUG = "debug";
+    public static final String MAX_POOLED_CONNECTIONS_PER_HOST = "maxPooledConnectionsPerHost";
+    public static final String MAX_MESSAGES_PER_CONNECTION = "maxMessagesPerConnection";
+    public static final String POOLED_CONNECTION_IDLE_TIMEOUT = "pooledConnectionIdleTimeout";
+    public static final String MAX_CONCURRENT_DELIVERIES = "maxConcurrentDeliveries";
+    public static final String MAX_CONCURRENT_DELIVERIES_PER_DOMAIN = "maxConcurrentDeliveriesPerDomain";
+    public static final String MAX_PENDING_DELIVERIES_PER_DOMAIN = "maxPendingDeliveriesPerDomain";
     public static final int DEFAULT_SMTP_TIMEOUT = 180000;
     public static final String DEFAULT_OUTGOING_QUEUE_NAME = "outgoing";
     public static final int DEFAULT_CONNECTION_TIMEOUT = 60000;
     public static final int DEFAULT_DNS_RETRY_PROBLEM = 0;
     public static final int DEFAULT_MAX_RETRY = 5;
     public static final String ADDRESS_PORT_SEPARATOR = ":";
+    public static final int DEFAULT_MAX_POOLED_CONNECTIONS_PER_HOST = 0;
+    public static final int DEFAULT_MAX_MESSAGES_PER_CONNECTION = 100;
+    public static final Duration DEFAULT_POOLED_CONNECTION_IDLE_TIMEOUT = Duration.ofSeconds(30);
+    public static final int DEFAULT_MAX_CONCURRENT_DELIVERIES = 256;
+    public static final int DEFAULT_MAX_CONCURRENT_DELIVERIES_PER_DOMAIN = 8;
+    public static final int DEFAULT_MAX_PENDING_DELIVERIES_PER_DOMAIN = 16;
 
     private final boolean isDebug;
     private final boolean usePriority;
@@ -78,6 +92,12 @@ public class RemoteDeliveryConfiguration {
     private final long smtpTimeout;
     private final int dnsProblemRetry;
     private final int connectionTimeout;
+    private final int maxPooledConnectionsPerHost;
+    private final int maxMessagesPerConnection;
+    private final Duration pooledConnectionIdleTimeout;
+    private final int maxConcurrentDeliveries;
+    private final int maxConcurrentDeliveriesPerDomain;
+    private final int maxPendingDeliveriesPerDomain;
     private final List<Duration> delayTimes;
     private final HeloNameProvider heloNameProvider;
     private final String outGoingQueueName;
@@ -104,6 +124,14 @@ public class RemoteDeliveryConfiguration {
         smtpTimeout = computeSmtpTimeout(mailetConfig);
         connectionTimeout = computeConnectionTimeout(mailetConfig);
         dnsProblemRetry = computeDnsProblemRetry(mailetConfig);
+        maxPooledConnectionsPerHost = computePositiveInteger(mailetConfig, MAX_POOLED_CONNECTIONS_PER_HOST, DEFAULT_MAX_POOLED_CONNECTIONS_PER_HOST);
+        maxMessagesPerConnection = computePositiveInteger(mailetConfig, MAX_MESSAGES_PER_CONNECTION, DEFAULT_MAX_MESSAGES_PER_CONNECTION);
+        pooledConnectionIdleTimeout = Optional.ofNullable(mailetConfig.getInitParameter(POOLED_CONNECTION_IDLE_TIMEOUT))
+            .map(DurationParser::parse)
+            .orElse(DEFAULT_POOLED_CONNECTION_IDLE_TIMEOUT);
+        maxConcurrentDeliveries = computeStrictlyPositiveInteger(mailetConfig, MAX_CONCURRENT_DELIVERIES, DEFAULT_MAX_CONCURRENT_DELIVERIES);
+        maxConcurrentDeliveriesPerDomain = computeStrictlyPositiveInteger(mailetConfig, MAX_CONCURRENT_DELIVERIES_PER_DOMAIN, DEFAULT_MAX_CONCURRENT_DELIVERIES_PER_DOMAIN);
+        maxPendingDeliveriesPerDomain = computeStrictlyPositiveInteger(mailetConfig, MAX_PENDING_DELIVERIES_PER_DOMAIN, DEFAULT_MAX_PENDING_DELIVERIES_PER_DOMAIN);
         heloNameProvider = new HeloNameProvider(mailetConfig.getInitParameter(HELO_NAME), domainList);
 
         String gatewayPort = mailetConfig.getInitParameter(GATEWAY_PORT);
@@ -141,6 +169,20 @@ public class RemoteDeliveryConfiguration {
         }
     }
 
+    private int computePositiveInteger(MailetConfig mailetConfig, String parameter, int defaultValue) {
+        int value = Optional.ofNullable(mailetConfig.getInitParameter(parameter))
+            .map(Integer::parseInt)
+            .orElse(defaultValue);
+        Preconditions.checkArgument(value >= 0, "'%s' can not be negative", parameter);
+        return value;
+    }
+
+    private int computeStrictlyPositiveInteger(MailetConfig mailetConfig, String parameter, int defaultValue) {
+        int value = computePositiveInteger(mailetConfig, parameter, defaultValue);
+        Preconditions.checkArgument(value > 0, "'%s' needs to be strictly positive", parameter);
+        return value;
+    }
+
     private int computeConnectionTimeout(MailetConfig mailetConfig) {
         try {
             return Integer.parseInt(
@@ -257,6 +299,30 @@ public class RemoteDeliveryConfiguration {
         return connectionTimeout;
     }
 
+    public int getMaxPooledConnectionsPerHost() {
+        return maxPooledConnectionsPerHost;
+    }
+
+    public int getMaxMessagesPerConnection() {
+        return maxMessagesPerConnection;
+    }
+
+    public Duration getPooledConnectionIdleTimeout() {
+        return pooledConnectionIdleTimeout;
+    }
+
+    public int getMaxConcurrentDeliveries() {
+        return maxConcurrentDeliveries;
+    }
+
+    public int getMaxConcurrentDeliveriesPerDomain() {
+        return maxConcurrentDeliveriesPerDomain;
+    }
+
+    public int getMaxPendingDeliveriesPerDomain() {
+        return maxPendingDeliveriesPerDomain;
+    }
+
     public Collection<String> getGatewayServer() {
         return gatewayServer;
     }
@@ -0,0 +1,223 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.lifecycle.api.Disposable;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+import org.apache.mailet.HostAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.mail.smtp.SMTPTransport;
+
+/**
+ * Keeps the connections to remote SMTP servers opened between deliveries, so that consecutive mails for the same
+ * server do not pay again for the TCP, STARTTLS and authentication handshakes.
+ *
+ * At most maxConnectionsPerHost idle connections are kept for a given server. A connection is closed once it sent
+ * maxMessagesPerConnection mails, or when it stayed idle longer than idleTimeout. Pooling is disabled when
+ * maxConnectionsPerHost is 0: connections are then closed right after their delivery.
+ */
+public class SMTPTransportPool implements Disposable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SMTPTransportPool.class);
+
+    public static final String CONNECTIONS_OPENED = "remoteDeliveryConnectionsOpened";
+    public static final String CONNECTIONS_REUSED = "remoteDeliveryConnectionsReused";
+    public static final String CONNECTION_HANDSHAKE = "remoteDeliveryConnectionHandshake";
+
+    @FunctionalInterface
+    public interface TransportFactory {
+        SMTPTransport connect(HostAddress server) throws MessagingException;
+    }
+
+    public static class PooledTransport {
+        private final HostAddress server;
+        private final SMTPTransport transport;
+        private int sentMessages;
+        private Instant lastUsed;
+
+        private PooledTransport(HostAddress server, SMTPTransport transport) {
+            this.server = server;
+            this.transport = transport;
+            this.sentMessages = 0;
+        }
+
+        public SMTPTransport getTransport() {
+            return transport;
+        }
+    }
+
+    private final TransportFactory transportFactory;
+    private final MetricFactory metricFactory;
+    private final Metric connectionsOpened;
+    private final Metric connectionsReused;
+    private final int maxConnectionsPerHost;
+    private final int maxMessagesPerConnection;
+    private final Duration idleTimeout;
+    private final Clock clock;
+    private final Map<String, Deque<PooledTransport>> idleTransports;
+
+    public SMTPTransportPool(TransportFactory transportFactory, MetricFactory metricFactory, RemoteDeliveryConfiguration configuration) {
+        this(transportFactory, metricFactory, configuration.getMaxPooledConnectionsPerHost(),
+            configuration.getMaxMessagesPerConnection(), configuration.getPooledConnectionIdleTimeout(), Clock.systemUTC());
+    }
+
+    SMTPTransportPool(TransportFactory transportFactory, MetricFactory metricFactory, int maxConnectionsPerHost,
+                      int maxMessagesPerConnection, Duration idleTimeout, Clock clock) {
+        this.transportFactory = transportFactory;
+        this.metricFactory = metricFactory;
+        this.connectionsOpened = metricFactory.generate(CONNECTIONS_OPENED);
+        this.connectionsReused = metricFactory.generate(CONNECTIONS_REUSED);
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.idleTimeout = idleTimeout;
+        this.clock = clock;
+        this.idleTransports = new HashMap<>();
+    }
+
+    /**
+     * Returns a connection to the given server, reusing an idle one when possible.
+     */
+    public PooledTransport borrow(HostAddress server) throws MessagingException {
+        Optional<PooledTransport> idleTransport = pollIdleTransport(server);
+        if (idleTransport.isPresent()) {
+            connectionsReused.increment();
+            return idleTransport.get();
+        }
+
+        TimeMetric handshakeTimer = metricFactory.timer(CONNECTION_HANDSHAKE);
+        SMTPTransport transport = transportFactory.connect(server);
+        handshakeTimer.stopAndPublish();
+        connectionsOpened.increment();
+        return new PooledTransport(server, transport);
+    }
+
+    /**
+     * Gives a connection back once a delivery is over. Connections that failed a delivery are not reusable: the
+     * state of the SMTP session is then unknown, hence they are closed.
+     */
+    public void release(PooledTransport pooledTransport, boolean reusable) {
+        pooledTransport.sentMessages++;
+        pooledTransport.lastUsed = clock.instant();
+
+        List<PooledTransport> toClose = new ArrayList<>(evictExpiredTransports());
+        if (!reusable || !offer(pooledTransport)) {
+            toClose.add(pooledTransport);
+        }
+        toClose.forEach(this::close);
+    }
+
+    private Optional<PooledTransport> pollIdleTransport(HostAddress server) {
+        while (true) {
+            Optional<PooledTransport> candidate = pollIdleCandidate(server);
+            if (!candidate.isPresent()) {
+                return Optional.empty();
+            }
+            PooledTransport pooledTransport = candidate.get();
+            if (!isExpired(pooledTransport) && pooledTransport.transport.isConnected()) {
+                return candidate;
+            }
+            close(pooledTransport);
+        }
+    }
+
+    private synchronized Optional<PooledTransport> pollIdleCandidate(HostAddress server) {
+        return Optional.ofNullable(idleTransports.get(key(server)))
+            .map(Deque::pollFirst);
+    }
+
+    private synchronized boolean offer(PooledTransport pooledTransport) {
+        if (pooledTransport.sentMessages >= maxMessagesPerConnection) {
+            return false;
+        }
+        Deque<PooledTransport> transports = idleTransports.computeIfAbsent(key(pooledTransport.server), any -> new ArrayDeque<>());
+        if (transports.size() >= maxConnectionsPerHost) {
+            return false;
+        }
+        transports.addFirst(pooledTransport);
+        return true;
+    }
+
+    private synchronized List<PooledTransport> evictExpiredTransports() {
+        List<PooledTransport> expired = new ArrayList<>();
+        Iterator<Deque<PooledTransport>> perHost = idleTransports.values().iterator();
+        while (perHost.hasNext()) {
+            Deque<PooledTransport> transports = perHost.next();
+            transports.removeIf(pooledTransport -> {
+                if (isExpired(pooledTransport)) {
+                    expired.add(pooledTransport);
+                    return true;
+                }
+                return false;
+            });
+            if (transports.isEmpty()) {
+                perHost.remove();
+            }
+        }
+        return expired;
+    }
+
+    private boolean isExpired(PooledTransport pooledTransport) {
+        return pooledTransport.lastUsed.plus(idleTimeout).isBefore(clock.instant());
+    }
+
+    private String key(HostAddress server) {
+        return server.toString();
+    }
+
+    private void close(PooledTransport pooledTransport) {
+        try {
+            // James-899: transport.close() sends QUIT to the server; if that fails
+            // (e.g. because the server has already closed the connection) the mails
+            // sent over this connection should be considered to be delivered because
+            // the error happened outside of the mail transaction (MAIL, RCPT, DATA).
+            pooledTransport.transport.close();
+        } catch (MessagingException e) {
+            LOGGER.warn("Could not close the SMTP transport to {} at {}; probably the server has already closed the connection. {}",
+                pooledTransport.server.getHostName(), pooledTransport.server.getHost(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void dispose() {
+        List<PooledTransport> toClose = new ArrayList<>();
+        synchronized (this) {
+            idleTransports.values().forEach(toClose::addAll);
+            idleTransports.clear();
+        }
+        toClose.forEach(this::close);
+    }
+}
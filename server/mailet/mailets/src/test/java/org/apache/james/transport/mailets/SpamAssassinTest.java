@@ -28,6 +28,7 @@ import org.apache.james.core.MailAddress;
 import org.apache.james.core.builder.MimeMessageBuilder;
 import org.apache.james.domainlist.api.DomainList;
 import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.spamassassin.SpamAssassinInvoker;
 import org.apache.james.spamassassin.SpamAssassinResult;
 import org.apache.james.spamassassin.mock.MockSpamd;
 import org.apache.james.spamassassin.mock.MockSpamdTestRule;
@@ -142,6 +143,33 @@ public class SpamAssassinTest {
         assertThat(mailet.getSpamdPort()).isEqualTo(spamPort);
     }
 
+    @Test
+    public void initShouldSetDefaultMaxConcurrentRequestsWhenNone() throws Exception {
+        mailet.init(FakeMailetConfig.builder()
+            .mailetName("SpamAssassin")
+            .build());
+
+        assertThat(mailet.getMaxConcurrentRequests()).isEqualTo(SpamAssassinInvoker.DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
+
+    @Test
+    public void initShouldSetMaxConcurrentRequestsWhenPresent() throws Exception {
+        mailet.init(FakeMailetConfig.builder()
+            .mailetName("SpamAssassin")
+            .setProperty(SpamAssassin.MAX_CONCURRENT_REQUESTS, "4")
+            .build());
+
+        assertThat(mailet.getMaxConcurrentRequests()).isEqualTo(4);
+    }
+
+    @Test
+    public void initShouldThrowWhenMaxConcurrentRequestsIsZero() {
+        assertThatThrownBy(() -> mailet.init(FakeMailetConfig.builder()
+            .mailetName("SpamAssassin")
+            .setProperty(SpamAssassin.MAX_CONCURRENT_REQUESTS, "0")
+            .build())).isInstanceOf(MessagingException.class);
+    }
+
     @Test
     public void serviceShouldWriteSpamAttributeOnMail() throws Exception {
         FakeMailetConfig mailetConfiguration = FakeMailetConfig.builder()
@@ -20,7 +20,9 @@
 package org.apache.james.transport.mailets.delivery;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -29,8 +31,11 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.james.core.MailAddress;
@@ -47,6 +52,8 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
 
 public class MailDispatcherTest {
     private static final String TEST_HEADER_NAME = "X-HEADER";
@@ -81,11 +88,98 @@ public class MailDispatcherTest {
             .build();
         testee.dispatch(mail);
 
-        verify(mailStore).storeMail(MailAddressFixture.ANY_AT_JAMES, mail);
-        verify(mailStore).storeMail(MailAddressFixture.ANY_AT_JAMES2, mail);
+        ArgumentCaptor<Mail> mailCaptor = ArgumentCaptor.forClass(Mail.class);
+        verify(mailStore).storeMail(eq(MailAddressFixture.ANY_AT_JAMES), mailCaptor.capture(), any(MimeMessage.class));
+        verify(mailStore).storeMail(eq(MailAddressFixture.ANY_AT_JAMES2), mailCaptor.capture(), any(MimeMessage.class));
+        verifyNoMoreInteractions(mailStore);
+
+        assertThat(mailCaptor.getAllValues())
+            .extracting(Mail::getName)
+            .containsOnly("name");
+    }
+
+    @Test
+    public void dispatchShouldShareTheMailBetweenRecipients() throws Exception {
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(mailStore)
+            .consume(true)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .name("name")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2)
+            .state("state")
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder().setText("content"))
+            .build();
+        testee.dispatch(mail);
+
+        ArgumentCaptor<Mail> mailCaptor = ArgumentCaptor.forClass(Mail.class);
+        verify(mailStore).storeMail(eq(MailAddressFixture.ANY_AT_JAMES), mailCaptor.capture(), any(MimeMessage.class));
+        verify(mailStore).storeMail(eq(MailAddressFixture.ANY_AT_JAMES2), mailCaptor.capture(), any(MimeMessage.class));
+
+        assertThat(mailCaptor.getAllValues())
+            .allSatisfy(storedMail -> assertThat(storedMail).isSameAs(mail));
+    }
+
+    @Test
+    public void dispatchShouldStoreTheBodyOfTheMailForEachRecipient() throws Exception {
+        AccumulatorContentMailStore accumulatorContentMailStore = new AccumulatorContentMailStore();
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(accumulatorContentMailStore)
+            .consume(true)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .name("name")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2)
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder()
+                .setSubject("subject")
+                .setText("body"))
+            .state("state")
+            .build();
+        testee.dispatch(mail);
+
+        assertThat(accumulatorContentMailStore.getContents().keySet())
+            .containsOnly(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2);
+        assertThat(accumulatorContentMailStore.getContents().values())
+            .allSatisfy(content -> assertThat(content)
+                .contains("Subject: subject")
+                .contains("body"));
+    }
+
+    @Test
+    public void dispatchShouldStoreMailForEachRecipientWhenConcurrencyIsOne() throws Exception {
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(mailStore)
+            .concurrency(1)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .name("name")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2, MailAddressFixture.OTHER_AT_JAMES)
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder().setText("content"))
+            .state("state")
+            .build();
+        testee.dispatch(mail);
+
+        verify(mailStore).storeMail(eq(MailAddressFixture.ANY_AT_JAMES), any(Mail.class), any(MimeMessage.class));
+        verify(mailStore).storeMail(eq(MailAddressFixture.ANY_AT_JAMES2), any(Mail.class), any(MimeMessage.class));
+        verify(mailStore).storeMail(eq(MailAddressFixture.OTHER_AT_JAMES), any(Mail.class), any(MimeMessage.class));
         verifyNoMoreInteractions(mailStore);
     }
 
+    @Test
+    public void concurrencyShouldThrowWhenZero() {
+        assertThatThrownBy(() -> MailDispatcher.builder().concurrency(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     public void dispatchShouldConsumeMailIfSpecified() throws Exception {
         MailDispatcher testee = MailDispatcher.builder()
@@ -134,7 +228,7 @@ public class MailDispatcherTest {
             .build();
         doThrow(new MessagingException())
             .when(mailStore)
-            .storeMail(any(MailAddress.class), any(Mail.class));
+            .storeMail(any(MailAddress.class), any(Mail.class), any(MimeMessage.class));
 
         MimeMessageBuilder mimeMessage = MimeMessageBuilder.mimeMessageBuilder()
             .setMultipartWithBodyParts(
@@ -163,9 +257,10 @@ public class MailDispatcherTest {
 
     @Test
     public void dispatchShouldUpdateReturnPath() throws Exception {
+        AccumulatorHeaderMailStore accumulatorReturnPathMailStore = new AccumulatorHeaderMailStore(RFC2822Headers.RETURN_PATH);
         MailDispatcher testee = MailDispatcher.builder()
             .mailetContext(fakeMailContext)
-            .mailStore(mailStore)
+            .mailStore(accumulatorReturnPathMailStore)
             .consume(false)
             .build();
 
@@ -178,11 +273,8 @@ public class MailDispatcherTest {
             .build();
         testee.dispatch(mail);
 
-        ArgumentCaptor<Mail> mailCaptor = ArgumentCaptor.forClass(Mail.class);
-        verify(mailStore).storeMail(any(MailAddress.class), mailCaptor.capture());
-
-        assertThat(mailCaptor.getValue().getMessage().getHeader(RFC2822Headers.RETURN_PATH))
-            .containsOnly("<" + MailAddressFixture.OTHER_AT_JAMES + ">");
+        assertThat(accumulatorReturnPathMailStore.getHeaderValues(MailAddressFixture.ANY_AT_JAMES))
+            .containsOnly(new String[]{"<" + MailAddressFixture.OTHER_AT_JAMES + ">"});
     }
 
     @Test
@@ -331,17 +423,17 @@ public class MailDispatcherTest {
     }
 
     public static class AccumulatorHeaderMailStore implements MailStore {
-        private final ArrayListMultimap<MailAddress, String[]> headerValues;
+        private final ListMultimap<MailAddress, String[]> headerValues;
         private final String headerName;
 
         public AccumulatorHeaderMailStore(String headerName) {
             this.headerName = headerName;
-            this.headerValues = ArrayListMultimap.create();
+            this.headerValues = Multimaps.synchronizedListMultimap(ArrayListMultimap.create());
         }
 
         @Override
-        public void storeMail(MailAddress recipient, Mail mail) throws MessagingException {
-            String[] header = mail.getMessage().getHeader(headerName);
+        public void storeMail(MailAddress recipient, Mail mail, MimeMessage message) throws MessagingException {
+            String[] header = message.getHeader(headerName);
             if (header != null) {
                 headerValues.put(recipient, header);
             }
@@ -351,4 +443,21 @@ public class MailDispatcherTest {
             return headerValues.get(recipient);
         }
     }
+
+    public static class AccumulatorContentMailStore implements MailStore {
+        private final Map<MailAddress, String> contents = new ConcurrentHashMap<>();
+
+        @Override
+        public void storeMail(MailAddress recipient, Mail mail, MimeMessage message) throws MessagingException {
+            try {
+                contents.put(recipient, MimeMessageUtil.asString(message));
+            } catch (Exception e) {
+                throw new MessagingException("Unable to read message", e);
+            }
+        }
+
+        public Map<MailAddress, String> getContents() {
+            return contents;
+        }
+    }
 }
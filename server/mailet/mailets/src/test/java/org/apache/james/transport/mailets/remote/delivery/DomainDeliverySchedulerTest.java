@@ -0,0 +1,317 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.james.core.Domain;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+public class DomainDeliverySchedulerTest {
+    private static final Domain DOMAIN = Domain.of("james.org");
+    private static final Domain OTHER_DOMAIN = Domain.of("apache.org");
+
+    private RecordingMetricFactory metricFactory;
+    private List<String> startedDeliveries;
+
+    @Before
+    public void setUp() {
+        metricFactory = new RecordingMetricFactory();
+        startedDeliveries = new ArrayList<>();
+    }
+
+    private MonoProcessor<ExecutionResult.ExecutionState> schedule(DomainDeliveryScheduler testee, Domain domain, String name) {
+        MonoProcessor<ExecutionResult.ExecutionState> result = MonoProcessor.create();
+        testee.schedule(domain, () -> {
+            startedDeliveries.add(name);
+            return result;
+        });
+        return result;
+    }
+
+    @Test
+    public void deliveriesShouldStartImmediatelyWhenSlotsAreAvailable() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 2, 10);
+
+        schedule(testee, DOMAIN, "1");
+        schedule(testee, DOMAIN, "2");
+
+        assertThat(startedDeliveries).containsExactly("1", "2");
+    }
+
+    @Test
+    public void deliveriesShouldBeLimitedPerDomain() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 2, 10);
+
+        schedule(testee, DOMAIN, "1");
+        schedule(testee, DOMAIN, "2");
+        schedule(testee, DOMAIN, "3");
+
+        assertThat(startedDeliveries).containsExactly("1", "2");
+    }
+
+    @Test
+    public void slowDomainShouldNotDelayOtherDomains() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 2, 10);
+
+        schedule(testee, DOMAIN, "1");
+        schedule(testee, DOMAIN, "2");
+        schedule(testee, DOMAIN, "3");
+        schedule(testee, OTHER_DOMAIN, "other");
+
+        assertThat(startedDeliveries).containsExactly("1", "2", "other");
+    }
+
+    @Test
+    public void pendingDeliveryShouldStartWhenASlotIsReleased() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 10);
+
+        MonoProcessor<ExecutionResult.ExecutionState> first = schedule(testee, DOMAIN, "1");
+        schedule(testee, DOMAIN, "2");
+
+        first.onNext(ExecutionResult.ExecutionState.PERMANENT_FAILURE);
+
+        assertThat(startedDeliveries).containsExactly("1", "2");
+    }
+
+    @Test
+    public void deliveriesShouldBeLimitedGlobally() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 1, 2, 10);
+
+        schedule(testee, DOMAIN, "1");
+        schedule(testee, OTHER_DOMAIN, "other");
+
+        assertThat(startedDeliveries).containsExactly("1");
+    }
+
+    @Test
+    public void releasedGlobalSlotShouldBeHandedToDomainsInRoundRobin() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 1, 2, 10);
+
+        MonoProcessor<ExecutionResult.ExecutionState> first = schedule(testee, DOMAIN, "1");
+        schedule(testee, DOMAIN, "2");
+        schedule(testee, OTHER_DOMAIN, "other");
+
+        first.onNext(ExecutionResult.ExecutionState.SUCCESS);
+
+        assertThat(startedDeliveries).containsExactly("1", "other");
+    }
+
+    @Test
+    public void temporaryFailureShouldHalveDomainConcurrency() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 8, 10);
+
+        schedule(testee, DOMAIN, "1").onNext(ExecutionResult.ExecutionState.TEMPORARY_FAILURE);
+
+        assertThat(testee.concurrencyOf(DOMAIN)).isEqualTo(4);
+    }
+
+    @Test
+    public void domainConcurrencyShouldNotGoBelowOne() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 2, 10);
+
+        schedule(testee, DOMAIN, "1").onNext(ExecutionResult.ExecutionState.TEMPORARY_FAILURE);
+        schedule(testee, DOMAIN, "2").onNext(ExecutionResult.ExecutionState.TEMPORARY_FAILURE);
+
+        assertThat(testee.concurrencyOf(DOMAIN)).isEqualTo(1);
+    }
+
+    @Test
+    public void successShouldIncreaseDomainConcurrency() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 8, 10);
+
+        schedule(testee, DOMAIN, "1").onNext(ExecutionResult.ExecutionState.TEMPORARY_FAILURE);
+        schedule(testee, DOMAIN, "2").onNext(ExecutionResult.ExecutionState.SUCCESS);
+
+        assertThat(testee.concurrencyOf(DOMAIN)).isEqualTo(5);
+    }
+
+    @Test
+    public void reducedConcurrencyShouldLimitDeliveries() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 2, 10);
+
+        schedule(testee, DOMAIN, "1").onNext(ExecutionResult.ExecutionState.TEMPORARY_FAILURE);
+        schedule(testee, DOMAIN, "2");
+        schedule(testee, DOMAIN, "3");
+
+        assertThat(startedDeliveries).containsExactly("1", "2");
+    }
+
+    @Test
+    public void otherDomainsConcurrencyShouldNotBeAffectedByTemporaryFailures() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 8, 10);
+
+        schedule(testee, DOMAIN, "1").onNext(ExecutionResult.ExecutionState.TEMPORARY_FAILURE);
+
+        assertThat(testee.concurrencyOf(OTHER_DOMAIN)).isEqualTo(8);
+    }
+
+    @Test
+    public void scheduleShouldAdmitDeliveriesImmediatelyWhileBacklogHasRoom() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 1);
+
+        schedule(testee, DOMAIN, "1");
+
+        assertThat(testee.schedule(DOMAIN, Mono::empty).toFuture()).isDone();
+    }
+
+    @Test
+    public void scheduleShouldHoldDeliveriesWhenBacklogIsFull() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 1);
+
+        schedule(testee, DOMAIN, "1");
+        schedule(testee, DOMAIN, "2");
+
+        assertThat(testee.schedule(DOMAIN, Mono::empty).toFuture()).isNotDone();
+    }
+
+    @Test
+    public void heldDeliveryShouldBeAdmittedOnceRoomIsMade() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 1);
+
+        MonoProcessor<ExecutionResult.ExecutionState> first = schedule(testee, DOMAIN, "1");
+        schedule(testee, DOMAIN, "2");
+        CompletableFuture<Void> admission = testee.schedule(DOMAIN, Mono::empty).toFuture();
+
+        first.onNext(ExecutionResult.ExecutionState.SUCCESS);
+
+        assertThat(admission).isDone();
+    }
+
+    @Test
+    public void heldDeliveryShouldEventuallyStart() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 1);
+
+        MonoProcessor<ExecutionResult.ExecutionState> first = schedule(testee, DOMAIN, "1");
+        MonoProcessor<ExecutionResult.ExecutionState> second = schedule(testee, DOMAIN, "2");
+        schedule(testee, DOMAIN, "3");
+
+        first.onNext(ExecutionResult.ExecutionState.SUCCESS);
+        second.onNext(ExecutionResult.ExecutionState.SUCCESS);
+
+        assertThat(startedDeliveries).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    public void scheduleShouldAdmitOtherDomainsWhenABacklogIsFull() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 1);
+
+        schedule(testee, DOMAIN, "1");
+        schedule(testee, DOMAIN, "2");
+
+        assertThat(testee.schedule(OTHER_DOMAIN, Mono::empty).toFuture()).isDone();
+    }
+
+    @Test
+    public void failedDeliveryShouldReleaseItsSlot() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 10);
+
+        MonoProcessor<ExecutionResult.ExecutionState> first = schedule(testee, DOMAIN, "1");
+        schedule(testee, DOMAIN, "2");
+
+        first.onError(new RuntimeException());
+
+        assertThat(startedDeliveries).containsExactly("1", "2");
+    }
+
+    @Test
+    public void pendingDeliveriesShouldBeRecorded() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 10);
+
+        schedule(testee, DOMAIN, "1");
+        schedule(testee, DOMAIN, "2");
+        schedule(testee, OTHER_DOMAIN, "3");
+        schedule(testee, OTHER_DOMAIN, "4");
+
+        assertThat(metricFactory.countFor(DomainDeliveryScheduler.PENDING_DELIVERIES)).isEqualTo(2);
+    }
+
+    @Test
+    public void deliveryDurationShouldBeRecorded() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 10);
+
+        schedule(testee, DOMAIN, "1").onNext(ExecutionResult.ExecutionState.SUCCESS);
+
+        assertThat(metricFactory.executionTimesFor(DomainDeliveryScheduler.DELIVERY_DURATION)).hasSize(1);
+    }
+
+    @Test
+    public void pendingDeliveriesShouldBeRecordedPerDomain() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 10);
+
+        schedule(testee, DOMAIN, "1");
+        schedule(testee, DOMAIN, "2");
+        schedule(testee, DOMAIN, "3");
+        schedule(testee, OTHER_DOMAIN, "4");
+        schedule(testee, OTHER_DOMAIN, "5");
+
+        assertThat(metricFactory.countFor(DomainDeliveryScheduler.PENDING_DELIVERIES + ".james.org")).isEqualTo(2);
+        assertThat(metricFactory.countFor(DomainDeliveryScheduler.PENDING_DELIVERIES + ".apache.org")).isEqualTo(1);
+    }
+
+    @Test
+    public void deliveryDurationShouldBeRecordedPerDomain() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 10);
+
+        schedule(testee, DOMAIN, "1").onNext(ExecutionResult.ExecutionState.SUCCESS);
+
+        assertThat(metricFactory.executionTimesFor(DomainDeliveryScheduler.DELIVERY_DURATION + ".james.org")).hasSize(1);
+        assertThat(metricFactory.executionTimesFor(DomainDeliveryScheduler.DELIVERY_DURATION + ".apache.org")).isEmpty();
+    }
+
+    @Test
+    public void domainsBeyondTheMetricLimitShouldBeRecordedAsOtherDomains() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 10, 1);
+
+        schedule(testee, DOMAIN, "1");
+        schedule(testee, DOMAIN, "2");
+        schedule(testee, OTHER_DOMAIN, "3");
+        schedule(testee, OTHER_DOMAIN, "4");
+        schedule(testee, Domain.of("linagora.com"), "5");
+        schedule(testee, Domain.of("linagora.com"), "6");
+
+        assertThat(metricFactory.countForPrefixName(DomainDeliveryScheduler.PENDING_DELIVERIES + "."))
+            .containsOnly(
+                entry(DomainDeliveryScheduler.PENDING_DELIVERIES + ".james.org", 1),
+                entry(DomainDeliveryScheduler.PENDING_DELIVERIES + "." + DomainDeliveryScheduler.OTHER_DOMAINS, 2));
+    }
+
+    @Test
+    public void domainsShouldKeepTheirMetricsOnceIdle() {
+        DomainDeliveryScheduler testee = new DomainDeliveryScheduler(metricFactory, 10, 1, 10, 1);
+
+        schedule(testee, DOMAIN, "1").onNext(ExecutionResult.ExecutionState.SUCCESS);
+        schedule(testee, OTHER_DOMAIN, "2").onNext(ExecutionResult.ExecutionState.SUCCESS);
+        schedule(testee, DOMAIN, "3").onNext(ExecutionResult.ExecutionState.SUCCESS);
+
+        assertThat(metricFactory.executionTimesFor(DomainDeliveryScheduler.DELIVERY_DURATION + ".james.org")).hasSize(2);
+        assertThat(metricFactory.executionTimesFor(DomainDeliveryScheduler.DELIVERY_DURATION + "." + DomainDeliveryScheduler.OTHER_DOMAINS)).hasSize(1);
+    }
+}
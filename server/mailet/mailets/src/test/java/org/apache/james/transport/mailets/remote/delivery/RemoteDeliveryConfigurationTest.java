@@ -144,6 +144,164 @@ public class RemoteDeliveryConfigurationTest {
             .isEqualTo(value);
     }
 
+    @Test
+    public void connectionPoolingShouldBeDisabledByDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxPooledConnectionsPerHost())
+            .isEqualTo(0);
+    }
+
+    @Test
+    public void getMaxPooledConnectionsPerHostShouldReturnProvidedValue() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_POOLED_CONNECTIONS_PER_HOST, "4")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxPooledConnectionsPerHost())
+            .isEqualTo(4);
+    }
+
+    @Test
+    public void constructorShouldThrowOnNegativeMaxPooledConnectionsPerHost() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_POOLED_CONNECTIONS_PER_HOST, "-1")
+            .build();
+
+        expectedException.expect(IllegalArgumentException.class);
+
+        new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class));
+    }
+
+    @Test
+    public void getMaxMessagesPerConnectionShouldReturnDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxMessagesPerConnection())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_MAX_MESSAGES_PER_CONNECTION);
+    }
+
+    @Test
+    public void getMaxMessagesPerConnectionShouldReturnProvidedValue() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_MESSAGES_PER_CONNECTION, "20")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxMessagesPerConnection())
+            .isEqualTo(20);
+    }
+
+    @Test
+    public void getPooledConnectionIdleTimeoutShouldReturnDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getPooledConnectionIdleTimeout())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_POOLED_CONNECTION_IDLE_TIMEOUT);
+    }
+
+    @Test
+    public void getPooledConnectionIdleTimeoutShouldReturnProvidedValue() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.POOLED_CONNECTION_IDLE_TIMEOUT, "10s")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getPooledConnectionIdleTimeout())
+            .isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void getMaxConcurrentDeliveriesShouldReturnDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxConcurrentDeliveries())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_MAX_CONCURRENT_DELIVERIES);
+    }
+
+    @Test
+    public void getMaxConcurrentDeliveriesShouldReturnProvidedValue() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_CONCURRENT_DELIVERIES, "12")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxConcurrentDeliveries())
+            .isEqualTo(12);
+    }
+
+    @Test
+    public void constructorShouldThrowOnZeroMaxConcurrentDeliveries() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_CONCURRENT_DELIVERIES, "0")
+            .build();
+
+        expectedException.expect(IllegalArgumentException.class);
+
+        new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class));
+    }
+
+    @Test
+    public void getMaxConcurrentDeliveriesPerDomainShouldReturnDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxConcurrentDeliveriesPerDomain())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_MAX_CONCURRENT_DELIVERIES_PER_DOMAIN);
+    }
+
+    @Test
+    public void getMaxConcurrentDeliveriesPerDomainShouldReturnProvidedValue() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_CONCURRENT_DELIVERIES_PER_DOMAIN, "3")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxConcurrentDeliveriesPerDomain())
+            .isEqualTo(3);
+    }
+
+    @Test
+    public void constructorShouldThrowOnZeroMaxConcurrentDeliveriesPerDomain() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_CONCURRENT_DELIVERIES_PER_DOMAIN, "0")
+            .build();
+
+        expectedException.expect(IllegalArgumentException.class);
+
+        new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class));
+    }
+
+    @Test
+    public void getMaxPendingDeliveriesPerDomainShouldReturnDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxPendingDeliveriesPerDomain())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_MAX_PENDING_DELIVERIES_PER_DOMAIN);
+    }
+
+    @Test
+    public void getMaxPendingDeliveriesPerDomainShouldReturnProvidedValue() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_PENDING_DELIVERIES_PER_DOMAIN, "4")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxPendingDeliveriesPerDomain())
+            .isEqualTo(4);
+    }
+
+    @Test
+    public void constructorShouldThrowOnZeroMaxPendingDeliveriesPerDomain() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_PENDING_DELIVERIES_PER_DOMAIN, "0")
+            .build();
+
+        expectedException.expect(IllegalArgumentException.class);
+
+        new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class));
+    }
+
     @Test
     public void getConnectionTimeoutShouldReturnDefault() {
         FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
@@ -0,0 +1,235 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.mailet.HostAddress;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.mail.smtp.SMTPTransport;
+
+public class SMTPTransportPoolTest {
+    private static final HostAddress SERVER = new HostAddress("mx.james.org", "smtp://1.2.3.4:25");
+    private static final HostAddress OTHER_SERVER = new HostAddress("mx.apache.org", "smtp://5.6.7.8:25");
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(30);
+    private static final Instant NOW = Instant.parse("2019-10-01T10:00:00Z");
+
+    private RecordingMetricFactory metricFactory;
+    private MutableClock clock;
+
+    static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        metricFactory = new RecordingMetricFactory();
+        clock = new MutableClock(NOW);
+    }
+
+    private SMTPTransport connectedTransport() {
+        SMTPTransport transport = mock(SMTPTransport.class);
+        when(transport.isConnected()).thenReturn(true);
+        return transport;
+    }
+
+    private SMTPTransportPool pool(int maxConnectionsPerHost, int maxMessagesPerConnection) {
+        return new SMTPTransportPool(server -> connectedTransport(), metricFactory, maxConnectionsPerHost,
+            maxMessagesPerConnection, IDLE_TIMEOUT, clock);
+    }
+
+    @Test
+    public void borrowShouldReuseReleasedTransport() throws Exception {
+        SMTPTransportPool testee = pool(2, 100);
+
+        SMTPTransportPool.PooledTransport first = testee.borrow(SERVER);
+        testee.release(first, true);
+        SMTPTransportPool.PooledTransport second = testee.borrow(SERVER);
+
+        assertThat(second.getTransport()).isSameAs(first.getTransport());
+        verify(first.getTransport(), never()).close();
+    }
+
+    @Test
+    public void borrowShouldNotReuseTransportOfAnotherServer() throws Exception {
+        SMTPTransportPool testee = pool(2, 100);
+
+        SMTPTransportPool.PooledTransport first = testee.borrow(SERVER);
+        testee.release(first, true);
+        SMTPTransportPool.PooledTransport second = testee.borrow(OTHER_SERVER);
+
+        assertThat(second.getTransport()).isNotSameAs(first.getTransport());
+    }
+
+    @Test
+    public void releaseShouldCloseTransportWhenPoolingIsDisabled() throws Exception {
+        SMTPTransportPool testee = pool(0, 100);
+
+        SMTPTransportPool.PooledTransport transport = testee.borrow(SERVER);
+        testee.release(transport, true);
+
+        verify(transport.getTransport()).close();
+    }
+
+    @Test
+    public void releaseShouldCloseTransportWhenNotReusable() throws Exception {
+        SMTPTransportPool testee = pool(2, 100);
+
+        SMTPTransportPool.PooledTransport transport = testee.borrow(SERVER);
+        testee.release(transport, false);
+
+        verify(transport.getTransport()).close();
+        assertThat(testee.borrow(SERVER).getTransport()).isNotSameAs(transport.getTransport());
+    }
+
+    @Test
+    public void releaseShouldCloseTransportWhenMaxMessagesPerConnectionIsReached() throws Exception {
+        SMTPTransportPool testee = pool(2, 2);
+
+        SMTPTransportPool.PooledTransport transport = testee.borrow(SERVER);
+        testee.release(transport, true);
+        testee.release(testee.borrow(SERVER), true);
+
+        verify(transport.getTransport()).close();
+    }
+
+    @Test
+    public void releaseShouldCloseTransportsExceedingMaxConnectionsPerHost() throws Exception {
+        SMTPTransportPool testee = pool(1, 100);
+
+        SMTPTransportPool.PooledTransport first = testee.borrow(SERVER);
+        SMTPTransportPool.PooledTransport second = testee.borrow(SERVER);
+        testee.release(first, true);
+        testee.release(second, true);
+
+        verify(first.getTransport(), never()).close();
+        verify(second.getTransport()).close();
+    }
+
+    @Test
+    public void borrowShouldNotReuseIdleTimedOutTransport() throws Exception {
+        SMTPTransportPool testee = pool(2, 100);
+
+        SMTPTransportPool.PooledTransport first = testee.borrow(SERVER);
+        testee.release(first, true);
+        clock.advance(IDLE_TIMEOUT.plusSeconds(1));
+        SMTPTransportPool.PooledTransport second = testee.borrow(SERVER);
+
+        assertThat(second.getTransport()).isNotSameAs(first.getTransport());
+        verify(first.getTransport()).close();
+    }
+
+    @Test
+    public void releaseShouldCloseIdleTimedOutTransportsOfOtherServers() throws Exception {
+        SMTPTransportPool testee = pool(2, 100);
+
+        SMTPTransportPool.PooledTransport first = testee.borrow(SERVER);
+        testee.release(first, true);
+        clock.advance(IDLE_TIMEOUT.plusSeconds(1));
+        testee.release(testee.borrow(OTHER_SERVER), true);
+
+        verify(first.getTransport()).close();
+    }
+
+    @Test
+    public void borrowShouldNotReuseDisconnectedTransport() throws Exception {
+        SMTPTransportPool testee = pool(2, 100);
+
+        SMTPTransportPool.PooledTransport first = testee.borrow(SERVER);
+        testee.release(first, true);
+        when(first.getTransport().isConnected()).thenReturn(false);
+        SMTPTransportPool.PooledTransport second = testee.borrow(SERVER);
+
+        assertThat(second.getTransport()).isNotSameAs(first.getTransport());
+    }
+
+    @Test
+    public void borrowShouldPropagateConnectionFailures() {
+        SMTPTransportPool testee = new SMTPTransportPool(server -> {
+            throw new MessagingException("connection refused");
+        }, metricFactory, 2, 100, IDLE_TIMEOUT, clock);
+
+        assertThat(catchThrowable(() -> testee.borrow(SERVER)))
+            .isInstanceOf(MessagingException.class);
+    }
+
+    @Test
+    public void disposeShouldCloseIdleTransports() throws Exception {
+        SMTPTransportPool testee = pool(2, 100);
+
+        SMTPTransportPool.PooledTransport transport = testee.borrow(SERVER);
+        testee.release(transport, true);
+        testee.dispose();
+
+        verify(transport.getTransport()).close();
+    }
+
+    @Test
+    public void borrowShouldRecordOpenedAndReusedConnections() throws Exception {
+        SMTPTransportPool testee = pool(2, 100);
+
+        testee.release(testee.borrow(SERVER), true);
+        testee.release(testee.borrow(SERVER), true);
+        testee.release(testee.borrow(SERVER), true);
+
+        assertThat(metricFactory.countFor(SMTPTransportPool.CONNECTIONS_OPENED)).isEqualTo(1);
+        assertThat(metricFactory.countFor(SMTPTransportPool.CONNECTIONS_REUSED)).isEqualTo(2);
+        assertThat(metricFactory.executionTimesFor(SMTPTransportPool.CONNECTION_HANDSHAKE)).hasSize(1);
+    }
+}
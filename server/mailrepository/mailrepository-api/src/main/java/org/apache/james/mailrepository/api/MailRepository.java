@@ -19,8 +19,10 @@
 
 package org.apache.james.mailrepository.api;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import javax.mail.MessagingException;
 
@@ -64,6 +66,26 @@ public interface MailRepository {
      */
     Mail retrieve(MailKey key) throws MessagingException;
 
+    /**
+     * Retrieves several messages at once. Implementations are encouraged to
+     * fetch them concurrently.
+     *
+     * @param keys
+     *            the keys of the messages to retrieve
+     * @return the mails corresponding to these keys. Keys without mail are
+     *         ignored.
+     */
+    default Collection<Mail> retrieve(Collection<MailKey> keys) throws MessagingException {
+        List<Mail> mails = new ArrayList<>(keys.size());
+        for (MailKey key : keys) {
+            Mail mail = retrieve(key);
+            if (mail != null) {
+                mails.add(mail);
+            }
+        }
+        return mails;
+    }
+
     /**
      * Removes a specified message
      * 
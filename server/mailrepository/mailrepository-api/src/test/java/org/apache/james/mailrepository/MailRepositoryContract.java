@@ -182,6 +182,38 @@ public interface MailRepositoryContract {
         assertThat(testee.retrieve(MAIL_1)).satisfies(actual -> checkMailEquality(actual, mail));
     }
 
+    @Test
+    default void retrieveSeveralShouldGetStoredMails() throws Exception {
+        MailRepository testee = retrieveRepository();
+        Mail mail1 = createMail(MAIL_1);
+        Mail mail2 = createMail(MAIL_2);
+        testee.store(mail1);
+        testee.store(mail2);
+
+        assertThat(testee.retrieve(ImmutableList.of(MAIL_1, MAIL_2)))
+            .extracting(Mail::getName)
+            .containsOnly(mail1.getName(), mail2.getName());
+    }
+
+    @Test
+    default void retrieveSeveralShouldIgnoreUnknownKeys() throws Exception {
+        MailRepository testee = retrieveRepository();
+        Mail mail = createMail(MAIL_1);
+        testee.store(mail);
+
+        assertThat(testee.retrieve(ImmutableList.of(MAIL_1, UNKNOWN_KEY)))
+            .hasSize(1)
+            .allSatisfy(actual -> checkMailEquality(actual, mail));
+    }
+
+    @Test
+    default void retrieveSeveralShouldReturnEmptyWhenNoKeys() throws Exception {
+        MailRepository testee = retrieveRepository();
+        testee.store(createMail(MAIL_1));
+
+        assertThat(testee.retrieve(ImmutableList.of())).isEmpty();
+    }
+
     @Test
     default void removeAllShouldRemoveStoredMails() throws Exception {
         MailRepository testee = retrieveRepository();
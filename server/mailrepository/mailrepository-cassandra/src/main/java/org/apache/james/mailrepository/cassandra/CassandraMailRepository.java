@@ -39,6 +39,8 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraMailRepository implements MailRepository {
+    private static final int MAX_CONCURRENT_READS = 16;
+
     private final MailRepositoryUrl url;
     private final CassandraMailRepositoryKeysDAO keysDAO;
     private final CassandraMailRepositoryCountDAO countDAO;
@@ -99,6 +101,16 @@ public class CassandraMailRepository implements MailRepository {
             .orElse(null);
     }
 
+    @Override
+    public Collection<Mail> retrieve(Collection<MailKey> keys) {
+        return Flux.fromIterable(keys)
+            .flatMap(key -> mailDAO.read(url, key), MAX_CONCURRENT_READS)
+            .<MailDTO>handle((t, sink) -> t.ifPresent(sink::next))
+            .flatMap(this::toMail, MAX_CONCURRENT_READS)
+            .collectList()
+            .block();
+    }
+
     private Mono<Mail> toMail(MailDTO mailDTO) {
         MimeMessagePartsId parts = MimeMessagePartsId.builder()
             .headerBlobId(mailDTO.getHeaderBlobId())
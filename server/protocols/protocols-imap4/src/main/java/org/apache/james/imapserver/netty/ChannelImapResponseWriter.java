@@ -22,12 +22,14 @@ package org.apache.james.imapserver.netty;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.channels.FileChannel;
 
 import org.apache.james.imap.encode.ImapResponseWriter;
 import org.apache.james.imap.message.response.Literal;
 import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
 import org.jboss.netty.channel.ChannelPipeline;
 import org.jboss.netty.channel.DefaultFileRegion;
 import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
@@ -35,29 +37,52 @@ import org.jboss.netty.handler.codec.compression.ZlibEncoder;
 import org.jboss.netty.handler.ssl.SslHandler;
 import org.jboss.netty.handler.stream.ChunkedNioFile;
 import org.jboss.netty.handler.stream.ChunkedStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
 
 /**
  * {@link ImapResponseWriter} implementation which writes the data to a
  * {@link Channel}
+ *
+ * Once the channel stops being writable, that is when its pending writes exceed the high watermark of the
+ * {@link OutboundBufferLimits}, reading is suspended so that the client can not submit more commands, and the thread
+ * processing the current command, if any, waits for the channel to be writable again before generating more responses.
+ * This wait is bounded by the drain timeout of the {@link OutboundBufferLimits}, after which the connection is closed.
+ *
+ * Other writers (IDLE notifications for instance) are never blocked. Response bytes they hold in memory are accounted
+ * and the connection is closed if they exceed the maximum buffered size. Literals are not accounted: they are read
+ * lazily, as the client consumes them.
  */
 public class ChannelImapResponseWriter implements ImapResponseWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChannelImapResponseWriter.class);
+    private static final long WRITABILITY_POLL_INTERVAL_IN_MS = 10;
 
     private final Channel channel;
     private final boolean zeroCopy;
+    private final OutboundBufferLimits limits;
+    private final ImapMetrics imapMetrics;
+    private long bufferedBytes;
+    private boolean readSuspended;
+    private volatile Thread backpressuredThread;
 
-    public ChannelImapResponseWriter(Channel channel) {
-        this(channel, true);
+    public ChannelImapResponseWriter(Channel channel, OutboundBufferLimits limits, ImapMetrics imapMetrics) {
+        this(channel, true, limits, imapMetrics);
     }
 
-    public ChannelImapResponseWriter(Channel channel, boolean zeroCopy) {
+    public ChannelImapResponseWriter(Channel channel, boolean zeroCopy, OutboundBufferLimits limits, ImapMetrics imapMetrics) {
         this.channel = channel;
         this.zeroCopy = zeroCopy;
+        this.limits = limits;
+        this.imapMetrics = imapMetrics;
     }
 
     @Override
     public void write(byte[] buffer) throws IOException {
         if (channel.isConnected()) {
-            channel.write(ChannelBuffers.wrappedBuffer(buffer));
+            ChannelFuture future = channel.write(ChannelBuffers.wrappedBuffer(buffer));
+            account(future, buffer.length);
         }
     }
 
@@ -79,9 +104,113 @@ public class ChannelImapResponseWriter implements ImapResponseWriter {
             } else {
                 channel.write(new ChunkedStream(literal.getInputStream()));
             }
+            pauseWhileNotWritable();
+        }
+    }
+
+    /**
+     * Makes the calling thread wait for the channel to be writable before returning from writes, until
+     * {@link #stopBackpressure()} is called.
+     *
+     * Only threads not responsible for flushing the channel may be backpressured.
+     */
+    public void startBackpressure() {
+        backpressuredThread = Thread.currentThread();
+    }
+
+    public void stopBackpressure() {
+        backpressuredThread = null;
+    }
+
+    /**
+     * Suspends reading while the channel is not writable, and resumes it once it is writable again. To be called
+     * upon channel interest changes.
+     */
+    public synchronized void writabilityChanged() {
+        if (!channel.isWritable() && !readSuspended) {
+            readSuspended = true;
+            imapMetrics.getBackpressurePausesMetric().increment();
+            imapMetrics.getReadSuspendedConnectionsMetric().increment();
+            channel.setReadable(false);
+        } else if (channel.isWritable() && readSuspended) {
+            readSuspended = false;
+            imapMetrics.getReadSuspendedConnectionsMetric().decrement();
+            channel.setReadable(true);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Releases the accounting of this writer. To be called once the channel is closed.
+     */
+    public synchronized void close() {
+        if (readSuspended) {
+            readSuspended = false;
+            imapMetrics.getReadSuspendedConnectionsMetric().decrement();
+        }
+    }
+
+    public synchronized long getBufferedBytes() {
+        return bufferedBytes;
+    }
+
+    private void account(ChannelFuture future, long size) throws IOException {
+        long buffered = reserve(size);
+        future.addListener(any -> release(size));
+
+        if (limits.isCapped() && buffered > limits.getMaxBufferedBytes()) {
+            LOGGER.warn("{} bytes are pending for the client, exceeding the {} bytes limit. Closing the connection.",
+                buffered, limits.getMaxBufferedBytes());
+            imapMetrics.getOutboundBufferOverflowsMetric().increment();
+            channel.close();
+            return;
+        }
+        pauseWhileNotWritable();
+    }
+
+    private void pauseWhileNotWritable() throws IOException {
+        writabilityChanged();
+        if (backpressuredThread == Thread.currentThread() && !channel.isWritable()) {
+            awaitWritable();
+        }
+    }
+
+    private synchronized void awaitWritable() throws IOException {
+        long deadline = System.currentTimeMillis() + limits.getDrainTimeout().toMillis();
+        try {
+            // Channel interest changes are delivered after the current command by the ordered execution handler:
+            // writability needs to be polled
+            while (!channel.isWritable() && channel.isConnected()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    LOGGER.warn("Client did not read its pending responses within {}. Closing the connection.", limits.getDrainTimeout());
+                    imapMetrics.getOutboundBufferOverflowsMetric().increment();
+                    channel.close();
+                    throw new IOException("Client did not read its pending responses within " + limits.getDrainTimeout());
+                }
+                wait(Math.min(remaining, WRITABILITY_POLL_INTERVAL_IN_MS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the client to read pending responses");
         }
+        writabilityChanged();
+    }
+
+    private synchronized long reserve(long size) {
+        bufferedBytes += size;
+        imapMetrics.getOutboundBufferedBytesMetric().add(asInt(size));
+        return bufferedBytes;
     }
-    
-    
 
+    private synchronized void release(long size) {
+        bufferedBytes -= size;
+        imapMetrics.getOutboundBufferedBytesMetric().remove(asInt(size));
+        notifyAll();
+    }
+
+    @VisibleForTesting
+    static int asInt(long size) {
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
 }
@@ -38,6 +38,7 @@ import org.apache.james.protocols.netty.ChannelGroupHandler;
 import org.apache.james.protocols.netty.ChannelHandlerFactory;
 import org.apache.james.protocols.netty.ConnectionLimitUpstreamHandler;
 import org.apache.james.protocols.netty.ConnectionPerIpLimitUpstreamHandler;
+import org.jboss.netty.bootstrap.ServerBootstrap;
 import org.jboss.netty.channel.ChannelPipeline;
 import org.jboss.netty.channel.ChannelPipelineFactory;
 import org.jboss.netty.channel.ChannelUpstreamHandler;
@@ -76,6 +77,7 @@ public class IMAPServer extends AbstractConfigurableAsyncServer implements ImapC
     private boolean plainAuthDisallowed;
     private int timeout;
     private int literalSizeLimit;
+    private OutboundBufferLimits outboundBufferLimits;
 
     public static final int DEFAULT_MAX_LINE_LENGTH = 65536; // Use a big default
     public static final int DEFAULT_IN_MEMORY_SIZE_LIMIT = 10485760; // Use 10MB as default
@@ -100,6 +102,8 @@ public class IMAPServer extends AbstractConfigurableAsyncServer implements ImapC
         inMemorySizeLimit = configuration.getInt("inMemorySizeLimit", DEFAULT_IN_MEMORY_SIZE_LIMIT);
         literalSizeLimit = configuration.getInt("literalSizeLimit", DEFAULT_LITERAL_SIZE_LIMIT);
 
+        outboundBufferLimits = OutboundBufferLimits.from(configuration);
+
         plainAuthDisallowed = configuration.getBoolean("plainAuthDisallowed", false);
         timeout = configuration.getInt("timeout", DEFAULT_TIMEOUT);
         if (timeout < DEFAULT_TIMEOUT) {
@@ -205,9 +209,9 @@ public class IMAPServer extends AbstractConfigurableAsyncServer implements ImapC
         ImapChannelUpstreamHandler coreHandler;
         Encryption secure = getEncryption();
         if (secure != null && secure.isStartTLS()) {
-           coreHandler = new ImapChannelUpstreamHandler(hello, processor, encoder, compress, plainAuthDisallowed, secure.getContext(), getEnabledCipherSuites(), imapMetrics);
+           coreHandler = new ImapChannelUpstreamHandler(hello, processor, encoder, compress, plainAuthDisallowed, secure.getContext(), getEnabledCipherSuites(), imapMetrics, outboundBufferLimits);
         } else {
-           coreHandler = new ImapChannelUpstreamHandler(hello, processor, encoder, compress, plainAuthDisallowed, imapMetrics);
+           coreHandler = new ImapChannelUpstreamHandler(hello, processor, encoder, compress, plainAuthDisallowed, imapMetrics, outboundBufferLimits);
         }
         return coreHandler;
     }
@@ -217,4 +221,11 @@ public class IMAPServer extends AbstractConfigurableAsyncServer implements ImapC
         return new SwitchableLineBasedFrameDecoderFactory(maxLineLength);
     }
 
+    @Override
+    protected void configureBootstrap(ServerBootstrap bootstrap) {
+        super.configureBootstrap(bootstrap);
+        bootstrap.setOption("child.writeBufferHighWaterMark", ChannelImapResponseWriter.asInt(outboundBufferLimits.getHighWatermark()));
+        bootstrap.setOption("child.writeBufferLowWaterMark", ChannelImapResponseWriter.asInt(outboundBufferLimits.getLowWatermark()));
+    }
+
 }
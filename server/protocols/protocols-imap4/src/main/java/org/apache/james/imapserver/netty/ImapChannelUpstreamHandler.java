@@ -38,6 +38,7 @@ import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelFutureListener;
 import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelLocal;
 import org.jboss.netty.channel.ChannelPipeline;
 import org.jboss.netty.channel.ChannelStateEvent;
 import org.jboss.netty.channel.ExceptionEvent;
@@ -71,15 +72,32 @@ public class ImapChannelUpstreamHandler extends SimpleChannelUpstreamHandler imp
 
     private final Metric imapConnectionsMetric;
     private final Metric imapCommandsMetric;
+
+    private final ImapMetrics imapMetrics;
+
+    private final OutboundBufferLimits outboundBufferLimits;
+
+    private final ChannelLocal<ChannelImapResponseWriter> writers = new ChannelLocal<>();
     
     public ImapChannelUpstreamHandler(String hello, ImapProcessor processor, ImapEncoder encoder, boolean compress,
                                       boolean plainAuthDisallowed, ImapMetrics imapMetrics) {
-        this(hello, processor, encoder, compress, plainAuthDisallowed, null, null, imapMetrics);
+        this(hello, processor, encoder, compress, plainAuthDisallowed, null, null, imapMetrics, OutboundBufferLimits.DEFAULT);
+    }
+
+    public ImapChannelUpstreamHandler(String hello, ImapProcessor processor, ImapEncoder encoder, boolean compress,
+                                      boolean plainAuthDisallowed, ImapMetrics imapMetrics, OutboundBufferLimits outboundBufferLimits) {
+        this(hello, processor, encoder, compress, plainAuthDisallowed, null, null, imapMetrics, outboundBufferLimits);
     }
 
     public ImapChannelUpstreamHandler(String hello, ImapProcessor processor, ImapEncoder encoder, boolean compress,
                                       boolean plainAuthDisallowed, SSLContext context, String[] enabledCipherSuites,
                                       ImapMetrics imapMetrics) {
+        this(hello, processor, encoder, compress, plainAuthDisallowed, context, enabledCipherSuites, imapMetrics, OutboundBufferLimits.DEFAULT);
+    }
+
+    public ImapChannelUpstreamHandler(String hello, ImapProcessor processor, ImapEncoder encoder, boolean compress,
+                                      boolean plainAuthDisallowed, SSLContext context, String[] enabledCipherSuites,
+                                      ImapMetrics imapMetrics, OutboundBufferLimits outboundBufferLimits) {
         this.hello = hello;
         this.processor = processor;
         this.encoder = encoder;
@@ -89,6 +107,8 @@ public class ImapChannelUpstreamHandler extends SimpleChannelUpstreamHandler imp
         this.plainAuthDisallowed = plainAuthDisallowed;
         this.imapConnectionsMetric = imapMetrics.getConnectionsMetric();
         this.imapCommandsMetric = imapMetrics.getCommandsMetric();
+        this.imapMetrics = imapMetrics;
+        this.outboundBufferLimits = outboundBufferLimits;
     }
 
     @Override
@@ -113,11 +133,24 @@ public class ImapChannelUpstreamHandler extends SimpleChannelUpstreamHandler imp
                 imapSession.logout();
             }
             imapConnectionsMetric.decrement();
+            ChannelImapResponseWriter writer = writers.remove(ctx.getChannel());
+            if (writer != null) {
+                writer.close();
+            }
 
             super.channelClosed(ctx, e);
         }
     }
 
+    @Override
+    public void channelInterestChanged(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        ChannelImapResponseWriter writer = writers.get(ctx.getChannel());
+        if (writer != null) {
+            writer.writabilityChanged();
+        }
+        super.channelInterestChanged(ctx, e);
+    }
+
     @Override
     public void channelConnected(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
         try (Closeable closeable = IMAPMDCContext.from(ctx, attributes)) {
@@ -125,7 +158,9 @@ public class ImapChannelUpstreamHandler extends SimpleChannelUpstreamHandler imp
             LOGGER.info("Connection established from {}", address.getAddress().getHostAddress());
             imapConnectionsMetric.increment();
 
-            ImapResponseComposer response = new ImapResponseComposerImpl(new ChannelImapResponseWriter(ctx.getChannel()));
+            ChannelImapResponseWriter writer = new ChannelImapResponseWriter(ctx.getChannel(), outboundBufferLimits, imapMetrics);
+            writers.set(ctx.getChannel(), writer);
+            ImapResponseComposer response = new ImapResponseComposerImpl(writer);
             ctx.setAttachment(response);
 
             // write hello to client
@@ -185,9 +220,12 @@ public class ImapChannelUpstreamHandler extends SimpleChannelUpstreamHandler imp
             ImapMessage message = (ImapMessage) e.getMessage();
             ChannelPipeline cp = ctx.getPipeline();
 
+            ChannelImapResponseWriter writer = writers.get(ctx.getChannel());
             try {
                 if (cp.get(NettyConstants.EXECUTION_HANDLER) != null) {
                     cp.addBefore(NettyConstants.EXECUTION_HANDLER, NettyConstants.HEARTBEAT_HANDLER, heartbeatHandler);
+                    // Not an I/O thread: it can wait for the client to read its responses
+                    writer.startBackpressure();
                 } else {
                     cp.addBefore(NettyConstants.CORE_HANDLER, NettyConstants.HEARTBEAT_HANDLER, heartbeatHandler);
 
@@ -210,6 +248,7 @@ public class ImapChannelUpstreamHandler extends SimpleChannelUpstreamHandler imp
                     throw failure;
                 }
             } finally {
+                writer.stopBackpressure();
                 ctx.getPipeline().remove(NettyConstants.HEARTBEAT_HANDLER);
             }
 
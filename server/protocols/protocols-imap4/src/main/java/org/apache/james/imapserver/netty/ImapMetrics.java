@@ -25,13 +25,25 @@ import org.apache.james.metrics.api.MetricFactory;
 public class ImapMetrics {
     private static final String IMAP_COMMANDS = "imapCommands";
     private static final String IMAP_CONNECTIONS = "imapConnections";
+    private static final String IMAP_OUTBOUND_BUFFERED_BYTES = "imapOutboundBufferedBytes";
+    private static final String IMAP_BACKPRESSURE_PAUSES = "imapBackpressurePauses";
+    private static final String IMAP_OUTBOUND_BUFFER_OVERFLOWS = "imapOutboundBufferOverflows";
+    private static final String IMAP_READ_SUSPENDED_CONNECTIONS = "imapReadSuspendedConnections";
 
     private final Metric commandsMetric;
     private final Metric connectionsMetric;
+    private final Metric outboundBufferedBytesMetric;
+    private final Metric backpressurePausesMetric;
+    private final Metric outboundBufferOverflowsMetric;
+    private final Metric readSuspendedConnectionsMetric;
 
     public ImapMetrics(MetricFactory metricFactory) {
         commandsMetric = metricFactory.generate(IMAP_COMMANDS);
         connectionsMetric = metricFactory.generate(IMAP_CONNECTIONS);
+        outboundBufferedBytesMetric = metricFactory.generate(IMAP_OUTBOUND_BUFFERED_BYTES);
+        backpressurePausesMetric = metricFactory.generate(IMAP_BACKPRESSURE_PAUSES);
+        outboundBufferOverflowsMetric = metricFactory.generate(IMAP_OUTBOUND_BUFFER_OVERFLOWS);
+        readSuspendedConnectionsMetric = metricFactory.generate(IMAP_READ_SUSPENDED_CONNECTIONS);
     }
 
     public Metric getCommandsMetric() {
@@ -41,4 +53,20 @@ public class ImapMetrics {
     public Metric getConnectionsMetric() {
         return connectionsMetric;
     }
+
+    public Metric getOutboundBufferedBytesMetric() {
+        return outboundBufferedBytesMetric;
+    }
+
+    public Metric getBackpressurePausesMetric() {
+        return backpressurePausesMetric;
+    }
+
+    public Metric getOutboundBufferOverflowsMetric() {
+        return outboundBufferOverflowsMetric;
+    }
+
+    public Metric getReadSuspendedConnectionsMetric() {
+        return readSuspendedConnectionsMetric;
+    }
 }
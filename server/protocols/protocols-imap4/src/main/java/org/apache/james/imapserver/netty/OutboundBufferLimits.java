@@ -0,0 +1,137 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imapserver.netty;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.configuration2.HierarchicalConfiguration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.commons.configuration2.tree.ImmutableNode;
+import org.apache.james.util.DurationParser;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Limits on the bytes written to an IMAP connection but not yet flushed to the client.
+ *
+ * They are applied as the write buffer watermarks of the channel: when more than highWatermark bytes are pending, the
+ * channel is no longer writable. Reading client commands and generating responses to the current command are then
+ * suspended until the pending bytes drop under lowWatermark, or the connection is closed after drainTimeout. If more
+ * than maxBufferedBytes are held in memory, the connection is closed. A maxBufferedBytes of 0 disables this cap.
+ */
+public class OutboundBufferLimits {
+    public static final long DEFAULT_HIGH_WATERMARK = 1024 * 1024;
+    public static final long DEFAULT_LOW_WATERMARK = 512 * 1024;
+    public static final long DEFAULT_MAX_BUFFERED_BYTES = 256 * 1024 * 1024;
+    public static final Duration DEFAULT_DRAIN_TIMEOUT = Duration.ofMinutes(1);
+    public static final long UNLIMITED = 0;
+    public static final OutboundBufferLimits DEFAULT = new OutboundBufferLimits(DEFAULT_HIGH_WATERMARK, DEFAULT_LOW_WATERMARK, DEFAULT_MAX_BUFFERED_BYTES, DEFAULT_DRAIN_TIMEOUT);
+
+    private static final String HIGH_WATERMARK = "outboundBuffer.highWatermark";
+    private static final String LOW_WATERMARK = "outboundBuffer.lowWatermark";
+    private static final String MAX_BUFFERED_BYTES = "outboundBuffer.maxBufferedBytes";
+    private static final String DRAIN_TIMEOUT = "outboundBuffer.drainTimeout";
+
+    public static OutboundBufferLimits from(HierarchicalConfiguration<ImmutableNode> configuration) throws ConfigurationException {
+        long highWatermark = configuration.getLong(HIGH_WATERMARK, DEFAULT_HIGH_WATERMARK);
+        long lowWatermark = configuration.getLong(LOW_WATERMARK, Math.min(DEFAULT_LOW_WATERMARK, highWatermark));
+        long maxBufferedBytes = configuration.getLong(MAX_BUFFERED_BYTES, DEFAULT_MAX_BUFFERED_BYTES);
+        Duration drainTimeout = Optional.ofNullable(configuration.getString(DRAIN_TIMEOUT, null))
+            .map(value -> DurationParser.parse(value, ChronoUnit.SECONDS))
+            .orElse(DEFAULT_DRAIN_TIMEOUT);
+
+        if (lowWatermark < 0 || highWatermark < lowWatermark) {
+            throw new ConfigurationException(LOW_WATERMARK + " needs to be positive and lower than " + HIGH_WATERMARK);
+        }
+        if (highWatermark > Integer.MAX_VALUE) {
+            throw new ConfigurationException(HIGH_WATERMARK + " can not exceed " + Integer.MAX_VALUE);
+        }
+        if (maxBufferedBytes < 0) {
+            throw new ConfigurationException(MAX_BUFFERED_BYTES + " can not be negative");
+        }
+        if (drainTimeout.isNegative() || drainTimeout.isZero()) {
+            throw new ConfigurationException(DRAIN_TIMEOUT + " needs to be strictly positive");
+        }
+        return new OutboundBufferLimits(highWatermark, lowWatermark, maxBufferedBytes, drainTimeout);
+    }
+
+    private final long highWatermark;
+    private final long lowWatermark;
+    private final long maxBufferedBytes;
+    private final Duration drainTimeout;
+
+    public OutboundBufferLimits(long highWatermark, long lowWatermark, long maxBufferedBytes, Duration drainTimeout) {
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.drainTimeout = drainTimeout;
+    }
+
+    public long getHighWatermark() {
+        return highWatermark;
+    }
+
+    public long getLowWatermark() {
+        return lowWatermark;
+    }
+
+    public long getMaxBufferedBytes() {
+        return maxBufferedBytes;
+    }
+
+    public Duration getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    public boolean isCapped() {
+        return maxBufferedBytes != UNLIMITED;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof OutboundBufferLimits) {
+            OutboundBufferLimits that = (OutboundBufferLimits) o;
+
+            return Objects.equals(this.highWatermark, that.highWatermark)
+                && Objects.equals(this.lowWatermark, that.lowWatermark)
+                && Objects.equals(this.maxBufferedBytes, that.maxBufferedBytes)
+                && Objects.equals(this.drainTimeout, that.drainTimeout);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(highWatermark, lowWatermark, maxBufferedBytes, drainTimeout);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("highWatermark", highWatermark)
+            .add("lowWatermark", lowWatermark)
+            .add("maxBufferedBytes", maxBufferedBytes)
+            .add("drainTimeout", drainTimeout)
+            .toString();
+    }
+}
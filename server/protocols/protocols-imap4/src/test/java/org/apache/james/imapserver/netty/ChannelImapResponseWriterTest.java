@@ -0,0 +1,255 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imapserver.netty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.james.imap.message.response.Literal;
+
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.DefaultChannelFuture;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChannelImapResponseWriterTest {
+    private static final byte[] TEN_BYTES = "0123456789".getBytes();
+    private static final Literal TEN_BYTES_LITERAL = new Literal() {
+        @Override
+        public long size() {
+            return TEN_BYTES.length;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(TEN_BYTES);
+        }
+    };
+
+    private Channel channel;
+    private List<ChannelFuture> pendingWrites;
+    private Metric overflows;
+    private Metric backpressurePauses;
+    private Metric readSuspendedConnections;
+    private ImapMetrics imapMetrics;
+
+    @Before
+    public void setUp() {
+        channel = mock(Channel.class);
+        pendingWrites = new CopyOnWriteArrayList<>();
+        when(channel.isConnected()).thenReturn(true);
+        when(channel.isWritable()).thenReturn(true);
+        when(channel.write(any())).thenAnswer(invocation -> {
+            ChannelFuture future = new DefaultChannelFuture(channel, false);
+            pendingWrites.add(future);
+            return future;
+        });
+
+        MetricFactory metricFactory = mock(MetricFactory.class);
+        overflows = mock(Metric.class);
+        when(metricFactory.generate(anyString())).thenAnswer(invocation -> mock(Metric.class));
+        when(metricFactory.generate("imapOutboundBufferOverflows")).thenReturn(overflows);
+        backpressurePauses = mock(Metric.class);
+        when(metricFactory.generate("imapBackpressurePauses")).thenReturn(backpressurePauses);
+        readSuspendedConnections = mock(Metric.class);
+        when(metricFactory.generate("imapReadSuspendedConnections")).thenReturn(readSuspendedConnections);
+        imapMetrics = new ImapMetrics(metricFactory);
+    }
+
+    @Test
+    public void bufferedBytesShouldBeReleasedWhenWritesComplete() throws Exception {
+        ChannelImapResponseWriter testee = new ChannelImapResponseWriter(channel, OutboundBufferLimits.DEFAULT, imapMetrics);
+
+        testee.write(TEN_BYTES);
+        testee.write(TEN_BYTES);
+        pendingWrites.get(0).setSuccess();
+
+        assertThat(testee.getBufferedBytes()).isEqualTo(10);
+    }
+
+    @Test
+    public void writeShouldNotBlockAboveHighWatermark() throws Exception {
+        ChannelImapResponseWriter testee = new ChannelImapResponseWriter(channel, new OutboundBufferLimits(15, 5, OutboundBufferLimits.UNLIMITED, OutboundBufferLimits.DEFAULT_DRAIN_TIMEOUT), imapMetrics);
+
+        testee.write(TEN_BYTES);
+        testee.write(TEN_BYTES);
+
+        assertThat(testee.getBufferedBytes()).isEqualTo(20);
+    }
+
+    @Test
+    public void writeShouldSuspendReadingWhenChannelIsNotWritable() throws Exception {
+        ChannelImapResponseWriter testee = new ChannelImapResponseWriter(channel, OutboundBufferLimits.DEFAULT, imapMetrics);
+        when(channel.isWritable()).thenReturn(false);
+
+        testee.write(TEN_BYTES);
+        testee.write(TEN_BYTES);
+
+        verify(channel, times(1)).setReadable(false);
+        verify(backpressurePauses).increment();
+        verify(readSuspendedConnections).increment();
+    }
+
+    @Test
+    public void writabilityChangedShouldResumeReadingWhenChannelIsWritableAgain() throws Exception {
+        ChannelImapResponseWriter testee = new ChannelImapResponseWriter(channel, OutboundBufferLimits.DEFAULT, imapMetrics);
+        when(channel.isWritable()).thenReturn(false);
+        testee.write(TEN_BYTES);
+
+        when(channel.isWritable()).thenReturn(true);
+        testee.writabilityChanged();
+
+        verify(channel).setReadable(true);
+        verify(readSuspendedConnections).decrement();
+    }
+
+    @Test
+    public void writabilityChangedShouldNotResumeReadingWhenNotSuspended() {
+        ChannelImapResponseWriter testee = new ChannelImapResponseWriter(channel, OutboundBufferLimits.DEFAULT, imapMetrics);
+
+        testee.writabilityChanged();
+
+        verify(channel, never()).setReadable(anyBoolean());
+    }
+
+    @Test
+    public void closeShouldReleaseSuspendedConnectionsMetric() throws Exception {
+        ChannelImapResponseWriter testee = new ChannelImapResponseWriter(channel, OutboundBufferLimits.DEFAULT, imapMetrics);
+        when(channel.isWritable()).thenReturn(false);
+        testee.write(TEN_BYTES);
+
+        testee.close();
+
+        verify(readSuspendedConnections).decrement();
+    }
+
+    @Test
+    public void writeShouldCloseTheChannelWhenExceedingMaxBufferedBytes() throws Exception {
+        ChannelImapResponseWriter testee = new ChannelImapResponseWriter(channel, new OutboundBufferLimits(10, 5, 15, OutboundBufferLimits.DEFAULT_DRAIN_TIMEOUT), imapMetrics);
+
+        testee.write(TEN_BYTES);
+        verify(channel, never()).close();
+
+        testee.write(TEN_BYTES);
+        verify(channel).close();
+        verify(overflows).increment();
+    }
+
+    @Test
+    public void literalsShouldNotBeAccountedAsBufferedBytes() throws Exception {
+        ChannelImapResponseWriter testee = new ChannelImapResponseWriter(channel, new OutboundBufferLimits(10, 5, 15, OutboundBufferLimits.DEFAULT_DRAIN_TIMEOUT), imapMetrics);
+
+        testee.write(TEN_BYTES_LITERAL);
+        testee.write(TEN_BYTES_LITERAL);
+
+        assertThat(testee.getBufferedBytes()).isZero();
+        verify(channel, never()).close();
+    }
+
+    @Test
+    public void writeShouldNotWaitWhenNotBackpressured() throws Exception {
+        ChannelImapResponseWriter testee = new ChannelImapResponseWriter(channel, OutboundBufferLimits.DEFAULT, imapMetrics);
+        when(channel.isWritable()).thenReturn(false);
+
+        testee.write(TEN_BYTES);
+        testee.write(TEN_BYTES_LITERAL);
+
+        verify(channel, never()).close();
+    }
+
+    @Test
+    public void backpressuredWriteShouldWaitForTheChannelToBeWritable() throws Exception {
+        ChannelImapResponseWriter testee = new ChannelImapResponseWriter(channel, OutboundBufferLimits.DEFAULT, imapMetrics);
+        when(channel.isWritable()).thenReturn(false);
+
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> backpressured(testee, () -> testee.write(TEN_BYTES)));
+
+        assertThatThrownBy(() -> write.get(100, TimeUnit.MILLISECONDS))
+            .isInstanceOf(TimeoutException.class);
+
+        when(channel.isWritable()).thenReturn(true);
+        write.get(1, TimeUnit.SECONDS);
+        verify(channel).setReadable(true);
+    }
+
+    @Test
+    public void backpressuredLiteralWriteShouldWaitForTheChannelToBeWritable() throws Exception {
+        ChannelImapResponseWriter testee = new ChannelImapResponseWriter(channel, OutboundBufferLimits.DEFAULT, imapMetrics);
+        when(channel.isWritable()).thenReturn(false);
+
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> backpressured(testee, () -> testee.write(TEN_BYTES_LITERAL)));
+
+        assertThatThrownBy(() -> write.get(100, TimeUnit.MILLISECONDS))
+            .isInstanceOf(TimeoutException.class);
+
+        when(channel.isWritable()).thenReturn(true);
+        write.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void backpressuredWriteShouldCloseTheChannelWhenNotWritableWithinDrainTimeout() {
+        ChannelImapResponseWriter testee = new ChannelImapResponseWriter(channel,
+            new OutboundBufferLimits(10, 5, OutboundBufferLimits.UNLIMITED, Duration.ofMillis(50)), imapMetrics);
+        when(channel.isWritable()).thenReturn(false);
+
+        testee.startBackpressure();
+        assertThatThrownBy(() -> testee.write(TEN_BYTES))
+            .isInstanceOf(IOException.class);
+
+        verify(channel).close();
+        verify(overflows).increment();
+    }
+
+    private void backpressured(ChannelImapResponseWriter testee, Write write) {
+        testee.startBackpressure();
+        try {
+            write.run();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            testee.stopBackpressure();
+        }
+    }
+
+    private interface Write {
+        void run() throws IOException;
+    }
+}
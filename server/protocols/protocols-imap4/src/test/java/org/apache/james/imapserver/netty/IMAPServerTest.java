@@ -20,6 +20,7 @@
 package org.apache.james.imapserver.netty;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 import java.util.concurrent.TimeUnit;
 
@@ -27,6 +28,10 @@ import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 import org.apache.commons.configuration2.tree.ImmutableNode;
 import org.apache.james.imap.api.ImapConfiguration;
+import org.apache.james.imap.api.process.ImapProcessor;
+import org.apache.james.imap.decode.ImapDecoder;
+import org.apache.james.imap.encode.ImapEncoder;
+import org.apache.james.metrics.api.MetricFactory;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -69,4 +74,26 @@ public class IMAPServerTest {
 
         assertThat(imapConfiguration).isEqualTo(expectImapConfiguration);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void configureShouldAllocateDirectBuffersWhenEnabled() throws Exception {
+        HierarchicalConfiguration<ImmutableNode> configuration = new BaseHierarchicalConfiguration();
+        configuration.addProperty("useDirectBuffers", "true");
+        IMAPServer imapServer = new IMAPServer(mock(ImapDecoder.class), mock(ImapEncoder.class), mock(ImapProcessor.class),
+            new ImapMetrics(mock(MetricFactory.class)));
+
+        imapServer.configure(configuration);
+
+        assertThat(imapServer.getBufferFactory().getBuffer(1).isDirect()).isTrue();
+    }
+
+    @Test
+    public void configureShouldAllocateHeapBuffersByDefault() throws Exception {
+        IMAPServer imapServer = new IMAPServer(mock(ImapDecoder.class), mock(ImapEncoder.class), mock(ImapProcessor.class),
+            new ImapMetrics(mock(MetricFactory.class)));
+
+        imapServer.configure(new BaseHierarchicalConfiguration());
+
+        assertThat(imapServer.getBufferFactory().getBuffer(1).isDirect()).isFalse();
+    }
+}
@@ -74,6 +74,9 @@ public abstract class AbstractConfigurableAsyncServer extends AbstractAsyncServe
     /** The name of the parameter defining the connection backlog. */
     private static final String BACKLOG_NAME = "connectionBacklog";
 
+    /** The name of the parameter enabling off-heap connection buffers. */
+    private static final String DIRECT_BUFFERS_NAME = "useDirectBuffers";
+
     /** The name of the parameter defining the service hello name. */
     public static final String HELLO_NAME = "helloName";
 
@@ -194,6 +197,11 @@ public abstract class AbstractConfigurableAsyncServer extends AbstractAsyncServe
 
         maxExecutorThreads = config.getInt("maxExecutorCount", DEFAULT_MAX_EXECUTOR_COUNT);
 
+        setUseDirectBuffers(config.getBoolean(DIRECT_BUFFERS_NAME, false));
+        if (isUsingDirectBuffers()) {
+            LOGGER.info("{} will allocate connection buffers off-heap", getServiceType());
+        }
+
         
         configureHelloName(config);
 
@@ -18,10 +18,11 @@
  ****************************************************************/
 package org.apache.james.smtpserver.fastfail;
 
-import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Optional;
 
 import javax.inject.Inject;
 
@@ -29,14 +30,19 @@ import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.commons.configuration2.tree.ImmutableNode;
-import org.apache.james.dnsservice.api.DNSService;
+import org.apache.james.dnsservice.api.AsyncDNSService;
 import org.apache.james.protocols.api.handler.ProtocolHandler;
 
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 public class DNSRBLHandler extends org.apache.james.protocols.smtp.core.fastfail.DNSRBLHandler implements ProtocolHandler {
-    private final DNSService dns;
+    private final AsyncDNSService dns;
 
     @Inject
-    public DNSRBLHandler(DNSService dns) {
+    public DNSRBLHandler(AsyncDNSService dns) {
         this.dns = dns;
     }
 
@@ -67,18 +73,33 @@ public class DNSRBLHandler extends org.apache.james.protocols.smtp.core.fastfail
         setGetDetail(handlerConfiguration.getBoolean("getDetail", false));
     }
 
+    /**
+     * Queries all the rbl servers at once, while still honoring their configured order.
+     */
+    @Override
+    protected Optional<String> findListingRbl(String reversedOctets, String[] rblList) {
+        return Flux.fromIterable(Arrays.asList(rblList))
+            .flatMapSequential(rbl -> isListed(reversedOctets + rbl)
+                .filter(listed -> listed)
+                .map(listed -> rbl))
+            .next()
+            .blockOptional();
+    }
+
     @Override
     protected boolean resolve(String ip) {
-        try {
-            dns.getByName(ip);
-            return true;
-        } catch (UnknownHostException e) {
-            return false;
-        }
+        return isListed(ip).block();
+    }
+
+    private Mono<Boolean> isListed(String ip) {
+        return Mono.from(dns.getByName(ip))
+            .hasElement();
     }
 
     @Override
     protected Collection<String> resolveTXTRecords(String ip) {
-        return dns.findTXTRecords(ip);
+        return Mono.from(dns.findTXTRecords(ip))
+            .blockOptional()
+            .orElse(ImmutableList.of());
     }
 }
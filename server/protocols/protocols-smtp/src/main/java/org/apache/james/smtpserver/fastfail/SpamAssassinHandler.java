@@ -82,9 +82,13 @@ public class SpamAssassinHandler implements JamesMessageHook, ProtocolHandler {
     /** The hits on which the message get rejected */
     private double spamdRejectionHits = 0.0;
 
+    /** Shared by all messages, so that its concurrency limit applies to the whole handler */
+    private SpamAssassinInvoker spamAssassinInvoker;
+
     @Inject
     public SpamAssassinHandler(MetricFactory metricFactory) {
         this.metricFactory = metricFactory;
+        this.spamAssassinInvoker = new SpamAssassinInvoker(metricFactory, spamdHost, spamdPort);
     }
 
     /**
@@ -95,6 +99,7 @@ public class SpamAssassinHandler implements JamesMessageHook, ProtocolHandler {
      */
     public void setSpamdHost(String spamdHost) {
         this.spamdHost = spamdHost;
+        this.spamAssassinInvoker = new SpamAssassinInvoker(metricFactory, spamdHost, spamdPort);
     }
 
     /**
@@ -105,6 +110,7 @@ public class SpamAssassinHandler implements JamesMessageHook, ProtocolHandler {
      */
     public void setSpamdPort(int spamdPort) {
         this.spamdPort = spamdPort;
+        this.spamAssassinInvoker = new SpamAssassinInvoker(metricFactory, spamdHost, spamdPort);
     }
 
     /**
@@ -123,8 +129,7 @@ public class SpamAssassinHandler implements JamesMessageHook, ProtocolHandler {
 
         try {
             MimeMessage message = mail.getMessage();
-            SpamAssassinInvoker sa = new SpamAssassinInvoker(metricFactory, spamdHost, spamdPort);
-            SpamAssassinResult result = sa.scanMail(message);
+            SpamAssassinResult result = spamAssassinInvoker.scanMail(message);
 
             // Add the headers
             result.getHeadersAsAttributes().forEach(mail::setAttribute);
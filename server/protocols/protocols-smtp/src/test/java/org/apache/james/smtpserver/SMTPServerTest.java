@@ -34,6 +34,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collection;
@@ -49,8 +50,10 @@ import org.apache.commons.net.smtp.SMTPReply;
 import org.apache.james.core.Domain;
 import org.apache.james.core.MailAddress;
 import org.apache.james.core.Username;
+import org.apache.james.dnsservice.api.AsyncDNSService;
 import org.apache.james.dnsservice.api.DNSService;
 import org.apache.james.dnsservice.api.InMemoryDNSService;
+import org.apache.james.dnsservice.library.CachingAsyncDNSService;
 import org.apache.james.domainlist.api.DomainList;
 import org.apache.james.domainlist.memory.MemoryDomainList;
 import org.apache.james.filesystem.api.FileSystem;
@@ -191,6 +194,7 @@ public class SMTPServerTest {
     protected MemoryDomainList domainList;
     protected MemoryUsersRepository usersRepository;
     protected AlterableDNSServer dnsServer;
+    protected CachingAsyncDNSService asyncDnsServer;
     protected MemoryMailRepositoryStore mailRepositoryStore;
     protected FileSystemImpl fileSystem;
     protected Configuration configuration;
@@ -274,6 +278,7 @@ public class SMTPServerTest {
 
     protected void setUpFakeLoader() throws Exception {
         dnsServer = new AlterableDNSServer();
+        asyncDnsServer = new CachingAsyncDNSService(dnsServer, new RecordingMetricFactory(), Duration.ZERO, Duration.ZERO, 0);
 
         rewriteTable = new MemoryRecipientRewriteTable();
         canSendFrom = new CanSendFromImpl(rewriteTable);
@@ -288,6 +293,7 @@ public class SMTPServerTest {
             .put(binder -> binder.bind(FileSystem.class).toInstance(fileSystem))
             .put(binder -> binder.bind(MailRepositoryStore.class).toInstance(mailRepositoryStore))
             .put(binder -> binder.bind(DNSService.class).toInstance(dnsServer))
+            .put(binder -> binder.bind(AsyncDNSService.class).toInstance(asyncDnsServer))
             .put(binder -> binder.bind(UsersRepository.class).toInstance(usersRepository))
             .put(binder -> binder.bind(MetricFactory.class).to(RecordingMetricFactory.class))
             .build();
@@ -367,6 +373,7 @@ public class SMTPServerTest {
     public void tearDown() throws Exception {
         smtpServer.destroy();
         hashedWheelTimer.stop();
+        asyncDnsServer.dispose();
     }
 
     public void verifyLastMail(String sender, String recipient, MimeMessage msg) throws Exception {
@@ -0,0 +1,174 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import org.apache.james.backends.cassandra.utils.TokenRangeScanner;
+import org.apache.james.mailbox.cassandra.mail.task.SolveMailboxInconsistenciesService;
+import org.apache.james.mailbox.cassandra.mail.task.SolveMailboxInconsistenciesTask;
+import org.apache.james.task.TaskManager;
+import org.apache.james.webadmin.Constants;
+import org.apache.james.webadmin.Routes;
+import org.apache.james.webadmin.tasks.TaskFromRequestRegistry;
+import org.apache.james.webadmin.tasks.TaskIdDto;
+import org.apache.james.webadmin.tasks.TaskRegistrationKey;
+import org.apache.james.webadmin.utils.ErrorResponder;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.apache.james.webadmin.utils.ParametersExtractor;
+import org.eclipse.jetty.http.HttpStatus;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import io.swagger.annotations.ResponseHeader;
+import spark.Request;
+import spark.Route;
+import spark.Service;
+
+@Api(tags = "Cassandra Mailboxes Operations")
+@Path(CassandraMailboxesRoutes.ROOT_PATH)
+@Produces(Constants.JSON_CONTENT_TYPE)
+public class CassandraMailboxesRoutes implements Routes {
+    public static final String ROOT_PATH = "cassandra/mailboxes";
+    private static final TaskRegistrationKey SOLVE_INCONSISTENCIES = TaskRegistrationKey.of("SolveInconsistencies");
+    private static final String PARALLELISM_PARAMETER = "parallelism";
+    private static final String SPLITS_PER_RANGE_PARAMETER = "splitsPerRange";
+    private static final String ROWS_PER_SECOND_PARAMETER = "rowsPerSecond";
+    private static final String RESUME_FROM_PARAMETER = "resumeFrom";
+
+    private final SolveMailboxInconsistenciesService solveMailboxInconsistenciesService;
+    private final TaskManager taskManager;
+    private final JsonTransformer jsonTransformer;
+
+    @Inject
+    CassandraMailboxesRoutes(SolveMailboxInconsistenciesService solveMailboxInconsistenciesService, TaskManager taskManager, JsonTransformer jsonTransformer) {
+        this.solveMailboxInconsistenciesService = solveMailboxInconsistenciesService;
+        this.taskManager = taskManager;
+        this.jsonTransformer = jsonTransformer;
+    }
+
+    @Override
+    public String getBasePath() {
+        return ROOT_PATH;
+    }
+
+    @Override
+    public void define(Service service) {
+        service.post(ROOT_PATH, performActionOnMailboxes(), jsonTransformer);
+    }
+
+    @POST
+    @Path(ROOT_PATH)
+    @ApiOperation(value = "Performing operations on cassandra mailboxes data")
+    @ApiImplicitParams({
+        @ApiImplicitParam(
+            required = true,
+            dataType = "String",
+            name = "action",
+            paramType = "query",
+            example = "?action=SolveInconsistencies",
+            value = "Specify the action to perform on mailboxes. For now only 'SolveInconsistencies' is supported as an action, "
+                + "and its purpose is to fix inconsistencies between the 'mailbox' and 'mailboxPathV2' tables."),
+        @ApiImplicitParam(
+            required = false,
+            dataType = "Integer",
+            name = PARALLELISM_PARAMETER,
+            paramType = "query",
+            defaultValue = "4",
+            example = "?parallelism=8",
+            value = "Count of token ranges being scanned concurrently."),
+        @ApiImplicitParam(
+            required = false,
+            dataType = "Integer",
+            name = SPLITS_PER_RANGE_PARAMETER,
+            paramType = "query",
+            defaultValue = "1",
+            example = "?splitsPerRange=16",
+            value = "Count of sub ranges each token range of the ring is split into."),
+        @ApiImplicitParam(
+            required = false,
+            dataType = "Integer",
+            name = ROWS_PER_SECOND_PARAMETER,
+            paramType = "query",
+            example = "?rowsPerSecond=100",
+            value = "Maximum count of rows being processed per second. Unlimited by default."),
+        @ApiImplicitParam(
+            required = false,
+            dataType = "String",
+            name = RESUME_FROM_PARAMETER,
+            paramType = "query",
+            example = "?resumeFrom=2f8ad2e1-0d1c-4d0e-8a7b-6f8b1e0c5a3d",
+            value = "runId of an interrupted task to resume, skipping the token ranges it already scanned. A new scan is started by default.")
+    })
+    @ApiResponses(value = {
+        @ApiResponse(code = HttpStatus.CREATED_201, message = "The taskId of the given scheduled task", response = TaskIdDto.class,
+            responseHeaders = {
+                @ResponseHeader(name = "Location", description = "URL of the resource associated with the scheduled task")
+            }),
+        @ApiResponse(code = HttpStatus.BAD_REQUEST_400, message = "Invalid action, running options or runId"),
+        @ApiResponse(code = HttpStatus.INTERNAL_SERVER_ERROR_500, message = "Internal server error - Something went bad on the server side.")
+    })
+    public Route performActionOnMailboxes() {
+        return TaskFromRequestRegistry.of(SOLVE_INCONSISTENCIES,
+                request -> new SolveMailboxInconsistenciesTask(solveMailboxInconsistenciesService, parseRunningOptions(request),
+                    parseResumeFrom(request).orElseGet(UUID::randomUUID)))
+            .asRoute(taskManager);
+    }
+
+    private TokenRangeScanner.RunningOptions parseRunningOptions(Request request) {
+        try {
+            return TokenRangeScanner.RunningOptions.of(
+                ParametersExtractor.extractPositiveInteger(request, PARALLELISM_PARAMETER),
+                ParametersExtractor.extractPositiveInteger(request, SPLITS_PER_RANGE_PARAMETER),
+                ParametersExtractor.extractPositiveInteger(request, ROWS_PER_SECOND_PARAMETER));
+        } catch (IllegalArgumentException e) {
+            throw ErrorResponder.builder()
+                .statusCode(HttpStatus.BAD_REQUEST_400)
+                .type(ErrorResponder.ErrorType.INVALID_ARGUMENT)
+                .message(e.getMessage())
+                .cause(e)
+                .haltError();
+        }
+    }
+
+    private Optional<UUID> parseResumeFrom(Request request) {
+        try {
+            return Optional.ofNullable(request.queryParams(RESUME_FROM_PARAMETER))
+                .map(UUID::fromString);
+        } catch (IllegalArgumentException e) {
+            throw ErrorResponder.builder()
+                .statusCode(HttpStatus.BAD_REQUEST_400)
+                .type(ErrorResponder.ErrorType.INVALID_ARGUMENT)
+                .message("Invalid " + RESUME_FROM_PARAMETER + ": " + request.queryParams(RESUME_FROM_PARAMETER))
+                .cause(e)
+                .haltError();
+        }
+    }
+}
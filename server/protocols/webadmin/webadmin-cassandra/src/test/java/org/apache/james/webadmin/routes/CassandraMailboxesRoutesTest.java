@@ -0,0 +1,201 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.when;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Mockito.mock;
+
+import org.apache.james.mailbox.cassandra.mail.task.SolveMailboxInconsistenciesService;
+import org.apache.james.task.Hostname;
+import org.apache.james.task.MemoryTaskManager;
+import org.apache.james.webadmin.WebAdminServer;
+import org.apache.james.webadmin.WebAdminUtils;
+import org.apache.james.webadmin.utils.ErrorResponder;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.restassured.RestAssured;
+
+class CassandraMailboxesRoutesTest {
+    private static final String MAILBOXES_ACTION = "SolveInconsistencies";
+
+    private WebAdminServer webAdminServer;
+    private MemoryTaskManager taskManager;
+
+    @BeforeEach
+    void setUp() {
+        JsonTransformer jsonTransformer = new JsonTransformer();
+        taskManager = new MemoryTaskManager(new Hostname("foo"));
+        webAdminServer = WebAdminUtils.createWebAdminServer(
+                new CassandraMailboxesRoutes(mock(SolveMailboxInconsistenciesService.class), taskManager, jsonTransformer),
+                new TasksRoutes(taskManager, jsonTransformer))
+            .start();
+
+        RestAssured.requestSpecification = WebAdminUtils.buildRequestSpecification(webAdminServer)
+            .setBasePath(CassandraMailboxesRoutes.ROOT_PATH)
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webAdminServer.destroy();
+        taskManager.stop();
+    }
+
+    @Test
+    void postMailboxesActionWithSolvedInconsistenciesQueryParamShouldCreateATask() {
+        given()
+            .queryParam("action", MAILBOXES_ACTION)
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.CREATED_201)
+            .header("Location", is(notNullValue()))
+            .body("taskId", is(notNullValue()));
+    }
+
+    @Test
+    void postMailboxesActionShouldAcceptRunningOptions() {
+        given()
+            .queryParam("action", MAILBOXES_ACTION)
+            .queryParam("parallelism", 8)
+            .queryParam("splitsPerRange", 16)
+            .queryParam("rowsPerSecond", 100)
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.CREATED_201)
+            .body("taskId", is(notNullValue()));
+    }
+
+    @Test
+    void postMailboxesActionShouldRejectInvalidActions() {
+        given()
+            .queryParam("action", "invalid-action")
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+            .body("message", is("Invalid arguments supplied in the user request"))
+            .body("details", is("Invalid value supplied for query parameter 'action': invalid-action. Supported values are [SolveInconsistencies]"));
+    }
+
+    @Test
+    void postMailboxesActionShouldRequireAction() {
+        when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+            .body("message", is("Invalid arguments supplied in the user request"))
+            .body("details", is("'action' query parameter is compulsory. Supported values are [SolveInconsistencies]"));
+    }
+
+    @Test
+    void postMailboxesActionShouldRejectNegativeParallelism() {
+        given()
+            .queryParam("action", MAILBOXES_ACTION)
+            .queryParam("parallelism", -1)
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+            .body("message", is("parallelism can not be negative"));
+    }
+
+    @Test
+    void postMailboxesActionShouldRejectZeroParallelism() {
+        given()
+            .queryParam("action", MAILBOXES_ACTION)
+            .queryParam("parallelism", 0)
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+            .body("message", is("'parallelism' needs to be strictly positive"));
+    }
+
+    @Test
+    void postMailboxesActionShouldRejectZeroSplitsPerRange() {
+        given()
+            .queryParam("action", MAILBOXES_ACTION)
+            .queryParam("splitsPerRange", 0)
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+            .body("message", is("'splitsPerRange' needs to be strictly positive"));
+    }
+
+    @Test
+    void postMailboxesActionShouldRejectInvalidRowsPerSecond() {
+        given()
+            .queryParam("action", MAILBOXES_ACTION)
+            .queryParam("rowsPerSecond", "invalid")
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+            .body("message", is("Can not parse rowsPerSecond"));
+    }
+
+    @Test
+    void postMailboxesActionShouldAcceptResumeFrom() {
+        given()
+            .queryParam("action", MAILBOXES_ACTION)
+            .queryParam("resumeFrom", "2f8ad2e1-0d1c-4d0e-8a7b-6f8b1e0c5a3d")
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.CREATED_201)
+            .body("taskId", is(notNullValue()));
+    }
+
+    @Test
+    void postMailboxesActionShouldRejectInvalidResumeFrom() {
+        given()
+            .queryParam("action", MAILBOXES_ACTION)
+            .queryParam("resumeFrom", "invalid")
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+            .body("message", is("Invalid resumeFrom: invalid"));
+    }
+}
@@ -38,6 +38,7 @@ import org.apache.james.vault.DeletedMessage;
 import org.apache.james.vault.DeletedMessageContentNotFoundException;
 import org.apache.james.vault.DeletedMessageVault;
 import org.apache.james.vault.DeletedMessageZipper;
+import org.apache.james.vault.DeletedMessageZipper.DeletedMessageWithContent;
 import org.apache.james.vault.search.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,12 +49,14 @@ import com.google.common.io.FileBackedOutputStream;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 class ExportService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ExportService.class);
     private static final Predicate<Throwable> CONTENT_NOT_FOUND_PREDICATE =
         throwable -> throwable instanceof DeletedMessageContentNotFoundException;
+    private static final int CONTENT_LOADING_CONCURRENCY = 8;
 
     private final BlobExportMechanism blobExport;
     private final BlobStore blobStore;
@@ -70,10 +73,10 @@ class ExportService {
     }
 
     void export(Username username, Query exportQuery, MailAddress exportToAddress, Runnable messageToExportCallback) throws IOException {
-        Flux<DeletedMessage> matchedMessages = Flux.from(vault.search(username, exportQuery))
-            .doOnNext(any -> messageToExportCallback.run());
+        Flux<DeletedMessageWithContent> matchedMessages = Flux.from(vault.search(username, exportQuery))
+            .flatMapSequential(message -> loadContent(username, message), CONTENT_LOADING_CONCURRENCY);
 
-        BlobId blobId = zipToBlob(username, matchedMessages);
+        BlobId blobId = zipToBlob(matchedMessages, messageToExportCallback);
 
         blobExport.blobId(blobId)
             .with(exportToAddress)
@@ -83,25 +86,31 @@ class ExportService {
             .export();
     }
 
-    private BlobId zipToBlob(Username username, Flux<DeletedMessage> messages) throws IOException {
+    private BlobId zipToBlob(Flux<DeletedMessageWithContent> messages, Runnable messageToExportCallback) throws IOException {
         try (FileBackedOutputStream fileOutputStream = new FileBackedOutputStream(FileUtils.ONE_MB_BI.intValue())) {
-            zipper.zip(contentLoader(username), messages.toStream(), fileOutputStream);
+            zipper.zip(messages.toStream(CONTENT_LOADING_CONCURRENCY).peek(any -> messageToExportCallback.run()), fileOutputStream);
             ByteSource byteSource = fileOutputStream.asByteSource();
             return blobStore.save(blobStore.getDefaultBucketName(), byteSource.openStream(), LOW_COST).block();
         }
     }
 
-    private DeletedMessageZipper.DeletedMessageContentLoader contentLoader(Username username) {
-        return message -> Mono.from(vault.loadMimeMessage(username, message.getMessageId()))
+    /**
+     * Contents are read from the vault concurrently, ahead of the zipping, while preserving the search order.
+     */
+    private Mono<DeletedMessageWithContent> loadContent(Username username, DeletedMessage message) {
+        return Mono.from(vault.loadMimeMessage(username, message.getMessageId()))
+            .map(Optional::of)
             .onErrorResume(CONTENT_NOT_FOUND_PREDICATE, throwable -> {
                 LOGGER.info(
                     "Error happened when loading mime message associated with id {} of user {} in the vault",
                     message.getMessageId().serialize(),
                     username.asString(),
                     throwable);
-                return Mono.empty();
+                return Mono.just(Optional.empty());
             })
-            .blockOptional();
+            .defaultIfEmpty(Optional.empty())
+            .map(content -> new DeletedMessageWithContent(message, content))
+            .subscribeOn(Schedulers.elastic());
     }
 
     private String exportMessage(Username username) {
@@ -34,7 +34,6 @@ import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageManager;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.exception.MailboxNotFoundException;
-import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.vault.DeletedMessage;
@@ -48,6 +47,7 @@ import com.github.fge.lambdas.Throwing;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 class RestoreService {
 
@@ -59,6 +59,7 @@ class RestoreService {
     private static final Logger LOGGER = LoggerFactory.getLogger(RestoreService.class);
     private static final Predicate<Throwable> CONTENT_NOT_FOUND_PREDICATE =
         throwable -> throwable instanceof DeletedMessageContentNotFoundException;
+    private static final int CONTENT_LOADING_CONCURRENCY = 8;
 
     private final DeletedMessageVault deletedMessageVault;
     private final MailboxManager mailboxManager;
@@ -74,13 +75,27 @@ class RestoreService {
         MessageManager restoreMessageManager = restoreMailboxManager(session);
 
         return Flux.from(deletedMessageVault.search(usernameToRestore, searchQuery))
-            .flatMap(deletedMessage -> appendToMailbox(restoreMessageManager, deletedMessage, session));
+            .flatMapSequential(deletedMessage -> loadMessageToRestore(restoreMessageManager, deletedMessage, session)
+                .subscribeOn(Schedulers.elastic()), CONTENT_LOADING_CONCURRENCY)
+            .concatMap(restoration -> restoration.subscribeOn(Schedulers.elastic()));
     }
 
-    private Mono<RestoreResult> appendToMailbox(MessageManager restoreMailboxManager, DeletedMessage deletedMessage, MailboxSession session) {
+    /**
+     * Contents are loaded ahead concurrently while appends are done one at a time, in the order of the search,
+     * so that restored messages get their UIDs in that order.
+     */
+    private Mono<Mono<RestoreResult>> loadMessageToRestore(MessageManager restoreMessageManager, DeletedMessage deletedMessage, MailboxSession session) {
         return appendCommand(deletedMessage)
-            .map(Throwing.<AppendCommand, ComposedMessageId>function(
-                appendCommand -> restoreMailboxManager.appendMessage(appendCommand, session)).sneakyThrow())
+            .map(appendCommand -> appendToMailbox(restoreMessageManager, deletedMessage, appendCommand, session))
+            .onErrorResume(throwable -> {
+                LOGGER.error("loading message {} of user {} from the vault didn't success",
+                    deletedMessage.getMessageId().serialize(), deletedMessage.getOwner().asString(), throwable);
+                return Mono.just(Mono.just(RESTORE_FAILED));
+            });
+    }
+
+    private Mono<RestoreResult> appendToMailbox(MessageManager restoreMailboxManager, DeletedMessage deletedMessage, AppendCommand appendCommand, MailboxSession session) {
+        return Mono.fromCallable(() -> restoreMailboxManager.appendMessage(appendCommand, session))
             .map(any -> RESTORE_SUCCEED)
             .onErrorResume(throwable -> {
                 LOGGER.error("append message {} to restore mailbox of user {} didn't success",
@@ -1593,6 +1593,34 @@ class DeletedMessagesVaultRoutesTest {
                     .body("submitDate", is(notNullValue()));
             }
 
+            @Test
+            void restoreShouldCountLoadingErrorsAndRestoreOtherMessages() throws Exception {
+                Mono.from(vault.append(DELETED_MESSAGE, new ByteArrayInputStream(CONTENT))).block();
+                Mono.from(vault.append(DELETED_MESSAGE_2, new ByteArrayInputStream(CONTENT))).block();
+
+                doReturn(Mono.error(new RuntimeException("mock exception")))
+                    .when(vault)
+                    .loadMimeMessage(USERNAME, DELETED_MESSAGE.getMessageId());
+
+                String taskId =
+                    given()
+                        .queryParam("action", "restore")
+                        .body(MATCH_ALL_QUERY)
+                    .when()
+                        .post(BOB_PATH)
+                        .jsonPath()
+                        .get("taskId");
+
+                given()
+                    .basePath(TasksRoutes.BASE)
+                .when()
+                    .get(taskId + "/await")
+                .then()
+                    .body("status", is("failed"))
+                    .body("additionalInformation.successfulRestoreCount", is(1))
+                    .body("additionalInformation.errorRestoreCount", is(1));
+            }
+
             @Test
             void restoreShouldProduceFailedTaskWhenMailboxMangerGetsError() throws Exception {
                 Mono.from(vault.append(DELETED_MESSAGE, new ByteArrayInputStream(CONTENT))).block();
@@ -56,6 +56,7 @@ import org.apache.james.webadmin.service.MailRepositoryStoreService;
 import org.apache.james.webadmin.service.ReprocessingAllMailsTask;
 import org.apache.james.webadmin.service.ReprocessingOneMailTask;
 import org.apache.james.webadmin.service.ReprocessingService;
+import org.apache.james.webadmin.service.ReprocessingService.RunningOptions;
 import org.apache.james.webadmin.tasks.TaskFromRequest;
 import org.apache.james.webadmin.tasks.TaskFromRequestRegistry;
 import org.apache.james.webadmin.tasks.TaskIdDto;
@@ -88,6 +89,8 @@ public class MailRepositoriesRoutes implements Routes {
 
     public static final String MAIL_REPOSITORIES = "mailRepositories";
     private static final TaskRegistrationKey REPROCESS_ACTION = TaskRegistrationKey.of("reprocess");
+    private static final String CONCURRENCY_PARAMETER = "concurrency";
+    private static final String MESSAGES_PER_SECOND_PARAMETER = "messagesPerSecond";
     private static final String ACTION_PARAMETER = "action";
 
     private final JsonTransformer jsonTransformer;
@@ -436,12 +439,28 @@ public class MailRepositoriesRoutes implements Routes {
             dataType = "String",
             defaultValue = "absent",
             example = "?processor=transport",
-            value = "If present, modifies the state property of the mail to allow their processing by a specific mail container processor.")
+            value = "If present, modifies the state property of the mail to allow their processing by a specific mail container processor."),
+        @ApiImplicitParam(
+            required = false,
+            paramType = "query parameter",
+            name = "concurrency",
+            dataType = "Integer",
+            defaultValue = "1",
+            example = "?concurrency=8",
+            value = "Count of mails being re-enqueued in parallel."),
+        @ApiImplicitParam(
+            required = false,
+            paramType = "query parameter",
+            name = "messagesPerSecond",
+            dataType = "Integer",
+            defaultValue = "absent",
+            example = "?messagesPerSecond=100",
+            value = "If present, caps the count of mails being re-enqueued per second.")
     })
     @ApiResponses(value = {
         @ApiResponse(code = HttpStatus.CREATED_201, message = "Task is created", response = TaskIdDto.class),
         @ApiResponse(code = HttpStatus.INTERNAL_SERVER_ERROR_500, message = "Internal server error - Something went bad on the server side."),
-        @ApiResponse(code = HttpStatus.BAD_REQUEST_400, message = "Bad request - unknown action")
+        @ApiResponse(code = HttpStatus.BAD_REQUEST_400, message = "Bad request - unknown action or invalid running options")
     })
     public void defineReprocessAll() {
         service.patch(MAIL_REPOSITORIES + "/:encodedPath/mails",
@@ -455,8 +474,25 @@ public class MailRepositoriesRoutes implements Routes {
         Optional<String> targetProcessor = parseTargetProcessor(request);
         String targetQueue = parseTargetQueue(request);
 
+        RunningOptions runningOptions = parseRunningOptions(request);
+
         Long repositorySize = repositoryStoreService.size(path).orElse(0L);
-        return new ReprocessingAllMailsTask(reprocessingService, repositorySize, path, targetQueue, targetProcessor);
+        return new ReprocessingAllMailsTask(reprocessingService, repositorySize, path, targetQueue, targetProcessor, runningOptions);
+    }
+
+    private RunningOptions parseRunningOptions(Request request) {
+        try {
+            return RunningOptions.of(
+                ParametersExtractor.extractPositiveInteger(request, CONCURRENCY_PARAMETER),
+                ParametersExtractor.extractPositiveInteger(request, MESSAGES_PER_SECOND_PARAMETER));
+        } catch (IllegalArgumentException e) {
+            throw ErrorResponder.builder()
+                .statusCode(HttpStatus.BAD_REQUEST_400)
+                .type(ErrorType.INVALID_ARGUMENT)
+                .message(e.getMessage())
+                .cause(e)
+                .haltError();
+        }
     }
 
     @PATCH
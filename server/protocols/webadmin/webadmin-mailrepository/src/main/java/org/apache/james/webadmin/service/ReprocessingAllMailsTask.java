@@ -20,6 +20,7 @@
 package org.apache.james.webadmin.service;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
@@ -32,6 +33,7 @@ import org.apache.james.mailrepository.api.MailRepositoryStore;
 import org.apache.james.task.Task;
 import org.apache.james.task.TaskExecutionDetails;
 import org.apache.james.task.TaskType;
+import org.apache.james.webadmin.service.ReprocessingService.RunningOptions;
 
 public class ReprocessingAllMailsTask implements Task {
 
@@ -43,14 +45,19 @@ public class ReprocessingAllMailsTask implements Task {
         private final Optional<String> targetProcessor;
         private final long initialCount;
         private final long remainingCount;
+        private final RunningOptions runningOptions;
+        private final double throughput;
         private final Instant timestamp;
 
-        public AdditionalInformation(MailRepositoryPath repositoryPath, String targetQueue, Optional<String> targetProcessor, long initialCount, long remainingCount, Instant timestamp) {
+        public AdditionalInformation(MailRepositoryPath repositoryPath, String targetQueue, Optional<String> targetProcessor, long initialCount, long remainingCount,
+                                     RunningOptions runningOptions, double throughput, Instant timestamp) {
             this.repositoryPath = repositoryPath;
             this.targetQueue = targetQueue;
             this.targetProcessor = targetProcessor;
             this.initialCount = initialCount;
             this.remainingCount = remainingCount;
+            this.runningOptions = runningOptions;
+            this.throughput = throughput;
             this.timestamp = timestamp;
         }
 
@@ -74,6 +81,17 @@ public class ReprocessingAllMailsTask implements Task {
             return initialCount;
         }
 
+        public RunningOptions getRunningOptions() {
+            return runningOptions;
+        }
+
+        /**
+         * @return the average count of mails reprocessed per second since the task started
+         */
+        public double getThroughput() {
+            return throughput;
+        }
+
         @Override
         public Instant timestamp() {
             return timestamp;
@@ -99,16 +117,21 @@ public class ReprocessingAllMailsTask implements Task {
     private final String targetQueue;
     private final Optional<String> targetProcessor;
     private final long repositorySize;
+    private final RunningOptions runningOptions;
     private final AtomicLong processedCount;
+    private volatile Optional<Instant> startedAt;
 
     public ReprocessingAllMailsTask(ReprocessingService reprocessingService, long repositorySize,
-                                    MailRepositoryPath repositoryPath, String targetQueue, Optional<String> targetProcessor) {
+                                    MailRepositoryPath repositoryPath, String targetQueue, Optional<String> targetProcessor,
+                                    RunningOptions runningOptions) {
         this.reprocessingService = reprocessingService;
         this.repositoryPath = repositoryPath;
         this.targetQueue = targetQueue;
         this.targetProcessor = targetProcessor;
         this.repositorySize = repositorySize;
+        this.runningOptions = runningOptions;
         this.processedCount = new AtomicLong(0);
+        this.startedAt = Optional.empty();
     }
 
     private void notifyProgress(MailKey key) {
@@ -118,7 +141,8 @@ public class ReprocessingAllMailsTask implements Task {
     @Override
     public Result run() {
         try {
-            reprocessingService.reprocessAll(repositoryPath, targetProcessor, targetQueue, this::notifyProgress);
+            startedAt = Optional.of(Clock.systemUTC().instant());
+            reprocessingService.reprocessAll(repositoryPath, targetProcessor, targetQueue, runningOptions, this::notifyProgress);
             return Result.COMPLETED;
         } catch (MessagingException | MailRepositoryStore.MailRepositoryStoreException e) {
             LOGGER.error("Encountered error while reprocessing repository", e);
@@ -142,6 +166,10 @@ public class ReprocessingAllMailsTask implements Task {
         return targetQueue;
     }
 
+    RunningOptions getRunningOptions() {
+        return runningOptions;
+    }
+
     @Override
     public TaskType type() {
         return TYPE;
@@ -149,9 +177,19 @@ public class ReprocessingAllMailsTask implements Task {
 
     @Override
     public Optional<TaskExecutionDetails.AdditionalInformation> details() {
+        Instant now = Clock.systemUTC().instant();
+        long processed = processedCount.get();
         return Optional.of(new AdditionalInformation(
-            repositoryPath, targetQueue, targetProcessor, repositorySize, repositorySize - processedCount.get(),
-            Clock.systemUTC().instant()));
+            repositoryPath, targetQueue, targetProcessor, repositorySize, repositorySize - processed,
+            runningOptions, throughput(processed, now), now));
+    }
+
+    private double throughput(long processed, Instant now) {
+        return startedAt
+            .map(start -> Duration.between(start, now).toMillis())
+            .filter(elapsedMillis -> elapsedMillis > 0)
+            .map(elapsedMillis -> processed * 1000.0 / elapsedMillis)
+            .orElse(0.0);
     }
 
 }
@@ -25,6 +25,7 @@ import org.apache.james.json.DTOModule;
 import org.apache.james.mailrepository.api.MailRepositoryPath;
 import org.apache.james.server.task.json.dto.AdditionalInformationDTO;
 import org.apache.james.server.task.json.dto.AdditionalInformationDTOModule;
+import org.apache.james.webadmin.service.ReprocessingService.RunningOptions;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -39,6 +40,8 @@ public class ReprocessingAllMailsTaskAdditionalInformationDTO implements Additio
                 dto.targetProcessor,
                 dto.initialCount,
                 dto.remainingCount,
+                RunningOptions.of(dto.concurrency, dto.messagesPerSecond),
+                dto.throughput,
                 dto.timestamp
             ))
             .toDTOConverter((details, type) -> new ReprocessingAllMailsTaskAdditionalInformationDTO(
@@ -48,6 +51,9 @@ public class ReprocessingAllMailsTaskAdditionalInformationDTO implements Additio
                 details.getTargetProcessor(),
                 details.getInitialCount(),
                 details.getRemainingCount(),
+                Optional.of(details.getRunningOptions().getConcurrency()),
+                details.getRunningOptions().getMessagesPerSecond(),
+                details.getThroughput(),
                 details.timestamp()))
             .typeName(ReprocessingAllMailsTask.TYPE.asString())
             .withFactory(AdditionalInformationDTOModule::new);
@@ -58,6 +64,9 @@ public class ReprocessingAllMailsTaskAdditionalInformationDTO implements Additio
     private final Optional<String> targetProcessor;
     private final long initialCount;
     private final long remainingCount;
+    private final Optional<Integer> concurrency;
+    private final Optional<Integer> messagesPerSecond;
+    private final double throughput;
     private final Instant timestamp;
 
     public ReprocessingAllMailsTaskAdditionalInformationDTO(
@@ -67,6 +76,9 @@ public class ReprocessingAllMailsTaskAdditionalInformationDTO implements Additio
         @JsonProperty("targetProcessor") Optional<String> targetProcessor,
         @JsonProperty("initialCount") long initialCount,
         @JsonProperty("remainingCount") long remainingCount,
+        @JsonProperty("concurrency") Optional<Integer> concurrency,
+        @JsonProperty("messagesPerSecond") Optional<Integer> messagesPerSecond,
+        @JsonProperty("throughput") double throughput,
         @JsonProperty("timestamp") Instant timestamp) {
         this.type = type;
         this.repositoryPath = repositoryPath;
@@ -74,6 +86,9 @@ public class ReprocessingAllMailsTaskAdditionalInformationDTO implements Additio
         this.targetProcessor = targetProcessor;
         this.initialCount = initialCount;
         this.remainingCount = remainingCount;
+        this.concurrency = concurrency;
+        this.messagesPerSecond = messagesPerSecond;
+        this.throughput = throughput;
         this.timestamp = timestamp;
     }
 
@@ -90,6 +105,18 @@ public class ReprocessingAllMailsTaskAdditionalInformationDTO implements Additio
         return remainingCount;
     }
 
+    public Optional<Integer> getConcurrency() {
+        return concurrency;
+    }
+
+    public Optional<Integer> getMessagesPerSecond() {
+        return messagesPerSecond;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
     public String getRepositoryPath() {
         return repositoryPath;
     }
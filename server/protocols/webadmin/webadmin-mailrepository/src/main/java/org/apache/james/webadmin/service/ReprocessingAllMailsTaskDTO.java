@@ -24,6 +24,7 @@ import org.apache.james.json.DTOModule;
 import org.apache.james.mailrepository.api.MailRepositoryPath;
 import org.apache.james.server.task.json.dto.TaskDTO;
 import org.apache.james.server.task.json.dto.TaskDTOModule;
+import org.apache.james.webadmin.service.ReprocessingService.RunningOptions;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -46,7 +47,9 @@ public class ReprocessingAllMailsTaskDTO implements TaskDTO {
                 domainObject.getRepositorySize(),
                 domainObject.getRepositoryPath().urlEncoded(),
                 domainObject.getTargetQueue(),
-                domainObject.getTargetProcessor()
+                domainObject.getTargetProcessor(),
+                Optional.of(domainObject.getRunningOptions().getConcurrency()),
+                domainObject.getRunningOptions().getMessagesPerSecond()
             );
         } catch (Exception e) {
             throw new ReprocessingAllMailsTask.UrlEncodingFailureSerializationException(domainObject.getRepositoryPath());
@@ -58,17 +61,23 @@ public class ReprocessingAllMailsTaskDTO implements TaskDTO {
     private final String repositoryPath;
     private final String targetQueue;
     private final Optional<String> targetProcessor;
+    private final Optional<Integer> concurrency;
+    private final Optional<Integer> messagesPerSecond;
 
     public ReprocessingAllMailsTaskDTO(@JsonProperty("type") String type,
                                        @JsonProperty("repositorySize") long repositorySize,
                                        @JsonProperty("repositoryPath") String repositoryPath,
                                        @JsonProperty("targetQueue") String targetQueue,
-                                       @JsonProperty("targetProcessor") Optional<String> targetProcessor) {
+                                       @JsonProperty("targetProcessor") Optional<String> targetProcessor,
+                                       @JsonProperty("concurrency") Optional<Integer> concurrency,
+                                       @JsonProperty("messagesPerSecond") Optional<Integer> messagesPerSecond) {
         this.type = type;
         this.repositorySize = repositorySize;
         this.repositoryPath = repositoryPath;
         this.targetQueue = targetQueue;
         this.targetProcessor = targetProcessor;
+        this.concurrency = concurrency;
+        this.messagesPerSecond = messagesPerSecond;
     }
 
     private ReprocessingAllMailsTask fromDTO(ReprocessingService reprocessingService) {
@@ -78,7 +87,8 @@ public class ReprocessingAllMailsTaskDTO implements TaskDTO {
                 repositorySize,
                 MailRepositoryPath.fromEncoded(repositoryPath),
                 targetQueue,
-                targetProcessor
+                targetProcessor,
+                RunningOptions.of(concurrency, messagesPerSecond)
             );
         } catch (Exception e) {
             throw new ReprocessingAllMailsTask.InvalidMailRepositoryPathDeserializationException(repositoryPath);
@@ -105,4 +115,12 @@ public class ReprocessingAllMailsTaskDTO implements TaskDTO {
     public Optional<String> getTargetProcessor() {
         return targetProcessor;
     }
+
+    public Optional<Integer> getConcurrency() {
+        return concurrency;
+    }
+
+    public Optional<Integer> getMessagesPerSecond() {
+        return messagesPerSecond;
+    }
 }
@@ -19,8 +19,10 @@
 
 package org.apache.james.webadmin.service;
 
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import javax.inject.Inject;
 import javax.mail.MessagingException;
@@ -32,19 +34,72 @@ import org.apache.james.mailrepository.api.MailRepositoryPath;
 import org.apache.james.mailrepository.api.MailRepositoryStore;
 import org.apache.james.queue.api.MailQueue;
 import org.apache.james.queue.api.MailQueueFactory;
-import org.apache.james.util.OptionalUtils;
 import org.apache.james.util.streams.Iterators;
 import org.apache.mailet.Mail;
 
 import com.github.fge.lambdas.Throwing;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.RateLimiter;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 public class ReprocessingService {
+    private static final int MIN_BATCH_SIZE = 32;
+    private static final int PREFETCHED_BATCHES = 2;
+
     public static class MissingKeyException extends RuntimeException {
         MissingKeyException(MailKey key) {
             super(key.asString() + " can not be found");
         }
     }
 
+    public static class RunningOptions {
+        public static final int DEFAULT_CONCURRENCY = 1;
+        public static final RunningOptions DEFAULT = new RunningOptions(DEFAULT_CONCURRENCY, Optional.empty());
+
+        public static RunningOptions of(Optional<Integer> concurrency, Optional<Integer> messagesPerSecond) {
+            return new RunningOptions(concurrency.orElse(DEFAULT_CONCURRENCY), messagesPerSecond);
+        }
+
+        private final int concurrency;
+        private final Optional<Integer> messagesPerSecond;
+
+        private RunningOptions(int concurrency, Optional<Integer> messagesPerSecond) {
+            Preconditions.checkArgument(concurrency > 0, "'concurrency' needs to be strictly positive");
+            messagesPerSecond.ifPresent(rate -> Preconditions.checkArgument(rate > 0, "'messagesPerSecond' needs to be strictly positive"));
+
+            this.concurrency = concurrency;
+            this.messagesPerSecond = messagesPerSecond;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public Optional<Integer> getMessagesPerSecond() {
+            return messagesPerSecond;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof RunningOptions) {
+                RunningOptions that = (RunningOptions) o;
+
+                return Objects.equals(this.concurrency, that.concurrency)
+                    && Objects.equals(this.messagesPerSecond, that.messagesPerSecond);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(concurrency, messagesPerSecond);
+        }
+    }
+
     static class Reprocessor {
         private final MailQueue mailQueue;
         private final Optional<String> targetProcessor;
@@ -76,16 +131,51 @@ public class ReprocessingService {
     }
 
     public void reprocessAll(MailRepositoryPath path, Optional<String> targetProcessor, String targetQueue, Consumer<MailKey> keyListener) throws MailRepositoryStore.MailRepositoryStoreException, MessagingException {
+        reprocessAll(path, targetProcessor, targetQueue, RunningOptions.DEFAULT, keyListener);
+    }
+
+    public void reprocessAll(MailRepositoryPath path, Optional<String> targetProcessor, String targetQueue, RunningOptions runningOptions, Consumer<MailKey> keyListener) throws MailRepositoryStore.MailRepositoryStoreException, MessagingException {
         Reprocessor reprocessor = new Reprocessor(getMailQueue(targetQueue), targetProcessor);
+        Optional<RateLimiter> rateLimiter = runningOptions.getMessagesPerSecond().map(RateLimiter::create);
+
+        try {
+            mailRepositoryStoreService
+                .getRepositories(path)
+                .forEach(Throwing.consumer((MailRepository repository) ->
+                    reprocessAll(repository, reprocessor, runningOptions.getConcurrency(), rateLimiter, keyListener)));
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            if (cause instanceof MessagingException) {
+                throw (MessagingException) cause;
+            }
+            throw e;
+        }
+    }
 
-        mailRepositoryStoreService
-            .getRepositories(path)
-            .forEach(Throwing.consumer((MailRepository repository) ->
-                Iterators.toStream(repository.list())
-                    .peek(keyListener)
-                    .map(Throwing.function(key -> Optional.ofNullable(repository.retrieve(key))))
-                    .flatMap(OptionalUtils::toStream)
-                    .forEach(mail -> reprocessor.reprocess(repository, mail))));
+    /**
+     * Keys are listed lazily and mails are retrieved by batches, while the previously retrieved batch is being
+     * re-enqueued by up to 'concurrency' threads. The key listener is notified once a mail is reprocessed.
+     */
+    private void reprocessAll(MailRepository repository, Reprocessor reprocessor, int concurrency,
+                              Optional<RateLimiter> rateLimiter, Consumer<MailKey> keyListener) throws MessagingException {
+        Flux.fromStream(Iterators.toStream(repository.list()))
+            .buffer(Math.max(concurrency, MIN_BATCH_SIZE))
+            .flatMapSequential(keys -> Mono.fromCallable(() -> repository.retrieve(keys))
+                .subscribeOn(Schedulers.elastic()), PREFETCHED_BATCHES)
+            .flatMapIterable(Function.identity(), 1)
+            .doOnNext(mail -> rateLimiter.ifPresent(RateLimiter::acquire))
+            .flatMap(mail -> reprocess(repository, reprocessor, mail, keyListener)
+                .subscribeOn(Schedulers.elastic()), concurrency)
+            .then()
+            .block();
+    }
+
+    private Mono<Void> reprocess(MailRepository repository, Reprocessor reprocessor, Mail mail, Consumer<MailKey> keyListener) {
+        MailKey key = MailKey.forMail(mail);
+        return Mono.fromRunnable(() -> {
+            reprocessor.reprocess(repository, mail);
+            keyListener.accept(key);
+        });
     }
 
     public void reprocess(MailRepositoryPath path, MailKey key, Optional<String> targetProcessor, String targetQueue) throws MailRepositoryStore.MailRepositoryStoreException, MessagingException {
@@ -1079,6 +1079,66 @@ public class MailRepositoriesRoutesTest {
             .body("details", is("Invalid value supplied for query parameter 'action': invalid. Supported values are [reprocess]"));
     }
 
+    @Test
+    public void reprocessingAllTaskShouldRejectZeroConcurrency() {
+        given()
+            .param("action", "reprocess")
+            .param("concurrency", "0")
+        .when()
+            .patch(PATH_ESCAPED_MY_REPO + "/mails")
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+            .body("message", is("'concurrency' needs to be strictly positive"));
+    }
+
+    @Test
+    public void reprocessingAllTaskShouldRejectNegativeMessagesPerSecond() {
+        given()
+            .param("action", "reprocess")
+            .param("messagesPerSecond", "-1")
+        .when()
+            .patch(PATH_ESCAPED_MY_REPO + "/mails")
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+            .body("message", is("messagesPerSecond can not be negative"));
+    }
+
+    @Test
+    public void reprocessingAllTaskShouldIncludeRunningOptions() throws Exception {
+        MailRepository mailRepository = mailRepositoryStore.create(URL_MY_REPO);
+        mailRepository.store(FakeMail.builder()
+            .name(NAME_1)
+            .build());
+        mailRepository.store(FakeMail.builder()
+            .name(NAME_2)
+            .build());
+
+        String taskId = with()
+            .param("action", "reprocess")
+            .param("concurrency", "4")
+            .param("messagesPerSecond", "100")
+            .patch(PATH_ESCAPED_MY_REPO + "/mails")
+            .jsonPath()
+            .get("taskId");
+
+        given()
+            .basePath(TasksRoutes.BASE)
+        .when()
+            .get(taskId + "/await")
+        .then()
+            .body("status", is("completed"))
+            .body("additionalInformation.remainingCount", is(0))
+            .body("additionalInformation.concurrency", is(4))
+            .body("additionalInformation.messagesPerSecond", is(100))
+            .body("additionalInformation.throughput", is(notNullValue()));
+
+        assertThat(mailRepository.size()).isEqualTo(0);
+    }
+
     @Test
     public void reprocessingAllTaskShouldRequireAction() {
         when()
@@ -21,9 +21,12 @@ package org.apache.james.webadmin.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
 import org.apache.james.mailrepository.api.MailKey;
@@ -40,12 +43,14 @@ import org.apache.james.queue.api.MailQueueFactory;
 import org.apache.james.queue.api.ManageableMailQueue;
 import org.apache.james.queue.api.RawMailQueueItemDecoratorFactory;
 import org.apache.james.queue.memory.MemoryMailQueueFactory;
+import org.apache.james.webadmin.service.ReprocessingService.RunningOptions;
 import org.apache.mailet.base.test.FakeMail;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.github.fge.lambdas.Throwing;
 import com.github.fge.lambdas.consumers.ConsumerChainer;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
 
 public class ReprocessingServiceTest {
@@ -148,6 +153,43 @@ public class ReprocessingServiceTest {
             .containsOnly(NAME_1, NAME_2, NAME_3);
     }
 
+    @Test
+    public void reprocessingWithConcurrencyShouldEnqueueAllMails() throws Exception {
+        MailRepository repository = mailRepositoryStore.select(MailRepositoryUrl.fromPathAndProtocol(PATH, MEMORY_PROTOCOL));
+        ImmutableList<String> names = IntStream.range(0, 100)
+            .mapToObj(i -> "key-" + i)
+            .collect(Guavate.toImmutableList());
+        for (String name : names) {
+            repository.store(FakeMail.builder().name(name).build());
+        }
+
+        reprocessingService.reprocessAll(PATH, NO_TARGET_PROCESSOR, SPOOL, RunningOptions.of(Optional.of(8), Optional.empty()), NOOP_CONSUMER);
+
+        assertThat(queueFactory.getQueue(SPOOL).get().browse())
+            .toIterable()
+            .extracting(item -> item.getMail().getName())
+            .containsOnlyElementsOf(names)
+            .hasSize(names.size());
+        assertThat(repository.list()).toIterable()
+            .isEmpty();
+    }
+
+    @Test
+    public void reprocessingShouldBeThrottledWhenMessagesPerSecondIsSpecified() throws Exception {
+        MailRepository repository = mailRepositoryStore.select(MailRepositoryUrl.fromPathAndProtocol(PATH, MEMORY_PROTOCOL));
+        for (int i = 0; i < 6; i++) {
+            repository.store(FakeMail.builder().name("key-" + i).build());
+        }
+
+        long start = System.nanoTime();
+        reprocessingService.reprocessAll(PATH, NO_TARGET_PROCESSOR, SPOOL, RunningOptions.of(Optional.of(4), Optional.of(5)), NOOP_CONSUMER);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(900));
+        assertThat(queueFactory.getQueue(SPOOL).get().browse())
+            .toIterable()
+            .hasSize(6);
+    }
+
     @Test
     public void reprocessingShouldNotFailOnConcurrentDeletion() throws Exception {
         MailRepository repository = mailRepositoryStore.select(MailRepositoryUrl.fromPathAndProtocol(PATH, MEMORY_PROTOCOL));
@@ -173,9 +215,21 @@ public class ReprocessingServiceTest {
 
         reprocessingService.reprocessAll(PATH, NO_TARGET_PROCESSOR, SPOOL, concurrentRemoveConsumer);
 
-        assertThat(queueFactory.getQueue(SPOOL).get().browse())
-            .toIterable()
-            .hasSize(2);
+        assertThat(repository.list()).toIterable()
+            .isEmpty();
+    }
+
+    @Test
+    public void reprocessingShouldNotifyReprocessedKeys() throws Exception {
+        MailRepository repository = mailRepositoryStore.select(MailRepositoryUrl.fromPathAndProtocol(PATH, MEMORY_PROTOCOL));
+        repository.store(mail1);
+        repository.store(mail2);
+        repository.store(mail3);
+
+        ConcurrentLinkedQueue<MailKey> notifiedKeys = new ConcurrentLinkedQueue<>();
+        reprocessingService.reprocessAll(PATH, NO_TARGET_PROCESSOR, SPOOL, notifiedKeys::add);
+
+        assertThat(notifiedKeys).containsOnly(KEY_1, KEY_2, KEY_3);
     }
 
     private MemoryMailRepositoryStore createMemoryMailRepositoryStore() throws Exception {
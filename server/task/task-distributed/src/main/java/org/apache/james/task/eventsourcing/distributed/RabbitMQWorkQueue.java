@@ -21,6 +21,7 @@
 package org.apache.james.task.eventsourcing.distributed;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -29,6 +30,8 @@ import org.apache.james.backends.rabbitmq.ReactorRabbitMQChannelPool;
 import org.apache.james.server.task.json.JsonTaskSerializer;
 import org.apache.james.task.Task;
 import org.apache.james.task.TaskId;
+import org.apache.james.task.TaskLane;
+import org.apache.james.task.TaskLanes;
 import org.apache.james.task.TaskManagerWorker;
 import org.apache.james.task.TaskWithId;
 import org.apache.james.task.WorkQueue;
@@ -36,6 +39,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableMap;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Delivery;
@@ -71,19 +75,44 @@ public class RabbitMQWorkQueue implements WorkQueue {
     private final TaskManagerWorker worker;
     private final ReactorRabbitMQChannelPool channelPool;
     private final JsonTaskSerializer taskSerializer;
+    private final TaskLanes lanes;
     private Sender sender;
     private Receiver receiver;
     private UnicastProcessor<TaskId> sendCancelRequestsQueue;
     private Disposable sendCancelRequestsQueueHandle;
-    private Disposable receiverHandle;
+    private List<Disposable> receiverHandles;
     private Disposable cancelRequestListenerHandle;
     private Sender cancelRequestSender;
     private Receiver cancelRequestListener;
 
     public RabbitMQWorkQueue(TaskManagerWorker worker, ReactorRabbitMQChannelPool reactorRabbitMQChannelPool, JsonTaskSerializer taskSerializer) {
+        this(worker, reactorRabbitMQChannelPool, taskSerializer, TaskLanes.SERIAL);
+    }
+
+    /**
+     * Each lane is backed by its own queue, consumed with as many concurrent tasks as the lane has slots. The worker
+     * thus needs at least {@link TaskLanes#totalSlots()} slots. Lanes need to be configured the same way on all nodes.
+     */
+    public RabbitMQWorkQueue(TaskManagerWorker worker, ReactorRabbitMQChannelPool reactorRabbitMQChannelPool, JsonTaskSerializer taskSerializer, TaskLanes lanes) {
         this.worker = worker;
         this.channelPool = reactorRabbitMQChannelPool;
         this.taskSerializer = taskSerializer;
+        this.lanes = lanes;
+    }
+
+    static String queueName(TaskLane lane) {
+        return qualify(QUEUE_NAME, lane);
+    }
+
+    static String routingKey(TaskLane lane) {
+        return qualify(ROUTING_KEY, lane);
+    }
+
+    private static String qualify(String name, TaskLane lane) {
+        if (lane.getName().equals(TaskLanes.DEFAULT_LANE_NAME)) {
+            return name;
+        }
+        return name + "-" + lane.getName();
     }
 
     @Override
@@ -94,17 +123,26 @@ public class RabbitMQWorkQueue implements WorkQueue {
 
     private void startWorkqueue() {
         channelPool.getSender().declareExchange(ExchangeSpecification.exchange(EXCHANGE_NAME)).block();
-        channelPool.getSender().declare(QueueSpecification.queue(QUEUE_NAME).durable(true).arguments(Constants.WITH_SINGLE_ACTIVE_CONSUMER)).block();
-        channelPool.getSender().bind(BindingSpecification.binding(EXCHANGE_NAME, ROUTING_KEY, QUEUE_NAME)).block();
+        lanes.getLanes().forEach(lane -> {
+            channelPool.getSender().declare(QueueSpecification.queue(queueName(lane)).durable(true).arguments(Constants.WITH_SINGLE_ACTIVE_CONSUMER)).block();
+            channelPool.getSender().bind(BindingSpecification.binding(EXCHANGE_NAME, routingKey(lane), queueName(lane))).block();
+        });
 
         consumeWorkqueue();
     }
 
     private void consumeWorkqueue() {
         receiver = new Receiver(new ReceiverOptions().connectionMono(channelPool.getConnectionMono()));
-        receiverHandle = receiver.consumeManualAck(QUEUE_NAME, new ConsumeOptions())
+        receiverHandles = lanes.getLanes()
+            .stream()
+            .map(this::consumeLane)
+            .collect(Guavate.toImmutableList());
+    }
+
+    private Disposable consumeLane(TaskLane lane) {
+        return receiver.consumeManualAck(queueName(lane), new ConsumeOptions().qos(lane.getSlots()))
             .subscribeOn(Schedulers.elastic())
-            .concatMap(this::executeTask)
+            .flatMap(this::executeTask, lane.getSlots())
             .subscribe();
     }
 
@@ -182,7 +220,8 @@ public class RabbitMQWorkQueue implements WorkQueue {
             AMQP.BasicProperties basicProperties = new AMQP.BasicProperties.Builder()
                 .headers(ImmutableMap.of(TASK_ID, taskWithId.getId().asString()))
                 .build();
-            OutboundMessage outboundMessage = new OutboundMessage(EXCHANGE_NAME, ROUTING_KEY, basicProperties, payload);
+            TaskLane lane = lanes.laneOf(taskWithId.getTask().type());
+            OutboundMessage outboundMessage = new OutboundMessage(EXCHANGE_NAME, routingKey(lane), basicProperties, payload);
             channelPool.getSender().send(Mono.just(outboundMessage)).block();
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
@@ -196,7 +235,7 @@ public class RabbitMQWorkQueue implements WorkQueue {
 
     @Override
     public void close() {
-        Optional.ofNullable(receiverHandle).ifPresent(Disposable::dispose);
+        Optional.ofNullable(receiverHandles).ifPresent(handles -> handles.forEach(Disposable::dispose));
         Optional.ofNullable(receiver).ifPresent(Receiver::close);
         Optional.ofNullable(sendCancelRequestsQueueHandle).ifPresent(Disposable::dispose);
         Optional.ofNullable(cancelRequestListenerHandle).ifPresent(Disposable::dispose);
@@ -0,0 +1,77 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.task.eventsourcing.distributed;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.james.task.TaskLane;
+import org.apache.james.task.TaskLanes;
+import org.apache.james.task.TaskType;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Splitter;
+
+/**
+ * Reads {@link TaskLanes} from the RabbitMQ configuration:
+ *
+ * <pre>
+ * task.worker.default.slots=2
+ * task.worker.lanes=light
+ * task.worker.lane.light.slots=2
+ * task.worker.lane.light.types=reprocessing-one,clear-mail-repository
+ * </pre>
+ *
+ * Without any of these properties, tasks are run one at a time.
+ */
+public class TaskLanesConfiguration {
+    private static final String DEFAULT_SLOTS = "task.worker.default.slots";
+    private static final String LANES = "task.worker.lanes";
+    private static final String LANE_PREFIX = "task.worker.lane.";
+    private static final String SLOTS_SUFFIX = ".slots";
+    private static final String TYPES_SUFFIX = ".types";
+    private static final int DEFAULT_SLOTS_COUNT = 1;
+    private static final Splitter COMMA_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+    public static TaskLanes from(Configuration configuration) {
+        int defaultSlots = Optional.ofNullable(configuration.getInteger(DEFAULT_SLOTS, null))
+            .orElse(DEFAULT_SLOTS_COUNT);
+
+        return TaskLanes.of(defaultSlots, readList(configuration, LANES)
+            .map(name -> readLane(configuration, name))
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private static TaskLane readLane(Configuration configuration, String name) {
+        int slots = Optional.ofNullable(configuration.getInteger(LANE_PREFIX + name + SLOTS_SUFFIX, null))
+            .orElse(DEFAULT_SLOTS_COUNT);
+
+        return TaskLane.of(name, slots, readList(configuration, LANE_PREFIX + name + TYPES_SUFFIX)
+            .map(TaskType::of)
+            .collect(Guavate.toImmutableSet()));
+    }
+
+    private static Stream<String> readList(Configuration configuration, String key) {
+        return Arrays.stream(configuration.getStringArray(key))
+            .flatMap(value -> COMMA_SPLITTER.splitToList(value).stream());
+    }
+}
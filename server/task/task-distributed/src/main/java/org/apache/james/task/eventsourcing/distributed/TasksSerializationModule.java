@@ -23,6 +23,7 @@ import java.util.Set;
 import java.util.stream.Stream;
 
 import org.apache.james.eventsourcing.eventstore.cassandra.dto.EventDTOModule;
+import org.apache.james.eventsourcing.eventstore.cassandra.dto.SnapshotDTOModule;
 import org.apache.james.json.DTOConverter;
 import org.apache.james.server.task.json.JsonTaskSerializer;
 import org.apache.james.server.task.json.dto.AdditionalInformationDTO;
@@ -36,6 +37,7 @@ import org.apache.james.task.eventsourcing.Completed;
 import org.apache.james.task.eventsourcing.Created;
 import org.apache.james.task.eventsourcing.Failed;
 import org.apache.james.task.eventsourcing.Started;
+import org.apache.james.task.eventsourcing.TaskAggregateSnapshot;
 
 import com.github.steveash.guavate.Guavate;
 
@@ -103,6 +105,14 @@ public interface TasksSerializationModule {
         .typeName("task-manager-updated")
         .withFactory(EventDTOModule::new);
 
+    SnapshotDTOModule<?, ?> SNAPSHOT = SnapshotDTOModule
+        .forSnapshot(TaskAggregateSnapshot.class)
+        .convertToDTO(TaskAggregateSnapshotDTO.class)
+        .toDomainObjectConverter(TaskAggregateSnapshotDTO::toDomainObject)
+        .toDTOConverter(TaskAggregateSnapshotDTO::fromDomainObject)
+        .typeName("task-manager-snapshot-v1")
+        .withFactory(SnapshotDTOModule::new);
+
     static Set<EventDTOModule<?, ?>> list(JsonTaskSerializer jsonTaskSerializer,
                                           DTOConverter<TaskExecutionDetails.AdditionalInformation, AdditionalInformationDTO> additionalInformationConverter,
                                           DTOConverter<Task, TaskDTO> dtoConverter) {
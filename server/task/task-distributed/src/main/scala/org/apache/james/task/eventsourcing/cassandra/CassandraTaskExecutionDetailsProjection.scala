@@ -21,19 +21,67 @@ package org.apache.james.task.eventsourcing.cassandra
 
 import javax.inject.Inject
 import org.apache.james.task.eventsourcing.TaskExecutionDetailsProjection
-import org.apache.james.task.{TaskExecutionDetails, TaskId}
+import reactor.core.publisher.Mono
+import org.apache.james.task.{TaskExecutionDetails, TaskId, TaskManager}
 
 import scala.compat.java8.OptionConverters._
 import scala.jdk.CollectionConverters._
 
 class CassandraTaskExecutionDetailsProjection  @Inject()(cassandraTaskExecutionDetailsProjectionDAO: CassandraTaskExecutionDetailsProjectionDAO) extends TaskExecutionDetailsProjection {
 
+  @volatile private var statusIndexComplete: Boolean = false
+
   override def load(taskId: TaskId): Option[TaskExecutionDetails] =
     cassandraTaskExecutionDetailsProjectionDAO.readDetails(taskId).blockOptional().asScala
 
   override def list: List[TaskExecutionDetails] =
     cassandraTaskExecutionDetailsProjectionDAO.listDetails().collectList().block().asScala.toList
 
+  override def list(status: TaskManager.Status): List[TaskExecutionDetails] =
+    if (isStatusIndexComplete) {
+      cassandraTaskExecutionDetailsProjectionDAO.listDetails(status).collectList().block().asScala.toList
+    } else {
+      backfillStatusIndex().filter(_.getStatus == status)
+    }
+
+  private def isStatusIndexComplete: Boolean = {
+    if (!statusIndexComplete) {
+      statusIndexComplete = cassandraTaskExecutionDetailsProjectionDAO.isStatusIndexComplete.block()
+    }
+    statusIndexComplete
+  }
+
+  /**
+   * Tasks projected before the upgrade are not indexed by status: listings fall back to reading every task, and index
+   * them, until this was done once.
+   */
+  private def backfillStatusIndex(): List[TaskExecutionDetails] = {
+    val details = cassandraTaskExecutionDetailsProjectionDAO.backfillStatusIndex()
+      .collectList()
+      .flatMap(list => cassandraTaskExecutionDetailsProjectionDAO.markStatusIndexComplete().`then`(Mono.just(list)))
+      .block().asScala.toList
+    statusIndexComplete = true
+    details
+  }
+
   override def update(details: TaskExecutionDetails): Unit =
-    cassandraTaskExecutionDetailsProjectionDAO.saveDetails(details).block()
+    load(details.getTaskId) match {
+      case Some(previous) => update(previous, details)
+      case None => cassandraTaskExecutionDetailsProjectionDAO.saveDetails(details)
+        .`then`(cassandraTaskExecutionDetailsProjectionDAO.indexStatus(details))
+        .block()
+    }
+
+  override def update(previous: TaskExecutionDetails, details: TaskExecutionDetails): Unit =
+    cassandraTaskExecutionDetailsProjectionDAO.saveDetails(details)
+      .`then`(updateStatusIndex(previous, details))
+      .block()
+
+  private def updateStatusIndex(previous: TaskExecutionDetails, details: TaskExecutionDetails): Mono[Void] =
+    if (previous.getStatus == details.getStatus) {
+      cassandraTaskExecutionDetailsProjectionDAO.indexStatus(details)
+    } else {
+      cassandraTaskExecutionDetailsProjectionDAO.indexStatus(details)
+        .`then`(cassandraTaskExecutionDetailsProjectionDAO.unindexStatus(previous))
+    }
 }
@@ -18,12 +18,14 @@
  * ***************************************************************/
 package org.apache.james.task.eventsourcing.cassandra
 
+import java.time.{ZoneOffset, ZonedDateTime}
 import java.util.Optional
 
-import com.datastax.driver.core.querybuilder.QueryBuilder
-import com.datastax.driver.core.querybuilder.QueryBuilder.{bindMarker, insertInto, select}
+import com.datastax.driver.core.querybuilder.QueryBuilder.{bindMarker, delete, insertInto, select, timestamp, ttl}
+import com.datastax.driver.core.querybuilder.{Insert, QueryBuilder, Select}
 import com.datastax.driver.core.{BoundStatement, Row, Session, UDTValue}
 import javax.inject.Inject
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration
 import org.apache.james.backends.cassandra.init.{CassandraTypesProvider, CassandraZonedDateTimeModule}
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor
 import org.apache.james.server.task.json.JsonTaskAdditionalInformationSerializer
@@ -33,37 +35,106 @@ import reactor.core.publisher.{Flux, Mono}
 
 import scala.compat.java8.OptionConverters._
 
-class CassandraTaskExecutionDetailsProjectionDAO @Inject()(session: Session, typesProvider: CassandraTypesProvider, jsonTaskAdditionalInformationSerializer: JsonTaskAdditionalInformationSerializer) {
+object CassandraTaskExecutionDetailsProjectionDAO {
+  private val TTL: String = "ttl"
+  private val TIMESTAMP: String = "timestamp"
+  private val STATUS_TTL: String = "statusTtl"
+  private val STATUS_WRITE_TIME: String = "statusWriteTime"
+  private val NO_TTL: Int = 0
+  private val ONE_DAY_IN_SECONDS: Int = 24 * 60 * 60
+  private val UNFINISHED_BUCKET: Int = 0
+  private val BACKFILL_CONCURRENCY: Int = 16
+  private val STATUS_INDEX: String = BY_STATUS_TABLE_NAME
+  private val DETAILS_COLUMNS: List[String] = List(TASK_ID, TYPE, STATUS, SUBMITTED_DATE, SUBMITTED_NODE, STARTED_DATE, RAN_NODE,
+    COMPLETED_DATE, CANCELED_DATE, CANCEL_REQUESTED_NODE, FAILED_DATE, ADDITIONAL_INFORMATION)
+
+  /**
+   * Unfinished statuses only ever hold the tasks currently waiting or running, and are stored in a single bucket.
+   * Finished statuses grow with every task run: they are bucketed by the day (UTC) the task finished on.
+   */
+  private[cassandra] def bucket(details: TaskExecutionDetails): Int =
+    if (details.getStatus.isFinished) {
+      finishedDate(details).withZoneSameInstant(ZoneOffset.UTC).toLocalDate.toEpochDay.toInt
+    } else {
+      UNFINISHED_BUCKET
+    }
+
+  private def finishedDate(details: TaskExecutionDetails): ZonedDateTime =
+    details.getCompletedDate.asScala
+      .orElse(details.getFailedDate.asScala)
+      .orElse(details.getCanceledDate.asScala)
+      .getOrElse(details.getSubmittedDate)
+
+  private def insertDetails(table: String): Insert = DETAILS_COLUMNS
+    .foldLeft(insertInto(table))((insert, column) => insert.value(column, bindMarker(column)))
+}
+
+class CassandraTaskExecutionDetailsProjectionDAO @Inject()(session: Session, typesProvider: CassandraTypesProvider, jsonTaskAdditionalInformationSerializer: JsonTaskAdditionalInformationSerializer, cassandraConfiguration: CassandraConfiguration) {
+  import CassandraTaskExecutionDetailsProjectionDAO._
+
   private val cassandraAsyncExecutor = new CassandraAsyncExecutor(session)
   private val dateType = typesProvider.getDefinedUserType(CassandraZonedDateTimeModule.ZONED_DATE_TIME)
+  private val finishedTaskDetailsTtl: Int = cassandraConfiguration.getFinishedTaskDetailsRetention.asScala
+    .map(_.getSeconds.toInt)
+    .getOrElse(NO_TTL)
 
-  private val insertStatement = session.prepare(insertInto(TABLE_NAME)
-    .value(TASK_ID, bindMarker(TASK_ID))
-    .value(TYPE, bindMarker(TYPE))
-    .value(STATUS, bindMarker(STATUS))
-    .value(SUBMITTED_DATE, bindMarker(SUBMITTED_DATE))
-    .value(SUBMITTED_NODE, bindMarker(SUBMITTED_NODE))
-    .value(STARTED_DATE, bindMarker(STARTED_DATE))
-    .value(RAN_NODE, bindMarker(RAN_NODE))
-    .value(COMPLETED_DATE, bindMarker(COMPLETED_DATE))
-    .value(CANCELED_DATE, bindMarker(CANCELED_DATE))
-    .value(CANCEL_REQUESTED_NODE, bindMarker(CANCEL_REQUESTED_NODE))
-    .value(FAILED_DATE, bindMarker(FAILED_DATE))
-    .value(ADDITIONAL_INFORMATION, bindMarker(ADDITIONAL_INFORMATION))
-  )
+  private val insertStatement = session.prepare(insertDetails(TABLE_NAME)
+    .using(ttl(bindMarker(TTL))))
 
   private val selectStatement = session.prepare(select().from(TABLE_NAME)
     .where(QueryBuilder.eq(TASK_ID, bindMarker(TASK_ID))))
 
   private val listStatement = session.prepare(select().from(TABLE_NAME))
 
-  def saveDetails(details: TaskExecutionDetails): Mono[Void] = {
-    val boundStatement =  insertStatement.bind
+  private val listWithStatusWriteTimeStatement = session.prepare(DETAILS_COLUMNS
+    .foldLeft[Select.Selection](select())((selection, column) => selection.column(column))
+    .ttl(STATUS).as(STATUS_TTL)
+    .writeTime(STATUS).as(STATUS_WRITE_TIME)
+    .from(TABLE_NAME))
+
+  private val insertStatusIndexStatement = session.prepare(insertDetails(BY_STATUS_TABLE_NAME)
+    .value(BUCKET, bindMarker(BUCKET))
+    .using(ttl(bindMarker(TTL))))
+
+  private val backfillStatusIndexStatement = session.prepare(insertDetails(BY_STATUS_TABLE_NAME)
+    .value(BUCKET, bindMarker(BUCKET))
+    .using(ttl(bindMarker(TTL)))
+    .and(timestamp(bindMarker(TIMESTAMP))))
+
+  private val insertStatusBucketStatement = session.prepare(insertInto(STATUS_BUCKETS_TABLE_NAME)
+    .value(STATUS, bindMarker(STATUS))
+    .value(BUCKET, bindMarker(BUCKET))
+    .using(ttl(bindMarker(TTL))))
+
+  private val deleteStatusIndexStatement = session.prepare(delete().from(BY_STATUS_TABLE_NAME)
+    .where(QueryBuilder.eq(STATUS, bindMarker(STATUS)))
+    .and(QueryBuilder.eq(BUCKET, bindMarker(BUCKET)))
+    .and(QueryBuilder.eq(TASK_ID, bindMarker(TASK_ID))))
+
+  private val listStatusBucketsStatement = session.prepare(select(BUCKET).from(STATUS_BUCKETS_TABLE_NAME)
+    .where(QueryBuilder.eq(STATUS, bindMarker(STATUS))))
+
+  private val listStatusIndexStatement = session.prepare(select().from(BY_STATUS_TABLE_NAME)
+    .where(QueryBuilder.eq(STATUS, bindMarker(STATUS)))
+    .and(QueryBuilder.eq(BUCKET, bindMarker(BUCKET))))
+
+  private val selectIndexStateStatement = session.prepare(select().from(INDEX_STATE_TABLE_NAME)
+    .where(QueryBuilder.eq(INDEX_NAME, bindMarker(INDEX_NAME))))
+
+  private val insertIndexStateStatement = session.prepare(insertInto(INDEX_STATE_TABLE_NAME)
+    .value(INDEX_NAME, bindMarker(INDEX_NAME)))
+
+  def saveDetails(details: TaskExecutionDetails): Mono[Void] =
+    cassandraAsyncExecutor.executeVoid(bindDetails(insertStatement.bind, details, ttlOf(details)))
+
+  private def bindDetails(statement: BoundStatement, details: TaskExecutionDetails, ttl: Int): BoundStatement = {
+    val boundStatement = statement
       .setUUID(TASK_ID, details.getTaskId.getValue)
       .setString(TYPE, details.getType.asString())
       .setString(STATUS, details.getStatus.getValue)
       .setUDTValue(SUBMITTED_DATE, CassandraZonedDateTimeModule.toUDT(dateType, details.getSubmittedDate))
       .setString(SUBMITTED_NODE, details.getSubmittedNode.asString)
+      .setInt(TTL, ttl)
 
     val bindOptionalFieldOperations = List(
       (statement: BoundStatement) => bindOptionalUDTValue(statement, STARTED_DATE, CassandraZonedDateTimeModule.toUDT(dateType, details.getStartedDate)),
@@ -75,13 +146,61 @@ class CassandraTaskExecutionDetailsProjectionDAO @Inject()(session: Session, typ
       (statement: BoundStatement) => bindOptionalStringValue(statement, ADDITIONAL_INFORMATION, serializeAdditionalInformation(details)),
     )
 
-    val fullyBoundStatement = bindOptionalFieldOperations.foldLeft(boundStatement)((statement, bindFieldOperation) => {
+    bindOptionalFieldOperations.foldLeft(boundStatement)((statement, bindFieldOperation) => {
       bindFieldOperation(statement)
     })
+  }
 
-    cassandraAsyncExecutor.executeVoid(fullyBoundStatement);
+  /**
+   * Copies the details under their current status. Finished entries expire along with the details they copy.
+   */
+  def indexStatus(details: TaskExecutionDetails): Mono[Void] =
+    insertStatusIndex(details, bindDetails(insertStatusIndexStatement.bind, details, ttlOf(details)), ttlOf(details))
+
+  private def insertStatusIndex(details: TaskExecutionDetails, statement: BoundStatement, ttl: Int): Mono[Void] = {
+    val detailsBucket = bucket(details)
+    val insertIndex = cassandraAsyncExecutor.executeVoid(statement.setInt(BUCKET, detailsBucket))
+
+    if (details.getStatus.isFinished) {
+      val bucketTtl = if (ttl == NO_TTL) NO_TTL else Math.addExact(ttl, ONE_DAY_IN_SECONDS)
+      insertIndex.`then`(cassandraAsyncExecutor.executeVoid(insertStatusBucketStatement.bind
+        .setString(STATUS, details.getStatus.getValue)
+        .setInt(BUCKET, detailsBucket)
+        .setInt(TTL, bucketTtl)))
+    } else {
+      insertIndex
+    }
   }
 
+  /**
+   * Indexes the details projected before the status index existed, and lists them. Index entries are written with the
+   * timestamp and the remaining TTL of the details they copy, so that they can not override a concurrent update.
+   */
+  def backfillStatusIndex(): Flux[TaskExecutionDetails] = cassandraAsyncExecutor
+    .executeRows(listWithStatusWriteTimeStatement.bind())
+    .flatMapSequential[TaskExecutionDetails](row => {
+      val details = readRow(row)
+      val ttl = row.getInt(STATUS_TTL)
+      val statement = bindDetails(backfillStatusIndexStatement.bind, details, ttl)
+        .setLong(TIMESTAMP, row.getLong(STATUS_WRITE_TIME))
+      insertStatusIndex(details, statement, ttl).`then`(Mono.just(details))
+    }, BACKFILL_CONCURRENCY)
+
+  def isStatusIndexComplete: Mono[java.lang.Boolean] =
+    cassandraAsyncExecutor.executeReturnExists(selectIndexStateStatement.bind().setString(INDEX_NAME, STATUS_INDEX))
+
+  def markStatusIndexComplete(): Mono[Void] =
+    cassandraAsyncExecutor.executeVoid(insertIndexStateStatement.bind().setString(INDEX_NAME, STATUS_INDEX))
+
+  def unindexStatus(details: TaskExecutionDetails): Mono[Void] =
+    cassandraAsyncExecutor.executeVoid(deleteStatusIndexStatement.bind
+      .setString(STATUS, details.getStatus.getValue)
+      .setInt(BUCKET, bucket(details))
+      .setUUID(TASK_ID, details.getTaskId.getValue))
+
+  private def ttlOf(details: TaskExecutionDetails): Int =
+    if (details.getStatus.isFinished) finishedTaskDetailsTtl else NO_TTL
+
   private def bindOptionalStringValue(statement: BoundStatement, fieldName: String, fieldValue: Optional[String]) = {
     fieldValue.asScala match {
       case Some(value) => statement.setString(fieldName, value)
@@ -108,6 +227,24 @@ class CassandraTaskExecutionDetailsProjectionDAO @Inject()(session: Session, typ
     .executeRows(listStatement.bind())
     .map(readRow)
 
+  /**
+   * Lists the details indexed under the given status, most recently finished first, without reading each task.
+   */
+  def listDetails(status: TaskManager.Status): Flux[TaskExecutionDetails] =
+    listBuckets(status)
+      .concatMap(statusBucket => cassandraAsyncExecutor.executeRows(listStatusIndexStatement.bind()
+        .setString(STATUS, status.getValue)
+        .setInt(BUCKET, statusBucket)))
+      .map(readRow)
+
+  private def listBuckets(status: TaskManager.Status): Flux[Int] =
+    if (status.isFinished) {
+      cassandraAsyncExecutor.executeRows(listStatusBucketsStatement.bind().setString(STATUS, status.getValue))
+        .map(row => row.getInt(BUCKET))
+    } else {
+      Flux.just(UNFINISHED_BUCKET)
+    }
+
   private def readRow(row: Row): TaskExecutionDetails = {
     val taskType = TaskType.of(row.getString(TYPE))
     new TaskExecutionDetails(
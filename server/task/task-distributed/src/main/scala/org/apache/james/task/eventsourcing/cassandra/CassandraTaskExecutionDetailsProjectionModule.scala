@@ -18,7 +18,7 @@
  * ***************************************************************/
 package org.apache.james.task.eventsourcing.cassandra
 
-import com.datastax.driver.core.DataType.{text, uuid}
+import com.datastax.driver.core.DataType.{cint, text, uuid}
 import com.datastax.driver.core.schemabuilder.{Create, SchemaBuilder}
 import org.apache.james.backends.cassandra.components.CassandraModule
 import org.apache.james.backends.cassandra.init.CassandraZonedDateTimeModule
@@ -38,6 +38,13 @@ object CassandraTaskExecutionDetailsProjectionTable {
   val CANCELED_DATE: String = "canceledDate"
   val CANCEL_REQUESTED_NODE: String = "cancelRequestedNode"
   val FAILED_DATE: String = "failedDate"
+
+  val BY_STATUS_TABLE_NAME: String = "taskExecutionDetailsByStatus"
+  val STATUS_BUCKETS_TABLE_NAME: String = "taskExecutionDetailsStatusBuckets"
+  val INDEX_STATE_TABLE_NAME: String = "taskExecutionDetailsIndexState"
+
+  val BUCKET: String = "bucket"
+  val INDEX_NAME: String = "indexName"
 }
 
 object CassandraTaskExecutionDetailsProjectionModule {
@@ -61,5 +68,32 @@ object CassandraTaskExecutionDetailsProjectionModule {
       .addUDTColumn(CassandraTaskExecutionDetailsProjectionTable.CANCELED_DATE, SchemaBuilder.frozen(CassandraZonedDateTimeModule.ZONED_DATE_TIME))
       .addColumn(CassandraTaskExecutionDetailsProjectionTable.CANCEL_REQUESTED_NODE, text)
       .addUDTColumn(CassandraTaskExecutionDetailsProjectionTable.FAILED_DATE, SchemaBuilder.frozen(CassandraZonedDateTimeModule.ZONED_DATE_TIME)))
+    .table(CassandraTaskExecutionDetailsProjectionTable.BY_STATUS_TABLE_NAME)
+    .comment("Copy of the TaskExecutionDetails projection indexed by status. Finished statuses are bucketed by day.")
+    .statement((statement: Create) => statement
+      .addPartitionKey(CassandraTaskExecutionDetailsProjectionTable.STATUS, text)
+      .addPartitionKey(CassandraTaskExecutionDetailsProjectionTable.BUCKET, cint)
+      .addClusteringColumn(CassandraTaskExecutionDetailsProjectionTable.TASK_ID, uuid)
+      .addColumn(CassandraTaskExecutionDetailsProjectionTable.ADDITIONAL_INFORMATION, text)
+      .addColumn(CassandraTaskExecutionDetailsProjectionTable.TYPE, text)
+      .addUDTColumn(CassandraTaskExecutionDetailsProjectionTable.SUBMITTED_DATE, SchemaBuilder.frozen(CassandraZonedDateTimeModule.ZONED_DATE_TIME))
+      .addColumn(CassandraTaskExecutionDetailsProjectionTable.SUBMITTED_NODE, text)
+      .addUDTColumn(CassandraTaskExecutionDetailsProjectionTable.STARTED_DATE, SchemaBuilder.frozen(CassandraZonedDateTimeModule.ZONED_DATE_TIME))
+      .addColumn(CassandraTaskExecutionDetailsProjectionTable.RAN_NODE, text)
+      .addUDTColumn(CassandraTaskExecutionDetailsProjectionTable.COMPLETED_DATE, SchemaBuilder.frozen(CassandraZonedDateTimeModule.ZONED_DATE_TIME))
+      .addUDTColumn(CassandraTaskExecutionDetailsProjectionTable.CANCELED_DATE, SchemaBuilder.frozen(CassandraZonedDateTimeModule.ZONED_DATE_TIME))
+      .addColumn(CassandraTaskExecutionDetailsProjectionTable.CANCEL_REQUESTED_NODE, text)
+      .addUDTColumn(CassandraTaskExecutionDetailsProjectionTable.FAILED_DATE, SchemaBuilder.frozen(CassandraZonedDateTimeModule.ZONED_DATE_TIME)))
+    .table(CassandraTaskExecutionDetailsProjectionTable.STATUS_BUCKETS_TABLE_NAME)
+    .comment("Lists the buckets of taskExecutionDetailsByStatus holding tasks of a given finished status.")
+    .options((options: Create.Options) => options
+      .clusteringOrder(CassandraTaskExecutionDetailsProjectionTable.BUCKET, SchemaBuilder.Direction.DESC))
+    .statement((statement: Create) => statement
+      .addPartitionKey(CassandraTaskExecutionDetailsProjectionTable.STATUS, text)
+      .addClusteringColumn(CassandraTaskExecutionDetailsProjectionTable.BUCKET, cint))
+    .table(CassandraTaskExecutionDetailsProjectionTable.INDEX_STATE_TABLE_NAME)
+    .comment("Records the indexes of the TaskExecutionDetails projection holding every projected task.")
+    .statement((statement: Create) => statement
+      .addPartitionKey(CassandraTaskExecutionDetailsProjectionTable.INDEX_NAME, text))
     .build
 }
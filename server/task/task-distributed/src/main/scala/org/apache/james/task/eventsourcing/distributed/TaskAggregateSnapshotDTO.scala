@@ -0,0 +1,54 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ * *
+ * http://www.apache.org/licenses/LICENSE-2.0                 *
+ * *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ * ***************************************************************/
+package org.apache.james.task.eventsourcing.distributed
+
+import java.time.Instant
+import java.util.Optional
+
+import com.fasterxml.jackson.annotation.{JsonIgnore, JsonProperty}
+import org.apache.james.eventsourcing.EventId
+import org.apache.james.eventsourcing.eventstore.cassandra.dto.SnapshotDTO
+import org.apache.james.task.TaskId
+import org.apache.james.task.TaskManager.Status
+import org.apache.james.task.eventsourcing.{DecisionProjection, TaskAggregateId, TaskAggregateSnapshot}
+
+import scala.compat.java8.OptionConverters._
+
+case class TaskAggregateSnapshotDTO(@JsonProperty("type") getType: String,
+                                    @JsonProperty("aggregate") getAggregate: String,
+                                    @JsonProperty("event") getEvent: Int,
+                                    @JsonProperty("status") getStatus: String,
+                                    @JsonProperty("latestUpdateAdditionalInformationUpdate") getLatestUpdateAdditionalInformationUpdate: Optional[Instant])
+  extends SnapshotDTO {
+
+  @JsonIgnore
+  def toDomainObject: TaskAggregateSnapshot = TaskAggregateSnapshot(
+    TaskAggregateId(TaskId.fromString(getAggregate)),
+    EventId.fromSerialized(getEvent),
+    DecisionProjection(Status.fromString(getStatus), getLatestUpdateAdditionalInformationUpdate.asScala))
+}
+
+object TaskAggregateSnapshotDTO {
+  def fromDomainObject(snapshot: TaskAggregateSnapshot, typeName: String): TaskAggregateSnapshotDTO =
+    TaskAggregateSnapshotDTO(typeName,
+      snapshot.aggregateId.taskId.asString(),
+      snapshot.eventId.serialize(),
+      snapshot.decisionProjection.status.getValue,
+      snapshot.decisionProjection.latestUpdateAdditionalInformationUpdate.asJava)
+}
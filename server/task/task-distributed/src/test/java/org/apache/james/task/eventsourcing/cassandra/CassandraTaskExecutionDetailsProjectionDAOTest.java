@@ -23,10 +23,14 @@ package org.apache.james.task.eventsourcing.cassandra;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_2;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_UPDATED;
+import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_UPDATED_INFORMATION;
+import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_WAITING;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_WITH_ADDITIONAL_INFORMATION;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_ID;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -34,10 +38,12 @@ import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.backends.cassandra.init.CassandraZonedDateTimeModule;
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
 import org.apache.james.server.task.json.JsonTaskAdditionalInformationSerializer;
 import org.apache.james.server.task.json.dto.MemoryReferenceWithCounterTaskAdditionalInformationDTO;
 import org.apache.james.task.TaskExecutionDetails;
+import org.apache.james.task.TaskManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
@@ -53,7 +59,7 @@ class CassandraTaskExecutionDetailsProjectionDAOTest {
 
     @BeforeEach
     void setUp(CassandraCluster cassandra) {
-        testee = new CassandraTaskExecutionDetailsProjectionDAO(cassandra.getConf(), cassandra.getTypesProvider(), JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER);
+        testee = new CassandraTaskExecutionDetailsProjectionDAO(cassandra.getConf(), cassandra.getTypesProvider(), JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER, CassandraConfiguration.DEFAULT_CONFIGURATION);
     }
 
     @Test
@@ -111,4 +117,99 @@ class CassandraTaskExecutionDetailsProjectionDAOTest {
         Stream<TaskExecutionDetails> taskExecutionDetails = testee.listDetails().toStream();
         assertThat(taskExecutionDetails).containsOnly(TASK_EXECUTION_DETAILS_UPDATED());
     }
-}
\ No newline at end of file
+
+    @Test
+    void listDetailsByStatusShouldReturnIndexedRecords() {
+        testee.saveDetails(TASK_EXECUTION_DETAILS()).block();
+        testee.indexStatus(TASK_EXECUTION_DETAILS()).block();
+
+        Stream<TaskExecutionDetails> taskExecutionDetails = testee.listDetails(TaskManager.Status.COMPLETED).toStream();
+        assertThat(taskExecutionDetails).containsOnly(TASK_EXECUTION_DETAILS());
+    }
+
+    @Test
+    void listDetailsByStatusShouldNotReturnUnindexedRecords() {
+        testee.saveDetails(TASK_EXECUTION_DETAILS()).block();
+        testee.indexStatus(TASK_EXECUTION_DETAILS()).block();
+
+        testee.unindexStatus(TASK_EXECUTION_DETAILS()).block();
+
+        Stream<TaskExecutionDetails> taskExecutionDetails = testee.listDetails(TaskManager.Status.COMPLETED).toStream();
+        assertThat(taskExecutionDetails).isEmpty();
+    }
+
+    @Test
+    void listDetailsByStatusShouldNotReadTheDetails() {
+        testee.indexStatus(TASK_EXECUTION_DETAILS()).block();
+
+        Stream<TaskExecutionDetails> taskExecutionDetails = testee.listDetails(TaskManager.Status.COMPLETED).toStream();
+        assertThat(taskExecutionDetails).containsOnly(TASK_EXECUTION_DETAILS());
+    }
+
+    @Test
+    void listDetailsByStatusShouldReturnLastIndexedRecords() {
+        testee.indexStatus(TASK_EXECUTION_DETAILS()).block();
+        testee.indexStatus(TASK_EXECUTION_DETAILS_UPDATED_INFORMATION()).block();
+
+        Stream<TaskExecutionDetails> taskExecutionDetails = testee.listDetails(TaskManager.Status.COMPLETED).toStream();
+        assertThat(taskExecutionDetails).containsOnly(TASK_EXECUTION_DETAILS_UPDATED_INFORMATION());
+    }
+
+    @Test
+    void backfillStatusIndexShouldIndexSavedRecords() {
+        testee.saveDetails(TASK_EXECUTION_DETAILS()).block();
+        testee.saveDetails(TASK_EXECUTION_DETAILS_WAITING()).block();
+
+        testee.backfillStatusIndex().blockLast();
+
+        assertThat(testee.listDetails(TaskManager.Status.COMPLETED).toStream()).containsOnly(TASK_EXECUTION_DETAILS());
+        assertThat(testee.listDetails(TaskManager.Status.WAITING).toStream()).containsOnly(TASK_EXECUTION_DETAILS_WAITING());
+    }
+
+    @Test
+    void backfillStatusIndexShouldReturnSavedRecords() {
+        testee.saveDetails(TASK_EXECUTION_DETAILS()).block();
+        testee.saveDetails(TASK_EXECUTION_DETAILS_WAITING()).block();
+
+        assertThat(testee.backfillStatusIndex().toStream()).containsOnly(TASK_EXECUTION_DETAILS(), TASK_EXECUTION_DETAILS_WAITING());
+    }
+
+    @Test
+    void backfillStatusIndexShouldNotOverrideLaterUnindexing() {
+        testee.saveDetails(TASK_EXECUTION_DETAILS()).block();
+        testee.unindexStatus(TASK_EXECUTION_DETAILS()).block();
+
+        testee.backfillStatusIndex().blockLast();
+
+        assertThat(testee.listDetails(TaskManager.Status.COMPLETED).toStream()).isEmpty();
+    }
+
+    @Test
+    void isStatusIndexCompleteShouldReturnFalseByDefault() {
+        assertThat(testee.isStatusIndexComplete().block()).isFalse();
+    }
+
+    @Test
+    void isStatusIndexCompleteShouldReturnTrueWhenMarked() {
+        testee.markStatusIndexComplete().block();
+
+        assertThat(testee.isStatusIndexComplete().block()).isTrue();
+    }
+
+    @Test
+    void finishedDetailsShouldExpireWhenRetentionIsConfigured(CassandraCluster cassandra) {
+        CassandraTaskExecutionDetailsProjectionDAO testee = new CassandraTaskExecutionDetailsProjectionDAO(cassandra.getConf(), cassandra.getTypesProvider(), JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER,
+            CassandraConfiguration.builder()
+                .finishedTaskDetailsRetention(Duration.ofSeconds(1))
+                .build());
+
+        testee.saveDetails(TASK_EXECUTION_DETAILS()).block();
+        testee.indexStatus(TASK_EXECUTION_DETAILS()).block();
+
+        await().atMost(org.awaitility.Duration.TEN_SECONDS)
+            .untilAsserted(() -> {
+                assertThat(testee.readDetails(TASK_ID()).blockOptional()).isEmpty();
+                assertThat(testee.listDetails(TaskManager.Status.COMPLETED).toStream()).isEmpty();
+            });
+    }
+}
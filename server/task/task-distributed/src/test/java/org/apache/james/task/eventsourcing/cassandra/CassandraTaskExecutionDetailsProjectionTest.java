@@ -19,18 +19,25 @@
 
 package org.apache.james.task.eventsourcing.cassandra;
 
+import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static scala.jdk.javaapi.CollectionConverters.asJava;
+
 import java.util.function.Supplier;
 
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.backends.cassandra.init.CassandraZonedDateTimeModule;
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
 import org.apache.james.server.task.json.JsonTaskAdditionalInformationSerializer;
 import org.apache.james.server.task.json.dto.MemoryReferenceWithCounterTaskAdditionalInformationDTO;
+import org.apache.james.task.TaskManager;
 import org.apache.james.task.eventsourcing.TaskExecutionDetailsProjection;
 import org.apache.james.task.eventsourcing.TaskExecutionDetailsProjectionContract;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
 class CassandraTaskExecutionDetailsProjectionTest implements TaskExecutionDetailsProjectionContract {
@@ -40,11 +47,12 @@ class CassandraTaskExecutionDetailsProjectionTest implements TaskExecutionDetail
             CassandraModule.aggregateModules(CassandraSchemaVersionModule.MODULE, CassandraZonedDateTimeModule.MODULE, CassandraTaskExecutionDetailsProjectionModule.MODULE()));
     private static final JsonTaskAdditionalInformationSerializer JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER = JsonTaskAdditionalInformationSerializer.of(MemoryReferenceWithCounterTaskAdditionalInformationDTO.SERIALIZATION_MODULE);
 
+    private CassandraTaskExecutionDetailsProjectionDAO cassandraTaskExecutionDetailsProjectionDAO;
     private Supplier<CassandraTaskExecutionDetailsProjection> testeeSupplier;
 
     @BeforeEach
     void setUp(CassandraCluster cassandra) {
-        CassandraTaskExecutionDetailsProjectionDAO cassandraTaskExecutionDetailsProjectionDAO = new CassandraTaskExecutionDetailsProjectionDAO(cassandra.getConf(), cassandra.getTypesProvider(), JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER);
+        cassandraTaskExecutionDetailsProjectionDAO = new CassandraTaskExecutionDetailsProjectionDAO(cassandra.getConf(), cassandra.getTypesProvider(), JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER, CassandraConfiguration.DEFAULT_CONFIGURATION);
         testeeSupplier = () -> new CassandraTaskExecutionDetailsProjection(cassandraTaskExecutionDetailsProjectionDAO);
     }
 
@@ -53,4 +61,22 @@ class CassandraTaskExecutionDetailsProjectionTest implements TaskExecutionDetail
         return testeeSupplier.get();
     }
 
+    @Test
+    void listByStatusShouldReturnRecordsProjectedBeforeTheStatusIndex() {
+        cassandraTaskExecutionDetailsProjectionDAO.saveDetails(TASK_EXECUTION_DETAILS()).block();
+
+        assertThat(asJava(testee().list(TaskManager.Status.COMPLETED))).containsOnly(TASK_EXECUTION_DETAILS());
+    }
+
+    @Test
+    void listByStatusShouldIndexRecordsProjectedBeforeTheStatusIndex() {
+        cassandraTaskExecutionDetailsProjectionDAO.saveDetails(TASK_EXECUTION_DETAILS()).block();
+
+        testee().list(TaskManager.Status.WAITING);
+
+        assertThat(cassandraTaskExecutionDetailsProjectionDAO.listDetails(TaskManager.Status.COMPLETED).toStream())
+            .containsOnly(TASK_EXECUTION_DETAILS());
+        assertThat(cassandraTaskExecutionDetailsProjectionDAO.isStatusIndexComplete().block()).isTrue();
+    }
+
 }
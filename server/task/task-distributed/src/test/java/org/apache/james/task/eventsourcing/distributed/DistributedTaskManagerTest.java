@@ -32,14 +32,19 @@ import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.backends.cassandra.init.CassandraZonedDateTimeModule;
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
 import org.apache.james.backends.rabbitmq.RabbitMQExtension;
 import org.apache.james.backends.rabbitmq.ReactorRabbitMQChannelPool;
 import org.apache.james.eventsourcing.EventSourcingSystem;
 import org.apache.james.eventsourcing.eventstore.EventStore;
+import org.apache.james.eventsourcing.eventstore.SnapshotStore;
 import org.apache.james.eventsourcing.eventstore.cassandra.CassandraEventStoreExtension;
 import org.apache.james.eventsourcing.eventstore.cassandra.CassandraEventStoreModule;
+import org.apache.james.eventsourcing.eventstore.cassandra.CassandraSnapshotStore;
 import org.apache.james.eventsourcing.eventstore.cassandra.JsonEventSerializer;
+import org.apache.james.eventsourcing.eventstore.cassandra.JsonSnapshotSerializer;
+import org.apache.james.eventsourcing.eventstore.cassandra.SnapshotDao;
 import org.apache.james.eventsourcing.eventstore.cassandra.dto.EventDTOModule;
 import org.apache.james.json.DTOConverter;
 import org.apache.james.server.task.json.JsonTaskAdditionalInformationSerializer;
@@ -154,6 +159,7 @@ class DistributedTaskManagerTest implements TaskManagerContract {
 
     TrackedRabbitMQWorkQueueSupplier workQueueSupplier;
     EventStore eventStore;
+    SnapshotStore snapshotStore;
     List<RabbitMQTerminationSubscriber> terminationSubscribers;
     TaskExecutionDetailsProjection executionDetailsProjection;
     JsonEventSerializer eventSerializer;
@@ -161,10 +167,11 @@ class DistributedTaskManagerTest implements TaskManagerContract {
     @BeforeEach
     void setUp(EventStore eventStore) {
         CassandraCluster cassandra = CASSANDRA_CLUSTER.getCassandraCluster();
-        CassandraTaskExecutionDetailsProjectionDAO projectionDAO = new CassandraTaskExecutionDetailsProjectionDAO(cassandra.getConf(), cassandra.getTypesProvider(), JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER);
+        CassandraTaskExecutionDetailsProjectionDAO projectionDAO = new CassandraTaskExecutionDetailsProjectionDAO(cassandra.getConf(), cassandra.getTypesProvider(), JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER, CassandraConfiguration.DEFAULT_CONFIGURATION);
         this.executionDetailsProjection = new CassandraTaskExecutionDetailsProjection(projectionDAO);
         this.workQueueSupplier = new TrackedRabbitMQWorkQueueSupplier(RABBIT_MQ_EXTENSION.getRabbitChannelPool(), taskSerializer);
         this.eventStore = eventStore;
+        this.snapshotStore = new CassandraSnapshotStore(new SnapshotDao(cassandra.getConf(), JsonSnapshotSerializer.forModules(TasksSerializationModule.SNAPSHOT)));
         this.terminationSubscribers = new ArrayList<>();
         this.eventSerializer = JsonEventSerializer.forModules(eventDtoModule).withoutNestedType();
     }
@@ -183,7 +190,7 @@ class DistributedTaskManagerTest implements TaskManagerContract {
         RabbitMQTerminationSubscriber terminationSubscriber = new RabbitMQTerminationSubscriber(RABBIT_MQ_EXTENSION.getRabbitChannelPool(), eventSerializer);
         terminationSubscribers.add(terminationSubscriber);
         terminationSubscriber.start();
-        return new EventSourcingTaskManager(workQueueSupplier, eventStore, executionDetailsProjection, hostname, terminationSubscriber);
+        return new EventSourcingTaskManager(workQueueSupplier, eventStore, executionDetailsProjection, hostname, terminationSubscriber, snapshotStore);
     }
 
     @Test
@@ -44,6 +44,8 @@ import org.apache.james.task.MemoryReferenceTask;
 import org.apache.james.task.Task;
 import org.apache.james.task.TaskExecutionDetails;
 import org.apache.james.task.TaskId;
+import org.apache.james.task.TaskLane;
+import org.apache.james.task.TaskLanes;
 import org.apache.james.task.TaskManagerWorker;
 import org.apache.james.task.TaskWithId;
 import org.awaitility.core.ConditionTimeoutException;
@@ -53,6 +55,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
@@ -199,4 +204,57 @@ class RabbitMQWorkQueueTest {
 
     }
 
+    @Test
+    void tasksShouldBeConsumedConcurrentlyWhenTheLaneHasSeveralSlots() {
+        testee.close();
+        AtomicLong counter = new AtomicLong(0L);
+
+        Task task1 = new MemoryReferenceTask(() -> {
+            counter.addAndGet(1);
+            Thread.sleep(1000);
+            return Task.Result.COMPLETED;
+        });
+        TaskWithId taskWithId1 = new TaskWithId(TaskId.fromString("1111d081-aa30-11e9-bf6c-2d3b9e84aafd"), task1);
+
+        Task task2 = new MemoryReferenceTask(() -> {
+            counter.addAndGet(2);
+            Thread.sleep(1000);
+            return Task.Result.COMPLETED;
+        });
+        TaskWithId taskWithId2 = new TaskWithId(TaskId.fromString("2222d082-aa30-22e9-bf6c-2d3b9e84aafd"), task2);
+
+        try (RabbitMQWorkQueue concurrentWorkQueue = new RabbitMQWorkQueue(worker, rabbitMQExtension.getRabbitChannelPool(), serializer, TaskLanes.of(2, ImmutableList.of()))) {
+            concurrentWorkQueue.start();
+
+            concurrentWorkQueue.submit(taskWithId1);
+            concurrentWorkQueue.submit(taskWithId2);
+
+            assertThatCode(() -> await().atMost(FIVE_HUNDRED_MILLISECONDS).untilAtomic(counter, CoreMatchers.equalTo(3L))).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    void tasksOfADedicatedLaneShouldNotWaitForTheDefaultLane() {
+        testee.close();
+        AtomicLong counter = new AtomicLong(0L);
+
+        Task longTask = new MemoryReferenceTask(() -> {
+            Thread.sleep(2000);
+            counter.addAndGet(1);
+            return Task.Result.COMPLETED;
+        });
+        TaskWithId longTaskWithId = new TaskWithId(TaskId.fromString("1111d081-aa30-11e9-bf6c-2d3b9e84aafd"), longTask);
+
+        TaskLanes lanes = TaskLanes.of(1, ImmutableList.of(TaskLane.of("light", 1, ImmutableSet.of(CompletedTask.TYPE))));
+        try (RabbitMQWorkQueue lanedWorkQueue = new RabbitMQWorkQueue(worker, rabbitMQExtension.getRabbitChannelPool(), serializer, lanes)) {
+            lanedWorkQueue.start();
+
+            lanedWorkQueue.submit(longTaskWithId);
+            lanedWorkQueue.submit(TASK_WITH_ID);
+
+            await().atMost(FIVE_HUNDRED_MILLISECONDS).until(() -> worker.results.size() == 1);
+            assertThat(counter.get()).isZero();
+            assertThat(worker.tasks).contains(TASK_WITH_ID);
+        }
+    }
 }
@@ -39,13 +39,16 @@ import org.apache.james.task.MemoryReferenceWithCounterTask;
 import org.apache.james.task.Task;
 import org.apache.james.task.TaskExecutionDetails;
 import org.apache.james.task.TaskId;
+import org.apache.james.task.TaskManager;
 import org.apache.james.task.eventsourcing.CancelRequested;
 import org.apache.james.task.eventsourcing.Cancelled;
 import org.apache.james.task.eventsourcing.Completed;
 import org.apache.james.task.eventsourcing.Created;
+import org.apache.james.task.eventsourcing.DecisionProjection;
 import org.apache.james.task.eventsourcing.Failed;
 import org.apache.james.task.eventsourcing.Started;
 import org.apache.james.task.eventsourcing.TaskAggregateId;
+import org.apache.james.task.eventsourcing.TaskAggregateSnapshot;
 import org.junit.jupiter.api.Test;
 
 import scala.Option;
@@ -100,4 +103,16 @@ class TaskEventsSerializationTest {
                 "{\"aggregate\":\"2c7f4081-aa30-11e9-bf6c-2d3b9e84aafd\",\"event\":42,\"type\":\"task-manager-cancelled\",\"additionalInformation\":{\"type\":\"memory-reference-task-with-counter\",\"count\":3,\"timestamp\":\"2018-11-13T12:00:55Z\"}}")
             .verify();
     }
-}
\ No newline at end of file
+
+    @Test
+    void taskAggregateSnapshotsShouldBeSerializable() throws Exception {
+        JsonSerializationVerifier.serializer(JsonGenericSerializer
+                .forModules(TasksSerializationModule.SNAPSHOT)
+                .withoutNestedType())
+            .testCase(new TaskAggregateSnapshot(AGGREGATE_ID, EVENT_ID, new DecisionProjection(TaskManager.Status.IN_PROGRESS, Option.apply(TIMESTAMP))),
+                "{\"type\":\"task-manager-snapshot-v1\",\"aggregate\":\"2c7f4081-aa30-11e9-bf6c-2d3b9e84aafd\",\"event\":42,\"status\":\"inProgress\",\"latestUpdateAdditionalInformationUpdate\":\"2018-11-13T12:00:55Z\"}")
+            .testCase(new TaskAggregateSnapshot(AGGREGATE_ID, EVENT_ID, new DecisionProjection(TaskManager.Status.WAITING, Option.empty())),
+                "{\"type\":\"task-manager-snapshot-v1\",\"aggregate\":\"2c7f4081-aa30-11e9-bf6c-2d3b9e84aafd\",\"event\":42,\"status\":\"waiting\"}")
+            .verify();
+    }
+}
@@ -0,0 +1,73 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.task.eventsourcing.distributed;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.james.task.TaskLane;
+import org.apache.james.task.TaskLanes;
+import org.apache.james.task.TaskType;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+class TaskLanesConfigurationTest {
+
+    @Test
+    void fromShouldReturnSerialLanesWhenEmpty() {
+        assertThat(TaskLanesConfiguration.from(new PropertiesConfiguration()))
+            .isEqualTo(TaskLanes.SERIAL);
+    }
+
+    @Test
+    void fromShouldReadDefaultSlots() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("task.worker.default.slots", "3");
+
+        assertThat(TaskLanesConfiguration.from(configuration))
+            .isEqualTo(TaskLanes.of(3, ImmutableList.of()));
+    }
+
+    @Test
+    void fromShouldReadDedicatedLanes() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("task.worker.lanes", "light, other");
+        configuration.addProperty("task.worker.lane.light.slots", "2");
+        configuration.addProperty("task.worker.lane.light.types", "reprocessing-one, clear-mail-repository");
+        configuration.addProperty("task.worker.lane.other.types", "other-type");
+
+        assertThat(TaskLanesConfiguration.from(configuration))
+            .isEqualTo(TaskLanes.of(1, ImmutableList.of(
+                TaskLane.of("light", 2, ImmutableSet.of(TaskType.of("reprocessing-one"), TaskType.of("clear-mail-repository"))),
+                TaskLane.of("other", 1, ImmutableSet.of(TaskType.of("other-type"))))));
+    }
+
+    @Test
+    void fromShouldThrowOnInvalidSlots() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("task.worker.default.slots", "0");
+
+        assertThatThrownBy(() -> TaskLanesConfiguration.from(configuration))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,155 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.task;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.james.util.MDCBuilder;
+import org.apache.james.util.concurrent.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Sets;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs up to {@code slots} tasks at the same time. Callers are responsible for not submitting more tasks than
+ * available slots: extra tasks wait for a slot to be released.
+ */
+public class ConcurrentTaskManagerWorker implements TaskManagerWorker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentTaskManagerWorker.class);
+    private final ExecutorService taskExecutor;
+    private final Listener listener;
+    private final Map<TaskId, Future<?>> runningTasks;
+    private final Set<TaskId> cancelledTasks;
+    private final Duration pollingInterval;
+    private final int slots;
+
+    public ConcurrentTaskManagerWorker(Listener listener, Duration pollingInterval, int slots) {
+        Preconditions.checkArgument(slots > 0, "'slots' needs to be strictly positive");
+        this.pollingInterval = pollingInterval;
+        this.slots = slots;
+        this.taskExecutor = Executors.newFixedThreadPool(slots, NamedThreadFactory.withName("task executor"));
+        this.listener = listener;
+        this.cancelledTasks = Sets.newConcurrentHashSet();
+        this.runningTasks = new ConcurrentHashMap<>();
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    @Override
+    public Mono<Task.Result> executeTask(TaskWithId taskWithId) {
+        if (!cancelledTasks.remove(taskWithId.getId())) {
+            CompletableFuture<Task.Result> future = CompletableFuture.supplyAsync(() -> runWithMdc(taskWithId, listener), taskExecutor);
+            runningTasks.put(taskWithId.getId(), future);
+
+            return Mono.using(
+                () -> pollAdditionalInformation(taskWithId).subscribe(),
+                ignored -> Mono.fromFuture(future)
+                    .doOnError(exception -> handleExecutionError(taskWithId, listener, exception))
+                    .onErrorReturn(Task.Result.PARTIAL),
+                Disposable::dispose)
+                .doFinally(any -> runningTasks.remove(taskWithId.getId(), future));
+        } else {
+            listener.cancelled(taskWithId.getId(), taskWithId.getTask().details());
+            return Mono.empty();
+        }
+    }
+
+    private void handleExecutionError(TaskWithId taskWithId, Listener listener, Throwable exception) {
+        if (exception instanceof CancellationException) {
+            listener.cancelled(taskWithId.getId(), taskWithId.getTask().details());
+        } else {
+            listener.failed(taskWithId.getId(), taskWithId.getTask().details(), exception);
+        }
+    }
+
+    private Flux<TaskExecutionDetails.AdditionalInformation> pollAdditionalInformation(TaskWithId taskWithId) {
+        return Mono.fromCallable(() -> taskWithId.getTask().details())
+            .delayElement(pollingInterval, Schedulers.elastic())
+            .repeat()
+            .<TaskExecutionDetails.AdditionalInformation>handle((maybeDetails, sink) -> maybeDetails.ifPresent(sink::next))
+            .doOnNext(information -> listener.updated(taskWithId.getId(), information));
+    }
+
+
+    private Task.Result runWithMdc(TaskWithId taskWithId, Listener listener) {
+        return MDCBuilder.withMdc(
+            MDCBuilder.create()
+                .addContext(Task.TASK_ID, taskWithId.getId())
+                .addContext(Task.TASK_TYPE, taskWithId.getTask().type())
+                .addContext(Task.TASK_DETAILS, taskWithId.getTask().details()),
+            () -> run(taskWithId, listener));
+    }
+
+    private Task.Result run(TaskWithId taskWithId, Listener listener) {
+        listener.started(taskWithId.getId());
+        try {
+            return taskWithId.getTask()
+                .run()
+                .onComplete(result -> listener.completed(taskWithId.getId(), result, taskWithId.getTask().details()))
+                .onFailure(() -> {
+                    LOGGER.error("Task was partially performed. Check logs for more details. Taskid : " + taskWithId.getId());
+                    listener.failed(taskWithId.getId(), taskWithId.getTask().details());
+                });
+        } catch (InterruptedException e) {
+            listener.cancelled(taskWithId.getId(), taskWithId.getTask().details());
+            return Task.Result.PARTIAL;
+        } catch (Exception e) {
+            LOGGER.error("Error while running task {}", taskWithId.getId(), e);
+            listener.failed(taskWithId.getId(), taskWithId.getTask().details(), e);
+            return Task.Result.PARTIAL;
+        }
+    }
+
+    @Override
+    public void cancelTask(TaskId taskId) {
+        cancelledTasks.add(taskId);
+        Optional.ofNullable(runningTasks.get(taskId))
+            .ifPresent(task -> task.cancel(true));
+    }
+
+    @Override
+    public void fail(TaskId taskId, Optional<TaskExecutionDetails.AdditionalInformation> additionalInformation, String errorMessage, Throwable reason) {
+        listener.failed(taskId, additionalInformation, errorMessage, reason);
+    }
+
+    @Override
+    public void close() throws IOException {
+        taskExecutor.shutdownNow();
+    }
+}
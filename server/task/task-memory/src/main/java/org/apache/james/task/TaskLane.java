@@ -0,0 +1,87 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.task;
+
+import java.util.Objects;
+import java.util.Set;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * A lane is a set of execution slots reserved to some task types.
+ */
+public class TaskLane {
+    public static TaskLane of(String name, int slots, Set<TaskType> taskTypes) {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(name), "'name' is mandatory");
+        Preconditions.checkArgument(slots > 0, "'slots' needs to be strictly positive");
+        return new TaskLane(name, slots, ImmutableSet.copyOf(taskTypes));
+    }
+
+    private final String name;
+    private final int slots;
+    private final ImmutableSet<TaskType> taskTypes;
+
+    private TaskLane(String name, int slots, ImmutableSet<TaskType> taskTypes) {
+        this.name = name;
+        this.slots = slots;
+        this.taskTypes = taskTypes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    public ImmutableSet<TaskType> getTaskTypes() {
+        return taskTypes;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof TaskLane) {
+            TaskLane that = (TaskLane) o;
+
+            return Objects.equals(this.slots, that.slots)
+                && Objects.equals(this.name, that.name)
+                && Objects.equals(this.taskTypes, that.taskTypes);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(name, slots, taskTypes);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("name", name)
+            .add("slots", slots)
+            .add("taskTypes", taskTypes)
+            .toString();
+    }
+}
@@ -0,0 +1,102 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.task;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Splits the execution slots of a worker between a default lane, running any task, and dedicated lanes reserved
+ * to some task types. This allows short tasks to run while a long one holds the default lane.
+ */
+public class TaskLanes {
+    public static final String DEFAULT_LANE_NAME = "default";
+    public static final TaskLanes SERIAL = of(1, ImmutableList.of());
+
+    public static TaskLanes of(int defaultLaneSlots, List<TaskLane> dedicatedLanes) {
+        TaskLane defaultLane = TaskLane.of(DEFAULT_LANE_NAME, defaultLaneSlots, ImmutableSet.of());
+        ImmutableList<TaskLane> lanes = ImmutableList.<TaskLane>builder()
+            .add(defaultLane)
+            .addAll(dedicatedLanes)
+            .build();
+
+        long distinctNames = lanes.stream().map(TaskLane::getName).distinct().count();
+        Preconditions.checkArgument(distinctNames == lanes.size(), "Lane names should be unique, '%s' being reserved", DEFAULT_LANE_NAME);
+        long taskTypes = dedicatedLanes.stream().mapToLong(lane -> lane.getTaskTypes().size()).sum();
+        long distinctTaskTypes = dedicatedLanes.stream().flatMap(lane -> lane.getTaskTypes().stream()).distinct().count();
+        Preconditions.checkArgument(taskTypes == distinctTaskTypes, "A task type can not be assigned to several lanes");
+
+        return new TaskLanes(lanes);
+    }
+
+    private final ImmutableList<TaskLane> lanes;
+
+    private TaskLanes(ImmutableList<TaskLane> lanes) {
+        this.lanes = lanes;
+    }
+
+    public TaskLane laneOf(TaskType taskType) {
+        return lanes.stream()
+            .filter(lane -> lane.getTaskTypes().contains(taskType))
+            .findFirst()
+            .orElse(getDefaultLane());
+    }
+
+    public TaskLane getDefaultLane() {
+        return lanes.get(0);
+    }
+
+    public ImmutableList<TaskLane> getLanes() {
+        return lanes;
+    }
+
+    public int totalSlots() {
+        return lanes.stream()
+            .mapToInt(TaskLane::getSlots)
+            .sum();
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof TaskLanes) {
+            TaskLanes that = (TaskLanes) o;
+
+            return Objects.equals(this.lanes, that.lanes);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(lanes);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("lanes", lanes)
+            .toString();
+    }
+}
@@ -20,20 +20,13 @@ package org.apache.james.task.eventsourcing
 
 import java.util
 
-import org.apache.james.eventsourcing.eventstore.History
 import org.apache.james.eventsourcing.{CommandHandler, Event}
 import org.apache.james.task.eventsourcing.TaskCommand._
-import org.apache.james.task.{Hostname, TaskId}
+import org.apache.james.task.Hostname
 
-sealed abstract class TaskCommandHandler[T <: TaskCommand] extends CommandHandler[T] {
+sealed abstract class TaskCommandHandler[T <: TaskCommand] extends CommandHandler[T]
 
-  def loadAggregate(loadHistory: TaskAggregateId => History, taskId: TaskId): TaskAggregate = {
-    val aggregateId = TaskAggregateId(taskId)
-    TaskAggregate.fromHistory(aggregateId, loadHistory(aggregateId))
-  }
-}
-
-class CreateCommandHandler(private val loadHistory: TaskAggregateId => History, hostname: Hostname) extends TaskCommandHandler[Create] {
+class CreateCommandHandler(private val loadAggregate: TaskAggregateId => TaskAggregate, hostname: Hostname) extends TaskCommandHandler[Create] {
   override def handledClass: Class[Create] = classOf[Create]
 
   override def handle(command: Create): util.List[_ <: Event] = {
@@ -41,52 +34,52 @@ class CreateCommandHandler(private val loadHistory: TaskAggregateId => History,
   }
 }
 
-class StartCommandHandler(private val loadHistory: TaskAggregateId => History,
+class StartCommandHandler(private val loadAggregate: TaskAggregateId => TaskAggregate,
                           private val hostname: Hostname) extends TaskCommandHandler[Start] {
   override def handledClass: Class[Start] = classOf[Start]
 
   override def handle(command: Start): util.List[_ <: Event] = {
-    loadAggregate(loadHistory, command.id).start(hostname)
+    loadAggregate(TaskAggregateId(command.id)).start(hostname)
   }
 }
 
-class RequestCancelCommandHandler(private val loadHistory: TaskAggregateId => History,
+class RequestCancelCommandHandler(private val loadAggregate: TaskAggregateId => TaskAggregate,
                                   private val hostname: Hostname) extends TaskCommandHandler[RequestCancel] {
   override def handledClass: Class[RequestCancel] = classOf[RequestCancel]
 
   override def handle(command: RequestCancel): util.List[_ <: Event] = {
-    loadAggregate(loadHistory, command.id).requestCancel(hostname)
+    loadAggregate(TaskAggregateId(command.id)).requestCancel(hostname)
   }
 }
 
-class CompleteCommandHandler(private val loadHistory: TaskAggregateId => History) extends TaskCommandHandler[Complete] {
+class CompleteCommandHandler(private val loadAggregate: TaskAggregateId => TaskAggregate) extends TaskCommandHandler[Complete] {
   override def handledClass: Class[Complete] = classOf[Complete]
 
   override def handle(command: Complete): util.List[_ <: Event] = {
-    loadAggregate(loadHistory, command.id).complete(command.result, command.additionalInformation)
+    loadAggregate(TaskAggregateId(command.id)).complete(command.result, command.additionalInformation)
   }
 }
 
-class CancelCommandHandler(private val loadHistory: TaskAggregateId => History) extends TaskCommandHandler[Cancel] {
+class CancelCommandHandler(private val loadAggregate: TaskAggregateId => TaskAggregate) extends TaskCommandHandler[Cancel] {
   override def handledClass: Class[Cancel] = classOf[Cancel]
 
   override def handle(command: Cancel): util.List[_ <: Event] = {
-    loadAggregate(loadHistory, command.id).cancel(command.additionalInformation)
+    loadAggregate(TaskAggregateId(command.id)).cancel(command.additionalInformation)
   }
 }
 
-class FailCommandHandler(private val loadHistory: TaskAggregateId => History) extends TaskCommandHandler[Fail] {
+class FailCommandHandler(private val loadAggregate: TaskAggregateId => TaskAggregate) extends TaskCommandHandler[Fail] {
   override def handledClass: Class[Fail] = classOf[Fail]
 
   override def handle(command: Fail): util.List[_ <: Event] = {
-    loadAggregate(loadHistory, command.id).fail(command.additionalInformation, command.errorMessage, command.exception)
+    loadAggregate(TaskAggregateId(command.id)).fail(command.additionalInformation, command.errorMessage, command.exception)
   }
 }
 
-class UpdateCommandHandler(private val loadHistory: TaskAggregateId => History) extends TaskCommandHandler[UpdateAdditionalInformation] {
+class UpdateCommandHandler(private val loadAggregate: TaskAggregateId => TaskAggregate) extends TaskCommandHandler[UpdateAdditionalInformation] {
   override def handledClass: Class[UpdateAdditionalInformation] = classOf[UpdateAdditionalInformation]
 
   override def handle(command: UpdateAdditionalInformation): util.List[_ <: Event] = {
-    loadAggregate(loadHistory, command.id).update(command.additionalInformation)
+    loadAggregate(TaskAggregateId(command.id)).update(command.additionalInformation)
   }
 }
\ No newline at end of file
@@ -25,8 +25,8 @@ import java.util
 import com.google.common.annotations.VisibleForTesting
 import javax.annotation.PreDestroy
 import javax.inject.Inject
-import org.apache.james.eventsourcing.eventstore.{EventStore, History}
-import org.apache.james.eventsourcing.{AggregateId, Subscriber}
+import org.apache.james.eventsourcing.Subscriber
+import org.apache.james.eventsourcing.eventstore.{EventStore, SnapshotPolicy, SnapshotStore}
 import org.apache.james.lifecycle.api.Startable
 import org.apache.james.task.TaskManager.ReachedTimeoutException
 import org.apache.james.task._
@@ -39,7 +39,16 @@ class EventSourcingTaskManager @Inject @VisibleForTesting private[eventsourcing]
                                                                                   val eventStore: EventStore,
                                                                                   val executionDetailsProjection: TaskExecutionDetailsProjection,
                                                                                   val hostname: Hostname,
-                                                                                  val terminationSubscriber: TerminationSubscriber) extends TaskManager with Closeable with Startable {
+                                                                                  val terminationSubscriber: TerminationSubscriber,
+                                                                                  val snapshotStore: SnapshotStore) extends TaskManager with Closeable with Startable {
+
+  @VisibleForTesting
+  private[eventsourcing] def this(workQueueSupplier: WorkQueueSupplier,
+                                  eventStore: EventStore,
+                                  executionDetailsProjection: TaskExecutionDetailsProjection,
+                                  hostname: Hostname,
+                                  terminationSubscriber: TerminationSubscriber) =
+    this(workQueueSupplier, eventStore, executionDetailsProjection, hostname, terminationSubscriber, SnapshotStore.NONE)
 
   private def workDispatcher: Subscriber = {
     case Created(aggregateId, _, task, _) =>
@@ -52,16 +61,17 @@ class EventSourcingTaskManager @Inject @VisibleForTesting private[eventsourcing]
 
   import scala.jdk.CollectionConverters._
 
-  private val loadHistory: AggregateId => History = eventStore.getEventsOfAggregate _
+  private val aggregateLoader = new TaskAggregateLoader(eventStore, snapshotStore, EventSourcingTaskManager.SNAPSHOT_POLICY)
+  private val loadAggregate: TaskAggregateId => TaskAggregate = aggregateLoader.load
   private val eventSourcingSystem = ScalaEventSourcingSystem(
     handlers = Set(
-      new CreateCommandHandler(loadHistory, hostname),
-      new StartCommandHandler(loadHistory, hostname),
-      new RequestCancelCommandHandler(loadHistory, hostname),
-      new CompleteCommandHandler(loadHistory),
-      new CancelCommandHandler(loadHistory),
-      new FailCommandHandler(loadHistory),
-      new UpdateCommandHandler(loadHistory)),
+      new CreateCommandHandler(loadAggregate, hostname),
+      new StartCommandHandler(loadAggregate, hostname),
+      new RequestCancelCommandHandler(loadAggregate, hostname),
+      new CompleteCommandHandler(loadAggregate),
+      new CancelCommandHandler(loadAggregate),
+      new FailCommandHandler(loadAggregate),
+      new UpdateCommandHandler(loadAggregate)),
     subscribers = Set(
       executionDetailsProjection.asSubscriber(hostname),
       workDispatcher,
@@ -84,8 +94,8 @@ class EventSourcingTaskManager @Inject @VisibleForTesting private[eventsourcing]
 
   override def list: util.List[TaskExecutionDetails] = listScala.asJava
 
-  override def list(status: TaskManager.Status): util.List[TaskExecutionDetails] = listScala
-    .filter(details => details.getStatus == status)
+  override def list(status: TaskManager.Status): util.List[TaskExecutionDetails] = executionDetailsProjection
+    .list(status)
     .asJava
 
   private def listScala: List[TaskExecutionDetails] = executionDetailsProjection
@@ -125,3 +135,7 @@ class EventSourcingTaskManager @Inject @VisibleForTesting private[eventsourcing]
     workQueue.close()
   }
 }
+
+object EventSourcingTaskManager {
+  private val SNAPSHOT_POLICY = SnapshotPolicy.everyEvents(20)
+}
@@ -19,6 +19,7 @@
 package org.apache.james.task.eventsourcing
 
 import java.util
+import java.util.Optional
 
 import org.apache.james.eventsourcing.eventstore.History
 import org.apache.james.eventsourcing.{Event, EventId}
@@ -29,19 +30,19 @@ import org.apache.james.task.{Hostname, Task}
 
 import scala.jdk.CollectionConverters._
 
-class TaskAggregate private(val aggregateId: TaskAggregateId, private val history: History) {
+class TaskAggregate private(val aggregateId: TaskAggregateId,
+                            initialDecisionProjection: DecisionProjection,
+                            eventsToReplay: Seq[Event],
+                            private val history: History) {
 
-  val initialEvent = history.getEvents.asScala.headOption match {
-    case Some(created @ Created(_, _, _, _)) => created
-    case _ => throw new IllegalArgumentException("History must start with Created event")
-  }
+  private val currentDecisionProjection: DecisionProjection = eventsToReplay
+    .foldLeft(initialDecisionProjection)((decision, event) => decision.update(event))
+
+  private[eventsourcing] def version: EventId = history.getVersion.get()
+
+  private[eventsourcing] def snapshotVersion: Optional[EventId] = history.getSnapshotVersion
 
-  private val currentDecisionProjection: DecisionProjection = history
-    .getEvents
-    .asScala
-    .toSeq
-    .tail
-    .foldLeft(DecisionProjection.initial(initialEvent))((decision, event) => decision.update(event))
+  private[eventsourcing] def snapshot: TaskAggregateSnapshot = TaskAggregateSnapshot(aggregateId, version, currentDecisionProjection)
 
   private def optionToJavaList[T](element: Option[T]): util.List[T] = element.toList.asJava
 
@@ -82,7 +83,19 @@ class TaskAggregate private(val aggregateId: TaskAggregateId, private val histor
 }
 
 object TaskAggregate {
-  def fromHistory(aggregateId: TaskAggregateId, history: History): TaskAggregate = new TaskAggregate(aggregateId, history)
+  def fromHistory(aggregateId: TaskAggregateId, history: History): TaskAggregate = {
+    val events = history.getEvents.asScala.toSeq
+    val initialEvent = events.headOption match {
+      case Some(created @ Created(_, _, _, _)) => created
+      case _ => throw new IllegalArgumentException("History must start with Created event")
+    }
+    new TaskAggregate(aggregateId, DecisionProjection.initial(initialEvent), events.tail, history)
+  }
+
+  def fromSnapshot(snapshot: TaskAggregateSnapshot, history: History): TaskAggregate = {
+    require(history.getSnapshotVersion == Optional.of(snapshot.eventId), "History must follow the snapshot")
+    new TaskAggregate(snapshot.aggregateId, snapshot.decisionProjection, history.getEvents.asScala.toSeq, history)
+  }
 
   def create(aggregateId: TaskAggregateId, task: Task, hostname: Hostname): util.List[Event] = {
     List[Event](Created(aggregateId, EventId.first(), task, hostname)).asJava
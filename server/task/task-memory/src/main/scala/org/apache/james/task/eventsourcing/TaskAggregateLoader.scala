@@ -0,0 +1,42 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ * *
+ * http://www.apache.org/licenses/LICENSE-2.0                 *
+ * *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ * ***************************************************************/
+package org.apache.james.task.eventsourcing
+
+import org.apache.james.eventsourcing.eventstore.{EventStore, SnapshotPolicy, SnapshotStore}
+
+/**
+ * Rebuilds task aggregates from their latest snapshot, only replaying the events that followed it.
+ *
+ * Snapshots are written while loading, once the policy considers that too many events were replayed.
+ */
+class TaskAggregateLoader(eventStore: EventStore, snapshotStore: SnapshotStore, snapshotPolicy: SnapshotPolicy) {
+
+  def load(aggregateId: TaskAggregateId): TaskAggregate = {
+    val aggregate = snapshotStore.load(aggregateId).orElse(null) match {
+      case snapshot: TaskAggregateSnapshot =>
+        TaskAggregate.fromSnapshot(snapshot, eventStore.getEventsOfAggregate(aggregateId, snapshot.eventId))
+      case _ =>
+        TaskAggregate.fromHistory(aggregateId, eventStore.getEventsOfAggregate(aggregateId))
+    }
+    if (snapshotPolicy.shouldSnapshot(aggregate.snapshotVersion, aggregate.version)) {
+      snapshotStore.save(aggregate.snapshot)
+    }
+    aggregate
+  }
+}
@@ -21,7 +21,7 @@ package org.apache.james.task.eventsourcing
 import java.util.concurrent.ConcurrentHashMap
 
 import org.apache.james.eventsourcing.Subscriber
-import org.apache.james.task.{Hostname, TaskExecutionDetails, TaskId}
+import org.apache.james.task.{Hostname, TaskExecutionDetails, TaskId, TaskManager}
 import scala.compat.java8.OptionConverters._
 
 import scala.jdk.CollectionConverters._
@@ -46,20 +46,39 @@ trait TaskExecutionDetailsProjection {
 
   private def update(taskId: TaskId)(updater: TaskExecutionDetails => TaskExecutionDetails): Unit =
     load(taskId)
-      .map(updater)
-      .foreach(update)
+      .foreach(previous => update(previous, updater(previous)))
 
   def load(taskId: TaskId): Option[TaskExecutionDetails]
   def list: List[TaskExecutionDetails]
+  def list(status: TaskManager.Status): List[TaskExecutionDetails]
   def update(details: TaskExecutionDetails): Unit
+
+  /**
+   * Updates details whose previously projected value is known, sparing implementations a read to maintain their status index.
+   */
+  def update(previous: TaskExecutionDetails, details: TaskExecutionDetails): Unit = update(details)
 }
 
 class MemoryTaskExecutionDetailsProjection() extends TaskExecutionDetailsProjection {
   private[this] val details = new ConcurrentHashMap[TaskId, TaskExecutionDetails]
+  private[this] val taskIdsByStatus = new ConcurrentHashMap[TaskManager.Status, java.util.Set[TaskId]]
 
   override def load(taskId: TaskId): Option[TaskExecutionDetails] = Option(this.details.get(taskId))
 
   override def list: List[TaskExecutionDetails] = this.details.values().asScala.toList
 
-  override def update(details: TaskExecutionDetails): Unit = this.details.put(details.taskId, details)
+  override def list(status: TaskManager.Status): List[TaskExecutionDetails] =
+    taskIdsOf(status).asScala.toList
+      .flatMap(load)
+      .filter(_.getStatus == status)
+
+  override def update(details: TaskExecutionDetails): Unit = {
+    taskIdsOf(details.getStatus).add(details.taskId)
+    Option(this.details.put(details.taskId, details))
+      .filter(_.getStatus != details.getStatus)
+      .foreach(previous => taskIdsOf(previous.getStatus).remove(previous.taskId))
+  }
+
+  private def taskIdsOf(status: TaskManager.Status): java.util.Set[TaskId] =
+    taskIdsByStatus.computeIfAbsent(status, _ => ConcurrentHashMap.newKeySet[TaskId]())
 }
@@ -0,0 +1,116 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+
+class ConcurrentTaskManagerWorkerTest {
+    private static final Duration UPDATE_INFORMATION_POLLING_DURATION = Duration.ofSeconds(1);
+
+    private TaskManagerWorker.Listener listener;
+    private ConcurrentTaskManagerWorker worker;
+
+    @BeforeEach
+    void beforeEach() {
+        listener = mock(TaskManagerWorker.Listener.class);
+        worker = new ConcurrentTaskManagerWorker(listener, UPDATE_INFORMATION_POLLING_DURATION, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        worker.close();
+    }
+
+    @Test
+    void constructorShouldThrowWhenNoSlots() {
+        assertThatThrownBy(() -> new ConcurrentTaskManagerWorker(listener, UPDATE_INFORMATION_POLLING_DURATION, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tasksShouldRunConcurrentlyUpToTheSlotCount() throws InterruptedException {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        Task blockingTask = new MemoryReferenceTask(() -> {
+            bothStarted.countDown();
+            release.await();
+            return Task.Result.COMPLETED;
+        });
+
+        Mono<Task.Result> first = worker.executeTask(new TaskWithId(TaskId.generateTaskId(), blockingTask)).cache();
+        Mono<Task.Result> second = worker.executeTask(new TaskWithId(TaskId.generateTaskId(), blockingTask)).cache();
+        first.subscribe();
+        second.subscribe();
+
+        assertThat(bothStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+
+        assertThat(first.block(Duration.ofSeconds(10))).isEqualTo(Task.Result.COMPLETED);
+        assertThat(second.block(Duration.ofSeconds(10))).isEqualTo(Task.Result.COMPLETED);
+    }
+
+    @Test
+    void cancellingATaskShouldNotCancelTheOtherRunningOne() {
+        TaskId cancelledId = TaskId.generateTaskId();
+        TaskId otherId = TaskId.generateTaskId();
+        CountDownLatch release = new CountDownLatch(1);
+        Task blockingTask = new MemoryReferenceTask(() -> {
+            release.await();
+            return Task.Result.COMPLETED;
+        });
+
+        Mono<Task.Result> cancelled = worker.executeTask(new TaskWithId(cancelledId, blockingTask)).cache();
+        Mono<Task.Result> other = worker.executeTask(new TaskWithId(otherId, blockingTask)).cache();
+        cancelled.subscribe();
+        other.subscribe();
+
+        Awaitility.waitAtMost(org.awaitility.Duration.TEN_SECONDS)
+            .untilAsserted(() -> {
+                verify(listener, atLeastOnce()).started(cancelledId);
+                verify(listener, atLeastOnce()).started(otherId);
+            });
+
+        worker.cancelTask(cancelledId);
+        cancelled.block(Duration.ofSeconds(10));
+        release.countDown();
+
+        assertThat(other.block(Duration.ofSeconds(10))).isEqualTo(Task.Result.COMPLETED);
+        verify(listener, atLeastOnce()).cancelled(cancelledId, Optional.empty());
+        verify(listener, never()).cancelled(otherId, Optional.empty());
+    }
+}
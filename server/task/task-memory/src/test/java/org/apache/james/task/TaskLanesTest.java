@@ -0,0 +1,94 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+class TaskLanesTest {
+    private static final TaskType LIGHT_TYPE = TaskType.of("light");
+    private static final TaskType OTHER_TYPE = TaskType.of("other");
+    private static final TaskLane LIGHT_LANE = TaskLane.of("light", 2, ImmutableSet.of(LIGHT_TYPE));
+
+    @Test
+    void taskLaneShouldRespectBeanContract() {
+        EqualsVerifier.forClass(TaskLane.class)
+            .verify();
+    }
+
+    @Test
+    void taskLanesShouldRespectBeanContract() {
+        EqualsVerifier.forClass(TaskLanes.class)
+            .verify();
+    }
+
+    @Test
+    void serialShouldHaveASingleSlot() {
+        assertThat(TaskLanes.SERIAL.totalSlots()).isEqualTo(1);
+    }
+
+    @Test
+    void totalSlotsShouldSumAllLanes() {
+        assertThat(TaskLanes.of(3, ImmutableList.of(LIGHT_LANE)).totalSlots()).isEqualTo(5);
+    }
+
+    @Test
+    void laneOfShouldReturnTheDedicatedLaneOfTheTaskType() {
+        assertThat(TaskLanes.of(1, ImmutableList.of(LIGHT_LANE)).laneOf(LIGHT_TYPE)).isEqualTo(LIGHT_LANE);
+    }
+
+    @Test
+    void laneOfShouldReturnTheDefaultLaneForOtherTaskTypes() {
+        TaskLanes lanes = TaskLanes.of(1, ImmutableList.of(LIGHT_LANE));
+
+        assertThat(lanes.laneOf(OTHER_TYPE)).isEqualTo(lanes.getDefaultLane());
+    }
+
+    @Test
+    void ofShouldThrowWhenNoDefaultSlots() {
+        assertThatThrownBy(() -> TaskLanes.of(0, ImmutableList.of()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ofShouldThrowWhenALaneUsesTheDefaultName() {
+        assertThatThrownBy(() -> TaskLanes.of(1, ImmutableList.of(TaskLane.of(TaskLanes.DEFAULT_LANE_NAME, 1, ImmutableSet.of(LIGHT_TYPE)))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ofShouldThrowWhenATaskTypeIsAssignedToSeveralLanes() {
+        assertThatThrownBy(() -> TaskLanes.of(1, ImmutableList.of(LIGHT_LANE, TaskLane.of("other", 1, ImmutableSet.of(LIGHT_TYPE)))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void taskLaneShouldThrowWhenNoSlots() {
+        assertThatThrownBy(() -> TaskLane.of("light", 0, ImmutableSet.of(LIGHT_TYPE)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -24,6 +24,7 @@ import static org.awaitility.Duration.ONE_HUNDRED_MILLISECONDS;
 
 import org.apache.james.eventsourcing.eventstore.EventStore;
 import org.apache.james.eventsourcing.eventstore.memory.InMemoryEventStore;
+import org.apache.james.eventsourcing.eventstore.memory.InMemorySnapshotStore;
 import org.apache.james.task.CountDownLatchExtension;
 import org.apache.james.task.Hostname;
 import org.apache.james.task.MemoryReferenceTask;
@@ -62,7 +63,7 @@ class EventSourcingTaskManagerTest implements TaskManagerContract {
             TaskManagerWorker worker = new SerialTaskManagerWorker(listener, UPDATE_INFORMATION_POLLING_INTERVAL);
             return new MemoryWorkQueue(worker);
         };
-        taskManager = new EventSourcingTaskManager(workQueueSupplier, eventStore, executionDetailsProjection, HOSTNAME, new MemoryTerminationSubscriber());
+        taskManager = new EventSourcingTaskManager(workQueueSupplier, eventStore, executionDetailsProjection, HOSTNAME, new MemoryTerminationSubscriber(), new InMemorySnapshotStore());
     }
 
     @AfterEach
@@ -0,0 +1,80 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.task.eventsourcing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.james.eventsourcing.EventId;
+import org.apache.james.eventsourcing.eventstore.EventStore;
+import org.apache.james.eventsourcing.eventstore.SnapshotPolicy;
+import org.apache.james.eventsourcing.eventstore.memory.InMemoryEventStore;
+import org.apache.james.eventsourcing.eventstore.memory.InMemorySnapshotStore;
+import org.apache.james.task.Hostname;
+import org.apache.james.task.MemoryReferenceTask;
+import org.apache.james.task.Task;
+import org.apache.james.task.TaskId;
+import org.apache.james.task.TaskManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import scala.Option;
+
+class TaskAggregateLoaderTest {
+    static final Hostname HOSTNAME = Hostname.apply("foo");
+    static final TaskAggregateId ID = TaskAggregateId.apply(TaskId.generateTaskId());
+
+    EventStore eventStore;
+    InMemorySnapshotStore snapshotStore;
+
+    @BeforeEach
+    void setUp() {
+        eventStore = new InMemoryEventStore();
+        snapshotStore = new InMemorySnapshotStore();
+        eventStore.appendAll(
+            Created.apply(ID, EventId.first(), new MemoryReferenceTask(() -> Task.Result.COMPLETED), HOSTNAME),
+            Started.apply(ID, EventId.first().next(), HOSTNAME));
+    }
+
+    @Test
+    void loadShouldNotSnapshotWhenPolicyDoesNotAskTo() {
+        new TaskAggregateLoader(eventStore, snapshotStore, SnapshotPolicy.never()).load(ID);
+
+        assertThat(snapshotStore.load(ID)).isEmpty();
+    }
+
+    @Test
+    void loadShouldSnapshotWhenPolicyAsksTo() {
+        new TaskAggregateLoader(eventStore, snapshotStore, SnapshotPolicy.everyEvents(2)).load(ID);
+
+        assertThat(snapshotStore.load(ID))
+            .contains(TaskAggregateSnapshot.apply(ID, EventId.first().next(), DecisionProjection.apply(TaskManager.Status.IN_PROGRESS, Option.empty())));
+    }
+
+    @Test
+    void loadShouldReplayEventsFollowingTheSnapshot() {
+        new TaskAggregateLoader(eventStore, snapshotStore, SnapshotPolicy.everyEvents(2)).load(ID);
+        eventStore.append(Completed.apply(ID, EventId.fromSerialized(2), Task.Result.COMPLETED, Option.empty()));
+
+        TaskAggregate aggregate = new TaskAggregateLoader(eventStore, snapshotStore, SnapshotPolicy.never()).load(ID);
+
+        assertThat(aggregate.snapshot())
+            .isEqualTo(TaskAggregateSnapshot.apply(ID, EventId.fromSerialized(2), DecisionProjection.apply(TaskManager.Status.COMPLETED, Option.empty())));
+    }
+}
@@ -33,9 +33,11 @@ import org.apache.james.task.Hostname;
 import org.apache.james.task.MemoryReferenceWithCounterTask;
 import org.apache.james.task.Task;
 import org.apache.james.task.TaskId;
+import org.apache.james.task.TaskManager;
 import org.junit.jupiter.api.Test;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Streams;
 import scala.Option;
 
@@ -161,4 +163,40 @@ class TaskAggregateTest {
         TaskAggregate aggregate = TaskAggregate.fromHistory(ID, history);
         assertThat(aggregate.update(new MemoryReferenceWithCounterTask.AdditionalInformation(3, timestamp))).isEmpty();
     }
+
+    @Test
+    void fromSnapshotShouldThrowWhenHistoryDoesNotFollowTheSnapshot() {
+        TaskAggregateSnapshot snapshot = new TaskAggregateSnapshot(ID, EventId.fromSerialized(1), DecisionProjection.apply(TaskManager.Status.IN_PROGRESS, Option.empty()));
+
+        assertThatThrownBy(() -> TaskAggregate.fromSnapshot(snapshot, History.since(EventId.first(), ImmutableList.of())))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenSnapshotOfInProgressTaskShouldEmitEventFollowingTheSnapshotWhenUpdateAdditionalInformationCommand() {
+        History history = buildHistory(
+            eventId -> Created.apply(ID, eventId, new MemoryReferenceWithCounterTask((counter) -> Task.Result.COMPLETED), HOSTNAME),
+            eventId -> Started.apply(ID, eventId, HOSTNAME)
+        );
+        TaskAggregateSnapshot snapshot = TaskAggregate.fromHistory(ID, history).snapshot();
+
+        TaskAggregate aggregate = TaskAggregate.fromSnapshot(snapshot, History.since(snapshot.eventId(), ImmutableList.of()));
+
+        assertThat(aggregate.update(new MemoryReferenceWithCounterTask.AdditionalInformation(3, timestamp)))
+            .containsExactly(AdditionalInformationUpdated.apply(ID, history.getNextEventId(), new MemoryReferenceWithCounterTask.AdditionalInformation(3, timestamp)));
+    }
+
+    @Test
+    void givenSnapshotShouldReplayFollowingEvents() {
+        History history = buildHistory(
+            eventId -> Created.apply(ID, eventId, new MemoryReferenceWithCounterTask((counter) -> Task.Result.COMPLETED), HOSTNAME),
+            eventId -> Started.apply(ID, eventId, HOSTNAME)
+        );
+        TaskAggregateSnapshot snapshot = TaskAggregate.fromHistory(ID, history).snapshot();
+        Event completed = Completed.apply(ID, history.getNextEventId(), Task.Result.COMPLETED, Option.empty());
+
+        TaskAggregate aggregate = TaskAggregate.fromSnapshot(snapshot, History.since(snapshot.eventId(), ImmutableList.of(completed)));
+
+        assertThat(aggregate.update(new MemoryReferenceWithCounterTask.AdditionalInformation(3, timestamp))).isEmpty();
+    }
 }
@@ -23,6 +23,8 @@ package org.apache.james.task.eventsourcing;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_2;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_UPDATED;
+import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_UPDATED_INFORMATION;
+import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_WAITING;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_WITH_ADDITIONAL_INFORMATION;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_ID;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,6 +34,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.apache.james.task.TaskExecutionDetails;
+import org.apache.james.task.TaskManager;
 import org.junit.jupiter.api.Test;
 
 import scala.compat.java8.OptionConverters;
@@ -102,4 +105,62 @@ public interface TaskExecutionDetailsProjectionContract {
         List<TaskExecutionDetails> taskExecutionDetails = asJava(testee.list());
         assertThat(taskExecutionDetails).containsOnly(TASK_EXECUTION_DETAILS_UPDATED());
     }
+
+    @Test
+    default void listByStatusShouldReturnEmptyWhenNone() {
+        TaskExecutionDetailsProjection testee = testee();
+        List<TaskExecutionDetails> taskExecutionDetails = asJava(testee.list(TaskManager.Status.COMPLETED));
+        assertThat(taskExecutionDetails).isEmpty();
+    }
+
+    @Test
+    default void listByStatusShouldReturnAllRecordsOfThatStatus() {
+        TaskExecutionDetailsProjection testee = testee();
+        testee.update(TASK_EXECUTION_DETAILS());
+        testee.update(TASK_EXECUTION_DETAILS_2());
+
+        List<TaskExecutionDetails> taskExecutionDetails = asJava(testee.list(TaskManager.Status.COMPLETED));
+        assertThat(taskExecutionDetails).containsOnly(TASK_EXECUTION_DETAILS(), TASK_EXECUTION_DETAILS_2());
+    }
+
+    @Test
+    default void listByStatusShouldNotReturnRecordsOfOtherStatuses() {
+        TaskExecutionDetailsProjection testee = testee();
+        testee.update(TASK_EXECUTION_DETAILS());
+        testee.update(TASK_EXECUTION_DETAILS_WAITING());
+
+        assertThat(asJava(testee.list(TaskManager.Status.WAITING))).containsOnly(TASK_EXECUTION_DETAILS_WAITING());
+        assertThat(asJava(testee.list(TaskManager.Status.COMPLETED))).containsOnly(TASK_EXECUTION_DETAILS());
+        assertThat(asJava(testee.list(TaskManager.Status.IN_PROGRESS))).isEmpty();
+    }
+
+    @Test
+    default void listByStatusShouldReturnLastUpdatedRecords() {
+        TaskExecutionDetailsProjection testee = testee();
+        testee.update(TASK_EXECUTION_DETAILS());
+        testee.update(TASK_EXECUTION_DETAILS_UPDATED());
+
+        assertThat(asJava(testee.list(TaskManager.Status.COMPLETED))).isEmpty();
+        assertThat(asJava(testee.list(TaskManager.Status.FAILED))).containsOnly(TASK_EXECUTION_DETAILS_UPDATED());
+    }
+
+    @Test
+    default void listByStatusShouldReturnLastUpdatedRecordsWhenPreviousIsKnown() {
+        TaskExecutionDetailsProjection testee = testee();
+        testee.update(TASK_EXECUTION_DETAILS());
+        testee.update(TASK_EXECUTION_DETAILS(), TASK_EXECUTION_DETAILS_UPDATED());
+
+        assertThat(asJava(testee.list(TaskManager.Status.COMPLETED))).isEmpty();
+        assertThat(asJava(testee.list(TaskManager.Status.FAILED))).containsOnly(TASK_EXECUTION_DETAILS_UPDATED());
+        assertThat(OptionConverters.toJava(testee.load(TASK_ID()))).contains(TASK_EXECUTION_DETAILS_UPDATED());
+    }
+
+    @Test
+    default void listByStatusShouldReturnLastUpdatedRecordsWhenStatusIsUnchanged() {
+        TaskExecutionDetailsProjection testee = testee();
+        testee.update(TASK_EXECUTION_DETAILS());
+        testee.update(TASK_EXECUTION_DETAILS(), TASK_EXECUTION_DETAILS_UPDATED_INFORMATION());
+
+        assertThat(asJava(testee.list(TaskManager.Status.COMPLETED))).containsOnly(TASK_EXECUTION_DETAILS_UPDATED_INFORMATION());
+    }
 }
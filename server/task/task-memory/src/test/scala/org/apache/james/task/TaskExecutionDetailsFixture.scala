@@ -36,12 +36,14 @@ object TaskExecutionDetailsFixture {
   val TASK_EXECUTION_DETAILS = new TaskExecutionDetails(TASK_ID, TYPE, TaskManager.Status.COMPLETED, SUBMITTED_DATE, SUBMITTED_NODE, EMPTY_ADDITIONAL_INFORMATION)
   val TASK_EXECUTION_DETAILS_2 = new TaskExecutionDetails(TASK_ID_2, TYPE, TaskManager.Status.COMPLETED, SUBMITTED_DATE, SUBMITTED_NODE, EMPTY_ADDITIONAL_INFORMATION)
   val TASK_EXECUTION_DETAILS_UPDATED = new TaskExecutionDetails(TASK_ID, TYPE, TaskManager.Status.FAILED, SUBMITTED_DATE, SUBMITTED_NODE, EMPTY_ADDITIONAL_INFORMATION)
+  val TASK_EXECUTION_DETAILS_WAITING = new TaskExecutionDetails(TASK_ID_2, TYPE, TaskManager.Status.WAITING, SUBMITTED_DATE, SUBMITTED_NODE, EMPTY_ADDITIONAL_INFORMATION)
 
   val DATE: Instant = Instant.parse("2007-07-03T10:15:30.00Z")
   val CLOCK: Clock = Clock.fixed(DATE, ZoneId.of("UTC"))
 
   val ADDITIONAL_INFORMATION: () => Optional[AdditionalInformation] = () => Optional.of(new MemoryReferenceWithCounterTask.AdditionalInformation(5, CLOCK.instant()))
   val TASK_EXECUTION_DETAILS_WITH_ADDITIONAL_INFORMATION = new TaskExecutionDetails(TASK_ID, MemoryReferenceWithCounterTask.TYPE, TaskManager.Status.COMPLETED, SUBMITTED_DATE_2, SUBMITTED_NODE_2, ADDITIONAL_INFORMATION)
+  val TASK_EXECUTION_DETAILS_UPDATED_INFORMATION = new TaskExecutionDetails(TASK_ID, TYPE, TaskManager.Status.COMPLETED, SUBMITTED_DATE, SUBMITTED_NODE, ADDITIONAL_INFORMATION)
 
 }
 
@@ -30,23 +30,32 @@ import java.net.Socket;
 import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.james.core.Username;
+import org.apache.james.metrics.api.Metric;
 import org.apache.james.metrics.api.MetricFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.Throwing;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.FileBackedOutputStream;
 
 /**
  * Sends the message through daemonized SpamAssassin (spamd), visit <a
  * href="SpamAssassin.org">SpamAssassin.org</a> for info on configuration.
+ *
+ * spamd closes the connection after each answer, so connections can not be
+ * reused. Instead the number of requests in flight against spamd is bounded:
+ * callers sharing an invoker wait for a slot rather than piling up connections
+ * on a saturated daemon.
  */
 public class SpamAssassinInvoker {
     private static final Logger LOGGER = LoggerFactory.getLogger(SpamAssassinInvoker.class);
@@ -66,10 +75,17 @@ public class SpamAssassinInvoker {
     private static final int HITS_INDEX = 3;
     private static final int REQUIRED_HITS_INDEX = 5;
     private static final String CRLF = "\r\n";
+    private static final int REPORT_IN_MEMORY_THRESHOLD = 100 * 1024;
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 16;
+    public static final String IN_FLIGHT_METRIC_NAME = "spamAssassin-inflight";
+    public static final String SATURATED_METRIC_NAME = "spamAssassin-saturated";
 
     private final MetricFactory metricFactory;
     private final String spamdHost;
     private final int spamdPort;
+    private final Semaphore requestSlots;
+    private final Metric inFlightRequests;
+    private final Metric saturatedRequests;
 
     /**
      * Init the spamassassin invoker
@@ -79,9 +95,26 @@ public class SpamAssassinInvoker {
      * @param spamdPort
      */
     public SpamAssassinInvoker(MetricFactory metricFactory, String spamdHost, int spamdPort) {
+        this(metricFactory, spamdHost, spamdPort, DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
+
+    /**
+     * Init the spamassassin invoker
+     *
+     * @param spamdHost
+     *            The host on which spamd runs
+     * @param spamdPort
+     * @param maxConcurrentRequests
+     *            The maximum count of requests this invoker sends concurrently to spamd
+     */
+    public SpamAssassinInvoker(MetricFactory metricFactory, String spamdHost, int spamdPort, int maxConcurrentRequests) {
+        Preconditions.checkArgument(maxConcurrentRequests > 0, "'maxConcurrentRequests' should be strictly positive");
         this.metricFactory = metricFactory;
         this.spamdHost = spamdHost;
         this.spamdPort = spamdPort;
+        this.requestSlots = new Semaphore(maxConcurrentRequests, true);
+        this.inFlightRequests = metricFactory.generate(IN_FLIGHT_METRIC_NAME);
+        this.saturatedRequests = metricFactory.generate(SATURATED_METRIC_NAME);
     }
 
     /**
@@ -111,6 +144,15 @@ public class SpamAssassinInvoker {
     }
 
     private SpamAssassinResult scanMailWithAdditionalHeaders(MimeMessage message, String... additionalHeaders) throws MessagingException {
+        acquireRequestSlot();
+        try {
+            return doScanMail(message, additionalHeaders);
+        } finally {
+            releaseRequestSlot();
+        }
+    }
+
+    private SpamAssassinResult doScanMail(MimeMessage message, String... additionalHeaders) throws MessagingException {
         try (Socket socket = new Socket(spamdHost, spamdPort);
              OutputStream out = socket.getOutputStream();
              BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(out);
@@ -218,6 +260,30 @@ public class SpamAssassinInvoker {
     }
 
     private boolean reportMessageAs(InputStream message, Username username, MessageClass messageClass) throws MessagingException {
+        // spamd needs the Content-length upfront: spool the message, spilling large ones to disk
+        FileBackedOutputStream spooledMessage = new FileBackedOutputStream(REPORT_IN_MEMORY_THRESHOLD, true);
+        try {
+            long contentLength = ByteStreams.copy(message, spooledMessage);
+            spooledMessage.close();
+
+            acquireRequestSlot();
+            try {
+                return doReportMessageAs(spooledMessage, contentLength, username, messageClass);
+            } finally {
+                releaseRequestSlot();
+            }
+        } catch (IOException e) {
+            throw new MessagingException("Error spooling message to report to spamd", e);
+        } finally {
+            try {
+                spooledMessage.reset();
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete the spooled message reported to spamd", e);
+            }
+        }
+    }
+
+    private boolean doReportMessageAs(FileBackedOutputStream spooledMessage, long contentLength, Username username, MessageClass messageClass) throws MessagingException {
         try (Socket socket = new Socket(spamdHost, spamdPort);
              OutputStream out = socket.getOutputStream();
              BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(out);
@@ -226,10 +292,9 @@ public class SpamAssassinInvoker {
 
             LOGGER.debug("Report mail as {}", messageClass);
 
-            byte[] byteArray = IOUtils.toByteArray(message);
             writer.write("TELL SPAMC/1.2");
             writer.write(CRLF);
-            writer.write("Content-length: " + byteArray.length);
+            writer.write("Content-length: " + contentLength);
             writer.write(CRLF);
             writer.write("Message-class: " + messageClass.value);
             writer.write(CRLF);
@@ -240,8 +305,8 @@ public class SpamAssassinInvoker {
             writer.write(CRLF);
             writer.flush();
 
-            out.write(byteArray);
-            out.flush();
+            spooledMessage.asByteSource().copyTo(bufferedOutputStream);
+            bufferedOutputStream.flush();
             socket.shutdownOutput();
 
             boolean hasBeenSet = in.lines().anyMatch(this::hasBeenSet);
@@ -261,4 +326,22 @@ public class SpamAssassinInvoker {
     private boolean hasBeenSet(String line) {
         return line.startsWith("DidSet: ");
     }
+
+    private void acquireRequestSlot() throws MessagingException {
+        if (!requestSlots.tryAcquire()) {
+            saturatedRequests.increment();
+            try {
+                requestSlots.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MessagingException("Interrupted while waiting for a spamd request slot", e);
+            }
+        }
+        inFlightRequests.increment();
+    }
+
+    private void releaseRequestSlot() {
+        inFlightRequests.decrement();
+        requestSlots.release();
+    }
 }
@@ -0,0 +1,195 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.spamassassin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.mail.internet.MimeMessage;
+
+import org.apache.james.core.Username;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.util.MimeMessageUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+
+class SpamAssassinInvokerLimitsTest {
+    private static final Username USERNAME = Username.of("any@james");
+    private static final int MAX_CONCURRENT_REQUESTS = 2;
+
+    private FakeSpamd spamd;
+    private RecordingMetricFactory metricFactory;
+    private SpamAssassinInvoker testee;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        spamd = new FakeSpamd();
+        metricFactory = new RecordingMetricFactory();
+        testee = new SpamAssassinInvoker(metricFactory, "127.0.0.1", spamd.getPort(), MAX_CONCURRENT_REQUESTS);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        spamd.close();
+    }
+
+    @Test
+    void concurrentScansShouldNotExceedMaxConcurrentRequests() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<SpamAssassinResult>> results = IntStream.range(0, 8)
+                .mapToObj(i -> executor.submit(() -> testee.scanMail(message("scan " + i))))
+                .collect(Collectors.toList());
+            for (Future<SpamAssassinResult> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS).getHits()).isEqualTo("3");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(spamd.maxConcurrentRequests.get()).isLessThanOrEqualTo(MAX_CONCURRENT_REQUESTS);
+    }
+
+    @Test
+    void saturationShouldBeRecorded() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<SpamAssassinResult>> results = IntStream.range(0, 8)
+                .mapToObj(i -> executor.submit(() -> testee.scanMail(message("scan " + i))))
+                .collect(Collectors.toList());
+            for (Future<SpamAssassinResult> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(metricFactory.countFor(SpamAssassinInvoker.SATURATED_METRIC_NAME)).isPositive();
+        assertThat(metricFactory.countFor(SpamAssassinInvoker.IN_FLIGHT_METRIC_NAME)).isZero();
+    }
+
+    @Test
+    void learnAsSpamShouldAnnounceTheStreamedContentLength() throws Exception {
+        byte[] largeMessage = ("Subject: large\r\n\r\n" + Strings.repeat("0123456789", 30 * 1024)).getBytes(StandardCharsets.UTF_8);
+
+        boolean reported = testee.learnAsSpam(new ByteArrayInputStream(largeMessage), USERNAME);
+
+        assertThat(reported).isTrue();
+        assertThat(spamd.lastContentLength.get()).isEqualTo(largeMessage.length);
+        assertThat(spamd.lastReceivedBodyLength.get()).isEqualTo(largeMessage.length);
+    }
+
+    private MimeMessage message(String subject) throws Exception {
+        return MimeMessageUtil.mimeMessageFromString("Subject: " + subject + "\r\n\r\nbody\r\n");
+    }
+
+    private static class FakeSpamd implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final ExecutorService executor;
+        private final AtomicInteger concurrentRequests = new AtomicInteger();
+        private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+        private final AtomicLong lastContentLength = new AtomicLong(-1);
+        private final AtomicLong lastReceivedBodyLength = new AtomicLong(-1);
+
+        FakeSpamd() throws IOException {
+            serverSocket = new ServerSocket(0);
+            executor = Executors.newCachedThreadPool();
+            executor.submit(this::acceptLoop);
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private Void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    executor.submit(() -> handle(socket));
+                } catch (IOException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        private Void handle(Socket socket) throws Exception {
+            try (Socket client = socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.ISO_8859_1));
+                 OutputStream out = client.getOutputStream()) {
+                int current = concurrentRequests.incrementAndGet();
+                maxConcurrentRequests.accumulateAndGet(current, Math::max);
+                String command;
+                try {
+                    command = in.readLine();
+                    String header = in.readLine();
+                    while (header != null && !header.isEmpty()) {
+                        if (header.startsWith("Content-length: ")) {
+                            lastContentLength.set(Long.parseLong(header.substring("Content-length: ".length())));
+                        }
+                        header = in.readLine();
+                    }
+                    long bodyLength = 0;
+                    while (in.read() != -1) {
+                        bodyLength++;
+                    }
+                    lastReceivedBodyLength.set(bodyLength);
+
+                    Thread.sleep(50);
+                } finally {
+                    // the answer may be consumed before the connection is closed: stop counting before answering
+                    concurrentRequests.decrementAndGet();
+                }
+                if (command.startsWith("TELL")) {
+                    out.write("SPAMD/1.1 0 EX_OK\r\nDidSet: local\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                } else {
+                    out.write("SPAMD/1.1 0 EX_OK\r\nSpam: False ; 3 / 5\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                }
+                out.flush();
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            executor.shutdownNow();
+        }
+    }
+}